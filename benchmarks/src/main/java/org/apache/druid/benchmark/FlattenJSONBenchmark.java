@@ -54,6 +54,7 @@ public class FlattenJSONBenchmark
   List<String> nestedInputs;
   List<String> jqInputs;
   Parser flatParser;
+  Parser streamingParser;
   Parser nestedParser;
   Parser jqParser;
   Parser fieldDiscoveryParser;
@@ -80,6 +81,7 @@ public class FlattenJSONBenchmark
     }
 
     flatParser = gen.getFlatParser();
+    streamingParser = gen.getStreamingParser();
     nestedParser = gen.getNestedParser();
     jqParser = gen.getJqParser();
     fieldDiscoveryParser = gen.getFieldDiscoveryParser();
@@ -99,6 +101,19 @@ public class FlattenJSONBenchmark
     return parsed;
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Map<String, Object> streaming(final Blackhole blackhole)
+  {
+    Map<String, Object> parsed = streamingParser.parseToMap(flatInputs.get(flatCounter));
+    for (String s : parsed.keySet()) {
+      blackhole.consume(parsed.get(s));
+    }
+    flatCounter = (flatCounter + 1) % numEvents;
+    return parsed;
+  }
+
   @Benchmark
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -62,6 +62,18 @@ public class FlattenJSONBenchmarkUtil
     return spec.makeParser();
   }
 
+  public Parser getStreamingParser()
+  {
+    JSONParseSpec spec = new JSONParseSpec(
+        new TimestampSpec("ts", "iso", null),
+        new DimensionsSpec(null, null, null),
+        null,
+        null,
+        true
+    );
+    return spec.makeParser();
+  }
+
   public Parser getFieldDiscoveryParser()
   {
     List<JSONPathFieldSpec> fields = new ArrayList<>();
@@ -32,7 +32,9 @@ import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.query.aggregation.hyperloglog.HyperUniquesSerde;
+import org.apache.druid.segment.BaseProgressIndicator;
 import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.IndexMerger;
 import org.apache.druid.segment.IndexMergerV9;
 import org.apache.druid.segment.IndexSpec;
 import org.apache.druid.segment.QueryableIndex;
@@ -79,6 +81,13 @@ public class IndexMergeBenchmark
   @Param({"true", "false"})
   private boolean rollup;
 
+  /**
+   * {@link IndexMerger#UNLIMITED_MAX_COLUMNS_TO_MERGE} merges all segments at once, while the other value merges them
+   * two at a time in multiple phases for the basic schema.
+   */
+  @Param({"-1", "50"})
+  private int maxColumnsToMerge;
+
   private static final Logger log = new Logger(IndexMergeBenchmark.class);
   private static final int RNG_SEED = 9999;
   private static final IndexMergerV9 INDEX_MERGER_V9;
@@ -191,7 +200,9 @@ public class IndexMergeBenchmark
           schemaInfo.getAggsArray(),
           tmpFile,
           new IndexSpec(),
-          null
+          new BaseProgressIndicator(),
+          null,
+          maxColumnsToMerge
       );
 
       blackhole.consume(mergedFile);
@@ -70,7 +70,8 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Benchmark that compares the same groupBy query through the native query layer and through the SQL layer.
+ * Benchmark that compares the same groupBy query through the native query layer and through the SQL layer, with and
+ * without the SQL plan cache.
  */
 @State(Scope.Benchmark)
 @Fork(value = 1)
@@ -87,6 +88,7 @@ public class SqlBenchmark
   private SegmentGenerator segmentGenerator;
   private SpecificSegmentsQuerySegmentWalker walker;
   private SqlLifecycleFactory sqlLifecycleFactory;
+  private SqlLifecycleFactory planCachingSqlLifecycleFactory;
   private GroupByQuery groupByQuery;
   private String sqlQuery;
   private Closer resourceCloser;
@@ -127,6 +129,25 @@ public class SqlBenchmark
         CalciteTests.getJsonMapper()
     );
     this.sqlLifecycleFactory = CalciteTests.createSqlLifecycleFactory(plannerFactory);
+    final PlannerConfig planCachingPlannerConfig = new PlannerConfig()
+    {
+      @Override
+      public int getPlanCacheSize()
+      {
+        return 100;
+      }
+    };
+    final PlannerFactory planCachingPlannerFactory = new PlannerFactory(
+        druidSchema,
+        systemSchema,
+        CalciteTests.createMockQueryLifecycleFactory(walker, conglomerate),
+        CalciteTests.createOperatorTable(),
+        CalciteTests.createExprMacroTable(),
+        planCachingPlannerConfig,
+        AuthTestUtils.TEST_AUTHORIZER_MAPPER,
+        CalciteTests.getJsonMapper()
+    );
+    this.planCachingSqlLifecycleFactory = CalciteTests.createSqlLifecycleFactory(planCachingPlannerFactory);
     groupByQuery = GroupByQuery
         .builder()
         .setDataSource("foo")
@@ -189,4 +210,18 @@ public class SqlBenchmark
     ).toList();
     blackhole.consume(results);
   }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void queryPlannerWithPlanCache(Blackhole blackhole) throws Exception
+  {
+    SqlLifecycle sqlLifecycle = planCachingSqlLifecycleFactory.factorize();
+    final List<Object[]> results = sqlLifecycle.runSimple(
+        sqlQuery,
+        null,
+        NoopEscalator.getInstance().createEscalatedAuthenticationResult()
+    ).toList();
+    blackhole.consume(results);
+  }
 }
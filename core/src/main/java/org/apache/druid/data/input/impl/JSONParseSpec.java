@@ -23,10 +23,13 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonParser.Feature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.parsers.JSONPathParser;
 import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+import org.apache.druid.java.util.common.parsers.JSONStreamingParser;
 import org.apache.druid.java.util.common.parsers.Parser;
 
+import javax.annotation.Nullable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,16 +41,22 @@ public class JSONParseSpec extends NestedDataParseSpec<JSONPathSpec>
 {
   private final ObjectMapper objectMapper;
   private final Map<String, Boolean> featureSpec;
+  private final boolean streaming;
 
   @JsonCreator
   public JSONParseSpec(
       @JsonProperty("timestampSpec") TimestampSpec timestampSpec,
       @JsonProperty("dimensionsSpec") DimensionsSpec dimensionsSpec,
       @JsonProperty("flattenSpec") JSONPathSpec flattenSpec,
-      @JsonProperty("featureSpec") Map<String, Boolean> featureSpec
+      @JsonProperty("featureSpec") Map<String, Boolean> featureSpec,
+      @JsonProperty("streaming") @Nullable Boolean streaming
   )
   {
     super(timestampSpec, dimensionsSpec, flattenSpec != null ? flattenSpec : JSONPathSpec.DEFAULT);
+    this.streaming = streaming != null && streaming;
+    if (this.streaming && !JSONStreamingParser.supports(getFlattenSpec())) {
+      throw new IAE("Streaming JSON parsing only supports root fields in the flattenSpec");
+    }
     this.objectMapper = new ObjectMapper();
     this.featureSpec = (featureSpec == null) ? new HashMap<>() : featureSpec;
     for (Map.Entry<String, Boolean> entry : this.featureSpec.entrySet()) {
@@ -56,10 +65,20 @@ public class JSONParseSpec extends NestedDataParseSpec<JSONPathSpec>
     }
   }
 
+  public JSONParseSpec(
+      TimestampSpec timestampSpec,
+      DimensionsSpec dimensionsSpec,
+      JSONPathSpec flattenSpec,
+      Map<String, Boolean> featureSpec
+  )
+  {
+    this(timestampSpec, dimensionsSpec, flattenSpec, featureSpec, null);
+  }
+
   @Deprecated
   public JSONParseSpec(TimestampSpec ts, DimensionsSpec dims)
   {
-    this(ts, dims, null, null);
+    this(ts, dims, null, null, null);
   }
 
   @Override
@@ -70,19 +89,22 @@ public class JSONParseSpec extends NestedDataParseSpec<JSONPathSpec>
   @Override
   public Parser<String, Object> makeParser()
   {
+    if (streaming) {
+      return new JSONStreamingParser(getFlattenSpec(), objectMapper);
+    }
     return new JSONPathParser(getFlattenSpec(), objectMapper);
   }
 
   @Override
   public ParseSpec withTimestampSpec(TimestampSpec spec)
   {
-    return new JSONParseSpec(spec, getDimensionsSpec(), getFlattenSpec(), getFeatureSpec());
+    return new JSONParseSpec(spec, getDimensionsSpec(), getFlattenSpec(), getFeatureSpec(), streaming);
   }
 
   @Override
   public ParseSpec withDimensionsSpec(DimensionsSpec spec)
   {
-    return new JSONParseSpec(getTimestampSpec(), spec, getFlattenSpec(), getFeatureSpec());
+    return new JSONParseSpec(getTimestampSpec(), spec, getFlattenSpec(), getFeatureSpec(), streaming);
   }
 
   @JsonProperty
@@ -91,6 +113,16 @@ public class JSONParseSpec extends NestedDataParseSpec<JSONPathSpec>
     return featureSpec;
   }
 
+  /**
+   * Whether the input is read with {@link JSONStreamingParser} rather than through a JSON tree. Only root fields can
+   * be used in the flattenSpec then.
+   */
+  @JsonProperty
+  public boolean isStreaming()
+  {
+    return streaming;
+  }
+
   @Override
   public boolean equals(final Object o)
   {
@@ -104,13 +136,14 @@ public class JSONParseSpec extends NestedDataParseSpec<JSONPathSpec>
       return false;
     }
     final JSONParseSpec that = (JSONParseSpec) o;
-    return Objects.equals(featureSpec, that.featureSpec);
+    return streaming == that.streaming &&
+           Objects.equals(featureSpec, that.featureSpec);
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(super.hashCode(), featureSpec);
+    return Objects.hash(super.hashCode(), featureSpec, streaming);
   }
 
   @Override
@@ -121,6 +154,7 @@ public class JSONParseSpec extends NestedDataParseSpec<JSONPathSpec>
            ", dimensionsSpec=" + getDimensionsSpec() +
            ", flattenSpec=" + getFlattenSpec() +
            ", featureSpec=" + featureSpec +
+           ", streaming=" + streaming +
            '}';
   }
 }
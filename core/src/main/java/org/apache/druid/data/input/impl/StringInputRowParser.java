@@ -26,6 +26,7 @@ import com.google.common.collect.Iterators;
 import org.apache.druid.data.input.ByteBufferInputRowParser;
 import org.apache.druid.data.input.InputRow;
 import org.apache.druid.java.util.common.collect.Utils;
+import org.apache.druid.java.util.common.parsers.JSONStreamingParser;
 import org.apache.druid.java.util.common.parsers.ParseException;
 import org.apache.druid.java.util.common.parsers.Parser;
 
@@ -38,6 +39,7 @@ import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  */
@@ -48,6 +50,8 @@ public class StringInputRowParser implements ByteBufferInputRowParser
   private final ParseSpec parseSpec;
   private final MapInputRowParser mapParser;
   private final Charset charset;
+  @Nullable
+  private final Set<String> requiredFields;
 
   private Parser<String, Object> parser;
   private CharBuffer chars;
@@ -57,6 +61,11 @@ public class StringInputRowParser implements ByteBufferInputRowParser
       @JsonProperty("parseSpec") ParseSpec parseSpec,
       @JsonProperty("encoding") String encoding
   )
+  {
+    this(parseSpec, encoding, null);
+  }
+
+  protected StringInputRowParser(ParseSpec parseSpec, String encoding, @Nullable Set<String> requiredFields)
   {
     this.parseSpec = Preconditions.checkNotNull(parseSpec, "parseSpec");
     this.mapParser = new MapInputRowParser(parseSpec);
@@ -66,6 +75,7 @@ public class StringInputRowParser implements ByteBufferInputRowParser
     } else {
       this.charset = DEFAULT_CHARSET;
     }
+    this.requiredFields = requiredFields;
   }
 
   @Deprecated
@@ -77,6 +87,11 @@ public class StringInputRowParser implements ByteBufferInputRowParser
   @Override
   public List<InputRow> parseBatch(ByteBuffer input)
   {
+    initializeParser();
+    if (parser instanceof JSONStreamingParser && DEFAULT_CHARSET.equals(charset)) {
+      // read the UTF-8 bytes directly, without decoding them into a String first
+      return Utils.nullableListOf(parseMap(((JSONStreamingParser) parser).parseToMap(input)));
+    }
     return Utils.nullableListOf(parseMap(buildStringKeyMap(input)));
   }
 
@@ -96,7 +111,26 @@ public class StringInputRowParser implements ByteBufferInputRowParser
   @Override
   public StringInputRowParser withParseSpec(ParseSpec parseSpec)
   {
-    return new StringInputRowParser(parseSpec, getEncoding());
+    return new StringInputRowParser(parseSpec, getEncoding(), requiredFields);
+  }
+
+  /**
+   * Returns a parser whose rows are only read through the given fields, which lets the streaming JSON parser skip the
+   * other fields of the input. The fields must include everything read from the parsed rows: the timestamp column,
+   * the dimensions, and the inputs of the metrics and of the transforms. See DataSchema#getParser().
+   */
+  public StringInputRowParser withRequiredFields(@Nullable Set<String> requiredFields)
+  {
+    return new StringInputRowParser(parseSpec, getEncoding(), requiredFields);
+  }
+
+  /**
+   * Returns the fields given with {@link #withRequiredFields}, or null if the parsed rows may be read through any field.
+   */
+  @Nullable
+  public Set<String> getRequiredFields()
+  {
+    return requiredFields;
   }
 
   private Map<String, Object> buildStringKeyMap(ByteBuffer input)
@@ -133,6 +167,9 @@ public class StringInputRowParser implements ByteBufferInputRowParser
       // parser should be created when it is really used to avoid unnecessary initialization of the underlying
       // parseSpec.
       parser = parseSpec.makeParser();
+      if (parser instanceof JSONStreamingParser && requiredFields != null) {
+        parser = ((JSONStreamingParser) parser).withRequiredFields(requiredFields);
+      }
     }
   }
 
@@ -38,6 +38,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -66,9 +67,13 @@ public abstract class Fetcher<T> implements Iterator<OpenedObject<T>>
   private final Deque<Future<Void>> fetchFutures = new ArrayDeque<>();
   private PrefetchConfig prefetchConfig;
 
+  // Total number of downloaded bytes and the total time spent in downloading them, used to report the fetch throughput.
+  private final AtomicLong totalDownloadedBytes = new AtomicLong(0);
+  private final AtomicLong totalDownloadNanos = new AtomicLong(0);
+
   // nextFetchIndex indicates which object should be downloaded when fetch is triggered.
-  // This variable is always read by the same thread regardless of prefetch is enabled or not.
-  private int nextFetchIndex;
+  // This variable can be updated by multiple fetch threads if PrefetchConfig.fetchThreads is larger than 1.
+  private final AtomicInteger nextFetchIndex = new AtomicInteger();
 
   private int numRemainingObjects;
 
@@ -90,34 +95,39 @@ public abstract class Fetcher<T> implements Iterator<OpenedObject<T>>
 
     // (*) If cache is initialized, put all cached files to the queue.
     this.fetchedFiles.addAll(cacheManager.getFiles());
-    this.nextFetchIndex = fetchedFiles.size();
+    this.nextFetchIndex.set(fetchedFiles.size());
     if (cacheManager.isEnabled() || prefetchEnabled) {
       Preconditions.checkNotNull(temporaryDirectory, "temporaryDirectory");
     }
-    if (prefetchEnabled) {
-      fetchIfNeeded(0L);
-    }
+    // Prefetch is triggered by the first next() call rather than here, because fetch threads call download() which
+    // can access the fields of subclasses which are not initialized yet at this point.
   }
 
   /**
-   * Submit a fetch task if remainingBytes is smaller than prefetchTriggerBytes.
+   * Submit fetch tasks if remainingBytes is smaller than prefetchTriggerBytes and no fetch task is running.
+   * {@link PrefetchConfig#fetchThreads} tasks are submitted at once, so that as many objects are downloaded
+   * concurrently.
    */
   private void fetchIfNeeded(long remainingBytes)
   {
-    if ((fetchFutures.isEmpty() || fetchFutures.peekLast().isDone())
+    if (fetchFutures.stream().allMatch(Future::isDone)
         && remainingBytes <= prefetchConfig.getPrefetchTriggerBytes()) {
-      Future<Void> fetchFuture = fetchExecutor.submit(() -> {
-        fetch();
-        return null;
-      });
-      fetchFutures.add(fetchFuture);
+      for (int i = 0; i < prefetchConfig.getFetchThreads(); i++) {
+        Future<Void> fetchFuture = fetchExecutor.submit(() -> {
+          fetch();
+          return null;
+        });
+        fetchFutures.add(fetchFuture);
+      }
     }
   }
 
   /**
    * Fetch objects to a local disk up to {@link PrefetchConfig#maxFetchCapacityBytes}.
-   * This method is not thread safe and must be called by a single thread.  Note that even
-   * {@link PrefetchConfig#maxFetchCapacityBytes} is 0, at least 1 file is always fetched.
+   * This method can be called by multiple threads at the same time, each of which downloads different objects.
+   * Since the fetch capacity is checked before starting each download, the actual fetched size can exceed
+   * {@link PrefetchConfig#maxFetchCapacityBytes} by up to {@link PrefetchConfig#fetchThreads} objects.  Note that
+   * even {@link PrefetchConfig#maxFetchCapacityBytes} is 0, at least 1 file is always fetched.
    * This is for simplifying design, and should be improved when our client implementations for cloud storages
    * like S3 support range scan.
    * <p>
@@ -126,12 +136,19 @@ public abstract class Fetcher<T> implements Iterator<OpenedObject<T>>
    */
   private void fetch() throws Exception
   {
-    for (; nextFetchIndex < objects.size()
-           && fetchedBytes.get() <= prefetchConfig.getMaxFetchCapacityBytes(); nextFetchIndex++) {
-      final T object = objects.get(nextFetchIndex);
-      LOG.info("Fetching [%d]th object[%s], fetchedBytes[%d]", nextFetchIndex, object, fetchedBytes.get());
+    while (fetchedBytes.get() <= prefetchConfig.getMaxFetchCapacityBytes()) {
+      final int fetchIndex = nextFetchIndex.getAndUpdate(i -> i < objects.size() ? i + 1 : i);
+      if (fetchIndex >= objects.size()) {
+        break;
+      }
+      final T object = objects.get(fetchIndex);
+      LOG.info("Fetching [%d]th object[%s], fetchedBytes[%d]", fetchIndex, object, fetchedBytes.get());
       final File outFile = File.createTempFile(FETCH_FILE_PREFIX, null, temporaryDirectory);
-      fetchedBytes.addAndGet(download(object, outFile));
+      final long startNanos = System.nanoTime();
+      final long downloadedBytes = download(object, outFile);
+      totalDownloadNanos.addAndGet(System.nanoTime() - startNanos);
+      totalDownloadedBytes.addAndGet(downloadedBytes);
+      fetchedBytes.addAndGet(downloadedBytes);
       fetchedFiles.put(new FetchedFile<>(object, outFile, getFileCloser(outFile, fetchedBytes)));
     }
   }
@@ -172,6 +189,9 @@ public abstract class Fetcher<T> implements Iterator<OpenedObject<T>>
     try {
       final OpenedObject<T> openedObject = prefetchEnabled ? openObjectFromLocal() : openObjectFromRemote();
       numRemainingObjects--;
+      if (numRemainingObjects == 0) {
+        logFetchStats();
+      }
       return openedObject;
     }
     catch (IOException e) {
@@ -179,6 +199,21 @@ public abstract class Fetcher<T> implements Iterator<OpenedObject<T>>
     }
   }
 
+  private void logFetchStats()
+  {
+    final long downloadedBytes = totalDownloadedBytes.get();
+    if (downloadedBytes > 0) {
+      final long downloadMillis = TimeUnit.NANOSECONDS.toMillis(totalDownloadNanos.get());
+      LOG.info(
+          "Fetched [%,d] bytes with [%d] threads, spending [%,d] ms in downloading ([%,.2f] MB/s per thread)",
+          downloadedBytes,
+          prefetchEnabled ? prefetchConfig.getFetchThreads() : 1,
+          downloadMillis,
+          downloadedBytes / 1024. / 1024. / Math.max(downloadMillis, 1) * 1000
+      );
+    }
+  }
+
   private void checkFetchException(boolean wait)
   {
     try {
@@ -245,7 +280,7 @@ public abstract class Fetcher<T> implements Iterator<OpenedObject<T>>
         fetch();
         FetchedFile<T> fetchedFile = fetchedFiles.poll();
         if (fetchedFile == null) {
-          throw new ISE("Cannot fetch object[%s]", objects.get(nextFetchIndex - 1));
+          throw new ISE("Cannot fetch object[%s]", objects.get(nextFetchIndex.get() - 1));
         }
         final FetchedFile<T> cached = cacheIfPossible(fetchedFile);
         return new OpenedObject<>(cached);
@@ -254,9 +289,9 @@ public abstract class Fetcher<T> implements Iterator<OpenedObject<T>>
         throw new RuntimeException(e);
       }
     } else {
-      final T object = objects.get(nextFetchIndex);
-      LOG.info("Reading [%d]th object[%s]", nextFetchIndex, object);
-      nextFetchIndex++;
+      final int fetchIndex = nextFetchIndex.getAndIncrement();
+      final T object = objects.get(fetchIndex);
+      LOG.info("Reading [%d]th object[%s]", fetchIndex, object);
       return generateOpenObject(object);
     }
   }
@@ -44,7 +44,6 @@ public class FileFetcher<T> extends Fetcher<T>
   private static final int BUFFER_SIZE = 1024 * 4;
   private final ObjectOpenFunction<T> openObjectFunction;
   private final Predicate<Throwable> retryCondition;
-  private final byte[] buffer;
   // maximum retry for fetching an object from the remote site
   private final int maxFetchRetry;
 
@@ -75,7 +74,6 @@ public class FileFetcher<T> extends Fetcher<T>
 
     this.openObjectFunction = openObjectFunction;
     this.retryCondition = retryCondition;
-    this.buffer = new byte[BUFFER_SIZE];
     this.maxFetchRetry = maxFetchRetries;
   }
 
@@ -96,7 +94,8 @@ public class FileFetcher<T> extends Fetcher<T>
           () -> {
             try (final InputStream is = openObjectFunction.open(object);
                  final OutputStream os = new FileOutputStream(outFile)) {
-              return IOUtils.copyLarge(is, os, buffer);
+              // Allocate a buffer per download since this method can be called by multiple fetch threads.
+              return IOUtils.copyLarge(is, os, new byte[BUFFER_SIZE]);
             }
           },
           retryCondition,
@@ -19,6 +19,8 @@
 
 package org.apache.druid.data.input.impl.prefetch;
 
+import com.google.common.base.Preconditions;
+
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,6 +31,7 @@ public class PrefetchConfig
   public static final long DEFAULT_MAX_CACHE_CAPACITY_BYTES = 1024 * 1024 * 1024; // 1GB
   public static final long DEFAULT_MAX_FETCH_CAPACITY_BYTES = 1024 * 1024 * 1024; // 1GB
   public static final long DEFAULT_FETCH_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(60);
+  public static final int DEFAULT_FETCH_THREADS = 1;
 
   // A roughly max size of total fetched objects, but the actual fetched size can be bigger. The reason is our current
   // client implementations for cloud storages like s3 don't support range scan yet, so we must download the whole file
@@ -44,12 +47,16 @@ public class PrefetchConfig
   // timeout for fetching an object from the remote site
   private final long fetchTimeout;
 
+  // number of threads fetching objects concurrently. If it's larger than 1, each fetched object is also read and
+  // decompressed ahead of the parser by a separate thread.
+  private final int fetchThreads;
 
   public PrefetchConfig(
       Long maxCacheCapacityBytes,
       Long maxFetchCapacityBytes,
       Long prefetchTriggerBytes,
-      Long fetchTimeout
+      Long fetchTimeout,
+      Integer fetchThreads
   )
   {
     this.maxCacheCapacityBytes = maxCacheCapacityBytes == null
@@ -62,6 +69,8 @@ public class PrefetchConfig
                                 ? this.maxFetchCapacityBytes / 2
                                 : prefetchTriggerBytes;
     this.fetchTimeout = fetchTimeout == null ? DEFAULT_FETCH_TIMEOUT_MS : fetchTimeout;
+    this.fetchThreads = fetchThreads == null ? DEFAULT_FETCH_THREADS : fetchThreads;
+    Preconditions.checkArgument(this.fetchThreads > 0, "fetchThreads[%s] should be positive", this.fetchThreads);
   }
 
   public long getMaxCacheCapacityBytes()
@@ -84,4 +93,9 @@ public class PrefetchConfig
     return fetchTimeout;
   }
 
+  public int getFetchThreads()
+  {
+    return fetchThreads;
+  }
+
 }
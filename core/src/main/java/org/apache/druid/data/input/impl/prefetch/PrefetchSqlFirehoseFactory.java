@@ -107,7 +107,8 @@ public abstract class PrefetchSqlFirehoseFactory<T>
         maxCacheCapacityBytes,
         maxFetchCapacityBytes,
         prefetchTriggerBytes,
-        fetchTimeout
+        fetchTimeout,
+        null
     );
     this.cacheManager = new CacheManager<>(
         prefetchConfig.getMaxCacheCapacityBytes()
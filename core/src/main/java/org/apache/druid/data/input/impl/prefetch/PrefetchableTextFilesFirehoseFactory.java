@@ -62,6 +62,9 @@ import java.util.concurrent.TimeUnit;
  * objects.
  * <br/>
  * - Retry: if an exception occurs while downloading an object, it retries again up to {@link #maxFetchRetry}.
+ * <br/>
+ * - Parallel fetch: if {@link PrefetchConfig#fetchThreads} is larger than 1, that many objects are downloaded
+ * concurrently, and each object is read and decompressed by a separate thread ahead of the parser.
  * <p/>
  * <p>
  * This implementation can be useful when the cost for reading input objects is large as reading from AWS S3 because
@@ -92,10 +95,13 @@ public abstract class PrefetchableTextFilesFirehoseFactory<T>
   private static final Logger LOG = new Logger(PrefetchableTextFilesFirehoseFactory.class);
 
   private static final CacheManager DISABLED_CACHE_MANAGER = new CacheManager(0);
-  private static final PrefetchConfig DISABLED_PREFETCH_CONFIG = new PrefetchConfig(0L, 0L, 0L, 0L);
+  private static final PrefetchConfig DISABLED_PREFETCH_CONFIG = new PrefetchConfig(0L, 0L, 0L, 0L, null);
 
   public static final int DEFAULT_MAX_FETCH_RETRY = 3;
 
+  // Number of chunks each of which is 64K chars, i.e., 2MB of chars can be buffered by the read-ahead thread.
+  private static final int MAX_READ_AHEAD_CHUNKS = 16;
+
   private final CacheManager<T> cacheManager;
   private final PrefetchConfig prefetchConfig;
 
@@ -107,14 +113,16 @@ public abstract class PrefetchableTextFilesFirehoseFactory<T>
       Long maxFetchCapacityBytes,
       Long prefetchTriggerBytes,
       Long fetchTimeout,
-      Integer maxFetchRetry
+      Integer maxFetchRetry,
+      Integer fetchThreads
   )
   {
     this.prefetchConfig = new PrefetchConfig(
         maxCacheCapacityBytes,
         maxFetchCapacityBytes,
         prefetchTriggerBytes,
-        fetchTimeout
+        fetchTimeout,
+        fetchThreads
     );
     this.cacheManager = new CacheManager<>(
         prefetchConfig.getMaxCacheCapacityBytes()
@@ -152,6 +160,12 @@ public abstract class PrefetchableTextFilesFirehoseFactory<T>
     return maxFetchRetry;
   }
 
+  @JsonProperty
+  public int getFetchThreads()
+  {
+    return prefetchConfig.getFetchThreads();
+  }
+
   @VisibleForTesting
   CacheManager<T> getCacheManager()
   {
@@ -198,7 +212,13 @@ public abstract class PrefetchableTextFilesFirehoseFactory<T>
     LOG.info("Create a new firehose for [%d] objects", objects.size());
 
     // fetchExecutor is responsible for background data fetching
-    final ExecutorService fetchExecutor = Execs.singleThreaded("firehose_fetch_%d");
+    final ExecutorService fetchExecutor = prefetchConfig.getFetchThreads() > 1
+                                          ? Execs.multiThreaded(prefetchConfig.getFetchThreads(), "firehose_fetch_%d")
+                                          : Execs.singleThreaded("firehose_fetch_%d");
+    // readAheadExecutor reads and decompresses the object being parsed ahead of the parser
+    final ExecutorService readAheadExecutor = prefetchConfig.getFetchThreads() > 1
+                                              ? Execs.singleThreaded("firehose_read_ahead_%d")
+                                              : null;
     final FileFetcher<T> fetcher = new FileFetcher<T>(
         cacheManager,
         objects,
@@ -241,11 +261,14 @@ public abstract class PrefetchableTextFilesFirehoseFactory<T>
 
             final OpenedObject<T> openedObject = fetcher.next();
             try {
+              final Reader reader = new InputStreamReader(
+                  wrapObjectStream(openedObject.getObject(), openedObject.getObjectStream()),
+                  StandardCharsets.UTF_8
+              );
               return new ResourceCloseableLineIterator(
-                  new InputStreamReader(
-                      wrapObjectStream(openedObject.getObject(), openedObject.getObjectStream()),
-                      StandardCharsets.UTF_8
-                  ),
+                  readAheadExecutor == null
+                  ? reader
+                  : new ReadAheadReader(reader, readAheadExecutor, MAX_READ_AHEAD_CHUNKS),
                   openedObject.getResourceCloser()
               );
             }
@@ -262,6 +285,9 @@ public abstract class PrefetchableTextFilesFirehoseFactory<T>
         },
         firehoseParser,
         () -> {
+          if (readAheadExecutor != null) {
+            readAheadExecutor.shutdownNow();
+          }
           fetchExecutor.shutdownNow();
           try {
             Preconditions.checkState(fetchExecutor.awaitTermination(
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input.impl.prefetch;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Reader} which reads its delegate in a separate thread ahead of the caller, so that decompressing and
+ * decoding an object overlap with parsing it.  The read chars are handed over to the caller in chunks through a
+ * bounded queue, so at most {@code maxQueuedChunks} chunks of {@link #CHUNK_SIZE} chars are buffered in memory.
+ * <p>
+ * Used by {@link PrefetchableTextFilesFirehoseFactory} if {@link PrefetchConfig#fetchThreads} is larger than 1.
+ */
+class ReadAheadReader extends Reader
+{
+  static final int CHUNK_SIZE = 64 * 1024;
+  private static final CharBuffer END_OF_STREAM = CharBuffer.allocate(0);
+  private static final long OFFER_TIMEOUT_MS = 100;
+
+  private final Reader delegate;
+  private final BlockingQueue<CharBuffer> chunks;
+  private final Future<?> readFuture;
+
+  private volatile boolean closed;
+  private volatile Throwable readException;
+
+  // The chunk being read by the caller. Accessed only by the caller thread.
+  private CharBuffer currentChunk;
+
+  ReadAheadReader(Reader delegate, ExecutorService readAheadExecutor, int maxQueuedChunks)
+  {
+    this.delegate = delegate;
+    this.chunks = new ArrayBlockingQueue<>(maxQueuedChunks);
+    this.readFuture = readAheadExecutor.submit(this::readAhead);
+  }
+
+  private void readAhead()
+  {
+    try {
+      while (!closed) {
+        final char[] buffer = new char[CHUNK_SIZE];
+        final int numRead = delegate.read(buffer);
+        if (numRead < 0) {
+          break;
+        }
+        if (numRead > 0) {
+          enqueue(CharBuffer.wrap(buffer, 0, numRead));
+        }
+      }
+    }
+    catch (Throwable t) {
+      readException = t;
+    }
+    finally {
+      try {
+        enqueue(END_OF_STREAM);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void enqueue(CharBuffer chunk) throws InterruptedException
+  {
+    // Check closed periodically so that this thread doesn't wait forever if the caller stops reading.
+    while (!closed) {
+      if (chunks.offer(chunk, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        return;
+      }
+    }
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException
+  {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (len == 0) {
+      return 0;
+    }
+    if (currentChunk == null || (currentChunk != END_OF_STREAM && !currentChunk.hasRemaining())) {
+      try {
+        currentChunk = chunks.take();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+    if (currentChunk == END_OF_STREAM) {
+      if (readException != null) {
+        throw new IOException(readException);
+      }
+      return -1;
+    }
+    final int numRead = Math.min(len, currentChunk.remaining());
+    currentChunk.get(cbuf, off, numRead);
+    return numRead;
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    if (!closed) {
+      closed = true;
+      readFuture.cancel(true);
+      chunks.clear();
+      delegate.close();
+    }
+  }
+}
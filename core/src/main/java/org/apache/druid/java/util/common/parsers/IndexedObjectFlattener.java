@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.java.util.common.parsers;
+
+import com.google.common.collect.Iterables;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.apache.druid.java.util.common.IAE;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An {@link ObjectFlattener} for records of flat schemas, i.e., when the flattenSpec has only
+ * {@link JSONPathFieldType#ROOT} fields. See {@link ObjectFlatteners#create}.
+ * <p>
+ * Unlike the flattener for general flattenSpecs, the positions of root fields and the discovered fields are resolved
+ * only once per record schema rather than for every record.  In addition, each field of a record is converted at most
+ * once however many times it is read by the timestampSpec, dimensionsSpec, and aggregators.
+ */
+class IndexedObjectFlattener<T> implements ObjectFlattener<T>
+{
+  private static final Object CONVERTED_NULL = new Object();
+
+  private final JSONPathSpec flattenSpec;
+  private final ObjectFlatteners.IndexedFlattenerMaker<T> flattenerMaker;
+
+  // Records of the same schema are read in most cases, so only the last resolved schema is cached.
+  private volatile ResolvedSchema resolvedSchema;
+
+  IndexedObjectFlattener(JSONPathSpec flattenSpec, ObjectFlatteners.IndexedFlattenerMaker<T> flattenerMaker)
+  {
+    this.flattenSpec = flattenSpec;
+    this.flattenerMaker = flattenerMaker;
+  }
+
+  static boolean isFlat(JSONPathSpec flattenSpec)
+  {
+    return flattenSpec.getFields().stream().allMatch(fieldSpec -> fieldSpec.getType() == JSONPathFieldType.ROOT);
+  }
+
+  @Override
+  public Map<String, Object> flatten(T obj)
+  {
+    final Object schema = flattenerMaker.getSchema(obj);
+    ResolvedSchema resolved = resolvedSchema;
+    if (resolved == null || resolved.schema != schema) {
+      resolved = new ResolvedSchema(schema, obj);
+      resolvedSchema = resolved;
+    }
+    return new RecordMap(obj, resolved);
+  }
+
+  private class ResolvedSchema
+  {
+    private final Object schema;
+    private final Object2IntMap<String> fieldIndexes;
+    private final Set<String> keys;
+    private final int numFields;
+
+    private ResolvedSchema(Object schema, T obj)
+    {
+      this.schema = schema;
+      final List<String> fieldNames = flattenerMaker.getRootFieldNames(obj);
+      this.numFields = fieldNames.size();
+      this.fieldIndexes = new Object2IntOpenHashMap<>(numFields);
+      this.fieldIndexes.defaultReturnValue(-1);
+      for (int i = 0; i < numFields; i++) {
+        fieldIndexes.put(fieldNames.get(i), i);
+      }
+
+      final Map<String, Integer> renamedFields = new LinkedHashMap<>();
+      for (JSONPathFieldSpec fieldSpec : flattenSpec.getFields()) {
+        if (renamedFields.put(fieldSpec.getName(), fieldIndexes.getInt(fieldSpec.getExpr())) != null) {
+          throw new IAE("Cannot have duplicate field definition: %s", fieldSpec.getName());
+        }
+      }
+      // Fields defined in the flattenSpec have priority over the fields of the same names in the schema.
+      renamedFields.forEach(fieldIndexes::put);
+
+      if (flattenSpec.isUseFieldDiscovery()) {
+        final Iterable<String> rootFields = flattenerMaker.discoverRootFields(obj);
+        final Set<String> keys = new LinkedHashSet<>(renamedFields.keySet());
+        Iterables.addAll(keys, rootFields);
+        this.keys = Collections.unmodifiableSet(keys);
+      } else {
+        this.keys = Collections.unmodifiableSet(renamedFields.keySet());
+      }
+    }
+  }
+
+  private class RecordMap extends AbstractMap<String, Object>
+  {
+    private final T obj;
+    private final ResolvedSchema resolved;
+    private final Object[] values;
+
+    private RecordMap(T obj, ResolvedSchema resolved)
+    {
+      this.obj = obj;
+      this.resolved = resolved;
+      this.values = new Object[resolved.numFields];
+    }
+
+    @Override
+    public int size()
+    {
+      return resolved.keys.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+      return resolved.keys.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+      return key != null && resolved.keys.contains(key.toString());
+    }
+
+    @Override
+    public Object get(Object key)
+    {
+      if (key == null) {
+        return null;
+      }
+      final int index = resolved.fieldIndexes.getInt(key.toString());
+      if (index < 0) {
+        return null;
+      }
+      // null means that the field is not converted yet
+      Object value = values[index];
+      if (value == null) {
+        value = flattenerMaker.getRootField(obj, index);
+        values[index] = value == null ? CONVERTED_NULL : value;
+      }
+      return value == CONVERTED_NULL ? null : value;
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+      return resolved.keys;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet()
+    {
+      return resolved.keys
+          .stream()
+          .map(key -> new SimpleImmutableEntry<>(key, get(key)))
+          .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+  }
+}
@@ -113,7 +113,7 @@ public class JSONFlattenerMaker implements ObjectFlatteners.FlattenerMaker<JsonN
     }
 
     if (val.isTextual()) {
-      return charsetFix(val.asText());
+      return charsetFix(enc, val.asText());
     }
 
     if (val.isArray()) {
@@ -139,7 +139,7 @@ public class JSONFlattenerMaker implements ObjectFlatteners.FlattenerMaker<JsonN
   }
 
   @Nullable
-  private String charsetFix(String s)
+  static String charsetFix(CharsetEncoder enc, @Nullable String s)
   {
     if (s != null && !enc.canEncode(s)) {
       // Some whacky characters are in this string (e.g. \uD900). These are problematic because they are decodeable
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.java.util.common.parsers;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.UOE;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link JSONPathParser} alternative reading the input with Jackson's streaming API instead of building a
+ * {@link com.fasterxml.jackson.databind.JsonNode} tree, and reading UTF-8 bytes directly with
+ * {@link #parseToMap(ByteBuffer)}. Only {@link JSONPathFieldType#ROOT} fields are supported, and values are converted
+ * the same way as {@link JSONFlattenerMaker} does.
+ *
+ * If the fields to read are given with {@link #withRequiredFields}, the other fields of the input are skipped without
+ * being materialized.
+ */
+public class JSONStreamingParser implements Parser<String, Object>
+{
+  private final JSONPathSpec flattenSpec;
+  private final ObjectMapper mapper;
+  @Nullable
+  private final Set<String> fieldsToRead;
+  private final ObjectFlattener<Map<String, Object>> flattener;
+  private final CharsetEncoder enc = StandardCharsets.UTF_8.newEncoder();
+
+  public JSONStreamingParser(JSONPathSpec flattenSpec, @Nullable ObjectMapper mapper)
+  {
+    this(flattenSpec, mapper, null);
+  }
+
+  private JSONStreamingParser(
+      JSONPathSpec flattenSpec,
+      @Nullable ObjectMapper mapper,
+      @Nullable Set<String> requiredFields
+  )
+  {
+    Preconditions.checkArgument(supports(flattenSpec), "Only root fields can be read by streaming");
+    this.flattenSpec = flattenSpec;
+    this.mapper = mapper == null ? new ObjectMapper() : mapper;
+    if (requiredFields == null) {
+      this.fieldsToRead = null;
+    } else {
+      this.fieldsToRead = new HashSet<>(requiredFields);
+      for (JSONPathFieldSpec fieldSpec : flattenSpec.getFields()) {
+        fieldsToRead.add(fieldSpec.getExpr());
+      }
+    }
+    this.flattener = ObjectFlatteners.create(flattenSpec, new StreamedObjectFlattenerMaker());
+  }
+
+  /**
+   * Returns true if the given flattenSpec has only {@link JSONPathFieldType#ROOT} fields.
+   */
+  public static boolean supports(JSONPathSpec flattenSpec)
+  {
+    return flattenSpec.getFields().stream().allMatch(fieldSpec -> fieldSpec.getType() == JSONPathFieldType.ROOT);
+  }
+
+  /**
+   * Returns a parser reading only the given fields, and the fields referenced by the flattenSpec, of the input
+   * objects. The returned maps do not contain the other fields, even if field discovery is enabled.
+   */
+  public JSONStreamingParser withRequiredFields(Set<String> requiredFields)
+  {
+    return new JSONStreamingParser(flattenSpec, mapper, requiredFields);
+  }
+
+  @Override
+  public List<String> getFieldNames()
+  {
+    return null;
+  }
+
+  @Override
+  public void setFieldNames(Iterable<String> fieldNames)
+  {
+  }
+
+  @Override
+  public Map<String, Object> parseToMap(String input)
+  {
+    try (JsonParser parser = mapper.getFactory().createParser(input)) {
+      return flattener.flatten(readRootObject(parser));
+    }
+    catch (Exception e) {
+      throw new ParseException(e, "Unable to parse row [%s]", input);
+    }
+  }
+
+  /**
+   * Parses the remaining bytes of the given buffer, which must be UTF-8 encoded JSON, without decoding them into a
+   * String first. The buffer position is moved to its limit.
+   */
+  public Map<String, Object> parseToMap(ByteBuffer input)
+  {
+    final int length = input.remaining();
+    final byte[] bytes;
+    final int offset;
+    if (input.hasArray()) {
+      bytes = input.array();
+      offset = input.arrayOffset() + input.position();
+    } else {
+      bytes = new byte[length];
+      input.duplicate().get(bytes);
+      offset = 0;
+    }
+    input.position(input.limit());
+
+    try (JsonParser parser = mapper.getFactory().createParser(bytes, offset, length)) {
+      return flattener.flatten(readRootObject(parser));
+    }
+    catch (Exception e) {
+      throw new ParseException(
+          e,
+          "Unable to parse row [%s]",
+          StringUtils.fromUtf8(ByteBuffer.wrap(bytes, offset, length))
+      );
+    }
+  }
+
+  private Map<String, Object> readRootObject(JsonParser parser) throws IOException
+  {
+    final JsonToken token = parser.nextToken();
+    if (token != JsonToken.START_OBJECT) {
+      throw new ParseException("Expected a JSON object, got [%s]", token);
+    }
+
+    final Map<String, Object> object = new LinkedHashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+      parser.nextToken();
+      if (fieldsToRead == null || fieldsToRead.contains(field)) {
+        object.put(field, readValue(parser));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return object;
+  }
+
+  /**
+   * Reads the value at the current token, converting it as {@link JSONFlattenerMaker} converts JSON nodes, except
+   * that booleans are returned as {@link Boolean}.
+   */
+  @Nullable
+  private Object readValue(JsonParser parser) throws IOException
+  {
+    switch (parser.getCurrentToken()) {
+      case START_OBJECT:
+        final Map<String, Object> object = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String field = parser.getCurrentName();
+          parser.nextToken();
+          object.put(field, readValue(parser));
+        }
+        return object;
+      case START_ARRAY:
+        final List<Object> list = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          if (parser.getCurrentToken() != JsonToken.VALUE_NULL) {
+            list.add(readValue(parser));
+          }
+        }
+        return list;
+      case VALUE_STRING:
+        return JSONFlattenerMaker.charsetFix(enc, parser.getText());
+      case VALUE_NUMBER_INT:
+        final JsonParser.NumberType numberType = parser.getNumberType();
+        if (numberType == JsonParser.NumberType.INT || numberType == JsonParser.NumberType.LONG) {
+          return parser.getLongValue();
+        }
+        return parser.getDoubleValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_TRUE:
+      case VALUE_FALSE:
+        return parser.getBooleanValue();
+      case VALUE_EMBEDDED_OBJECT:
+        return parser.getEmbeddedObject();
+      case VALUE_NULL:
+        return null;
+      default:
+        throw new ParseException("Unexpected token [%s]", parser.getCurrentToken());
+    }
+  }
+
+  private static class StreamedObjectFlattenerMaker implements ObjectFlatteners.FlattenerMaker<Map<String, Object>>
+  {
+    @Override
+    public Iterable<String> discoverRootFields(final Map<String, Object> obj)
+    {
+      return obj.entrySet()
+                .stream()
+                .filter(entry -> {
+                  final Object val = entry.getValue();
+                  return !(val instanceof Map || val == null || (val instanceof List && !isFlatList((List<?>) val)));
+                })
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Object getRootField(final Map<String, Object> obj, final String key)
+    {
+      return obj.get(key);
+    }
+
+    @Override
+    public Function<Map<String, Object>, Object> makeJsonPathExtractor(final String expr)
+    {
+      throw new UOE("JSONPath fields cannot be read by streaming");
+    }
+
+    @Override
+    public Function<Map<String, Object>, Object> makeJsonQueryExtractor(final String expr)
+    {
+      throw new UOE("jq fields cannot be read by streaming");
+    }
+
+    private static boolean isFlatList(List<?> list)
+    {
+      for (Object obj : list) {
+        if (obj instanceof Map || obj instanceof List) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -27,6 +27,7 @@ import java.util.AbstractMap;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -44,6 +45,10 @@ public class ObjectFlatteners
       final FlattenerMaker<T> flattenerMaker
   )
   {
+    if (flattenerMaker instanceof IndexedFlattenerMaker && IndexedObjectFlattener.isFlat(flattenSpec)) {
+      return new IndexedObjectFlattener<>(flattenSpec, (IndexedFlattenerMaker<T>) flattenerMaker);
+    }
+
     final Map<String, Function<T, Object>> extractors = new LinkedHashMap<>();
 
     for (final JSONPathFieldSpec fieldSpec : flattenSpec.getFields()) {
@@ -207,4 +212,26 @@ public class ObjectFlatteners
 
     Function<T, Object> makeJsonQueryExtractor(String expr);
   }
+
+  /**
+   * A {@link FlattenerMaker} for records whose root fields can be read by their positions in the record schema.
+   * {@link #create} returns an {@link IndexedObjectFlattener} for this if the flattenSpec has only root fields.
+   */
+  public interface IndexedFlattenerMaker<T> extends FlattenerMaker<T>
+  {
+    /**
+     * Returns the schema of the given record. Records of the same schema should return the same instance.
+     */
+    Object getSchema(T obj);
+
+    /**
+     * Returns the names of all root fields in the schema of the given record, in the order of their positions.
+     */
+    List<String> getRootFieldNames(T obj);
+
+    /**
+     * Returns the root field at the given position, converted the same way as {@link #getRootField(Object, String)}.
+     */
+    Object getRootField(T obj, int index);
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.druid.math.expr;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.math.IntMath;
 import it.unimi.dsi.fastutil.objects.Object2IntArrayMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import org.apache.druid.java.util.common.IAE;
@@ -29,13 +30,10 @@ import org.apache.druid.java.util.common.StringUtils;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Stream;
+import java.util.function.IntFunction;
 
 /**
  * Base interface describing the mechanism used to evaluate an {@link ApplyFunctionExpr}, which 'applies' a
@@ -105,10 +103,11 @@ public interface ApplyFunction
             stringsOut[i] = evaluated.asString();
             break;
           case LONG:
-            longsOut[i] = evaluated.asLong();
+            // reuse the already boxed value where possible instead of boxing asLong() again
+            longsOut[i] = evaluated.value() instanceof Long ? (Long) evaluated.value() : evaluated.asLong();
             break;
           case DOUBLE:
-            doublesOut[i] = evaluated.asDouble();
+            doublesOut[i] = evaluated.value() instanceof Double ? (Double) evaluated.value() : evaluated.asDouble();
             break;
         }
       }
@@ -145,7 +144,7 @@ public interface ApplyFunction
       Expr arrayExpr = argsExpr.get(0);
       ExprEval arrayEval = arrayExpr.eval(bindings);
 
-      Object[] array = arrayEval.asArray();
+      ExprEval[] array = arrayEval.asElementEvals();
       if (array == null) {
         return ExprEval.of(null);
       }
@@ -195,12 +194,12 @@ public interface ApplyFunction
     @Override
     public ExprEval apply(LambdaExpr lambdaExpr, List<Expr> argsExpr, Expr.ObjectBinding bindings)
     {
-      List<List<Object>> arrayInputs = new ArrayList<>();
+      List<ExprEval[]> arrayInputs = new ArrayList<>();
       boolean hadNull = false;
       boolean hadEmpty = false;
       for (Expr expr : argsExpr) {
         ExprEval arrayEval = expr.eval(bindings);
-        Object[] array = arrayEval.asArray();
+        ExprEval[] array = arrayEval.asElementEvals();
         if (array == null) {
           hadNull = true;
           continue;
@@ -209,7 +208,7 @@ public interface ApplyFunction
           hadEmpty = true;
           continue;
         }
-        arrayInputs.add(Arrays.asList(array));
+        arrayInputs.add(array);
       }
       if (hadNull) {
         return ExprEval.of(null);
@@ -218,7 +217,7 @@ public interface ApplyFunction
         return ExprEval.ofStringArray(new String[0]);
       }
 
-      List<List<Object>> product = CartesianList.create(arrayInputs);
+      CartesianProduct product = new CartesianProduct(arrayInputs);
       CartesianMapLambdaBinding lambdaBinding = new CartesianMapLambdaBinding(product, lambdaExpr, bindings);
       return applyMap(lambdaExpr, lambdaBinding);
     }
@@ -252,13 +251,12 @@ public interface ApplyFunction
      * Accumulate a value by evaluating a {@link LambdaExpr} for each index position of an
      * {@link IndexableFoldLambdaBinding}
      */
-    ExprEval applyFold(LambdaExpr lambdaExpr, Object accumulator, IndexableFoldLambdaBinding bindings)
+    ExprEval applyFold(LambdaExpr lambdaExpr, ExprEval accumulator, IndexableFoldLambdaBinding bindings)
     {
       for (int i = 0; i < bindings.getLength(); i++) {
-        ExprEval evaluated = lambdaExpr.eval(bindings.accumulateWithIndex(i, accumulator));
-        accumulator = evaluated.value();
+        accumulator = lambdaExpr.eval(bindings.accumulateWithIndex(i, accumulator));
       }
-      return ExprEval.bestEffortOf(accumulator);
+      return ExprEval.bestEffortOf(accumulator.value());
     }
   }
 
@@ -285,14 +283,13 @@ public interface ApplyFunction
       ExprEval arrayEval = arrayExpr.eval(bindings);
       ExprEval accEval = accExpr.eval(bindings);
 
-      Object[] array = arrayEval.asArray();
+      ExprEval[] array = arrayEval.asElementEvals();
       if (array == null) {
         return ExprEval.of(null);
       }
-      Object accumlator = accEval.value();
 
-      FoldLambdaBinding lambdaBinding = new FoldLambdaBinding(array, accumlator, lambdaExpr, bindings);
-      return applyFold(lambdaExpr, accumlator, lambdaBinding);
+      FoldLambdaBinding lambdaBinding = new FoldLambdaBinding(array, accEval, lambdaExpr, bindings);
+      return applyFold(lambdaExpr, accEval, lambdaBinding);
     }
 
     @Override
@@ -331,13 +328,13 @@ public interface ApplyFunction
     @Override
     public ExprEval apply(LambdaExpr lambdaExpr, List<Expr> argsExpr, Expr.ObjectBinding bindings)
     {
-      List<List<Object>> arrayInputs = new ArrayList<>();
+      List<ExprEval[]> arrayInputs = new ArrayList<>();
       boolean hadNull = false;
       boolean hadEmpty = false;
       for (int i = 0; i < argsExpr.size() - 1; i++) {
         Expr expr = argsExpr.get(i);
         ExprEval arrayEval = expr.eval(bindings);
-        Object[] array = arrayEval.asArray();
+        ExprEval[] array = arrayEval.asElementEvals();
         if (array == null) {
           hadNull = true;
           continue;
@@ -346,7 +343,7 @@ public interface ApplyFunction
           hadEmpty = true;
           continue;
         }
-        arrayInputs.add(Arrays.asList(array));
+        arrayInputs.add(array);
       }
       if (hadNull) {
         return ExprEval.of(null);
@@ -356,15 +353,13 @@ public interface ApplyFunction
       }
       Expr accExpr = argsExpr.get(argsExpr.size() - 1);
 
-      List<List<Object>> product = CartesianList.create(arrayInputs);
+      CartesianProduct product = new CartesianProduct(arrayInputs);
 
       ExprEval accEval = accExpr.eval(bindings);
 
-      Object accumlator = accEval.value();
-
       CartesianFoldLambdaBinding lambdaBindings =
-          new CartesianFoldLambdaBinding(product, accumlator, lambdaExpr, bindings);
-      return applyFold(lambdaExpr, accumlator, lambdaBindings);
+          new CartesianFoldLambdaBinding(product, accEval, lambdaExpr, bindings);
+      return applyFold(lambdaExpr, accEval, lambdaBindings);
     }
 
     @Override
@@ -403,28 +398,28 @@ public interface ApplyFunction
       Expr arrayExpr = argsExpr.get(0);
       ExprEval arrayEval = arrayExpr.eval(bindings);
 
-      Object[] array = arrayEval.asArray();
+      ExprEval[] array = arrayEval.asElementEvals();
       if (array == null) {
         return ExprEval.of(null);
       }
 
-      SettableLambdaBinding lambdaBinding = new SettableLambdaBinding(lambdaExpr, bindings);
+      MapLambdaBinding lambdaBinding = new MapLambdaBinding(array, lambdaExpr, bindings);
       switch (arrayEval.type()) {
         case STRING:
         case STRING_ARRAY:
-          String[] filteredString =
-              this.filter(arrayEval.asStringArray(), lambdaExpr, lambdaBinding).toArray(String[]::new);
-          return ExprEval.ofStringArray(filteredString);
+          return ExprEval.ofStringArray(
+              this.filter(arrayEval.asStringArray(), lambdaExpr, lambdaBinding, String[]::new)
+          );
         case LONG:
         case LONG_ARRAY:
-          Long[] filteredLong =
-              this.filter(arrayEval.asLongArray(), lambdaExpr, lambdaBinding).toArray(Long[]::new);
-          return ExprEval.ofLongArray(filteredLong);
+          return ExprEval.ofLongArray(
+              this.filter(arrayEval.asLongArray(), lambdaExpr, lambdaBinding, Long[]::new)
+          );
         case DOUBLE:
         case DOUBLE_ARRAY:
-          Double[] filteredDouble =
-              this.filter(arrayEval.asDoubleArray(), lambdaExpr, lambdaBinding).toArray(Double[]::new);
-          return ExprEval.ofDoubleArray(filteredDouble);
+          return ExprEval.ofDoubleArray(
+              this.filter(arrayEval.asDoubleArray(), lambdaExpr, lambdaBinding, Double[]::new)
+          );
         default:
           throw new RE("Unhandled filter function input type [%s]", arrayEval.type());
       }
@@ -450,9 +445,30 @@ public interface ApplyFunction
       );
     }
 
-    private <T> Stream<T> filter(T[] array, LambdaExpr expr, SettableLambdaBinding binding)
-    {
-      return Arrays.stream(array).filter(s -> expr.eval(binding.withBinding(expr.getIdentifier(), s)).asBoolean());
+    /**
+     * Filter the typed values of the array which was used to create the element bindings of {@link MapLambdaBinding},
+     * so the retained values are copied as is instead of being unwrapped from the lambda input evals.
+     */
+    private <T> T[] filter(T[] array, LambdaExpr expr, MapLambdaBinding binding, IntFunction<T[]> arrayFactory)
+    {
+      final boolean[] matches = new boolean[array.length];
+      int count = 0;
+      for (int i = 0; i < array.length; i++) {
+        if (expr.eval(binding.withIndex(i)).asBoolean()) {
+          matches[i] = true;
+          count++;
+        }
+      }
+      if (count == array.length) {
+        return array;
+      }
+      final T[] filtered = arrayFactory.apply(count);
+      for (int i = 0, j = 0; i < array.length; i++) {
+        if (matches[i]) {
+          filtered[j++] = array[i];
+        }
+      }
+      return filtered;
     }
   }
 
@@ -468,13 +484,13 @@ public interface ApplyFunction
       Expr arrayExpr = argsExpr.get(0);
       ExprEval arrayEval = arrayExpr.eval(bindings);
 
-      final Object[] array = arrayEval.asArray();
+      final ExprEval[] array = arrayEval.asElementEvals();
       if (array == null) {
         return ExprEval.bestEffortOf(false);
       }
 
-      SettableLambdaBinding lambdaBinding = new SettableLambdaBinding(lambdaExpr, bindings);
-      return match(array, lambdaExpr, lambdaBinding);
+      MapLambdaBinding lambdaBinding = new MapLambdaBinding(array, lambdaExpr, bindings);
+      return match(lambdaExpr, lambdaBinding);
     }
 
     @Override
@@ -497,7 +513,7 @@ public interface ApplyFunction
       );
     }
 
-    public abstract ExprEval match(Object[] values, LambdaExpr expr, SettableLambdaBinding bindings);
+    public abstract ExprEval match(LambdaExpr expr, MapLambdaBinding bindings);
   }
 
   /**
@@ -515,10 +531,12 @@ public interface ApplyFunction
     }
 
     @Override
-    public ExprEval match(Object[] values, LambdaExpr expr, SettableLambdaBinding bindings)
+    public ExprEval match(LambdaExpr expr, MapLambdaBinding bindings)
     {
-      boolean anyMatch = Arrays.stream(values)
-                               .anyMatch(o -> expr.eval(bindings.withBinding(expr.getIdentifier(), o)).asBoolean());
+      boolean anyMatch = false;
+      for (int i = 0; i < bindings.getLength() && !anyMatch; i++) {
+        anyMatch = expr.eval(bindings.withIndex(i)).asBoolean();
+      }
       return ExprEval.bestEffortOf(anyMatch);
     }
   }
@@ -538,47 +556,13 @@ public interface ApplyFunction
     }
 
     @Override
-    public ExprEval match(Object[] values, LambdaExpr expr, SettableLambdaBinding bindings)
-    {
-      boolean allMatch = Arrays.stream(values)
-                               .allMatch(o -> expr.eval(bindings.withBinding(expr.getIdentifier(), o)).asBoolean());
-      return ExprEval.bestEffortOf(allMatch);
-    }
-  }
-
-  /**
-   * Simple, mutable, {@link Expr.ObjectBinding} for a {@link LambdaExpr} which provides a {@link Map} for storing
-   * arbitrary values to use as values for {@link IdentifierExpr} in the body of the lambda that are arguments to the
-   * lambda
-   */
-  class SettableLambdaBinding implements Expr.ObjectBinding
-  {
-    private final Expr.ObjectBinding bindings;
-    private final Map<String, Object> lambdaBindings;
-
-    SettableLambdaBinding(LambdaExpr expr, Expr.ObjectBinding bindings)
-    {
-      this.lambdaBindings = new HashMap<>();
-      for (String lambdaIdentifier : expr.getIdentifiers()) {
-        lambdaBindings.put(lambdaIdentifier, null);
-      }
-      this.bindings = bindings != null ? bindings : Collections.emptyMap()::get;
-    }
-
-    @Nullable
-    @Override
-    public Object get(String name)
+    public ExprEval match(LambdaExpr expr, MapLambdaBinding bindings)
     {
-      if (lambdaBindings.containsKey(name)) {
-        return lambdaBindings.get(name);
+      boolean allMatch = true;
+      for (int i = 0; i < bindings.getLength() && allMatch; i++) {
+        allMatch = expr.eval(bindings.withIndex(i)).asBoolean();
       }
-      return bindings.get(name);
-    }
-
-    SettableLambdaBinding withBinding(String key, Object value)
-    {
-      this.lambdaBindings.put(key, value);
-      return this;
+      return ExprEval.bestEffortOf(allMatch);
     }
   }
 
@@ -602,19 +586,20 @@ public interface ApplyFunction
   }
 
   /**
-   * {@link IndexableMapLambdaObjectBinding} for a {@link MapFunction}. Lambda argument binding is stored in an object
-   * array, retrieving binding values for the lambda identifier returns the value at the current index.
+   * {@link IndexableMapLambdaObjectBinding} for a {@link MapFunction}, which is also used by {@link FilterFunction} and
+   * {@link MatchFunction}. Lambda argument binding is stored in an array of element {@link ExprEval}, retrieving
+   * binding values for the lambda identifier returns the value at the current index.
    */
   class MapLambdaBinding implements IndexableMapLambdaObjectBinding
   {
     private final Expr.ObjectBinding bindings;
     @Nullable
     private final String lambdaIdentifier;
-    private final Object[] arrayValues;
+    private final ExprEval[] arrayValues;
     private int index = 0;
     private final boolean scoped;
 
-    MapLambdaBinding(Object[] arrayValues, LambdaExpr expr, Expr.ObjectBinding bindings)
+    MapLambdaBinding(ExprEval[] arrayValues, LambdaExpr expr, Expr.ObjectBinding bindings)
     {
       this.lambdaIdentifier = expr.getIdentifier();
       this.arrayValues = arrayValues;
@@ -647,24 +632,68 @@ public interface ApplyFunction
   }
 
   /**
-   * {@link IndexableMapLambdaObjectBinding} for a {@link CartesianMapFunction}. Lambda argument bindings stored as a
-   * cartesian product in the form of a list of lists of objects, where the inner list is the in order list of values
-   * for each {@link LambdaExpr} argument
+   * The cartesian product of the element {@link ExprEval} of 'n' arrays. The values at each position of the product are
+   * computed from the position instead of materializing a list of values for every position, the last array varies
+   * fastest. Arrays may contain null elements, e.g. ['a', 'b', null].
+   */
+  class CartesianProduct
+  {
+    private final ExprEval[][] axes;
+    private final int[] axesStrides;
+    private final int size;
+
+    CartesianProduct(List<ExprEval[]> axes)
+    {
+      this.axes = axes.toArray(new ExprEval[0][]);
+      this.axesStrides = new int[this.axes.length];
+      int size = 1;
+      try {
+        for (int i = this.axes.length - 1; i >= 0; i--) {
+          axesStrides[i] = size;
+          size = IntMath.checkedMultiply(size, this.axes[i].length);
+        }
+      }
+      catch (ArithmeticException e) {
+        throw new IAE("Cartesian product too large; must have size at most Integer.MAX_VALUE");
+      }
+      this.size = size;
+    }
+
+    int size()
+    {
+      return size;
+    }
+
+    /**
+     * Value of the given array at the given position of the product
+     */
+    ExprEval get(int index, int axis)
+    {
+      final ExprEval[] values = axes[axis];
+      return values[(index / axesStrides[axis]) % values.length];
+    }
+  }
+
+  /**
+   * {@link IndexableMapLambdaObjectBinding} for a {@link CartesianMapFunction}. Lambda argument bindings are stored as
+   * a {@link CartesianProduct}, where each {@link LambdaExpr} argument is bound to the value of the array in the same
+   * position at the current index
    */
   class CartesianMapLambdaBinding implements IndexableMapLambdaObjectBinding
   {
     private final Expr.ObjectBinding bindings;
     private final Object2IntMap<String> lambdaIdentifiers;
-    private final List<List<Object>> lambdaInputs;
+    private final CartesianProduct lambdaInputs;
     private final boolean scoped;
     private int index = 0;
 
-    CartesianMapLambdaBinding(List<List<Object>> inputs, LambdaExpr expr, Expr.ObjectBinding bindings)
+    CartesianMapLambdaBinding(CartesianProduct inputs, LambdaExpr expr, Expr.ObjectBinding bindings)
     {
       this.lambdaInputs = inputs;
       List<String> ids = expr.getIdentifiers();
       this.scoped = ids.size() > 0;
       this.lambdaIdentifiers = new Object2IntArrayMap<>(ids.size());
+      this.lambdaIdentifiers.defaultReturnValue(-1);
       for (int i = 0; i < ids.size(); i++) {
         lambdaIdentifiers.put(ids.get(i), i);
       }
@@ -676,8 +705,11 @@ public interface ApplyFunction
     @Override
     public Object get(String name)
     {
-      if (scoped && lambdaIdentifiers.containsKey(name)) {
-        return lambdaInputs.get(index).get(lambdaIdentifiers.getInt(name));
+      if (scoped) {
+        final int axis = lambdaIdentifiers.getInt(name);
+        if (axis >= 0) {
+          return lambdaInputs.get(index, axis);
+        }
       }
       return bindings.get(name);
     }
@@ -712,7 +744,17 @@ public interface ApplyFunction
     /**
      * Update the index and accumulator value
      */
-    IndexableFoldLambdaBinding accumulateWithIndex(int index, Object accumulator);
+    IndexableFoldLambdaBinding accumulateWithIndex(int index, ExprEval accumulator);
+
+    /**
+     * Binding value of the accumulator. The {@link ExprEval} is bound as is so that it isn't wrapped again, except
+     * for null values, which are bound as plain null to keep their type the same as when they were bound as values.
+     */
+    @Nullable
+    static Object accumulatorBinding(ExprEval accumulator)
+    {
+      return accumulator.value() == null ? null : accumulator;
+    }
   }
 
   /**
@@ -723,12 +765,17 @@ public interface ApplyFunction
   {
     private final Expr.ObjectBinding bindings;
     private final String elementIdentifier;
-    private final Object[] arrayValues;
+    private final ExprEval[] arrayValues;
     private final String accumulatorIdentifier;
-    private Object accumulatorValue;
+    private ExprEval accumulatorValue;
     private int index;
 
-    FoldLambdaBinding(Object[] arrayValues, Object initialAccumulator, LambdaExpr expr, Expr.ObjectBinding bindings)
+    FoldLambdaBinding(
+        ExprEval[] arrayValues,
+        ExprEval initialAccumulator,
+        LambdaExpr expr,
+        Expr.ObjectBinding bindings
+    )
     {
       List<String> ids = expr.getIdentifiers();
       this.elementIdentifier = ids.get(0);
@@ -745,7 +792,7 @@ public interface ApplyFunction
       if (name.equals(elementIdentifier)) {
         return arrayValues[index];
       } else if (name.equals(accumulatorIdentifier)) {
-        return accumulatorValue;
+        return IndexableFoldLambdaBinding.accumulatorBinding(accumulatorValue);
       }
       return bindings.get(name);
     }
@@ -757,7 +804,7 @@ public interface ApplyFunction
     }
 
     @Override
-    public FoldLambdaBinding accumulateWithIndex(int index, Object acc)
+    public FoldLambdaBinding accumulateWithIndex(int index, ExprEval acc)
     {
       this.index = index;
       this.accumulatorValue = acc;
@@ -773,16 +820,22 @@ public interface ApplyFunction
   {
     private final Expr.ObjectBinding bindings;
     private final Object2IntMap<String> lambdaIdentifiers;
-    private final List<List<Object>> lambdaInputs;
+    private final CartesianProduct lambdaInputs;
     private final String accumulatorIdentifier;
-    private Object accumulatorValue;
+    private ExprEval accumulatorValue;
     private int index = 0;
 
-    CartesianFoldLambdaBinding(List<List<Object>> inputs, Object accumulatorValue, LambdaExpr expr, Expr.ObjectBinding bindings)
+    CartesianFoldLambdaBinding(
+        CartesianProduct inputs,
+        ExprEval accumulatorValue,
+        LambdaExpr expr,
+        Expr.ObjectBinding bindings
+    )
     {
       this.lambdaInputs = inputs;
       List<String> ids = expr.getIdentifiers();
       this.lambdaIdentifiers = new Object2IntArrayMap<>(ids.size());
+      this.lambdaIdentifiers.defaultReturnValue(-1);
       for (int i = 0; i < ids.size() - 1; i++) {
         lambdaIdentifiers.put(ids.get(i), i);
       }
@@ -795,10 +848,11 @@ public interface ApplyFunction
     @Override
     public Object get(String name)
     {
-      if (lambdaIdentifiers.containsKey(name)) {
-        return lambdaInputs.get(index).get(lambdaIdentifiers.getInt(name));
+      final int axis = lambdaIdentifiers.getInt(name);
+      if (axis >= 0) {
+        return lambdaInputs.get(index, axis);
       } else if (accumulatorIdentifier.equals(name)) {
-        return accumulatorValue;
+        return IndexableFoldLambdaBinding.accumulatorBinding(accumulatorValue);
       }
       return bindings.get(name);
     }
@@ -810,7 +864,7 @@ public interface ApplyFunction
     }
 
     @Override
-    public CartesianFoldLambdaBinding accumulateWithIndex(int index, Object acc)
+    public CartesianFoldLambdaBinding accumulateWithIndex(int index, ExprEval acc)
     {
       this.index = index;
       this.accumulatorValue = acc;
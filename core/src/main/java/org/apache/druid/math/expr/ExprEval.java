@@ -184,6 +184,17 @@ public abstract class ExprEval<T>
   @Nullable
   public abstract Double[] asDoubleArray();
 
+  /**
+   * Elements of {@link #asArray()}, each wrapped in the same {@link ExprEval} that {@link IdentifierExpr} would produce
+   * if the raw element were bound to it. {@link ApplyFunction} lambda bindings supply these directly, so evaluating a
+   * lambda identifier does not wrap the element again every time it is bound.
+   */
+  @Nullable
+  public ExprEval[] asElementEvals()
+  {
+    return toElementEvals(asArray());
+  }
+
   public abstract ExprEval castTo(ExprType castTo);
 
   public abstract Expr toExpr();
@@ -555,8 +566,34 @@ public abstract class ExprEval<T>
     }
   }
 
+  @Nullable
+  private static ExprEval[] toElementEvals(@Nullable Object[] array)
+  {
+    if (array == null) {
+      return null;
+    }
+    final ExprEval[] evals = new ExprEval[array.length];
+    for (int i = 0; i < array.length; i++) {
+      evals[i] = bestEffortOf(array[i]);
+    }
+    return evals;
+  }
+
+  private static String[] toStrings(Object[] array)
+  {
+    final String[] strings = new String[array.length];
+    for (int i = 0; i < array.length; i++) {
+      strings[i] = String.valueOf(array[i]);
+    }
+    return strings;
+  }
+
   abstract static class ArrayExprEval<T> extends ExprEval<T[]>
   {
+    // cached element evals, an array eval is often bound to lambdas many times, e.g. by the cartesian functions
+    @Nullable
+    private ExprEval[] elementEvals;
+
     private ArrayExprEval(@Nullable T[] value)
     {
       super(value);
@@ -610,10 +647,25 @@ public abstract class ExprEval<T>
     {
       return value == null ? null : value[index];
     }
+
+    @Nullable
+    @Override
+    public ExprEval[] asElementEvals()
+    {
+      if (elementEvals == null) {
+        elementEvals = toElementEvals(value);
+      }
+      return elementEvals;
+    }
   }
 
   private static class LongArrayExprEval extends ArrayExprEval<Long>
   {
+    @Nullable
+    private String[] stringValues;
+    @Nullable
+    private Double[] doubleValues;
+
     private LongArrayExprEval(@Nullable Long[] value)
     {
       super(value);
@@ -629,7 +681,10 @@ public abstract class ExprEval<T>
     @Override
     public String[] asStringArray()
     {
-      return value == null ? null : Arrays.stream(value).map(String::valueOf).toArray(String[]::new);
+      if (stringValues == null && value != null) {
+        stringValues = toStrings(value);
+      }
+      return stringValues;
     }
 
     @Nullable
@@ -643,7 +698,13 @@ public abstract class ExprEval<T>
     @Override
     public Double[] asDoubleArray()
     {
-      return value == null ? null : Arrays.stream(value).map(Long::doubleValue).toArray(Double[]::new);
+      if (doubleValues == null && value != null) {
+        doubleValues = new Double[value.length];
+        for (int i = 0; i < value.length; i++) {
+          doubleValues[i] = value[i] == null ? null : value[i].doubleValue();
+        }
+      }
+      return doubleValues;
     }
 
     @Override
@@ -675,6 +736,11 @@ public abstract class ExprEval<T>
 
   private static class DoubleArrayExprEval extends ArrayExprEval<Double>
   {
+    @Nullable
+    private String[] stringValues;
+    @Nullable
+    private Long[] longValues;
+
     private DoubleArrayExprEval(@Nullable Double[] value)
     {
       super(value);
@@ -690,14 +756,23 @@ public abstract class ExprEval<T>
     @Override
     public String[] asStringArray()
     {
-      return value == null ? null : Arrays.stream(value).map(String::valueOf).toArray(String[]::new);
+      if (stringValues == null && value != null) {
+        stringValues = toStrings(value);
+      }
+      return stringValues;
     }
 
     @Nullable
     @Override
     public Long[] asLongArray()
     {
-      return value == null ? null : Arrays.stream(value).map(Double::longValue).toArray(Long[]::new);
+      if (longValues == null && value != null) {
+        longValues = new Long[value.length];
+        for (int i = 0; i < value.length; i++) {
+          longValues[i] = value[i] == null ? null : value[i].longValue();
+        }
+      }
+      return longValues;
     }
 
     @Nullable
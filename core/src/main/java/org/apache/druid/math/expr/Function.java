@@ -29,16 +29,14 @@ import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
 
+import javax.annotation.Nullable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Base interface describing the mechanism used to evaluate a {@link FunctionExpr}. All {@link Function} implementations
@@ -1817,9 +1815,15 @@ interface Function
     ExprEval doApply(ExprEval arrayExpr, ExprEval scalarExpr)
     {
       final String join = scalarExpr.asString();
-      return ExprEval.of(
-          Arrays.stream(arrayExpr.asArray()).map(String::valueOf).collect(Collectors.joining(join != null ? join : ""))
-      );
+      final Object[] array = arrayExpr.asArray();
+      final StringBuilder builder = new StringBuilder();
+      for (int i = 0; i < array.length; i++) {
+        if (i > 0 && join != null) {
+          builder.append(join);
+        }
+        builder.append(array[i]);
+      }
+      return ExprEval.of(builder.toString());
     }
   }
 
@@ -1940,33 +1944,27 @@ interface Function
       switch (arrayExpr.type()) {
         case STRING:
         case STRING_ARRAY:
-          return ExprEval.ofStringArray(this.append(arrayExpr.asStringArray(), scalarExpr.asString()).toArray(String[]::new));
+          return ExprEval.ofStringArray(this.append(arrayExpr.asStringArray(), scalarExpr.asString()));
         case LONG:
         case LONG_ARRAY:
           return ExprEval.ofLongArray(
-              this.append(
-                  arrayExpr.asLongArray(),
-                  scalarExpr.isNumericNull() ? null : scalarExpr.asLong()).toArray(Long[]::new
-              )
+              this.append(arrayExpr.asLongArray(), scalarExpr.isNumericNull() ? null : scalarExpr.asLong())
           );
         case DOUBLE:
         case DOUBLE_ARRAY:
           return ExprEval.ofDoubleArray(
-              this.append(
-                  arrayExpr.asDoubleArray(),
-                  scalarExpr.isNumericNull() ? null : scalarExpr.asDouble()).toArray(Double[]::new
-              )
+              this.append(arrayExpr.asDoubleArray(), scalarExpr.isNumericNull() ? null : scalarExpr.asDouble())
           );
       }
 
       throw new RE("Unable to append to unknown type %s", arrayExpr.type());
     }
 
-    private <T> Stream<T> append(T[] array, T val)
+    private <T> T[] append(T[] array, @Nullable T val)
     {
-      List<T> l = new ArrayList<>(Arrays.asList(array));
-      l.add(val);
-      return l.stream();
+      final T[] appended = Arrays.copyOf(array, array.length + 1);
+      appended[array.length] = val;
+      return appended;
     }
   }
 
@@ -1994,28 +1992,22 @@ interface Function
       switch (lhsExpr.type()) {
         case STRING:
         case STRING_ARRAY:
-          return ExprEval.ofStringArray(
-              cat(lhsExpr.asStringArray(), rhsExpr.asStringArray()).toArray(String[]::new)
-          );
+          return ExprEval.ofStringArray(cat(lhsExpr.asStringArray(), rhsExpr.asStringArray()));
         case LONG:
         case LONG_ARRAY:
-          return ExprEval.ofLongArray(
-              cat(lhsExpr.asLongArray(), rhsExpr.asLongArray()).toArray(Long[]::new)
-          );
+          return ExprEval.ofLongArray(cat(lhsExpr.asLongArray(), rhsExpr.asLongArray()));
         case DOUBLE:
         case DOUBLE_ARRAY:
-          return ExprEval.ofDoubleArray(
-              cat(lhsExpr.asDoubleArray(), rhsExpr.asDoubleArray()).toArray(Double[]::new)
-          );
+          return ExprEval.ofDoubleArray(cat(lhsExpr.asDoubleArray(), rhsExpr.asDoubleArray()));
       }
       throw new RE("Unable to concatenate to unknown type %s", lhsExpr.type());
     }
 
-    private <T> Stream<T> cat(T[] array1, T[] array2)
+    private <T> T[] cat(T[] array1, T[] array2)
     {
-      List<T> l = new ArrayList<>(Arrays.asList(array1));
-      l.addAll(Arrays.asList(array2));
-      return l.stream();
+      final T[] concatenated = Arrays.copyOf(array1, array1.length + array2.length);
+      System.arraycopy(array2, 0, concatenated, array1.length, array2.length);
+      return concatenated;
     }
 
     @Override
@@ -2056,8 +2048,8 @@ interface Function
       final Object[] array1 = lhsExpr.asArray();
       final List<Object> array2 = Arrays.asList(rhsExpr.asArray());
       boolean any = false;
-      for (Object check : array1) {
-        any |= array2.contains(check);
+      for (int i = 0; i < array1.length && !any; i++) {
+        any = array2.contains(array1[i]);
       }
       return ExprEval.bestEffortOf(any);
     }
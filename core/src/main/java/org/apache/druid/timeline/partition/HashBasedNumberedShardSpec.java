@@ -26,6 +26,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.hash.HashFunction;
@@ -36,6 +37,12 @@ import org.apache.druid.data.input.Rows;
 import javax.annotation.Nullable;
 import java.util.List;
 
+/**
+ * A {@link NumberedShardSpec} whose rows are assigned to partitions by the hash of their partition dimensions. Rows
+ * with a hash of {@link #getBucketId()} modulo {@link #getNumBuckets()} belong to this partition. The bucket is the
+ * partitionNum unless the partitions of a set were renumbered after some buckets turned out to be empty, in which case
+ * the partitionNum and partitions describe the core partition set, and the bucket still describes the hashing.
+ */
 public class HashBasedNumberedShardSpec extends NumberedShardSpec
 {
   private static final HashFunction hashFunction = Hashing.murmur3_32();
@@ -44,11 +51,25 @@ public class HashBasedNumberedShardSpec extends NumberedShardSpec
   private final ObjectMapper jsonMapper;
   @JsonIgnore
   private final List<String> partitionDimensions;
+  private final int bucketId;
+  private final int numBuckets;
+
+  public HashBasedNumberedShardSpec(
+      int partitionNum,
+      int partitions,
+      @Nullable List<String> partitionDimensions,
+      ObjectMapper jsonMapper
+  )
+  {
+    this(partitionNum, partitions, null, null, partitionDimensions, jsonMapper);
+  }
 
   @JsonCreator
   public HashBasedNumberedShardSpec(
       @JsonProperty("partitionNum") int partitionNum,
       @JsonProperty("partitions") int partitions,
+      @JsonProperty("bucketId") @Nullable Integer bucketId,
+      @JsonProperty("numBuckets") @Nullable Integer numBuckets,
       @JsonProperty("partitionDimensions") @Nullable List<String> partitionDimensions,
       @JacksonInject ObjectMapper jsonMapper
   )
@@ -56,6 +77,37 @@ public class HashBasedNumberedShardSpec extends NumberedShardSpec
     super(partitionNum, partitions);
     this.jsonMapper = jsonMapper;
     this.partitionDimensions = partitionDimensions == null ? DEFAULT_PARTITION_DIMENSIONS : partitionDimensions;
+    this.bucketId = bucketId == null ? partitionNum : bucketId;
+    this.numBuckets = numBuckets == null ? partitions : numBuckets;
+    Preconditions.checkArgument(this.bucketId >= 0, "bucketId >= 0");
+    Preconditions.checkArgument(this.numBuckets >= 0, "numBuckets >= 0");
+  }
+
+  /**
+   * Returns a copy of this shard spec with the given partitionNum and number of core partitions, and the same bucket.
+   */
+  public HashBasedNumberedShardSpec withPartitionNum(int newPartitionNum, int newPartitions)
+  {
+    return new HashBasedNumberedShardSpec(
+        newPartitionNum,
+        newPartitions,
+        bucketId,
+        numBuckets,
+        partitionDimensions,
+        jsonMapper
+    );
+  }
+
+  @JsonProperty("bucketId")
+  public int getBucketId()
+  {
+    return bucketId;
+  }
+
+  @JsonProperty("numBuckets")
+  public int getNumBuckets()
+  {
+    return numBuckets;
   }
 
   @JsonProperty("partitionDimensions")
@@ -67,7 +119,7 @@ public class HashBasedNumberedShardSpec extends NumberedShardSpec
   @Override
   public boolean isInChunk(long timestamp, InputRow inputRow)
   {
-    return (((long) hash(timestamp, inputRow)) - getPartitionNum()) % getPartitions() == 0;
+    return (((long) hash(timestamp, inputRow)) - bucketId) % numBuckets == 0;
   }
 
   protected int hash(long timestamp, InputRow inputRow)
@@ -103,15 +155,20 @@ public class HashBasedNumberedShardSpec extends NumberedShardSpec
     return "HashBasedNumberedShardSpec{" +
            "partitionNum=" + getPartitionNum() +
            ", partitions=" + getPartitions() +
+           ", bucketId=" + bucketId +
+           ", numBuckets=" + numBuckets +
            ", partitionDimensions=" + getPartitionDimensions() +
            '}';
   }
 
+  /**
+   * Returns a lookup of the bucket of each row. The given shard specs must be all the buckets, ordered by bucket id.
+   */
   @Override
   public ShardSpecLookup getLookup(final List<ShardSpec> shardSpecs)
   {
     return (long timestamp, InputRow row) -> {
-      int index = Math.abs(hash(timestamp, row) % getPartitions());
+      int index = Math.abs(hash(timestamp, row) % numBuckets);
       return shardSpecs.get(index);
     };
   }
@@ -25,6 +25,7 @@ import org.apache.druid.TestObjectMapper;
 import org.apache.druid.java.util.common.parsers.JSONPathFieldSpec;
 import org.apache.druid.java.util.common.parsers.JSONPathFieldType;
 import org.apache.druid.java.util.common.parsers.JSONPathSpec;
+import org.apache.druid.java.util.common.parsers.JSONStreamingParser;
 import org.apache.druid.java.util.common.parsers.Parser;
 import org.junit.Assert;
 import org.junit.Test;
@@ -132,4 +133,24 @@ public class JSONParseSpecTest
     Assert.assertEquals(Arrays.asList("bar", "foo"), serde.getDimensionsSpec().getDimensionNames());
     Assert.assertEquals(feature, serde.getFeatureSpec());
   }
+
+  @Test
+  public void testSerdeStreaming() throws IOException
+  {
+    JSONParseSpec spec = new JSONParseSpec(
+        new TimestampSpec("timestamp", "iso", null),
+        new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("bar", "foo")), null, null),
+        null,
+        null,
+        true
+    );
+
+    final JSONParseSpec serde = (JSONParseSpec) jsonMapper.readValue(
+        jsonMapper.writeValueAsString(spec),
+        ParseSpec.class
+    );
+    Assert.assertTrue(serde.isStreaming());
+    Assert.assertEquals(spec, serde);
+    Assert.assertTrue(serde.withTimestampSpec(spec.getTimestampSpec()).makeParser() instanceof JSONStreamingParser);
+  }
 }
@@ -20,12 +20,20 @@
 package org.apache.druid.data.input.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.js.JavaScriptConfig;
 import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.nio.ByteBuffer;
+import java.util.List;
+
 public class StringInputRowParserTest
 {
   @Rule
@@ -49,7 +57,8 @@ public class StringInputRowParserTest
         "func",
         new JavaScriptConfig(false)
     );
-    final StringInputRowParser parser = new StringInputRowParser(parseSpec, "UTF-8");
+    final StringInputRowParser parser = new StringInputRowParser(parseSpec, "UTF-8")
+        .withRequiredFields(ImmutableSet.of("timestamp", "dim1", "dim2", "met1"));
 
     expectedException.expect(CoreMatchers.instanceOf(IllegalStateException.class));
     expectedException.expectMessage("JavaScript is disabled");
@@ -75,11 +84,51 @@ public class StringInputRowParserTest
         "func",
         new JavaScriptConfig(false)
     );
-    final StringInputRowParser parser = new StringInputRowParser(parseSpec, "UTF-8");
+    final StringInputRowParser parser = new StringInputRowParser(parseSpec, "UTF-8")
+        .withRequiredFields(ImmutableSet.of("timestamp", "dim1", "dim2", "met1"));
 
     expectedException.expect(CoreMatchers.instanceOf(IllegalStateException.class));
     expectedException.expectMessage("JavaScript is disabled");
 
     parser.parse("");
   }
+
+  @Test
+  public void testStreamingJson()
+  {
+    final JSONParseSpec parseSpec = new JSONParseSpec(
+        new TimestampSpec("timestamp", "iso", null),
+        new DimensionsSpec(
+            DimensionsSpec.getDefaultSchemas(ImmutableList.of("dim1", "dim2")),
+            ImmutableList.of("met1"),
+            null
+        ),
+        null,
+        null,
+        true
+    );
+    final StringInputRowParser parser = new StringInputRowParser(parseSpec, "UTF-8")
+        .withRequiredFields(ImmutableSet.of("timestamp", "dim1", "dim2", "met1"));
+    final String json = "{\"timestamp\":\"2019-01-01T00:00:00Z\", \"dim1\":\"a\", \"dim2\":[\"b\", \"c\"], "
+                        + "\"dim3\":\"d\", \"met1\":3, \"nested\":{\"x\":1}}";
+
+    final List<InputRow> rows = parser.parseBatch(ByteBuffer.wrap(StringUtils.toUtf8(json)));
+    Assert.assertEquals(1, rows.size());
+    final InputRow row = rows.get(0);
+    Assert.assertEquals(DateTimes.of("2019-01-01T00:00:00Z"), row.getTimestamp());
+    Assert.assertEquals(ImmutableList.of("dim1", "dim2"), row.getDimensions());
+    Assert.assertEquals(ImmutableList.of("a"), row.getDimension("dim1"));
+    Assert.assertEquals(ImmutableList.of("b", "c"), row.getDimension("dim2"));
+    Assert.assertEquals(3L, row.getMetric("met1").longValue());
+    // fields which are not required are skipped
+    Assert.assertNull(row.getRaw("dim3"));
+    Assert.assertNull(row.getRaw("nested"));
+
+    Assert.assertEquals(
+        new StringInputRowParser(new JSONParseSpec(parseSpec.getTimestampSpec(), parseSpec.getDimensionsSpec()), null)
+            .parse(json)
+            .getDimension("dim2"),
+        parser.parse(json).getDimension("dim2")
+    );
+  }
 }
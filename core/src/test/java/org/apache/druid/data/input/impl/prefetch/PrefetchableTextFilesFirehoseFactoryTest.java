@@ -358,6 +358,68 @@ public class PrefetchableTextFilesFirehoseFactoryTest
     }
   }
 
+  @Test
+  public void testParallelFetch() throws IOException
+  {
+    // Simulate the latency of remote object stores
+    final TestPrefetchableTextFilesFirehoseFactory factory =
+        TestPrefetchableTextFilesFirehoseFactory.withFetchThreads(TEST_DIR, 0, 8192, 20, 4);
+
+    final List<Row> rows = new ArrayList<>();
+    final File firehoseTmpDir = createFirehoseTmpDir("testParallelFetch");
+    try (Firehose firehose = factory.connect(parser, firehoseTmpDir)) {
+      while (firehose.hasMore()) {
+        rows.add(firehose.nextRow());
+      }
+    }
+
+    Assert.assertEquals(4, factory.getFetchThreads());
+    Assert.assertEquals(0, factory.getCacheManager().getTotalCachedBytes());
+    assertResult(rows);
+    assertNumRemainingCacheFiles(firehoseTmpDir, 0);
+  }
+
+  @Test
+  public void testParallelFetchWithZeroFetchCapacity() throws IOException
+  {
+    final TestPrefetchableTextFilesFirehoseFactory factory =
+        TestPrefetchableTextFilesFirehoseFactory.withFetchThreads(TEST_DIR, 0, 0, 0, 4);
+
+    final List<Row> rows = new ArrayList<>();
+    final File firehoseTmpDir = createFirehoseTmpDir("testParallelFetchWithZeroFetchCapacity");
+    try (Firehose firehose = factory.connect(parser, firehoseTmpDir)) {
+      while (firehose.hasMore()) {
+        rows.add(firehose.nextRow());
+      }
+    }
+
+    assertResult(rows);
+    assertNumRemainingCacheFiles(firehoseTmpDir, 0);
+  }
+
+  @Test
+  public void testReconnectWithCacheAndParallelFetch() throws IOException
+  {
+    final TestPrefetchableTextFilesFirehoseFactory factory =
+        TestPrefetchableTextFilesFirehoseFactory.withFetchThreads(TEST_DIR, 2048, 4096, 10, 4);
+    final File firehoseTmpDir = createFirehoseTmpDir("testReconnectWithCacheAndParallelFetch");
+
+    for (int i = 0; i < 3; i++) {
+      final List<Row> rows = new ArrayList<>();
+      try (Firehose firehose = factory.connect(parser, firehoseTmpDir)) {
+        if (i > 0) {
+          Assert.assertEquals(FILE_SIZE * 2, factory.getCacheManager().getTotalCachedBytes());
+        }
+
+        while (firehose.hasMore()) {
+          rows.add(firehose.nextRow());
+        }
+      }
+      assertResult(rows);
+      assertNumRemainingCacheFiles(firehoseTmpDir, 2);
+    }
+  }
+
   @Test
   public void testReconnectWithCache() throws IOException
   {
@@ -399,7 +461,8 @@ public class PrefetchableTextFilesFirehoseFactoryTest
           3,
           0,
           0,
-          0
+          0,
+          1
       );
     }
 
@@ -461,7 +524,30 @@ public class PrefetchableTextFilesFirehoseFactoryTest
           3,
           0,
           0,
-          ms
+          ms,
+          1
+      );
+    }
+
+    static TestPrefetchableTextFilesFirehoseFactory withFetchThreads(
+        File baseDir,
+        long cacheCapacity,
+        long fetchCapacity,
+        long sleepMillis,
+        int fetchThreads
+    )
+    {
+      return new TestPrefetchableTextFilesFirehoseFactory(
+          baseDir,
+          fetchCapacity / 2,
+          cacheCapacity,
+          fetchCapacity,
+          60_000, // fetch timeout
+          3,
+          0,
+          0,
+          sleepMillis,
+          fetchThreads
       );
     }
 
@@ -495,7 +581,8 @@ public class PrefetchableTextFilesFirehoseFactoryTest
           maxRetry,
           numOpenExceptions,
           numConnectionResets,
-          sleepMillis
+          sleepMillis,
+          1
       );
     }
 
@@ -508,7 +595,8 @@ public class PrefetchableTextFilesFirehoseFactoryTest
         int maxRetry,
         int numOpenExceptions,
         int maxConnectionResets,
-        long sleepMillis
+        long sleepMillis,
+        int fetchThreads
     )
     {
       super(
@@ -516,7 +604,8 @@ public class PrefetchableTextFilesFirehoseFactoryTest
           maxFetchCapacityBytes,
           prefetchTriggerThreshold,
           fetchTimeout,
-          maxRetry
+          maxRetry,
+          fetchThreads
       );
       this.numOpenExceptions = numOpenExceptions;
       this.maxConnectionResets = maxConnectionResets;
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.data.input.impl.prefetch;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ReadAheadReaderTest
+{
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private ExecutorService readAheadExecutor;
+
+  @Before
+  public void setup()
+  {
+    readAheadExecutor = Execs.singleThreaded("read-ahead-test-%d");
+  }
+
+  @After
+  public void teardown() throws InterruptedException
+  {
+    readAheadExecutor.shutdownNow();
+    Assert.assertTrue(readAheadExecutor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testRead() throws IOException
+  {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; builder.length() < ReadAheadReader.CHUNK_SIZE * 5; i++) {
+      builder.append(i).append('\n');
+    }
+    final String expected = builder.toString();
+
+    // The queue is smaller than the number of chunks, so the read-ahead thread should wait for the caller.
+    try (Reader reader = new ReadAheadReader(new StringReader(expected), readAheadExecutor, 2)) {
+      Assert.assertEquals(expected, IOUtils.toString(reader));
+      Assert.assertEquals(-1, reader.read());
+    }
+  }
+
+  @Test
+  public void testReadEmpty() throws IOException
+  {
+    try (Reader reader = new ReadAheadReader(new StringReader(""), readAheadExecutor, 2)) {
+      Assert.assertEquals(-1, reader.read());
+    }
+  }
+
+  @Test
+  public void testPropagateReadException() throws IOException
+  {
+    final Reader failingReader = new Reader()
+    {
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException
+      {
+        throw new IOException("Read failure for test");
+      }
+
+      @Override
+      public void close()
+      {
+      }
+    };
+
+    expectedException.expect(IOException.class);
+    expectedException.expectMessage("Read failure for test");
+    try (Reader reader = new ReadAheadReader(failingReader, readAheadExecutor, 2)) {
+      reader.read();
+    }
+  }
+
+  @Test
+  public void testCloseBeforeReadingAll() throws IOException, InterruptedException
+  {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; builder.length() < ReadAheadReader.CHUNK_SIZE * 10; i++) {
+      builder.append(i).append('\n');
+    }
+
+    final Reader reader = new ReadAheadReader(new StringReader(builder.toString()), readAheadExecutor, 1);
+    Assert.assertEquals('0', reader.read());
+    reader.close();
+
+    // The read-ahead thread should stop even though the remaining chunks are not consumed.
+    readAheadExecutor.shutdown();
+    Assert.assertTrue(readAheadExecutor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+}
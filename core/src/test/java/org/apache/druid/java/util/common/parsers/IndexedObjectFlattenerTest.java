@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.java.util.common.parsers;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.druid.java.util.common.IAE;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class IndexedObjectFlattenerTest
+{
+  private static final List<String> SCHEMA = ImmutableList.of("ts", "dim", "nested", "met");
+
+  @Test
+  public void testFlatSpecUsesIndexedFlattener()
+  {
+    final TestFlattenerMaker maker = new TestFlattenerMaker();
+    Assert.assertTrue(ObjectFlatteners.create(JSONPathSpec.DEFAULT, maker) instanceof IndexedObjectFlattener);
+    Assert.assertTrue(
+        ObjectFlatteners.create(
+            new JSONPathSpec(false, ImmutableList.of(new JSONPathFieldSpec(JSONPathFieldType.ROOT, "d", "dim"))),
+            maker
+        ) instanceof IndexedObjectFlattener
+    );
+    Assert.assertFalse(
+        ObjectFlatteners.create(
+            new JSONPathSpec(true, ImmutableList.of(new JSONPathFieldSpec(JSONPathFieldType.PATH, "d", "$.dim"))),
+            maker
+        ) instanceof IndexedObjectFlattener
+    );
+  }
+
+  @Test
+  public void testFieldDiscovery()
+  {
+    final TestFlattenerMaker maker = new TestFlattenerMaker();
+    final ObjectFlattener<TestRecord> flattener = ObjectFlatteners.create(JSONPathSpec.DEFAULT, maker);
+    final Map<String, Object> row = flattener.flatten(new TestRecord(SCHEMA, 1L, "a", null, 3.0));
+
+    // "nested" is not a discoverable field of TestFlattenerMaker
+    Assert.assertEquals(ImmutableList.of("ts", "dim", "met"), new ArrayList<>(row.keySet()));
+    Assert.assertEquals(3, row.size());
+    Assert.assertTrue(row.containsKey("dim"));
+    Assert.assertFalse(row.containsKey("nested"));
+    Assert.assertEquals(1L, row.get("ts"));
+    Assert.assertEquals("a", row.get("dim"));
+    Assert.assertEquals(3.0, row.get("met"));
+    Assert.assertNull(row.get("nested"));
+    Assert.assertNull(row.get("unknown"));
+  }
+
+  @Test
+  public void testRootFields()
+  {
+    final TestFlattenerMaker maker = new TestFlattenerMaker();
+    final ObjectFlattener<TestRecord> flattener = ObjectFlatteners.create(
+        new JSONPathSpec(
+            false,
+            ImmutableList.of(
+                new JSONPathFieldSpec(JSONPathFieldType.ROOT, "renamed", "dim"),
+                new JSONPathFieldSpec(JSONPathFieldType.ROOT, "met", "ts"),
+                new JSONPathFieldSpec(JSONPathFieldType.ROOT, "missing", "unknown")
+            )
+        ),
+        maker
+    );
+    final Map<String, Object> row = flattener.flatten(new TestRecord(SCHEMA, 1L, "a", null, 3.0));
+
+    Assert.assertEquals(ImmutableList.of("renamed", "met", "missing"), new ArrayList<>(row.keySet()));
+    Assert.assertEquals("a", row.get("renamed"));
+    // Fields defined in the flattenSpec hide the fields of the same names in the schema
+    Assert.assertEquals(1L, row.get("met"));
+    Assert.assertNull(row.get("missing"));
+    // Fields which are not in the flattenSpec can still be read by their names
+    Assert.assertEquals("a", row.get("dim"));
+  }
+
+  @Test
+  public void testEachFieldIsConvertedOnce()
+  {
+    final TestFlattenerMaker maker = new TestFlattenerMaker();
+    final ObjectFlattener<TestRecord> flattener = ObjectFlatteners.create(JSONPathSpec.DEFAULT, maker);
+    final Map<String, Object> row = flattener.flatten(new TestRecord(SCHEMA, 1L, null, null, 3.0));
+
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(1L, row.get("ts"));
+      Assert.assertNull(row.get("dim"));
+      row.entrySet();
+    }
+    Assert.assertEquals(3, maker.numConversions);
+    Assert.assertEquals(1, maker.numDiscoveries);
+  }
+
+  @Test
+  public void testSchemaChange()
+  {
+    final TestFlattenerMaker maker = new TestFlattenerMaker();
+    final ObjectFlattener<TestRecord> flattener = ObjectFlatteners.create(JSONPathSpec.DEFAULT, maker);
+
+    Assert.assertEquals("a", flattener.flatten(new TestRecord(SCHEMA, 1L, "a", null, 3.0)).get("dim"));
+    Assert.assertEquals("b", flattener.flatten(new TestRecord(SCHEMA, 2L, "b", null, 4.0)).get("dim"));
+    Assert.assertEquals(1, maker.numDiscoveries);
+
+    final Map<String, Object> row = flattener.flatten(
+        new TestRecord(ImmutableList.of("dim", "ts"), "c", 3L)
+    );
+    Assert.assertEquals(2, maker.numDiscoveries);
+    Assert.assertEquals(ImmutableList.of("dim", "ts"), new ArrayList<>(row.keySet()));
+    Assert.assertEquals("c", row.get("dim"));
+    Assert.assertEquals(3L, row.get("ts"));
+    Assert.assertNull(row.get("met"));
+  }
+
+  @Test(expected = IAE.class)
+  public void testDuplicateFields()
+  {
+    final ObjectFlattener<TestRecord> flattener = ObjectFlatteners.create(
+        new JSONPathSpec(
+            false,
+            ImmutableList.of(
+                new JSONPathFieldSpec(JSONPathFieldType.ROOT, "d", "dim"),
+                new JSONPathFieldSpec(JSONPathFieldType.ROOT, "d", "ts")
+            )
+        ),
+        new TestFlattenerMaker()
+    );
+    flattener.flatten(new TestRecord(SCHEMA, 1L, "a", null, 3.0));
+  }
+
+  private static class TestRecord
+  {
+    private final List<String> schema;
+    private final Object[] values;
+
+    private TestRecord(List<String> schema, Object... values)
+    {
+      this.schema = schema;
+      this.values = values;
+    }
+  }
+
+  private static class TestFlattenerMaker implements ObjectFlatteners.IndexedFlattenerMaker<TestRecord>
+  {
+    private int numConversions;
+    private int numDiscoveries;
+
+    @Override
+    public Object getSchema(TestRecord obj)
+    {
+      return obj.schema;
+    }
+
+    @Override
+    public List<String> getRootFieldNames(TestRecord obj)
+    {
+      return obj.schema;
+    }
+
+    @Override
+    public Object getRootField(TestRecord obj, int index)
+    {
+      numConversions++;
+      return obj.values[index];
+    }
+
+    @Override
+    public Iterable<String> discoverRootFields(TestRecord obj)
+    {
+      numDiscoveries++;
+      final List<String> fields = new ArrayList<>(obj.schema);
+      fields.remove("nested");
+      return fields;
+    }
+
+    @Override
+    public Object getRootField(TestRecord obj, String key)
+    {
+      final int index = obj.schema.indexOf(key);
+      return index < 0 ? null : getRootField(obj, index);
+    }
+
+    @Override
+    public Function<TestRecord, Object> makeJsonPathExtractor(String expr)
+    {
+      return obj -> null;
+    }
+
+    @Override
+    public Function<TestRecord, Object> makeJsonQueryExtractor(String expr)
+    {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.java.util.common.parsers;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.java.util.common.StringUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class JSONStreamingParserTest
+{
+  private static final String nestedJson =
+      "{\"simpleVal\":\"text\", \"ignore_me\":[1, {\"x\":2}], \"blah\":[4,5,6], \"newmet\":5, " +
+      "\"foo\":{\"bar1\":\"aaa\", \"bar2\":\"bbb\"}, " +
+      "\"baz\":[1,2,null,3], \"timestamp\":\"2999\", \"foo.bar1\":\"Hello world!\", \"nothing\":null, " +
+      "\"testListConvert\":[1234567890000000000000, \"foo\\uD900\"], " +
+      "\"testListConvert2\":[1234567890000000000000, \"foo\\uD900\", [1234567890000000000000]], " +
+      "\"testMapConvert\":{\"big\": 1234567890000000000000, \"big2\":{\"big2\":1234567890000000000000}}, " +
+      "\"testEmptyList\": [], \"five\" : 5.0, \"many\" : 1234567878900, " +
+      "\"hey\":[{\"barx\":\"asdf\"}], \"met\":{\"a\":[7,8,9]}}";
+  private static final String notJson = "***@#%R#*(TG@(*H(#@(#@((H#(@TH@(#TH(@SDHGKJDSKJFBSBJK";
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testSameAsJSONPathParserWithFieldDiscovery()
+  {
+    List<JSONPathFieldSpec> fields = new ArrayList<>();
+    fields.add(new JSONPathFieldSpec(JSONPathFieldType.ROOT, "baz", "baz"));
+    fields.add(new JSONPathFieldSpec(JSONPathFieldType.ROOT, "renamed", "simpleVal"));
+    fields.add(new JSONPathFieldSpec(JSONPathFieldType.ROOT, "testMapConvert", "testMapConvert"));
+    fields.add(new JSONPathFieldSpec(JSONPathFieldType.ROOT, "INVALID_ROOT", "INVALID_ROOT_EXPR"));
+    final JSONPathSpec flattenSpec = new JSONPathSpec(true, fields);
+
+    final Map<String, Object> expected = new JSONPathParser(flattenSpec, null).parseToMap(nestedJson);
+    final Map<String, Object> actual = new JSONStreamingParser(flattenSpec, null).parseToMap(nestedJson);
+    Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(expected.get("foo"), actual.get("foo"));
+    Assert.assertEquals(expected.get("hey"), actual.get("hey"));
+    Assert.assertEquals(ImmutableList.of(1L, 2L, 3L), actual.get("baz"));
+    Assert.assertEquals(ImmutableList.of(1.23456789E21, "foo?"), actual.get("testListConvert"));
+  }
+
+  @Test
+  public void testSameAsJSONPathParserWithoutFieldDiscovery()
+  {
+    List<JSONPathFieldSpec> fields = new ArrayList<>();
+    fields.add(new JSONPathFieldSpec(JSONPathFieldType.ROOT, "simpleVal", "simpleVal"));
+    fields.add(new JSONPathFieldSpec(JSONPathFieldType.ROOT, "timestamp", "timestamp"));
+    final JSONPathSpec flattenSpec = new JSONPathSpec(false, fields);
+
+    final Map<String, Object> expected = new JSONPathParser(flattenSpec, null).parseToMap(nestedJson);
+    final Map<String, Object> actual = new JSONStreamingParser(flattenSpec, null).parseToMap(nestedJson);
+    Assert.assertEquals(ImmutableMap.of("simpleVal", "text", "timestamp", "2999"), actual);
+    Assert.assertEquals(expected, actual);
+    // fields which are not discovered can still be read, as with JSONPathParser
+    Assert.assertEquals(expected.get("newmet"), actual.get("newmet"));
+  }
+
+  @Test
+  public void testParseBytes()
+  {
+    final JSONPathSpec flattenSpec = new JSONPathSpec(true, new ArrayList<>());
+    final byte[] bytes = StringUtils.toUtf8("xx" + nestedJson + "yy");
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 4);
+
+    final Map<String, Object> actual = new JSONStreamingParser(flattenSpec, null).parseToMap(buffer);
+    Assert.assertEquals(new JSONPathParser(flattenSpec, null).parseToMap(nestedJson), actual);
+    Assert.assertFalse(buffer.hasRemaining());
+
+    final ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+    directBuffer.put(bytes);
+    directBuffer.position(2);
+    directBuffer.limit(bytes.length - 2);
+    Assert.assertEquals(actual, new JSONStreamingParser(flattenSpec, null).parseToMap(directBuffer));
+  }
+
+  @Test
+  public void testRequiredFields()
+  {
+    List<JSONPathFieldSpec> fields = new ArrayList<>();
+    fields.add(new JSONPathFieldSpec(JSONPathFieldType.ROOT, "renamed", "simpleVal"));
+    final JSONStreamingParser parser = new JSONStreamingParser(new JSONPathSpec(true, fields), null)
+        .withRequiredFields(ImmutableSet.of("renamed", "timestamp", "met", "missing"));
+
+    final Map<String, Object> jsonMap = parser.parseToMap(nestedJson);
+    Assert.assertEquals(ImmutableSet.of("renamed", "simpleVal", "timestamp"), jsonMap.keySet());
+    Assert.assertEquals("text", jsonMap.get("renamed"));
+    Assert.assertEquals("2999", jsonMap.get("timestamp"));
+    Assert.assertEquals(ImmutableMap.of("a", ImmutableList.of(7L, 8L, 9L)), jsonMap.get("met"));
+    Assert.assertNull(jsonMap.get("missing"));
+    Assert.assertNull(jsonMap.get("newmet"));
+  }
+
+  @Test
+  public void testRejectPathFields()
+  {
+    List<JSONPathFieldSpec> fields = new ArrayList<>();
+    fields.add(new JSONPathFieldSpec(JSONPathFieldType.PATH, "nested-foo.bar1", "$.foo.bar1"));
+
+    thrown.expect(IllegalArgumentException.class);
+    new JSONStreamingParser(new JSONPathSpec(true, fields), null);
+  }
+
+  @Test
+  public void testParseFail()
+  {
+    thrown.expect(ParseException.class);
+    thrown.expectMessage("Unable to parse row [" + notJson + "]");
+
+    new JSONStreamingParser(new JSONPathSpec(true, new ArrayList<>()), null).parseToMap(notJson);
+  }
+}
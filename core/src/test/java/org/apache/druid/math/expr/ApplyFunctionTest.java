@@ -73,6 +73,8 @@ public class ApplyFunctionTest
     assertExpr("cartesian_map((x, y) -> concat(x, y), ['foo', 'bar', 'baz', 'foobar'], ['bar', 'baz'])", new String[] {"foobar", "foobaz", "barbar", "barbaz", "bazbar", "bazbaz", "foobarbar", "foobarbaz"});
     assertExpr("cartesian_map((x, y, z) -> concat(concat(x, y), z), ['foo', 'bar', 'baz', 'foobar'], ['bar', 'baz'], ['omg'])", new String[] {"foobaromg", "foobazomg", "barbaromg", "barbazomg", "bazbaromg", "bazbazomg", "foobarbaromg", "foobarbazomg"});
     assertExpr("cartesian_map(() -> 1, [1, 2], [1, 2, 3])", new Long[] {1L, 1L, 1L, 1L, 1L, 1L});
+    assertExpr("cartesian_map((x, y) -> x * 10 + y, [1, 2], [3, 4, 5])", new Long[] {13L, 14L, 15L, 23L, 24L, 25L});
+    assertExpr("cartesian_map((x, y) -> y * 10 + x, b, [1])", new Long[] {11L, 12L, 13L, 14L, 15L});
     assertExpr("cartesian_map((x, y) -> concat(x, y), d, d)", new String[] {null});
     assertExpr("cartesian_map((x, y) -> concat(x, y), d, f)", new String[0]);
     if (NullHandling.replaceWithDefault()) {
@@ -92,6 +94,9 @@ public class ApplyFunctionTest
 
     assertExpr("filter((x) -> x > 2, [1, 2, 3, 4, 5])", new Long[] {3L, 4L, 5L});
     assertExpr("filter((x) -> x > 2, b)", new Long[] {3L, 4L, 5L});
+    assertExpr("filter((x) -> x > 0, b)", new Long[] {1L, 2L, 3L, 4L, 5L});
+    assertExpr("filter((x) -> x > 5, b)", new Long[0]);
+    assertExpr("filter((x) -> x > 4, c)", new Double[] {4.2, 5.3});
   }
 
   @Test
@@ -108,6 +113,7 @@ public class ApplyFunctionTest
   public void testCartesianFold()
   {
     assertExpr("cartesian_fold((x, y, acc) -> x + y + acc, [1, 1, 1, 1, 1], [1, 1], 0)", 20L);
+    assertExpr("cartesian_fold((x, y, acc) -> acc * 10 + x * y, [1, 2], [3, 4], 0)", 3468L);
   }
 
   @Test
@@ -117,6 +123,8 @@ public class ApplyFunctionTest
     assertExpr("any(x -> x > 3, [1, 2, 3])", "false");
     assertExpr("any(x -> x, map(x -> x > 3, [1, 2, 3, 4]))", "true");
     assertExpr("any(x -> x, map(x -> x > 3, [1, 2, 3]))", "false");
+    assertExpr("any(x -> x == 'baz', a)", "true");
+    assertExpr("any(x -> x == 'qux', a)", "false");
   }
 
   @Test
@@ -56,10 +56,18 @@ public class StaticAzureBlobStoreFirehoseFactory extends PrefetchableTextFilesFi
       @JsonProperty("maxFetchCapacityBytes") Long maxFetchCapacityBytes,
       @JsonProperty("prefetchTriggerBytes") Long prefetchTriggerBytes,
       @JsonProperty("fetchTimeout") Long fetchTimeout,
-      @JsonProperty("maxFetchRetry") Integer maxFetchRetry
+      @JsonProperty("maxFetchRetry") Integer maxFetchRetry,
+      @JsonProperty("fetchThreads") Integer fetchThreads
   )
   {
-    super(maxCacheCapacityBytes, maxFetchCapacityBytes, prefetchTriggerBytes, fetchTimeout, maxFetchRetry);
+    super(
+        maxCacheCapacityBytes,
+        maxFetchCapacityBytes,
+        prefetchTriggerBytes,
+        fetchTimeout,
+        maxFetchRetry,
+        fetchThreads
+    );
     this.blobs = blobs;
     this.azureStorage = azureStorage;
   }
@@ -126,7 +134,8 @@ public class StaticAzureBlobStoreFirehoseFactory extends PrefetchableTextFilesFi
            getMaxFetchCapacityBytes() == that.getMaxFetchCapacityBytes() &&
            getPrefetchTriggerBytes() == that.getPrefetchTriggerBytes() &&
            getFetchTimeout() == that.getFetchTimeout() &&
-           getMaxFetchRetry() == that.getMaxFetchRetry();
+           getMaxFetchRetry() == that.getMaxFetchRetry() &&
+           getFetchThreads() == that.getFetchThreads();
   }
 
   @Override
@@ -138,7 +147,8 @@ public class StaticAzureBlobStoreFirehoseFactory extends PrefetchableTextFilesFi
         getMaxFetchCapacityBytes(),
         getPrefetchTriggerBytes(),
         getFetchTimeout(),
-        getMaxFetchRetry()
+        getMaxFetchRetry(),
+        getFetchThreads()
     );
   }
 
@@ -158,7 +168,8 @@ public class StaticAzureBlobStoreFirehoseFactory extends PrefetchableTextFilesFi
         getMaxFetchCapacityBytes(),
         getPrefetchTriggerBytes(),
         getFetchTimeout(),
-        getMaxFetchRetry()
+        getMaxFetchRetry(),
+        getFetchThreads()
     );
   }
 }
@@ -58,7 +58,8 @@ public class StaticAzureBlobStoreFirehoseFactoryTest
         1024L,
         512L,
         100L,
-        5
+        5,
+        4
     );
 
     final StaticAzureBlobStoreFirehoseFactory outputFact = mapper.readValue(
@@ -56,10 +56,18 @@ public class StaticCloudFilesFirehoseFactory extends PrefetchableTextFilesFireho
       @JsonProperty("maxFetchCapacityBytes") Long maxFetchCapacityBytes,
       @JsonProperty("prefetchTriggerBytes") Long prefetchTriggerBytes,
       @JsonProperty("fetchTimeout") Long fetchTimeout,
-      @JsonProperty("maxFetchRetry") Integer maxFetchRetry
+      @JsonProperty("maxFetchRetry") Integer maxFetchRetry,
+      @JsonProperty("fetchThreads") Integer fetchThreads
   )
   {
-    super(maxCacheCapacityBytes, maxFetchCapacityBytes, prefetchTriggerBytes, fetchTimeout, maxFetchRetry);
+    super(
+        maxCacheCapacityBytes,
+        maxFetchCapacityBytes,
+        prefetchTriggerBytes,
+        fetchTimeout,
+        maxFetchRetry,
+        fetchThreads
+    );
     this.cloudFilesApi = cloudFilesApi;
     this.blobs = blobs;
   }
@@ -124,7 +132,8 @@ public class StaticCloudFilesFirehoseFactory extends PrefetchableTextFilesFireho
            getMaxFetchCapacityBytes() == that.getMaxFetchCapacityBytes() &&
            getPrefetchTriggerBytes() == that.getPrefetchTriggerBytes() &&
            getFetchTimeout() == that.getFetchTimeout() &&
-           getMaxFetchRetry() == that.getMaxFetchRetry();
+           getMaxFetchRetry() == that.getMaxFetchRetry() &&
+           getFetchThreads() == that.getFetchThreads();
   }
 
   @Override
@@ -136,7 +145,8 @@ public class StaticCloudFilesFirehoseFactory extends PrefetchableTextFilesFireho
         getMaxFetchCapacityBytes(),
         getPrefetchTriggerBytes(),
         getFetchTimeout(),
-        getMaxFetchRetry()
+        getMaxFetchRetry(),
+        getFetchThreads()
     );
   }
 
@@ -156,7 +166,8 @@ public class StaticCloudFilesFirehoseFactory extends PrefetchableTextFilesFireho
         getMaxFetchCapacityBytes(),
         getPrefetchTriggerBytes(),
         getFetchTimeout(),
-        getMaxFetchRetry()
+        getMaxFetchRetry(),
+        getFetchThreads()
     );
   }
 }
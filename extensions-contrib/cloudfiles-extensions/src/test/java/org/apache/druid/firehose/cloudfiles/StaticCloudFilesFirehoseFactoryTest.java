@@ -59,7 +59,8 @@ public class StaticCloudFilesFirehoseFactoryTest
         1024L,
         512L,
         100L,
-        5
+        5,
+        4
     );
 
     final StaticCloudFilesFirehoseFactory outputFact = mapper.readValue(
@@ -97,6 +97,13 @@ public class DataSourceOptimizer
       costTime.putIfAbsent(datasourceName, new AtomicLong(0));
       totalCount.get(datasourceName).incrementAndGet();
       
+      // aggregators like count would count the rows of the derivatives, which are rolled up further than the rows of
+      // the base dataSource.
+      if (MaterializedViewUtils.hasRowCountingAggregators(query)) {
+        costTime.get(datasourceName).addAndGet(System.currentTimeMillis() - start);
+        return Collections.singletonList(query);
+      }
+
       // get all fields which the query required
       Set<String> requiredFields = MaterializedViewUtils.getRequiredFields(query);
       
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.materializedview;
+
+import com.google.inject.Inject;
+import org.apache.druid.query.Query;
+import org.apache.druid.query.TableDataSource;
+import org.apache.druid.query.groupby.GroupByQuery;
+import org.apache.druid.query.timeseries.TimeseriesQuery;
+import org.apache.druid.query.topn.TopNQuery;
+import org.apache.druid.sql.calcite.rel.QueryRewriter;
+
+/**
+ * Lets SQL queries read derivative dataSources. Wraps the topN/timeseries/groupBy queries made for SQL on a
+ * dataSource which has derivatives in a {@link MaterializedViewQuery}, whose {@link DataSourceOptimizer} picks the
+ * smallest derivatives covering the query for the intervals they have built, and reads the base dataSource for the
+ * other intervals.
+ */
+public class MaterializedViewQueryRewriter implements QueryRewriter
+{
+  /**
+   * Query context parameter to set to false to make SQL queries read only the dataSources they name.
+   */
+  public static final String CTX_USE_MATERIALIZED_VIEWS = "useMaterializedViews";
+
+  private final DataSourceOptimizer optimizer;
+
+  @Inject
+  public MaterializedViewQueryRewriter(DataSourceOptimizer optimizer)
+  {
+    this.optimizer = optimizer;
+  }
+
+  @Override
+  public <T> Query<T> rewrite(Query<T> query)
+  {
+    if (!(query instanceof TopNQuery || query instanceof TimeseriesQuery || query instanceof GroupByQuery)
+        || !(query.getDataSource() instanceof TableDataSource)
+        || !query.getContextBoolean(CTX_USE_MATERIALIZED_VIEWS, true)) {
+      return query;
+    }
+    String datasourceName = ((TableDataSource) query.getDataSource()).getName();
+    if (DerivativeDataSourceManager.getDerivatives(datasourceName).isEmpty()) {
+      return query;
+    }
+    return new MaterializedViewQuery<>(query, optimizer);
+  }
+}
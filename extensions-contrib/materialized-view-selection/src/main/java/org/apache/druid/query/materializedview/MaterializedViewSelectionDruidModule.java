@@ -30,6 +30,7 @@ import org.apache.druid.guice.JsonConfigProvider;
 import org.apache.druid.guice.LifecycleModule;
 import org.apache.druid.initialization.DruidModule;
 import org.apache.druid.server.metrics.MetricsModule;
+import org.apache.druid.sql.guice.SqlBindings;
 
 import java.util.List;
 
@@ -55,5 +56,6 @@ public class MaterializedViewSelectionDruidModule implements DruidModule
     binder.bind(DataSourceOptimizer.class).in(Singleton.class);
     MetricsModule.register(binder, DataSourceOptimizerMonitor.class);
     JsonConfigProvider.bind(binder, "druid.manager.derivatives", MaterializedViewConfig.class);
+    SqlBindings.addQueryRewriter(binder, MaterializedViewQueryRewriter.class);
   }
 }
@@ -28,9 +28,14 @@ import org.apache.druid.query.dimension.DimensionSpec;
 import org.apache.druid.query.groupby.GroupByQuery;
 import org.apache.druid.query.timeseries.TimeseriesQuery;
 import org.apache.druid.query.topn.TopNQuery;
+import org.apache.druid.segment.VirtualColumn;
+import org.apache.druid.segment.VirtualColumns;
+import org.apache.druid.segment.column.ColumnHolder;
 import org.joda.time.Interval;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -42,6 +47,9 @@ public class MaterializedViewUtils
    * extract all dimensions in query.
    * only support TopNQuery/TimeseriesQuery/GroupByQuery
    * 
+   * Virtual columns are replaced by the columns they read, and the time column is left out, since every dataSource
+   * has one.
+   * 
    * @param query
    * @return dimensions set in query
    */
@@ -50,14 +58,17 @@ public class MaterializedViewUtils
     Set<String> dimensions = new HashSet<>();
     Set<String> dimsInFilter = null == query.getFilter() ? new HashSet<String>() : query.getFilter().getRequiredColumns();
     dimensions.addAll(dimsInFilter);
+    VirtualColumns virtualColumns;
 
     if (query instanceof TopNQuery) {
       TopNQuery q = (TopNQuery) query;
       dimensions.addAll(extractFieldsFromAggregations(q.getAggregatorSpecs()));
       dimensions.add(q.getDimensionSpec().getDimension());
+      virtualColumns = q.getVirtualColumns();
     } else if (query instanceof TimeseriesQuery) {
       TimeseriesQuery q = (TimeseriesQuery) query;
       dimensions.addAll(extractFieldsFromAggregations(q.getAggregatorSpecs()));
+      virtualColumns = q.getVirtualColumns();
     } else if (query instanceof GroupByQuery) {
       GroupByQuery q = (GroupByQuery) query;
       dimensions.addAll(extractFieldsFromAggregations(q.getAggregatorSpecs()));
@@ -65,10 +76,60 @@ public class MaterializedViewUtils
         String dim = spec.getDimension();
         dimensions.add(dim);
       }
+      virtualColumns = q.getVirtualColumns();
     } else {
       throw new UnsupportedOperationException("Method getRequeiredFields only support TopNQuery/TimeseriesQuery/GroupByQuery");
     }
-    return dimensions;
+    Set<String> fields = replaceVirtualColumns(dimensions, virtualColumns);
+    fields.remove(ColumnHolder.TIME_COLUMN_NAME);
+    return fields;
+  }
+
+  /**
+   * Whether the query has aggregators which don't read any column, such as count. Such aggregators count the rows of
+   * the dataSource they read, so they would return different results on a derivative, whose rows are rolled up
+   * further than the rows of its base dataSource.
+   * only support TopNQuery/TimeseriesQuery/GroupByQuery
+   */
+  public static boolean hasRowCountingAggregators(Query query)
+  {
+    List<AggregatorFactory> aggs;
+    if (query instanceof TopNQuery) {
+      aggs = ((TopNQuery) query).getAggregatorSpecs();
+    } else if (query instanceof TimeseriesQuery) {
+      aggs = ((TimeseriesQuery) query).getAggregatorSpecs();
+    } else if (query instanceof GroupByQuery) {
+      aggs = ((GroupByQuery) query).getAggregatorSpecs();
+    } else {
+      throw new UnsupportedOperationException("Method hasRowCountingAggregators only support TopNQuery/TimeseriesQuery/GroupByQuery");
+    }
+    for (AggregatorFactory agg : aggs) {
+      while (agg instanceof FilteredAggregatorFactory) {
+        agg = ((FilteredAggregatorFactory) agg).getAggregator();
+      }
+      if (agg.requiredFields().isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Set<String> replaceVirtualColumns(Set<String> fields, VirtualColumns virtualColumns)
+  {
+    Set<String> ret = new HashSet<>();
+    Set<String> visited = new HashSet<>();
+    Deque<String> toVisit = new ArrayDeque<>(fields);
+    while (!toVisit.isEmpty()) {
+      String field = toVisit.pop();
+      VirtualColumn virtualColumn = virtualColumns.getVirtualColumn(field);
+      if (virtualColumn == null) {
+        ret.add(field);
+      } else if (visited.add(field)) {
+        // virtual columns may read other virtual columns
+        toVisit.addAll(virtualColumn.requiredColumns());
+      }
+    }
+    return ret;
   }
 
   private static Set<String> extractFieldsFromAggregations(List<AggregatorFactory> aggs) 
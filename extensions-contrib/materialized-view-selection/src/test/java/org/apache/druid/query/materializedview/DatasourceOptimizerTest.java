@@ -44,11 +44,15 @@ import org.apache.druid.metadata.TestDerbyConnector;
 import org.apache.druid.query.Query;
 import org.apache.druid.query.QueryToolChestWarehouse;
 import org.apache.druid.query.QueryWatcher;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
 import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.query.expression.TestExprMacroTable;
 import org.apache.druid.query.spec.MultipleIntervalSegmentSpec;
 import org.apache.druid.query.topn.TopNQuery;
 import org.apache.druid.query.topn.TopNQueryBuilder;
 import org.apache.druid.segment.TestHelper;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.virtual.ExpressionVirtualColumn;
 import org.apache.druid.server.coordination.DruidServerMetadata;
 import org.apache.druid.server.coordination.ServerType;
 import org.apache.druid.server.initialization.ZkPathsConfig;
@@ -235,6 +239,57 @@ public class DatasourceOptimizerTest extends CuratorTestBase
             .build()
     );
     Assert.assertEquals(expectedQueryAfterOptimizing, optimizer.optimize(userQuery));
+
+    // virtual columns reading covered columns can be optimized
+    TopNQuery userQueryWithVirtualColumns = new TopNQueryBuilder()
+        .dataSource("base")
+        .granularity(allGran)
+        .virtualColumns(
+            new ExpressionVirtualColumn("v0", "concat(dim1, dim2)", ValueType.STRING, TestExprMacroTable.INSTANCE)
+        )
+        .dimension("v0")
+        .metric("cost")
+        .threshold(4)
+        .intervals("2011-04-01/2011-04-04")
+        .aggregators(
+            Collections.singletonList(new LongSumAggregatorFactory("cost", "cost"))
+        )
+        .build();
+    Assert.assertEquals(
+        Collections.singletonList(
+            new TopNQueryBuilder(userQueryWithVirtualColumns)
+                .dataSource("derivative")
+                .intervals(
+                    new MultipleIntervalSegmentSpec(Collections.singletonList(Intervals.of("2011-04-01/2011-04-04")))
+                )
+                .build()
+        ),
+        optimizer.optimize(userQueryWithVirtualColumns)
+    );
+
+    // count would count the rows of the derivative, so it can't be optimized
+    TopNQuery userQueryWithCount = new TopNQueryBuilder()
+        .dataSource("base")
+        .granularity(allGran)
+        .dimension("dim1")
+        .metric("rows")
+        .threshold(4)
+        .intervals("2011-04-01/2011-04-06")
+        .aggregators(
+            Collections.singletonList(new CountAggregatorFactory("rows"))
+        )
+        .build();
+    Assert.assertEquals(Collections.singletonList(userQueryWithCount), optimizer.optimize(userQueryWithCount));
+
+    // SQL queries on dataSources with derivatives are wrapped in view queries, unless disabled in the context
+    MaterializedViewQueryRewriter rewriter = new MaterializedViewQueryRewriter(optimizer);
+    Assert.assertEquals(new MaterializedViewQuery<>(userQuery, optimizer), rewriter.rewrite(userQuery));
+    TopNQuery userQueryOnDerivative = new TopNQueryBuilder(userQuery).dataSource("derivative").build();
+    Assert.assertSame(userQueryOnDerivative, rewriter.rewrite(userQueryOnDerivative));
+    TopNQuery userQueryWithoutViews = userQuery.withOverriddenContext(
+        ImmutableMap.of(MaterializedViewQueryRewriter.CTX_USE_MATERIALIZED_VIEWS, false)
+    );
+    Assert.assertSame(userQueryWithoutViews, rewriter.rewrite(userQueryWithoutViews));
     derivativesManager.stop();
   }
   
@@ -201,6 +201,53 @@ public class MaterializedViewUtilsTest
     );
   }
   
+  @Test
+  public void testGetRequiredFieldsWithVirtualColumns() throws Exception
+  {
+    String queryStr = "{\n" +
+        "  \"queryType\": \"groupBy\",\n" +
+        "  \"dataSource\": \"sample_datasource\",\n" +
+        "  \"granularity\": \"all\",\n" +
+        "  \"virtualColumns\": [\n" +
+        "    { \"type\": \"expression\", \"name\": \"v0\", \"expression\": \"timestamp_floor(__time, 'P1D')\", \"outputType\": \"LONG\" },\n" +
+        "    { \"type\": \"expression\", \"name\": \"v1\", \"expression\": \"concat(\\\"country\\\", \\\"v2\\\")\", \"outputType\": \"STRING\" },\n" +
+        "    { \"type\": \"expression\", \"name\": \"v2\", \"expression\": \"lower(\\\"device\\\")\", \"outputType\": \"STRING\" }\n" +
+        "  ],\n" +
+        "  \"dimensions\": [\"v0\", \"v1\"],\n" +
+        "  \"aggregations\": [\n" +
+        "    { \"type\": \"longSum\", \"name\": \"total_usage\", \"fieldName\": \"user_count\" }\n" +
+        "  ],\n" +
+        "  \"intervals\": [ \"2012-01-01T00:00:00.000/2012-01-03T00:00:00.000\" ]\n" +
+        "}";
+    GroupByQuery query = jsonMapper.readValue(queryStr, GroupByQuery.class);
+    Set<String> fields = MaterializedViewUtils.getRequiredFields(query);
+    Assert.assertEquals(
+        Sets.newHashSet("country", "device", "user_count"),
+        fields
+    );
+    Assert.assertFalse(MaterializedViewUtils.hasRowCountingAggregators(query));
+  }
+
+  @Test
+  public void testHasRowCountingAggregators() throws Exception
+  {
+    String queryStr = "{\n" +
+        "  \"queryType\": \"timeseries\",\n" +
+        "  \"dataSource\": \"sample_datasource\",\n" +
+        "  \"granularity\": \"day\",\n" +
+        "  \"aggregations\": [\n" +
+        "    { \"type\": \"longSum\", \"name\": \"total_usage\", \"fieldName\": \"user_count\" },\n" +
+        "    { \"type\": \"filtered\",\n" +
+        "      \"filter\": { \"type\": \"selector\", \"dimension\": \"country\", \"value\": \"US\" },\n" +
+        "      \"aggregator\": { \"type\": \"count\", \"name\": \"us_rows\" }\n" +
+        "    }\n" +
+        "  ],\n" +
+        "  \"intervals\": [ \"2012-01-01T00:00:00.000/2012-01-03T00:00:00.000\" ]\n" +
+        "}";
+    TimeseriesQuery query = jsonMapper.readValue(queryStr, TimeseriesQuery.class);
+    Assert.assertTrue(MaterializedViewUtils.hasRowCountingAggregators(query));
+  }
+
   @Test
   public void testIntervalMinus()
   {
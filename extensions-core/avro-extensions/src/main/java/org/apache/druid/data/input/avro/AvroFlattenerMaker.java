@@ -37,7 +37,7 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-public class AvroFlattenerMaker implements ObjectFlatteners.FlattenerMaker<GenericRecord>
+public class AvroFlattenerMaker implements ObjectFlatteners.IndexedFlattenerMaker<GenericRecord>
 {
   private static final Configuration JSONPATH_CONFIGURATION =
       Configuration.builder()
@@ -112,6 +112,24 @@ public class AvroFlattenerMaker implements ObjectFlatteners.FlattenerMaker<Gener
     return transformValue(record.get(key));
   }
 
+  @Override
+  public Object getSchema(final GenericRecord obj)
+  {
+    return obj.getSchema();
+  }
+
+  @Override
+  public List<String> getRootFieldNames(final GenericRecord obj)
+  {
+    return obj.getSchema().getFields().stream().map(Schema.Field::name).collect(Collectors.toList());
+  }
+
+  @Override
+  public Object getRootField(final GenericRecord record, final int index)
+  {
+    return transformValue(record.get(index));
+  }
+
   @Override
   public Function<GenericRecord, Object> makeJsonPathExtractor(final String expr)
   {
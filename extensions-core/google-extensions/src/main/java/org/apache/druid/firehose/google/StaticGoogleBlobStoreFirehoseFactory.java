@@ -52,10 +52,18 @@ public class StaticGoogleBlobStoreFirehoseFactory extends PrefetchableTextFilesF
       @JsonProperty("maxFetchCapacityBytes") Long maxFetchCapacityBytes,
       @JsonProperty("prefetchTriggerBytes") Long prefetchTriggerBytes,
       @JsonProperty("fetchTimeout") Long fetchTimeout,
-      @JsonProperty("maxFetchRetry") Integer maxFetchRetry
+      @JsonProperty("maxFetchRetry") Integer maxFetchRetry,
+      @JsonProperty("fetchThreads") Integer fetchThreads
   )
   {
-    super(maxCacheCapacityBytes, maxFetchCapacityBytes, prefetchTriggerBytes, fetchTimeout, maxFetchRetry);
+    super(
+        maxCacheCapacityBytes,
+        maxFetchCapacityBytes,
+        prefetchTriggerBytes,
+        fetchTimeout,
+        maxFetchRetry,
+        fetchThreads
+    );
     this.storage = storage;
     this.blobs = blobs;
   }
@@ -117,7 +125,8 @@ public class StaticGoogleBlobStoreFirehoseFactory extends PrefetchableTextFilesF
            getMaxFetchCapacityBytes() == that.getMaxFetchCapacityBytes() &&
            getPrefetchTriggerBytes() == that.getPrefetchTriggerBytes() &&
            getFetchTimeout() == that.getFetchTimeout() &&
-           getMaxFetchRetry() == that.getMaxFetchRetry();
+           getMaxFetchRetry() == that.getMaxFetchRetry() &&
+           getFetchThreads() == that.getFetchThreads();
   }
 
   @Override
@@ -129,7 +138,8 @@ public class StaticGoogleBlobStoreFirehoseFactory extends PrefetchableTextFilesF
         getMaxFetchCapacityBytes(),
         getPrefetchTriggerBytes(),
         getFetchTimeout(),
-        getMaxFetchRetry()
+        getMaxFetchRetry(),
+        getFetchThreads()
     );
   }
 
@@ -149,7 +159,8 @@ public class StaticGoogleBlobStoreFirehoseFactory extends PrefetchableTextFilesF
         getMaxFetchCapacityBytes(),
         getPrefetchTriggerBytes(),
         getFetchTimeout(),
-        getMaxFetchRetry()
+        getMaxFetchRetry(),
+        getFetchThreads()
     );
   }
 }
@@ -58,7 +58,8 @@ public class StaticGoogleBlobStoreFirehoseFactoryTest
         1024L,
         512L,
         100L,
-        5
+        5,
+        4
     );
 
     final StaticGoogleBlobStoreFirehoseFactory outputFact = mapper.readValue(
@@ -50,7 +50,12 @@ public class KafkaIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningCon
       @JsonProperty("intermediateHandoffPeriod") @Nullable Period intermediateHandoffPeriod,
       @JsonProperty("logParseExceptions") @Nullable Boolean logParseExceptions,
       @JsonProperty("maxParseExceptions") @Nullable Integer maxParseExceptions,
-      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions
+      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions,
+      @JsonProperty("numParseThreads") @Nullable Integer numParseThreads,
+      @JsonProperty("numPersistThreads") @Nullable Integer numPersistThreads,
+      @JsonProperty("numMergeThreads") @Nullable Integer numMergeThreads,
+      @JsonProperty("maxColumnsToMerge") @Nullable Integer maxColumnsToMerge,
+      @JsonProperty("offheapIncrementalIndex") @Nullable Boolean offheapIncrementalIndex
   )
   {
     super(
@@ -71,7 +76,12 @@ public class KafkaIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningCon
         intermediateHandoffPeriod,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        numParseThreads,
+        numPersistThreads,
+        numMergeThreads,
+        maxColumnsToMerge,
+        offheapIncrementalIndex
     );
   }
 
@@ -95,7 +105,12 @@ public class KafkaIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningCon
         getIntermediateHandoffPeriod(),
         isLogParseExceptions(),
         getMaxParseExceptions(),
-        getMaxSavedParseExceptions()
+        getMaxSavedParseExceptions(),
+        getNumParseThreads(),
+        getNumPersistThreads(),
+        getNumMergeThreads(),
+        getMaxColumnsToMerge(),
+        isOffheapIncrementalIndex()
     );
   }
 
@@ -120,6 +135,11 @@ public class KafkaIndexTaskTuningConfig extends SeekableStreamIndexTaskTuningCon
            ", logParseExceptions=" + isLogParseExceptions() +
            ", maxParseExceptions=" + getMaxParseExceptions() +
            ", maxSavedParseExceptions=" + getMaxSavedParseExceptions() +
+           ", numParseThreads=" + getNumParseThreads() +
+           ", numPersistThreads=" + getNumPersistThreads() +
+           ", numMergeThreads=" + getNumMergeThreads() +
+           ", maxColumnsToMerge=" + getMaxColumnsToMerge() +
+           ", offheapIncrementalIndex=" + isOffheapIncrementalIndex() +
            '}';
   }
 
@@ -58,6 +58,7 @@ import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
 import org.apache.druid.server.metrics.DruidMonitorSchedulerConfig;
 import org.joda.time.DateTime;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -279,6 +280,17 @@ public class KafkaSupervisor extends SeekableStreamSupervisor<Integer, Long>
         );
   }
 
+  @Nullable
+  @Override
+  protected Long computeTotalLag()
+  {
+    final Map<Integer, Long> highestCurrentOffsets = getHighestCurrentOffsets();
+    if (latestSequenceFromStream == null || !latestSequenceFromStream.keySet().equals(highestCurrentOffsets.keySet())) {
+      return null;
+    }
+    return getLagPerPartition(highestCurrentOffsets).values().stream().mapToLong(lag -> Math.max(lag, 0)).sum();
+  }
+
   @Override
   protected KafkaDataSourceMetadata createDataSourceMetaDataForReset(String topic, Map<Integer, Long> map)
   {
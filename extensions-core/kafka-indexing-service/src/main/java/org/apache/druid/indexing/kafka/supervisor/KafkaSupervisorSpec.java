@@ -85,6 +85,11 @@ public class KafkaSupervisorSpec extends SeekableStreamSupervisorSpec
             null,
             null,
             null,
+            null,
+            null,
+            null,
+            null,
+            null,
             null
         ),
         ioConfig,
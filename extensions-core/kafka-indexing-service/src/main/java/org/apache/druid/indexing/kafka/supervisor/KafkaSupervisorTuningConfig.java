@@ -68,7 +68,12 @@ public class KafkaSupervisorTuningConfig extends KafkaIndexTaskTuningConfig
       @JsonProperty("intermediateHandoffPeriod") Period intermediateHandoffPeriod,
       @JsonProperty("logParseExceptions") @Nullable Boolean logParseExceptions,
       @JsonProperty("maxParseExceptions") @Nullable Integer maxParseExceptions,
-      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions
+      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions,
+      @JsonProperty("numParseThreads") @Nullable Integer numParseThreads,
+      @JsonProperty("numPersistThreads") @Nullable Integer numPersistThreads,
+      @JsonProperty("numMergeThreads") @Nullable Integer numMergeThreads,
+      @JsonProperty("maxColumnsToMerge") @Nullable Integer maxColumnsToMerge,
+      @JsonProperty("offheapIncrementalIndex") @Nullable Boolean offheapIncrementalIndex
   )
   {
     super(
@@ -88,7 +93,12 @@ public class KafkaSupervisorTuningConfig extends KafkaIndexTaskTuningConfig
         intermediateHandoffPeriod,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        numParseThreads,
+        numPersistThreads,
+        numMergeThreads,
+        maxColumnsToMerge,
+        offheapIncrementalIndex
     );
     this.workerThreads = workerThreads;
     this.chatThreads = chatThreads;
@@ -171,6 +181,11 @@ public class KafkaSupervisorTuningConfig extends KafkaIndexTaskTuningConfig
            ", logParseExceptions=" + isLogParseExceptions() +
            ", maxParseExceptions=" + getMaxParseExceptions() +
            ", maxSavedParseExceptions=" + getMaxSavedParseExceptions() +
+           ", numParseThreads=" + getNumParseThreads() +
+           ", numPersistThreads=" + getNumPersistThreads() +
+           ", numMergeThreads=" + getNumMergeThreads() +
+           ", maxColumnsToMerge=" + getMaxColumnsToMerge() +
+           ", offheapIncrementalIndex=" + isOffheapIncrementalIndex() +
            '}';
   }
 
@@ -194,7 +209,12 @@ public class KafkaSupervisorTuningConfig extends KafkaIndexTaskTuningConfig
         getIntermediateHandoffPeriod(),
         isLogParseExceptions(),
         getMaxParseExceptions(),
-        getMaxSavedParseExceptions()
+        getMaxSavedParseExceptions(),
+        getNumParseThreads(),
+        getNumPersistThreads(),
+        getNumMergeThreads(),
+        getMaxColumnsToMerge(),
+        isOffheapIncrementalIndex()
     );
   }
 }
@@ -215,6 +215,9 @@ public class KafkaIndexTaskTest
   private Integer maxRowsPerSegment = null;
   private Long maxTotalRows = null;
   private Period intermediateHandoffPeriod = null;
+  private Integer numParseThreads = null;
+  private Integer numPersistThreads = null;
+  private Integer numMergeThreads = null;
 
   private TaskToolboxFactory toolboxFactory;
   private IndexerMetadataStorageCoordinator metadataStorageCoordinator;
@@ -430,6 +433,15 @@ public class KafkaIndexTaskTest
     Assert.assertEquals(ImmutableList.of("d", "e"), readSegmentColumn("dim1", desc2));
   }
 
+  @Test(timeout = 60_000L)
+  public void testRunAfterDataInsertedWithPersistAndMergeThreads() throws Exception
+  {
+    // Both segments must be persisted, merged and pushed as with a single persist and merge thread
+    numPersistThreads = 2;
+    numMergeThreads = 2;
+    testRunAfterDataInserted();
+  }
+
   @Test(timeout = 60_000L)
   public void testRunBeforeDataInserted() throws Exception
   {
@@ -1334,6 +1346,14 @@ public class KafkaIndexTaskTest
     Assert.assertEquals(unparseableEvents, reportData.getUnparseableEvents());
   }
 
+  @Test(timeout = 60_000L)
+  public void testMultipleParseExceptionsSuccessWithParseThreads() throws Exception
+  {
+    // Rows, offsets and parse exceptions must be handled in the order of the records, as with a single parse thread
+    numParseThreads = 4;
+    testMultipleParseExceptionsSuccess();
+  }
+
   @Test(timeout = 60_000L)
   public void testMultipleParseExceptionsFailure() throws Exception
   {
@@ -2475,7 +2495,12 @@ public class KafkaIndexTaskTest
         intermediateHandoffPeriod,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        numParseThreads,
+        numPersistThreads,
+        numMergeThreads,
+        null,
+        null
     );
     if (!context.containsKey(SeekableStreamSupervisor.CHECKPOINTS_CTX_KEY)) {
       final TreeMap<Integer, Map<Integer, Long>> checkpoints = new TreeMap<>();
@@ -2577,6 +2602,8 @@ public class KafkaIndexTaskTest
         null,
         true,
         null,
+        null,
+        null,
         null
     );
     final TestDerbyConnector derbyConnector = derby.getConnector();
@@ -2692,7 +2719,9 @@ public class KafkaIndexTaskTest
         EasyMock.createNiceMock(DruidNode.class),
         new LookupNodeService("tier"),
         new DataNodeService("tier", 1, ServerType.INDEXER_EXECUTOR, 0),
-        new TaskReportFileWriter(reportsFile)
+        new TaskReportFileWriter(reportsFile),
+        null,
+        null
     );
   }
 
@@ -67,6 +67,7 @@ public class KafkaIndexTaskTuningConfigTest
     Assert.assertEquals(new IndexSpec(), config.getIndexSpec());
     Assert.assertEquals(false, config.isReportParseExceptions());
     Assert.assertEquals(0, config.getHandoffConditionTimeout());
+    Assert.assertEquals(1, config.getNumParseThreads());
   }
 
   @Test
@@ -81,7 +82,8 @@ public class KafkaIndexTaskTuningConfigTest
                      + "  \"intermediatePersistPeriod\": \"PT1H\",\n"
                      + "  \"maxPendingPersists\": 100,\n"
                      + "  \"reportParseExceptions\": true,\n"
-                     + "  \"handoffConditionTimeout\": 100\n"
+                     + "  \"handoffConditionTimeout\": 100,\n"
+                     + "  \"numParseThreads\": 4\n"
                      + "}";
 
     KafkaIndexTaskTuningConfig config = (KafkaIndexTaskTuningConfig) mapper.readValue(
@@ -103,6 +105,7 @@ public class KafkaIndexTaskTuningConfigTest
     Assert.assertEquals(100, config.getMaxPendingPersists());
     Assert.assertEquals(true, config.isReportParseExceptions());
     Assert.assertEquals(100, config.getHandoffConditionTimeout());
+    Assert.assertEquals(4, config.getNumParseThreads());
   }
 
   @Test
@@ -131,6 +134,11 @@ public class KafkaIndexTaskTuningConfigTest
         null,
         null,
         null,
+        null,
+        null,
+        null,
+        null,
+        null,
         null
     );
     KafkaIndexTaskTuningConfig copy = (KafkaIndexTaskTuningConfig) original.convertToTaskTuningConfig();
@@ -167,7 +175,12 @@ public class KafkaIndexTaskTuningConfigTest
         null,
         true,
         42,
-        42
+        42,
+        null,
+        null,
+        null,
+        null,
+        null
     );
 
     String serialized = mapper.writeValueAsString(base);
@@ -260,7 +273,12 @@ public class KafkaIndexTaskTuningConfigTest
         config.getIntermediateHandoffPeriod(),
         config.isLogParseExceptions(),
         config.getMaxParseExceptions(),
-        config.getMaxSavedParseExceptions()
+        config.getMaxSavedParseExceptions(),
+        null,
+        null,
+        null,
+        null,
+        null
     );
   }
 }
@@ -66,6 +66,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -583,6 +584,43 @@ public class KinesisRecordSupplier implements RecordSupplier<String, String>
     throw new UnsupportedOperationException("getPosition() is not supported in Kinesis");
   }
 
+  /**
+   * Fetches how far the given shard positions are behind the latest records of their shards, in milliseconds, as
+   * reported by {@link GetRecordsResult#getMillisBehindLatest()}. Kinesis sequence numbers aren't contiguous, so this is
+   * the only lag measure Kinesis provides. Shards for which Kinesis doesn't report it are left out.
+   *
+   * @param partitionSequences shard id -> sequence number of the last record read from that shard
+   *
+   * @return shard id -> milliseconds behind the latest record
+   */
+  public Map<String, Long> getPartitionTimeLag(String stream, Map<String, String> partitionSequences)
+  {
+    checkIfClosed();
+    return wrapExceptions(
+        () -> {
+          final Map<String, Long> retVal = new HashMap<>();
+          for (Map.Entry<String, String> entry : partitionSequences.entrySet()) {
+            final String shardIterator = kinesis.getShardIterator(
+                stream,
+                entry.getKey(),
+                ShardIteratorType.AFTER_SEQUENCE_NUMBER.toString(),
+                entry.getValue()
+            ).getShardIterator();
+            if (shardIterator == null) {
+              continue;
+            }
+            final Long millisBehindLatest = kinesis.getRecords(
+                new GetRecordsRequest().withShardIterator(shardIterator).withLimit(1)
+            ).getMillisBehindLatest();
+            if (millisBehindLatest != null) {
+              retVal.put(entry.getKey(), millisBehindLatest);
+            }
+          }
+          return retVal;
+        }
+    );
+  }
+
   @Override
   public Set<String> getPartitionIds(String stream)
   {
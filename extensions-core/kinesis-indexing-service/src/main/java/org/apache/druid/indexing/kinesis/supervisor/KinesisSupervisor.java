@@ -48,6 +48,8 @@ import org.apache.druid.indexing.seekablestream.SeekableStreamStartSequenceNumbe
 import org.apache.druid.indexing.seekablestream.common.OrderedSequenceNumber;
 import org.apache.druid.indexing.seekablestream.common.RecordSupplier;
 import org.apache.druid.indexing.seekablestream.common.StreamPartition;
+import org.apache.druid.indexing.seekablestream.supervisor.LagBasedAutoScaler;
+import org.apache.druid.indexing.seekablestream.supervisor.LagBasedAutoScalerConfig;
 import org.apache.druid.indexing.seekablestream.supervisor.SeekableStreamSupervisor;
 import org.apache.druid.indexing.seekablestream.supervisor.SeekableStreamSupervisorIOConfig;
 import org.apache.druid.indexing.seekablestream.supervisor.SeekableStreamSupervisorReportPayload;
@@ -55,13 +57,17 @@ import org.apache.druid.indexing.seekablestream.utils.RandomIdUtils;
 import org.apache.druid.java.util.common.StringUtils;
 import org.joda.time.DateTime;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Supervisor responsible for managing the KinesisIndexTask for a single dataSource. At a high level, the class accepts a
@@ -71,7 +77,8 @@ import java.util.concurrent.ScheduledExecutorService;
  * tasks to satisfy the desired number of replicas. As tasks complete, new tasks are queued to process the next range of
  * Kinesis sequences.
  * <p>
- * the Kinesis supervisor does not yet support lag calculations
+ * the Kinesis supervisor does not yet report lag metrics. When autoscaling is enabled, it collects how many
+ * milliseconds each shard is behind the latest record to drive the {@link LagBasedAutoScaler}.
  */
 public class KinesisSupervisor extends SeekableStreamSupervisor<String, String>
 {
@@ -83,6 +90,8 @@ public class KinesisSupervisor extends SeekableStreamSupervisor<String, String>
   private static final String NOT_SET = "-1";
   private final KinesisSupervisorSpec spec;
   private final AWSCredentialsConfig awsCredentialsConfig;
+  // shard id -> milliseconds behind the latest record, only collected when autoscaling is enabled
+  private volatile Map<String, Long> currentPartitionTimeLag;
 
   public KinesisSupervisor(
       final TaskStorage taskStorage,
@@ -209,7 +218,15 @@ public class KinesisSupervisor extends SeekableStreamSupervisor<String, String>
   @Override
   protected void scheduleReporting(ScheduledExecutorService reportingExec)
   {
-    // not yet implemented, see issue #6739
+    // Lag metrics are not yet implemented, see issue #6739. The lag is still collected for autoscaling.
+    if (isAutoScalerEnabled()) {
+      reportingExec.scheduleAtFixedRate(
+          updateCurrentAndLatestOffsets(),
+          spec.getIoConfig().getStartDelay().getMillis(),
+          spec.getIoConfig().getAutoScalerConfig().getLagCollectionIntervalMillis(),
+          TimeUnit.MILLISECONDS
+      );
+    }
   }
 
   @Override
@@ -284,7 +301,48 @@ public class KinesisSupervisor extends SeekableStreamSupervisor<String, String>
       RecordSupplier<String, String> recordSupplier, Set<StreamPartition<String>> streamPartitions
   )
   {
-    // do nothing
+    // Fetching the lag costs a GetRecords call per shard, so it's only done when it's needed
+    if (!isAutoScalerEnabled()) {
+      return;
+    }
+    // Kinesis sequence numbers aren't contiguous, so the lag is how far the tasks are behind in time instead.
+    final Map<String, String> partitionSequences = getHighestCurrentOffsets()
+        .entrySet()
+        .stream()
+        .filter(e -> !NOT_SET.equals(e.getValue())
+                     && !isEndOfShard(e.getValue())
+                     && !getEndOfPartitionMarker().equals(e.getValue()))
+        .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
+    currentPartitionTimeLag = ((KinesisRecordSupplier) recordSupplier).getPartitionTimeLag(
+        spec.getIoConfig().getStream(),
+        partitionSequences
+    );
+  }
+
+  private boolean isAutoScalerEnabled()
+  {
+    final LagBasedAutoScalerConfig autoScalerConfig = spec.getIoConfig().getAutoScalerConfig();
+    return autoScalerConfig != null && autoScalerConfig.isEnableTaskAutoScaler();
+  }
+
+  /**
+   * Returns the sum over all shards of how many milliseconds the tasks are behind the latest record.
+   */
+  @Nullable
+  @Override
+  protected Long computeTotalLag()
+  {
+    final Map<String, Long> partitionTimeLag = currentPartitionTimeLag;
+    if (partitionTimeLag == null) {
+      return null;
+    }
+    return partitionTimeLag.values().stream().mapToLong(lag -> Math.max(lag, 0)).sum();
+  }
+
+  @Override
+  protected LagBasedAutoScaler.LagUnit getTotalLagUnit()
+  {
+    return LagBasedAutoScaler.LagUnit.MILLIS;
   }
 
   @Override
@@ -24,9 +24,12 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 import org.apache.druid.indexing.kinesis.KinesisIndexTaskIOConfig;
 import org.apache.druid.indexing.kinesis.KinesisRegion;
+import org.apache.druid.indexing.seekablestream.supervisor.LagBasedAutoScalerConfig;
 import org.apache.druid.indexing.seekablestream.supervisor.SeekableStreamSupervisorIOConfig;
 import org.joda.time.Period;
 
+import javax.annotation.Nullable;
+
 public class KinesisSupervisorIOConfig extends SeekableStreamSupervisorIOConfig
 {
   private final String endpoint;
@@ -66,7 +69,8 @@ public class KinesisSupervisorIOConfig extends SeekableStreamSupervisorIOConfig
       @JsonProperty("fetchDelayMillis") Integer fetchDelayMillis,
       @JsonProperty("awsAssumedRoleArn") String awsAssumedRoleArn,
       @JsonProperty("awsExternalId") String awsExternalId,
-      @JsonProperty("deaggregate") boolean deaggregate
+      @JsonProperty("deaggregate") boolean deaggregate,
+      @JsonProperty("autoScalerConfig") @Nullable LagBasedAutoScalerConfig autoScalerConfig
   )
   {
     super(
@@ -79,7 +83,8 @@ public class KinesisSupervisorIOConfig extends SeekableStreamSupervisorIOConfig
         useEarliestSequenceNumber,
         completionTimeout,
         lateMessageRejectionPeriod,
-        earlyMessageRejectionPeriod
+        earlyMessageRejectionPeriod,
+        autoScalerConfig
     );
     this.endpoint = endpoint != null
                     ? endpoint
@@ -151,6 +156,7 @@ public class KinesisSupervisorIOConfig extends SeekableStreamSupervisorIOConfig
            ", awsAssumedRoleArn='" + awsAssumedRoleArn + '\'' +
            ", awsExternalId='" + awsExternalId + '\'' +
            ", deaggregate=" + deaggregate +
+           ", autoScalerConfig=" + getAutoScalerConfig() +
            '}';
   }
 }
@@ -96,6 +96,11 @@ public class KinesisSupervisorSpec extends SeekableStreamSupervisorSpec
             null,
             null,
             null,
+            null,
+            null,
+            null,
+            null,
+            null,
             null
         ),
         ioConfig,
@@ -2650,7 +2650,12 @@ public class KinesisIndexTaskTest extends EasyMockSupport
         maxParseExceptions,
         maxSavedParseExceptions,
         maxRecordsPerPoll,
-        intermediateHandoffPeriod
+        intermediateHandoffPeriod,
+        null,
+        null,
+        null,
+        null,
+        null
     );
     return createTask(taskId, dataSchema, ioConfig, tuningConfig, context);
   }
@@ -2752,6 +2757,8 @@ public class KinesisIndexTaskTest extends EasyMockSupport
         null,
         true,
         null,
+        null,
+        null,
         null
     );
     final TestDerbyConnector derbyConnector = derby.getConnector();
@@ -2868,7 +2875,9 @@ public class KinesisIndexTaskTest extends EasyMockSupport
         EasyMock.createNiceMock(DruidNode.class),
         new LookupNodeService("tier"),
         new DataNodeService("tier", 1, ServerType.INDEXER_EXECUTOR, 0),
-        new TaskReportFileWriter(reportsFile)
+        new TaskReportFileWriter(reportsFile),
+        null,
+        null
     );
   }
 
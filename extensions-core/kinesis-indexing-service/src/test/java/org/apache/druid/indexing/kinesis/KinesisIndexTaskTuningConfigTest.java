@@ -159,7 +159,12 @@ public class KinesisIndexTaskTuningConfigTest
         500,
         500,
         6000,
-        new Period("P3D")
+        new Period("P3D"),
+        null,
+        null,
+        null,
+        null,
+        null
     );
 
     String serialized = mapper.writeValueAsString(base);
@@ -217,7 +222,12 @@ public class KinesisIndexTaskTuningConfigTest
         500,
         500,
         6000,
-        new Period("P3D")
+        new Period("P3D"),
+        null,
+        null,
+        null,
+        null,
+        null
     );
 
     String serialized = mapper.writeValueAsString(new TestModifiedKinesisIndexTaskTuningConfig(base, "loool"));
@@ -308,6 +318,11 @@ public class KinesisIndexTaskTuningConfigTest
         null,
         null,
         null,
+        null,
+        null,
+        null,
+        null,
+        null,
         null
     );
     KinesisIndexTaskTuningConfig copy = (KinesisIndexTaskTuningConfig) original.convertToTaskTuningConfig();
@@ -28,6 +28,7 @@ import com.amazonaws.services.kinesis.model.GetRecordsResult;
 import com.amazonaws.services.kinesis.model.GetShardIteratorResult;
 import com.amazonaws.services.kinesis.model.Record;
 import com.amazonaws.services.kinesis.model.Shard;
+import com.amazonaws.services.kinesis.model.ShardIteratorType;
 import com.amazonaws.services.kinesis.model.StreamDescription;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
@@ -435,6 +436,50 @@ public class KinesisRecordSupplierTest extends EasyMockSupport
     verifyAll();
   }
 
+  @Test
+  public void testGetPartitionTimeLag()
+  {
+    expect(kinesis.getShardIterator(
+        eq(stream),
+        eq(shardId0),
+        eq(ShardIteratorType.AFTER_SEQUENCE_NUMBER.toString()),
+        eq("5")
+    )).andReturn(getShardIteratorResult0).once();
+    expect(kinesis.getShardIterator(
+        eq(stream),
+        eq(shardId1),
+        eq(ShardIteratorType.AFTER_SEQUENCE_NUMBER.toString()),
+        eq("9")
+    )).andReturn(getShardIteratorResult1).once();
+    expect(getShardIteratorResult0.getShardIterator()).andReturn(shard0Iterator).once();
+    expect(getShardIteratorResult1.getShardIterator()).andReturn(null).once();
+    expect(kinesis.getRecords(generateGetRecordsReq(shard0Iterator, 1))).andReturn(getRecordsResult0).once();
+    expect(getRecordsResult0.getMillisBehindLatest()).andReturn(2000L).once();
+
+    replayAll();
+
+    recordSupplier = new KinesisRecordSupplier(
+        kinesis,
+        recordsPerFetch,
+        0,
+        2,
+        false,
+        100,
+        5000,
+        5000,
+        60000,
+        5
+    );
+
+    // shard1 is closed, so it has no lag
+    Assert.assertEquals(
+        ImmutableMap.of(shardId0, 2000L),
+        recordSupplier.getPartitionTimeLag(stream, ImmutableMap.of(shardId0, "5", shardId1, "9"))
+    );
+
+    verifyAll();
+  }
+
   @Test(expected = ISE.class)
   public void testSeekUnassigned() throws InterruptedException
   {
@@ -63,6 +63,8 @@ import org.apache.druid.indexing.seekablestream.SeekableStreamIndexTaskTuningCon
 import org.apache.druid.indexing.seekablestream.SeekableStreamStartSequenceNumbers;
 import org.apache.druid.indexing.seekablestream.common.RecordSupplier;
 import org.apache.druid.indexing.seekablestream.common.StreamPartition;
+import org.apache.druid.indexing.seekablestream.supervisor.LagBasedAutoScaler;
+import org.apache.druid.indexing.seekablestream.supervisor.LagBasedAutoScalerConfig;
 import org.apache.druid.indexing.seekablestream.supervisor.SeekableStreamSupervisorStateManager;
 import org.apache.druid.indexing.seekablestream.supervisor.TaskReportData;
 import org.apache.druid.java.util.common.DateTimes;
@@ -193,6 +195,11 @@ public class KinesisSupervisorTest extends EasyMockSupport
         null,
         null,
         null,
+        null,
+        null,
+        null,
+        null,
+        null,
         null
     );
     rowIngestionMetersFactory = new TestUtils().getRowIngestionMetersFactory();
@@ -330,6 +337,103 @@ public class KinesisSupervisorTest extends EasyMockSupport
     );
   }
 
+  @Test
+  public void testComputeTotalLag() throws Exception
+  {
+    final TaskLocation location = new TaskLocation("testHost", 1234, -1);
+    final DateTime startTime = DateTimes.nowUtc();
+
+    supervisor = getTestableSupervisor(
+        1,
+        1,
+        true,
+        "PT1H",
+        null,
+        null,
+        false,
+        null,
+        null,
+        new LagBasedAutoScalerConfig(true, 1, 2, null, null, null, null, null, null, null, null, null, null, null)
+    );
+
+    supervisorRecordSupplier.assign(anyObject());
+    expectLastCall().anyTimes();
+    expect(supervisorRecordSupplier.getPartitionIds(stream)).andReturn(ImmutableSet.of(shardId1, shardId0)).anyTimes();
+    expect(supervisorRecordSupplier.getAssignment()).andReturn(ImmutableSet.of(shard1Partition, shard0Partition))
+                                                    .anyTimes();
+    supervisorRecordSupplier.seekToLatest(anyObject());
+    expectLastCall().anyTimes();
+    expect(supervisorRecordSupplier.getEarliestSequenceNumber(anyObject())).andReturn("0").anyTimes();
+    supervisorRecordSupplier.seek(anyObject(), anyString());
+    expectLastCall().anyTimes();
+    // shard0 has been closed, so it has no lag
+    expect(supervisorRecordSupplier.getPartitionTimeLag(stream, ImmutableMap.of(shardId1, "12")))
+        .andReturn(ImmutableMap.of(shardId1, 3000L))
+        .once();
+
+    Task id1 = createKinesisIndexTask(
+        "id1",
+        DATASOURCE,
+        0,
+        new SeekableStreamStartSequenceNumbers<>(
+            "stream",
+            ImmutableMap.of(shardId1, "0", shardId0, "0"),
+            ImmutableSet.of()
+        ),
+        new SeekableStreamEndSequenceNumbers<>(
+            "stream",
+            ImmutableMap.of(
+                shardId1,
+                KinesisSequenceNumber.NO_END_SEQUENCE_NUMBER,
+                shardId0,
+                KinesisSequenceNumber.NO_END_SEQUENCE_NUMBER
+            )
+        ),
+        null,
+        null
+    );
+
+    Collection workItems = new ArrayList<>();
+    workItems.add(new TestTaskRunnerWorkItem(id1, null, location));
+
+    EasyMock.expect(taskMaster.getTaskQueue()).andReturn(Optional.of(taskQueue)).anyTimes();
+    EasyMock.expect(taskMaster.getTaskRunner()).andReturn(Optional.of(taskRunner)).anyTimes();
+    EasyMock.expect(taskRunner.getRunningTasks()).andReturn(workItems).anyTimes();
+    EasyMock.expect(taskStorage.getActiveTasks()).andReturn(ImmutableList.of(id1)).anyTimes();
+    EasyMock.expect(taskStorage.getStatus("id1")).andReturn(Optional.of(TaskStatus.running("id1"))).anyTimes();
+    EasyMock.expect(taskStorage.getTask("id1")).andReturn(Optional.of(id1)).anyTimes();
+    EasyMock.expect(indexerMetadataStorageCoordinator.getDataSourceMetadata(DATASOURCE)).andReturn(
+        new KinesisDataSourceMetadata(
+            null
+        )
+    ).anyTimes();
+    EasyMock.expect(taskClient.getStatusAsync("id1")).andReturn(Futures.immediateFuture(Status.READING));
+    EasyMock.expect(taskClient.getStartTimeAsync("id1")).andReturn(Futures.immediateFuture(startTime));
+    EasyMock.expect(taskClient.getCurrentOffsetsAsync("id1", false))
+            .andReturn(Futures.immediateFuture((Map<String, String>) ImmutableMap.of(
+                shardId1,
+                "12",
+                shardId0,
+                KinesisSequenceNumber.END_OF_SHARD_MARKER
+            )));
+    TreeMap<Integer, Map<String, String>> checkpoints = new TreeMap<>();
+    checkpoints.put(0, ImmutableMap.of(shardId1, "0", shardId0, "0"));
+    EasyMock.expect(taskClient.getCheckpointsAsync(EasyMock.contains("id1"), EasyMock.anyBoolean()))
+            .andReturn(Futures.immediateFuture(checkpoints))
+            .times(1);
+    taskRunner.registerListener(EasyMock.anyObject(TaskRunnerListener.class), EasyMock.anyObject(Executor.class));
+    replayAll();
+
+    supervisor.start();
+    supervisor.runInternal();
+    Assert.assertNull(supervisor.computeTotalLag());
+    supervisor.updateCurrentAndLatestOffsets().run();
+    Assert.assertEquals(Long.valueOf(3000L), supervisor.computeTotalLag());
+    // The lag is the sum of the milliseconds behind the latest record of each shard.
+    Assert.assertEquals(LagBasedAutoScaler.LagUnit.MILLIS, supervisor.getTotalLagUnit());
+    verifyAll();
+  }
+
   @Test
   public void testReplicas() throws Exception
   {
@@ -3616,6 +3720,11 @@ public class KinesisSupervisorTest extends EasyMockSupport
         null,
         null,
         42, // This property is different from tuningConfig
+        null,
+        null,
+        null,
+        null,
+        null,
         null
     );
 
@@ -3737,7 +3846,8 @@ public class KinesisSupervisorTest extends EasyMockSupport
         null,
         null,
         null,
-        false
+        false,
+        null
     );
 
     KinesisIndexTaskClientFactory taskClientFactory = new KinesisIndexTaskClientFactory(
@@ -3821,6 +3931,33 @@ public class KinesisSupervisorTest extends EasyMockSupport
       Integer recordsPerFetch,
       Integer fetchDelayMillis
   )
+  {
+    return getTestableSupervisor(
+        replicas,
+        taskCount,
+        useEarliestOffset,
+        duration,
+        lateMessageRejectionPeriod,
+        earlyMessageRejectionPeriod,
+        suspended,
+        recordsPerFetch,
+        fetchDelayMillis,
+        null
+    );
+  }
+
+  private TestableKinesisSupervisor getTestableSupervisor(
+      int replicas,
+      int taskCount,
+      boolean useEarliestOffset,
+      String duration,
+      Period lateMessageRejectionPeriod,
+      Period earlyMessageRejectionPeriod,
+      boolean suspended,
+      Integer recordsPerFetch,
+      Integer fetchDelayMillis,
+      LagBasedAutoScalerConfig autoScalerConfig
+  )
   {
     KinesisSupervisorIOConfig kinesisSupervisorIOConfig = new KinesisSupervisorIOConfig(
         stream,
@@ -3839,7 +3976,8 @@ public class KinesisSupervisorTest extends EasyMockSupport
         fetchDelayMillis,
         null,
         null,
-        false
+        false,
+        autoScalerConfig
     );
 
     KinesisIndexTaskClientFactory taskClientFactory = new KinesisIndexTaskClientFactory(
@@ -3923,7 +4061,8 @@ public class KinesisSupervisorTest extends EasyMockSupport
         fetchDelayMillis,
         null,
         null,
-        false
+        false,
+        null
     );
 
     KinesisIndexTaskClientFactory taskClientFactory = new KinesisIndexTaskClientFactory(
@@ -4009,7 +4148,8 @@ public class KinesisSupervisorTest extends EasyMockSupport
         fetchDelayMillis,
         null,
         null,
-        false
+        false,
+        null
     );
 
     KinesisIndexTaskClientFactory taskClientFactory = new KinesisIndexTaskClientFactory(
@@ -35,7 +35,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.function.Function;
 
-public class OrcStructFlattenerMaker implements ObjectFlatteners.FlattenerMaker<OrcStruct>
+public class OrcStructFlattenerMaker implements ObjectFlatteners.IndexedFlattenerMaker<OrcStruct>
 {
   private final Configuration jsonPathConfiguration;
   private final OrcStructConverter converter;
@@ -71,6 +71,24 @@ public class OrcStructFlattenerMaker implements ObjectFlatteners.FlattenerMaker<
     return finalizeConversion(converter.convertRootField(obj, key));
   }
 
+  @Override
+  public Object getSchema(OrcStruct obj)
+  {
+    return obj.getSchema();
+  }
+
+  @Override
+  public List<String> getRootFieldNames(OrcStruct obj)
+  {
+    return obj.getSchema().getFieldNames();
+  }
+
+  @Override
+  public Object getRootField(OrcStruct obj, int index)
+  {
+    return finalizeConversion(converter.convertField(obj, index));
+  }
+
   @Override
   public Function<OrcStruct, Object> makeJsonPathExtractor(String expr)
   {
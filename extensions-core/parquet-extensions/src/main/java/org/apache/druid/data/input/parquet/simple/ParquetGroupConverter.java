@@ -60,8 +60,15 @@ class ParquetGroupConverter
       return null;
     }
 
-    final int fieldIndex = g.getType().getFieldIndex(fieldName);
+    return convertField(g, g.getType().getFieldIndex(fieldName), binaryAsString);
+  }
 
+  /**
+   * See {@link ParquetGroupConverter#convertField(Group, int)}
+   */
+  @Nullable
+  private static Object convertField(Group g, int fieldIndex, boolean binaryAsString)
+  {
     if (g.getFieldRepetitionCount(fieldIndex) <= 0) {
       return null;
     }
@@ -487,6 +494,16 @@ class ParquetGroupConverter
     return convertField(g, fieldName, binaryAsString);
   }
 
+  /**
+   * Same as {@link ParquetGroupConverter#convertField(Group, String)}, but reads the field at the given position
+   * instead of looking it up by name.
+   */
+  @Nullable
+  Object convertField(Group g, int fieldIndex)
+  {
+    return convertField(g, fieldIndex, binaryAsString);
+  }
+
   /**
    * Properly formed parquet lists when passed through {@link ParquetGroupConverter#convertField(Group, String)} can
    * return lists which contain 'wrapped' primitives, that are a {@link Group} with a single, primitive field (see
@@ -35,7 +35,7 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-public class ParquetGroupFlattenerMaker implements ObjectFlatteners.FlattenerMaker<Group>
+public class ParquetGroupFlattenerMaker implements ObjectFlatteners.IndexedFlattenerMaker<Group>
 {
 
   private final Configuration jsonPathConfiguration;
@@ -69,6 +69,25 @@ public class ParquetGroupFlattenerMaker implements ObjectFlatteners.FlattenerMak
     return finalizeConversion(val);
   }
 
+  @Override
+  public Object getSchema(Group obj)
+  {
+    return obj.getType();
+  }
+
+  @Override
+  public List<String> getRootFieldNames(Group obj)
+  {
+    return obj.getType().getFields().stream().map(Type::getName).collect(Collectors.toList());
+  }
+
+  @Override
+  public Object getRootField(Group obj, int index)
+  {
+    Object val = converter.convertField(obj, index);
+    return finalizeConversion(val);
+  }
+
   @Override
   public Function<Group, Object> makeJsonPathExtractor(String expr)
   {
@@ -75,10 +75,18 @@ public class StaticS3FirehoseFactory extends PrefetchableTextFilesFirehoseFactor
       @JsonProperty("maxFetchCapacityBytes") Long maxFetchCapacityBytes,
       @JsonProperty("prefetchTriggerBytes") Long prefetchTriggerBytes,
       @JsonProperty("fetchTimeout") Long fetchTimeout,
-      @JsonProperty("maxFetchRetry") Integer maxFetchRetry
+      @JsonProperty("maxFetchRetry") Integer maxFetchRetry,
+      @JsonProperty("fetchThreads") Integer fetchThreads
   )
   {
-    super(maxCacheCapacityBytes, maxFetchCapacityBytes, prefetchTriggerBytes, fetchTimeout, maxFetchRetry);
+    super(
+        maxCacheCapacityBytes,
+        maxFetchCapacityBytes,
+        prefetchTriggerBytes,
+        fetchTimeout,
+        maxFetchRetry,
+        fetchThreads
+    );
     this.s3Client = Preconditions.checkNotNull(s3Client, "s3Client");
     this.uris = uris == null ? new ArrayList<>() : uris;
     this.prefixes = prefixes == null ? new ArrayList<>() : prefixes;
@@ -236,7 +244,8 @@ public class StaticS3FirehoseFactory extends PrefetchableTextFilesFirehoseFactor
            getMaxFetchCapacityBytes() == that.getMaxFetchCapacityBytes() &&
            getPrefetchTriggerBytes() == that.getPrefetchTriggerBytes() &&
            getFetchTimeout() == that.getFetchTimeout() &&
-           getMaxFetchRetry() == that.getMaxFetchRetry();
+           getMaxFetchRetry() == that.getMaxFetchRetry() &&
+           getFetchThreads() == that.getFetchThreads();
   }
 
   @Override
@@ -249,7 +258,8 @@ public class StaticS3FirehoseFactory extends PrefetchableTextFilesFirehoseFactor
         getMaxFetchCapacityBytes(),
         getPrefetchTriggerBytes(),
         getFetchTimeout(),
-        getMaxFetchRetry()
+        getMaxFetchRetry(),
+        getFetchThreads()
     );
   }
 
@@ -270,7 +280,8 @@ public class StaticS3FirehoseFactory extends PrefetchableTextFilesFirehoseFactor
         getMaxFetchCapacityBytes(),
         getPrefetchTriggerBytes(),
         getFetchTimeout(),
-        getMaxFetchRetry()
+        getMaxFetchRetry(),
+        getFetchThreads()
     );
   }
 
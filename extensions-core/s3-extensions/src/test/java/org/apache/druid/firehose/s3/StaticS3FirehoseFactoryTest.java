@@ -81,7 +81,8 @@ public class StaticS3FirehoseFactoryTest
         1024L,
         512L,
         100L,
-        5
+        5,
+        4
     );
 
     final StaticS3FirehoseFactory outputFact = mapper.readValue(
@@ -112,7 +113,8 @@ public class StaticS3FirehoseFactoryTest
         1024L,
         512L,
         100L,
-        5
+        5,
+        4
     );
     final List<FiniteFirehoseFactory<StringInputRowParser, URI>> subFactories = factory
         .getSplits()
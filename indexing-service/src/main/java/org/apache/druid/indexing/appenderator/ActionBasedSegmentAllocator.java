@@ -20,28 +20,54 @@
 package org.apache.druid.indexing.appenderator;
 
 import org.apache.druid.data.input.InputRow;
+import org.apache.druid.indexing.common.actions.SegmentAllocateRequest;
 import org.apache.druid.indexing.common.actions.TaskActionClient;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.granularity.Granularity;
 import org.apache.druid.segment.indexing.DataSchema;
 import org.apache.druid.segment.realtime.appenderator.SegmentAllocator;
 import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
+import org.joda.time.DateTime;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class ActionBasedSegmentAllocator implements SegmentAllocator
 {
   private final TaskActionClient taskActionClient;
   private final DataSchema dataSchema;
   private final SegmentAllocateActionGenerator actionGenerator;
+  @Nullable
+  private final SegmentBatchAllocateActionGenerator batchActionGenerator;
 
   public ActionBasedSegmentAllocator(
       TaskActionClient taskActionClient,
       DataSchema dataSchema,
       SegmentAllocateActionGenerator actionGenerator
   )
+  {
+    this(taskActionClient, dataSchema, actionGenerator, null);
+  }
+
+  /**
+   * @param batchActionGenerator generates the action submitted by {@link #allocateBatch}. If null, the rows of a batch
+   *                             are allocated one by one with actions generated by actionGenerator.
+   */
+  public ActionBasedSegmentAllocator(
+      TaskActionClient taskActionClient,
+      DataSchema dataSchema,
+      SegmentAllocateActionGenerator actionGenerator,
+      @Nullable SegmentBatchAllocateActionGenerator batchActionGenerator
+  )
   {
     this.taskActionClient = taskActionClient;
     this.dataSchema = dataSchema;
     this.actionGenerator = actionGenerator;
+    this.batchActionGenerator = batchActionGenerator;
   }
 
   @Override
@@ -56,4 +82,46 @@ public class ActionBasedSegmentAllocator implements SegmentAllocator
         actionGenerator.generate(dataSchema, row, sequenceName, previousSegmentId, skipSegmentLineageCheck)
     );
   }
+
+  @Override
+  public List<SegmentIdWithShardSpec> allocateBatch(
+      final List<InputRow> rows,
+      final String sequenceName,
+      final String previousSegmentId,
+      final boolean skipSegmentLineageCheck
+  ) throws IOException
+  {
+    if (batchActionGenerator == null) {
+      return SegmentAllocator.super.allocateBatch(rows, sequenceName, previousSegmentId, skipSegmentLineageCheck);
+    }
+
+    // Rows in the same query granularity bucket always get the same segment, so only one request is sent for them.
+    final Granularity queryGranularity = dataSchema.getGranularitySpec().getQueryGranularity();
+    final List<SegmentAllocateRequest> requests = new ArrayList<>();
+    final Map<DateTime, Integer> bucketToRequest = new HashMap<>();
+    final int[] rowToRequest = new int[rows.size()];
+    for (int i = 0; i < rows.size(); i++) {
+      final DateTime timestamp = rows.get(i).getTimestamp();
+      rowToRequest[i] = bucketToRequest.computeIfAbsent(
+          queryGranularity.bucketStart(timestamp),
+          bucket -> {
+            requests.add(new SegmentAllocateRequest(timestamp, sequenceName, previousSegmentId));
+            return requests.size() - 1;
+          }
+      );
+    }
+
+    final List<SegmentIdWithShardSpec> allocated = taskActionClient.submit(
+        batchActionGenerator.generate(dataSchema, requests, skipSegmentLineageCheck)
+    );
+    if (allocated.size() != requests.size()) {
+      throw new ISE("Expected [%d] allocated segments, got [%d]", requests.size(), allocated.size());
+    }
+
+    final List<SegmentIdWithShardSpec> allocatedForRows = new ArrayList<>(rows.size());
+    for (int request : rowToRequest) {
+      allocatedForRows.add(allocated.get(request));
+    }
+    return allocatedForRows;
+  }
 }
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.appenderator;
+
+import org.apache.druid.indexing.common.actions.SegmentAllocateRequest;
+import org.apache.druid.indexing.common.actions.TaskAction;
+import org.apache.druid.segment.indexing.DataSchema;
+import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
+
+import java.util.List;
+
+/**
+ * This class is used in {@link ActionBasedSegmentAllocator} and expected to generate a
+ * {@link TaskAction} which is submitted to overlords to allocate new segments for many requests at once. The returned
+ * list must have the segment of each request in the same order, or null for the requests which couldn't be allocated.
+ *
+ * @see org.apache.druid.indexing.common.actions.SegmentBatchAllocateAction
+ */
+public interface SegmentBatchAllocateActionGenerator
+{
+  TaskAction<List<SegmentIdWithShardSpec>> generate(
+      DataSchema dataSchema,
+      List<SegmentAllocateRequest> requests,
+      boolean skipSegmentLineageCheck
+  );
+}
@@ -29,11 +29,13 @@ import org.apache.druid.client.cache.CachePopulatorStats;
 import org.apache.druid.discovery.DataNodeService;
 import org.apache.druid.discovery.DruidNodeAnnouncer;
 import org.apache.druid.discovery.LookupNodeService;
+import org.apache.druid.guice.annotations.Parent;
 import org.apache.druid.guice.annotations.Processing;
 import org.apache.druid.guice.annotations.RemoteChatHandler;
 import org.apache.druid.indexing.common.actions.TaskActionClientFactory;
 import org.apache.druid.indexing.common.config.TaskConfig;
 import org.apache.druid.indexing.common.task.Task;
+import org.apache.druid.indexing.worker.IntermediaryDataManager;
 import org.apache.druid.java.util.emitter.service.ServiceEmitter;
 import org.apache.druid.java.util.metrics.MonitorScheduler;
 import org.apache.druid.query.QueryRunnerFactoryConglomerate;
@@ -81,6 +83,8 @@ public class TaskToolboxFactory
   private final LookupNodeService lookupNodeService;
   private final DataNodeService dataNodeService;
   private final TaskReportFileWriter taskReportFileWriter;
+  private final DruidNode taskExecutorNode;
+  private final IntermediaryDataManager intermediaryDataManager;
 
   @Inject
   public TaskToolboxFactory(
@@ -108,7 +112,9 @@ public class TaskToolboxFactory
       @RemoteChatHandler DruidNode druidNode,
       LookupNodeService lookupNodeService,
       DataNodeService dataNodeService,
-      TaskReportFileWriter taskReportFileWriter
+      TaskReportFileWriter taskReportFileWriter,
+      @Parent DruidNode taskExecutorNode,
+      IntermediaryDataManager intermediaryDataManager
   )
   {
     this.config = config;
@@ -136,6 +142,8 @@ public class TaskToolboxFactory
     this.lookupNodeService = lookupNodeService;
     this.dataNodeService = dataNodeService;
     this.taskReportFileWriter = taskReportFileWriter;
+    this.taskExecutorNode = taskExecutorNode;
+    this.intermediaryDataManager = intermediaryDataManager;
   }
 
   public TaskToolbox build(Task task)
@@ -167,7 +175,9 @@ public class TaskToolboxFactory
         druidNode,
         lookupNodeService,
         dataNodeService,
-        taskReportFileWriter
+        taskReportFileWriter,
+        taskExecutorNode,
+        intermediaryDataManager
     );
   }
 }
@@ -25,6 +25,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.apache.druid.indexing.common.TaskLockType;
+import org.apache.druid.indexing.common.task.IndexTaskUtils;
 import org.apache.druid.indexing.common.task.Task;
 import org.apache.druid.indexing.overlord.CriticalAction;
 import org.apache.druid.indexing.overlord.IndexerMetadataStorageCoordinator;
@@ -34,14 +35,17 @@ import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.granularity.Granularity;
 import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
 import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
 import org.apache.druid.timeline.DataSegment;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -146,6 +150,23 @@ public class SegmentAllocateAction implements TaskAction<SegmentIdWithShardSpec>
       final Task task,
       final TaskActionToolbox toolbox
   )
+  {
+    final long startNanos = System.nanoTime();
+    final SegmentIdWithShardSpec identifier = allocate(task, toolbox);
+
+    final ServiceMetricEvent.Builder metricBuilder = new ServiceMetricEvent.Builder();
+    IndexTaskUtils.setTaskDimensions(metricBuilder, task);
+    toolbox.getEmitter().emit(
+        metricBuilder.build("segment/allocate/time", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+    );
+    return identifier;
+  }
+
+  /**
+   * Same as {@link #perform} but without emitting metrics, for {@link SegmentBatchAllocateAction}.
+   */
+  @Nullable
+  SegmentIdWithShardSpec allocate(final Task task, final TaskActionToolbox toolbox)
   {
     int attempt = 0;
     while (true) {
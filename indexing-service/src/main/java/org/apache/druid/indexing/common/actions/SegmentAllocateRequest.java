@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.actions;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import org.apache.druid.indexing.overlord.SegmentCreateRequest;
+import org.joda.time.DateTime;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * A single request of {@link SegmentBatchAllocateAction}.
+ */
+public class SegmentAllocateRequest
+{
+  private final DateTime timestamp;
+  private final String sequenceName;
+  @Nullable
+  private final String previousSegmentId;
+
+  @JsonCreator
+  public SegmentAllocateRequest(
+      @JsonProperty("timestamp") DateTime timestamp,
+      @JsonProperty("sequenceName") String sequenceName,
+      @JsonProperty("previousSegmentId") @Nullable String previousSegmentId
+  )
+  {
+    this.timestamp = Preconditions.checkNotNull(timestamp, "timestamp");
+    this.sequenceName = Preconditions.checkNotNull(sequenceName, "sequenceName");
+    this.previousSegmentId = previousSegmentId;
+  }
+
+  @JsonProperty
+  public DateTime getTimestamp()
+  {
+    return timestamp;
+  }
+
+  @JsonProperty
+  public String getSequenceName()
+  {
+    return sequenceName;
+  }
+
+  @Nullable
+  @JsonProperty
+  public String getPreviousSegmentId()
+  {
+    return previousSegmentId;
+  }
+
+  SegmentCreateRequest toCreateRequest()
+  {
+    return new SegmentCreateRequest(sequenceName, previousSegmentId);
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SegmentAllocateRequest that = (SegmentAllocateRequest) o;
+    return timestamp.equals(that.timestamp) &&
+           sequenceName.equals(that.sequenceName) &&
+           Objects.equals(previousSegmentId, that.previousSegmentId);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(timestamp, sequenceName, previousSegmentId);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "SegmentAllocateRequest{" +
+           "timestamp=" + timestamp +
+           ", sequenceName='" + sequenceName + '\'' +
+           ", previousSegmentId='" + previousSegmentId + '\'' +
+           '}';
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.actions;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import org.apache.druid.indexing.common.TaskLockType;
+import org.apache.druid.indexing.common.task.IndexTaskUtils;
+import org.apache.druid.indexing.common.task.Task;
+import org.apache.druid.indexing.overlord.CriticalAction;
+import org.apache.druid.indexing.overlord.LockResult;
+import org.apache.druid.indexing.overlord.SegmentCreateRequest;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.granularity.Granularity;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
+import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
+import org.apache.druid.timeline.DataSegment;
+import org.joda.time.Interval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Allocates pending segments for many timestamps and sequences at once. Each request is allocated as
+ * {@link SegmentAllocateAction} would do, but the requests falling in the same segment interval share one lock
+ * acquisition and one metadata transaction.
+ * <p/>
+ * The returned list has the allocated segment of each request in the same order, or null for the requests which
+ * couldn't be allocated. Like {@link SegmentAllocateAction}, this action implicitly acquires locks.
+ */
+public class SegmentBatchAllocateAction implements TaskAction<List<SegmentIdWithShardSpec>>
+{
+  private static final Logger log = new Logger(SegmentBatchAllocateAction.class);
+
+  private final String dataSource;
+  private final Granularity queryGranularity;
+  private final Granularity preferredSegmentGranularity;
+  private final List<SegmentAllocateRequest> requests;
+  private final boolean skipSegmentLineageCheck;
+
+  @JsonCreator
+  public SegmentBatchAllocateAction(
+      @JsonProperty("dataSource") String dataSource,
+      @JsonProperty("queryGranularity") Granularity queryGranularity,
+      @JsonProperty("preferredSegmentGranularity") Granularity preferredSegmentGranularity,
+      @JsonProperty("requests") List<SegmentAllocateRequest> requests,
+      @JsonProperty("skipSegmentLineageCheck") boolean skipSegmentLineageCheck
+  )
+  {
+    this.dataSource = Preconditions.checkNotNull(dataSource, "dataSource");
+    this.queryGranularity = Preconditions.checkNotNull(queryGranularity, "queryGranularity");
+    this.preferredSegmentGranularity = Preconditions.checkNotNull(
+        preferredSegmentGranularity,
+        "preferredSegmentGranularity"
+    );
+    this.requests = Preconditions.checkNotNull(requests, "requests");
+    this.skipSegmentLineageCheck = skipSegmentLineageCheck;
+  }
+
+  @JsonProperty
+  public String getDataSource()
+  {
+    return dataSource;
+  }
+
+  @JsonProperty
+  public Granularity getQueryGranularity()
+  {
+    return queryGranularity;
+  }
+
+  @JsonProperty
+  public Granularity getPreferredSegmentGranularity()
+  {
+    return preferredSegmentGranularity;
+  }
+
+  @JsonProperty
+  public List<SegmentAllocateRequest> getRequests()
+  {
+    return requests;
+  }
+
+  @JsonProperty
+  public boolean isSkipSegmentLineageCheck()
+  {
+    return skipSegmentLineageCheck;
+  }
+
+  @Override
+  public TypeReference<List<SegmentIdWithShardSpec>> getReturnTypeReference()
+  {
+    return new TypeReference<List<SegmentIdWithShardSpec>>()
+    {
+    };
+  }
+
+  @Override
+  public List<SegmentIdWithShardSpec> perform(Task task, TaskActionToolbox toolbox)
+  {
+    if (!task.getDataSource().equals(dataSource)) {
+      throw new IAE("Task dataSource must match action dataSource, [%s] != [%s].", task.getDataSource(), dataSource);
+    }
+
+    final long startNanos = System.nanoTime();
+    final SegmentIdWithShardSpec[] allocated = new SegmentIdWithShardSpec[requests.size()];
+
+    final Map<Interval, List<Integer>> rowIntervalToRequests = new LinkedHashMap<>();
+    for (int i = 0; i < requests.size(); i++) {
+      rowIntervalToRequests.computeIfAbsent(
+          queryGranularity.bucket(requests.get(i).getTimestamp()),
+          k -> new ArrayList<>()
+      ).add(i);
+    }
+
+    for (Entry<Interval, List<Integer>> entry : rowIntervalToRequests.entrySet()) {
+      final Interval rowInterval = entry.getKey();
+      List<Integer> remaining = entry.getValue();
+      for (Interval tryInterval : getTryIntervals(toolbox, rowInterval)) {
+        final Map<SegmentCreateRequest, SegmentIdWithShardSpec> identifiers = tryAllocate(
+            toolbox,
+            task,
+            tryInterval,
+            remaining
+        );
+        final List<Integer> notAllocated = new ArrayList<>();
+        for (int index : remaining) {
+          allocated[index] = identifiers.get(requests.get(index).toCreateRequest());
+          if (allocated[index] == null) {
+            notAllocated.add(index);
+          }
+        }
+        remaining = notAllocated;
+        if (remaining.isEmpty()) {
+          break;
+        }
+      }
+    }
+
+    // Fall back to allocating one by one, which retries if the used segments change concurrently.
+    int numFallbacks = 0;
+    for (int i = 0; i < allocated.length; i++) {
+      if (allocated[i] == null) {
+        final SegmentAllocateRequest request = requests.get(i);
+        allocated[i] = new SegmentAllocateAction(
+            dataSource,
+            request.getTimestamp(),
+            queryGranularity,
+            preferredSegmentGranularity,
+            request.getSequenceName(),
+            request.getPreviousSegmentId(),
+            skipSegmentLineageCheck
+        ).allocate(task, toolbox);
+        numFallbacks++;
+      }
+    }
+
+    final ServiceMetricEvent.Builder metricBuilder = new ServiceMetricEvent.Builder();
+    IndexTaskUtils.setTaskDimensions(metricBuilder, task);
+    toolbox.getEmitter().emit(
+        metricBuilder.build("segment/allocate/time", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+    );
+    log.debug(
+        "Allocated [%d] requests in [%d] row intervals, [%d] of which one by one.",
+        requests.size(),
+        rowIntervalToRequests.size(),
+        numFallbacks
+    );
+
+    return Arrays.asList(allocated);
+  }
+
+  /**
+   * Same intervals as {@link SegmentAllocateAction} tries for a row in the given rowInterval.
+   */
+  private List<Interval> getTryIntervals(TaskActionToolbox toolbox, Interval rowInterval)
+  {
+    final List<DataSegment> usedSegmentsForRow = toolbox.getIndexerMetadataStorageCoordinator()
+                                                        .getUsedSegmentsForInterval(dataSource, rowInterval);
+    if (usedSegmentsForRow.isEmpty()) {
+      return Granularity.granularitiesFinerThan(preferredSegmentGranularity)
+                        .stream()
+                        .map(granularity -> granularity.bucket(rowInterval.getStart()))
+                        .filter(tryInterval -> tryInterval.contains(rowInterval))
+                        .collect(Collectors.toList());
+    } else {
+      final Interval usedInterval = usedSegmentsForRow.get(0).getInterval();
+      return usedInterval.contains(rowInterval) ? ImmutableList.of(usedInterval) : Collections.emptyList();
+    }
+  }
+
+  private Map<SegmentCreateRequest, SegmentIdWithShardSpec> tryAllocate(
+      TaskActionToolbox toolbox,
+      Task task,
+      Interval tryInterval,
+      List<Integer> requestIndexes
+  )
+  {
+    final LockResult lockResult = toolbox.getTaskLockbox().tryLock(TaskLockType.EXCLUSIVE, task, tryInterval);
+    if (lockResult.isRevoked()) {
+      // We had acquired a lock but it was preempted by other locks
+      throw new ISE("The lock for interval[%s] is preempted and no longer valid", tryInterval);
+    }
+    if (!lockResult.isOk()) {
+      log.debug("Could not acquire lock for segmentInterval[%s].", tryInterval);
+      return Collections.emptyMap();
+    }
+
+    final List<SegmentCreateRequest> createRequests = requestIndexes.stream()
+                                                                    .map(index -> requests.get(index).toCreateRequest())
+                                                                    .collect(Collectors.toList());
+    try {
+      return toolbox.getTaskLockbox().doInCriticalSection(
+          task,
+          ImmutableList.of(tryInterval),
+          CriticalAction
+              .<Map<SegmentCreateRequest, SegmentIdWithShardSpec>>builder()
+              .onValidLocks(
+                  () -> toolbox.getIndexerMetadataStorageCoordinator().allocatePendingSegments(
+                      dataSource,
+                      tryInterval,
+                      lockResult.getTaskLock().getVersion(),
+                      createRequests,
+                      skipSegmentLineageCheck
+                  )
+              )
+              .onInvalidLocks(Collections::emptyMap)
+              .build()
+      );
+    }
+    catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public boolean isAudited()
+  {
+    return false;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "SegmentBatchAllocateAction{" +
+           "dataSource='" + dataSource + '\'' +
+           ", queryGranularity=" + queryGranularity +
+           ", preferredSegmentGranularity=" + preferredSegmentGranularity +
+           ", requests=" + requests +
+           ", skipSegmentLineageCheck=" + skipSegmentLineageCheck +
+           '}';
+  }
+}
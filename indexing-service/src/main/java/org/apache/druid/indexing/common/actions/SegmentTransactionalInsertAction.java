@@ -33,6 +33,7 @@ import org.apache.druid.query.DruidMetrics;
 import org.apache.druid.timeline.DataSegment;
 
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -104,6 +105,7 @@ public class SegmentTransactionalInsertAction implements TaskAction<SegmentPubli
   {
     TaskActionPreconditions.checkLockCoversSegments(task, toolbox.getTaskLockbox(), segments);
 
+    final long startNanos = System.nanoTime();
     final SegmentPublishResult retVal;
     try {
       retVal = toolbox.getTaskLockbox().doInCriticalSection(
@@ -134,6 +136,9 @@ public class SegmentTransactionalInsertAction implements TaskAction<SegmentPubli
     final ServiceMetricEvent.Builder metricBuilder = new ServiceMetricEvent.Builder();
     IndexTaskUtils.setTaskDimensions(metricBuilder, task);
 
+    toolbox.getEmitter().emit(
+        metricBuilder.build("segment/txn/time", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+    );
     if (retVal.isSuccess()) {
       toolbox.getEmitter().emit(metricBuilder.build("segment/txn/success", 1));
     } else {
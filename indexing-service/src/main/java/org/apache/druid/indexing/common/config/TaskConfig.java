@@ -38,6 +38,8 @@ public class TaskConfig
 
   private static final Period DEFAULT_GRACEFUL_SHUTDOWN_TIMEOUT = new Period("PT5M");
 
+  private static final Period DEFAULT_INTERMEDIARY_PARTITION_TIMEOUT = new Period("P1D");
+
   @JsonProperty
   private final String baseDir;
 
@@ -62,6 +64,12 @@ public class TaskConfig
   @JsonProperty
   private final Period directoryLockTimeout;
 
+  @JsonProperty
+  private final File intermediaryPartitionsDir;
+
+  @JsonProperty
+  private final Period intermediaryPartitionTimeout;
+
   @JsonCreator
   public TaskConfig(
       @JsonProperty("baseDir") String baseDir,
@@ -71,7 +79,9 @@ public class TaskConfig
       @JsonProperty("defaultHadoopCoordinates") List<String> defaultHadoopCoordinates,
       @JsonProperty("restoreTasksOnRestart") boolean restoreTasksOnRestart,
       @JsonProperty("gracefulShutdownTimeout") Period gracefulShutdownTimeout,
-      @JsonProperty("directoryLockTimeout") Period directoryLockTimeout
+      @JsonProperty("directoryLockTimeout") Period directoryLockTimeout,
+      @JsonProperty("intermediaryPartitionsDir") String intermediaryPartitionsDir,
+      @JsonProperty("intermediaryPartitionTimeout") Period intermediaryPartitionTimeout
   )
   {
     this.baseDir = baseDir == null ? System.getProperty("java.io.tmpdir") : baseDir;
@@ -89,6 +99,10 @@ public class TaskConfig
     this.directoryLockTimeout = directoryLockTimeout == null
                                 ? DEFAULT_DIRECTORY_LOCK_TIMEOUT
                                 : directoryLockTimeout;
+    this.intermediaryPartitionsDir = new File(defaultDir(intermediaryPartitionsDir, "intermediary-partitions"));
+    this.intermediaryPartitionTimeout = intermediaryPartitionTimeout == null
+                                        ? DEFAULT_INTERMEDIARY_PARTITION_TIMEOUT
+                                        : intermediaryPartitionTimeout;
   }
 
   @JsonProperty
@@ -154,6 +168,18 @@ public class TaskConfig
     return directoryLockTimeout;
   }
 
+  @JsonProperty
+  public File getIntermediaryPartitionsDir()
+  {
+    return intermediaryPartitionsDir;
+  }
+
+  @JsonProperty
+  public Period getIntermediaryPartitionTimeout()
+  {
+    return intermediaryPartitionTimeout;
+  }
+
   private String defaultDir(String configParameter, final String defaultVal)
   {
     if (configParameter == null) {
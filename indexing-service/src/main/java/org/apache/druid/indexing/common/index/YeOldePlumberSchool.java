@@ -108,6 +108,7 @@ public class YeOldePlumberSchool implements PlumberSchool
         config.getMaxRowsInMemory(),
         TuningConfigs.getMaxBytesInMemoryOrDefault(config.getMaxBytesInMemory()),
         config.isReportParseExceptions(),
+        config.isOffheapIncrementalIndex(),
         config.getDedupColumn()
     );
 
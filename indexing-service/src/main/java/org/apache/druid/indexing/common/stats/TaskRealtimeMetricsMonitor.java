@@ -112,9 +112,11 @@ public class TaskRealtimeMetricsMonitor extends AbstractMonitor
         )
     );
     emitter.emit(builder.build("ingest/persists/failed", metrics.failedPersists() - previousFireDepartmentMetrics.failedPersists()));
+    emitter.emit(builder.build("ingest/persists/pending", metrics.pendingPersists()));
     emitter.emit(builder.build("ingest/handoff/failed", metrics.failedHandoffs() - previousFireDepartmentMetrics.failedHandoffs()));
     emitter.emit(builder.build("ingest/merge/time", metrics.mergeTimeMillis() - previousFireDepartmentMetrics.mergeTimeMillis()));
     emitter.emit(builder.build("ingest/merge/cpu", metrics.mergeCpuTime() - previousFireDepartmentMetrics.mergeCpuTime()));
+    emitter.emit(builder.build("ingest/push/time", metrics.pushTimeMillis() - previousFireDepartmentMetrics.pushTimeMillis()));
     emitter.emit(builder.build("ingest/handoff/count", metrics.handOffCount() - previousFireDepartmentMetrics.handOffCount()));
     emitter.emit(builder.build("ingest/sink/count", metrics.sinkCount()));
     emitter.emit(builder.build("ingest/events/messageGap", metrics.messageGap()));
@@ -201,7 +201,7 @@ public class ParallelIndexSubTask extends AbstractTask
         firehoseFactory,
         firehoseTempDir
     );
-    taskClient.report(supervisorTaskId, pushedSegments);
+    taskClient.report(supervisorTaskId, new PushedSegmentsReport(getId(), pushedSegments));
 
     return TaskStatus.success(getId());
   }
@@ -30,13 +30,17 @@ import com.google.common.base.Throwables;
 import org.apache.druid.client.indexing.IndexingServiceClient;
 import org.apache.druid.data.input.FiniteFirehoseFactory;
 import org.apache.druid.data.input.FirehoseFactory;
+import org.apache.druid.indexer.TaskState;
 import org.apache.druid.indexer.TaskStatus;
+import org.apache.druid.indexing.appenderator.ActionBasedUsedSegmentChecker;
 import org.apache.druid.indexing.common.Counters;
 import org.apache.druid.indexing.common.TaskLock;
 import org.apache.druid.indexing.common.TaskLockType;
 import org.apache.druid.indexing.common.TaskToolbox;
 import org.apache.druid.indexing.common.actions.LockListAction;
 import org.apache.druid.indexing.common.actions.LockTryAcquireAction;
+import org.apache.druid.indexing.common.actions.SegmentTransactionalInsertAction;
+import org.apache.druid.indexing.common.actions.SurrogateAction;
 import org.apache.druid.indexing.common.actions.TaskActionClient;
 import org.apache.druid.indexing.common.config.TaskConfig;
 import org.apache.druid.indexing.common.stats.RowIngestionMetersFactory;
@@ -50,16 +54,22 @@ import org.apache.druid.indexing.common.task.Tasks;
 import org.apache.druid.indexing.common.task.batch.parallel.ParallelIndexTaskRunner.SubTaskSpecStatus;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.segment.indexing.TuningConfig;
 import org.apache.druid.segment.indexing.granularity.GranularitySpec;
 import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
+import org.apache.druid.segment.realtime.appenderator.TransactionalSegmentPublisher;
+import org.apache.druid.segment.realtime.appenderator.UsedSegmentChecker;
 import org.apache.druid.segment.realtime.firehose.ChatHandler;
 import org.apache.druid.segment.realtime.firehose.ChatHandlerProvider;
 import org.apache.druid.segment.realtime.firehose.ChatHandlers;
 import org.apache.druid.server.security.Action;
 import org.apache.druid.server.security.AuthorizerMapper;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.partition.HashBasedNumberedShardSpec;
 import org.apache.druid.timeline.partition.NumberedShardSpec;
+import org.apache.druid.timeline.partition.ShardSpec;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
@@ -76,9 +86,15 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -89,6 +105,12 @@ import java.util.stream.Collectors;
  * applicable if the input {@link FiniteFirehoseFactory} is splittable. While this task is running, it can submit
  * multiple child tasks to overlords. This task succeeds only when all its child tasks succeed; otherwise it fails.
  *
+ * If {@link ParallelIndexTuningConfig#isForceGuaranteedRollup()} is set, this task runs in two phases to guarantee
+ * perfect rollup. In the first phase, {@link PartialSegmentGenerateTask}s hash-partition input data and store the
+ * partial segments in the local disk of middleManagers. In the second phase, {@link PartialSegmentMergeTask}s fetch
+ * the partial segments of the same partition and merge them into a single segment. Otherwise, segments are generated
+ * and pushed by {@link ParallelIndexSubTask}s in a single phase.
+ *
  * @see ParallelIndexTaskRunner
  */
 public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHandler
@@ -108,6 +130,8 @@ public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHan
 
   private volatile ParallelIndexTaskRunner runner;
 
+  private volatile boolean stopped;
+
   // toolbox is initlized when run() is called, and can be used for processing HTTP endpoint requests.
   private volatile TaskToolbox toolbox;
 
@@ -144,6 +168,10 @@ public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHan
     this.authorizerMapper = authorizerMapper;
     this.rowIngestionMetersFactory = rowIngestionMetersFactory;
 
+    if (ingestionSchema.getTuningConfig().isForceGuaranteedRollup()) {
+      checkPerfectRollupSupported(ingestionSchema);
+    }
+
     if (ingestionSchema.getTuningConfig().getMaxSavedParseExceptions()
         != TuningConfig.DEFAULT_MAX_SAVED_PARSE_EXCEPTIONS) {
       log.warn("maxSavedParseExceptions is not supported yet");
@@ -156,6 +184,19 @@ public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHan
     }
   }
 
+  private static void checkPerfectRollupSupported(ParallelIndexIngestionSpec ingestionSchema)
+  {
+    if (ingestionSchema.getIOConfig().isAppendToExisting()) {
+      throw new IAE("Perfect rollup cannot be guaranteed when appending to existing dataSources");
+    }
+    if (ingestionSchema.getTuningConfig().getNumShards() == null) {
+      throw new IAE("numShards must be set to guarantee perfect rollup");
+    }
+    if (!ingestionSchema.getDataSchema().getGranularitySpec().bucketIntervals().isPresent()) {
+      throw new IAE("Perfect rollup cannot be guaranteed without intervals in granularitySpec");
+    }
+  }
+
   @Override
   public int getPriority()
   {
@@ -190,21 +231,48 @@ public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHan
   @VisibleForTesting
   ParallelIndexTaskRunner createRunner(TaskToolbox toolbox)
   {
-    if (ingestionSchema.getTuningConfig().isForceGuaranteedRollup()) {
-      throw new UnsupportedOperationException("Perfect roll-up is not supported yet");
-    } else {
-      runner = new SinglePhaseParallelIndexTaskRunner(
-          toolbox,
-          getId(),
-          getGroupId(),
-          ingestionSchema,
-          getContext(),
-          indexingServiceClient
-      );
-    }
+    runner = new SinglePhaseParallelIndexTaskRunner(
+        toolbox,
+        getId(),
+        getGroupId(),
+        ingestionSchema,
+        getContext(),
+        indexingServiceClient
+    );
     return runner;
   }
 
+  @VisibleForTesting
+  PartialSegmentGenerateParallelIndexTaskRunner createPartialSegmentGenerateRunner(TaskToolbox toolbox)
+  {
+    return new PartialSegmentGenerateParallelIndexTaskRunner(
+        toolbox,
+        getId(),
+        getGroupId(),
+        ingestionSchema,
+        getContext(),
+        indexingServiceClient
+    );
+  }
+
+  @VisibleForTesting
+  PartialSegmentMergeParallelIndexTaskRunner createPartialSegmentMergeRunner(
+      TaskToolbox toolbox,
+      List<PartialSegmentMergeIOConfig> ioConfigs
+  )
+  {
+    return new PartialSegmentMergeParallelIndexTaskRunner(
+        toolbox,
+        getId(),
+        getGroupId(),
+        getIngestionSchema().getDataSchema(),
+        ioConfigs,
+        getIngestionSchema().getTuningConfig(),
+        getContext(),
+        indexingServiceClient
+    );
+  }
+
   @VisibleForTesting
   void setRunner(ParallelIndexTaskRunner runner)
   {
@@ -239,6 +307,7 @@ public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHan
   @Override
   public void stopGracefully(TaskConfig taskConfig)
   {
+    stopped = true;
     if (runner != null) {
       runner.stopGracefully();
     }
@@ -298,8 +367,185 @@ public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHan
 
   private TaskStatus runParallel(TaskToolbox toolbox) throws Exception
   {
-    createRunner(toolbox);
-    return TaskStatus.fromCode(getId(), Preconditions.checkNotNull(runner, "runner").run());
+    if (ingestionSchema.getTuningConfig().isForceGuaranteedRollup()) {
+      return runMultiPhaseParallel(toolbox);
+    } else {
+      return runSinglePhaseParallel(toolbox);
+    }
+  }
+
+  /**
+   * Runs a single phase parallel indexing for best-effort rollup. In this mode, each sub task generates segments from
+   * its input split and pushes them to deep storage. The supervisor task publishes all pushed segments at once.
+   */
+  private TaskStatus runSinglePhaseParallel(TaskToolbox toolbox) throws Exception
+  {
+    @SuppressWarnings("unchecked")
+    final ParallelIndexTaskRunner<ParallelIndexSubTask, PushedSegmentsReport> runner = createRunner(toolbox);
+    final TaskState state = runNextPhase(runner);
+    if (state.isSuccess()) {
+      publishSegments(toolbox, getPushedSegments(runner.getReports()));
+    }
+    return TaskStatus.fromCode(getId(), state);
+  }
+
+  /**
+   * Runs a two phase parallel indexing for perfect rollup. In the first phase, each sub task partitions its input data
+   * by hash and stores the partial segments in the local disk of the middleManager. In the second phase, the partial
+   * segments of the same partition are fetched and merged into a single segment by a sub task. The supervisor task
+   * publishes all merged segments at once.
+   */
+  private TaskStatus runMultiPhaseParallel(TaskToolbox toolbox) throws Exception
+  {
+    final PartialSegmentGenerateParallelIndexTaskRunner generateRunner = createPartialSegmentGenerateRunner(toolbox);
+    TaskState state = runNextPhase(generateRunner);
+    if (!state.isSuccess()) {
+      return TaskStatus.fromCode(getId(), state);
+    }
+
+    final List<PartialSegmentMergeIOConfig> mergeIOConfigs = createMergeIOConfigs(
+        ingestionSchema.getTuningConfig().getMaxNumSubTasks(),
+        generateRunner.getReports().values()
+    );
+    final PartialSegmentMergeParallelIndexTaskRunner mergeRunner = createPartialSegmentMergeRunner(
+        toolbox,
+        mergeIOConfigs
+    );
+    state = runNextPhase(mergeRunner);
+    if (state.isSuccess()) {
+      publishSegments(toolbox, renumberIncompletePartitions(getPushedSegments(mergeRunner.getReports())));
+    }
+    return TaskStatus.fromCode(getId(), state);
+  }
+
+  private TaskState runNextPhase(ParallelIndexTaskRunner nextPhaseRunner) throws Exception
+  {
+    if (stopped) {
+      log.info("Task is stopped. Skipping phase[%s]", nextPhaseRunner.getName());
+      return TaskState.FAILED;
+    }
+    runner = nextPhaseRunner;
+    log.info("Running phase[%s]", nextPhaseRunner.getName());
+    return nextPhaseRunner.run();
+  }
+
+  /**
+   * Distributes the partitions generated in the first phase of perfect rollup mode to at most {@code maxNumSubTasks}
+   * merge tasks. Since the partial segments of the same partition must be merged by the same task, partitions are
+   * assigned as a whole, from the largest one to the task which has the smallest total size of assigned partitions.
+   */
+  @VisibleForTesting
+  static List<PartialSegmentMergeIOConfig> createMergeIOConfigs(
+      int maxNumSubTasks,
+      Collection<GeneratedPartitionsReport> reports
+  )
+  {
+    final Map<Pair<Interval, Integer>, List<PartitionLocation>> partitionToLocations = new HashMap<>();
+    final Map<Pair<Interval, Integer>, Long> partitionToSize = new HashMap<>();
+    for (GeneratedPartitionsReport report : reports) {
+      for (PartitionStat partitionStat : report.getPartitionStats()) {
+        final Pair<Interval, Integer> partition = Pair.of(partitionStat.getInterval(), partitionStat.getPartitionId());
+        partitionToLocations.computeIfAbsent(partition, k -> new ArrayList<>())
+                            .add(partitionStat.toPartitionLocation(report.getTaskId()));
+        partitionToSize.merge(partition, partitionStat.getSizeBytes(), Long::sum);
+      }
+    }
+
+    final int numMergeTasks = Math.min(maxNumSubTasks, partitionToLocations.size());
+    final List<List<PartitionLocation>> assignedLocations = new ArrayList<>(numMergeTasks);
+    final long[] assignedSizes = new long[numMergeTasks];
+    for (int i = 0; i < numMergeTasks; i++) {
+      assignedLocations.add(new ArrayList<>());
+    }
+
+    final List<Pair<Interval, Integer>> partitions = new ArrayList<>(partitionToLocations.keySet());
+    partitions.sort(Comparator.comparing(partitionToSize::get, Comparator.reverseOrder()));
+    for (Pair<Interval, Integer> partition : partitions) {
+      int minIndex = 0;
+      for (int i = 1; i < numMergeTasks; i++) {
+        if (assignedSizes[i] < assignedSizes[minIndex]) {
+          minIndex = i;
+        }
+      }
+      assignedLocations.get(minIndex).addAll(partitionToLocations.get(partition));
+      assignedSizes[minIndex] += partitionToSize.get(partition);
+    }
+
+    return assignedLocations.stream().map(PartialSegmentMergeIOConfig::new).collect(Collectors.toList());
+  }
+
+  private static Set<DataSegment> getPushedSegments(Map<String, PushedSegmentsReport> reportsMap)
+  {
+    return reportsMap
+        .values()
+        .stream()
+        .flatMap(report -> report.getSegments().stream())
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Hash partitions which no row was assigned to are never created by the merge phase. The core partition set of
+   * such an interval would never be complete, and the timeline wouldn't serve any of its segments. The segments of
+   * those intervals are renumbered to a complete set of the partitions which exist. A
+   * {@link HashBasedNumberedShardSpec} keeps its hash bucket so that the segments stay hash partitioned. The pushed
+   * files don't move since their loadSpecs don't depend on the shardSpec.
+   */
+  @VisibleForTesting
+  static Set<DataSegment> renumberIncompletePartitions(Set<DataSegment> segments)
+  {
+    final Map<Interval, List<DataSegment>> intervalToSegments = segments
+        .stream()
+        .collect(Collectors.groupingBy(DataSegment::getInterval));
+    final Set<DataSegment> renumbered = new HashSet<>();
+    for (List<DataSegment> segmentsInInterval : intervalToSegments.values()) {
+      final int numPartitions = segmentsInInterval.size();
+      final boolean complete = segmentsInInterval
+          .stream()
+          .allMatch(segment -> ((NumberedShardSpec) segment.getShardSpec()).getPartitions() == numPartitions);
+      if (complete) {
+        renumbered.addAll(segmentsInInterval);
+      } else {
+        segmentsInInterval.sort(Comparator.comparingInt(segment -> segment.getShardSpec().getPartitionNum()));
+        for (int i = 0; i < numPartitions; i++) {
+          final DataSegment segment = segmentsInInterval.get(i);
+          final ShardSpec shardSpec = segment.getShardSpec() instanceof HashBasedNumberedShardSpec
+                                      ? ((HashBasedNumberedShardSpec) segment.getShardSpec()).withPartitionNum(
+                                          i,
+                                          numPartitions
+                                      )
+                                      : new NumberedShardSpec(i, numPartitions);
+          renumbered.add(DataSegment.builder(segment).shardSpec(shardSpec).build());
+        }
+      }
+    }
+    return renumbered;
+  }
+
+  private void publishSegments(TaskToolbox toolbox, Set<DataSegment> segmentsToPublish) throws IOException
+  {
+    final TransactionalSegmentPublisher publisher = (segments, commitMetadata) -> {
+      final SegmentTransactionalInsertAction action = new SegmentTransactionalInsertAction(segments);
+      return toolbox.getTaskActionClient().submit(action);
+    };
+    final UsedSegmentChecker usedSegmentChecker = new ActionBasedUsedSegmentChecker(toolbox.getTaskActionClient());
+    final boolean published = segmentsToPublish.isEmpty()
+                              || publisher.publishSegments(segmentsToPublish, null).isSuccess();
+
+    if (published) {
+      log.info("Published [%d] segments", segmentsToPublish.size());
+    } else {
+      log.info("Transaction failure while publishing segments, checking if someone else beat us to it.");
+      final Set<SegmentIdWithShardSpec> segmentsIdentifiers = segmentsToPublish
+          .stream()
+          .map(SegmentIdWithShardSpec::fromDataSegment)
+          .collect(Collectors.toSet());
+      if (usedSegmentChecker.findUsedSegments(segmentsIdentifiers)
+                            .equals(segmentsToPublish)) {
+        log.info("Our segments really do exist, awaiting handoff.");
+      } else {
+        throw new ISE("Failed to publish segments[%s]", segmentsToPublish);
+      }
+    }
   }
 
   private TaskStatus runSequential(TaskToolbox toolbox)
@@ -331,11 +577,11 @@ public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHan
         tuningConfig.getMaxTotalRows(),
         null,
         tuningConfig.getNumShards(),
-        null,
+        tuningConfig.getPartitionDimensions(),
         tuningConfig.getIndexSpec(),
         tuningConfig.getMaxPendingPersists(),
         true,
-        false,
+        tuningConfig.isForceGuaranteedRollup(),
         tuningConfig.isReportParseExceptions(),
         null,
         tuningConfig.getPushTimeout(),
@@ -452,8 +698,23 @@ public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHan
     );
   }
 
+  /**
+   * Returns the versions of the locks held by the given supervisor task. Sub tasks use this method to find the
+   * versions of the segments they create.
+   */
+  static Map<Interval, String> findVersions(TaskActionClient actionClient, String supervisorTaskId)
+      throws IOException
+  {
+    final List<TaskLock> locks = actionClient.submit(new SurrogateAction<>(supervisorTaskId, new LockListAction()));
+    final TaskLock revokedLock = locks.stream().filter(TaskLock::isRevoked).findAny().orElse(null);
+    if (revokedLock != null) {
+      throw new ISE("Lock revoked: [%s]", revokedLock);
+    }
+    return locks.stream().collect(Collectors.toMap(TaskLock::getInterval, TaskLock::getVersion));
+  }
+
   @Nullable
-  private static String findVersion(Map<Interval, String> versions, Interval interval)
+  static String findVersion(Map<Interval, String> versions, Interval interval)
   {
     return versions.entrySet().stream()
                    .filter(entry -> entry.getKey().contains(interval))
@@ -463,13 +724,15 @@ public class ParallelIndexSupervisorTask extends AbstractTask implements ChatHan
   }
 
   /**
-   * {@link ParallelIndexSubTask}s call this API to report the segments they've generated and pushed.
+   * Worker tasks spawned by the supervisor call this API to report the segments they generated and pushed.
+   *
+   * @see ParallelIndexTaskClient#report(String, SubTaskReport)
    */
   @POST
   @Path("/report")
   @Consumes(SmileMediaTypes.APPLICATION_JACKSON_SMILE)
   public Response report(
-      PushedSegmentsReport report,
+      SubTaskReport report,
       @Context final HttpServletRequest req
   )
   {
@@ -21,23 +21,33 @@ package org.apache.druid.indexing.common.task.batch.parallel;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
 import org.apache.druid.indexing.common.IndexTaskClient;
 import org.apache.druid.indexing.common.TaskInfoProvider;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.RetryUtils;
 import org.apache.druid.java.util.http.client.HttpClient;
+import org.apache.druid.java.util.http.client.Request;
+import org.apache.druid.java.util.http.client.io.AppendableByteArrayInputStream;
+import org.apache.druid.java.util.http.client.response.ClientResponse;
 import org.apache.druid.java.util.http.client.response.FullResponseHolder;
+import org.apache.druid.java.util.http.client.response.InputStreamResponseHandler;
 import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
-import org.apache.druid.timeline.DataSegment;
 import org.jboss.netty.handler.codec.http.HttpMethod;
+import org.jboss.netty.handler.codec.http.HttpResponse;
+import org.jboss.netty.handler.codec.http.HttpResponseStatus;
 import org.joda.time.DateTime;
 import org.joda.time.Duration;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
 
 public class ParallelIndexTaskClient extends IndexTaskClient
 {
   private final String subtaskId;
+  private final Duration httpTimeout;
+  private final long numRetries;
 
   ParallelIndexTaskClient(
       HttpClient httpClient,
@@ -50,6 +60,8 @@ public class ParallelIndexTaskClient extends IndexTaskClient
   {
     super(httpClient, objectMapper, taskInfoProvider, httpTimeout, callerId, 1, numRetries);
     this.subtaskId = callerId;
+    this.httpTimeout = httpTimeout;
+    this.numRetries = numRetries;
   }
 
   String getSubtaskId()
@@ -84,7 +96,7 @@ public class ParallelIndexTaskClient extends IndexTaskClient
     }
   }
 
-  public void report(String supervisorTaskId, List<DataSegment> pushedSegments)
+  public void report(String supervisorTaskId, SubTaskReport report)
   {
     try {
       final FullResponseHolder response = submitSmileRequest(
@@ -92,7 +104,7 @@ public class ParallelIndexTaskClient extends IndexTaskClient
           HttpMethod.POST,
           "report",
           null,
-          serialize(new PushedSegmentsReport(subtaskId, pushedSegments)),
+          serialize(report),
           true
       );
       if (!isSuccess(response)) {
@@ -107,4 +119,47 @@ public class ParallelIndexTaskClient extends IndexTaskClient
       throw new RuntimeException(e);
     }
   }
+
+  /**
+   * Fetches the partition at the given location from the middleManager where it was generated, and stores it in
+   * the given file. See {@link org.apache.druid.indexing.worker.http.ShuffleResource}.
+   */
+  public File fetchPartition(String supervisorTaskId, PartitionLocation location, File partitionFile)
+  {
+    try {
+      final Request request = new Request(
+          HttpMethod.GET,
+          location.toIntermediaryDataServerURI(supervisorTaskId).toURL()
+      );
+      return RetryUtils.retry(
+          () -> {
+            try (InputStream in = getHttpClient().go(request, new PartitionResponseHandler(), httpTimeout).get()) {
+              // The httpClient returns null if the response handler failed, e.g., because of an error response.
+              if (in == null) {
+                throw new ISE("Failed to fetch partition[%s]", location);
+              }
+              FileUtils.copyInputStreamToFile(in, partitionFile);
+            }
+            return partitionFile;
+          },
+          t -> !(t instanceof InterruptedException),
+          (int) numRetries + 1
+      );
+    }
+    catch (Exception e) {
+      throw new ISE(e, "Failed to fetch partition[%s] for task[%s]", location, supervisorTaskId);
+    }
+  }
+
+  private static class PartitionResponseHandler extends InputStreamResponseHandler
+  {
+    @Override
+    public ClientResponse<AppendableByteArrayInputStream> handleResponse(HttpResponse response, TrafficCop trafficCop)
+    {
+      if (!HttpResponseStatus.OK.equals(response.getStatus())) {
+        throw new ISE("Failed to fetch a partition with the HTTP code[%d]", response.getStatus().getCode());
+      }
+      return super.handleResponse(response, trafficCop);
+    }
+  }
 }
@@ -27,15 +27,23 @@ import org.apache.druid.indexing.common.task.Task;
 
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
- * ParallelIndexTaskRunner is the actual task runner of {@link ParallelIndexSupervisorTask}. There is currently a single
- * implementation, i.e. {@link SinglePhaseParallelIndexTaskRunner} which supports only best-effort roll-up. We can add
- * more implementations for different distributed indexing algorithms in the future.
+ * ParallelIndexTaskRunner is the actual task runner of {@link ParallelIndexSupervisorTask}. Each runner runs a phase of
+ * distributed indexing algorithms, submitting and monitoring sub tasks and collecting their reports.
+ * {@link SinglePhaseParallelIndexTaskRunner} supports only best-effort roll-up in a single phase while
+ * {@link PartialSegmentGenerateParallelIndexTaskRunner} and {@link PartialSegmentMergeParallelIndexTaskRunner} run
+ * the two phases of the perfect roll-up mode.
  */
-public interface ParallelIndexTaskRunner<T extends Task>
+public interface ParallelIndexTaskRunner<SubTaskType extends Task, SubTaskReportType extends SubTaskReport>
 {
+  /**
+   * Returns the name of this runner which is used for logging.
+   */
+  String getName();
+
   /**
    * Runs the task.
    */
@@ -48,10 +56,15 @@ public interface ParallelIndexTaskRunner<T extends Task>
   void stopGracefully();
 
   /**
-   * {@link PushedSegmentsReport} is the report sent by {@link ParallelIndexSubTask}s. The subTasks call this method to
-   * send their reports after pushing generated segments to deep storage.
+   * {@link SubTaskReport} is the report sent by sub tasks. The subTasks call this method to send their reports after
+   * they finish their work, e.g., after pushing generated segments to deep storage.
+   */
+  void collectReport(SubTaskReportType report);
+
+  /**
+   * Returns a map between subTaskId and its report.
    */
-  void collectReport(PushedSegmentsReport report);
+  Map<String, SubTaskReportType> getReports();
 
   /**
    * Returns the current {@link ParallelIndexingProgress}.
@@ -66,7 +79,7 @@ public interface ParallelIndexTaskRunner<T extends Task>
   /**
    * Returns all {@link SubTaskSpec}s.
    */
-  List<SubTaskSpec<T>> getSubTaskSpecs();
+  List<SubTaskSpec<SubTaskType>> getSubTaskSpecs();
 
   /**
    * Returns running {@link SubTaskSpec}s. A {@link SubTaskSpec} is running if there is a running {@link Task} created
@@ -74,7 +87,7 @@ public interface ParallelIndexTaskRunner<T extends Task>
    *
    * @see SubTaskSpec#newSubTask
    */
-  List<SubTaskSpec<T>> getRunningSubTaskSpecs();
+  List<SubTaskSpec<SubTaskType>> getRunningSubTaskSpecs();
 
   /**
    * Returns complete {@link SubTaskSpec}s. A {@link SubTaskSpec} is complete if there is a succeeded or failed
@@ -82,13 +95,13 @@ public interface ParallelIndexTaskRunner<T extends Task>
    *
    * @see SubTaskSpec#newSubTask
    */
-  List<SubTaskSpec<T>> getCompleteSubTaskSpecs();
+  List<SubTaskSpec<SubTaskType>> getCompleteSubTaskSpecs();
 
   /**
    * Returns the {@link SubTaskSpec} of the given ID or null if it's not found.
    */
   @Nullable
-  SubTaskSpec<T> getSubTaskSpec(String subTaskSpecId);
+  SubTaskSpec<SubTaskType> getSubTaskSpec(String subTaskSpecId);
 
   /**
    * Returns {@link SubTaskSpecStatus} of the given ID or null if it's not found.
@@ -100,18 +113,18 @@ public interface ParallelIndexTaskRunner<T extends Task>
    * Returns {@link TaskHistory} of the given ID or null if it's not found.
    */
   @Nullable
-  TaskHistory<T> getCompleteSubTaskSpecAttemptHistory(String subTaskSpecId);
+  TaskHistory<SubTaskType> getCompleteSubTaskSpecAttemptHistory(String subTaskSpecId);
 
   class SubTaskSpecStatus
   {
-    private final ParallelIndexSubTaskSpec spec;
+    private final SubTaskSpec<?> spec;
     @Nullable
     private final TaskStatusPlus currentStatus; // null if there is no running task for the spec
     private final List<TaskStatusPlus> taskHistory; // can be empty if there is no history
 
     @JsonCreator
     public SubTaskSpecStatus(
-        @JsonProperty("spec") ParallelIndexSubTaskSpec spec,
+        @JsonProperty("spec") SubTaskSpec<?> spec,
         @JsonProperty("currentStatus") @Nullable TaskStatusPlus currentStatus,
         @JsonProperty("taskHistory") List<TaskStatusPlus> taskHistory
     )
@@ -122,7 +135,7 @@ public interface ParallelIndexTaskRunner<T extends Task>
     }
 
     @JsonProperty
-    public ParallelIndexSubTaskSpec getSpec()
+    public SubTaskSpec<?> getSpec()
     {
       return spec;
     }
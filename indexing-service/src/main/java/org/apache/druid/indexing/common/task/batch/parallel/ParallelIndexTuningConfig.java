@@ -24,12 +24,14 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.google.common.base.Preconditions;
 import org.apache.druid.indexing.common.task.IndexTask.IndexTuningConfig;
+import org.apache.druid.segment.IndexMerger;
 import org.apache.druid.segment.IndexSpec;
 import org.apache.druid.segment.writeout.SegmentWriteOutMediumFactory;
 import org.joda.time.Duration;
 import org.joda.time.Period;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Objects;
 
 @JsonTypeName("index_parallel")
@@ -49,6 +51,8 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
   private final Duration chatHandlerTimeout;
   private final int chatHandlerNumRetries;
 
+  private final int maxColumnsToMerge;
+
   public static ParallelIndexTuningConfig defaultConfig()
   {
     return new ParallelIndexTuningConfig(
@@ -71,6 +75,8 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
         null,
         null,
         null,
+        null,
+        null,
         null
     );
   }
@@ -83,6 +89,7 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
       @JsonProperty("maxBytesInMemory") @Nullable Long maxBytesInMemory,
       @JsonProperty("maxTotalRows") @Nullable Long maxTotalRows,
       @JsonProperty("numShards") @Nullable Integer numShards,
+      @JsonProperty("partitionDimensions") @Nullable List<String> partitionDimensions,
       @JsonProperty("indexSpec") @Nullable IndexSpec indexSpec,
       @JsonProperty("maxPendingPersists") @Nullable Integer maxPendingPersists,
       @JsonProperty("forceGuaranteedRollup") @Nullable Boolean forceGuaranteedRollup,
@@ -96,7 +103,8 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
       @JsonProperty("chatHandlerNumRetries") @Nullable Integer chatHandlerNumRetries,
       @JsonProperty("logParseExceptions") @Nullable Boolean logParseExceptions,
       @JsonProperty("maxParseExceptions") @Nullable Integer maxParseExceptions,
-      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions
+      @JsonProperty("maxSavedParseExceptions") @Nullable Integer maxSavedParseExceptions,
+      @JsonProperty("maxColumnsToMerge") @Nullable Integer maxColumnsToMerge
   )
   {
     super(
@@ -107,7 +115,7 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
         maxTotalRows,
         null,
         numShards,
-        null,
+        partitionDimensions,
         indexSpec,
         maxPendingPersists,
         null,
@@ -132,7 +140,16 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
                                  ? DEFAULT_CHAT_HANDLER_NUM_RETRIES
                                  : chatHandlerNumRetries;
 
+    this.maxColumnsToMerge = maxColumnsToMerge == null
+                             ? IndexMerger.UNLIMITED_MAX_COLUMNS_TO_MERGE
+                             : maxColumnsToMerge;
+
     Preconditions.checkArgument(this.maxNumSubTasks > 0, "maxNumSubTasks must be positive");
+    Preconditions.checkArgument(
+        this.maxColumnsToMerge > 0 || this.maxColumnsToMerge == IndexMerger.UNLIMITED_MAX_COLUMNS_TO_MERGE,
+        "maxColumnsToMerge must be positive or %s",
+        IndexMerger.UNLIMITED_MAX_COLUMNS_TO_MERGE
+    );
   }
 
   @JsonProperty
@@ -165,6 +182,13 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
     return chatHandlerNumRetries;
   }
 
+  @Override
+  @JsonProperty
+  public int getMaxColumnsToMerge()
+  {
+    return maxColumnsToMerge;
+  }
+
   @Override
   public boolean equals(Object o)
   {
@@ -182,6 +206,7 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
            maxRetry == that.maxRetry &&
            taskStatusCheckPeriodMs == that.taskStatusCheckPeriodMs &&
            chatHandlerNumRetries == that.chatHandlerNumRetries &&
+           maxColumnsToMerge == that.maxColumnsToMerge &&
            Objects.equals(chatHandlerTimeout, that.chatHandlerTimeout);
   }
 
@@ -195,7 +220,8 @@ public class ParallelIndexTuningConfig extends IndexTuningConfig
         maxRetry,
         taskStatusCheckPeriodMs,
         chatHandlerTimeout,
-        chatHandlerNumRetries
+        chatHandlerNumRetries,
+        maxColumnsToMerge
     );
   }
 }
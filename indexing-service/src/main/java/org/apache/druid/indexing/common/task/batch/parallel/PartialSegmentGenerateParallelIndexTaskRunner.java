@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.task.batch.parallel;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.druid.client.indexing.IndexingServiceClient;
+import org.apache.druid.data.input.FiniteFirehoseFactory;
+import org.apache.druid.data.input.InputSplit;
+import org.apache.druid.indexing.common.TaskToolbox;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * {@link ParallelIndexTaskRunner} for the phase to create partitioned segments in multi-phase parallel indexing.
+ * This runner submits {@link PartialSegmentGenerateTask}s which hash-partition input data and store the generated
+ * partial segments in the local disk of middleManagers.
+ *
+ * @see PartialSegmentMergeParallelIndexTaskRunner
+ */
+class PartialSegmentGenerateParallelIndexTaskRunner
+    extends ParallelIndexPhaseRunner<PartialSegmentGenerateTask, GeneratedPartitionsReport>
+{
+  private static final String PHASE_NAME = "partial segment generation";
+
+  private final ParallelIndexIngestionSpec ingestionSchema;
+  private final FiniteFirehoseFactory<?, ?> baseFirehoseFactory;
+
+  PartialSegmentGenerateParallelIndexTaskRunner(
+      TaskToolbox toolbox,
+      String taskId,
+      String groupId,
+      ParallelIndexIngestionSpec ingestionSchema,
+      Map<String, Object> context,
+      IndexingServiceClient indexingServiceClient
+  )
+  {
+    super(
+        toolbox,
+        taskId,
+        groupId,
+        ingestionSchema.getTuningConfig(),
+        context,
+        indexingServiceClient
+    );
+    this.ingestionSchema = ingestionSchema;
+    this.baseFirehoseFactory = (FiniteFirehoseFactory) ingestionSchema.getIOConfig().getFirehoseFactory();
+  }
+
+  @Override
+  public String getName()
+  {
+    return PHASE_NAME;
+  }
+
+  @VisibleForTesting
+  ParallelIndexIngestionSpec getIngestionSchema()
+  {
+    return ingestionSchema;
+  }
+
+  @Override
+  Iterator<SubTaskSpec<PartialSegmentGenerateTask>> subTaskSpecIterator() throws IOException
+  {
+    return baseFirehoseFactory.getSplits().<SubTaskSpec<PartialSegmentGenerateTask>>map(this::newTaskSpec).iterator();
+  }
+
+  @Override
+  int getTotalNumSubTasks() throws IOException
+  {
+    return baseFirehoseFactory.getNumSplits();
+  }
+
+  @VisibleForTesting
+  PartialSegmentGenerateTaskSpec newTaskSpec(InputSplit split)
+  {
+    return new PartialSegmentGenerateTaskSpec(
+        getTaskId() + "_" + getAndIncrementNextSpecId(),
+        getGroupId(),
+        getTaskId(),
+        new ParallelIndexIngestionSpec(
+            ingestionSchema.getDataSchema(),
+            new ParallelIndexIOConfig(
+                baseFirehoseFactory.withSplit(split),
+                ingestionSchema.getIOConfig().isAppendToExisting()
+            ),
+            ingestionSchema.getTuningConfig()
+        ),
+        getContext(),
+        split
+    );
+  }
+}
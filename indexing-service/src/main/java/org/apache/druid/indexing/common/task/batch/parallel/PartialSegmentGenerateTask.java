@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.task.batch.parallel;
+
+import com.fasterxml.jackson.annotation.JacksonInject;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import org.apache.commons.io.FileUtils;
+import org.apache.druid.client.indexing.IndexingServiceClient;
+import org.apache.druid.data.input.Firehose;
+import org.apache.druid.data.input.FirehoseFactory;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.indexer.TaskStatus;
+import org.apache.druid.indexing.appenderator.ActionBasedUsedSegmentChecker;
+import org.apache.druid.indexing.common.TaskLockType;
+import org.apache.druid.indexing.common.TaskToolbox;
+import org.apache.druid.indexing.common.actions.LockTryAcquireAction;
+import org.apache.druid.indexing.common.actions.SurrogateAction;
+import org.apache.druid.indexing.common.actions.TaskActionClient;
+import org.apache.druid.indexing.common.task.AbstractTask;
+import org.apache.druid.indexing.common.task.ClientBasedTaskInfoProvider;
+import org.apache.druid.indexing.common.task.IndexTaskClientFactory;
+import org.apache.druid.indexing.common.task.TaskResource;
+import org.apache.druid.indexing.common.task.Tasks;
+import org.apache.druid.indexing.worker.IntermediaryDataManager;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.java.util.common.parsers.ParseException;
+import org.apache.druid.query.DruidMetrics;
+import org.apache.druid.segment.indexing.DataSchema;
+import org.apache.druid.segment.indexing.RealtimeIOConfig;
+import org.apache.druid.segment.indexing.granularity.GranularitySpec;
+import org.apache.druid.segment.realtime.FireDepartment;
+import org.apache.druid.segment.realtime.FireDepartmentMetrics;
+import org.apache.druid.segment.realtime.RealtimeMetricsMonitor;
+import org.apache.druid.segment.realtime.appenderator.Appenderator;
+import org.apache.druid.segment.realtime.appenderator.AppenderatorDriverAddResult;
+import org.apache.druid.segment.realtime.appenderator.Appenderators;
+import org.apache.druid.segment.realtime.appenderator.BatchAppenderatorDriver;
+import org.apache.druid.segment.realtime.appenderator.SegmentAllocator;
+import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
+import org.apache.druid.segment.realtime.appenderator.SegmentsAndMetadata;
+import org.apache.druid.server.DruidNode;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.partition.HashBasedNumberedShardSpec;
+import org.apache.druid.timeline.partition.ShardSpec;
+import org.apache.druid.timeline.partition.ShardSpecLookup;
+import org.joda.time.Interval;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The worker task of {@link PartialSegmentGenerateParallelIndexTaskRunner}. This task partitions input data by
+ * hashing {@link ParallelIndexTuningConfig#getPartitionDimensions()} into
+ * {@link ParallelIndexTuningConfig#getNumShards()} buckets per segment interval, and generates a partial segment per
+ * bucket. Unlike {@link ParallelIndexSubTask}, the partial segments are stored in the local disk of the middleManager
+ * via {@link IntermediaryDataManager} instead of being pushed to deep storage. Finally, this task reports the
+ * generated partitions to the supervisorTask so that they can be merged by {@link PartialSegmentMergeTask}s.
+ */
+public class PartialSegmentGenerateTask extends AbstractTask
+{
+  public static final String TYPE = "partial_index_generate";
+
+  private static final Logger log = new Logger(PartialSegmentGenerateTask.class);
+
+  private final int numAttempts;
+  private final ParallelIndexIngestionSpec ingestionSchema;
+  private final String supervisorTaskId;
+  private final IndexingServiceClient indexingServiceClient;
+  private final IndexTaskClientFactory<ParallelIndexTaskClient> taskClientFactory;
+
+  @JsonCreator
+  public PartialSegmentGenerateTask(
+      // id shouldn't be null except when this task is created by ParallelIndexSupervisorTask
+      @JsonProperty("id") @Nullable String id,
+      @JsonProperty("groupId") final String groupId,
+      @JsonProperty("resource") final TaskResource taskResource,
+      @JsonProperty("supervisorTaskId") final String supervisorTaskId,
+      @JsonProperty("numAttempts") final int numAttempts, // zero-based counting
+      @JsonProperty("spec") final ParallelIndexIngestionSpec ingestionSchema,
+      @JsonProperty("context") final Map<String, Object> context,
+      @JacksonInject IndexingServiceClient indexingServiceClient,
+      @JacksonInject IndexTaskClientFactory<ParallelIndexTaskClient> taskClientFactory
+  )
+  {
+    super(
+        getOrMakeId(id, TYPE, ingestionSchema.getDataSchema().getDataSource()),
+        groupId,
+        taskResource,
+        ingestionSchema.getDataSchema().getDataSource(),
+        context
+    );
+
+    Preconditions.checkArgument(
+        ingestionSchema.getTuningConfig().isForceGuaranteedRollup(),
+        "forceGuaranteedRollup must be set"
+    );
+    Preconditions.checkArgument(
+        ingestionSchema.getTuningConfig().getNumShards() != null,
+        "numShards must be set"
+    );
+    Preconditions.checkArgument(
+        ingestionSchema.getDataSchema().getGranularitySpec().bucketIntervals().isPresent(),
+        "Missing intervals in granularitySpec"
+    );
+
+    this.numAttempts = numAttempts;
+    this.ingestionSchema = ingestionSchema;
+    this.supervisorTaskId = supervisorTaskId;
+    this.indexingServiceClient = indexingServiceClient;
+    this.taskClientFactory = taskClientFactory;
+  }
+
+  @JsonProperty
+  public int getNumAttempts()
+  {
+    return numAttempts;
+  }
+
+  @JsonProperty("spec")
+  public ParallelIndexIngestionSpec getIngestionSchema()
+  {
+    return ingestionSchema;
+  }
+
+  @JsonProperty
+  public String getSupervisorTaskId()
+  {
+    return supervisorTaskId;
+  }
+
+  @Override
+  public int getPriority()
+  {
+    return getContextValue(Tasks.PRIORITY_KEY, Tasks.DEFAULT_BATCH_INDEX_TASK_PRIORITY);
+  }
+
+  @Override
+  public String getType()
+  {
+    return TYPE;
+  }
+
+  @Override
+  public boolean isReady(TaskActionClient taskActionClient) throws Exception
+  {
+    final SortedSet<Interval> intervals = ingestionSchema.getDataSchema()
+                                                         .getGranularitySpec()
+                                                         .bucketIntervals()
+                                                         .get();
+    try {
+      for (Interval interval : Tasks.computeCompactIntervals(intervals)) {
+        Preconditions.checkNotNull(
+            taskActionClient.submit(
+                new SurrogateAction<>(supervisorTaskId, new LockTryAcquireAction(TaskLockType.EXCLUSIVE, interval))
+            ),
+            "Cannot acquire a lock for interval[%s]", interval
+        );
+      }
+      return true;
+    }
+    catch (Exception e) {
+      log.error(e, "Failed to acquire locks for intervals[%s]", intervals);
+      return false;
+    }
+  }
+
+  @Override
+  public TaskStatus run(TaskToolbox toolbox) throws Exception
+  {
+    final FirehoseFactory firehoseFactory = ingestionSchema.getIOConfig().getFirehoseFactory();
+
+    final File firehoseTempDir = toolbox.getFirehoseTemporaryDir();
+    // Firehose temporary directory is automatically removed when this task completes.
+    FileUtils.forceMkdir(firehoseTempDir);
+
+    final ParallelIndexTaskClient taskClient = taskClientFactory.build(
+        new ClientBasedTaskInfoProvider(indexingServiceClient),
+        getId(),
+        1, // always use a single http thread
+        ingestionSchema.getTuningConfig().getChatHandlerTimeout(),
+        ingestionSchema.getTuningConfig().getChatHandlerNumRetries()
+    );
+
+    final List<DataSegment> segments = generateSegments(toolbox, firehoseFactory, firehoseTempDir);
+    final DruidNode taskExecutorNode = Preconditions.checkNotNull(
+        toolbox.getTaskExecutorNode(),
+        "taskExecutorNode"
+    );
+    final List<PartitionStat> partitionStats = segments
+        .stream()
+        .map(segment -> new PartitionStat(
+            taskExecutorNode.getHost(),
+            taskExecutorNode.getPortToUse(),
+            taskExecutorNode.isEnableTlsPort(),
+            segment.getInterval(),
+            segment.getShardSpec().getPartitionNum(),
+            segment.getSize()
+        ))
+        .collect(Collectors.toList());
+    taskClient.report(supervisorTaskId, new GeneratedPartitionsReport(getId(), partitionStats));
+
+    return TaskStatus.success(getId());
+  }
+
+  /**
+   * Reads the input data and adds every row to the partial segment of its (interval, hash bucket). All partial
+   * segments are stored via {@link IntermediaryDataManager} at the end, so that each bucket has at most one partial
+   * segment generated by this task.
+   */
+  private List<DataSegment> generateSegments(
+      final TaskToolbox toolbox,
+      final FirehoseFactory firehoseFactory,
+      final File firehoseTempDir
+  ) throws IOException, InterruptedException
+  {
+    final DataSchema dataSchema = ingestionSchema.getDataSchema();
+    final GranularitySpec granularitySpec = dataSchema.getGranularitySpec();
+    final FireDepartment fireDepartmentForMetrics =
+        new FireDepartment(dataSchema, new RealtimeIOConfig(null, null, null), null);
+    final FireDepartmentMetrics fireDepartmentMetrics = fireDepartmentForMetrics.getMetrics();
+
+    if (toolbox.getMonitorScheduler() != null) {
+      toolbox.getMonitorScheduler().addMonitor(
+          new RealtimeMetricsMonitor(
+              Collections.singletonList(fireDepartmentForMetrics),
+              Collections.singletonMap(DruidMetrics.TASK_ID, new String[]{getId()})
+          )
+      );
+    }
+
+    final ParallelIndexTuningConfig tuningConfig = ingestionSchema.getTuningConfig();
+    final long pushTimeout = tuningConfig.getPushTimeout();
+    final Map<Interval, String> versions = ParallelIndexSupervisorTask.findVersions(
+        toolbox.getTaskActionClient(),
+        supervisorTaskId
+    );
+    final Map<Interval, ShardSpecLookup> shardSpecLookups = new HashMap<>();
+    final Map<String, SegmentIdWithShardSpec> segmentIds = new HashMap<>();
+
+    for (Interval interval : granularitySpec.bucketIntervals().get()) {
+      final List<ShardSpec> shardSpecs = createShardSpecs(toolbox.getObjectMapper(), tuningConfig);
+      final String version = ParallelIndexSupervisorTask.findVersion(versions, interval);
+      if (version == null) {
+        throw new ISE("Cannot find a version for interval[%s]", interval);
+      }
+      shardSpecLookups.put(interval, shardSpecs.get(0).getLookup(shardSpecs));
+      for (ShardSpec shardSpec : shardSpecs) {
+        segmentIds.put(
+            Appenderators.getSequenceName(interval, version, shardSpec),
+            new SegmentIdWithShardSpec(getDataSource(), interval, version, shardSpec)
+        );
+      }
+    }
+
+    // Segments are all known in advance and there is one per sequenceName.
+    final SegmentAllocator segmentAllocator =
+        (row, sequenceName, previousSegmentId, skipSegmentLineageCheck) -> segmentIds.get(sequenceName);
+
+    try (
+        final Appenderator appenderator = Appenderators.createOffline(
+            dataSchema,
+            tuningConfig.withBasePersistDirectory(toolbox.getPersistDir()),
+            fireDepartmentMetrics,
+            new ShuffleDataSegmentPusher(supervisorTaskId, getId(), toolbox.getIntermediaryDataManager()),
+            toolbox.getObjectMapper(),
+            toolbox.getIndexIO(),
+            toolbox.getIndexMergerV9()
+        );
+        final BatchAppenderatorDriver driver = new BatchAppenderatorDriver(
+            appenderator,
+            segmentAllocator,
+            new ActionBasedUsedSegmentChecker(toolbox.getTaskActionClient()),
+            toolbox.getDataSegmentKiller()
+        );
+        final Firehose firehose = firehoseFactory.connect(dataSchema.getParser(), firehoseTempDir)
+    ) {
+      driver.startJob();
+
+      while (firehose.hasMore()) {
+        try {
+          final InputRow inputRow = firehose.nextRow();
+
+          if (inputRow == null) {
+            fireDepartmentMetrics.incrementThrownAway();
+            continue;
+          }
+
+          if (!Intervals.ETERNITY.contains(inputRow.getTimestamp())) {
+            final String errorMsg = StringUtils.format(
+                "Encountered row with timestamp that cannot be represented as a long: [%s]",
+                inputRow
+            );
+            throw new ParseException(errorMsg);
+          }
+
+          final Optional<Interval> optInterval = granularitySpec.bucketInterval(inputRow.getTimestamp());
+          if (!optInterval.isPresent()) {
+            fireDepartmentMetrics.incrementThrownAway();
+            continue;
+          }
+
+          // Sequence name is based solely on the shardSpec, and there will only be one segment per sequence.
+          final Interval interval = optInterval.get();
+          final ShardSpec shardSpec = shardSpecLookups.get(interval)
+                                                      .getShardSpec(inputRow.getTimestampFromEpoch(), inputRow);
+          final String sequenceName = Appenderators.getSequenceName(
+              interval,
+              ParallelIndexSupervisorTask.findVersion(versions, interval),
+              shardSpec
+          );
+          final AppenderatorDriverAddResult addResult = driver.add(inputRow, sequenceName);
+
+          if (!addResult.isOk()) {
+            throw new ISE("Failed to add a row with timestamp[%s]", inputRow.getTimestamp());
+          }
+
+          fireDepartmentMetrics.incrementProcessed();
+        }
+        catch (ParseException e) {
+          if (tuningConfig.isReportParseExceptions()) {
+            throw e;
+          } else {
+            fireDepartmentMetrics.incrementUnparseable();
+          }
+        }
+      }
+
+      final SegmentsAndMetadata pushed = driver.pushAllAndClear(pushTimeout);
+      log.info("Generated partial segments[%s]", pushed.getSegments());
+
+      return pushed.getSegments();
+    }
+    catch (TimeoutException | ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  static List<ShardSpec> createShardSpecs(ObjectMapper jsonMapper, ParallelIndexTuningConfig tuningConfig)
+  {
+    final int numShards = tuningConfig.getNumShards();
+    return IntStream.range(0, numShards)
+                    .mapToObj(
+                        shardId -> new HashBasedNumberedShardSpec(
+                            shardId,
+                            numShards,
+                            tuningConfig.getPartitionDimensions(),
+                            jsonMapper
+                        )
+                    )
+                    .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.task.batch.parallel;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.druid.data.input.InputSplit;
+
+import java.util.Map;
+
+class PartialSegmentGenerateTaskSpec extends SubTaskSpec<PartialSegmentGenerateTask>
+{
+  private final ParallelIndexIngestionSpec ingestionSpec;
+
+  @JsonCreator
+  PartialSegmentGenerateTaskSpec(
+      String id,
+      String groupId,
+      String supervisorTaskId,
+      ParallelIndexIngestionSpec indexIngestionSpec,
+      Map<String, Object> context,
+      InputSplit inputSplit
+  )
+  {
+    super(id, groupId, supervisorTaskId, context, inputSplit);
+    this.ingestionSpec = indexIngestionSpec;
+  }
+
+  @JsonProperty
+  public ParallelIndexIngestionSpec getIngestionSpec()
+  {
+    return ingestionSpec;
+  }
+
+  @Override
+  public PartialSegmentGenerateTask newSubTask(int numAttempts)
+  {
+    return new PartialSegmentGenerateTask(
+        null,
+        getGroupId(),
+        null,
+        getSupervisorTaskId(),
+        numAttempts,
+        getIngestionSpec(),
+        getContext(),
+        null,
+        null
+    );
+  }
+}
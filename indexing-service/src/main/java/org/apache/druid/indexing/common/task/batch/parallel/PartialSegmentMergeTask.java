@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.task.batch.parallel;
+
+import com.fasterxml.jackson.annotation.JacksonInject;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import org.apache.commons.io.FileUtils;
+import org.apache.druid.client.indexing.IndexingServiceClient;
+import org.apache.druid.indexer.TaskStatus;
+import org.apache.druid.indexing.common.TaskLockType;
+import org.apache.druid.indexing.common.TaskToolbox;
+import org.apache.druid.indexing.common.actions.LockTryAcquireAction;
+import org.apache.druid.indexing.common.actions.SurrogateAction;
+import org.apache.druid.indexing.common.actions.TaskActionClient;
+import org.apache.druid.indexing.common.task.AbstractTask;
+import org.apache.druid.indexing.common.task.ClientBasedTaskInfoProvider;
+import org.apache.druid.indexing.common.task.IndexTaskClientFactory;
+import org.apache.druid.indexing.common.task.TaskResource;
+import org.apache.druid.indexing.common.task.Tasks;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.Pair;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.guava.Comparators;
+import org.apache.druid.java.util.common.io.Closer;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.segment.BaseProgressIndicator;
+import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.IndexMerger;
+import org.apache.druid.segment.IndexMergerV9;
+import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.indexing.DataSchema;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.partition.HashBasedNumberedShardSpec;
+import org.apache.druid.utils.CompressionUtils;
+import org.joda.time.Interval;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The worker task of {@link PartialSegmentMergeParallelIndexTaskRunner}. This task fetches the partial segments
+ * generated by {@link PartialSegmentGenerateTask}s from middleManagers, merges the partial segments of the same
+ * (interval, partitionId) into a single segment, and pushes it to deep storage. The pushed segments are reported to
+ * the supervisorTask which publishes all of them at once.
+ */
+public class PartialSegmentMergeTask extends AbstractTask
+{
+  public static final String TYPE = "partial_index_merge";
+
+  private static final Logger log = new Logger(PartialSegmentMergeTask.class);
+
+  private final PartialSegmentMergeIngestionSpec ingestionSchema;
+  private final String supervisorTaskId;
+  private final int numAttempts;
+  private final IndexingServiceClient indexingServiceClient;
+  private final IndexTaskClientFactory<ParallelIndexTaskClient> taskClientFactory;
+
+  @JsonCreator
+  public PartialSegmentMergeTask(
+      // id shouldn't be null except when this task is created by ParallelIndexSupervisorTask
+      @JsonProperty("id") @Nullable String id,
+      @JsonProperty("groupId") final String groupId,
+      @JsonProperty("resource") final TaskResource taskResource,
+      @JsonProperty("supervisorTaskId") final String supervisorTaskId,
+      @JsonProperty("numAttempts") final int numAttempts, // zero-based counting
+      @JsonProperty("spec") final PartialSegmentMergeIngestionSpec ingestionSchema,
+      @JsonProperty("context") final Map<String, Object> context,
+      @JacksonInject IndexingServiceClient indexingServiceClient,
+      @JacksonInject IndexTaskClientFactory<ParallelIndexTaskClient> taskClientFactory
+  )
+  {
+    super(
+        getOrMakeId(id, TYPE, ingestionSchema.getDataSchema().getDataSource()),
+        groupId,
+        taskResource,
+        ingestionSchema.getDataSchema().getDataSource(),
+        context
+    );
+
+    Preconditions.checkArgument(
+        ingestionSchema.getTuningConfig().getNumShards() != null,
+        "numShards must be set"
+    );
+
+    this.ingestionSchema = ingestionSchema;
+    this.supervisorTaskId = supervisorTaskId;
+    this.numAttempts = numAttempts;
+    this.indexingServiceClient = indexingServiceClient;
+    this.taskClientFactory = taskClientFactory;
+  }
+
+  @JsonProperty
+  public int getNumAttempts()
+  {
+    return numAttempts;
+  }
+
+  @JsonProperty("spec")
+  public PartialSegmentMergeIngestionSpec getIngestionSchema()
+  {
+    return ingestionSchema;
+  }
+
+  @JsonProperty
+  public String getSupervisorTaskId()
+  {
+    return supervisorTaskId;
+  }
+
+  @Override
+  public int getPriority()
+  {
+    return getContextValue(Tasks.PRIORITY_KEY, Tasks.DEFAULT_BATCH_INDEX_TASK_PRIORITY);
+  }
+
+  @Override
+  public String getType()
+  {
+    return TYPE;
+  }
+
+  @Override
+  public boolean isReady(TaskActionClient taskActionClient)
+  {
+    final SortedSet<Interval> intervals = new TreeSet<>(Comparators.intervalsByStartThenEnd());
+    for (PartitionLocation location : ingestionSchema.getIOConfig().getPartitionLocations()) {
+      intervals.add(location.getInterval());
+    }
+    try {
+      for (Interval interval : Tasks.computeCompactIntervals(intervals)) {
+        Preconditions.checkNotNull(
+            taskActionClient.submit(
+                new SurrogateAction<>(supervisorTaskId, new LockTryAcquireAction(TaskLockType.EXCLUSIVE, interval))
+            ),
+            "Cannot acquire a lock for interval[%s]", interval
+        );
+      }
+      return true;
+    }
+    catch (Exception e) {
+      log.error(e, "Failed to acquire locks for intervals[%s]", intervals);
+      return false;
+    }
+  }
+
+  @Override
+  public TaskStatus run(TaskToolbox toolbox) throws Exception
+  {
+    // Group partitionLocations by interval and partitionId
+    final SortedMap<Pair<Interval, Integer>, List<PartitionLocation>> partitionToLocations = new TreeMap<>(
+        (p1, p2) -> {
+          final int intervalComp = Comparators.intervalsByStartThenEnd().compare(p1.lhs, p2.lhs);
+          return intervalComp != 0 ? intervalComp : Integer.compare(p1.rhs, p2.rhs);
+        }
+    );
+    for (PartitionLocation location : ingestionSchema.getIOConfig().getPartitionLocations()) {
+      partitionToLocations.computeIfAbsent(
+          Pair.of(location.getInterval(), location.getPartitionId()),
+          k -> new ArrayList<>()
+      ).add(location);
+    }
+
+    final Map<Interval, String> versions = ParallelIndexSupervisorTask.findVersions(
+        toolbox.getTaskActionClient(),
+        supervisorTaskId
+    );
+
+    final ParallelIndexTaskClient taskClient = taskClientFactory.build(
+        new ClientBasedTaskInfoProvider(indexingServiceClient),
+        getId(),
+        1, // always use a single http thread
+        ingestionSchema.getTuningConfig().getChatHandlerTimeout(),
+        ingestionSchema.getTuningConfig().getChatHandlerNumRetries()
+    );
+
+    final File mergeDir = toolbox.getMergeDir();
+    FileUtils.forceMkdir(mergeDir);
+
+    final List<DataSegment> pushedSegments = new ArrayList<>(partitionToLocations.size());
+    int partitionIndex = 0;
+    for (Map.Entry<Pair<Interval, Integer>, List<PartitionLocation>> entry : partitionToLocations.entrySet()) {
+      final Interval interval = entry.getKey().lhs;
+      final int partitionId = entry.getKey().rhs;
+      final String version = ParallelIndexSupervisorTask.findVersion(versions, interval);
+      if (version == null) {
+        throw new ISE("Cannot find a version for interval[%s]", interval);
+      }
+
+      final File partitionDir = new File(mergeDir, String.valueOf(partitionIndex++));
+      try {
+        final List<File> fetchedFiles = fetchSegmentFiles(taskClient, partitionDir, entry.getValue());
+        pushedSegments.add(mergeAndPush(toolbox, interval, version, partitionId, fetchedFiles, partitionDir));
+      }
+      finally {
+        FileUtils.deleteQuietly(partitionDir);
+      }
+    }
+
+    taskClient.report(supervisorTaskId, new PushedSegmentsReport(getId(), pushedSegments));
+
+    return TaskStatus.success(getId());
+  }
+
+  private List<File> fetchSegmentFiles(
+      ParallelIndexTaskClient taskClient,
+      File partitionDir,
+      List<PartitionLocation> locations
+  ) throws IOException
+  {
+    FileUtils.forceMkdir(partitionDir);
+    final Stopwatch fetchStopwatch = Stopwatch.createStarted();
+    final List<File> segmentDirs = new ArrayList<>(locations.size());
+    for (int i = 0; i < locations.size(); i++) {
+      final PartitionLocation location = locations.get(i);
+      final File zippedFile = taskClient.fetchPartition(
+          supervisorTaskId,
+          location,
+          new File(partitionDir, StringUtils.format("%d.zip", i))
+      );
+      final File unzippedDir = new File(partitionDir, String.valueOf(i));
+      FileUtils.forceMkdir(unzippedDir);
+      CompressionUtils.unzip(zippedFile, unzippedDir);
+      FileUtils.deleteQuietly(zippedFile);
+      segmentDirs.add(unzippedDir);
+    }
+    log.info(
+        "Fetched [%d] partial segments in [%,d]ms",
+        locations.size(),
+        fetchStopwatch.elapsed(TimeUnit.MILLISECONDS)
+    );
+    return segmentDirs;
+  }
+
+  private DataSegment mergeAndPush(
+      TaskToolbox toolbox,
+      Interval interval,
+      String version,
+      int partitionId,
+      List<File> segmentDirs,
+      File partitionDir
+  ) throws IOException
+  {
+    final DataSchema dataSchema = ingestionSchema.getDataSchema();
+    final ParallelIndexTuningConfig tuningConfig = ingestionSchema.getTuningConfig();
+    final IndexIO indexIO = toolbox.getIndexIO();
+    final IndexMergerV9 indexMerger = toolbox.getIndexMergerV9();
+
+    final List<QueryableIndex> indexes = new ArrayList<>(segmentDirs.size());
+    final File mergedFile;
+    final List<String> dimensions;
+    final Stopwatch mergeStopwatch = Stopwatch.createStarted();
+    final Closer closer = Closer.create();
+    try {
+      for (File segmentDir : segmentDirs) {
+        indexes.add(closer.register(indexIO.loadIndex(segmentDir)));
+      }
+      mergedFile = indexMerger.mergeQueryableIndex(
+          indexes,
+          dataSchema.getGranularitySpec().isRollup(),
+          dataSchema.getAggregators(),
+          new File(partitionDir, "merged"),
+          tuningConfig.getIndexSpec(),
+          new BaseProgressIndicator(),
+          tuningConfig.getSegmentWriteOutMediumFactory(),
+          tuningConfig.getMaxColumnsToMerge()
+      );
+      dimensions = IndexMerger.getMergedDimensionsFromQueryableIndexes(indexes);
+    }
+    catch (Throwable t) {
+      throw closer.rethrow(t);
+    }
+    finally {
+      closer.close();
+    }
+    log.info(
+        "Merged [%d] partial segments of interval[%s] and partitionId[%d] in [%,d]ms",
+        indexes.size(),
+        interval,
+        partitionId,
+        mergeStopwatch.elapsed(TimeUnit.MILLISECONDS)
+    );
+
+    final DataSegment segment = toolbox.getSegmentPusher().push(
+        mergedFile,
+        new DataSegment(
+            getDataSource(),
+            interval,
+            version,
+            null, // will be filled by the segmentPusher
+            dimensions,
+            Arrays.stream(dataSchema.getAggregators())
+                  .map(AggregatorFactory::getName)
+                  .collect(Collectors.toList()),
+            new HashBasedNumberedShardSpec(
+                partitionId,
+                Preconditions.checkNotNull(tuningConfig.getNumShards(), "numShards"),
+                tuningConfig.getPartitionDimensions(),
+                toolbox.getObjectMapper()
+            ),
+            IndexIO.CURRENT_VERSION_ID,
+            0 // will be filled by the segmentPusher
+        ),
+        false
+    );
+    log.info("Pushed segment[%s]", segment.getId());
+    return segment;
+  }
+}
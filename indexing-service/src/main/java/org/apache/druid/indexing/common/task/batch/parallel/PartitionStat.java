@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.task.batch.parallel;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.joda.time.Interval;
+
+import java.util.Objects;
+
+/**
+ * Statistics about a partition created by {@link PartialSegmentGenerateTask}. Each partition is a partial segment
+ * stored in the local disk of the middleManager which ran the task, and is identified by its interval and partitionId.
+ */
+public class PartitionStat
+{
+  // Host and port of the middleManager serving this partition
+  private final String taskExecutorHost;
+  private final int taskExecutorPort;
+  private final boolean useHttps;
+
+  private final Interval interval;
+  private final int partitionId;
+  private final long sizeBytes;
+
+  @JsonCreator
+  public PartitionStat(
+      @JsonProperty("taskExecutorHost") String taskExecutorHost,
+      @JsonProperty("taskExecutorPort") int taskExecutorPort,
+      @JsonProperty("useHttps") boolean useHttps,
+      @JsonProperty("interval") Interval interval,
+      @JsonProperty("partitionId") int partitionId,
+      @JsonProperty("sizeBytes") long sizeBytes
+  )
+  {
+    this.taskExecutorHost = taskExecutorHost;
+    this.taskExecutorPort = taskExecutorPort;
+    this.useHttps = useHttps;
+    this.interval = interval;
+    this.partitionId = partitionId;
+    this.sizeBytes = sizeBytes;
+  }
+
+  @JsonProperty
+  public String getTaskExecutorHost()
+  {
+    return taskExecutorHost;
+  }
+
+  @JsonProperty
+  public int getTaskExecutorPort()
+  {
+    return taskExecutorPort;
+  }
+
+  @JsonProperty
+  public boolean isUseHttps()
+  {
+    return useHttps;
+  }
+
+  @JsonProperty
+  public Interval getInterval()
+  {
+    return interval;
+  }
+
+  @JsonProperty
+  public int getPartitionId()
+  {
+    return partitionId;
+  }
+
+  @JsonProperty
+  public long getSizeBytes()
+  {
+    return sizeBytes;
+  }
+
+  PartitionLocation toPartitionLocation(String subTaskId)
+  {
+    return new PartitionLocation(taskExecutorHost, taskExecutorPort, useHttps, subTaskId, interval, partitionId);
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PartitionStat that = (PartitionStat) o;
+    return taskExecutorPort == that.taskExecutorPort &&
+           useHttps == that.useHttps &&
+           partitionId == that.partitionId &&
+           sizeBytes == that.sizeBytes &&
+           Objects.equals(taskExecutorHost, that.taskExecutorHost) &&
+           Objects.equals(interval, that.interval);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(taskExecutorHost, taskExecutorPort, useHttps, interval, partitionId, sizeBytes);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "PartitionStat{" +
+           "taskExecutorHost='" + taskExecutorHost + '\'' +
+           ", taskExecutorPort=" + taskExecutorPort +
+           ", useHttps=" + useHttps +
+           ", interval=" + interval +
+           ", partitionId=" + partitionId +
+           ", sizeBytes=" + sizeBytes +
+           '}';
+  }
+}
@@ -25,14 +25,18 @@ import com.google.common.base.Preconditions;
 import org.apache.druid.timeline.DataSegment;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
- * This class is used in native parallel batch indexing, currently only in {@link SinglePhaseParallelIndexTaskRunner}.
- * In native parallel batch indexing, each subTask generates and pushes segments and sends a report to the
- * supervisorTask. Once the supervisorTask collects all reports, it publishes all the pushed segments at once.
+ * This class is used in native parallel batch indexing, by {@link SinglePhaseParallelIndexTaskRunner} and
+ * {@link PartialSegmentMergeParallelIndexTaskRunner}. In native parallel batch indexing, each subTask generates and
+ * pushes segments and sends a report to the supervisorTask. Once the supervisorTask collects all reports, it publishes
+ * all the pushed segments at once.
  */
-public class PushedSegmentsReport
+public class PushedSegmentsReport implements SubTaskReport
 {
+  public static final String TYPE = "pushed_segments";
+
   private final String taskId;
   private final List<DataSegment> segments;
 
@@ -46,6 +50,7 @@ public class PushedSegmentsReport
     this.segments = Preconditions.checkNotNull(segments, "segments");
   }
 
+  @Override
   @JsonProperty
   public String getTaskId()
   {
@@ -57,4 +62,33 @@ public class PushedSegmentsReport
   {
     return segments;
   }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PushedSegmentsReport that = (PushedSegmentsReport) o;
+    return Objects.equals(taskId, that.taskId) &&
+           Objects.equals(segments, that.segments);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(taskId, segments);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "PushedSegmentsReport{" +
+           "taskId='" + taskId + '\'' +
+           ", segments=" + segments +
+           '}';
+  }
 }
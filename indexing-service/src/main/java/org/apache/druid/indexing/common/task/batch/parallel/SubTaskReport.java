@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.task.batch.parallel;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonSubTypes.Type;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * Each sub task of {@link ParallelIndexSupervisorTask} sends a report to the supervisorTask once it's done. The
+ * supervisorTask collects the reports of a phase before starting the next phase or publishing segments.
+ *
+ * {@link PushedSegmentsReport} is the default type for backward compatibility with the sub tasks of older versions
+ * which send their reports without the type.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type", defaultImpl = PushedSegmentsReport.class)
+@JsonSubTypes(value = {
+    @Type(name = PushedSegmentsReport.TYPE, value = PushedSegmentsReport.class),
+    @Type(name = GeneratedPartitionsReport.TYPE, value = GeneratedPartitionsReport.class)
+})
+public interface SubTaskReport
+{
+  String getTaskId();
+}
@@ -378,6 +378,23 @@ public class ForkingTaskRunner implements TaskRunner, TaskLogStreamer
                         command.add(StringUtils.format("-Ddruid.host=%s", childHost));
                         command.add(StringUtils.format("-Ddruid.plaintextPort=%d", childPort));
                         command.add(StringUtils.format("-Ddruid.tlsPort=%d", tlsChildPort));
+
+                        // Let tasks know how to reach this middleManager, e.g., to serve intermediary data
+                        command.add(StringUtils.format("-Ddruid.task.executor.service=%s", node.getServiceName()));
+                        command.add(StringUtils.format("-Ddruid.task.executor.host=%s", node.getHost()));
+                        command.add(
+                            StringUtils.format("-Ddruid.task.executor.plaintextPort=%d", node.getPlaintextPort())
+                        );
+                        command.add(
+                            StringUtils.format(
+                                "-Ddruid.task.executor.enablePlaintextPort=%s",
+                                node.isEnablePlaintextPort()
+                            )
+                        );
+                        command.add(StringUtils.format("-Ddruid.task.executor.tlsPort=%d", node.getTlsPort()));
+                        command.add(
+                            StringUtils.format("-Ddruid.task.executor.enableTlsPort=%s", node.isEnableTlsPort())
+                        );
                         /**
                          * These are not enabled per default to allow the user to either set or not set them
                          * Users are highly suggested to be set in druid.indexer.runner.javaOpts
@@ -210,6 +210,32 @@ public class SupervisorManager
     return true;
   }
 
+  /**
+   * Persists a new version of the spec of a running supervisor without restarting it. Used by supervisors which change
+   * their own spec, like when the taskCount of a stream supervisor is changed by autoscaling. Takes [lock] like the
+   * other methods changing the stored specs, so it must not be called from a thread which stopping the supervisor waits
+   * for.
+   *
+   * @return true if the spec was persisted, false if the spec isn't the one of a running supervisor
+   */
+  public boolean persistSupervisorSpec(SupervisorSpec spec)
+  {
+    Preconditions.checkState(started, "SupervisorManager not started");
+    Preconditions.checkNotNull(spec, "spec");
+
+    synchronized (lock) {
+      Preconditions.checkState(started, "SupervisorManager not started");
+      Pair<Supervisor, SupervisorSpec> supervisor = supervisors.get(spec.getId());
+
+      if (supervisor == null || supervisor.rhs != spec) {
+        return false;
+      }
+
+      metadataSupervisorManager.insert(spec.getId(), spec);
+      return true;
+    }
+  }
+
   public boolean checkPointDataSourceMetadata(
       String supervisorId,
       @Nullable Integer taskGroupId,
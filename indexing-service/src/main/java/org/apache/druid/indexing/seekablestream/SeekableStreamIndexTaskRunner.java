@@ -63,7 +63,6 @@ import org.apache.druid.indexing.seekablestream.supervisor.SeekableStreamSupervi
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.StringUtils;
-import org.apache.druid.java.util.common.collect.Utils;
 import org.apache.druid.java.util.common.parsers.ParseException;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.segment.indexing.RealtimeIOConfig;
@@ -103,6 +102,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -375,7 +375,13 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
     );
 
     Throwable caughtExceptionOuter = null;
-    try (final RecordSupplier<PartitionIdType, SequenceOffsetType> recordSupplier = task.newTaskRecordSupplier()) {
+    try (
+        final RecordSupplier<PartitionIdType, SequenceOffsetType> recordSupplier = task.newTaskRecordSupplier();
+        final SeekableStreamRecordParser recordParser = new SeekableStreamRecordParser(
+            parser,
+            tuningConfig.getNumParseThreads()
+        )
+    ) {
       toolbox.getDataSegmentServerAnnouncer().announce();
       toolbox.getDruidNodeAnnouncer().announce(discoveryDruidNode);
 
@@ -538,8 +544,12 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
           // note: getRecords() also updates assignment
           stillReading = !assignment.isEmpty();
 
+          final SeekableStreamRecordParser.ParsedRecords parsedRecords = recordParser.parse(records);
+          allocateSegments(records, parsedRecords);
+
           SequenceMetadata<PartitionIdType, SequenceOffsetType> sequenceToCheckpoint = null;
-          for (OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType> record : records) {
+          for (int recordIndex = 0; recordIndex < records.size(); recordIndex++) {
+            final OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType> record = records.get(recordIndex);
             final boolean shouldProcess = verifyRecordInRange(record.getPartitionId(), record.getSequenceNumber());
 
             log.trace(
@@ -552,16 +562,7 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
 
             if (shouldProcess) {
               try {
-                final List<byte[]> valueBytess = record.getData();
-                final List<InputRow> rows;
-                if (valueBytess == null || valueBytess.isEmpty()) {
-                  rows = Utils.nullableListOf((InputRow) null);
-                } else {
-                  rows = new ArrayList<>();
-                  for (byte[] valueBytes : valueBytess) {
-                    rows.addAll(parser.parseBatch(ByteBuffer.wrap(valueBytes)));
-                  }
-                }
+                final List<InputRow> rows = parsedRecords.getRows(recordIndex);
                 boolean isPersistRequired = false;
 
                 final SequenceMetadata<PartitionIdType, SequenceOffsetType> sequenceToUse = sequences
@@ -1770,6 +1771,45 @@ public abstract class SeekableStreamIndexTaskRunner<PartitionIdType, SequenceOff
     return isMoreToReadBeforeReadingRecord(recordSequenceNumber.get(), endOffsets.get(partition));
   }
 
+  /**
+   * Allocates the new segments needed by the rows of the given records in one action per sequence, before the rows
+   * are added one by one. Only the rows which the caller will add are considered, so that no pending segment is
+   * allocated for a sequence and interval which never gets a row. Parse exceptions are left to the caller.
+   */
+  private void allocateSegments(
+      final List<OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType>> records,
+      final SeekableStreamRecordParser.ParsedRecords parsedRecords
+  ) throws IOException, InterruptedException
+  {
+    final Map<String, List<InputRow>> sequenceToRows = new LinkedHashMap<>();
+    for (int recordIndex = 0; recordIndex < records.size(); recordIndex++) {
+      final OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType> record = records.get(recordIndex);
+      final SequenceMetadata<PartitionIdType, SequenceOffsetType> sequenceToUse = sequences
+          .stream()
+          .filter(sequenceMetadata -> sequenceMetadata.canHandle(this, record))
+          .findFirst()
+          .orElse(null);
+      if (sequenceToUse == null || !verifyRecordInRange(record.getPartitionId(), record.getSequenceNumber())) {
+        continue;
+      }
+
+      try {
+        for (InputRow row : parsedRecords.getRows(recordIndex)) {
+          if (row != null && task.withinMinMaxRecordTime(row)) {
+            sequenceToRows.computeIfAbsent(sequenceToUse.getSequenceName(), k -> new ArrayList<>()).add(row);
+          }
+        }
+      }
+      catch (ParseException e) {
+        // Handled when the rows are added.
+      }
+    }
+
+    for (Map.Entry<String, List<InputRow>> entry : sequenceToRows.entrySet()) {
+      driver.allocateSegments(entry.getValue(), entry.getKey(), true);
+    }
+  }
+
   /**
    * checks if the input seqNum marks end of shard. Used by Kinesis only
    */
@@ -20,6 +20,8 @@
 package org.apache.druid.indexing.seekablestream;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import org.apache.druid.segment.IndexMerger;
 import org.apache.druid.segment.IndexSpec;
 import org.apache.druid.segment.indexing.RealtimeTuningConfig;
 import org.apache.druid.segment.indexing.TuningConfig;
@@ -36,6 +38,10 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
   private static final int DEFAULT_MAX_ROWS_PER_SEGMENT = 5_000_000;
   private static final boolean DEFAULT_RESET_OFFSET_AUTOMATICALLY = false;
   private static final boolean DEFAULT_SKIP_SEQUENCE_NUMBER_AVAILABILITY_CHECK = false;
+  private static final int DEFAULT_NUM_PARSE_THREADS = 1;
+  private static final int DEFAULT_NUM_PERSIST_THREADS = 1;
+  private static final int DEFAULT_NUM_MERGE_THREADS = 1;
+  private static final int DEFAULT_MAX_COLUMNS_TO_MERGE = IndexMerger.UNLIMITED_MAX_COLUMNS_TO_MERGE;
 
   private final int maxRowsInMemory;
   private final long maxBytesInMemory;
@@ -58,6 +64,11 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
   private final boolean logParseExceptions;
   private final int maxParseExceptions;
   private final int maxSavedParseExceptions;
+  private final int numParseThreads;
+  private final int numPersistThreads;
+  private final int numMergeThreads;
+  private final int maxColumnsToMerge;
+  private final boolean offheapIncrementalIndex;
 
   public SeekableStreamIndexTaskTuningConfig(
       @Nullable Integer maxRowsInMemory,
@@ -78,7 +89,12 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
       @Nullable Period intermediateHandoffPeriod,
       @Nullable Boolean logParseExceptions,
       @Nullable Integer maxParseExceptions,
-      @Nullable Integer maxSavedParseExceptions
+      @Nullable Integer maxSavedParseExceptions,
+      @Nullable Integer numParseThreads,
+      @Nullable Integer numPersistThreads,
+      @Nullable Integer numMergeThreads,
+      @Nullable Integer maxColumnsToMerge,
+      @Nullable Boolean offheapIncrementalIndex
   )
   {
     // Cannot be a static because default basePersistDirectory is unique per-instance
@@ -127,6 +143,19 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
     this.logParseExceptions = logParseExceptions == null
                               ? TuningConfig.DEFAULT_LOG_PARSE_EXCEPTIONS
                               : logParseExceptions;
+    this.numParseThreads = numParseThreads == null ? DEFAULT_NUM_PARSE_THREADS : numParseThreads;
+    Preconditions.checkArgument(this.numParseThreads > 0, "numParseThreads must be positive");
+    this.numPersistThreads = numPersistThreads == null ? DEFAULT_NUM_PERSIST_THREADS : numPersistThreads;
+    Preconditions.checkArgument(this.numPersistThreads > 0, "numPersistThreads must be positive");
+    this.numMergeThreads = numMergeThreads == null ? DEFAULT_NUM_MERGE_THREADS : numMergeThreads;
+    Preconditions.checkArgument(this.numMergeThreads > 0, "numMergeThreads must be positive");
+    this.maxColumnsToMerge = maxColumnsToMerge == null ? DEFAULT_MAX_COLUMNS_TO_MERGE : maxColumnsToMerge;
+    Preconditions.checkArgument(
+        this.maxColumnsToMerge == IndexMerger.UNLIMITED_MAX_COLUMNS_TO_MERGE || this.maxColumnsToMerge > 0,
+        "maxColumnsToMerge must be positive or %s",
+        IndexMerger.UNLIMITED_MAX_COLUMNS_TO_MERGE
+    );
+    this.offheapIncrementalIndex = offheapIncrementalIndex != null && offheapIncrementalIndex;
   }
 
   @Override
@@ -254,6 +283,45 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
     return skipSequenceNumberAvailabilityCheck;
   }
 
+  /**
+   * Number of threads parsing the polled records in {@link SeekableStreamIndexTaskRunner}. With more than one thread,
+   * records are parsed concurrently with the indexing of the previously parsed records, but are still indexed in the
+   * order they were read.
+   */
+  @JsonProperty
+  public int getNumParseThreads()
+  {
+    return numParseThreads;
+  }
+
+  @Override
+  @JsonProperty
+  public int getNumPersistThreads()
+  {
+    return numPersistThreads;
+  }
+
+  @Override
+  @JsonProperty
+  public int getNumMergeThreads()
+  {
+    return numMergeThreads;
+  }
+
+  @Override
+  @JsonProperty
+  public int getMaxColumnsToMerge()
+  {
+    return maxColumnsToMerge;
+  }
+
+  @Override
+  @JsonProperty
+  public boolean isOffheapIncrementalIndex()
+  {
+    return offheapIncrementalIndex;
+  }
+
   public abstract SeekableStreamIndexTaskTuningConfig withBasePersistDirectory(File dir);
 
   @Override
@@ -277,6 +345,11 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
            logParseExceptions == that.logParseExceptions &&
            maxParseExceptions == that.maxParseExceptions &&
            maxSavedParseExceptions == that.maxSavedParseExceptions &&
+           numParseThreads == that.numParseThreads &&
+           numPersistThreads == that.numPersistThreads &&
+           numMergeThreads == that.numMergeThreads &&
+           maxColumnsToMerge == that.maxColumnsToMerge &&
+           offheapIncrementalIndex == that.offheapIncrementalIndex &&
            Objects.equals(maxTotalRows, that.maxTotalRows) &&
            Objects.equals(intermediatePersistPeriod, that.intermediatePersistPeriod) &&
            Objects.equals(basePersistDirectory, that.basePersistDirectory) &&
@@ -305,7 +378,12 @@ public abstract class SeekableStreamIndexTaskTuningConfig implements TuningConfi
         skipSequenceNumberAvailabilityCheck,
         logParseExceptions,
         maxParseExceptions,
-        maxSavedParseExceptions
+        maxSavedParseExceptions,
+        numParseThreads,
+        numPersistThreads,
+        numMergeThreads,
+        maxColumnsToMerge,
+        offheapIncrementalIndex
     );
   }
 
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.seekablestream;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.impl.InputRowParser;
+import org.apache.druid.indexing.seekablestream.common.OrderedPartitionableRecord;
+import org.apache.druid.java.util.common.collect.Utils;
+import org.apache.druid.java.util.common.concurrent.Execs;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Parses the data of {@link OrderedPartitionableRecord}s into {@link InputRow}s for {@link
+ * SeekableStreamIndexTaskRunner}.
+ *
+ * With a single parse thread (the default), records are parsed lazily in the task runner thread. With more threads, see
+ * {@link SeekableStreamIndexTaskTuningConfig#getNumParseThreads()}, all records returned by a poll are submitted to a
+ * pool of parse threads at once, and the task runner thread indexes the rows of each record as soon as they are
+ * parsed, while the records after it are still being parsed. Rows are always returned in the order of the polled
+ * records, so offsets and checkpoints advance exactly as with a single thread.
+ */
+class SeekableStreamRecordParser implements Closeable
+{
+  private final InputRowParser<ByteBuffer> parser;
+  @Nullable
+  private final ExecutorService parseExec;
+  @Nullable
+  private final ThreadLocal<InputRowParser<ByteBuffer>> threadLocalParsers;
+
+  @SuppressWarnings("unchecked")
+  SeekableStreamRecordParser(InputRowParser<ByteBuffer> parser, int numParseThreads)
+  {
+    this.parser = parser;
+    if (numParseThreads > 1) {
+      this.parseExec = Execs.multiThreaded(numParseThreads, "SeekableStreamIndexTaskRunner-parse-%d");
+      // InputRowParsers are not thread-safe (e.g. StringInputRowParser reuses its decoding buffer), so each parse
+      // thread gets its own copy.
+      this.threadLocalParsers = ThreadLocal.withInitial(
+          () -> (InputRowParser<ByteBuffer>) parser.withParseSpec(parser.getParseSpec())
+      );
+    } else {
+      this.parseExec = null;
+      this.threadLocalParsers = null;
+    }
+  }
+
+  /**
+   * Starts parsing the given records on the parse threads, if there are any.
+   */
+  <PartitionIdType, SequenceOffsetType> ParsedRecords parse(
+      List<OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType>> records
+  )
+  {
+    if (parseExec == null) {
+      final List<Supplier<List<InputRow>>> parsed = new ArrayList<>(records.size());
+      for (OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType> record : records) {
+        parsed.add(Suppliers.memoize(() -> parseRecord(parser, record)));
+      }
+      return index -> parsed.get(index).get();
+    }
+    final List<Future<List<InputRow>>> futures = new ArrayList<>(records.size());
+    for (OrderedPartitionableRecord<PartitionIdType, SequenceOffsetType> record : records) {
+      futures.add(parseExec.submit(() -> parseRecord(threadLocalParsers.get(), record)));
+    }
+    return index -> {
+      try {
+        return futures.get(index).get();
+      }
+      catch (ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause());
+        throw new RuntimeException(e.getCause());
+      }
+    };
+  }
+
+  /**
+   * Returns a list with a single null row for records without data, which the task runner counts as thrown away.
+   */
+  private static List<InputRow> parseRecord(
+      InputRowParser<ByteBuffer> parser,
+      OrderedPartitionableRecord<?, ?> record
+  )
+  {
+    final List<byte[]> valueBytess = record.getData();
+    if (valueBytess == null || valueBytess.isEmpty()) {
+      return Utils.nullableListOf((InputRow) null);
+    }
+    final List<InputRow> rows = new ArrayList<>();
+    for (byte[] valueBytes : valueBytess) {
+      rows.addAll(parser.parseBatch(ByteBuffer.wrap(valueBytes)));
+    }
+    return rows;
+  }
+
+  @Override
+  public void close()
+  {
+    if (parseExec != null) {
+      parseExec.shutdownNow();
+    }
+  }
+
+  interface ParsedRecords
+  {
+    /**
+     * Returns the rows of the record with the given index in the list passed to {@link #parse}, waiting for its parsing
+     * to complete if needed. A record is parsed only once however many times its rows are requested, unless its
+     * parsing fails.
+     *
+     * @throws org.apache.druid.java.util.common.parsers.ParseException if the record could not be parsed
+     */
+    List<InputRow> getRows(int index) throws InterruptedException;
+  }
+}
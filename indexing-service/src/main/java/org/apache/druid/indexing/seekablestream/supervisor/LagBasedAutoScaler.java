@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.seekablestream.supervisor;
+
+import com.google.common.base.Preconditions;
+import org.apache.druid.java.util.common.logger.Logger;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * Decides the number of task groups of a {@link SeekableStreamSupervisor} from the trend of the total lag of its
+ * stream. The supervisor samples the lag every {@link LagBasedAutoScalerConfig#getLagCollectionIntervalMillis()} and
+ * asks for a decision every {@link LagBasedAutoScalerConfig#getScaleActionPeriodMillis()}. A decision is made only
+ * once samples covering {@link LagBasedAutoScalerConfig#getLagCollectionRangeMillis()} are available:
+ *
+ * <ul>
+ * <li>If enough samples are above the scale out threshold, at least {@link LagBasedAutoScalerConfig#getScaleOutStep()}
+ * tasks are added. If the lag is measured in records and keeps growing, the ingestion rate reported by the running
+ * tasks is used to estimate how many tasks are needed to stop the growth, and that many are added if it's more. A lag
+ * measured in time can't be compared with ingestion rates, so only the step is applied then.</li>
+ * <li>If enough samples are below the scale in threshold, {@link LagBasedAutoScalerConfig#getScaleInStep()} tasks are
+ * removed.</li>
+ * </ul>
+ *
+ * The defaults of the thresholds depend on the {@link LagUnit} of the supervisor. The result is always between
+ * {@link LagBasedAutoScalerConfig#getTaskCountMin()} and {@link LagBasedAutoScalerConfig#getTaskCountMax()}, and scale
+ * outs never go beyond the number of partitions. This class is thread-safe.
+ */
+public class LagBasedAutoScaler
+{
+  private static final Logger log = new Logger(LagBasedAutoScaler.class);
+
+  /**
+   * The unit of the total lag of a supervisor, see {@link SeekableStreamSupervisor#getTotalLagUnit()}.
+   */
+  public enum LagUnit
+  {
+    /**
+     * Number of records, like Kafka offsets.
+     */
+    RECORDS,
+    /**
+     * Milliseconds behind the latest record, like the lag reported by Kinesis.
+     */
+    MILLIS
+  }
+
+  private final LagBasedAutoScalerConfig config;
+  private final LagUnit lagUnit;
+  private final long scaleOutThreshold;
+  private final long scaleInThreshold;
+  private final int maxNumSamples;
+  private final ArrayDeque<Long> lagSamples;
+
+  public LagBasedAutoScaler(LagBasedAutoScalerConfig config, LagUnit lagUnit)
+  {
+    this.config = config;
+    this.lagUnit = lagUnit;
+    this.scaleOutThreshold = config.getScaleOutThreshold(lagUnit);
+    this.scaleInThreshold = config.getScaleInThreshold(lagUnit);
+    Preconditions.checkArgument(
+        scaleInThreshold <= scaleOutThreshold,
+        "scaleInThreshold[%s] must not be larger than scaleOutThreshold[%s]",
+        scaleInThreshold,
+        scaleOutThreshold
+    );
+    this.maxNumSamples = (int) (config.getLagCollectionRangeMillis() / config.getLagCollectionIntervalMillis());
+    this.lagSamples = new ArrayDeque<>(maxNumSamples);
+  }
+
+  public LagBasedAutoScalerConfig getConfig()
+  {
+    return config;
+  }
+
+  public synchronized void addLagSample(long totalLag)
+  {
+    if (lagSamples.size() == maxNumSamples) {
+      lagSamples.removeFirst();
+    }
+    lagSamples.addLast(totalLag);
+  }
+
+  /**
+   * Forgets the collected samples. Called after the task count has changed since the lag trend before the change
+   * says nothing about the new task count.
+   */
+  public synchronized void clearLagSamples()
+  {
+    lagSamples.clear();
+  }
+
+  /**
+   * @param currentTaskCount      the current number of task groups
+   * @param numPartitions         the number of partitions of the stream, or 0 if unknown
+   * @param ingestionRateSupplier the total number of rows per second ingested by the running task groups, or null if
+   *                              unknown. Called only when scaling out, and only if the lag is in {@link
+   *                              LagUnit#RECORDS}.
+   *
+   * @return the desired number of task groups, which is currentTaskCount if no action is needed
+   */
+  public synchronized int computeDesiredTaskCount(
+      int currentTaskCount,
+      int numPartitions,
+      Supplier<Double> ingestionRateSupplier
+  )
+  {
+    if (lagSamples.size() < maxNumSamples) {
+      log.debug("Collected [%d] out of [%d] lag samples, skipping scale decision", lagSamples.size(), maxNumSamples);
+      return currentTaskCount;
+    }
+
+    int numSamplesAboveScaleOut = 0;
+    int numSamplesBelowScaleIn = 0;
+    for (long lag : lagSamples) {
+      if (lag > scaleOutThreshold) {
+        numSamplesAboveScaleOut++;
+      } else if (lag < scaleInThreshold) {
+        numSamplesBelowScaleIn++;
+      }
+    }
+
+    final int maxTaskCount = numPartitions > 0
+                             ? Math.max(config.getTaskCountMin(), Math.min(config.getTaskCountMax(), numPartitions))
+                             : config.getTaskCountMax();
+
+    if (numSamplesAboveScaleOut >= config.getTriggerScaleOutFractionThreshold() * lagSamples.size()) {
+      int desiredTaskCount = currentTaskCount + config.getScaleOutStep();
+      // Ingestion rates are in rows per second, so they can't be compared with the growth of a lag measured in time.
+      final double lagGrowthPerSecond = lagUnit == LagUnit.RECORDS ? computeLagGrowthPerSecond() : 0;
+      if (lagGrowthPerSecond > 0) {
+        final Double ingestionRate = ingestionRateSupplier.get();
+        if (ingestionRate != null && ingestionRate > 0) {
+          // Each task group is assumed to ingest at the current average rate after rebalancing.
+          final int estimatedTaskCount = (int) Math.ceil(
+              currentTaskCount * (ingestionRate + lagGrowthPerSecond) / ingestionRate
+          );
+          desiredTaskCount = Math.max(desiredTaskCount, estimatedTaskCount);
+        }
+      }
+      return Math.max(currentTaskCount, Math.min(desiredTaskCount, maxTaskCount));
+    } else if (numSamplesBelowScaleIn >= config.getTriggerScaleInFractionThreshold() * lagSamples.size()) {
+      return Math.min(currentTaskCount, Math.max(currentTaskCount - config.getScaleInStep(), config.getTaskCountMin()));
+    } else {
+      return currentTaskCount;
+    }
+  }
+
+  private double computeLagGrowthPerSecond()
+  {
+    if (lagSamples.size() < 2) {
+      return 0;
+    }
+    final double rangeSeconds = (lagSamples.size() - 1) * config.getLagCollectionIntervalMillis() / 1000.0;
+    return (lagSamples.getLast() - lagSamples.getFirst()) / rangeSeconds;
+  }
+}
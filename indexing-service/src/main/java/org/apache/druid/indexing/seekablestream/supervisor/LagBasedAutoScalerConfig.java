@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.seekablestream.supervisor;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Configuration of the {@link LagBasedAutoScaler}, which adjusts the taskCount of a supervisor between
+ * {@link #getTaskCountMin()} and {@link #getTaskCountMax()} depending on the total lag of the stream.
+ */
+public class LagBasedAutoScalerConfig
+{
+  private static final long DEFAULT_LAG_COLLECTION_INTERVAL_MILLIS = 30_000;
+  private static final long DEFAULT_LAG_COLLECTION_RANGE_MILLIS = 600_000;
+  private static final long DEFAULT_SCALE_OUT_THRESHOLD = 6_000_000;
+  private static final long DEFAULT_SCALE_IN_THRESHOLD = 1_000_000;
+  private static final long DEFAULT_SCALE_OUT_THRESHOLD_MILLIS = 600_000;
+  private static final long DEFAULT_SCALE_IN_THRESHOLD_MILLIS = 60_000;
+  private static final double DEFAULT_TRIGGER_SCALE_OUT_FRACTION_THRESHOLD = 0.3;
+  private static final double DEFAULT_TRIGGER_SCALE_IN_FRACTION_THRESHOLD = 0.9;
+  private static final long DEFAULT_SCALE_ACTION_START_DELAY_MILLIS = 300_000;
+  private static final long DEFAULT_SCALE_ACTION_PERIOD_MILLIS = 60_000;
+  private static final long DEFAULT_MIN_TRIGGER_SCALE_ACTION_FREQUENCY_MILLIS = 600_000;
+  private static final int DEFAULT_SCALE_OUT_STEP = 2;
+  private static final int DEFAULT_SCALE_IN_STEP = 1;
+
+  private final boolean enableTaskAutoScaler;
+  private final int taskCountMin;
+  private final int taskCountMax;
+  private final long lagCollectionIntervalMillis;
+  private final long lagCollectionRangeMillis;
+  @Nullable
+  private final Long scaleOutThreshold;
+  @Nullable
+  private final Long scaleInThreshold;
+  private final double triggerScaleOutFractionThreshold;
+  private final double triggerScaleInFractionThreshold;
+  private final long scaleActionStartDelayMillis;
+  private final long scaleActionPeriodMillis;
+  private final long minTriggerScaleActionFrequencyMillis;
+  private final int scaleOutStep;
+  private final int scaleInStep;
+
+  @JsonCreator
+  public LagBasedAutoScalerConfig(
+      @JsonProperty("enableTaskAutoScaler") @Nullable Boolean enableTaskAutoScaler,
+      @JsonProperty("taskCountMin") @Nullable Integer taskCountMin,
+      @JsonProperty("taskCountMax") @Nullable Integer taskCountMax,
+      @JsonProperty("lagCollectionIntervalMillis") @Nullable Long lagCollectionIntervalMillis,
+      @JsonProperty("lagCollectionRangeMillis") @Nullable Long lagCollectionRangeMillis,
+      @JsonProperty("scaleOutThreshold") @Nullable Long scaleOutThreshold,
+      @JsonProperty("scaleInThreshold") @Nullable Long scaleInThreshold,
+      @JsonProperty("triggerScaleOutFractionThreshold") @Nullable Double triggerScaleOutFractionThreshold,
+      @JsonProperty("triggerScaleInFractionThreshold") @Nullable Double triggerScaleInFractionThreshold,
+      @JsonProperty("scaleActionStartDelayMillis") @Nullable Long scaleActionStartDelayMillis,
+      @JsonProperty("scaleActionPeriodMillis") @Nullable Long scaleActionPeriodMillis,
+      @JsonProperty("minTriggerScaleActionFrequencyMillis") @Nullable Long minTriggerScaleActionFrequencyMillis,
+      @JsonProperty("scaleOutStep") @Nullable Integer scaleOutStep,
+      @JsonProperty("scaleInStep") @Nullable Integer scaleInStep
+  )
+  {
+    this.enableTaskAutoScaler = enableTaskAutoScaler != null && enableTaskAutoScaler;
+    this.taskCountMin = taskCountMin == null ? 1 : taskCountMin;
+    this.taskCountMax = taskCountMax == null ? this.taskCountMin : taskCountMax;
+    this.lagCollectionIntervalMillis = lagCollectionIntervalMillis == null
+                                       ? DEFAULT_LAG_COLLECTION_INTERVAL_MILLIS
+                                       : lagCollectionIntervalMillis;
+    this.lagCollectionRangeMillis = lagCollectionRangeMillis == null
+                                    ? DEFAULT_LAG_COLLECTION_RANGE_MILLIS
+                                    : lagCollectionRangeMillis;
+    // The defaults depend on the unit of the lag, which is known only to the supervisor.
+    this.scaleOutThreshold = scaleOutThreshold;
+    this.scaleInThreshold = scaleInThreshold;
+    this.triggerScaleOutFractionThreshold = triggerScaleOutFractionThreshold == null
+                                            ? DEFAULT_TRIGGER_SCALE_OUT_FRACTION_THRESHOLD
+                                            : triggerScaleOutFractionThreshold;
+    this.triggerScaleInFractionThreshold = triggerScaleInFractionThreshold == null
+                                           ? DEFAULT_TRIGGER_SCALE_IN_FRACTION_THRESHOLD
+                                           : triggerScaleInFractionThreshold;
+    this.scaleActionStartDelayMillis = scaleActionStartDelayMillis == null
+                                       ? DEFAULT_SCALE_ACTION_START_DELAY_MILLIS
+                                       : scaleActionStartDelayMillis;
+    this.scaleActionPeriodMillis = scaleActionPeriodMillis == null
+                                   ? DEFAULT_SCALE_ACTION_PERIOD_MILLIS
+                                   : scaleActionPeriodMillis;
+    this.minTriggerScaleActionFrequencyMillis = minTriggerScaleActionFrequencyMillis == null
+                                                ? DEFAULT_MIN_TRIGGER_SCALE_ACTION_FREQUENCY_MILLIS
+                                                : minTriggerScaleActionFrequencyMillis;
+    this.scaleOutStep = scaleOutStep == null ? DEFAULT_SCALE_OUT_STEP : scaleOutStep;
+    this.scaleInStep = scaleInStep == null ? DEFAULT_SCALE_IN_STEP : scaleInStep;
+
+    Preconditions.checkArgument(this.taskCountMin > 0, "taskCountMin must be positive");
+    Preconditions.checkArgument(
+        this.taskCountMax >= this.taskCountMin,
+        "taskCountMax[%s] must not be smaller than taskCountMin[%s]",
+        this.taskCountMax,
+        this.taskCountMin
+    );
+    Preconditions.checkArgument(this.lagCollectionIntervalMillis > 0, "lagCollectionIntervalMillis must be positive");
+    Preconditions.checkArgument(
+        this.lagCollectionRangeMillis >= this.lagCollectionIntervalMillis,
+        "lagCollectionRangeMillis must not be smaller than lagCollectionIntervalMillis"
+    );
+    Preconditions.checkArgument(
+        this.scaleInThreshold == null
+        || this.scaleOutThreshold == null
+        || this.scaleInThreshold <= this.scaleOutThreshold,
+        "scaleInThreshold must not be larger than scaleOutThreshold"
+    );
+    Preconditions.checkArgument(
+        this.triggerScaleOutFractionThreshold > 0 && this.triggerScaleOutFractionThreshold <= 1,
+        "triggerScaleOutFractionThreshold must be in (0, 1]"
+    );
+    Preconditions.checkArgument(
+        this.triggerScaleInFractionThreshold > 0 && this.triggerScaleInFractionThreshold <= 1,
+        "triggerScaleInFractionThreshold must be in (0, 1]"
+    );
+    Preconditions.checkArgument(this.scaleActionPeriodMillis > 0, "scaleActionPeriodMillis must be positive");
+    Preconditions.checkArgument(this.scaleOutStep > 0, "scaleOutStep must be positive");
+    Preconditions.checkArgument(this.scaleInStep > 0, "scaleInStep must be positive");
+  }
+
+  @JsonProperty
+  public boolean isEnableTaskAutoScaler()
+  {
+    return enableTaskAutoScaler;
+  }
+
+  @JsonProperty
+  public int getTaskCountMin()
+  {
+    return taskCountMin;
+  }
+
+  @JsonProperty
+  public int getTaskCountMax()
+  {
+    return taskCountMax;
+  }
+
+  /**
+   * How often the total lag is sampled.
+   */
+  @JsonProperty
+  public long getLagCollectionIntervalMillis()
+  {
+    return lagCollectionIntervalMillis;
+  }
+
+  /**
+   * The time range of the most recent lag samples which scaling decisions are based on.
+   */
+  @JsonProperty
+  public long getLagCollectionRangeMillis()
+  {
+    return lagCollectionRangeMillis;
+  }
+
+  @Nullable
+  @JsonProperty("scaleOutThreshold")
+  public Long getConfiguredScaleOutThreshold()
+  {
+    return scaleOutThreshold;
+  }
+
+  @Nullable
+  @JsonProperty("scaleInThreshold")
+  public Long getConfiguredScaleInThreshold()
+  {
+    return scaleInThreshold;
+  }
+
+  /**
+   * The total lag above which a sample counts towards scaling out, in the unit of the lag of the supervisor.
+   */
+  public long getScaleOutThreshold(LagBasedAutoScaler.LagUnit lagUnit)
+  {
+    if (scaleOutThreshold != null) {
+      return scaleOutThreshold;
+    }
+    return lagUnit == LagBasedAutoScaler.LagUnit.MILLIS
+           ? DEFAULT_SCALE_OUT_THRESHOLD_MILLIS
+           : DEFAULT_SCALE_OUT_THRESHOLD;
+  }
+
+  /**
+   * The total lag below which a sample counts towards scaling in, in the unit of the lag of the supervisor.
+   */
+  public long getScaleInThreshold(LagBasedAutoScaler.LagUnit lagUnit)
+  {
+    if (scaleInThreshold != null) {
+      return scaleInThreshold;
+    }
+    return lagUnit == LagBasedAutoScaler.LagUnit.MILLIS
+           ? DEFAULT_SCALE_IN_THRESHOLD_MILLIS
+           : DEFAULT_SCALE_IN_THRESHOLD;
+  }
+
+  /**
+   * Minimum fraction of lag samples above {@link #getScaleOutThreshold(LagBasedAutoScaler.LagUnit)} to scale out.
+   */
+  @JsonProperty
+  public double getTriggerScaleOutFractionThreshold()
+  {
+    return triggerScaleOutFractionThreshold;
+  }
+
+  /**
+   * Minimum fraction of lag samples below {@link #getScaleInThreshold(LagBasedAutoScaler.LagUnit)} to scale in.
+   */
+  @JsonProperty
+  public double getTriggerScaleInFractionThreshold()
+  {
+    return triggerScaleInFractionThreshold;
+  }
+
+  @JsonProperty
+  public long getScaleActionStartDelayMillis()
+  {
+    return scaleActionStartDelayMillis;
+  }
+
+  @JsonProperty
+  public long getScaleActionPeriodMillis()
+  {
+    return scaleActionPeriodMillis;
+  }
+
+  /**
+   * Cooldown between two scale actions.
+   */
+  @JsonProperty
+  public long getMinTriggerScaleActionFrequencyMillis()
+  {
+    return minTriggerScaleActionFrequencyMillis;
+  }
+
+  /**
+   * Minimum number of tasks added by a scale out. More are added if the lag is measured in records, and the ingestion
+   * rates reported by tasks show that they can't catch up with the lag growth otherwise.
+   */
+  @JsonProperty
+  public int getScaleOutStep()
+  {
+    return scaleOutStep;
+  }
+
+  @JsonProperty
+  public int getScaleInStep()
+  {
+    return scaleInStep;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    LagBasedAutoScalerConfig that = (LagBasedAutoScalerConfig) o;
+    return enableTaskAutoScaler == that.enableTaskAutoScaler &&
+           taskCountMin == that.taskCountMin &&
+           taskCountMax == that.taskCountMax &&
+           lagCollectionIntervalMillis == that.lagCollectionIntervalMillis &&
+           lagCollectionRangeMillis == that.lagCollectionRangeMillis &&
+           Objects.equals(scaleOutThreshold, that.scaleOutThreshold) &&
+           Objects.equals(scaleInThreshold, that.scaleInThreshold) &&
+           Double.compare(that.triggerScaleOutFractionThreshold, triggerScaleOutFractionThreshold) == 0 &&
+           Double.compare(that.triggerScaleInFractionThreshold, triggerScaleInFractionThreshold) == 0 &&
+           scaleActionStartDelayMillis == that.scaleActionStartDelayMillis &&
+           scaleActionPeriodMillis == that.scaleActionPeriodMillis &&
+           minTriggerScaleActionFrequencyMillis == that.minTriggerScaleActionFrequencyMillis &&
+           scaleOutStep == that.scaleOutStep &&
+           scaleInStep == that.scaleInStep;
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(
+        enableTaskAutoScaler,
+        taskCountMin,
+        taskCountMax,
+        lagCollectionIntervalMillis,
+        lagCollectionRangeMillis,
+        scaleOutThreshold,
+        scaleInThreshold,
+        triggerScaleOutFractionThreshold,
+        triggerScaleInFractionThreshold,
+        scaleActionStartDelayMillis,
+        scaleActionPeriodMillis,
+        minTriggerScaleActionFrequencyMillis,
+        scaleOutStep,
+        scaleInStep
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return "LagBasedAutoScalerConfig{" +
+           "enableTaskAutoScaler=" + enableTaskAutoScaler +
+           ", taskCountMin=" + taskCountMin +
+           ", taskCountMax=" + taskCountMax +
+           ", lagCollectionIntervalMillis=" + lagCollectionIntervalMillis +
+           ", lagCollectionRangeMillis=" + lagCollectionRangeMillis +
+           ", scaleOutThreshold=" + scaleOutThreshold +
+           ", scaleInThreshold=" + scaleInThreshold +
+           ", triggerScaleOutFractionThreshold=" + triggerScaleOutFractionThreshold +
+           ", triggerScaleInFractionThreshold=" + triggerScaleInFractionThreshold +
+           ", scaleActionStartDelayMillis=" + scaleActionStartDelayMillis +
+           ", scaleActionPeriodMillis=" + scaleActionPeriodMillis +
+           ", minTriggerScaleActionFrequencyMillis=" + minTriggerScaleActionFrequencyMillis +
+           ", scaleOutStep=" + scaleOutStep +
+           ", scaleInStep=" + scaleInStep +
+           '}';
+  }
+}
@@ -42,6 +42,8 @@ import org.apache.druid.indexer.TaskState;
 import org.apache.druid.indexer.TaskStatus;
 import org.apache.druid.indexing.common.IndexTaskClient;
 import org.apache.druid.indexing.common.TaskInfoProvider;
+import org.apache.druid.indexing.common.stats.DropwizardRowIngestionMeters;
+import org.apache.druid.indexing.common.stats.RowIngestionMeters;
 import org.apache.druid.indexing.common.stats.RowIngestionMetersFactory;
 import org.apache.druid.indexing.common.task.Task;
 import org.apache.druid.indexing.overlord.DataSourceMetadata;
@@ -53,6 +55,7 @@ import org.apache.druid.indexing.overlord.TaskRunnerListener;
 import org.apache.druid.indexing.overlord.TaskRunnerWorkItem;
 import org.apache.druid.indexing.overlord.TaskStorage;
 import org.apache.druid.indexing.overlord.supervisor.Supervisor;
+import org.apache.druid.indexing.overlord.supervisor.SupervisorManager;
 import org.apache.druid.indexing.overlord.supervisor.SupervisorReport;
 import org.apache.druid.indexing.overlord.supervisor.SupervisorStateManager;
 import org.apache.druid.indexing.seekablestream.SeekableStreamDataSourceMetadata;
@@ -75,6 +78,7 @@ import org.apache.druid.java.util.common.RetryUtils;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.concurrent.Execs;
 import org.apache.druid.java.util.emitter.EmittingLogger;
+import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
 import org.apache.druid.metadata.EntryExistsException;
 import org.apache.druid.segment.indexing.DataSchema;
 import org.joda.time.DateTime;
@@ -100,6 +104,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -333,6 +338,22 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
     }
   }
 
+  private class ScaleTaskCountNotice implements Notice
+  {
+    final int desiredTaskCount;
+
+    ScaleTaskCountNotice(int desiredTaskCount)
+    {
+      this.desiredTaskCount = desiredTaskCount;
+    }
+
+    @Override
+    public void handle() throws InterruptedException, ExecutionException, TimeoutException
+    {
+      changeTaskCount(desiredTaskCount);
+    }
+  }
+
   protected class CheckpointNotice implements Notice
   {
     @Nullable
@@ -501,7 +522,12 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
   private final Object recordSupplierLock = new Object();
 
   private final boolean useExclusiveStartingSequence;
+  @Nullable
+  private final LagBasedAutoScaler autoScaler;
   private boolean listenerRegistered = false;
+  // Keys of pendingCompletionTaskGroups which were moved out of the way of new task groups by changeTaskCount()
+  private int nextRetiredTaskGroupId = -1;
+  private volatile long lastScaleActionMillis;
   private long lastRunTime;
   private int initRetryCounter = 0;
   private volatile DateTime firstRunTime;
@@ -539,9 +565,15 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
     this.reportingExec = Execs.scheduledSingleThreaded(supervisorId + "-Reporting-%d");
     this.stateManager = new SeekableStreamSupervisorStateManager(spec.getSupervisorStateManagerConfig(), spec.isSuspended());
 
+    final LagBasedAutoScalerConfig autoScalerConfig = this.ioConfig.getAutoScalerConfig();
+    this.autoScaler = autoScalerConfig != null && autoScalerConfig.isEnableTaskAutoScaler()
+                      ? new LagBasedAutoScaler(autoScalerConfig, getTotalLagUnit())
+                      : null;
+    final int maxTaskCount = autoScaler != null ? autoScalerConfig.getTaskCountMax() : this.ioConfig.getTaskCount();
+
     int workerThreads = (this.tuningConfig.getWorkerThreads() != null
                          ? this.tuningConfig.getWorkerThreads()
-                         : Math.min(10, this.ioConfig.getTaskCount()));
+                         : Math.min(10, maxTaskCount));
 
     this.workerExec = MoreExecutors.listeningDecorator(Execs.multiThreaded(workerThreads, supervisorId + "-Worker-%d"));
     log.info("Created worker pool with [%d] threads for dataSource [%s]", workerThreads, this.dataSource);
@@ -584,7 +616,7 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
 
     int chatThreads = (this.tuningConfig.getChatThreads() != null
                        ? this.tuningConfig.getChatThreads()
-                       : Math.min(10, this.ioConfig.getTaskCount() * this.ioConfig.getReplicas()));
+                       : Math.min(10, maxTaskCount * this.ioConfig.getReplicas()));
     this.taskClient = taskClientFactory.build(
         taskInfoProvider,
         dataSource,
@@ -773,6 +805,9 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
         );
 
         scheduleReporting(reportingExec);
+        if (autoScaler != null) {
+          scheduleAutoScaling();
+        }
 
         started = true;
         log.info(
@@ -801,6 +836,220 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
     return () -> notices.add(new RunNotice());
   }
 
+  private void scheduleAutoScaling()
+  {
+    final LagBasedAutoScalerConfig config = autoScaler.getConfig();
+    reportingExec.scheduleAtFixedRate(
+        () -> {
+          try {
+            final Long totalLag = computeTotalLag();
+            if (totalLag != null) {
+              autoScaler.addLagSample(totalLag);
+            }
+          }
+          catch (Exception e) {
+            log.warn(e, "Failed to collect lag of dataSource[%s] for autoscaling", dataSource);
+          }
+        },
+        ioConfig.getStartDelay().getMillis(),
+        config.getLagCollectionIntervalMillis(),
+        TimeUnit.MILLISECONDS
+    );
+    reportingExec.scheduleAtFixedRate(
+        () -> {
+          try {
+            checkAutoScaling();
+          }
+          catch (Exception e) {
+            log.warn(e, "Failed to compute the desired taskCount of dataSource[%s]", dataSource);
+          }
+        },
+        config.getScaleActionStartDelayMillis(),
+        config.getScaleActionPeriodMillis(),
+        TimeUnit.MILLISECONDS
+    );
+    log.info("Scheduled autoscaling of dataSource[%s] with %s", dataSource, config);
+  }
+
+  private void checkAutoScaling()
+  {
+    if (spec.isSuspended()
+        || System.currentTimeMillis() - lastScaleActionMillis
+           < autoScaler.getConfig().getMinTriggerScaleActionFrequencyMillis()) {
+      return;
+    }
+    final int currentTaskCount = ioConfig.getTaskCount();
+    final int numPartitions = partitionGroups.values().stream().mapToInt(Map::size).sum();
+    final int desiredTaskCount = autoScaler.computeDesiredTaskCount(
+        currentTaskCount,
+        numPartitions,
+        this::computeIngestionRate
+    );
+    if (desiredTaskCount != currentTaskCount) {
+      log.info(
+          "Requesting taskCount change of dataSource[%s] from [%d] to [%d]",
+          dataSource,
+          currentTaskCount,
+          desiredTaskCount
+      );
+      notices.add(new ScaleTaskCountNotice(desiredTaskCount));
+    }
+  }
+
+  /**
+   * Returns the total number of rows per second ingested by actively reading task groups over the last minute, as
+   * reported by the tasks, or null if no task reported it.
+   */
+  @Nullable
+  private Double computeIngestionRate()
+  {
+    final List<ListenableFuture<Map<String, Object>>> futures = new ArrayList<>();
+    for (TaskGroup group : activelyReadingTaskGroups.values()) {
+      for (String taskId : group.taskIds()) {
+        futures.add(taskClient.getMovingAveragesAsync(taskId));
+      }
+    }
+    if (futures.isEmpty()) {
+      return null;
+    }
+
+    final List<Map<String, Object>> results;
+    try {
+      results = Futures.successfulAsList(futures).get(futureTimeoutInSeconds, TimeUnit.SECONDS);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    catch (ExecutionException | TimeoutException e) {
+      log.warn(e, "Failed to get ingestion rates of the tasks of dataSource[%s]", dataSource);
+      return null;
+    }
+
+    double totalRate = 0;
+    int numReported = 0;
+    for (Map<String, Object> stats : results) {
+      final Number rate = getOneMinuteProcessedRate(stats);
+      if (rate != null) {
+        totalRate += rate.doubleValue();
+        numReported++;
+      }
+    }
+    // Replicas read the same partitions
+    return numReported == 0 ? null : totalRate / ioConfig.getReplicas();
+  }
+
+  @Nullable
+  private static Number getOneMinuteProcessedRate(@Nullable Map<String, Object> stats)
+  {
+    Object value = stats;
+    for (String key : new String[]{
+        "movingAverages",
+        RowIngestionMeters.BUILD_SEGMENTS,
+        DropwizardRowIngestionMeters.ONE_MINUTE_NAME,
+        RowIngestionMeters.PROCESSED
+    }) {
+      if (!(value instanceof Map)) {
+        return null;
+      }
+      value = ((Map<?, ?>) value).get(key);
+    }
+    return value instanceof Number ? (Number) value : null;
+  }
+
+  /**
+   * Changes the number of task groups. All actively reading task groups are signalled to stop reading and publish,
+   * like when their taskDuration elapses, and their partitions are reassigned to the new task groups which continue
+   * reading from where they stopped. Task groups which are still publishing keep being monitored.
+   */
+  @VisibleForTesting
+  void changeTaskCount(int desiredTaskCount) throws InterruptedException, ExecutionException, TimeoutException
+  {
+    final int currentTaskCount = ioConfig.getTaskCount();
+    if (desiredTaskCount == currentTaskCount || spec.isSuspended()) {
+      return;
+    }
+    log.info("Changing taskCount of dataSource[%s] from [%d] to [%d]", dataSource, currentTaskCount, desiredTaskCount);
+
+    // Checkpoint all the task groups. Their end offsets become the start offsets of the new task groups.
+    gracefulShutdownInternal();
+    for (Entry<Integer, TaskGroup> entry : activelyReadingTaskGroups.entrySet()) {
+      // These groups failed to checkpoint. Their partitions will be read again from their starting sequences.
+      killTasksInGroup(entry.getValue(), "Killing task group [%d] to change taskCount", entry.getKey());
+    }
+    activelyReadingTaskGroups.clear();
+
+    // Publishing task groups are keyed by the group ids of the old assignment. Move them to ids which new task groups
+    // never use so that they are not mistaken for predecessors of the new task groups.
+    for (Integer groupId : new ArrayList<>(pendingCompletionTaskGroups.keySet())) {
+      if (groupId >= 0) {
+        pendingCompletionTaskGroups.put(nextRetiredTaskGroupId--, pendingCompletionTaskGroups.remove(groupId));
+      }
+    }
+
+    final Map<PartitionIdType, SequenceOffsetType> partitionSequences = new HashMap<>();
+    partitionGroups.values().forEach(partitionSequences::putAll);
+    partitionGroups.clear();
+    ioConfig.setTaskCount(desiredTaskCount);
+    for (Entry<PartitionIdType, SequenceOffsetType> entry : partitionSequences.entrySet()) {
+      partitionGroups.computeIfAbsent(getTaskGroupIdForPartition(entry.getKey()), k -> new ConcurrentHashMap<>())
+                     .put(entry.getKey(), entry.getValue());
+    }
+
+    persistSpec();
+
+    lastScaleActionMillis = System.currentTimeMillis();
+    if (autoScaler != null) {
+      autoScaler.clearLagSamples();
+    }
+    spec.getEmitter().emit(
+        ServiceMetricEvent.builder()
+                          .setDimension("dataSource", dataSource)
+                          .setDimension("stream", ioConfig.getStream())
+                          .setDimension("scaleAction", desiredTaskCount > currentTaskCount ? "scaleOut" : "scaleIn")
+                          .build("ingest/autoScaler/taskCount", desiredTaskCount)
+    );
+    notices.add(new RunNotice());
+  }
+
+  /**
+   * Stores the spec with the changed taskCount so that the supervisor starts with it when it's restarted. Failing to do
+   * so isn't fatal: the supervisor keeps running with the changed taskCount.
+   *
+   * The spec is stored by reportingExec, since {@link SupervisorManager#persistSupervisorSpec} waits for the
+   * SupervisorManager's lock, which is held while it stops the supervisor and waits for the notices to be handled.
+   */
+  private void persistSpec()
+  {
+    final Optional<SupervisorManager> supervisorManager = taskMaster.getSupervisorManager();
+    if (!supervisorManager.isPresent()) {
+      log.warn("Not the leader anymore, not persisting the spec of supervisor[%s]", supervisorId);
+      return;
+    }
+    try {
+      reportingExec.execute(
+          () -> {
+            try {
+              if (!supervisorManager.get().persistSupervisorSpec(spec)) {
+                log.warn("Spec of supervisor[%s] has been replaced, not persisting it", supervisorId);
+              }
+            }
+            catch (Exception e) {
+              log.warn(
+                  e,
+                  "Failed to persist the spec of supervisor[%s] with taskCount[%d]",
+                  supervisorId,
+                  ioConfig.getTaskCount()
+              );
+            }
+          }
+      );
+    }
+    catch (RejectedExecutionException e) {
+      log.warn("Supervisor[%s] is stopping, not persisting its spec", supervisorId);
+    }
+  }
+
   @Override
   public SupervisorReport getStatus()
   {
@@ -2279,8 +2528,18 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
             ).emit();
           }
 
-          // reset partitions sequences for this task group so that they will be re-read from metadata storage
-          partitionGroups.get(groupId).replaceAll((partition, sequence) -> getNotSetMarker());
+          // reset partitions sequences for the task groups now reading these partitions so that they will be re-read
+          // from metadata storage. This is the same group as groupId unless taskCount has changed since.
+          final Set<Integer> readingGroupIds = group.startingSequences.keySet()
+                                                                      .stream()
+                                                                      .map(this::getTaskGroupIdForPartition)
+                                                                      .collect(Collectors.toSet());
+          for (int readingGroupId : readingGroupIds) {
+            final Map<PartitionIdType, SequenceOffsetType> partitionSequences = partitionGroups.get(readingGroupId);
+            if (partitionSequences != null) {
+              partitionSequences.replaceAll((partition, sequence) -> getNotSetMarker());
+            }
+          }
           // kill all the tasks in this pending completion group
           killTasksInGroup(
               group,
@@ -2290,12 +2549,14 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
           // set a flag so the other pending completion groups for this set of partitions will also stop
           stopTasksInTaskGroup = true;
 
-          // kill all the tasks in the currently reading task group and remove the bad task group
-          killTasksInGroup(
-              activelyReadingTaskGroups.remove(groupId),
-              "No task in the corresponding pending completion taskGroup[%d] succeeded before completion timeout elapsed",
-              groupId
-          );
+          // kill all the tasks in the currently reading task groups and remove the bad task group
+          for (int readingGroupId : readingGroupIds) {
+            killTasksInGroup(
+                activelyReadingTaskGroups.remove(readingGroupId),
+                "No task in the corresponding pending completion taskGroup[%d] succeeded before completion timeout elapsed",
+                groupId
+            );
+          }
           toRemove.add(group);
         }
       }
@@ -2910,6 +3171,25 @@ public abstract class SeekableStreamSupervisor<PartitionIdType, SequenceOffsetTy
    */
   protected abstract Map<PartitionIdType, SequenceOffsetType> getLagPerPartition(Map<PartitionIdType, SequenceOffsetType> currentOffsets);
 
+  /**
+   * Returns the total lag of all partitions used for autoscaling, or null if it isn't known. The unit depends on the
+   * stream: messages for Kafka, milliseconds behind the latest record for Kinesis.
+   */
+  @Nullable
+  protected Long computeTotalLag()
+  {
+    return null;
+  }
+
+  /**
+   * Returns the unit of {@link #computeTotalLag()}. Called from the constructor, so it must not depend on the state of
+   * the supervisor.
+   */
+  protected LagBasedAutoScaler.LagUnit getTotalLagUnit()
+  {
+    return LagBasedAutoScaler.LagUnit.RECORDS;
+  }
+
   /**
    * returns an instance of a specific Kinesis/Kafka recordSupplier
    *
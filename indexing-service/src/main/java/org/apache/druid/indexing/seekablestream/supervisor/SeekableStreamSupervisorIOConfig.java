@@ -25,11 +25,14 @@ import com.google.common.base.Preconditions;
 import org.joda.time.Duration;
 import org.joda.time.Period;
 
+import javax.annotation.Nullable;
+
 public abstract class SeekableStreamSupervisorIOConfig
 {
   private final String stream;
   private final Integer replicas;
-  private final Integer taskCount;
+  // Changed by the supervisor when autoscaling
+  private volatile Integer taskCount;
   private final Duration taskDuration;
   private final Duration startDelay;
   private final Duration period;
@@ -37,6 +40,8 @@ public abstract class SeekableStreamSupervisorIOConfig
   private final Duration completionTimeout;
   private final Optional<Duration> lateMessageRejectionPeriod;
   private final Optional<Duration> earlyMessageRejectionPeriod;
+  @Nullable
+  private final LagBasedAutoScalerConfig autoScalerConfig;
 
   public SeekableStreamSupervisorIOConfig(
       String stream,
@@ -48,12 +53,25 @@ public abstract class SeekableStreamSupervisorIOConfig
       Boolean useEarliestSequenceNumber,
       Period completionTimeout,
       Period lateMessageRejectionPeriod,
-      Period earlyMessageRejectionPeriod
+      Period earlyMessageRejectionPeriod,
+      @Nullable LagBasedAutoScalerConfig autoScalerConfig
   )
   {
     this.stream = Preconditions.checkNotNull(stream, "stream cannot be null");
     this.replicas = replicas != null ? replicas : 1;
-    this.taskCount = taskCount != null ? taskCount : 1;
+    this.autoScalerConfig = autoScalerConfig;
+    if (autoScalerConfig != null && autoScalerConfig.isEnableTaskAutoScaler()) {
+      this.taskCount = taskCount != null ? taskCount : autoScalerConfig.getTaskCountMin();
+      Preconditions.checkArgument(
+          this.taskCount >= autoScalerConfig.getTaskCountMin() && this.taskCount <= autoScalerConfig.getTaskCountMax(),
+          "taskCount[%s] must be between taskCountMin[%s] and taskCountMax[%s] of autoScalerConfig",
+          this.taskCount,
+          autoScalerConfig.getTaskCountMin(),
+          autoScalerConfig.getTaskCountMax()
+      );
+    } else {
+      this.taskCount = taskCount != null ? taskCount : 1;
+    }
     this.taskDuration = defaultDuration(taskDuration, "PT1H");
     this.startDelay = defaultDuration(startDelay, "PT5S");
     this.period = defaultDuration(period, "PT30S");
@@ -90,6 +108,11 @@ public abstract class SeekableStreamSupervisorIOConfig
     return taskCount;
   }
 
+  void setTaskCount(int taskCount)
+  {
+    this.taskCount = taskCount;
+  }
+
   @JsonProperty
   public Duration getTaskDuration()
   {
@@ -131,4 +154,11 @@ public abstract class SeekableStreamSupervisorIOConfig
   {
     return lateMessageRejectionPeriod;
   }
+
+  @Nullable
+  @JsonProperty
+  public LagBasedAutoScalerConfig getAutoScalerConfig()
+  {
+    return autoScalerConfig;
+  }
 }
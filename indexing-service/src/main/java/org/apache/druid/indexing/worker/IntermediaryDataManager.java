@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.worker;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import org.apache.commons.io.FileUtils;
+import org.apache.druid.indexing.common.config.TaskConfig;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.lifecycle.LifecycleStart;
+import org.apache.druid.java.util.common.lifecycle.LifecycleStop;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.utils.CompressionUtils;
+import org.joda.time.Interval;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class manages intermediary segments generated by the first phase of the two-phase parallel indexing, i.e.,
+ * {@link org.apache.druid.indexing.common.task.batch.parallel.PartialSegmentGenerateTask}s. Each partial segment is
+ * zipped and stored in the local disk of the middleManager which ran the task, under
+ * {@code intermediaryPartitionsDir/supervisorTaskId/startTime/endTime/partitionId/subTaskId}, until the second phase
+ * tasks fetch them via {@link org.apache.druid.indexing.worker.http.ShuffleResource}.
+ *
+ * Peons use this class to add partial segments, while middleManagers use it to serve them and to periodically remove
+ * the partial segments of supervisorTasks which haven't added any new partial segment for
+ * {@link TaskConfig#getIntermediaryPartitionTimeout()}.
+ */
+public class IntermediaryDataManager
+{
+  private static final Logger log = new Logger(IntermediaryDataManager.class);
+
+  private static final long CLEANUP_PERIOD_MS = TimeUnit.MINUTES.toMillis(5);
+
+  private final File intermediaryPartitionsDir;
+  private final long intermediaryPartitionTimeoutMs;
+
+  @Nullable
+  private ScheduledExecutorService cleanupExec;
+
+  @Inject
+  public IntermediaryDataManager(TaskConfig taskConfig)
+  {
+    this.intermediaryPartitionsDir = taskConfig.getIntermediaryPartitionsDir();
+    this.intermediaryPartitionTimeoutMs = taskConfig.getIntermediaryPartitionTimeout()
+                                                    .toStandardDuration()
+                                                    .getMillis();
+  }
+
+  @LifecycleStart
+  public void start()
+  {
+    cleanupExec = Execs.scheduledSingleThreaded("intermediary-data-manager-%d");
+    cleanupExec.scheduleWithFixedDelay(
+        () -> {
+          try {
+            deleteExpiredPartitions(System.currentTimeMillis());
+          }
+          catch (Exception e) {
+            log.warn(e, "Failed to clean up expired intermediary partitions");
+          }
+        },
+        CLEANUP_PERIOD_MS,
+        CLEANUP_PERIOD_MS,
+        TimeUnit.MILLISECONDS
+    );
+  }
+
+  @LifecycleStop
+  public void stop()
+  {
+    if (cleanupExec != null) {
+      cleanupExec.shutdownNow();
+      cleanupExec = null;
+    }
+  }
+
+  /**
+   * Zips the given segment directory and stores it as a partition of the given supervisorTask.
+   *
+   * @return the uncompressed size of the segment
+   */
+  public long addSegment(String supervisorTaskId, String subTaskId, DataSegment segment, File segmentDir)
+      throws IOException
+  {
+    final File partitionDir = getPartitionDir(
+        supervisorTaskId,
+        segment.getInterval(),
+        segment.getShardSpec().getPartitionNum()
+    );
+    FileUtils.forceMkdir(partitionDir);
+    final File partitionFile = getPartitionFile(partitionDir, subTaskId);
+    final File tmpFile = new File(partitionDir, subTaskId + ".tmp");
+    final long size = CompressionUtils.zip(segmentDir, tmpFile, true);
+    // Rename at the end so that a partial file is never served even if this task fails in the middle of zipping.
+    if (!tmpFile.renameTo(partitionFile)) {
+      FileUtils.deleteQuietly(tmpFile);
+      throw new IOException(StringUtils.format("Failed to rename [%s] to [%s]", tmpFile, partitionFile));
+    }
+    // Refresh the modified time which is used to find expired partitions.
+    getSupervisorTaskDir(supervisorTaskId).setLastModified(System.currentTimeMillis());
+    return size;
+  }
+
+  /**
+   * Returns the file of the partition generated by the given subTask, or null if it doesn't exist.
+   */
+  @Nullable
+  public File findPartitionFile(String supervisorTaskId, String subTaskId, Interval interval, int partitionId)
+  {
+    final File partitionFile = getPartitionFile(getPartitionDir(supervisorTaskId, interval, partitionId), subTaskId);
+    return partitionFile.isFile() ? partitionFile : null;
+  }
+
+  public void deletePartitions(String supervisorTaskId) throws IOException
+  {
+    final File supervisorTaskDir = getSupervisorTaskDir(supervisorTaskId);
+    if (supervisorTaskDir.exists()) {
+      FileUtils.deleteDirectory(supervisorTaskDir);
+      log.info("Deleted intermediary partitions of supervisorTask[%s]", supervisorTaskId);
+    }
+  }
+
+  @VisibleForTesting
+  void deleteExpiredPartitions(long now) throws IOException
+  {
+    final File[] supervisorTaskDirs = intermediaryPartitionsDir.listFiles();
+    if (supervisorTaskDirs == null) {
+      return;
+    }
+    for (File supervisorTaskDir : supervisorTaskDirs) {
+      if (supervisorTaskDir.isDirectory()
+          && now - supervisorTaskDir.lastModified() > intermediaryPartitionTimeoutMs) {
+        deletePartitions(supervisorTaskDir.getName());
+      }
+    }
+  }
+
+  private File getSupervisorTaskDir(String supervisorTaskId)
+  {
+    return checkChild(intermediaryPartitionsDir, supervisorTaskId);
+  }
+
+  private File getPartitionDir(String supervisorTaskId, Interval interval, int partitionId)
+  {
+    return new File(
+        getSupervisorTaskDir(supervisorTaskId),
+        StringUtils.format("%s/%s/%d", interval.getStart(), interval.getEnd(), partitionId)
+    );
+  }
+
+  private static File getPartitionFile(File partitionDir, String subTaskId)
+  {
+    return checkChild(partitionDir, subTaskId);
+  }
+
+  /**
+   * Task IDs come from HTTP requests. This method makes sure that they don't point outside of the given directory.
+   */
+  private static File checkChild(File parent, String name)
+  {
+    final File child = new File(parent, name);
+    if (name.isEmpty() || !parent.equals(child.getParentFile()) || ".".equals(name) || "..".equals(name)) {
+      throw new IAE("Invalid name[%s]", name);
+    }
+    return child;
+  }
+}
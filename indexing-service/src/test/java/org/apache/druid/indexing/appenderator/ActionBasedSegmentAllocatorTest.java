@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.appenderator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.data.input.InputRow;
+import org.apache.druid.data.input.MapBasedInputRow;
+import org.apache.druid.indexing.common.actions.SegmentAllocateAction;
+import org.apache.druid.indexing.common.actions.SegmentBatchAllocateAction;
+import org.apache.druid.indexing.common.actions.TaskAction;
+import org.apache.druid.indexing.common.actions.TaskActionClient;
+import org.apache.druid.indexing.common.actions.TaskActionTestKit;
+import org.apache.druid.indexing.common.task.NoopTask;
+import org.apache.druid.indexing.common.task.Task;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.segment.indexing.DataSchema;
+import org.apache.druid.segment.indexing.granularity.UniformGranularitySpec;
+import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ActionBasedSegmentAllocatorTest
+{
+  @Rule
+  public TaskActionTestKit taskActionTestKit = new TaskActionTestKit();
+
+  private static final String DATA_SOURCE = "none";
+  private static final DateTime PARTY_TIME = DateTimes.of("1999");
+
+  private final DataSchema dataSchema = new DataSchema(
+      DATA_SOURCE,
+      null,
+      new AggregatorFactory[0],
+      new UniformGranularitySpec(Granularities.HOUR, Granularities.MINUTE, null),
+      null,
+      new DefaultObjectMapper()
+  );
+  private final List<TaskAction<?>> submittedActions = new ArrayList<>();
+
+  private Task task;
+  private TaskActionClient taskActionClient;
+
+  @Before
+  public void setUp()
+  {
+    task = new NoopTask(null, null, 0, 0, null, null, null);
+    taskActionTestKit.getTaskLockbox().add(task);
+    taskActionClient = new TaskActionClient()
+    {
+      @Override
+      public <RetType> RetType submit(TaskAction<RetType> taskAction)
+      {
+        submittedActions.add(taskAction);
+        return taskAction.perform(task, taskActionTestKit.getTaskActionToolbox());
+      }
+    };
+  }
+
+  @Test
+  public void testAllocateBatch() throws IOException
+  {
+    final ActionBasedSegmentAllocator allocator = new ActionBasedSegmentAllocator(
+        taskActionClient,
+        dataSchema,
+        ActionBasedSegmentAllocatorTest::makeAllocateAction,
+        (schema, requests, skipSegmentLineageCheck) -> new SegmentBatchAllocateAction(
+            schema.getDataSource(),
+            schema.getGranularitySpec().getQueryGranularity(),
+            schema.getGranularitySpec().getSegmentGranularity(),
+            requests,
+            skipSegmentLineageCheck
+        )
+    );
+
+    final List<SegmentIdWithShardSpec> ids = allocator.allocateBatch(
+        ImmutableList.of(
+            makeRow(PARTY_TIME),
+            makeRow(PARTY_TIME.plusMinutes(10)),
+            makeRow(PARTY_TIME.plusSeconds(30)),
+            makeRow(PARTY_TIME.plusHours(1))
+        ),
+        "s1",
+        "prev",
+        true
+    );
+
+    // A single action with one request per query granularity bucket
+    Assert.assertEquals(1, submittedActions.size());
+    Assert.assertEquals(3, ((SegmentBatchAllocateAction) submittedActions.get(0)).getRequests().size());
+
+    Assert.assertEquals(4, ids.size());
+    Assert.assertEquals(Granularities.HOUR.bucket(PARTY_TIME), ids.get(0).getInterval());
+    Assert.assertEquals(ids.get(0), ids.get(1));
+    Assert.assertEquals(ids.get(0), ids.get(2));
+    Assert.assertEquals(Granularities.HOUR.bucket(PARTY_TIME.plusHours(1)), ids.get(3).getInterval());
+
+    // One by one allocation agrees with the batch.
+    Assert.assertEquals(ids.get(3), allocator.allocate(makeRow(PARTY_TIME.plusHours(1)), "s1", "prev", true));
+  }
+
+  @Test
+  public void testAllocateBatchWithoutBatchActionGenerator() throws IOException
+  {
+    final ActionBasedSegmentAllocator allocator = new ActionBasedSegmentAllocator(
+        taskActionClient,
+        dataSchema,
+        ActionBasedSegmentAllocatorTest::makeAllocateAction
+    );
+
+    final List<SegmentIdWithShardSpec> ids = allocator.allocateBatch(
+        ImmutableList.of(makeRow(PARTY_TIME), makeRow(PARTY_TIME.plusHours(1))),
+        "s1",
+        null,
+        true
+    );
+
+    Assert.assertEquals(2, submittedActions.size());
+    Assert.assertTrue(submittedActions.stream().allMatch(action -> action instanceof SegmentAllocateAction));
+    Assert.assertEquals(Granularities.HOUR.bucket(PARTY_TIME), ids.get(0).getInterval());
+    Assert.assertEquals(Granularities.HOUR.bucket(PARTY_TIME.plusHours(1)), ids.get(1).getInterval());
+  }
+
+  private static SegmentAllocateAction makeAllocateAction(
+      DataSchema schema,
+      InputRow row,
+      String sequenceName,
+      String previousSegmentId,
+      boolean skipSegmentLineageCheck
+  )
+  {
+    return new SegmentAllocateAction(
+        schema.getDataSource(),
+        row.getTimestamp(),
+        schema.getGranularitySpec().getQueryGranularity(),
+        schema.getGranularitySpec().getSegmentGranularity(),
+        sequenceName,
+        previousSegmentId,
+        skipSegmentLineageCheck
+    );
+  }
+
+  private static InputRow makeRow(DateTime timestamp)
+  {
+    return new MapBasedInputRow(timestamp, ImmutableList.of("dim"), ImmutableMap.of("dim", "x"));
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.actions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.indexing.common.task.NoopTask;
+import org.apache.druid.indexing.common.task.Task;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.partition.NumberedShardSpec;
+import org.apache.druid.timeline.partition.ShardSpec;
+import org.apache.druid.timeline.partition.SingleDimensionShardSpec;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+public class SegmentBatchAllocateActionTest
+{
+  @Rule
+  public TaskActionTestKit taskActionTestKit = new TaskActionTestKit();
+
+  private static final String DATA_SOURCE = "none";
+  private static final DateTime PARTY_TIME = DateTimes.of("1999");
+
+  @Test
+  public void testAllocate() throws IOException
+  {
+    final Task task = new NoopTask(null, null, 0, 0, null, null, null);
+    taskActionTestKit.getMetadataStorageCoordinator().announceHistoricalSegments(
+        ImmutableSet.of(
+            makeSegment(new NumberedShardSpec(0, 2)),
+            makeSegment(new NumberedShardSpec(1, 2))
+        )
+    );
+    taskActionTestKit.getTaskLockbox().add(task);
+
+    final List<SegmentIdWithShardSpec> ids = allocate(
+        task,
+        ImmutableList.of(
+            new SegmentAllocateRequest(PARTY_TIME, "s1", null),
+            new SegmentAllocateRequest(PARTY_TIME.plusMinutes(10), "s2", null),
+            new SegmentAllocateRequest(PARTY_TIME.plusHours(1), "s3", null),
+            new SegmentAllocateRequest(PARTY_TIME.plusMinutes(20), "s1", null)
+        )
+    );
+
+    Assert.assertEquals(4, ids.size());
+    assertId(ids.get(0), PARTY_TIME, PARTY_TIME.toString(), 2);
+    assertId(ids.get(1), PARTY_TIME, PARTY_TIME.toString(), 3);
+    Assert.assertEquals(0, ids.get(2).getShardSpec().getPartitionNum());
+    Assert.assertEquals(Granularities.HOUR.bucket(PARTY_TIME.plusHours(1)), ids.get(2).getInterval());
+    // Same sequence and previous segment in the same segment interval
+    Assert.assertEquals(ids.get(0), ids.get(3));
+
+    // One by one allocation agrees with the batch.
+    Assert.assertEquals(
+        ids.get(1),
+        new SegmentAllocateAction(
+            DATA_SOURCE,
+            PARTY_TIME,
+            Granularities.NONE,
+            Granularities.HOUR,
+            "s2",
+            null,
+            false
+        ).perform(task, taskActionTestKit.getTaskActionToolbox())
+    );
+  }
+
+  @Test
+  public void testCannotAllocateSomeRequests() throws IOException
+  {
+    final Task task = new NoopTask(null, null, 0, 0, null, null, null);
+    taskActionTestKit.getMetadataStorageCoordinator().announceHistoricalSegments(
+        ImmutableSet.of(
+            makeSegment(new SingleDimensionShardSpec("foo", null, "bar", 0)),
+            makeSegment(new SingleDimensionShardSpec("foo", "bar", null, 1))
+        )
+    );
+    taskActionTestKit.getTaskLockbox().add(task);
+
+    final List<SegmentIdWithShardSpec> ids = allocate(
+        task,
+        ImmutableList.of(
+            new SegmentAllocateRequest(PARTY_TIME, "s1", null),
+            new SegmentAllocateRequest(PARTY_TIME.plusHours(1), "s2", null)
+        )
+    );
+
+    Assert.assertNull(ids.get(0));
+    Assert.assertNotNull(ids.get(1));
+  }
+
+  @Test
+  public void testSerde() throws IOException
+  {
+    final SegmentBatchAllocateAction action = new SegmentBatchAllocateAction(
+        DATA_SOURCE,
+        Granularities.MINUTE,
+        Granularities.HOUR,
+        ImmutableList.of(new SegmentAllocateRequest(PARTY_TIME, "s1", "prev")),
+        true
+    );
+
+    final ObjectMapper objectMapper = new DefaultObjectMapper();
+    final SegmentBatchAllocateAction action2 = (SegmentBatchAllocateAction) objectMapper.readValue(
+        objectMapper.writeValueAsBytes(action),
+        TaskAction.class
+    );
+
+    Assert.assertEquals(DATA_SOURCE, action2.getDataSource());
+    Assert.assertEquals(Granularities.MINUTE, action2.getQueryGranularity());
+    Assert.assertEquals(Granularities.HOUR, action2.getPreferredSegmentGranularity());
+    Assert.assertEquals(action.getRequests(), action2.getRequests());
+    Assert.assertTrue(action2.isSkipSegmentLineageCheck());
+  }
+
+  private List<SegmentIdWithShardSpec> allocate(Task task, List<SegmentAllocateRequest> requests)
+  {
+    return new SegmentBatchAllocateAction(
+        DATA_SOURCE,
+        Granularities.NONE,
+        Granularities.HOUR,
+        requests,
+        false
+    ).perform(task, taskActionTestKit.getTaskActionToolbox());
+  }
+
+  private static DataSegment makeSegment(ShardSpec shardSpec)
+  {
+    return DataSegment.builder()
+                      .dataSource(DATA_SOURCE)
+                      .interval(Granularities.HOUR.bucket(PARTY_TIME))
+                      .version(PARTY_TIME.toString())
+                      .shardSpec(shardSpec)
+                      .build();
+  }
+
+  private static void assertId(SegmentIdWithShardSpec id, DateTime timestamp, String version, int partitionNum)
+  {
+    Assert.assertEquals(Granularities.HOUR.bucket(timestamp), id.getInterval());
+    Assert.assertEquals(version, id.getVersion());
+    Assert.assertEquals(partitionNum, id.getShardSpec().getPartitionNum());
+  }
+}
@@ -387,7 +387,9 @@ public class CompactionTaskRunTest extends IngestionTestBase
         null,
         null,
         null,
-        new NoopTestTaskFileWriter()
+        new NoopTestTaskFileWriter(),
+        null,
+        null
     );
 
     if (task.isReady(box.getTaskActionClient())) {
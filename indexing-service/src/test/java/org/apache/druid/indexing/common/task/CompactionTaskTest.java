@@ -1171,7 +1171,9 @@ public class CompactionTaskTest
           null,
           null,
           null,
-          new NoopTestTaskFileWriter()
+          new NoopTestTaskFileWriter(),
+          null,
+          null
       );
       this.segmentFileMap = segmentFileMap;
     }
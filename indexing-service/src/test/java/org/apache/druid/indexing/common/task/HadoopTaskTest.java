@@ -78,6 +78,8 @@ public class HadoopTaskTest
         ImmutableList.of("something:hadoop:1"),
         false,
         null,
+        null,
+        null,
         null
     )).once();
     EasyMock.replay(toolbox);
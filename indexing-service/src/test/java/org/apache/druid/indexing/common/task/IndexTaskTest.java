@@ -1578,7 +1578,9 @@ public class IndexTaskTest
         null,
         null,
         null,
-        new TaskReportFileWriter(reportsFile)
+        new TaskReportFileWriter(reportsFile),
+        null,
+        null
     );
 
     indexTask.isReady(box.getTaskActionClient());
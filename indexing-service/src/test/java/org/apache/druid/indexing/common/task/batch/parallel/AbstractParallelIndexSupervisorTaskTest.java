@@ -19,6 +19,7 @@
 
 package org.apache.druid.indexing.common.task.batch.parallel;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -46,6 +47,7 @@ import org.apache.druid.indexing.common.task.IngestionTestBase;
 import org.apache.druid.indexing.common.task.NoopTestTaskFileWriter;
 import org.apache.druid.indexing.common.task.Task;
 import org.apache.druid.indexing.common.task.TaskResource;
+import org.apache.druid.indexing.worker.IntermediaryDataManager;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.concurrent.Execs;
@@ -54,6 +56,7 @@ import org.apache.druid.segment.loading.LocalDataSegmentPusher;
 import org.apache.druid.segment.loading.LocalDataSegmentPusherConfig;
 import org.apache.druid.segment.realtime.appenderator.SegmentIdWithShardSpec;
 import org.apache.druid.segment.realtime.firehose.NoopChatHandlerProvider;
+import org.apache.druid.server.DruidNode;
 import org.apache.druid.server.security.AllowAllAuthorizer;
 import org.apache.druid.server.security.Authorizer;
 import org.apache.druid.server.security.AuthorizerMapper;
@@ -66,15 +69,15 @@ import org.junit.rules.TemporaryFolder;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.stream.Stream;
 
 public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
 {
@@ -95,10 +98,14 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
       0
   );
 
+  static final DruidNode TASK_EXECUTOR_NODE = new DruidNode("middlemanager", "localhost", false, 8091, null, true, false);
+
   TaskActionClient actionClient;
   LocalIndexingServiceClient indexingServiceClient;
   TaskToolbox toolbox;
   File localDeepStorage;
+  @Nullable
+  IntermediaryDataManager intermediaryDataManager;
 
   @Rule
   public final TemporaryFolder temporaryFolder = new TemporaryFolder();
@@ -113,7 +120,7 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
     @Override
     public String runTask(Object taskObject)
     {
-      final ParallelIndexSubTask subTask = (ParallelIndexSubTask) taskObject;
+      final Task subTask = (Task) taskObject;
       tasks.put(subTask.getId(), service.submit(() -> {
         try {
           final TaskToolbox toolbox = createTaskToolbox(subTask);
@@ -262,7 +269,9 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
         null,
         null,
         null,
-        new NoopTestTaskFileWriter()
+        new NoopTestTaskFileWriter(),
+        TASK_EXECUTOR_NODE,
+        intermediaryDataManager
     );
   }
 
@@ -318,7 +327,7 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
     }
 
     @Override
-    Stream<ParallelIndexSubTaskSpec> subTaskSpecIterator() throws IOException
+    Iterator<SubTaskSpec<ParallelIndexSubTask>> subTaskSpecIterator() throws IOException
     {
       final FiniteFirehoseFactory baseFirehoseFactory = (FiniteFirehoseFactory) getIngestionSchema()
           .getIOConfig()
@@ -331,18 +340,29 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
         catch (InterruptedException e) {
           throw new RuntimeException(e);
         }
-        return newTaskSpec((InputSplit<?>) split);
-      });
+        return (SubTaskSpec<ParallelIndexSubTask>) newTaskSpec((InputSplit<?>) split);
+      }).iterator();
     }
   }
 
   static class LocalParallelIndexTaskClientFactory implements IndexTaskClientFactory<ParallelIndexTaskClient>
   {
     private final ParallelIndexSupervisorTask supervisorTask;
+    @Nullable
+    private final IntermediaryDataManager intermediaryDataManager;
 
     LocalParallelIndexTaskClientFactory(ParallelIndexSupervisorTask supervisorTask)
+    {
+      this(supervisorTask, null);
+    }
+
+    LocalParallelIndexTaskClientFactory(
+        ParallelIndexSupervisorTask supervisorTask,
+        @Nullable IntermediaryDataManager intermediaryDataManager
+    )
     {
       this.supervisorTask = supervisorTask;
+      this.intermediaryDataManager = intermediaryDataManager;
     }
 
     @Override
@@ -354,18 +374,25 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
         long numRetries
     )
     {
-      return new LocalParallelIndexTaskClient(callerId, supervisorTask);
+      return new LocalParallelIndexTaskClient(callerId, supervisorTask, intermediaryDataManager);
     }
   }
 
   static class LocalParallelIndexTaskClient extends ParallelIndexTaskClient
   {
     private final ParallelIndexSupervisorTask supervisorTask;
+    @Nullable
+    private final IntermediaryDataManager intermediaryDataManager;
 
-    LocalParallelIndexTaskClient(String callerId, ParallelIndexSupervisorTask supervisorTask)
+    LocalParallelIndexTaskClient(
+        String callerId,
+        ParallelIndexSupervisorTask supervisorTask,
+        @Nullable IntermediaryDataManager intermediaryDataManager
+    )
     {
       super(null, null, null, null, callerId, 0);
       this.supervisorTask = supervisorTask;
+      this.intermediaryDataManager = intermediaryDataManager;
     }
 
     @Override
@@ -375,9 +402,31 @@ public class AbstractParallelIndexSupervisorTaskTest extends IngestionTestBase
     }
 
     @Override
-    public void report(String supervisorTaskId, List<DataSegment> pushedSegments)
+    public void report(String supervisorTaskId, SubTaskReport report)
     {
-      supervisorTask.getRunner().collectReport(new PushedSegmentsReport(getSubtaskId(), pushedSegments));
+      supervisorTask.getRunner().collectReport(report);
+    }
+
+    @Override
+    public File fetchPartition(String supervisorTaskId, PartitionLocation location, File partitionFile)
+    {
+      Preconditions.checkNotNull(intermediaryDataManager, "intermediaryDataManager");
+      final File file = intermediaryDataManager.findPartitionFile(
+          supervisorTaskId,
+          location.getSubTaskId(),
+          location.getInterval(),
+          location.getPartitionId()
+      );
+      if (file == null) {
+        throw new ISE("Can't find partition for location[%s]", location);
+      }
+      try {
+        Files.copy(file.toPath(), partitionFile.toPath());
+      }
+      catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      return partitionFile;
     }
   }
 }
@@ -0,0 +1,533 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.common.task.batch.parallel;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.druid.client.indexing.IndexingServiceClient;
+import org.apache.druid.data.input.FiniteFirehoseFactory;
+import org.apache.druid.data.input.InputSplit;
+import org.apache.druid.data.input.impl.StringInputRowParser;
+import org.apache.druid.indexer.TaskState;
+import org.apache.druid.indexing.common.TaskToolbox;
+import org.apache.druid.indexing.common.config.TaskConfig;
+import org.apache.druid.indexing.worker.IntermediaryDataManager;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.indexing.DataSchema;
+import org.apache.druid.segment.indexing.granularity.UniformGranularitySpec;
+import org.apache.druid.segment.realtime.firehose.LocalFirehoseFactory;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.partition.HashBasedNumberedShardSpec;
+import org.apache.druid.timeline.partition.ShardSpec;
+import org.apache.druid.utils.CompressionUtils;
+import org.joda.time.Interval;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MultiPhaseParallelIndexingTest extends AbstractParallelIndexSupervisorTaskTest
+{
+  private File inputDir;
+
+  @Before
+  public void setup() throws IOException
+  {
+    inputDir = temporaryFolder.newFolder("data");
+    // Every file has the same set of rows, so that the rows can be rolled up only across sub tasks.
+    for (int i = 0; i < 5; i++) {
+      try (final Writer writer =
+               Files.newBufferedWriter(new File(inputDir, "test_" + i).toPath(), StandardCharsets.UTF_8)) {
+        for (int j = 0; j < 10; j++) {
+          writer.write(StringUtils.format("2017-12-%d,dim_%d,1\n", 24 + j % 2, j % 5));
+        }
+      }
+    }
+
+    indexingServiceClient = new LocalIndexingServiceClient();
+    localDeepStorage = temporaryFolder.newFolder("localStorage");
+    intermediaryDataManager = new IntermediaryDataManager(
+        new TaskConfig(
+            null,
+            null,
+            null,
+            null,
+            null,
+            false,
+            null,
+            null,
+            temporaryFolder.newFolder("intermediary").getAbsolutePath(),
+            null
+        )
+    );
+  }
+
+  @After
+  public void teardown()
+  {
+    indexingServiceClient.shutdown();
+    temporaryFolder.delete();
+  }
+
+  @Test
+  public void testRun() throws Exception
+  {
+    final ParallelIndexSupervisorTask task = newTask(Intervals.of("2017/2018"), 2);
+    actionClient = createActionClient(task);
+    toolbox = createTaskToolbox(task);
+
+    prepareTaskForLocking(task);
+    Assert.assertTrue(task.isReady(actionClient));
+    Assert.assertEquals(TaskState.SUCCESS, task.run(toolbox).getStatusCode());
+
+    final List<DataSegment> segments = getStorageCoordinator().getUsedSegmentsForInterval(
+        "dataSource",
+        Intervals.of("2017/2018")
+    );
+    final Map<Interval, List<DataSegment>> intervalToSegments = segments
+        .stream()
+        .collect(Collectors.groupingBy(DataSegment::getInterval));
+    Assert.assertEquals(2, intervalToSegments.size());
+
+    for (List<DataSegment> segmentsInInterval : intervalToSegments.values()) {
+      Assert.assertEquals(2, segmentsInInterval.size());
+      int numRows = 0;
+      for (DataSegment segment : segmentsInInterval) {
+        Assert.assertSame(HashBasedNumberedShardSpec.class, segment.getShardSpec().getClass());
+        final HashBasedNumberedShardSpec shardSpec = (HashBasedNumberedShardSpec) segment.getShardSpec();
+        Assert.assertEquals(2, shardSpec.getPartitions());
+        numRows += countRows(segment);
+      }
+      // Perfect rollup: each distinct dimension value appears in exactly one row per interval.
+      Assert.assertEquals(5, numRows);
+    }
+  }
+
+  @Test
+  public void testRunWithEmptyPartitions() throws Exception
+  {
+    // Only 5 distinct dimension values per interval, so most of the 20 hash partitions get no rows.
+    final ParallelIndexSupervisorTask task = newTask(Intervals.of("2017/2018"), 20);
+    actionClient = createActionClient(task);
+    toolbox = createTaskToolbox(task);
+
+    prepareTaskForLocking(task);
+    Assert.assertTrue(task.isReady(actionClient));
+    Assert.assertEquals(TaskState.SUCCESS, task.run(toolbox).getStatusCode());
+
+    final List<DataSegment> segments = getStorageCoordinator().getUsedSegmentsForInterval(
+        "dataSource",
+        Intervals.of("2017/2018")
+    );
+    final Map<Interval, List<DataSegment>> intervalToSegments = segments
+        .stream()
+        .collect(Collectors.groupingBy(DataSegment::getInterval));
+    Assert.assertEquals(2, intervalToSegments.size());
+
+    for (List<DataSegment> segmentsInInterval : intervalToSegments.values()) {
+      final int numPartitions = segmentsInInterval.size();
+      Assert.assertTrue(numPartitions < 20);
+      final List<Integer> partitionNums = new ArrayList<>();
+      int numRows = 0;
+      for (DataSegment segment : segmentsInInterval) {
+        Assert.assertSame(HashBasedNumberedShardSpec.class, segment.getShardSpec().getClass());
+        final HashBasedNumberedShardSpec shardSpec = (HashBasedNumberedShardSpec) segment.getShardSpec();
+        Assert.assertEquals(numPartitions, shardSpec.getPartitions());
+        Assert.assertEquals(20, shardSpec.getNumBuckets());
+        partitionNums.add(shardSpec.getPartitionNum());
+        numRows += countRows(segment);
+      }
+      Collections.sort(partitionNums);
+      Assert.assertEquals(
+          IntStream.range(0, numPartitions).boxed().collect(Collectors.toList()),
+          partitionNums
+      );
+      Assert.assertEquals(5, numRows);
+    }
+  }
+
+  @Test
+  public void testRenumberIncompletePartitions()
+  {
+    final Interval completeInterval = Intervals.of("2017-12-24/P1D");
+    final Interval incompleteInterval = Intervals.of("2017-12-25/P1D");
+    final DataSegment complete0 = newSegment(completeInterval, 0, 2);
+    final DataSegment complete1 = newSegment(completeInterval, 1, 2);
+    final DataSegment incomplete1 = newSegment(incompleteInterval, 1, 4);
+    final DataSegment incomplete3 = newSegment(incompleteInterval, 3, 4);
+
+    final Set<DataSegment> renumbered = ParallelIndexSupervisorTask.renumberIncompletePartitions(
+        ImmutableSet.of(complete0, complete1, incomplete1, incomplete3)
+    );
+    final Map<Integer, ShardSpec> incompleteShardSpecs = new HashMap<>();
+    for (DataSegment segment : renumbered) {
+      if (segment.getInterval().equals(completeInterval)) {
+        Assert.assertSame(HashBasedNumberedShardSpec.class, segment.getShardSpec().getClass());
+      } else {
+        // The test segments keep their original partitionNum in the loadSpec, which renumbering doesn't change.
+        incompleteShardSpecs.put((Integer) segment.getLoadSpec().get("partitionNum"), segment.getShardSpec());
+      }
+    }
+    Assert.assertEquals(4, renumbered.size());
+    assertRenumbered(incompleteShardSpecs.get(1), 0, 2, 1, 4);
+    assertRenumbered(incompleteShardSpecs.get(3), 1, 2, 3, 4);
+  }
+
+  private static void assertRenumbered(
+      ShardSpec shardSpec,
+      int expectedPartitionNum,
+      int expectedPartitions,
+      int expectedBucketId,
+      int expectedNumBuckets
+  )
+  {
+    Assert.assertSame(HashBasedNumberedShardSpec.class, shardSpec.getClass());
+    final HashBasedNumberedShardSpec hashShardSpec = (HashBasedNumberedShardSpec) shardSpec;
+    Assert.assertEquals(expectedPartitionNum, hashShardSpec.getPartitionNum());
+    Assert.assertEquals(expectedPartitions, hashShardSpec.getPartitions());
+    Assert.assertEquals(expectedBucketId, hashShardSpec.getBucketId());
+    Assert.assertEquals(expectedNumBuckets, hashShardSpec.getNumBuckets());
+  }
+
+  @Test
+  public void testCreateMergeIOConfigs()
+  {
+    final Interval interval = Intervals.of("2017-12-24/P1D");
+    final List<GeneratedPartitionsReport> reports = ImmutableList.of(
+        new GeneratedPartitionsReport(
+            "task0",
+            ImmutableList.of(
+                new PartitionStat("host0", 8091, false, interval, 0, 100),
+                new PartitionStat("host0", 8091, false, interval, 1, 10),
+                new PartitionStat("host0", 8091, false, interval, 2, 10)
+            )
+        ),
+        new GeneratedPartitionsReport(
+            "task1",
+            ImmutableList.of(
+                new PartitionStat("host1", 8091, false, interval, 0, 100),
+                new PartitionStat("host1", 8091, false, interval, 2, 10)
+            )
+        )
+    );
+
+    final List<PartialSegmentMergeIOConfig> ioConfigs = ParallelIndexSupervisorTask.createMergeIOConfigs(2, reports);
+    Assert.assertEquals(2, ioConfigs.size());
+
+    // The largest partition is merged alone while the two smaller ones are merged by the other task.
+    final List<List<Integer>> partitionIds = new ArrayList<>();
+    for (PartialSegmentMergeIOConfig ioConfig : ioConfigs) {
+      partitionIds.add(
+          ioConfig.getPartitionLocations()
+                  .stream()
+                  .map(PartitionLocation::getPartitionId)
+                  .distinct()
+                  .sorted()
+                  .collect(Collectors.toList())
+      );
+    }
+    Assert.assertEquals(ImmutableList.of(ImmutableList.of(0), ImmutableList.of(1, 2)), partitionIds);
+    // The partial segments of the same partition must be merged by the same task.
+    Assert.assertEquals(2, ioConfigs.get(0).getPartitionLocations().size());
+  }
+
+  @Test(expected = IAE.class)
+  public void testMissingNumShards()
+  {
+    newTask(Intervals.of("2017/2018"), null);
+  }
+
+  @Test(expected = IAE.class)
+  public void testMissingIntervals()
+  {
+    newTask(null, 2);
+  }
+
+  private static DataSegment newSegment(Interval interval, int partitionNum, int numPartitions)
+  {
+    return new DataSegment(
+        "dataSource",
+        interval,
+        "version",
+        ImmutableMap.of("partitionNum", partitionNum),
+        ImmutableList.of("dim"),
+        ImmutableList.of("val"),
+        new HashBasedNumberedShardSpec(partitionNum, numPartitions, null, null),
+        9,
+        10
+    );
+  }
+
+  private int countRows(DataSegment segment) throws IOException
+  {
+    final File segmentDir = temporaryFolder.newFolder();
+    CompressionUtils.unzip(new File((String) segment.getLoadSpec().get("path")), segmentDir);
+    try (QueryableIndex index = getIndexIO().loadIndex(segmentDir)) {
+      return index.getNumRows();
+    }
+  }
+
+  private ParallelIndexSupervisorTask newTask(Interval interval, Integer numShards)
+  {
+    final ParallelIndexIngestionSpec ingestionSpec = new ParallelIndexIngestionSpec(
+        new DataSchema(
+            "dataSource",
+            getObjectMapper().convertValue(
+                new StringInputRowParser(
+                    DEFAULT_PARSE_SPEC,
+                    null
+                ),
+                Map.class
+            ),
+            new AggregatorFactory[]{
+                new LongSumAggregatorFactory("val", "val")
+            },
+            new UniformGranularitySpec(
+                Granularities.DAY,
+                Granularities.MINUTE,
+                interval == null ? null : Collections.singletonList(interval)
+            ),
+            null,
+            getObjectMapper()
+        ),
+        new ParallelIndexIOConfig(
+            new LocalFirehoseFactory(inputDir, "test_*", null),
+            false
+        ),
+        new ParallelIndexTuningConfig(
+            null,
+            null,
+            null,
+            null,
+            null,
+            numShards,
+            Collections.singletonList("dim"),
+            null,
+            null,
+            true,
+            null,
+            null,
+            null,
+            2,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null
+        )
+    );
+
+    return new TestSupervisorTask(
+        ingestionSpec,
+        new HashMap<>(),
+        indexingServiceClient,
+        intermediaryDataManager
+    );
+  }
+
+  private static class TestSupervisorTask extends TestParallelIndexSupervisorTask
+  {
+    private final IndexingServiceClient indexingServiceClient;
+    private final IntermediaryDataManager intermediaryDataManager;
+
+    TestSupervisorTask(
+        ParallelIndexIngestionSpec ingestionSchema,
+        Map<String, Object> context,
+        IndexingServiceClient indexingServiceClient,
+        IntermediaryDataManager intermediaryDataManager
+    )
+    {
+      super(null, null, ingestionSchema, context, indexingServiceClient);
+      this.indexingServiceClient = indexingServiceClient;
+      this.intermediaryDataManager = intermediaryDataManager;
+    }
+
+    @Override
+    PartialSegmentGenerateParallelIndexTaskRunner createPartialSegmentGenerateRunner(TaskToolbox toolbox)
+    {
+      return new TestPartialSegmentGenerateRunner(toolbox, this, indexingServiceClient, intermediaryDataManager);
+    }
+
+    @Override
+    PartialSegmentMergeParallelIndexTaskRunner createPartialSegmentMergeRunner(
+        TaskToolbox toolbox,
+        List<PartialSegmentMergeIOConfig> ioConfigs
+    )
+    {
+      return new TestPartialSegmentMergeRunner(
+          toolbox,
+          this,
+          ioConfigs,
+          indexingServiceClient,
+          intermediaryDataManager
+      );
+    }
+  }
+
+  private static class TestPartialSegmentGenerateRunner extends PartialSegmentGenerateParallelIndexTaskRunner
+  {
+    private final ParallelIndexSupervisorTask supervisorTask;
+    private final IntermediaryDataManager intermediaryDataManager;
+
+    TestPartialSegmentGenerateRunner(
+        TaskToolbox toolbox,
+        ParallelIndexSupervisorTask supervisorTask,
+        IndexingServiceClient indexingServiceClient,
+        IntermediaryDataManager intermediaryDataManager
+    )
+    {
+      super(
+          toolbox,
+          supervisorTask.getId(),
+          supervisorTask.getGroupId(),
+          supervisorTask.getIngestionSchema(),
+          supervisorTask.getContext(),
+          indexingServiceClient
+      );
+      this.supervisorTask = supervisorTask;
+      this.intermediaryDataManager = intermediaryDataManager;
+    }
+
+    @Override
+    PartialSegmentGenerateTaskSpec newTaskSpec(InputSplit split)
+    {
+      final FiniteFirehoseFactory baseFirehoseFactory = (FiniteFirehoseFactory) getIngestionSchema()
+          .getIOConfig()
+          .getFirehoseFactory();
+      return new PartialSegmentGenerateTaskSpec(
+          supervisorTask.getId() + "_generate_" + getAndIncrementNextSpecId(),
+          supervisorTask.getGroupId(),
+          supervisorTask.getId(),
+          new ParallelIndexIngestionSpec(
+              getIngestionSchema().getDataSchema(),
+              new ParallelIndexIOConfig(
+                  baseFirehoseFactory.withSplit(split),
+                  getIngestionSchema().getIOConfig().isAppendToExisting()
+              ),
+              getIngestionSchema().getTuningConfig()
+          ),
+          supervisorTask.getContext(),
+          split
+      )
+      {
+        @Override
+        public PartialSegmentGenerateTask newSubTask(int numAttempts)
+        {
+          return new PartialSegmentGenerateTask(
+              getId() + "_" + numAttempts,
+              getGroupId(),
+              null,
+              getSupervisorTaskId(),
+              numAttempts,
+              getIngestionSpec(),
+              getContext(),
+              null,
+              new LocalParallelIndexTaskClientFactory(supervisorTask, intermediaryDataManager)
+          );
+        }
+      };
+    }
+  }
+
+  private static class TestPartialSegmentMergeRunner extends PartialSegmentMergeParallelIndexTaskRunner
+  {
+    private final ParallelIndexSupervisorTask supervisorTask;
+    private final IntermediaryDataManager intermediaryDataManager;
+
+    TestPartialSegmentMergeRunner(
+        TaskToolbox toolbox,
+        ParallelIndexSupervisorTask supervisorTask,
+        List<PartialSegmentMergeIOConfig> ioConfigs,
+        IndexingServiceClient indexingServiceClient,
+        IntermediaryDataManager intermediaryDataManager
+    )
+    {
+      super(
+          toolbox,
+          supervisorTask.getId(),
+          supervisorTask.getGroupId(),
+          supervisorTask.getIngestionSchema().getDataSchema(),
+          ioConfigs,
+          supervisorTask.getIngestionSchema().getTuningConfig(),
+          supervisorTask.getContext(),
+          indexingServiceClient
+      );
+      this.supervisorTask = supervisorTask;
+      this.intermediaryDataManager = intermediaryDataManager;
+    }
+
+    @Override
+    PartialSegmentMergeTaskSpec newTaskSpec(PartialSegmentMergeIOConfig ioConfig)
+    {
+      return new PartialSegmentMergeTaskSpec(
+          supervisorTask.getId() + "_merge_" + getAndIncrementNextSpecId(),
+          supervisorTask.getGroupId(),
+          supervisorTask.getId(),
+          new PartialSegmentMergeIngestionSpec(
+              supervisorTask.getIngestionSchema().getDataSchema(),
+              ioConfig,
+              getTuningConfig()
+          ),
+          supervisorTask.getContext()
+      )
+      {
+        @Override
+        public PartialSegmentMergeTask newSubTask(int numAttempts)
+        {
+          return new PartialSegmentMergeTask(
+              getId() + "_" + numAttempts,
+              getGroupId(),
+              null,
+              getSupervisorTaskId(),
+              numAttempts,
+              getIngestionSpec(),
+              getContext(),
+              null,
+              new LocalParallelIndexTaskClientFactory(supervisorTask, intermediaryDataManager)
+          );
+        }
+      };
+    }
+  }
+}
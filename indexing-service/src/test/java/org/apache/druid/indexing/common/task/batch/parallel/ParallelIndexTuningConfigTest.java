@@ -65,6 +65,7 @@ public class ParallelIndexTuningConfigTest
         1000L,
         100L,
         null,
+        null,
         new IndexSpec(
             new RoaringBitmapSerdeFactory(true),
             CompressionStrategy.UNCOMPRESSED,
@@ -83,7 +84,8 @@ public class ParallelIndexTuningConfigTest
         128,
         false,
         null,
-        null
+        null,
+        50
     );
     final byte[] json = mapper.writeValueAsBytes(tuningConfig);
     final ParallelIndexTuningConfig fromJson = (ParallelIndexTuningConfig) mapper.readValue(json, TuningConfig.class);
@@ -76,6 +76,8 @@ public class SingleTaskBackgroundRunnerTest
         null,
         true,
         null,
+        null,
+        null,
         null
     );
     final ServiceEmitter emitter = new NoopServiceEmitter();
@@ -104,7 +106,9 @@ public class SingleTaskBackgroundRunnerTest
         node,
         null,
         null,
-        new TaskReportFileWriter(new File("fake"))
+        new TaskReportFileWriter(new File("fake")),
+        null,
+        null
     );
     runner = new SingleTaskBackgroundRunner(
         toolboxFactory,
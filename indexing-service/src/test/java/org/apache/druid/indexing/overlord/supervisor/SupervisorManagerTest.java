@@ -285,6 +285,31 @@ public class SupervisorManagerTest extends EasyMockSupport
     verifyAll();
   }
 
+  @Test
+  public void testPersistSupervisorSpec()
+  {
+    SupervisorSpec spec = new TestSupervisorSpec("id1", supervisor1);
+    Map<String, SupervisorSpec> existingSpecs = ImmutableMap.of("id1", spec);
+
+    EasyMock.expect(metadataSupervisorManager.getLatest()).andReturn(existingSpecs);
+    supervisor1.start();
+    metadataSupervisorManager.insert("id1", spec);
+    replayAll();
+
+    manager.start();
+    Assert.assertTrue("persistRunningSpec", manager.persistSupervisorSpec(spec));
+    Assert.assertFalse(
+        "persistReplacedSpec",
+        manager.persistSupervisorSpec(new TestSupervisorSpec("id1", supervisor1))
+    );
+    Assert.assertFalse(
+        "persistUnknownSpec",
+        manager.persistSupervisorSpec(new TestSupervisorSpec("nobody_home", supervisor2))
+    );
+
+    verifyAll();
+  }
+
   @Test
   public void testCreateSuspendResumeAndStopSupervisor()
   {
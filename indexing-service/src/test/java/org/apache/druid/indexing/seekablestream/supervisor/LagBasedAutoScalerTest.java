@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.seekablestream.supervisor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class LagBasedAutoScalerTest
+{
+  private static final ObjectMapper MAPPER = new DefaultObjectMapper();
+
+  @Test
+  public void testSerde() throws IOException
+  {
+    final LagBasedAutoScalerConfig config = MAPPER.readValue(
+        "{\"enableTaskAutoScaler\": true, \"taskCountMin\": 2, \"taskCountMax\": 8, \"scaleOutStep\": 3}",
+        LagBasedAutoScalerConfig.class
+    );
+    Assert.assertTrue(config.isEnableTaskAutoScaler());
+    Assert.assertEquals(2, config.getTaskCountMin());
+    Assert.assertEquals(8, config.getTaskCountMax());
+    Assert.assertEquals(3, config.getScaleOutStep());
+    Assert.assertEquals(1, config.getScaleInStep());
+    Assert.assertEquals(30000, config.getLagCollectionIntervalMillis());
+    Assert.assertEquals(
+        config,
+        MAPPER.readValue(MAPPER.writeValueAsString(config), LagBasedAutoScalerConfig.class)
+    );
+  }
+
+  @Test
+  public void testDefaults() throws IOException
+  {
+    final LagBasedAutoScalerConfig config = MAPPER.readValue("{}", LagBasedAutoScalerConfig.class);
+    Assert.assertFalse(config.isEnableTaskAutoScaler());
+    Assert.assertEquals(1, config.getTaskCountMin());
+    Assert.assertEquals(1, config.getTaskCountMax());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxLessThanMin()
+  {
+    makeConfig(4, 2, 1, 2);
+  }
+
+  @Test
+  public void testNoDecisionUntilWindowIsFull()
+  {
+    final LagBasedAutoScaler autoScaler = new LagBasedAutoScaler(makeConfig(1, 10, 2, 1), LagBasedAutoScaler.LagUnit.RECORDS);
+    for (int i = 0; i < 9; i++) {
+      autoScaler.addLagSample(100_000_000);
+    }
+    Assert.assertEquals(2, autoScaler.computeDesiredTaskCount(2, 10, () -> null));
+    autoScaler.addLagSample(100_000_000);
+    Assert.assertEquals(4, autoScaler.computeDesiredTaskCount(2, 10, () -> null));
+  }
+
+  @Test
+  public void testScaleOutIsCappedByPartitionsAndMax()
+  {
+    final LagBasedAutoScaler autoScaler = new LagBasedAutoScaler(makeConfig(1, 6, 4, 1), LagBasedAutoScaler.LagUnit.RECORDS);
+    fill(autoScaler, 100_000_000);
+    Assert.assertEquals(3, autoScaler.computeDesiredTaskCount(2, 3, () -> null));
+    Assert.assertEquals(6, autoScaler.computeDesiredTaskCount(4, 20, () -> null));
+    Assert.assertEquals(6, autoScaler.computeDesiredTaskCount(6, 20, () -> null));
+  }
+
+  @Test
+  public void testScaleOutUsesIngestionRateWhenLagGrows()
+  {
+    final LagBasedAutoScaler autoScaler = new LagBasedAutoScaler(makeConfig(1, 20, 1, 1), LagBasedAutoScaler.LagUnit.RECORDS);
+    // The lag grows by 30,000 rows per 30 seconds, i.e. 1,000 rows per second.
+    for (int i = 0; i < 10; i++) {
+      autoScaler.addLagSample(10_000_000 + i * 30_000L);
+    }
+    // 2 tasks ingest 1,000 rows per second in total, so 4 tasks are needed to catch up with the stream.
+    Assert.assertEquals(4, autoScaler.computeDesiredTaskCount(2, 20, () -> 1000.0));
+    // Unknown rate falls back to the step.
+    Assert.assertEquals(3, autoScaler.computeDesiredTaskCount(2, 20, () -> null));
+  }
+
+  @Test
+  public void testScaleOutWithLagInMillisUsesStep()
+  {
+    final LagBasedAutoScaler autoScaler = new LagBasedAutoScaler(
+        makeConfig(1, 20, 1, 1),
+        LagBasedAutoScaler.LagUnit.MILLIS
+    );
+    // The lag grows by 30 seconds per 30 seconds, which says nothing about the number of rows left to ingest.
+    for (int i = 0; i < 10; i++) {
+      autoScaler.addLagSample(10_000_000 + i * 30_000L);
+    }
+    Assert.assertEquals(
+        3,
+        autoScaler.computeDesiredTaskCount(
+            2,
+            20,
+            () -> {
+              throw new AssertionError("The ingestion rate must not be used with a lag in milliseconds");
+            }
+        )
+    );
+  }
+
+  @Test
+  public void testDefaultThresholdsDependOnLagUnit() throws IOException
+  {
+    final LagBasedAutoScalerConfig config = MAPPER.readValue(
+        "{\"enableTaskAutoScaler\": true, \"taskCountMax\": 10}",
+        LagBasedAutoScalerConfig.class
+    );
+    Assert.assertEquals(6_000_000, config.getScaleOutThreshold(LagBasedAutoScaler.LagUnit.RECORDS));
+    Assert.assertEquals(1_000_000, config.getScaleInThreshold(LagBasedAutoScaler.LagUnit.RECORDS));
+    Assert.assertEquals(600_000, config.getScaleOutThreshold(LagBasedAutoScaler.LagUnit.MILLIS));
+    Assert.assertEquals(60_000, config.getScaleInThreshold(LagBasedAutoScaler.LagUnit.MILLIS));
+
+    // 5 minutes behind in total is between the thresholds for a lag in milliseconds, but would be below the scale in
+    // threshold for a lag in records.
+    final LagBasedAutoScaler millisAutoScaler = new LagBasedAutoScaler(config, LagBasedAutoScaler.LagUnit.MILLIS);
+    final LagBasedAutoScaler recordsAutoScaler = new LagBasedAutoScaler(config, LagBasedAutoScaler.LagUnit.RECORDS);
+    for (int i = 0; i < 20; i++) {
+      millisAutoScaler.addLagSample(300_000);
+      recordsAutoScaler.addLagSample(300_000);
+    }
+    Assert.assertEquals(5, millisAutoScaler.computeDesiredTaskCount(5, 10, () -> null));
+    Assert.assertEquals(4, recordsAutoScaler.computeDesiredTaskCount(5, 10, () -> null));
+
+    final LagBasedAutoScalerConfig configuredConfig = MAPPER.readValue(
+        "{\"enableTaskAutoScaler\": true, \"scaleOutThreshold\": 1000, \"scaleInThreshold\": 100}",
+        LagBasedAutoScalerConfig.class
+    );
+    Assert.assertEquals(1000, configuredConfig.getScaleOutThreshold(LagBasedAutoScaler.LagUnit.MILLIS));
+    Assert.assertEquals(100, configuredConfig.getScaleInThreshold(LagBasedAutoScaler.LagUnit.RECORDS));
+    Assert.assertEquals(
+        configuredConfig,
+        MAPPER.readValue(MAPPER.writeValueAsString(configuredConfig), LagBasedAutoScalerConfig.class)
+    );
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testScaleInThresholdAboveDefaultScaleOutThreshold() throws IOException
+  {
+    // Valid for a lag in records, but not for a lag in milliseconds.
+    final LagBasedAutoScalerConfig config = MAPPER.readValue(
+        "{\"enableTaskAutoScaler\": true, \"scaleInThreshold\": 1000000}",
+        LagBasedAutoScalerConfig.class
+    );
+    new LagBasedAutoScaler(config, LagBasedAutoScaler.LagUnit.MILLIS);
+  }
+
+  @Test
+  public void testScaleIn()
+  {
+    final LagBasedAutoScaler autoScaler = new LagBasedAutoScaler(makeConfig(2, 10, 1, 1), LagBasedAutoScaler.LagUnit.RECORDS);
+    fill(autoScaler, 10);
+    Assert.assertEquals(4, autoScaler.computeDesiredTaskCount(5, 10, () -> null));
+    Assert.assertEquals(2, autoScaler.computeDesiredTaskCount(2, 10, () -> null));
+  }
+
+  @Test
+  public void testNoActionBetweenThresholds()
+  {
+    final LagBasedAutoScaler autoScaler = new LagBasedAutoScaler(makeConfig(1, 10, 1, 1), LagBasedAutoScaler.LagUnit.RECORDS);
+    fill(autoScaler, 3_000_000);
+    Assert.assertEquals(5, autoScaler.computeDesiredTaskCount(5, 10, () -> null));
+  }
+
+  @Test
+  public void testClearLagSamples()
+  {
+    final LagBasedAutoScaler autoScaler = new LagBasedAutoScaler(makeConfig(1, 10, 1, 1), LagBasedAutoScaler.LagUnit.RECORDS);
+    fill(autoScaler, 100_000_000);
+    autoScaler.clearLagSamples();
+    Assert.assertEquals(5, autoScaler.computeDesiredTaskCount(5, 10, () -> null));
+  }
+
+  private static void fill(LagBasedAutoScaler autoScaler, long lag)
+  {
+    for (int i = 0; i < 10; i++) {
+      autoScaler.addLagSample(lag);
+    }
+  }
+
+  private static LagBasedAutoScalerConfig makeConfig(int min, int max, int scaleOutStep, int scaleInStep)
+  {
+    // 10 samples per window
+    return new LagBasedAutoScalerConfig(
+        true,
+        min,
+        max,
+        30_000L,
+        300_000L,
+        6_000_000L,
+        1_000_000L,
+        null,
+        null,
+        null,
+        null,
+        null,
+        scaleOutStep,
+        scaleInStep
+    );
+  }
+}
@@ -594,6 +594,7 @@ public class SeekableStreamSupervisorStateTest extends EasyMockSupport
         false,
         new Period("PT30M"),
         null,
+        null,
         null
     )
     {
@@ -655,6 +656,11 @@ public class SeekableStreamSupervisorStateTest extends EasyMockSupport
             null,
             null,
             null,
+            null,
+            null,
+            null,
+            null,
+            null,
             null
         )
         {
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.worker;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.io.FileUtils;
+import org.apache.druid.indexing.common.config.TaskConfig;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.partition.NumberedShardSpec;
+import org.joda.time.Interval;
+import org.joda.time.Period;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class IntermediaryDataManagerTest
+{
+  private static final Interval INTERVAL = Intervals.of("2019-01-01/P1D");
+
+  @Rule
+  public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private IntermediaryDataManager intermediaryDataManager;
+
+  @Before
+  public void setup() throws IOException
+  {
+    intermediaryDataManager = new IntermediaryDataManager(
+        new TaskConfig(
+            null,
+            null,
+            null,
+            null,
+            null,
+            false,
+            null,
+            null,
+            tempDir.newFolder("intermediary").getAbsolutePath(),
+            new Period("PT1H")
+        )
+    );
+  }
+
+  @Test
+  public void testAddAndFindPartition() throws IOException
+  {
+    final long size = intermediaryDataManager.addSegment("supervisorTask", "subTask", newSegment(1), newSegmentDir());
+    final File partitionFile = intermediaryDataManager.findPartitionFile("supervisorTask", "subTask", INTERVAL, 1);
+    Assert.assertNotNull(partitionFile);
+    Assert.assertEquals(4, size);
+
+    Assert.assertNull(intermediaryDataManager.findPartitionFile("supervisorTask", "subTask", INTERVAL, 0));
+    Assert.assertNull(intermediaryDataManager.findPartitionFile("supervisorTask", "otherSubTask", INTERVAL, 1));
+    Assert.assertNull(intermediaryDataManager.findPartitionFile("otherSupervisorTask", "subTask", INTERVAL, 1));
+  }
+
+  @Test
+  public void testDeletePartitions() throws IOException
+  {
+    intermediaryDataManager.addSegment("supervisorTask", "subTask", newSegment(0), newSegmentDir());
+    intermediaryDataManager.addSegment("otherSupervisorTask", "subTask", newSegment(0), newSegmentDir());
+
+    intermediaryDataManager.deletePartitions("supervisorTask");
+    Assert.assertNull(intermediaryDataManager.findPartitionFile("supervisorTask", "subTask", INTERVAL, 0));
+    Assert.assertNotNull(intermediaryDataManager.findPartitionFile("otherSupervisorTask", "subTask", INTERVAL, 0));
+  }
+
+  @Test
+  public void testDeleteExpiredPartitions() throws IOException
+  {
+    intermediaryDataManager.addSegment("supervisorTask", "subTask", newSegment(0), newSegmentDir());
+
+    final long now = System.currentTimeMillis();
+    intermediaryDataManager.deleteExpiredPartitions(now);
+    Assert.assertNotNull(intermediaryDataManager.findPartitionFile("supervisorTask", "subTask", INTERVAL, 0));
+
+    intermediaryDataManager.deleteExpiredPartitions(now + new Period("PT2H").toStandardDuration().getMillis());
+    Assert.assertNull(intermediaryDataManager.findPartitionFile("supervisorTask", "subTask", INTERVAL, 0));
+  }
+
+  @Test(expected = IAE.class)
+  public void testFindPartitionWithInvalidTaskId()
+  {
+    intermediaryDataManager.findPartitionFile("..", "subTask", INTERVAL, 0);
+  }
+
+  @Test(expected = IAE.class)
+  public void testDeletePartitionsWithInvalidTaskId() throws IOException
+  {
+    intermediaryDataManager.deletePartitions("../intermediary");
+  }
+
+  private File newSegmentDir() throws IOException
+  {
+    final File segmentDir = tempDir.newFolder();
+    FileUtils.write(new File(segmentDir, "version.bin"), "test", StandardCharsets.UTF_8);
+    return segmentDir;
+  }
+
+  private static DataSegment newSegment(int partitionId)
+  {
+    return new DataSegment(
+        "dataSource",
+        INTERVAL,
+        "version",
+        ImmutableMap.of(),
+        ImmutableList.of(),
+        ImmutableList.of(),
+        new NumberedShardSpec(partitionId, 0),
+        9,
+        0
+    );
+  }
+}
@@ -85,6 +85,8 @@ public class WorkerTaskManagerTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
     TaskActionClientFactory taskActionClientFactory = EasyMock.createNiceMock(TaskActionClientFactory.class);
@@ -130,7 +132,9 @@ public class WorkerTaskManagerTest
                 null,
                 null,
                 null,
-                new NoopTestTaskFileWriter()
+                new NoopTestTaskFileWriter(),
+                null,
+                null
             ),
             taskConfig,
             location
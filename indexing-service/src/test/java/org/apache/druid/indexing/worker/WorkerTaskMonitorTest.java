@@ -153,6 +153,8 @@ public class WorkerTaskMonitorTest
         null,
         false,
         null,
+        null,
+        null,
         null
     );
     TaskActionClientFactory taskActionClientFactory = EasyMock.createNiceMock(TaskActionClientFactory.class);
@@ -178,7 +180,9 @@ public class WorkerTaskMonitorTest
                 null,
                 null,
                 null,
-                new NoopTestTaskFileWriter()
+                new NoopTestTaskFileWriter(),
+                null,
+                null
             ),
             taskConfig,
             new NoopServiceEmitter(),
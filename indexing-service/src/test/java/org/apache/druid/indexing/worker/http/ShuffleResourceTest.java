@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.worker.http;
+
+import org.apache.druid.indexing.common.config.TaskConfig;
+import org.apache.druid.indexing.worker.IntermediaryDataManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+
+public class ShuffleResourceTest
+{
+  @Rule
+  public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private ShuffleResource shuffleResource;
+
+  @Before
+  public void setup() throws IOException
+  {
+    shuffleResource = new ShuffleResource(
+        new IntermediaryDataManager(
+            new TaskConfig(
+                null,
+                null,
+                null,
+                null,
+                null,
+                false,
+                null,
+                null,
+                tempDir.newFolder("intermediary").getAbsolutePath(),
+                null
+            )
+        )
+    );
+  }
+
+  @Test
+  public void testGetPartitionWithoutPartitionId()
+  {
+    final Response response = shuffleResource.getPartition(
+        "supervisorTask",
+        "subTask",
+        "2019-01-01",
+        "2019-01-02",
+        null
+    );
+    Assert.assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+  }
+
+  @Test
+  public void testGetPartitionWithoutInterval()
+  {
+    final Response response = shuffleResource.getPartition("supervisorTask", "subTask", null, null, 0);
+    Assert.assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+  }
+
+  @Test
+  public void testGetMissingPartition()
+  {
+    final Response response = shuffleResource.getPartition(
+        "supervisorTask",
+        "subTask",
+        "2019-01-01",
+        "2019-01-02",
+        0
+    );
+    Assert.assertEquals(Response.Status.NOT_FOUND.getStatusCode(), response.getStatus());
+  }
+
+  @Test
+  public void testGetPartitionWithInvalidIntervalReturnsMessageOnly()
+  {
+    final Response response = shuffleResource.getPartition(
+        "supervisorTask",
+        "subTask",
+        "2019-01-02",
+        "2019-01-01",
+        0
+    );
+    Assert.assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    Assert.assertEquals("The end instant must be greater than the start instant", response.getEntity());
+  }
+}
@@ -22,6 +22,7 @@ package org.apache.druid.query;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
 import org.apache.druid.segment.ReferenceCountingSegment;
+import org.apache.druid.segment.virtual.ExpressionColumnCache;
 
 import java.util.Map;
 
@@ -49,6 +50,7 @@ public class ReferenceCountingSegmentQueryRunner<T> implements QueryRunner<T>
   {
     if (adapter.increment()) {
       try {
+        ExpressionColumnCache.instance().registerSegment(adapter);
         final Sequence<T> baseSequence = factory.createRunner(adapter).run(queryPlus, responseContext);
 
         return Sequences.withBaggage(baseSequence, adapter.decrementOnceCloseable());
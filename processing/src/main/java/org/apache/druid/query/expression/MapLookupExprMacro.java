@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.query.expression;
+
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.math.expr.Expr;
+import org.apache.druid.math.expr.ExprEval;
+import org.apache.druid.math.expr.ExprMacroTable;
+import org.apache.druid.query.extraction.MapLookupExtractor;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code map_lookup(expr, key1, value1, key2, value2, ...)} looks up the value of expr in the map of the given literal
+ * key/value pairs, like a {@link org.apache.druid.query.lookup.LookupExtractionFn} over a {@link MapLookupExtractor}
+ * would. Returns null if the map has no such key. The map is built once, so evaluation doesn't depend on its size.
+ */
+public class MapLookupExprMacro implements ExprMacroTable.ExprMacro
+{
+  @Override
+  public String name()
+  {
+    return "map_lookup";
+  }
+
+  @Override
+  public Expr apply(final List<Expr> args)
+  {
+    if (args.isEmpty() || args.size() % 2 != 1) {
+      throw new IAE("Function[%s] must have an odd number of arguments", name());
+    }
+
+    final Map<String, String> map = new HashMap<>();
+    for (int i = 1; i < args.size(); i += 2) {
+      final Expr keyExpr = args.get(i);
+      final Expr valueExpr = args.get(i + 1);
+      if (!keyExpr.isLiteral() || !valueExpr.isLiteral()) {
+        throw new IAE("Function[%s] keys and values must be literals", name());
+      }
+      final String key = stringValue(keyExpr);
+      if (map.containsKey(key)) {
+        throw new IAE("Function[%s] has duplicate key[%s]", name(), key);
+      }
+      map.put(key, stringValue(valueExpr));
+    }
+    final MapLookupExtractor lookup = new MapLookupExtractor(map, false);
+
+    class MapLookupExpr extends ExprMacroTable.BaseScalarUnivariateMacroFunctionExpr
+    {
+      private MapLookupExpr(Expr arg)
+      {
+        super(arg);
+      }
+
+      @Nonnull
+      @Override
+      public ExprEval eval(final ObjectBinding bindings)
+      {
+        return ExprEval.of(lookup.apply(NullHandling.emptyToNullIfNeeded(arg.eval(bindings).asString())));
+      }
+
+      @Override
+      public Expr visit(Shuttle shuttle)
+      {
+        Expr newArg = arg.visit(shuttle);
+        return shuttle.visit(new MapLookupExpr(newArg));
+      }
+    }
+
+    return new MapLookupExpr(args.get(0));
+  }
+
+  private static String stringValue(final Expr literal)
+  {
+    final Object value = literal.getLiteralValue();
+    return value == null ? null : value.toString();
+  }
+}
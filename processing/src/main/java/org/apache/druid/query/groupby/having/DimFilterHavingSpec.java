@@ -22,6 +22,7 @@ package org.apache.druid.query.groupby.having;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import org.apache.druid.data.input.InputRow;
 import org.apache.druid.data.input.Row;
 import org.apache.druid.query.aggregation.AggregatorFactory;
@@ -40,6 +41,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 public class DimFilterHavingSpec extends BaseHavingSpec
 {
@@ -163,6 +165,12 @@ public class DimFilterHavingSpec extends BaseHavingSpec
               {
                 return row -> aggregator.finalizeComputation(row.getRaw(name));
               }
+
+              @Override
+              public Set<String> getRequiredColumns()
+              {
+                return ImmutableSet.of(name);
+              }
             }
         );
       }
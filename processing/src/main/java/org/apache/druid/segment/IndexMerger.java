@@ -63,6 +63,7 @@ public interface IndexMerger
 
   SerializerUtils serializerUtils = new SerializerUtils();
   int INVALID_ROW = -1;
+  int UNLIMITED_MAX_COLUMNS_TO_MERGE = -1;
 
   static List<String> getMergedDimensionsFromQueryableIndexes(List<QueryableIndex> indexes)
   {
@@ -208,6 +209,28 @@ public interface IndexMerger
       @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory
   ) throws IOException;
 
+  /**
+   * Merges the given indexes like {@link #mergeQueryableIndex(List, boolean, AggregatorFactory[], File, IndexSpec,
+   * ProgressIndicator, SegmentWriteOutMediumFactory)}, but in multiple phases if the total number of columns of the
+   * indexes is larger than maxColumnsToMerge. Memory used for merging, such as the decompression buffers and the
+   * dictionary id conversion buffers, grows with the number of columns of all indexes merged at once. Each phase merges
+   * a group of at most maxColumnsToMerge columns (but at least two indexes) into an intermediate segment, and the
+   * intermediate segments are merged again until a single segment remains.
+   *
+   * @param maxColumnsToMerge the maximum total number of columns merged in a single phase, or
+   *                          {@link #UNLIMITED_MAX_COLUMNS_TO_MERGE} to merge all indexes at once
+   */
+  File mergeQueryableIndex(
+      List<QueryableIndex> indexes,
+      boolean rollup,
+      AggregatorFactory[] metricAggs,
+      File outDir,
+      IndexSpec indexSpec,
+      ProgressIndicator progress,
+      @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory,
+      int maxColumnsToMerge
+  ) throws IOException;
+
   @VisibleForTesting
   File merge(
       List<IndexableAdapter> indexes,
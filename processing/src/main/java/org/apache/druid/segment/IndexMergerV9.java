@@ -20,6 +20,7 @@
 package org.apache.druid.segment;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -34,6 +35,7 @@ import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.JodaUtils;
+import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.guava.Comparators;
 import org.apache.druid.java.util.common.io.Closer;
 import org.apache.druid.java.util.common.io.smoosh.FileSmoosher;
@@ -371,7 +373,7 @@ public class IndexMergerV9 implements IndexMerger
     progress.stopSection(section);
   }
 
-  static ColumnPartSerde createLongColumnPartSerde(GenericColumnSerializer serializer, IndexSpec indexSpec)
+  public static ColumnPartSerde createLongColumnPartSerde(GenericColumnSerializer serializer, IndexSpec indexSpec)
   {
     // If using default values for null use LongNumericColumnPartSerde to allow rollback to previous versions.
     if (NullHandling.replaceWithDefault()) {
@@ -388,7 +390,7 @@ public class IndexMergerV9 implements IndexMerger
     }
   }
 
-  static ColumnPartSerde createDoubleColumnPartSerde(GenericColumnSerializer serializer, IndexSpec indexSpec)
+  public static ColumnPartSerde createDoubleColumnPartSerde(GenericColumnSerializer serializer, IndexSpec indexSpec)
   {
     // If using default values for null use DoubleNumericColumnPartSerde to allow rollback to previous versions.
     if (NullHandling.replaceWithDefault()) {
@@ -405,7 +407,7 @@ public class IndexMergerV9 implements IndexMerger
     }
   }
 
-  static ColumnPartSerde createFloatColumnPartSerde(GenericColumnSerializer serializer, IndexSpec indexSpec)
+  public static ColumnPartSerde createFloatColumnPartSerde(GenericColumnSerializer serializer, IndexSpec indexSpec)
   {
     // If using default values for null use FloatNumericColumnPartSerde to allow rollback to previous versions.
     if (NullHandling.replaceWithDefault()) {
@@ -613,7 +615,7 @@ public class IndexMergerV9 implements IndexMerger
     return metWriters;
   }
 
-  static GenericColumnSerializer createLongColumnSerializer(
+  public static GenericColumnSerializer createLongColumnSerializer(
       SegmentWriteOutMedium segmentWriteOutMedium,
       String columnName,
       IndexSpec indexSpec
@@ -638,7 +640,7 @@ public class IndexMergerV9 implements IndexMerger
     }
   }
 
-  static GenericColumnSerializer createDoubleColumnSerializer(
+  public static GenericColumnSerializer createDoubleColumnSerializer(
       SegmentWriteOutMedium segmentWriteOutMedium,
       String columnName,
       IndexSpec indexSpec
@@ -661,7 +663,7 @@ public class IndexMergerV9 implements IndexMerger
     }
   }
 
-  static GenericColumnSerializer createFloatColumnSerializer(
+  public static GenericColumnSerializer createFloatColumnSerializer(
       SegmentWriteOutMedium segmentWriteOutMedium,
       String columnName,
       IndexSpec indexSpec
@@ -830,14 +832,39 @@ public class IndexMergerV9 implements IndexMerger
       @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory
   ) throws IOException
   {
-    return merge(
+    return mergeQueryableIndex(
+        indexes,
+        rollup,
+        metricAggs,
+        outDir,
+        indexSpec,
+        progress,
+        segmentWriteOutMediumFactory,
+        UNLIMITED_MAX_COLUMNS_TO_MERGE
+    );
+  }
+
+  @Override
+  public File mergeQueryableIndex(
+      List<QueryableIndex> indexes,
+      boolean rollup,
+      final AggregatorFactory[] metricAggs,
+      File outDir,
+      IndexSpec indexSpec,
+      ProgressIndicator progress,
+      @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory,
+      int maxColumnsToMerge
+  ) throws IOException
+  {
+    return multiphaseMerge(
         IndexMerger.toIndexableAdapters(indexes),
         rollup,
         metricAggs,
         outDir,
         indexSpec,
         progress,
-        segmentWriteOutMediumFactory
+        segmentWriteOutMediumFactory,
+        maxColumnsToMerge
     );
   }
 
@@ -853,6 +880,123 @@ public class IndexMergerV9 implements IndexMerger
     return merge(indexes, rollup, metricAggs, outDir, indexSpec, new BaseProgressIndicator(), null);
   }
 
+  private File multiphaseMerge(
+      List<IndexableAdapter> indexes,
+      final boolean rollup,
+      final AggregatorFactory[] metricAggs,
+      File outDir,
+      IndexSpec indexSpec,
+      ProgressIndicator progress,
+      @Nullable SegmentWriteOutMediumFactory segmentWriteOutMediumFactory,
+      int maxColumnsToMerge
+  ) throws IOException
+  {
+    List<List<IndexableAdapter>> currentPhases = maxColumnsToMerge == UNLIMITED_MAX_COLUMNS_TO_MERGE
+                                                 ? Collections.singletonList(indexes)
+                                                 : getMergePhases(indexes, maxColumnsToMerge);
+    if (currentPhases.size() == 1) {
+      return merge(indexes, rollup, metricAggs, outDir, indexSpec, progress, segmentWriteOutMediumFactory);
+    }
+
+    final File baseDir = outDir.getAbsoluteFile().getParentFile();
+    final Closer closer = Closer.create();
+    try {
+      for (int tier = 0; ; tier++) {
+        log.info(
+            "Merging [%,d] indexes with [%,d] columns in [%,d] phases at tier[%d] with maxColumnsToMerge[%,d]",
+            currentPhases.stream().mapToInt(List::size).sum(),
+            currentPhases.stream().mapToInt(IndexMergerV9::getColumnCount).sum(),
+            currentPhases.size(),
+            tier,
+            maxColumnsToMerge
+        );
+        if (currentPhases.size() == 1) {
+          // The last phase writes the final segment to the given outDir.
+          return merge(
+              currentPhases.get(0),
+              rollup,
+              metricAggs,
+              outDir,
+              indexSpec,
+              progress,
+              segmentWriteOutMediumFactory
+          );
+        }
+
+        final List<File> phaseOutDirs = new ArrayList<>(currentPhases.size());
+        for (int i = 0; i < currentPhases.size(); i++) {
+          final File phaseOutDir = new File(baseDir, StringUtils.format("%s_tier%d_%d", outDir.getName(), tier, i));
+          closer.register(() -> FileUtils.deleteQuietly(phaseOutDir));
+          phaseOutDirs.add(
+              merge(
+                  currentPhases.get(i),
+                  rollup,
+                  metricAggs,
+                  phaseOutDir,
+                  indexSpec,
+                  progress,
+                  segmentWriteOutMediumFactory
+              )
+          );
+        }
+
+        final List<IndexableAdapter> phaseOutputs = new ArrayList<>(phaseOutDirs.size());
+        for (File phaseOutDir : phaseOutDirs) {
+          final QueryableIndex index = indexIO.loadIndex(phaseOutDir);
+          closer.register(index);
+          phaseOutputs.add(new QueryableIndexIndexableAdapter(index));
+        }
+        currentPhases = getMergePhases(phaseOutputs, maxColumnsToMerge);
+      }
+    }
+    catch (Throwable t) {
+      throw closer.rethrow(t);
+    }
+    finally {
+      closer.close();
+    }
+  }
+
+  /**
+   * Groups the given indexes, in order, so that the total number of columns of each group doesn't exceed
+   * maxColumnsToMerge. Each group has at least two indexes to make sure that every phase makes progress.
+   */
+  @VisibleForTesting
+  static List<List<IndexableAdapter>> getMergePhases(List<IndexableAdapter> indexes, int maxColumnsToMerge)
+  {
+    final List<List<IndexableAdapter>> phases = new ArrayList<>();
+    List<IndexableAdapter> currentPhase = new ArrayList<>();
+    int currentColumnCount = 0;
+    for (IndexableAdapter index : indexes) {
+      final int columnCount = getColumnCount(index);
+      if (currentPhase.size() > 1 && currentColumnCount + columnCount > maxColumnsToMerge) {
+        phases.add(currentPhase);
+        currentPhase = new ArrayList<>();
+        currentColumnCount = 0;
+      }
+      currentPhase.add(index);
+      currentColumnCount += columnCount;
+    }
+    if (currentPhase.size() == 1 && !phases.isEmpty()) {
+      // A single trailing index doesn't need its own phase.
+      phases.get(phases.size() - 1).add(currentPhase.get(0));
+    } else if (!currentPhase.isEmpty()) {
+      phases.add(currentPhase);
+    }
+    return phases;
+  }
+
+  private static int getColumnCount(List<IndexableAdapter> indexes)
+  {
+    return indexes.stream().mapToInt(IndexMergerV9::getColumnCount).sum();
+  }
+
+  private static int getColumnCount(IndexableAdapter index)
+  {
+    // +1 for the time column
+    return index.getDimensionNames().size() + index.getMetricNames().size() + 1;
+  }
+
   private File merge(
       List<IndexableAdapter> indexes,
       final boolean rollup,
@@ -160,4 +160,17 @@ public interface VirtualColumn extends Cacheable
   {
     throw new UnsupportedOperationException("not supported");
   }
+
+  /**
+   * Returns a BitmapIndex for this column on the given segment if one happens to be available there, even though
+   * {@link ColumnCapabilities} returned from {@link #capabilities(String)} don't have the flag for BitmapIndex support,
+   * e.g. because the column was materialized for this segment. Only used if the capabilities don't have that flag.
+   *
+   * @return BitmapIndex, or null if there is none on this segment
+   */
+  @Nullable
+  default BitmapIndex getSegmentBitmapIndex(String columnName, ColumnSelector selector)
+  {
+    return null;
+  }
 }
@@ -179,7 +179,9 @@ public class VirtualColumns implements Cacheable
     if (virtualColumn == null) {
       throw new IAE("No such virtual column[%s]", columnName);
     } else {
-      return virtualColumn.capabilities(columnName).hasBitmapIndexes() ? virtualColumn.getBitmapIndex(columnName, columnSelector) : null;
+      return virtualColumn.capabilities(columnName).hasBitmapIndexes()
+             ? virtualColumn.getBitmapIndex(columnName, columnSelector)
+             : virtualColumn.getSegmentBitmapIndex(columnName, columnSelector);
     }
   }
 
@@ -26,7 +26,9 @@ import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.math.expr.Evals;
 import org.apache.druid.math.expr.Expr;
 import org.apache.druid.math.expr.ExprEval;
+import org.apache.druid.math.expr.Parser;
 import org.apache.druid.query.BitmapResultFactory;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
 import org.apache.druid.query.expression.ExprUtils;
 import org.apache.druid.query.filter.BitmapIndexSelector;
 import org.apache.druid.query.filter.Filter;
@@ -35,8 +37,11 @@ import org.apache.druid.query.monomorphicprocessing.RuntimeShapeInspector;
 import org.apache.druid.segment.ColumnSelector;
 import org.apache.druid.segment.ColumnSelectorFactory;
 import org.apache.druid.segment.ColumnValueSelector;
+import org.apache.druid.segment.column.ColumnCapabilities;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.virtual.ExpressionSelectors;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Set;
 
@@ -54,32 +59,31 @@ public class ExpressionFilter implements Filter
   @Override
   public ValueMatcher makeMatcher(final ColumnSelectorFactory factory)
   {
+    final Expr.BindingDetails details = expr.get().analyzeInputs();
+    Parser.validateExpr(expr.get(), details);
+    if (details.getRequiredColumns().size() == 1) {
+      final String column = Iterables.getOnlyElement(details.getRequiredColumns());
+      final ColumnCapabilities capabilities = factory.getColumnCapabilities(column);
+      if (capabilities != null
+          && capabilities.getType() == ValueType.STRING
+          && capabilities.isDictionaryEncoded()
+          && capabilities.isComplete()
+          && !capabilities.hasMultipleValues()
+          && !details.getArrayVariables().contains(column)) {
+        // Optimization for expressions that hit one string column and nothing else: evaluate the expression once per
+        // dictionary entry instead of once per row, by letting the selector remember which ids match.
+        return factory.makeDimensionSelector(DefaultDimensionSpec.of(column))
+                      .makeValueMatcher(value -> matches(expr.get().eval(identifierName -> value)));
+      }
+    }
+
     final ColumnValueSelector<ExprEval> selector = ExpressionSelectors.makeExprEvalSelector(factory, expr.get());
     return new ValueMatcher()
     {
       @Override
       public boolean matches()
       {
-        if (NullHandling.sqlCompatible() && selector.isNull()) {
-          return false;
-        }
-        ExprEval eval = selector.getObject();
-        if (eval == null) {
-          return false;
-        }
-        switch (eval.type()) {
-          case LONG_ARRAY:
-            Long[] lResult = eval.asLongArray();
-            return Arrays.stream(lResult).anyMatch(Evals::asBoolean);
-          case STRING_ARRAY:
-            String[] sResult = eval.asStringArray();
-            return Arrays.stream(sResult).anyMatch(Evals::asBoolean);
-          case DOUBLE_ARRAY:
-            Double[] dResult = eval.asDoubleArray();
-            return Arrays.stream(dResult).anyMatch(Evals::asBoolean);
-          default:
-            return Evals.asBoolean(selector.getLong());
-        }
+        return ExpressionFilter.matches(selector.getObject());
       }
 
       @Override
@@ -90,6 +94,26 @@ public class ExpressionFilter implements Filter
     };
   }
 
+  private static boolean matches(@Nullable final ExprEval eval)
+  {
+    if (eval == null || (NullHandling.sqlCompatible() && eval.isNumericNull())) {
+      return false;
+    }
+    switch (eval.type()) {
+      case LONG_ARRAY:
+        Long[] lResult = eval.asLongArray();
+        return Arrays.stream(lResult).anyMatch(Evals::asBoolean);
+      case STRING_ARRAY:
+        String[] sResult = eval.asStringArray();
+        return Arrays.stream(sResult).anyMatch(Evals::asBoolean);
+      case DOUBLE_ARRAY:
+        Double[] dResult = eval.asDoubleArray();
+        return Arrays.stream(dResult).anyMatch(Evals::asBoolean);
+      default:
+        return Evals.asBoolean(eval.asLong());
+    }
+  }
+
   @Override
   public boolean supportsBitmapIndex(final BitmapIndexSelector selector)
   {
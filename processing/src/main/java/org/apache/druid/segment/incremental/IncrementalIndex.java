@@ -418,7 +418,6 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
       return this;
     }
 
-    //maxBytesInMemory only applies to OnHeapIncrementalIndex
     public Builder setMaxBytesInMemory(final long maxBytesInMemory)
     {
       this.maxBytesInMemory = maxBytesInMemory;
@@ -443,6 +442,20 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
     }
 
     public IncrementalIndex buildOffheap(final NonBlockingPool<ByteBuffer> bufferPool)
+    {
+      return buildOffheapInternal(Objects.requireNonNull(bufferPool, "bufferPool is null"));
+    }
+
+    /**
+     * Builds an {@link OffheapIncrementalIndex} which allocates its aggregator buffers from a direct memory arena of
+     * its own rather than from a shared pool. The arena is freed when the index is closed.
+     */
+    public IncrementalIndex buildOffheap()
+    {
+      return buildOffheapInternal(null);
+    }
+
+    private IncrementalIndex buildOffheapInternal(@Nullable final NonBlockingPool<ByteBuffer> bufferPool)
     {
       if (maxRowCount <= 0) {
         throw new IllegalArgumentException("Invalid max row count: " + maxRowCount);
@@ -455,7 +468,8 @@ public abstract class IncrementalIndex<AggregatorType> extends AbstractIndex imp
           concurrentEventAdd,
           sortFacts,
           maxRowCount,
-          Objects.requireNonNull(bufferPool, "bufferPool is null")
+          maxBytesInMemory,
+          bufferPool
       );
     }
   }
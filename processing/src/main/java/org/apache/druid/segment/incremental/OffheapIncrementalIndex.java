@@ -23,6 +23,7 @@ import com.google.common.base.Supplier;
 import org.apache.druid.collections.NonBlockingPool;
 import org.apache.druid.collections.ResourceHolder;
 import org.apache.druid.data.input.InputRow;
+import org.apache.druid.java.util.common.ByteBufferUtils;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.StringUtils;
@@ -33,6 +34,7 @@ import org.apache.druid.query.aggregation.AggregatorFactory;
 import org.apache.druid.query.aggregation.BufferAggregator;
 import org.apache.druid.segment.ColumnSelectorFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -40,15 +42,41 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * An {@link IncrementalIndex} keeping the intermediate aggregates of each row in direct memory, using
+ * {@link BufferAggregator}s. The aggregator slots of a row are laid out contiguously in chunks taken from either a
+ * caller-supplied buffer pool or, if none is given, an arena of direct buffers owned by this index which grows on
+ * demand and is freed on {@link #close()}. Chunks are only taken when a row needs them, so an empty index holds none.
  *
+ * {@link #getBytesInMemory()} reports the on-heap size of the rows. The direct memory held by the chunks is reported
+ * separately by {@link #getOffheapBytesInMemory()}. Both are checked against {@code maxBytesInMemory} on their own, so
+ * that neither the heap nor the direct memory used by the index exceeds it. Callers which skip the checks when adding
+ * rows, like the on-heap index allows, can make an index allocating from its own arena grow beyond it.
+ *
+ * Each row takes the {@link AggregatorFactory#getMaxIntermediateSizeWithNulls() maximum intermediate size} of its
+ * aggregators in the chunks, whatever it actually holds, since buffer aggregators can't grow. For sketches, this is
+ * far more than a row usually needs on heap, like 256KB per row for a theta sketch of size 16384, so such indexes hold
+ * fewer rows before {@code maxBytesInMemory} is reached.
  */
 public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
 {
   private static final Logger log = new Logger(OffheapIncrementalIndex.class);
 
+  /**
+   * Default size of the chunks allocated by the arena when no buffer pool is given. A chunk is always large enough to
+   * hold at least one row.
+   */
+  static final int DEFAULT_ARENA_CHUNK_SIZE = 1024 * 1024;
+
+  /**
+   * Rough on-heap overhead of the {int bufferIndex, int offset} pair stored per row.
+   */
+  private static final int ROUGH_OVERHEAD_PER_ROW_OFFSET = 16 + Integer.BYTES * 2;
+
   private final NonBlockingPool<ByteBuffer> bufferPool;
+  private final boolean ownsBufferPool;
 
   private final List<ResourceHolder<ByteBuffer>> aggBuffers = new ArrayList<>();
   private final List<int[]> indexAndOffsets = new ArrayList<>();
@@ -56,8 +84,10 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
   private final FactsHolder facts;
 
   private final AtomicInteger indexIncrement = new AtomicInteger(0);
+  private final AtomicLong offheapBytesInMemory = new AtomicLong(0);
 
   protected final int maxRowCount;
+  protected final long maxBytesInMemory;
 
   private volatile Map<String, ColumnSelectorFactory> selectors;
 
@@ -76,23 +106,24 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
       boolean concurrentEventAdd,
       boolean sortFacts,
       int maxRowCount,
-      NonBlockingPool<ByteBuffer> bufferPool
+      long maxBytesInMemory,
+      @Nullable NonBlockingPool<ByteBuffer> bufferPool
   )
   {
     super(incrementalIndexSchema, deserializeComplexMetrics, reportParseExceptions, concurrentEventAdd);
     this.maxRowCount = maxRowCount;
-    this.bufferPool = bufferPool;
+    this.maxBytesInMemory = maxBytesInMemory == 0 ? Long.MAX_VALUE : maxBytesInMemory;
+    if (bufferPool == null) {
+      // aggsTotalSize is known here because initAggs() is called by the super constructor.
+      this.bufferPool = new DirectBufferArena(Math.max(DEFAULT_ARENA_CHUNK_SIZE, aggsTotalSize));
+      this.ownsBufferPool = true;
+    } else {
+      this.bufferPool = bufferPool;
+      this.ownsBufferPool = false;
+    }
 
     this.facts = incrementalIndexSchema.isRollup() ? new RollupFactsHolder(sortFacts, dimsComparator(), getDimensions())
                                                    : new PlainFactsHolder(sortFacts, dimsComparator());
-
-    //check that stupid pool gives buffers that can hold at least one row's aggregators
-    ResourceHolder<ByteBuffer> bb = bufferPool.take();
-    if (bb.get().capacity() < aggsTotalSize) {
-      bb.close();
-      throw new IAE("bufferPool buffers capacity must be >= [%s]", aggsTotalSize);
-    }
-    aggBuffers.add(bb);
   }
 
   @Override
@@ -145,12 +176,13 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
       IncrementalIndexRow key,
       ThreadLocal<InputRow> rowContainer,
       Supplier<InputRow> rowSupplier,
-      boolean skipMaxRowsInMemoryCheck // ignored, we always want to check this for offheap
+      boolean skipMaxRowsInMemoryCheck
   ) throws IndexSizeExceededException
   {
     ByteBuffer aggBuffer;
     int bufferIndex;
     int bufferOffset;
+    final AtomicLong sizeInBytes = getBytesInMemory();
 
     synchronized (this) {
       final AggregatorFactory[] metrics = getMetrics();
@@ -172,6 +204,19 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
           rowContainer.set(null);
         }
 
+        // Last ditch sanity checks, done before a chunk may be taken for the row. Rows must always fit in a
+        // caller-supplied pool, but an index allocating from its own arena may skip them like the on-heap index does.
+        if ((getNumEntries().get() >= maxRowCount
+             || sizeInBytes.get() >= maxBytesInMemory
+             || offheapBytesInMemory.get() >= maxBytesInMemory)
+            && (!skipMaxRowsInMemoryCheck || !ownsBufferPool)) {
+          throw new IndexSizeExceededException(
+              "Maximum number of rows [%d] or max size in bytes [%d] reached",
+              maxRowCount,
+              maxBytesInMemory
+          );
+        }
+
         bufferIndex = aggBuffers.size() - 1;
         ByteBuffer lastBuffer = aggBuffers.isEmpty() ? null : aggBuffers.get(aggBuffers.size() - 1).get();
         int[] lastAggregatorsIndexAndOffset = indexAndOffsets.isEmpty()
@@ -187,22 +232,15 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
             lastBuffer.capacity() - bufferOffset >= aggsTotalSize) {
           aggBuffer = lastBuffer;
         } else {
-          ResourceHolder<ByteBuffer> bb = bufferPool.take();
-          aggBuffers.add(bb);
+          aggBuffer = takeChunk();
           bufferIndex = aggBuffers.size() - 1;
           bufferOffset = 0;
-          aggBuffer = bb.get();
         }
 
         for (int i = 0; i < metrics.length; i++) {
           getAggs()[i].init(aggBuffer, bufferOffset + aggOffsetInBuffer[i]);
         }
 
-        // Last ditch sanity checks
-        if (getNumEntries().get() >= maxRowCount && facts.getPriorIndex(key) == IncrementalIndexRow.EMPTY_ROW_INDEX) {
-          throw new IndexSizeExceededException("Maximum number of rows [%d] reached", maxRowCount);
-        }
-
         final int rowIndex = indexIncrement.getAndIncrement();
 
         // note that indexAndOffsets must be updated before facts, because as soon as we update facts
@@ -211,6 +249,11 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
         final int prev = facts.putIfAbsent(key, rowIndex);
         if (IncrementalIndexRow.EMPTY_ROW_INDEX == prev) {
           getNumEntries().incrementAndGet();
+          sizeInBytes.addAndGet(
+              OnheapIncrementalIndex.ROUGH_OVERHEAD_PER_MAP_ENTRY
+              + ROUGH_OVERHEAD_PER_ROW_OFFSET
+              + key.estimateBytesInMemory()
+          );
         } else {
           throw new ISE("WTF! we are in sychronized block.");
         }
@@ -237,7 +280,32 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
       }
     }
     rowContainer.set(null);
-    return new AddToFactsResult(getNumEntries().get(), 0, new ArrayList<>());
+    return new AddToFactsResult(getNumEntries().get(), sizeInBytes.get(), new ArrayList<>());
+  }
+
+  /**
+   * Takes a new chunk for the aggregators of the next rows.
+   */
+  private ByteBuffer takeChunk()
+  {
+    final ResourceHolder<ByteBuffer> bb = bufferPool.take();
+    //check that stupid pool gives buffers that can hold at least one row's aggregators
+    if (bb.get().capacity() < aggsTotalSize) {
+      bb.close();
+      throw new IAE("bufferPool buffers capacity must be >= [%s]", aggsTotalSize);
+    }
+    aggBuffers.add(bb);
+    offheapBytesInMemory.addAndGet(bb.get().capacity());
+    return bb.get();
+  }
+
+  /**
+   * Returns the capacity of the chunks held by this index. Unlike {@link #getBytesInMemory()}, this is direct memory.
+   * It's checked against maxBytesInMemory separately from the on-heap size.
+   */
+  public long getOffheapBytesInMemory()
+  {
+    return offheapBytesInMemory.get();
   }
 
   @Override
@@ -249,11 +317,22 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
   @Override
   public boolean canAppendRow()
   {
-    final boolean canAdd = size() < maxRowCount;
-    if (!canAdd) {
+    final boolean countCheck = size() < maxRowCount;
+    // A row which needs a new chunk may take up to a chunk more than maxBytesInMemory.
+    final boolean sizeCheck = getBytesInMemory().get() < maxBytesInMemory
+                              && offheapBytesInMemory.get() < maxBytesInMemory;
+    if (!countCheck && !sizeCheck) {
+      outOfRowsReason = StringUtils.format(
+          "Maximum number of rows [%d] and maximum size in bytes [%d] reached",
+          maxRowCount,
+          maxBytesInMemory
+      );
+    } else if (!countCheck) {
       outOfRowsReason = StringUtils.format("Maximum number of rows [%d] reached", maxRowCount);
+    } else if (!sizeCheck) {
+      outOfRowsReason = StringUtils.format("Maximum size in bytes [%d] reached", maxBytesInMemory);
     }
-    return canAdd;
+    return countCheck && sizeCheck;
   }
 
   @Override
@@ -344,5 +423,41 @@ public class OffheapIncrementalIndex extends IncrementalIndex<BufferAggregator>
       throw new RuntimeException(e);
     }
     aggBuffers.clear();
+    offheapBytesInMemory.set(0);
+  }
+
+  /**
+   * A {@link NonBlockingPool} which allocates a new direct buffer on every {@link #take()} and frees it as soon as
+   * the holder is closed. Used when an {@link OffheapIncrementalIndex} is built without a shared buffer pool, so that
+   * the index holds only the direct memory its rows need.
+   */
+  private static class DirectBufferArena implements NonBlockingPool<ByteBuffer>
+  {
+    private final int chunkSize;
+
+    DirectBufferArena(int chunkSize)
+    {
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ResourceHolder<ByteBuffer> take()
+    {
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(chunkSize);
+      return new ResourceHolder<ByteBuffer>()
+      {
+        @Override
+        public ByteBuffer get()
+        {
+          return buffer;
+        }
+
+        @Override
+        public void close()
+        {
+          ByteBufferUtils.free(buffer);
+        }
+      };
+    }
   }
 }
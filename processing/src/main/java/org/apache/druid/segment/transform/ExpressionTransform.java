@@ -30,6 +30,7 @@ import org.apache.druid.math.expr.Parser;
 import org.apache.druid.segment.column.ColumnHolder;
 
 import java.util.Objects;
+import java.util.Set;
 
 public class ExpressionTransform implements Transform
 {
@@ -69,6 +70,13 @@ public class ExpressionTransform implements Transform
     return new ExpressionRowFunction(expr);
   }
 
+  @Override
+  public Set<String> getRequiredColumns()
+  {
+    final Expr expr = Parser.parse(expression, Preconditions.checkNotNull(this.macroTable, "macroTable"));
+    return expr.analyzeInputs().getFreeVariables();
+  }
+
   static class ExpressionRowFunction implements RowFunction
   {
     private final Expr expr;
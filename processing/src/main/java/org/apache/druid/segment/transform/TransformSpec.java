@@ -95,6 +95,21 @@ public class TransformSpec
     return transforms;
   }
 
+  /**
+   * Returns the fields of the input rows which the filter and the transforms read.
+   */
+  public Set<String> getRequiredColumns()
+  {
+    final Set<String> requiredColumns = new HashSet<>();
+    if (filter != null) {
+      requiredColumns.addAll(filter.getRequiredColumns());
+    }
+    for (Transform transform : transforms) {
+      requiredColumns.addAll(transform.getRequiredColumns());
+    }
+    return requiredColumns;
+  }
+
   public <T> InputRowParser<T> decorate(final InputRowParser<T> parser)
   {
     // Always decorates, even if the transformSpec is a no-op. This is so fromInputRowParser can insist that the
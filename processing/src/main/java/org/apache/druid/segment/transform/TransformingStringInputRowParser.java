@@ -26,6 +26,7 @@ import org.apache.druid.data.input.impl.StringInputRowParser;
 import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class TransformingStringInputRowParser extends StringInputRowParser
@@ -39,7 +40,17 @@ public class TransformingStringInputRowParser extends StringInputRowParser
       final TransformSpec transformSpec
   )
   {
-    super(parseSpec, encoding);
+    this(parseSpec, encoding, transformSpec, null);
+  }
+
+  private TransformingStringInputRowParser(
+      final ParseSpec parseSpec,
+      final String encoding,
+      final TransformSpec transformSpec,
+      @Nullable final Set<String> requiredFields
+  )
+  {
+    super(parseSpec, encoding, requiredFields);
     this.transformSpec = transformSpec;
     this.transformer = transformSpec.toTransformer();
   }
@@ -60,7 +71,13 @@ public class TransformingStringInputRowParser extends StringInputRowParser
   @Override
   public StringInputRowParser withParseSpec(final ParseSpec parseSpec)
   {
-    return new TransformingStringInputRowParser(parseSpec, getEncoding(), transformSpec);
+    return new TransformingStringInputRowParser(parseSpec, getEncoding(), transformSpec, getRequiredFields());
+  }
+
+  @Override
+  public StringInputRowParser withRequiredFields(@Nullable final Set<String> requiredFields)
+  {
+    return new TransformingStringInputRowParser(getParseSpec(), getEncoding(), transformSpec, requiredFields);
   }
 
   public TransformSpec getTransformSpec()
@@ -0,0 +1,714 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.virtual;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.apache.druid.collections.bitmap.BitmapFactory;
+import org.apache.druid.collections.bitmap.ConciseBitmapFactory;
+import org.apache.druid.collections.bitmap.ImmutableBitmap;
+import org.apache.druid.collections.bitmap.MutableBitmap;
+import org.apache.druid.collections.bitmap.RoaringBitmapFactory;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.java.util.common.guava.Comparators;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.logger.Logger;
+import org.apache.druid.math.expr.Expr;
+import org.apache.druid.math.expr.ExprEval;
+import org.apache.druid.math.expr.ExprType;
+import org.apache.druid.segment.ColumnSelector;
+import org.apache.druid.segment.ColumnValueSelector;
+import org.apache.druid.segment.ConstantExprEvalSelector;
+import org.apache.druid.segment.Cursor;
+import org.apache.druid.segment.GenericColumnSerializer;
+import org.apache.druid.segment.IndexIO;
+import org.apache.druid.segment.IndexMergerV9;
+import org.apache.druid.segment.IndexSpec;
+import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.QueryableIndexStorageAdapter;
+import org.apache.druid.segment.ReferenceCountingSegment;
+import org.apache.druid.segment.VirtualColumns;
+import org.apache.druid.segment.column.ColumnDescriptor;
+import org.apache.druid.segment.column.ColumnHolder;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.data.BitmapSerdeFactory;
+import org.apache.druid.segment.data.CompressionFactory;
+import org.apache.druid.segment.data.CompressionStrategy;
+import org.apache.druid.segment.data.ConciseBitmapSerdeFactory;
+import org.apache.druid.segment.data.GenericIndexed;
+import org.apache.druid.segment.data.GenericIndexedWriter;
+import org.apache.druid.segment.data.RoaringBitmapSerdeFactory;
+import org.apache.druid.segment.data.VSizeColumnarIntsSerializer;
+import org.apache.druid.segment.serde.DictionaryEncodedColumnPartSerde;
+import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMedium;
+import org.apache.druid.segment.writeout.SegmentWriteOutMedium;
+import org.apache.druid.segment.writeout.WriteOutBytes;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded cache of expressions materialized as columns of individual segments. {@link ExpressionVirtualColumn}
+ * uses it so that expressions which are queried repeatedly on the same segment are evaluated once for all of its rows,
+ * instead of once per row per query. String expressions are materialized as dictionary-encoded columns with bitmap
+ * indexes, so that filters on them can use the indexes, and numeric expressions as numeric columns.
+ *
+ * Materialized columns are written with the same serializers as the columns of persisted segments and kept in direct
+ * memory. The dictionary ids are bit-packed and longs are delta or table encoded, but there is no block compression:
+ * block-compressed columns hold pooled decompression buffers which the selectors made by
+ * {@link ExpressionVirtualColumn#makeColumnValueSelector(String, ColumnSelector,
+ * org.apache.druid.segment.data.ReadableOffset)} have no way to release. The memory of an evicted column is reclaimed
+ * by GC once no running query reads it anymore.
+ *
+ * Entries are keyed by the identity of the segment and the expression. Segments are referenced weakly, so the columns
+ * of dropped segments are not retained beyond their eviction.
+ *
+ * Columns are materialized in the background, one at a time, so that the query which triggers the materialization
+ * doesn't wait for the whole segment to be evaluated. Queries evaluate the expression row by row until it's done. The
+ * background materialization holds a reference to the segment, so that it's not closed while it's scanned, which is
+ * why only the segments registered by {@link org.apache.druid.query.ReferenceCountingSegmentQueryRunner} are
+ * materialized.
+ */
+public class ExpressionColumnCache
+{
+  private static final int MAX_TRACKED_USES = 10_000;
+
+  /**
+   * Weight of the entries recording that an expression can't be materialized on a segment, so that they are evicted
+   * like any other entry.
+   */
+  private static final int NOT_MATERIALIZABLE_WEIGHT = 1;
+
+  /**
+   * Replaced using static injection on Historicals, so that it doesn't have to be passed through
+   * {@link ExpressionVirtualColumn}'s JSON creator. Disabled elsewhere.
+   */
+  @Inject
+  private static ExpressionColumnCache INSTANCE = new ExpressionColumnCache(new ExpressionColumnCacheConfig(null, null));
+
+  public static ExpressionColumnCache instance()
+  {
+    return INSTANCE;
+  }
+
+  @VisibleForTesting
+  static void setInstance(ExpressionColumnCache instance)
+  {
+    INSTANCE = instance;
+  }
+
+  private static final Logger log = new Logger(ExpressionColumnCache.class);
+
+  private final ExpressionColumnCacheConfig config;
+
+  @Nullable
+  private final Cache<Key, Entry> columns;
+
+  @Nullable
+  private final Cache<Key, AtomicInteger> uses;
+
+  /**
+   * The reference counted segments which queries read the indexes of, see {@link #registerSegment}. Weak both ways,
+   * since the segments reference their indexes.
+   */
+  @Nullable
+  private final Cache<QueryableIndex, ReferenceCountingSegment> segments;
+
+  @Nullable
+  private final Executor materializationExec;
+
+  // Keys being materialized by materializationExec
+  private final Set<Key> materializing = Sets.newConcurrentHashSet();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong materializations = new AtomicLong();
+  private final AtomicLong sizeBytes = new AtomicLong();
+
+  @Inject
+  public ExpressionColumnCache(ExpressionColumnCacheConfig config)
+  {
+    this(config, config.isEnabled() ? Execs.singleThreaded("ExpressionColumnCache-materialize-%d") : null);
+  }
+
+  @VisibleForTesting
+  ExpressionColumnCache(ExpressionColumnCacheConfig config, @Nullable Executor materializationExec)
+  {
+    this.config = config;
+    this.materializationExec = materializationExec;
+    if (config.isEnabled()) {
+      // A single segment, so that the size bound applies to the whole cache and not to each of its segments.
+      this.columns = CacheBuilder.newBuilder()
+                                 .concurrencyLevel(1)
+                                 .maximumWeight(config.getSizeBytes())
+                                 .<Key, Entry>weigher((key, entry) -> entry.sizeBytes)
+                                 .removalListener(this::onRemoval)
+                                 .build();
+      this.uses = CacheBuilder.newBuilder().maximumSize(MAX_TRACKED_USES).build();
+      this.segments = CacheBuilder.newBuilder().weakKeys().weakValues().build();
+    } else {
+      this.columns = null;
+      this.uses = null;
+      this.segments = null;
+    }
+  }
+
+  public boolean isEnabled()
+  {
+    return columns != null;
+  }
+
+  /**
+   * Registers a segment which a query is about to read, after the query has acquired a reference to it. Only the
+   * indexes of registered segments are materialized.
+   */
+  public void registerSegment(ReferenceCountingSegment segment)
+  {
+    if (segments == null) {
+      return;
+    }
+    final QueryableIndex index = segment.asQueryableIndex();
+    if (index != null) {
+      segments.asMap().putIfAbsent(index, segment);
+    }
+  }
+
+  /**
+   * Returns the given expression materialized as a column of the given segment. Each call counts as one use of the
+   * expression on the segment, so callers should call this once per query and segment. Once the expression has been
+   * used {@link ExpressionColumnCacheConfig#getMaterializeAfterUses()} times, its materialization is started in the
+   * background. Returns null if the cache is disabled, if the expression has not been materialized yet, or if it can't
+   * be materialized on this segment, like if the segment is not {@link #registerSegment registered}, in which case
+   * callers should evaluate the expression row by row.
+   *
+   * The materialized column has type {@link ValueType#STRING} if outputType is STRING. Otherwise it has type LONG or
+   * DOUBLE, depending on the type which the expression evaluates to on this segment, so that its selectors return the
+   * same values as expression selectors would.
+   */
+  @Nullable
+  public ColumnHolder getColumn(ColumnSelector segment, String expression, Expr parsedExpression, ValueType outputType)
+  {
+    if (columns == null || !(segment instanceof QueryableIndex)) {
+      return null;
+    }
+
+    final QueryableIndex index = (QueryableIndex) segment;
+    final Key key = new Key(index, expression, outputType == ValueType.STRING);
+    final Entry cached = columns.getIfPresent(key);
+    if (cached != null) {
+      if (cached.column != null) {
+        hits.incrementAndGet();
+      }
+      return cached.column;
+    }
+
+    final ReferenceCountingSegment referenceCountingSegment = segments.getIfPresent(index);
+    if (referenceCountingSegment == null || !canMaterialize(index, parsedExpression)) {
+      return null;
+    }
+
+    misses.incrementAndGet();
+    if (uses.asMap().computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet()
+        >= config.getMaterializeAfterUses()
+        && materializing.add(key)) {
+      materializationExec.execute(
+          () -> materializeInBackground(key, referenceCountingSegment, index, parsedExpression)
+      );
+    }
+    return null;
+  }
+
+  public Snapshot snapshot()
+  {
+    return new Snapshot(
+        columns == null ? 0 : columns.size(),
+        sizeBytes.get(),
+        hits.get(),
+        misses.get(),
+        evictions.get(),
+        materializations.get()
+    );
+  }
+
+  @VisibleForTesting
+  void cleanUp()
+  {
+    if (columns != null) {
+      columns.cleanUp();
+    }
+  }
+
+  private void onRemoval(RemovalNotification<Key, Entry> notification)
+  {
+    sizeBytes.addAndGet(-notification.getValue().sizeBytes);
+    if (notification.wasEvicted()) {
+      evictions.incrementAndGet();
+    }
+  }
+
+  /**
+   * Only expressions reading single-valued physical columns are materialized, because other virtual columns are not
+   * visible to the segment, and expressions over multi-value columns may evaluate to arrays.
+   */
+  private static boolean canMaterialize(QueryableIndex index, Expr expression)
+  {
+    final Expr.BindingDetails details = expression.analyzeInputs();
+    if (details.getRequiredColumns().isEmpty() || !details.getArrayVariables().isEmpty()) {
+      return false;
+    }
+    for (String column : details.getRequiredColumns()) {
+      final ColumnHolder columnHolder = index.getColumnHolder(column);
+      if (columnHolder == null
+          || columnHolder.getCapabilities().hasMultipleValues()
+          || columnHolder.getCapabilities().getType() == ValueType.COMPLEX) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The query which started the materialization may have released its reference to the segment already, so this
+   * acquires another one, and doesn't materialize anything if the segment was closed in the meantime.
+   */
+  private void materializeInBackground(
+      Key key,
+      ReferenceCountingSegment referenceCountingSegment,
+      QueryableIndex index,
+      Expr expression
+  )
+  {
+    try {
+      if (!referenceCountingSegment.increment()) {
+        return;
+      }
+      try {
+        columns.get(key, () -> materialize(index, expression, key.string));
+      }
+      catch (ExecutionException | UncheckedExecutionException e) {
+        log.warn(e.getCause(), "Failed to materialize expression[%s], it won't be materialized", key.expression);
+        sizeBytes.addAndGet(Entry.NOT_MATERIALIZABLE.sizeBytes);
+        columns.put(key, Entry.NOT_MATERIALIZABLE);
+      }
+      finally {
+        referenceCountingSegment.decrement();
+      }
+    }
+    finally {
+      uses.invalidate(key);
+      materializing.remove(key);
+    }
+  }
+
+  private Entry materialize(QueryableIndex index, Expr expression, boolean string) throws IOException
+  {
+    final Entry entry = materializeColumn(index, expression, string);
+    sizeBytes.addAndGet(entry.sizeBytes);
+    if (entry.column != null) {
+      materializations.incrementAndGet();
+    }
+    return entry;
+  }
+
+  private Entry materializeColumn(QueryableIndex index, Expr expression, boolean string) throws IOException
+  {
+    final BitmapSerdeFactory bitmapSerdeFactory = getBitmapSerdeFactory(index.getBitmapFactoryForDimensions());
+    if (bitmapSerdeFactory == null) {
+      return Entry.NOT_MATERIALIZABLE;
+    }
+    final IndexSpec indexSpec = new IndexSpec(
+        bitmapSerdeFactory,
+        CompressionStrategy.UNCOMPRESSED,
+        CompressionStrategy.NONE,
+        CompressionFactory.LongEncodingStrategy.AUTO
+    );
+
+    try (final OffHeapMemorySegmentWriteOutMedium segmentWriteOutMedium = new OffHeapMemorySegmentWriteOutMedium()) {
+      final ColumnDescriptor descriptor = string
+                                          ? writeStringColumn(index, expression, segmentWriteOutMedium, indexSpec)
+                                          : writeNumericColumn(index, expression, segmentWriteOutMedium, indexSpec);
+      if (descriptor == null || descriptor.getSerializedSize() > Math.min(config.getSizeBytes(), Integer.MAX_VALUE)) {
+        return Entry.NOT_MATERIALIZABLE;
+      }
+
+      final WriteOutBytes bytes = segmentWriteOutMedium.makeWriteOutBytes();
+      descriptor.writeTo(bytes, null);
+      final ByteBuffer buffer = ByteBuffer.allocateDirect((int) bytes.size());
+      bytes.readFully(0, buffer);
+      buffer.flip();
+      return new Entry(descriptor.read(buffer, () -> 0, null), buffer.capacity());
+    }
+  }
+
+  @Nullable
+  private static ColumnDescriptor writeStringColumn(
+      QueryableIndex index,
+      Expr expression,
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      IndexSpec indexSpec
+  ) throws IOException
+  {
+    final int[] rows = new int[index.getNumRows()];
+    final Object2IntOpenHashMap<String> ids = new Object2IntOpenHashMap<>();
+    ids.defaultReturnValue(-1);
+    final List<String> values = new ArrayList<>();
+
+    final boolean scanned = scan(index, expression, (rowNum, eval) -> {
+      if (eval.isArray()) {
+        return false;
+      }
+      final String value = NullHandling.emptyToNullIfNeeded(eval.asString());
+      int id = ids.getInt(value);
+      if (id < 0) {
+        id = values.size();
+        ids.put(value, id);
+        values.add(value);
+      }
+      rows[rowNum] = id;
+      return true;
+    });
+    if (!scanned) {
+      return null;
+    }
+
+    final List<String> dictionary = new ArrayList<>(values);
+    dictionary.sort(Comparators.naturalNullsFirst());
+    final int[] sortedIds = new int[dictionary.size()];
+    final GenericIndexedWriter<String> dictionaryWriter = new GenericIndexedWriter<>(
+        segmentWriteOutMedium,
+        "dictionary",
+        GenericIndexed.STRING_STRATEGY
+    );
+    dictionaryWriter.open();
+    for (int i = 0; i < dictionary.size(); i++) {
+      sortedIds[ids.getInt(dictionary.get(i))] = i;
+      dictionaryWriter.write(dictionary.get(i));
+    }
+
+    final BitmapFactory bitmapFactory = indexSpec.getBitmapSerdeFactory().getBitmapFactory();
+    final MutableBitmap[] bitmaps = new MutableBitmap[dictionary.size()];
+    for (int i = 0; i < bitmaps.length; i++) {
+      bitmaps[i] = bitmapFactory.makeEmptyMutableBitmap();
+    }
+    final VSizeColumnarIntsSerializer valueWriter = new VSizeColumnarIntsSerializer(
+        segmentWriteOutMedium,
+        Math.max(dictionary.size() - 1, 0)
+    );
+    valueWriter.open();
+    for (int rowNum = 0; rowNum < rows.length; rowNum++) {
+      final int id = sortedIds[rows[rowNum]];
+      valueWriter.addValue(id);
+      bitmaps[id].add(rowNum);
+    }
+
+    final GenericIndexedWriter<ImmutableBitmap> bitmapWriter = new GenericIndexedWriter<>(
+        segmentWriteOutMedium,
+        "bitmaps",
+        indexSpec.getBitmapSerdeFactory().getObjectStrategy()
+    );
+    bitmapWriter.open();
+    bitmapWriter.setObjectsNotSorted();
+    for (MutableBitmap bitmap : bitmaps) {
+      bitmapWriter.write(bitmapFactory.makeImmutableBitmap(bitmap));
+    }
+
+    return ColumnDescriptor
+        .builder()
+        .setValueType(ValueType.STRING)
+        .setHasMultipleValues(false)
+        .addSerde(
+            DictionaryEncodedColumnPartSerde
+                .serializerBuilder()
+                .withDictionary(dictionaryWriter)
+                .withValue(valueWriter, false, false)
+                .withBitmapSerdeFactory(indexSpec.getBitmapSerdeFactory())
+                .withBitmapIndex(bitmapWriter)
+                .withByteOrder(IndexIO.BYTE_ORDER)
+                .build()
+        )
+        .build();
+  }
+
+  /**
+   * Writes the expression both as a long and as a double column while scanning, and keeps the one matching the type
+   * which it evaluates to. Expressions evaluating to strings, or to longs on some rows and doubles on others, are not
+   * materialized. Neither are expressions evaluating to null on some rows in default value mode.
+   */
+  @Nullable
+  private static ColumnDescriptor writeNumericColumn(
+      QueryableIndex index,
+      Expr expression,
+      SegmentWriteOutMedium segmentWriteOutMedium,
+      IndexSpec indexSpec
+  ) throws IOException
+  {
+    final GenericColumnSerializer longSerializer =
+        IndexMergerV9.createLongColumnSerializer(segmentWriteOutMedium, "long", indexSpec);
+    final GenericColumnSerializer doubleSerializer =
+        IndexMergerV9.createDoubleColumnSerializer(segmentWriteOutMedium, "double", indexSpec);
+    longSerializer.open();
+    doubleSerializer.open();
+
+    final boolean[] seenTypes = new boolean[ExprType.values().length];
+    final boolean scanned = scan(index, expression, (rowNum, eval) -> {
+      if (eval.value() == null && NullHandling.replaceWithDefault()) {
+        // Numeric columns store nulls as zeros in default value mode, while expression selectors return null objects.
+        return false;
+      }
+      if (eval.value() != null) {
+        seenTypes[eval.type().ordinal()] = true;
+        if ((eval.type() != ExprType.LONG && eval.type() != ExprType.DOUBLE)
+            || (seenTypes[ExprType.LONG.ordinal()] && seenTypes[ExprType.DOUBLE.ordinal()])) {
+          return false;
+        }
+      }
+      final ConstantExprEvalSelector selector = new ConstantExprEvalSelector(eval);
+      longSerializer.serialize(selector);
+      doubleSerializer.serialize(selector);
+      return true;
+    });
+    if (!scanned) {
+      return null;
+    }
+
+    if (seenTypes[ExprType.DOUBLE.ordinal()]) {
+      return ColumnDescriptor
+          .builder()
+          .setValueType(ValueType.DOUBLE)
+          .addSerde(IndexMergerV9.createDoubleColumnPartSerde(doubleSerializer, indexSpec))
+          .build();
+    } else {
+      return ColumnDescriptor
+          .builder()
+          .setValueType(ValueType.LONG)
+          .addSerde(IndexMergerV9.createLongColumnPartSerde(longSerializer, indexSpec))
+          .build();
+    }
+  }
+
+  /**
+   * Evaluates the expression on every row of the segment, in row number order.
+   *
+   * @return false if the rowWriter stopped the scan
+   */
+  private static boolean scan(QueryableIndex index, Expr expression, RowWriter rowWriter)
+  {
+    final Sequence<Cursor> cursors = new QueryableIndexStorageAdapter(index).makeCursors(
+        null,
+        Intervals.ETERNITY,
+        VirtualColumns.EMPTY,
+        Granularities.ALL,
+        false,
+        null
+    );
+    final int[] numRows = {0};
+    final boolean scanned = cursors.accumulate(
+        true,
+        (accumulated, cursor) -> {
+          if (!accumulated) {
+            return false;
+          }
+          final ColumnValueSelector<ExprEval> selector =
+              ExpressionSelectors.makeExprEvalSelector(cursor.getColumnSelectorFactory(), expression);
+          for (; !cursor.isDone(); cursor.advance()) {
+            try {
+              if (!rowWriter.write(numRows[0]++, selector.getObject())) {
+                return false;
+              }
+            }
+            catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+          return true;
+        }
+    );
+    if (scanned && numRows[0] != index.getNumRows()) {
+      throw new ISE("Scanned [%,d] rows, but the segment has [%,d] rows", numRows[0], index.getNumRows());
+    }
+    return scanned;
+  }
+
+  @Nullable
+  private static BitmapSerdeFactory getBitmapSerdeFactory(BitmapFactory bitmapFactory)
+  {
+    // Bitmap indexes must use the same kind of bitmaps as the segment, so that filters can combine them.
+    if (bitmapFactory instanceof RoaringBitmapFactory) {
+      return new RoaringBitmapSerdeFactory(null);
+    } else if (bitmapFactory instanceof ConciseBitmapFactory) {
+      return new ConciseBitmapSerdeFactory();
+    } else {
+      return null;
+    }
+  }
+
+  private interface RowWriter
+  {
+    /**
+     * @return false to stop the scan, if the expression can't be materialized
+     */
+    boolean write(int rowNum, ExprEval eval) throws IOException;
+  }
+
+  private static class Key
+  {
+    private final WeakReference<QueryableIndex> segment;
+    private final String expression;
+    private final boolean string;
+    private final int hashCode;
+
+    Key(QueryableIndex segment, String expression, boolean string)
+    {
+      this.segment = new WeakReference<>(segment);
+      this.expression = expression;
+      this.string = string;
+      this.hashCode = Objects.hash(System.identityHashCode(segment), expression, string);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key that = (Key) o;
+      final QueryableIndex thisSegment = segment.get();
+      return thisSegment != null
+             && thisSegment == that.segment.get()
+             && string == that.string
+             && expression.equals(that.expression);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return hashCode;
+    }
+  }
+
+  private static class Entry
+  {
+    private static final Entry NOT_MATERIALIZABLE = new Entry(null, NOT_MATERIALIZABLE_WEIGHT);
+
+    @Nullable
+    private final ColumnHolder column;
+    private final int sizeBytes;
+
+    Entry(@Nullable ColumnHolder column, int sizeBytes)
+    {
+      this.column = column;
+      this.sizeBytes = sizeBytes;
+    }
+  }
+
+  public static class Snapshot
+  {
+    private final long numEntries;
+    private final long sizeBytes;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long materializations;
+
+    Snapshot(long numEntries, long sizeBytes, long hits, long misses, long evictions, long materializations)
+    {
+      this.numEntries = numEntries;
+      this.sizeBytes = sizeBytes;
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+      this.materializations = materializations;
+    }
+
+    public long getNumEntries()
+    {
+      return numEntries;
+    }
+
+    public long getSizeBytes()
+    {
+      return sizeBytes;
+    }
+
+    public long getHits()
+    {
+      return hits;
+    }
+
+    public long getMisses()
+    {
+      return misses;
+    }
+
+    public long getEvictions()
+    {
+      return evictions;
+    }
+
+    public long getMaterializations()
+    {
+      return materializations;
+    }
+
+    /**
+     * Returns the difference of the counters since the given snapshot. The number of entries and their size are not
+     * counters, and are kept as they are.
+     */
+    public Snapshot delta(@Nullable Snapshot oldSnapshot)
+    {
+      if (oldSnapshot == null) {
+        return this;
+      } else {
+        return new Snapshot(
+            numEntries,
+            sizeBytes,
+            hits - oldSnapshot.hits,
+            misses - oldSnapshot.misses,
+            evictions - oldSnapshot.evictions,
+            materializations - oldSnapshot.materializations
+        );
+      }
+    }
+  }
+}
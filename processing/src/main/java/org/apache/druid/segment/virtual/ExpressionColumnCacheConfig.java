@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.virtual;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nullable;
+
+/**
+ * Configuration of {@link ExpressionColumnCache}. The cache is disabled unless {@link #getSizeBytes()} is positive.
+ */
+public class ExpressionColumnCacheConfig
+{
+  private static final int DEFAULT_MATERIALIZE_AFTER_USES = 3;
+
+  @JsonProperty
+  private final long sizeBytes;
+
+  @JsonProperty
+  private final int materializeAfterUses;
+
+  @JsonCreator
+  public ExpressionColumnCacheConfig(
+      @JsonProperty("sizeBytes") @Nullable Long sizeBytes,
+      @JsonProperty("materializeAfterUses") @Nullable Integer materializeAfterUses
+  )
+  {
+    this.sizeBytes = sizeBytes == null ? 0 : sizeBytes;
+    this.materializeAfterUses = materializeAfterUses == null ? DEFAULT_MATERIALIZE_AFTER_USES : materializeAfterUses;
+    Preconditions.checkArgument(this.sizeBytes >= 0, "sizeBytes must be non-negative");
+    Preconditions.checkArgument(this.materializeAfterUses > 0, "materializeAfterUses must be positive");
+  }
+
+  /**
+   * Maximum total size of the materialized columns held by the cache.
+   */
+  public long getSizeBytes()
+  {
+    return sizeBytes;
+  }
+
+  /**
+   * How many times the same expression must be requested on the same segment before it is materialized there.
+   */
+  public int getMaterializeAfterUses()
+  {
+    return materializeAfterUses;
+  }
+
+  public boolean isEnabled()
+  {
+    return sizeBytes > 0;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "ExpressionColumnCacheConfig{" +
+           "sizeBytes=" + sizeBytes +
+           ", materializeAfterUses=" + materializeAfterUses +
+           '}';
+  }
+}
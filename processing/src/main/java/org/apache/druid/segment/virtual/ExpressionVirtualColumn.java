@@ -22,24 +22,36 @@ package org.apache.druid.segment.virtual;
 import com.fasterxml.jackson.annotation.JacksonInject;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.apache.druid.math.expr.Expr;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.math.expr.Parser;
 import org.apache.druid.query.cache.CacheKeyBuilder;
 import org.apache.druid.query.dimension.DimensionSpec;
+import org.apache.druid.segment.ColumnSelector;
 import org.apache.druid.segment.ColumnSelectorFactory;
 import org.apache.druid.segment.ColumnValueSelector;
 import org.apache.druid.segment.DimensionSelector;
 import org.apache.druid.segment.VirtualColumn;
+import org.apache.druid.segment.column.BitmapIndex;
 import org.apache.druid.segment.column.ColumnCapabilities;
 import org.apache.druid.segment.column.ColumnCapabilitiesImpl;
+import org.apache.druid.segment.column.ColumnHolder;
+import org.apache.druid.segment.column.DictionaryEncodedColumn;
 import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.data.ReadableOffset;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 
 public class ExpressionVirtualColumn implements VirtualColumn
 {
@@ -48,6 +60,11 @@ public class ExpressionVirtualColumn implements VirtualColumn
   private final ValueType outputType;
   private final Supplier<Expr> parsedExpression;
 
+  // What ExpressionColumnCache returned for each segment. A virtual column belongs to a single query, so this makes the
+  // cache count one use per query and segment, and makes all the selectors of the query on a segment read the same way.
+  private final Supplier<Cache<ColumnSelector, Optional<ColumnHolder>>> materializedColumns =
+      Suppliers.memoize(() -> CacheBuilder.newBuilder().weakKeys().build());
+
   @JsonCreator
   public ExpressionVirtualColumn(
       @JsonProperty("name") String name,
@@ -102,6 +119,52 @@ public class ExpressionVirtualColumn implements VirtualColumn
     return ExpressionSelectors.makeColumnValueSelector(factory, parsedExpression.get());
   }
 
+  @Nullable
+  @Override
+  public DimensionSelector makeDimensionSelector(
+      final DimensionSpec dimensionSpec,
+      final ColumnSelector columnSelector,
+      final ReadableOffset offset
+  )
+  {
+    if (outputType != ValueType.STRING) {
+      return null;
+    }
+    final ColumnHolder columnHolder = getMaterializedColumn(columnSelector);
+    if (columnHolder == null) {
+      return null;
+    }
+    final DictionaryEncodedColumn<?> column = (DictionaryEncodedColumn<?>) columnHolder.getColumn();
+    return dimensionSpec.decorate(column.makeDimensionSelector(offset, dimensionSpec.getExtractionFn()));
+  }
+
+  @Nullable
+  @Override
+  public ColumnValueSelector<?> makeColumnValueSelector(
+      final String columnName,
+      final ColumnSelector columnSelector,
+      final ReadableOffset offset
+  )
+  {
+    // Expression selectors of string expressions return objects of any type, unlike string columns.
+    if (outputType == ValueType.STRING) {
+      return null;
+    }
+    final ColumnHolder columnHolder = getMaterializedColumn(columnSelector);
+    return columnHolder == null ? null : columnHolder.getColumn().makeColumnValueSelector(offset);
+  }
+
+  @Nullable
+  @Override
+  public BitmapIndex getSegmentBitmapIndex(final String columnName, final ColumnSelector selector)
+  {
+    if (outputType != ValueType.STRING) {
+      return null;
+    }
+    final ColumnHolder columnHolder = getMaterializedColumn(selector);
+    return columnHolder == null ? null : columnHolder.getBitmapIndex();
+  }
+
   @Override
   public ColumnCapabilities capabilities(String columnName)
   {
@@ -130,6 +193,24 @@ public class ExpressionVirtualColumn implements VirtualColumn
         .build();
   }
 
+  @Nullable
+  private ColumnHolder getMaterializedColumn(final ColumnSelector columnSelector)
+  {
+    final ExpressionColumnCache cache = ExpressionColumnCache.instance();
+    if (!cache.isEnabled()) {
+      return null;
+    }
+    try {
+      return materializedColumns.get().get(
+          columnSelector,
+          () -> Optional.fromNullable(cache.getColumn(columnSelector, expression, parsedExpression.get(), outputType))
+      ).orNull();
+    }
+    catch (ExecutionException | UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
   @Override
   public boolean equals(final Object o)
   {
@@ -38,7 +38,7 @@ import javax.annotation.Nullable;
  */
 public class SingleStringInputCachingExpressionColumnValueSelector implements ColumnValueSelector<ExprEval>
 {
-  private static final int CACHE_SIZE = 1000;
+  static final int CACHE_SIZE = 1000;
 
   private final DimensionSelector selector;
   private final Expr expression;
@@ -23,6 +23,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.math.expr.Expr;
+import org.apache.druid.math.expr.ExprEval;
 import org.apache.druid.query.filter.ValueMatcher;
 import org.apache.druid.query.monomorphicprocessing.RuntimeShapeInspector;
 import org.apache.druid.segment.DimensionSelector;
@@ -35,7 +36,9 @@ import org.apache.druid.segment.data.ZeroIndexedInts;
 import javax.annotation.Nullable;
 
 /**
- * A DimensionSelector decorator that computes an expression on top of it.
+ * A DimensionSelector decorator that computes an expression on top of it. It has the same dictionary ids as the
+ * underlying selector, and the expression is evaluated once per dictionary id instead of once per row. Results are
+ * cached like in {@link SingleStringInputCachingExpressionColumnValueSelector}.
  */
 public class SingleStringInputDimensionSelector implements DimensionSelector
 {
@@ -43,6 +46,10 @@ public class SingleStringInputDimensionSelector implements DimensionSelector
   private final Expr expression;
   private final SingleInputBindings bindings = new SingleInputBindings();
   private final SingleIndexedInt nullAdjustedRow = new SingleIndexedInt();
+  @Nullable
+  private final ExprEval[] arrayEvalCache;
+  @Nullable
+  private final SingleStringInputCachingExpressionColumnValueSelector.LruEvalCache lruEvalCache;
 
   /**
    * 0 if selector has null as a value; 1 if it doesn't.
@@ -68,6 +75,14 @@ public class SingleStringInputDimensionSelector implements DimensionSelector
     this.selector = Preconditions.checkNotNull(selector, "selector");
     this.expression = Preconditions.checkNotNull(expression, "expression");
     this.nullAdjustment = selector.getValueCardinality() == 0 || selector.lookupName(0) != null ? 1 : 0;
+
+    if (getValueCardinality() <= SingleStringInputCachingExpressionColumnValueSelector.CACHE_SIZE) {
+      this.arrayEvalCache = new ExprEval[getValueCardinality()];
+      this.lruEvalCache = null;
+    } else {
+      this.arrayEvalCache = null;
+      this.lruEvalCache = new SingleStringInputCachingExpressionColumnValueSelector.LruEvalCache(expression, bindings);
+    }
   }
 
   @Override
@@ -132,7 +147,15 @@ public class SingleStringInputDimensionSelector implements DimensionSelector
     }
 
     bindings.set(value);
-    return expression.eval(bindings).asString();
+    if (arrayEvalCache != null) {
+      if (arrayEvalCache[id] == null) {
+        arrayEvalCache[id] = expression.eval(bindings);
+      }
+      return arrayEvalCache[id].asString();
+    } else {
+      assert lruEvalCache != null;
+      return lruEvalCache.compute(id).asString();
+    }
   }
 
   @Override
@@ -31,6 +31,7 @@ public class TestExprMacroTable extends ExprMacroTable
     super(
         ImmutableList.of(
             new LikeExprMacro(),
+            new MapLookupExprMacro(),
             new RegexpExtractExprMacro(),
             new TimestampCeilExprMacro(),
             new TimestampExtractExprMacro(),
@@ -40,6 +40,7 @@ import org.apache.druid.data.input.impl.StringDimensionSchema;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.java.util.common.io.smoosh.SmooshedFileMapper;
 import org.apache.druid.query.aggregation.AggregatorFactory;
@@ -2210,6 +2211,114 @@ public class IndexMergerTestBase
     );
   }
 
+  @Test
+  public void testMultiphaseMerge() throws Exception
+  {
+    final List<QueryableIndex> indexes = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      final IncrementalIndex toPersist = new IncrementalIndex.Builder()
+          .setSimpleTestingIndexSchema(new CountAggregatorFactory("count"))
+          .setMaxRowCount(1000)
+          .buildOnheap();
+      // Every index has a row which is rolled up with the rows of the other indexes and a row of its own.
+      toPersist.add(
+          new MapBasedInputRow(1, Arrays.asList("dim1", "dim2"), ImmutableMap.of("dim1", "a", "dim2", "b"))
+      );
+      toPersist.add(
+          new MapBasedInputRow(
+              1,
+              Arrays.asList("dim1", "dim2"),
+              ImmutableMap.of("dim1", "c" + i, "dim2", "d" + (4 - i))
+          )
+      );
+      indexes.add(
+          closer.closeLater(
+              indexIO.loadIndex(indexMerger.persist(toPersist, temporaryFolder.newFolder(), indexSpec, null))
+          )
+      );
+    }
+
+    final AggregatorFactory[] mergedAggregators = new AggregatorFactory[]{new CountAggregatorFactory("count")};
+    final QueryableIndex expected = closer.closeLater(
+        indexIO.loadIndex(
+            indexMerger.mergeQueryableIndex(
+                indexes,
+                true,
+                mergedAggregators,
+                temporaryFolder.newFolder(),
+                indexSpec,
+                null
+            )
+        )
+    );
+
+    // 2 dimensions, 1 metric and the time column per index: merges 2 indexes per phase
+    final File multiphaseMergedDir = temporaryFolder.newFolder();
+    final QueryableIndex merged = closer.closeLater(
+        indexIO.loadIndex(
+            indexMerger.mergeQueryableIndex(
+                indexes,
+                true,
+                mergedAggregators,
+                multiphaseMergedDir,
+                indexSpec,
+                new BaseProgressIndicator(),
+                null,
+                8
+            )
+        )
+    );
+
+    Assert.assertEquals(6, merged.getNumRows());
+    Assert.assertEquals(Arrays.asList("dim1", "dim2"), Lists.newArrayList(merged.getAvailableDimensions()));
+    final List<DebugRow> expectedRows = RowIteratorHelper.toList(new QueryableIndexIndexableAdapter(expected).getRows());
+    final List<DebugRow> mergedRows = RowIteratorHelper.toList(new QueryableIndexIndexableAdapter(merged).getRows());
+    Assert.assertEquals(expectedRows.size(), mergedRows.size());
+    for (int i = 0; i < expectedRows.size(); i++) {
+      Assert.assertEquals(expectedRows.get(i).dimensionValues(), mergedRows.get(i).dimensionValues());
+      Assert.assertEquals(expectedRows.get(i).metricValues(), mergedRows.get(i).metricValues());
+    }
+    Assert.assertEquals(Collections.singletonList(5L), mergedRows.get(0).metricValues());
+
+    // Intermediate segments are removed.
+    Assert.assertArrayEquals(
+        new String[]{multiphaseMergedDir.getName()},
+        Arrays.stream(multiphaseMergedDir.getParentFile().list())
+              .filter(name -> name.startsWith(multiphaseMergedDir.getName()))
+              .toArray(String[]::new)
+    );
+  }
+
+  @Test
+  public void testGetMergePhases() throws Exception
+  {
+    final List<IndexableAdapter> indexes = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      final IncrementalIndex index = IncrementalIndexTest.createIndex(null);
+      index.add(new MapBasedInputRow(1, Arrays.asList("dim1", "dim2"), ImmutableMap.of("dim1", "a", "dim2", "b")));
+      indexes.add(
+          new IncrementalIndexAdapter(Intervals.ETERNITY, index, indexSpec.getBitmapSerdeFactory().getBitmapFactory())
+      );
+    }
+    // +1 for the time column
+    final int columnCount = indexes.get(0).getDimensionNames().size() + indexes.get(0).getMetricNames().size() + 1;
+
+    // A trailing single index is merged together with the last phase.
+    Assert.assertEquals(
+        Arrays.asList(2, 3),
+        IndexMergerV9.getMergePhases(indexes, columnCount * 2).stream().map(List::size).collect(Collectors.toList())
+    );
+    // Each phase has at least two indexes even if they have more columns than maxColumnsToMerge.
+    Assert.assertEquals(
+        Arrays.asList(2, 3),
+        IndexMergerV9.getMergePhases(indexes, 1).stream().map(List::size).collect(Collectors.toList())
+    );
+    Assert.assertEquals(
+        Collections.singletonList(5),
+        IndexMergerV9.getMergePhases(indexes, columnCount * 5).stream().map(List::size).collect(Collectors.toList())
+    );
+  }
+
   private QueryableIndex persistAndLoad(List<DimensionSchema> schema, InputRow... rows) throws IOException
   {
     IncrementalIndex toPersist = IncrementalIndexTest.createIndex(null, new DimensionsSpec(schema, null, null));
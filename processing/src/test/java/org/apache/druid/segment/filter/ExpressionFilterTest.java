@@ -135,6 +135,15 @@ public class ExpressionFilterTest extends BaseFilterTest
     assertFilterMatches(edf("like(dim3, '1%')"), ImmutableList.of("1", "3", "4", "6", "9"));
   }
 
+  @Test
+  public void testStringFunctionsOfOneSingleValuedStringColumn()
+  {
+    assertFilterMatches(edf("upper(dim3) == 'A'"), ImmutableList.of("7"));
+    assertFilterMatches(edf("concat(dim3, 'x') == '1x'"), ImmutableList.of("3", "4", "6"));
+    assertFilterMatches(edf("substring(dim3, 0, 1) == '1'"), ImmutableList.of("1", "3", "4", "6", "9"));
+    assertFilterMatches(edf("regexp_extract(dim3, '^1') == '1'"), ImmutableList.of("1", "3", "4", "6", "9"));
+  }
+
   @Test
   public void testOneMultiValuedStringColumn()
   {
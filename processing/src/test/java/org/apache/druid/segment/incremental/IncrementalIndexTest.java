@@ -151,6 +151,23 @@ public class IncrementalIndexTest
               poolCloser
           }
       );
+      constructors.add(
+          new Object[]{
+              new IndexCreator()
+              {
+                @Override
+                public IncrementalIndex createIndex()
+                {
+                  return new IncrementalIndex.Builder()
+                      .setIndexSchema(schema)
+                      .setSortFacts(sortFacts)
+                      .setMaxRowCount(1000000)
+                      .buildOffheap();
+                }
+              },
+              Closer.create()
+          }
+      );
     }
 
     return constructors;
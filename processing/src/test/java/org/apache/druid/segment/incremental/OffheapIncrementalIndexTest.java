@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.incremental;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.collections.CloseableStupidPool;
+import org.apache.druid.data.input.MapBasedInputRow;
+import org.apache.druid.data.input.Row;
+import org.apache.druid.hll.HyperLogLogHash;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.query.aggregation.cardinality.CardinalityAggregatorFactory;
+import org.apache.druid.query.aggregation.hyperloglog.HyperUniquesSerde;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
+import org.apache.druid.segment.serde.ComplexMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class OffheapIncrementalIndexTest
+{
+  private static final IncrementalIndexSchema SCHEMA = new IncrementalIndexSchema.Builder()
+      .withQueryGranularity(Granularities.NONE)
+      .withMetrics(new CountAggregatorFactory("cnt"), new LongSumAggregatorFactory("sum", "val"))
+      .build();
+
+  @Test
+  public void testBytesInMemoryWithArena() throws IndexSizeExceededException
+  {
+    try (OffheapIncrementalIndex index = (OffheapIncrementalIndex) new IncrementalIndex.Builder()
+        .setIndexSchema(SCHEMA)
+        .setMaxRowCount(1000)
+        .buildOffheap()) {
+      // No chunk is allocated until a row needs one.
+      Assert.assertEquals(0, index.getBytesInMemory().get());
+      Assert.assertEquals(0, index.getOffheapBytesInMemory());
+
+      index.add(makeRow(1, "a"));
+      final long bytesAfterFirstRow = index.getBytesInMemory().get();
+      Assert.assertTrue(bytesAfterFirstRow > 0);
+      // The chunk is accounted for separately from the on-heap bytes.
+      Assert.assertTrue(bytesAfterFirstRow < OffheapIncrementalIndex.DEFAULT_ARENA_CHUNK_SIZE);
+      Assert.assertEquals(OffheapIncrementalIndex.DEFAULT_ARENA_CHUNK_SIZE, index.getOffheapBytesInMemory());
+
+      // Rolling up into an existing row doesn't take any more memory.
+      index.add(makeRow(1, "a"));
+      Assert.assertEquals(bytesAfterFirstRow, index.getBytesInMemory().get());
+
+      index.add(makeRow(2, "b"));
+      Assert.assertTrue(index.getBytesInMemory().get() > bytesAfterFirstRow);
+      Assert.assertEquals(OffheapIncrementalIndex.DEFAULT_ARENA_CHUNK_SIZE, index.getOffheapBytesInMemory());
+      Assert.assertEquals(2, index.size());
+      Assert.assertEquals(2L, index.iterator().next().getMetric("cnt").longValue());
+    }
+  }
+
+  @Test
+  public void testArenaGrowsWithRows() throws IndexSizeExceededException
+  {
+    try (OffheapIncrementalIndex index = (OffheapIncrementalIndex) new IncrementalIndex.Builder()
+        .setIndexSchema(SCHEMA)
+        .setMaxRowCount(1_000_000)
+        .buildOffheap()) {
+      // Each row takes 16 bytes (count + sum) of aggregator slots, so this needs more than one chunk.
+      final int numRows = OffheapIncrementalIndex.DEFAULT_ARENA_CHUNK_SIZE / 16 + 1;
+      for (int i = 0; i < numRows; i++) {
+        index.add(makeRow(i, "a"));
+      }
+      Assert.assertEquals(numRows, index.size());
+      Assert.assertEquals(2L * OffheapIncrementalIndex.DEFAULT_ARENA_CHUNK_SIZE, index.getOffheapBytesInMemory());
+
+      long sum = 0;
+      for (Row row : index) {
+        sum += row.getMetric("sum").longValue();
+      }
+      Assert.assertEquals((long) numRows * (numRows - 1) / 2, sum);
+    }
+  }
+
+  @Test
+  public void testMaxBytesInMemory() throws IndexSizeExceededException
+  {
+    try (IncrementalIndex<?> index = new IncrementalIndex.Builder()
+        .setIndexSchema(SCHEMA)
+        .setMaxRowCount(1000)
+        .setMaxBytesInMemory(1)
+        .buildOffheap()) {
+      Assert.assertTrue(index.canAppendRow());
+      index.add(makeRow(1, "a"));
+      Assert.assertFalse(index.canAppendRow());
+      Assert.assertEquals("Maximum size in bytes [1] reached", index.getOutOfRowsReason());
+
+      // Rows can still be added if the caller explicitly skips the check.
+      index.add(makeRow(2, "b"), true);
+      Assert.assertEquals(2, index.size());
+    }
+  }
+
+  @Test
+  public void testMaxBytesInMemoryBoundsOffheapBytes() throws IndexSizeExceededException
+  {
+    // Each row reserves the dense size of an HLL collector, much more than it takes on heap.
+    if (ComplexMetrics.getSerdeForType("hyperUnique") == null) {
+      ComplexMetrics.registerSerde("hyperUnique", new HyperUniquesSerde(HyperLogLogHash.getDefault()));
+    }
+    final IncrementalIndexSchema schema = new IncrementalIndexSchema.Builder()
+        .withQueryGranularity(Granularities.NONE)
+        .withMetrics(
+            new CardinalityAggregatorFactory("card", ImmutableList.of(new DefaultDimensionSpec("dim", "dim")), false)
+        )
+        .build();
+    final long maxBytesInMemory = 2L * OffheapIncrementalIndex.DEFAULT_ARENA_CHUNK_SIZE;
+    try (OffheapIncrementalIndex index = (OffheapIncrementalIndex) new IncrementalIndex.Builder()
+        .setIndexSchema(schema)
+        .setMaxRowCount(1_000_000)
+        .setMaxBytesInMemory(maxBytesInMemory)
+        .buildOffheap()) {
+      int numRows = 0;
+      while (index.canAppendRow()) {
+        index.add(makeRow(numRows++, "a"));
+      }
+      Assert.assertEquals(
+          StringUtils.format("Maximum size in bytes [%d] reached", maxBytesInMemory),
+          index.getOutOfRowsReason()
+      );
+      Assert.assertEquals(maxBytesInMemory, index.getOffheapBytesInMemory());
+      Assert.assertTrue(index.getBytesInMemory().get() < maxBytesInMemory);
+      Assert.assertTrue(numRows < OffheapIncrementalIndex.DEFAULT_ARENA_CHUNK_SIZE / 1000 * 2);
+
+      // The last ditch check applies to the direct memory too.
+      try {
+        index.add(makeRow(numRows, "a"));
+        Assert.fail("Expected IndexSizeExceededException");
+      }
+      catch (IndexSizeExceededException e) {
+        Assert.assertEquals(numRows, index.size());
+      }
+    }
+  }
+
+  @Test(expected = IndexSizeExceededException.class)
+  public void testMaxBytesInMemoryWithBufferPool() throws IndexSizeExceededException
+  {
+    try (CloseableStupidPool<ByteBuffer> pool = new CloseableStupidPool<>(
+        "OffheapIncrementalIndexTest-bufferPool",
+        () -> ByteBuffer.allocate(1024)
+    );
+         IncrementalIndex<?> index = new IncrementalIndex.Builder()
+             .setIndexSchema(SCHEMA)
+             .setMaxRowCount(1000)
+             .setMaxBytesInMemory(1)
+             .buildOffheap(pool)) {
+      index.add(makeRow(1, "a"));
+      // A shared pool never lets rows through once the limit is hit.
+      index.add(makeRow(2, "b"), true);
+    }
+  }
+
+  private static MapBasedInputRow makeRow(long timestamp, String dimValue)
+  {
+    return new MapBasedInputRow(
+        timestamp,
+        ImmutableList.of("dim"),
+        ImmutableMap.of("dim", dimValue, "val", timestamp)
+    );
+  }
+}
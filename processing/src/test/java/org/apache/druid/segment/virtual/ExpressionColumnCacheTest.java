@@ -0,0 +1,412 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.segment.virtual;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.java.util.common.granularity.Granularities;
+import org.apache.druid.math.expr.Expr;
+import org.apache.druid.math.expr.Parser;
+import org.apache.druid.query.Druids;
+import org.apache.druid.query.Result;
+import org.apache.druid.query.aggregation.AggregatorFactory;
+import org.apache.druid.query.aggregation.CountAggregatorFactory;
+import org.apache.druid.query.aggregation.FilteredAggregatorFactory;
+import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
+import org.apache.druid.query.dimension.DefaultDimensionSpec;
+import org.apache.druid.query.expression.TestExprMacroTable;
+import org.apache.druid.query.filter.DimFilter;
+import org.apache.druid.query.filter.SelectorDimFilter;
+import org.apache.druid.query.monomorphicprocessing.RuntimeShapeInspector;
+import org.apache.druid.query.spec.MultipleIntervalSegmentSpec;
+import org.apache.druid.query.timeseries.TimeseriesQuery;
+import org.apache.druid.query.timeseries.TimeseriesQueryEngine;
+import org.apache.druid.query.timeseries.TimeseriesResultValue;
+import org.apache.druid.segment.ColumnValueSelector;
+import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.QueryableIndexSegment;
+import org.apache.druid.segment.QueryableIndexStorageAdapter;
+import org.apache.druid.segment.ReferenceCountingSegment;
+import org.apache.druid.segment.TestIndex;
+import org.apache.druid.segment.VirtualColumn;
+import org.apache.druid.segment.VirtualColumns;
+import org.apache.druid.segment.column.BitmapIndex;
+import org.apache.druid.segment.column.ColumnHolder;
+import org.apache.druid.segment.column.ValueType;
+import org.apache.druid.segment.data.ReadableOffset;
+import org.apache.druid.timeline.SegmentId;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ExpressionColumnCacheTest
+{
+  private static final long CACHE_SIZE = 100_000_000;
+
+  private final QueryableIndex index = TestIndex.getMMappedTestIndex();
+  // Doesn't close the index, which is shared by other tests.
+  private final ReferenceCountingSegment segment = new ReferenceCountingSegment(
+      new QueryableIndexSegment(index, SegmentId.dummy("test"))
+      {
+        @Override
+        public void close()
+        {
+        }
+      }
+  );
+
+  @After
+  public void tearDown()
+  {
+    ExpressionColumnCache.setInstance(new ExpressionColumnCache(new ExpressionColumnCacheConfig(null, null)));
+  }
+
+  @Test
+  public void testStringExpression()
+  {
+    final ExpressionColumnCache cache = makeCache(CACHE_SIZE, 2);
+    final String expression = "concat(market, '-', quality)";
+
+    Assert.assertNull(getColumn(cache, expression, ValueType.STRING));
+    // Starts the materialization
+    Assert.assertNull(getColumn(cache, expression, ValueType.STRING));
+    final ColumnHolder columnHolder = getColumn(cache, expression, ValueType.STRING);
+    Assert.assertNotNull(columnHolder);
+    Assert.assertEquals(ValueType.STRING, columnHolder.getCapabilities().getType());
+    Assert.assertSame(columnHolder, getColumn(cache, expression, ValueType.STRING));
+    assertSameValues(expression, ValueType.STRING, columnHolder);
+
+    final BitmapIndex bitmapIndex = columnHolder.getBitmapIndex();
+    Assert.assertNotNull(bitmapIndex);
+    Assert.assertSame(index.getBitmapFactoryForDimensions().getClass(), bitmapIndex.getBitmapFactory().getClass());
+    int numRows = 0;
+    for (int i = 0; i < bitmapIndex.getCardinality(); i++) {
+      numRows += bitmapIndex.getBitmap(i).size();
+    }
+    Assert.assertEquals(index.getNumRows(), numRows);
+    Assert.assertTrue(bitmapIndex.getBitmap(bitmapIndex.getIndex("spot-automotive")).size() > 0);
+
+    final ExpressionColumnCache.Snapshot snapshot = cache.snapshot();
+    Assert.assertEquals(1, snapshot.getNumEntries());
+    Assert.assertEquals(2, snapshot.getHits());
+    Assert.assertEquals(2, snapshot.getMisses());
+    Assert.assertEquals(1, snapshot.getMaterializations());
+    Assert.assertTrue(snapshot.getSizeBytes() > 0);
+  }
+
+  @Test
+  public void testNumericExpressions()
+  {
+    final ExpressionColumnCache cache = makeCache(CACHE_SIZE, 1);
+
+    final ColumnHolder longColumn = getMaterializedColumn(cache, "qualityLong * 2", ValueType.FLOAT);
+    Assert.assertNotNull(longColumn);
+    Assert.assertEquals(ValueType.LONG, longColumn.getCapabilities().getType());
+    assertSameValues("qualityLong * 2", ValueType.FLOAT, longColumn);
+
+    final ColumnHolder doubleColumn = getMaterializedColumn(cache, "index / 2", ValueType.DOUBLE);
+    Assert.assertNotNull(doubleColumn);
+    Assert.assertEquals(ValueType.DOUBLE, doubleColumn.getCapabilities().getType());
+    assertSameValues("index / 2", ValueType.DOUBLE, doubleColumn);
+
+    Assert.assertEquals(2, cache.snapshot().getMaterializations());
+  }
+
+  @Test
+  public void testNumericExpressionWithNulls()
+  {
+    final ExpressionColumnCache cache = makeCache(CACHE_SIZE, 1);
+    final String expression = "case_searched(qualityLong > 1500, qualityLong * 2)";
+
+    final ColumnHolder column = getMaterializedColumn(cache, expression, ValueType.LONG);
+    if (NullHandling.replaceWithDefault()) {
+      // The column would return 0 where the expression returns null.
+      Assert.assertNull(column);
+      Assert.assertEquals(0, cache.snapshot().getMaterializations());
+    } else {
+      Assert.assertNotNull(column);
+      assertSameValues(expression, ValueType.LONG, column);
+      Assert.assertEquals(1, cache.snapshot().getMaterializations());
+    }
+  }
+
+  @Test
+  public void testNotMaterializable()
+  {
+    final ExpressionColumnCache cache = makeCache(CACHE_SIZE, 1);
+
+    // Evaluates to longs on some rows and to doubles on others.
+    Assert.assertNull(getMaterializedColumn(cache, "if(qualityLong > 1500, qualityLong, index)", ValueType.DOUBLE));
+    // Evaluates to strings.
+    Assert.assertNull(getMaterializedColumn(cache, "concat(market, 'x')", ValueType.LONG));
+    // Reads a column which doesn't exist in the segment, e.g. another virtual column.
+    Assert.assertNull(getMaterializedColumn(cache, "concat(v0, 'x')", ValueType.STRING));
+    // Reads a multi-value column.
+    Assert.assertNull(getMaterializedColumn(cache, "concat(placementish, 'x')", ValueType.STRING));
+    Assert.assertNull(getMaterializedColumn(cache, "'constant'", ValueType.STRING));
+
+    Assert.assertEquals(0, cache.snapshot().getMaterializations());
+  }
+
+  @Test
+  public void testMaterializeInBackground()
+  {
+    final List<Runnable> materializations = new ArrayList<>();
+    final ExpressionColumnCache cache = new ExpressionColumnCache(
+        new ExpressionColumnCacheConfig(CACHE_SIZE, 1),
+        materializations::add
+    );
+    cache.registerSegment(segment);
+    final String expression = "concat(market, '-', quality)";
+
+    // Queries evaluate the expression row by row while it's being materialized, and don't start it again.
+    Assert.assertNull(getColumn(cache, expression, ValueType.STRING));
+    Assert.assertNull(getColumn(cache, expression, ValueType.STRING));
+    Assert.assertEquals(1, materializations.size());
+
+    materializations.get(0).run();
+    Assert.assertNotNull(getColumn(cache, expression, ValueType.STRING));
+    Assert.assertEquals(1, cache.snapshot().getMaterializations());
+  }
+
+  @Test
+  public void testDroppedSegmentIsNotMaterialized()
+  {
+    final List<Runnable> materializations = new ArrayList<>();
+    final ExpressionColumnCache cache = new ExpressionColumnCache(
+        new ExpressionColumnCacheConfig(CACHE_SIZE, 1),
+        materializations::add
+    );
+    final String expression = "concat(market, '-', quality)";
+
+    // Segments which no query registered are not materialized.
+    Assert.assertNull(getColumn(cache, expression, ValueType.STRING));
+    Assert.assertEquals(0, materializations.size());
+
+    cache.registerSegment(segment);
+    Assert.assertNull(getColumn(cache, expression, ValueType.STRING));
+    Assert.assertEquals(1, materializations.size());
+
+    // The segment is dropped before the materialization runs.
+    segment.close();
+    materializations.get(0).run();
+    Assert.assertNull(getColumn(cache, expression, ValueType.STRING));
+    Assert.assertEquals(0, cache.snapshot().getMaterializations());
+    Assert.assertEquals(0, cache.snapshot().getNumEntries());
+  }
+
+  @Test
+  public void testMaterializeReleasesSegmentReference()
+  {
+    final ExpressionColumnCache cache = new ExpressionColumnCache(
+        new ExpressionColumnCacheConfig(CACHE_SIZE, 1),
+        materialization -> {
+          Assert.assertEquals(0, segment.getNumReferences());
+          materialization.run();
+          Assert.assertEquals(0, segment.getNumReferences());
+        }
+    );
+    cache.registerSegment(segment);
+    Assert.assertNotNull(getMaterializedColumn(cache, "concat(market, '-', quality)", ValueType.STRING));
+  }
+
+  @Test
+  public void testQueries()
+  {
+    final String stringExpression = "concat(market, '-', quality)";
+    // Supplies new instances of the virtual column, like new queries would.
+    final Supplier<TimeseriesQuery> stringQuery = () -> makeQuery(
+        new ExpressionVirtualColumn("v", stringExpression, ValueType.STRING, TestExprMacroTable.INSTANCE),
+        new SelectorDimFilter("v", "spot-automotive", null),
+        new CountAggregatorFactory("rows")
+    );
+    final String longExpression = "case_searched(qualityLong > 1500, qualityLong * 2)";
+    final Supplier<TimeseriesQuery> longQuery = () -> makeQuery(
+        new ExpressionVirtualColumn("v", longExpression, ValueType.LONG, TestExprMacroTable.INSTANCE),
+        null,
+        new CountAggregatorFactory("rows"),
+        new LongSumAggregatorFactory("sum", "v"),
+        new FilteredAggregatorFactory(new CountAggregatorFactory("nulls"), new SelectorDimFilter("v", null, null))
+    );
+    final List<Result<TimeseriesResultValue>> expectedStringResults = runQuery(stringQuery);
+    final List<Result<TimeseriesResultValue>> expectedLongResults = runQuery(longQuery);
+
+    final ExpressionColumnCache cache = makeCache(CACHE_SIZE, 1);
+    ExpressionColumnCache.setInstance(cache);
+    for (int i = 0; i < 3; i++) {
+      // The first query starts the materialization, the next ones read the materialized columns if there are any.
+      Assert.assertEquals(expectedStringResults, runQuery(stringQuery));
+      Assert.assertEquals(expectedLongResults, runQuery(longQuery));
+    }
+
+    // A query makes a cursor per day, but the cache counts a single use of each expression per query.
+    final ExpressionColumnCache.Snapshot snapshot = cache.snapshot();
+    if (NullHandling.replaceWithDefault()) {
+      Assert.assertEquals(1, snapshot.getMaterializations());
+      Assert.assertEquals(2, snapshot.getHits());
+    } else {
+      Assert.assertEquals(2, snapshot.getMaterializations());
+      Assert.assertEquals(4, snapshot.getHits());
+    }
+    Assert.assertEquals(2, snapshot.getMisses());
+  }
+
+  @Test
+  public void testEviction()
+  {
+    final ExpressionColumnCache sizingCache = makeCache(CACHE_SIZE, 1);
+    Assert.assertNotNull(getMaterializedColumn(sizingCache, "concat(market, '-', quality)", ValueType.STRING));
+    final long columnSize = sizingCache.snapshot().getSizeBytes();
+
+    // Room for a single column.
+    final ExpressionColumnCache cache = makeCache(columnSize + columnSize / 2, 1);
+    Assert.assertNotNull(getMaterializedColumn(cache, "concat(market, '-', quality)", ValueType.STRING));
+    Assert.assertNotNull(getMaterializedColumn(cache, "concat(quality, '-', market)", ValueType.STRING));
+    cache.cleanUp();
+
+    final ExpressionColumnCache.Snapshot snapshot = cache.snapshot();
+    Assert.assertEquals(1, snapshot.getNumEntries());
+    Assert.assertEquals(1, snapshot.getEvictions());
+    Assert.assertEquals(2, snapshot.getMaterializations());
+    Assert.assertTrue(snapshot.getSizeBytes() <= columnSize + columnSize / 2);
+  }
+
+  @Test
+  public void testDisabled()
+  {
+    final ExpressionColumnCache cache = new ExpressionColumnCache(new ExpressionColumnCacheConfig(null, 1));
+    Assert.assertFalse(cache.isEnabled());
+    Assert.assertNull(getMaterializedColumn(cache, "concat(market, '-', quality)", ValueType.STRING));
+    Assert.assertEquals(0, cache.snapshot().getMisses());
+  }
+
+  /**
+   * Makes a cache which materializes columns of the test segment in the calling thread, once the call which starts the
+   * materialization has returned.
+   */
+  private ExpressionColumnCache makeCache(long sizeBytes, int materializeAfterUses)
+  {
+    final ExpressionColumnCache cache = new ExpressionColumnCache(
+        new ExpressionColumnCacheConfig(sizeBytes, materializeAfterUses),
+        Execs.directExecutor()
+    );
+    cache.registerSegment(segment);
+    return cache;
+  }
+
+  /**
+   * Requests the expression from a cache made by {@link #makeCache} with materializeAfterUses of 1, so that the first
+   * request attempts the materialization, and returns the result of the second one.
+   */
+  @Nullable
+  private ColumnHolder getMaterializedColumn(ExpressionColumnCache cache, String expression, ValueType outputType)
+  {
+    Assert.assertNull(getColumn(cache, expression, outputType));
+    return getColumn(cache, expression, outputType);
+  }
+
+  private static TimeseriesQuery makeQuery(
+      VirtualColumn virtualColumn,
+      @Nullable DimFilter filter,
+      AggregatorFactory... aggregators
+  )
+  {
+    return Druids.newTimeseriesQueryBuilder()
+                 .dataSource("test")
+                 .intervals(new MultipleIntervalSegmentSpec(ImmutableList.of(Intervals.ETERNITY)))
+                 .granularity(Granularities.DAY)
+                 .virtualColumns(virtualColumn)
+                 .filters(filter)
+                 .aggregators(Arrays.asList(aggregators))
+                 .build();
+  }
+
+  private List<Result<TimeseriesResultValue>> runQuery(Supplier<TimeseriesQuery> query)
+  {
+    return new TimeseriesQueryEngine().process(query.get(), new QueryableIndexStorageAdapter(index)).toList();
+  }
+
+  private ColumnHolder getColumn(ExpressionColumnCache cache, String expression, ValueType outputType)
+  {
+    final Expr parsed = Parser.parse(expression, TestExprMacroTable.INSTANCE);
+    return cache.getColumn(index, expression, parsed, outputType);
+  }
+
+  /**
+   * Checks that the materialized column has the same values as the expression evaluated row by row, which is what
+   * cursors do since the cache is disabled outside of Historicals.
+   */
+  private void assertSameValues(String expression, ValueType outputType, ColumnHolder columnHolder)
+  {
+    final VirtualColumns virtualColumns = VirtualColumns.create(
+        ImmutableList.of(new ExpressionVirtualColumn("v", expression, outputType, TestExprMacroTable.INSTANCE))
+    );
+    final List<Object> expected = new QueryableIndexStorageAdapter(index)
+        .makeCursors(null, Intervals.ETERNITY, virtualColumns, Granularities.ALL, false, null)
+        .accumulate(
+            new ArrayList<>(),
+            (values, cursor) -> {
+              final ColumnValueSelector<?> selector = outputType == ValueType.STRING
+                                                      ? cursor.getColumnSelectorFactory()
+                                                              .makeDimensionSelector(DefaultDimensionSpec.of("v"))
+                                                      : cursor.getColumnSelectorFactory().makeColumnValueSelector("v");
+              for (; !cursor.isDone(); cursor.advance()) {
+                values.add(selector.getObject());
+              }
+              return values;
+            }
+        );
+
+    final List<Object> actual = new ArrayList<>();
+    final RowOffset offset = new RowOffset();
+    final ColumnValueSelector<?> selector = columnHolder.getColumn().makeColumnValueSelector(offset);
+    for (; offset.row < index.getNumRows(); offset.row++) {
+      actual.add(selector.getObject());
+    }
+
+    Assert.assertEquals(index.getNumRows(), expected.size());
+    Assert.assertEquals(expected, actual);
+  }
+
+  private static class RowOffset implements ReadableOffset
+  {
+    private int row;
+
+    @Override
+    public int getOffset()
+    {
+      return row;
+    }
+
+    @Override
+    public void inspectRuntimeShape(RuntimeShapeInspector inspector)
+    {
+      // nothing to inspect
+    }
+  }
+}
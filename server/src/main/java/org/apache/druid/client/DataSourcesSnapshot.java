@@ -31,6 +31,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -48,7 +50,43 @@ public class DataSourcesSnapshot
   )
   {
     this.dataSources = dataSources;
-    this.overshadowedSegments = ImmutableSet.copyOf(determineOvershadowedSegments());
+    this.overshadowedSegments = ImmutableSet.copyOf(determineOvershadowedSegments(dataSources.values()));
+  }
+
+  private DataSourcesSnapshot(
+      Map<String, ImmutableDruidDataSource> dataSources,
+      ImmutableSet<SegmentId> overshadowedSegments
+  )
+  {
+    this.dataSources = dataSources;
+    this.overshadowedSegments = overshadowedSegments;
+  }
+
+  /**
+   * Creates a snapshot of the given dataSources, which differ from the dataSources of the previous snapshot only in
+   * changedDataSources. Overshadowed segments are determined only for the changed dataSources, those of the other
+   * dataSources are taken from the previous snapshot.
+   */
+  public static DataSourcesSnapshot fromPreviousSnapshot(
+      DataSourcesSnapshot previous,
+      Map<String, ImmutableDruidDataSource> dataSources,
+      Set<String> changedDataSources
+  )
+  {
+    final ImmutableSet.Builder<SegmentId> overshadowedSegments = ImmutableSet.builder();
+    for (SegmentId segmentId : previous.overshadowedSegments) {
+      final String dataSource = segmentId.getDataSource();
+      if (!changedDataSources.contains(dataSource) && dataSources.containsKey(dataSource)) {
+        overshadowedSegments.add(segmentId);
+      }
+    }
+    final List<ImmutableDruidDataSource> dataSourcesToCheck = changedDataSources
+        .stream()
+        .map(dataSources::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+    overshadowedSegments.addAll(determineOvershadowedSegments(dataSourcesToCheck));
+    return new DataSourcesSnapshot(dataSources, overshadowedSegments.build());
   }
 
   public Collection<ImmutableDruidDataSource> getDataSources()
@@ -84,15 +122,15 @@ public class DataSourcesSnapshot
   }
 
   /**
-   * This method builds timelines from all dataSources and finds the overshadowed segments list
+   * This method builds timelines from the given dataSources and finds the overshadowed segments list
    *
    * @return overshadowed segment Ids list
    */
-  private List<SegmentId> determineOvershadowedSegments()
+  private static List<SegmentId> determineOvershadowedSegments(Collection<ImmutableDruidDataSource> dataSources)
   {
-    final List<DataSegment> segments = dataSources.values().stream()
-                                                  .flatMap(ds -> ds.getSegments().stream())
-                                                  .collect(Collectors.toList());
+    final List<DataSegment> segments = dataSources.stream()
+                                             .flatMap(ds -> ds.getSegments().stream())
+                                             .collect(Collectors.toList());
     final Map<String, VersionedIntervalTimeline<String, DataSegment>> timelines = new HashMap<>();
     segments.forEach(segment -> timelines
         .computeIfAbsent(segment.getDataSource(), dataSource -> new VersionedIntervalTimeline<>(Ordering.natural()))
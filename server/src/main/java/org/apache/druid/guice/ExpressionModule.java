@@ -27,6 +27,7 @@ import org.apache.druid.initialization.DruidModule;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.query.expression.GuiceExprMacroTable;
 import org.apache.druid.query.expression.LikeExprMacro;
+import org.apache.druid.query.expression.MapLookupExprMacro;
 import org.apache.druid.query.expression.RegexpExtractExprMacro;
 import org.apache.druid.query.expression.TimestampCeilExprMacro;
 import org.apache.druid.query.expression.TimestampExtractExprMacro;
@@ -45,6 +46,7 @@ public class ExpressionModule implements DruidModule
   public static final List<Class<? extends ExprMacroTable.ExprMacro>> EXPR_MACROS =
       ImmutableList.<Class<? extends ExprMacroTable.ExprMacro>>builder()
           .add(LikeExprMacro.class)
+          .add(MapLookupExprMacro.class)
           .add(RegexpExtractExprMacro.class)
           .add(TimestampCeilExprMacro.class)
           .add(TimestampExtractExprMacro.class)
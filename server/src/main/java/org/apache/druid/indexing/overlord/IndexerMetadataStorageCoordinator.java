@@ -27,6 +27,7 @@ import org.joda.time.Interval;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -109,6 +110,27 @@ public interface IndexerMetadataStorageCoordinator
       boolean skipSegmentLineageCheck
   );
 
+  /**
+   * Allocates pending segments for many sequences at once, all for the same interval, in a single transaction. This
+   * is equivalent to calling {@link #allocatePendingSegment} for each request in order, but needs much fewer round
+   * trips to the metadata storage.
+   *
+   * @param dataSource              dataSource for which to allocate segments
+   * @param interval                interval for which to allocate segments
+   * @param maxVersion              use this version if we have no better version to use
+   * @param requests                sequences to allocate a segment for. Equal requests get the same segment.
+   * @param skipSegmentLineageCheck if false, perform lineage validation using the previousSegmentId of each request
+   *
+   * @return the pending segment identifier of each request. Requests which couldn't get a segment are missing.
+   */
+  Map<SegmentCreateRequest, SegmentIdWithShardSpec> allocatePendingSegments(
+      String dataSource,
+      Interval interval,
+      String maxVersion,
+      List<SegmentCreateRequest> requests,
+      boolean skipSegmentLineageCheck
+  );
+
   /**
    * Delete pending segments created in the given interval for the given dataSource from the pending segments table.
    * The {@code created_date} field of the pending segments table is checked to find segments to be deleted.
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.indexing.overlord;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * A request to allocate a pending segment for a sequence. See
+ * {@link IndexerMetadataStorageCoordinator#allocatePendingSegments} for how it's used.
+ */
+public class SegmentCreateRequest
+{
+  private final String sequenceName;
+  @Nullable
+  private final String previousSegmentId;
+
+  public SegmentCreateRequest(String sequenceName, @Nullable String previousSegmentId)
+  {
+    this.sequenceName = Preconditions.checkNotNull(sequenceName, "sequenceName");
+    this.previousSegmentId = previousSegmentId;
+  }
+
+  public String getSequenceName()
+  {
+    return sequenceName;
+  }
+
+  @Nullable
+  public String getPreviousSegmentId()
+  {
+    return previousSegmentId;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SegmentCreateRequest that = (SegmentCreateRequest) o;
+    return sequenceName.equals(that.sequenceName) &&
+           Objects.equals(previousSegmentId, that.previousSegmentId);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(sequenceName, previousSegmentId);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "SegmentCreateRequest{" +
+           "sequenceName='" + sequenceName + '\'' +
+           ", previousSegmentId='" + previousSegmentId + '\'' +
+           '}';
+  }
+}
@@ -26,11 +26,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.hash.Hashing;
 import com.google.common.io.BaseEncoding;
 import com.google.inject.Inject;
 import org.apache.druid.indexing.overlord.DataSourceMetadata;
 import org.apache.druid.indexing.overlord.IndexerMetadataStorageCoordinator;
+import org.apache.druid.indexing.overlord.SegmentCreateRequest;
 import org.apache.druid.indexing.overlord.SegmentPublishResult;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.IAE;
@@ -52,6 +54,7 @@ import org.joda.time.Interval;
 import org.skife.jdbi.v2.FoldController;
 import org.skife.jdbi.v2.Folder3;
 import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.PreparedBatch;
 import org.skife.jdbi.v2.Query;
 import org.skife.jdbi.v2.ResultIterator;
 import org.skife.jdbi.v2.StatementContext;
@@ -68,12 +71,15 @@ import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.StreamSupport;
 
 /**
@@ -82,6 +88,8 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
 {
   private static final Logger log = new Logger(IndexerSQLMetadataStorageCoordinator.class);
 
+  private static final int MAX_NUM_SEGMENTS_TO_ANNOUNCE_AT_ONCE = 100;
+
   private final ObjectMapper jsonMapper;
   private final MetadataStorageTablesConfig dbTables;
   private final SQLMetadataConnector connector;
@@ -293,8 +301,6 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
               // Set definitelyNotUpdated back to false upon retrying.
               definitelyNotUpdated.set(false);
 
-              final Set<DataSegment> inserted = new HashSet<>();
-
               if (startMetadata != null) {
                 final DataSourceMetadataUpdateResult result = updateDataSourceMetadataWithHandle(
                     handle,
@@ -316,11 +322,7 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
                 }
               }
 
-              for (final DataSegment segment : segments) {
-                if (announceHistoricalSegment(handle, segment, usedSegments.contains(segment))) {
-                  inserted.add(segment);
-                }
-              }
+              final Set<DataSegment> inserted = announceHistoricalSegmentBatch(handle, segments, usedSegments);
 
               return SegmentPublishResult.ok(ImmutableSet.copyOf(inserted));
             }
@@ -372,6 +374,129 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
     );
   }
 
+  @Override
+  public Map<SegmentCreateRequest, SegmentIdWithShardSpec> allocatePendingSegments(
+      final String dataSource,
+      final Interval interval,
+      final String maxVersion,
+      final List<SegmentCreateRequest> requests,
+      final boolean skipSegmentLineageCheck
+  )
+  {
+    Preconditions.checkNotNull(dataSource, "dataSource");
+    Preconditions.checkNotNull(interval, "interval");
+    Preconditions.checkNotNull(maxVersion, "maxVersion");
+
+    return connector.retryTransaction(
+        (handle, transactionStatus) -> allocatePendingSegments(
+            handle,
+            dataSource,
+            interval,
+            maxVersion,
+            requests,
+            skipSegmentLineageCheck
+        ),
+        3,
+        SQLMetadataConnector.DEFAULT_MAX_TRIES
+    );
+  }
+
+  private Map<SegmentCreateRequest, SegmentIdWithShardSpec> allocatePendingSegments(
+      final Handle handle,
+      final String dataSource,
+      final Interval interval,
+      final String maxVersion,
+      final List<SegmentCreateRequest> requests,
+      final boolean skipSegmentLineageCheck
+  ) throws IOException
+  {
+    final Map<SegmentCreateRequest, SegmentIdWithShardSpec> allocated = new HashMap<>();
+    final PreparedBatch insertBatch = preparePendingSegmentInsert(handle);
+    // The max segment id in the interval is looked up once for the whole batch, and then advanced in memory since
+    // the new pending segments are inserted only at the end.
+    MaxSegmentIdResult maxSegmentId = null;
+    // Requests sharing a sequence_name_prev_id_sha1 must get the same segment, like they would if allocated one by
+    // one, since the new pending segments are not visible to checkExistingSegmentId*() before the batch is inserted.
+    final Map<String, SegmentIdWithShardSpec> allocatedBySha1 = new HashMap<>();
+
+    for (SegmentCreateRequest request : new LinkedHashSet<>(requests)) {
+      final String previousSegmentIdNotNull = skipSegmentLineageCheck || request.getPreviousSegmentId() == null
+                                              ? ""
+                                              : request.getPreviousSegmentId();
+      final String sequenceNamePrevIdSha1 = skipSegmentLineageCheck
+                                            ? computeSequenceNameIntervalSha1(request.getSequenceName(), interval)
+                                            : computeSequenceNamePrevIdSha1(
+                                                request.getSequenceName(),
+                                                previousSegmentIdNotNull
+                                            );
+      final SegmentIdWithShardSpec allocatedInBatch = allocatedBySha1.get(sequenceNamePrevIdSha1);
+      if (allocatedInBatch != null) {
+        allocated.put(request, allocatedInBatch);
+        continue;
+      }
+
+      final CheckExistingSegmentIdResult result;
+      if (skipSegmentLineageCheck) {
+        result = checkExistingSegmentIdForInterval(handle, dataSource, request.getSequenceName(), interval);
+      } else {
+        result = checkExistingSegmentIdWithLineage(
+            handle,
+            dataSource,
+            request.getSequenceName(),
+            previousSegmentIdNotNull,
+            interval
+        );
+      }
+      if (result.found) {
+        if (result.segmentIdentifier != null) {
+          allocated.put(request, result.segmentIdentifier);
+        }
+        continue;
+      }
+
+      if (maxSegmentId == null) {
+        maxSegmentId = findMaxSegmentId(handle, dataSource, interval, maxVersion);
+      }
+      if (!maxSegmentId.allocatable) {
+        continue;
+      }
+      final SegmentIdWithShardSpec newIdentifier = createNewSegment(
+          dataSource,
+          interval,
+          maxVersion,
+          maxSegmentId.maxId
+      );
+      if (newIdentifier == null) {
+        continue;
+      }
+      maxSegmentId = new MaxSegmentIdResult(true, newIdentifier);
+
+      addPendingSegmentInsert(
+          insertBatch,
+          newIdentifier,
+          dataSource,
+          interval,
+          previousSegmentIdNotNull,
+          request.getSequenceName(),
+          sequenceNamePrevIdSha1
+      );
+      allocated.put(request, newIdentifier);
+      allocatedBySha1.put(sequenceNamePrevIdSha1, newIdentifier);
+    }
+
+    if (insertBatch.size() > 0) {
+      insertBatch.execute();
+      log.info(
+          "Allocated [%d] pending segments for [%d] requests of dataSource[%s], interval[%s] in DB",
+          insertBatch.size(),
+          requests.size(),
+          dataSource,
+          interval
+      );
+    }
+    return allocated;
+  }
+
   @Nullable
   private SegmentIdWithShardSpec allocatePendingSegmentWithSegmentLineageCheck(
       final Handle handle,
@@ -383,22 +508,12 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
   ) throws IOException
   {
     final String previousSegmentIdNotNull = previousSegmentId == null ? "" : previousSegmentId;
-    final CheckExistingSegmentIdResult result = checkAndGetExistingSegmentId(
-        handle.createQuery(
-            StringUtils.format(
-                "SELECT payload FROM %s WHERE "
-                + "dataSource = :dataSource AND "
-                + "sequence_name = :sequence_name AND "
-                + "sequence_prev_id = :sequence_prev_id",
-                dbTables.getPendingSegmentsTable()
-            )
-        ),
-        interval,
+    final CheckExistingSegmentIdResult result = checkExistingSegmentIdWithLineage(
+        handle,
+        dataSource,
         sequenceName,
         previousSegmentIdNotNull,
-        Pair.of("dataSource", dataSource),
-        Pair.of("sequence_name", sequenceName),
-        Pair.of("sequence_prev_id", previousSegmentIdNotNull)
+        interval
     );
 
     if (result.found) {
@@ -414,20 +529,6 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
     // SELECT -> INSERT can fail due to races; callers must be prepared to retry.
     // Avoiding ON DUPLICATE KEY since it's not portable.
     // Avoiding try/catch since it may cause inadvertent transaction-splitting.
-
-    // UNIQUE key for the row, ensuring sequences do not fork in two directions.
-    // Using a single column instead of (sequence_name, sequence_prev_id) as some MySQL storage engines
-    // have difficulty with large unique keys (see https://github.com/apache/incubator-druid/issues/2319)
-    final String sequenceNamePrevIdSha1 = BaseEncoding.base16().encode(
-        Hashing.sha1()
-               .newHasher()
-               .putBytes(StringUtils.toUtf8(sequenceName))
-               .putByte((byte) 0xff)
-               .putBytes(StringUtils.toUtf8(previousSegmentIdNotNull))
-               .hash()
-               .asBytes()
-    );
-
     insertToMetastore(
         handle,
         newIdentifier,
@@ -435,7 +536,7 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
         interval,
         previousSegmentIdNotNull,
         sequenceName,
-        sequenceNamePrevIdSha1
+        computeSequenceNamePrevIdSha1(sequenceName, previousSegmentIdNotNull)
     );
     return newIdentifier;
   }
@@ -449,7 +550,78 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
       final String maxVersion
   ) throws IOException
   {
-    final CheckExistingSegmentIdResult result = checkAndGetExistingSegmentId(
+    final CheckExistingSegmentIdResult result = checkExistingSegmentIdForInterval(
+        handle,
+        dataSource,
+        sequenceName,
+        interval
+    );
+
+    if (result.found) {
+      // The found existing segment identifier can be null if its interval doesn't match with the given interval
+      return result.segmentIdentifier;
+    }
+
+    final SegmentIdWithShardSpec newIdentifier = createNewSegment(handle, dataSource, interval, maxVersion);
+    if (newIdentifier == null) {
+      return null;
+    }
+
+    // SELECT -> INSERT can fail due to races; callers must be prepared to retry.
+    // Avoiding ON DUPLICATE KEY since it's not portable.
+    // Avoiding try/catch since it may cause inadvertent transaction-splitting.
+
+    // always insert empty previous sequence id
+    insertToMetastore(
+        handle,
+        newIdentifier,
+        dataSource,
+        interval,
+        "",
+        sequenceName,
+        computeSequenceNameIntervalSha1(sequenceName, interval)
+    );
+
+    log.info("Allocated pending segment [%s] for sequence[%s] in DB", newIdentifier, sequenceName);
+
+    return newIdentifier;
+  }
+
+  private CheckExistingSegmentIdResult checkExistingSegmentIdWithLineage(
+      final Handle handle,
+      final String dataSource,
+      final String sequenceName,
+      final String previousSegmentIdNotNull,
+      final Interval interval
+  ) throws IOException
+  {
+    return checkAndGetExistingSegmentId(
+        handle.createQuery(
+            StringUtils.format(
+                "SELECT payload FROM %s WHERE "
+                + "dataSource = :dataSource AND "
+                + "sequence_name = :sequence_name AND "
+                + "sequence_prev_id = :sequence_prev_id",
+                dbTables.getPendingSegmentsTable()
+            )
+        ),
+        interval,
+        sequenceName,
+        previousSegmentIdNotNull,
+        Pair.of("dataSource", dataSource),
+        Pair.of("sequence_name", sequenceName),
+        Pair.of("sequence_prev_id", previousSegmentIdNotNull)
+    );
+  }
+
+  private CheckExistingSegmentIdResult checkExistingSegmentIdForInterval(
+      final Handle handle,
+      final String dataSource,
+      final String sequenceName,
+      final Interval interval
+  ) throws IOException
+  {
+    return checkAndGetExistingSegmentId(
         handle.createQuery(
             StringUtils.format(
                 "SELECT payload FROM %s WHERE "
@@ -469,25 +641,33 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
         Pair.of("start", interval.getStart().toString()),
         Pair.of("end", interval.getEnd().toString())
     );
+  }
 
-    if (result.found) {
-      // The found existing segment identifier can be null if its interval doesn't match with the given interval
-      return result.segmentIdentifier;
-    }
-
-    final SegmentIdWithShardSpec newIdentifier = createNewSegment(handle, dataSource, interval, maxVersion);
-    if (newIdentifier == null) {
-      return null;
-    }
-
-    // SELECT -> INSERT can fail due to races; callers must be prepared to retry.
-    // Avoiding ON DUPLICATE KEY since it's not portable.
-    // Avoiding try/catch since it may cause inadvertent transaction-splitting.
+  /**
+   * UNIQUE key for the row, ensuring sequences do not fork in two directions.
+   * Using a single column instead of (sequence_name, sequence_prev_id) as some MySQL storage engines
+   * have difficulty with large unique keys (see https://github.com/apache/incubator-druid/issues/2319)
+   */
+  private static String computeSequenceNamePrevIdSha1(String sequenceName, String previousSegmentIdNotNull)
+  {
+    return BaseEncoding.base16().encode(
+        Hashing.sha1()
+               .newHasher()
+               .putBytes(StringUtils.toUtf8(sequenceName))
+               .putByte((byte) 0xff)
+               .putBytes(StringUtils.toUtf8(previousSegmentIdNotNull))
+               .hash()
+               .asBytes()
+    );
+  }
 
-    // UNIQUE key for the row, ensuring we don't have more than one segment per sequence per interval.
-    // Using a single column instead of (sequence_name, sequence_prev_id) as some MySQL storage engines
-    // have difficulty with large unique keys (see https://github.com/apache/incubator-druid/issues/2319)
-    final String sequenceNamePrevIdSha1 = BaseEncoding.base16().encode(
+  /**
+   * UNIQUE key for the row, ensuring we don't have more than one segment per sequence per interval.
+   * See {@link #computeSequenceNamePrevIdSha1} for why a single column is used.
+   */
+  private static String computeSequenceNameIntervalSha1(String sequenceName, Interval interval)
+  {
+    return BaseEncoding.base16().encode(
         Hashing.sha1()
                .newHasher()
                .putBytes(StringUtils.toUtf8(sequenceName))
@@ -497,13 +677,6 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
                .hash()
                .asBytes()
     );
-
-    // always insert empty previous sequence id
-    insertToMetastore(handle, newIdentifier, dataSource, interval, "", sequenceName, sequenceNamePrevIdSha1);
-
-    log.info("Allocated pending segment [%s] for sequence[%s] in DB", newIdentifier, sequenceName);
-
-    return newIdentifier;
   }
 
   private CheckExistingSegmentIdResult checkAndGetExistingSegmentId(
@@ -589,24 +762,51 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
       String sequenceNamePrevIdSha1
   ) throws JsonProcessingException
   {
-    handle.createStatement(
+    final PreparedBatch batch = preparePendingSegmentInsert(handle);
+    addPendingSegmentInsert(
+        batch,
+        newIdentifier,
+        dataSource,
+        interval,
+        previousSegmentId,
+        sequenceName,
+        sequenceNamePrevIdSha1
+    );
+    batch.execute();
+  }
+
+  private PreparedBatch preparePendingSegmentInsert(Handle handle)
+  {
+    return handle.prepareBatch(
         StringUtils.format(
             "INSERT INTO %1$s (id, dataSource, created_date, start, %2$send%2$s, sequence_name, sequence_prev_id, sequence_name_prev_id_sha1, payload) "
             + "VALUES (:id, :dataSource, :created_date, :start, :end, :sequence_name, :sequence_prev_id, :sequence_name_prev_id_sha1, :payload)",
             dbTables.getPendingSegmentsTable(),
             connector.getQuoteString()
         )
-    )
-          .bind("id", newIdentifier.toString())
-          .bind("dataSource", dataSource)
-          .bind("created_date", DateTimes.nowUtc().toString())
-          .bind("start", interval.getStart().toString())
-          .bind("end", interval.getEnd().toString())
-          .bind("sequence_name", sequenceName)
-          .bind("sequence_prev_id", previousSegmentId)
-          .bind("sequence_name_prev_id_sha1", sequenceNamePrevIdSha1)
-          .bind("payload", jsonMapper.writeValueAsBytes(newIdentifier))
-          .execute();
+    );
+  }
+
+  private void addPendingSegmentInsert(
+      PreparedBatch batch,
+      SegmentIdWithShardSpec newIdentifier,
+      String dataSource,
+      Interval interval,
+      String previousSegmentId,
+      String sequenceName,
+      String sequenceNamePrevIdSha1
+  ) throws JsonProcessingException
+  {
+    batch.add()
+         .bind("id", newIdentifier.toString())
+         .bind("dataSource", dataSource)
+         .bind("created_date", DateTimes.nowUtc().toString())
+         .bind("start", interval.getStart().toString())
+         .bind("end", interval.getEnd().toString())
+         .bind("sequence_name", sequenceName)
+         .bind("sequence_prev_id", previousSegmentId)
+         .bind("sequence_name_prev_id_sha1", sequenceNamePrevIdSha1)
+         .bind("payload", jsonMapper.writeValueAsBytes(newIdentifier));
   }
 
   @Nullable
@@ -616,6 +816,21 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
       final Interval interval,
       final String maxVersion
   ) throws IOException
+  {
+    final MaxSegmentIdResult maxSegmentId = findMaxSegmentId(handle, dataSource, interval, maxVersion);
+    return maxSegmentId.allocatable ? createNewSegment(dataSource, interval, maxVersion, maxSegmentId.maxId) : null;
+  }
+
+  /**
+   * Finds the segment id with the highest partition number among the used segments and the pending segments of the
+   * given interval, which new pending segments follow.
+   */
+  private MaxSegmentIdResult findMaxSegmentId(
+      final Handle handle,
+      final String dataSource,
+      final Interval interval,
+      final String maxVersion
+  ) throws IOException
   {
     // Make up a pending segment based on existing segments and pending segments in the DB. This works
     // assuming that all tasks inserting segments at a particular point in time are going through the
@@ -636,7 +851,7 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
           maxVersion,
           existingChunks.size()
       );
-      return null;
+      return new MaxSegmentIdResult(false, null);
     } else {
       SegmentIdWithShardSpec maxId = null;
 
@@ -665,50 +880,74 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
         }
       }
 
-      if (maxId == null) {
-        return new SegmentIdWithShardSpec(
-            dataSource,
-            interval,
-            maxVersion,
-            new NumberedShardSpec(0, 0)
-        );
-      } else if (!maxId.getInterval().equals(interval) || maxId.getVersion().compareTo(maxVersion) > 0) {
-        log.warn(
-            "Cannot allocate new segment for dataSource[%s], interval[%s], maxVersion[%s]: conflicting segment[%s].",
-            dataSource,
-            interval,
-            maxVersion,
-            maxId
-        );
-        return null;
-      } else if (maxId.getShardSpec() instanceof LinearShardSpec) {
-        return new SegmentIdWithShardSpec(
-            dataSource,
-            maxId.getInterval(),
-            maxId.getVersion(),
-            new LinearShardSpec(maxId.getShardSpec().getPartitionNum() + 1)
-        );
-      } else if (maxId.getShardSpec() instanceof NumberedShardSpec) {
-        return new SegmentIdWithShardSpec(
-            dataSource,
-            maxId.getInterval(),
-            maxId.getVersion(),
-            new NumberedShardSpec(
-                maxId.getShardSpec().getPartitionNum() + 1,
-                ((NumberedShardSpec) maxId.getShardSpec()).getPartitions()
-            )
-        );
-      } else {
-        log.warn(
-            "Cannot allocate new segment for dataSource[%s], interval[%s], maxVersion[%s]: ShardSpec class[%s] used by [%s].",
-            dataSource,
-            interval,
-            maxVersion,
-            maxId.getShardSpec().getClass(),
-            maxId
-        );
-        return null;
-      }
+      return new MaxSegmentIdResult(true, maxId);
+    }
+  }
+
+  private static class MaxSegmentIdResult
+  {
+    private final boolean allocatable;
+    @Nullable
+    private final SegmentIdWithShardSpec maxId;
+
+    MaxSegmentIdResult(boolean allocatable, @Nullable SegmentIdWithShardSpec maxId)
+    {
+      this.allocatable = allocatable;
+      this.maxId = maxId;
+    }
+  }
+
+  @Nullable
+  private static SegmentIdWithShardSpec createNewSegment(
+      final String dataSource,
+      final Interval interval,
+      final String maxVersion,
+      @Nullable final SegmentIdWithShardSpec maxId
+  )
+  {
+    if (maxId == null) {
+      return new SegmentIdWithShardSpec(
+          dataSource,
+          interval,
+          maxVersion,
+          new NumberedShardSpec(0, 0)
+      );
+    } else if (!maxId.getInterval().equals(interval) || maxId.getVersion().compareTo(maxVersion) > 0) {
+      log.warn(
+          "Cannot allocate new segment for dataSource[%s], interval[%s], maxVersion[%s]: conflicting segment[%s].",
+          dataSource,
+          interval,
+          maxVersion,
+          maxId
+      );
+      return null;
+    } else if (maxId.getShardSpec() instanceof LinearShardSpec) {
+      return new SegmentIdWithShardSpec(
+          dataSource,
+          maxId.getInterval(),
+          maxId.getVersion(),
+          new LinearShardSpec(maxId.getShardSpec().getPartitionNum() + 1)
+      );
+    } else if (maxId.getShardSpec() instanceof NumberedShardSpec) {
+      return new SegmentIdWithShardSpec(
+          dataSource,
+          maxId.getInterval(),
+          maxId.getVersion(),
+          new NumberedShardSpec(
+              maxId.getShardSpec().getPartitionNum() + 1,
+              ((NumberedShardSpec) maxId.getShardSpec()).getPartitions()
+          )
+      );
+    } else {
+      log.warn(
+          "Cannot allocate new segment for dataSource[%s], interval[%s], maxVersion[%s]: ShardSpec class[%s] used by [%s].",
+          dataSource,
+          interval,
+          maxVersion,
+          maxId.getShardSpec().getClass(),
+          maxId
+      );
+      return null;
     }
   }
 
@@ -731,63 +970,90 @@ public class IndexerSQLMetadataStorageCoordinator implements IndexerMetadataStor
   }
 
   /**
-   * Attempts to insert a single segment to the database. If the segment already exists, will do nothing; although,
-   * this checking is imperfect and callers must be prepared to retry their entire transaction on exceptions.
+   * Attempts to insert a set of segments to the database, using JDBC batches of
+   * {@link #MAX_NUM_SEGMENTS_TO_ANNOUNCE_AT_ONCE} segments. Segments which already exist are skipped; although, this
+   * checking is imperfect and callers must be prepared to retry their entire transaction on exceptions.
    *
-   * @return true if the segment was added, false if it already existed
+   * @return the segments actually added
    */
-  private boolean announceHistoricalSegment(
+  private Set<DataSegment> announceHistoricalSegmentBatch(
       final Handle handle,
-      final DataSegment segment,
-      final boolean used
+      final Set<DataSegment> segments,
+      final Set<DataSegment> usedSegments
   ) throws IOException
   {
+    final Set<DataSegment> toInsertSegments = new HashSet<>();
     try {
-      if (segmentExists(handle, segment)) {
-        log.info("Found [%s] in DB, not updating DB", segment.getId());
-        return false;
+      final Set<String> existingSegmentIds = getExistingSegmentIds(handle, segments);
+      for (DataSegment segment : segments) {
+        if (existingSegmentIds.contains(segment.getId().toString())) {
+          log.info("Found [%s] in DB, not updating DB", segment.getId());
+        } else {
+          toInsertSegments.add(segment);
+        }
       }
 
       // SELECT -> INSERT can fail due to races; callers must be prepared to retry.
       // Avoiding ON DUPLICATE KEY since it's not portable.
       // Avoiding try/catch since it may cause inadvertent transaction-splitting.
-      handle.createStatement(
-          StringUtils.format(
-              "INSERT INTO %1$s (id, dataSource, created_date, start, %2$send%2$s, partitioned, version, used, payload) "
-              + "VALUES (:id, :dataSource, :created_date, :start, :end, :partitioned, :version, :used, :payload)",
-              dbTables.getSegmentsTable(),
-              connector.getQuoteString()
-          )
-      )
-            .bind("id", segment.getId().toString())
-            .bind("dataSource", segment.getDataSource())
-            .bind("created_date", DateTimes.nowUtc().toString())
-            .bind("start", segment.getInterval().getStart().toString())
-            .bind("end", segment.getInterval().getEnd().toString())
-            .bind("partitioned", (segment.getShardSpec() instanceof NoneShardSpec) ? false : true)
-            .bind("version", segment.getVersion())
-            .bind("used", used)
-            .bind("payload", jsonMapper.writeValueAsBytes(segment))
-            .execute();
-
-      log.info("Published segment [%s] to DB with used flag [%s]", segment.getId(), used);
+      for (List<DataSegment> partition : Lists.partition(
+          new ArrayList<>(toInsertSegments),
+          MAX_NUM_SEGMENTS_TO_ANNOUNCE_AT_ONCE
+      )) {
+        final PreparedBatch batch = handle.prepareBatch(
+            StringUtils.format(
+                "INSERT INTO %1$s (id, dataSource, created_date, start, %2$send%2$s, partitioned, version, used, payload) "
+                + "VALUES (:id, :dataSource, :created_date, :start, :end, :partitioned, :version, :used, :payload)",
+                dbTables.getSegmentsTable(),
+                connector.getQuoteString()
+            )
+        );
+        for (DataSegment segment : partition) {
+          batch.add()
+               .bind("id", segment.getId().toString())
+               .bind("dataSource", segment.getDataSource())
+               .bind("created_date", DateTimes.nowUtc().toString())
+               .bind("start", segment.getInterval().getStart().toString())
+               .bind("end", segment.getInterval().getEnd().toString())
+               .bind("partitioned", (segment.getShardSpec() instanceof NoneShardSpec) ? false : true)
+               .bind("version", segment.getVersion())
+               .bind("used", usedSegments.contains(segment))
+               .bind("payload", jsonMapper.writeValueAsBytes(segment));
+        }
+        batch.execute();
+
+        for (DataSegment segment : partition) {
+          log.info("Published segment [%s] to DB with used flag [%s]", segment.getId(), usedSegments.contains(segment));
+        }
+      }
     }
     catch (Exception e) {
-      log.error(e, "Exception inserting segment [%s] with used flag [%s] into DB", segment.getId(), used);
+      log.error(e, "Exception inserting segments into DB");
       throw e;
     }
 
-    return true;
+    return toInsertSegments;
   }
 
-  private boolean segmentExists(final Handle handle, final DataSegment segment)
+  private Set<String> getExistingSegmentIds(final Handle handle, final Set<DataSegment> segments)
   {
-    return !handle
-        .createQuery(StringUtils.format("SELECT id FROM %s WHERE id = :identifier", dbTables.getSegmentsTable()))
-        .bind("identifier", segment.getId().toString())
-        .map(StringMapper.FIRST)
-        .list()
-        .isEmpty();
+    final Set<String> existingSegmentIds = new HashSet<>();
+    for (List<DataSegment> partition : Lists.partition(
+        new ArrayList<>(segments),
+        MAX_NUM_SEGMENTS_TO_ANNOUNCE_AT_ONCE
+    )) {
+      final String placeholders = IntStream.range(0, partition.size())
+                                           .mapToObj(i -> ":id" + i)
+                                           .collect(Collectors.joining(", "));
+      Query<Map<String, Object>> query = handle.createQuery(
+          StringUtils.format("SELECT id FROM %s WHERE id IN (%s)", dbTables.getSegmentsTable(), placeholders)
+      );
+      for (int i = 0; i < partition.size(); i++) {
+        query = query.bind("id" + i, partition.get(i).getId().toString());
+      }
+      existingSegmentIds.addAll(query.map(StringMapper.FIRST).list());
+    }
+    return existingSegmentIds;
   }
 
   /**
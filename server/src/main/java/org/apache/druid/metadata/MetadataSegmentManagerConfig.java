@@ -29,8 +29,20 @@ public class MetadataSegmentManagerConfig
   @JsonProperty
   private Period pollDuration = new Period("PT1M");
 
+  /**
+   * Polls in between full polls only read the ids of used segments and deserialize the payloads of the segments which
+   * are not known yet, see {@link SQLMetadataSegmentManager}.
+   */
+  @JsonProperty
+  private Period fullPollPeriod = new Period("PT15M");
+
   public Period getPollDuration()
   {
     return pollDuration;
   }
+
+  public Period getFullPollPeriod()
+  {
+    return fullPollPeriod;
+  }
 }
@@ -24,6 +24,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import org.apache.druid.client.DataSegmentInterner;
 import org.apache.druid.client.DataSourcesSnapshot;
 import org.apache.druid.client.DruidDataSource;
 import org.apache.druid.client.ImmutableDruidDataSource;
@@ -49,6 +50,7 @@ import org.skife.jdbi.v2.Batch;
 import org.skife.jdbi.v2.FoldController;
 import org.skife.jdbi.v2.Folder3;
 import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.Query;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.TransactionCallback;
 import org.skife.jdbi.v2.TransactionStatus;
@@ -62,6 +64,9 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +78,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  *
@@ -82,6 +88,8 @@ public class SQLMetadataSegmentManager implements MetadataSegmentManager
 {
   private static final EmittingLogger log = new EmittingLogger(SQLMetadataSegmentManager.class);
 
+  private static final int SEGMENT_IDS_BATCH_SIZE = 100;
+
   /**
    * Use to synchronize {@link #start()}, {@link #stop()}, {@link #poll()}, and {@link #isStarted()}. These methods
    * should be synchronized to prevent from being called at the same time if two different threads are calling them.
@@ -131,6 +139,18 @@ public class SQLMetadataSegmentManager implements MetadataSegmentManager
   private long currentStartOrder = -1;
   private ScheduledExecutorService exec = null;
 
+  /**
+   * The time of the last poll which read the payloads of all used segments. Accessed only under {@link #pollLock}.
+   */
+  private long lastFullPollMillis = 0;
+
+  /**
+   * Ids of the used segments whose payloads couldn't be deserialized, mapped to a hash of the payload. Incremental polls
+   * don't fetch these segments again, and an alert is emitted for a corrupt payload only once unless it changes.
+   * Accessed only under {@link #pollLock}.
+   */
+  private Map<String, Integer> corruptSegments = new HashMap<>();
+
   @Inject
   public SQLMetadataSegmentManager(
       ObjectMapper jsonMapper,
@@ -465,7 +485,7 @@ public class SQLMetadataSegmentManager implements MetadataSegmentManager
   }
 
   /**
-   * This method does not update {@code dataSourcesSnapshot}, see the comments in {@code doPoll()} about
+   * This method does not update {@code dataSourcesSnapshot}, see the comments in {@code doFullPoll()} about
    * snapshot update. The segment removal will be reflected after next poll cyccle runs.
    */
   @Override
@@ -652,6 +672,19 @@ public class SQLMetadataSegmentManager implements MetadataSegmentManager
   }
 
   private void doPoll()
+  {
+    final DataSourcesSnapshot previousSnapshot = dataSourcesSnapshot;
+    final long fullPollPeriodMillis = config.get().getFullPollPeriod().toStandardDuration().getMillis();
+    final long now = System.currentTimeMillis();
+    if (previousSnapshot == null || now - lastFullPollMillis >= fullPollPeriodMillis) {
+      lastFullPollMillis = now;
+      doFullPoll();
+    } else {
+      doIncrementalPoll(previousSnapshot);
+    }
+  }
+
+  private void doFullPoll()
   {
     log.debug("Starting polling of segment table");
 
@@ -660,14 +693,16 @@ public class SQLMetadataSegmentManager implements MetadataSegmentManager
     //
     // setting connection to read-only will allow some database such as MySQL
     // to automatically use read-only transaction mode, further optimizing the query
+    final Map<String, Integer> foundCorruptSegments = new HashMap<>();
     final List<DataSegment> segments = connector.inReadOnlyTransaction(
         new TransactionCallback<List<DataSegment>>()
         {
           @Override
           public List<DataSegment> inTransaction(Handle handle, TransactionStatus status)
           {
+            foundCorruptSegments.clear();
             return handle
-                .createQuery(StringUtils.format("SELECT payload FROM %s WHERE used=true", getSegmentsTable()))
+                .createQuery(StringUtils.format("SELECT id, payload FROM %s WHERE used=true", getSegmentsTable()))
                 .setFetchSize(connector.getStreamingFetchSize())
                 .map(
                     new ResultSetMapper<DataSegment>()
@@ -675,14 +710,7 @@ public class SQLMetadataSegmentManager implements MetadataSegmentManager
                       @Override
                       public DataSegment map(int index, ResultSet r, StatementContext ctx) throws SQLException
                       {
-                        try {
-                          DataSegment segment = jsonMapper.readValue(r.getBytes("payload"), DataSegment.class);
-                          return replaceWithExistingSegmentIfPresent(segment);
-                        }
-                        catch (IOException e) {
-                          log.makeAlert(e, "Failed to read segment from db.").emit();
-                          return null;
-                        }
+                        return readSegment(r, foundCorruptSegments);
                       }
                     }
                 )
@@ -690,6 +718,8 @@ public class SQLMetadataSegmentManager implements MetadataSegmentManager
           }
         }
     );
+    // Payloads which were fixed, and segments which are not used anymore, are forgotten.
+    corruptSegments = foundCorruptSegments;
 
     if (segments == null || segments.isEmpty()) {
       log.warn("No segments found in the database!");
@@ -710,8 +740,8 @@ public class SQLMetadataSegmentManager implements MetadataSegmentManager
               .addSegmentIfAbsent(segment);
         });
 
-    // dataSourcesSnapshot is updated only here, please note that if datasources or segments are enabled or disabled
-    // outside of poll, the dataSourcesSnapshot can become invalid until the next poll cycle.
+    // dataSourcesSnapshot is updated only here and in doIncrementalPoll(), please note that if datasources or segments
+    // are enabled or disabled outside of poll, the dataSourcesSnapshot can become invalid until the next poll cycle.
     // DataSourcesSnapshot computes the overshadowed segments, which makes it an expensive operation if the
     // snapshot is invalidated on each segment removal, especially if a user issues a lot of single segment remove
     // calls in rapid succession. So the snapshot update is not done outside of poll at this time.
@@ -727,24 +757,181 @@ public class SQLMetadataSegmentManager implements MetadataSegmentManager
   }
 
   /**
+   * Reads only the ids of the used segments and compares them with the segments in the previous snapshot. Payloads
+   * are fetched and deserialized only for the segments that became used since the previous poll, and only the
+   * dataSources which gained or lost segments are rebuilt. Changes of the payloads of segments which stay used are
+   * picked up by the next full poll, see {@link MetadataSegmentManagerConfig#getFullPollPeriod()} and {@link
+   * #readSegment}.
+   */
+  private void doIncrementalPoll(DataSourcesSnapshot previousSnapshot)
+  {
+    log.debug("Starting incremental polling of segment table");
+
+    final Set<String> usedSegmentIds = connector.inReadOnlyTransaction(
+        (handle, status) -> handle
+            .createQuery(StringUtils.format("SELECT id FROM %s WHERE used=true", getSegmentsTable()))
+            .setFetchSize(connector.getStreamingFetchSize())
+            .map((index, r, ctx) -> r.getString("id"))
+            .fold(
+                new HashSet<>(),
+                (Set<String> ids, String id, FoldController control, StatementContext ctx) -> {
+                  ids.add(id);
+                  return ids;
+                }
+            )
+    );
+
+    if (usedSegmentIds.isEmpty()) {
+      log.warn("No segments found in the database!");
+      return;
+    }
+
+    final int numUsedSegments = usedSegmentIds.size();
+    corruptSegments.keySet().retainAll(usedSegmentIds);
+    usedSegmentIds.removeAll(corruptSegments.keySet());
+    final ImmutableMap<String, String> dataSourceProperties =
+        ImmutableMap.of("created", DateTimes.nowUtc().toString());
+    final Map<String, DruidDataSource> changedDataSources = new HashMap<>();
+
+    // After this loop, usedSegmentIds contains only the ids of the segments which are not in the previous snapshot, and
+    // are not known to be corrupt.
+    int numRemovedSegments = 0;
+    for (ImmutableDruidDataSource dataSource : previousSnapshot.getDataSources()) {
+      for (DataSegment segment : dataSource.getSegments()) {
+        if (!usedSegmentIds.remove(segment.getId().toString())) {
+          changedDataSources
+              .computeIfAbsent(dataSource.getName(), name -> copyDataSource(dataSource, dataSourceProperties))
+              .removeSegment(segment.getId());
+          numRemovedSegments++;
+        }
+      }
+    }
+
+    final List<DataSegment> addedSegments = retrieveUsedSegments(usedSegmentIds);
+    for (DataSegment segment : addedSegments) {
+      changedDataSources
+          .computeIfAbsent(
+              segment.getDataSource(),
+              name -> {
+                final ImmutableDruidDataSource dataSource = previousSnapshot.getDataSource(name);
+                return dataSource != null
+                       ? copyDataSource(dataSource, dataSourceProperties)
+                       : new DruidDataSource(name, dataSourceProperties);
+              }
+          )
+          .addSegmentIfAbsent(segment);
+    }
+
+    log.info(
+        "Polled and found %,d segments in the database, %,d added and %,d removed since the previous poll",
+        numUsedSegments,
+        addedSegments.size(),
+        numRemovedSegments
+    );
+
+    if (changedDataSources.isEmpty()) {
+      return;
+    }
+
+    final Map<String, ImmutableDruidDataSource> updatedDataSources =
+        new HashMap<>(previousSnapshot.getDataSourcesMap());
+    changedDataSources.forEach((name, dataSource) -> {
+      if (dataSource.isEmpty()) {
+        updatedDataSources.remove(name);
+      } else {
+        updatedDataSources.put(name, dataSource.toImmutableDruidDataSource());
+      }
+    });
+    dataSourcesSnapshot = DataSourcesSnapshot.fromPreviousSnapshot(
+        previousSnapshot,
+        updatedDataSources,
+        changedDataSources.keySet()
+    );
+  }
+
+  private static DruidDataSource copyDataSource(ImmutableDruidDataSource dataSource, Map<String, String> properties)
+  {
+    final DruidDataSource copy = new DruidDataSource(dataSource.getName(), properties);
+    dataSource.getSegments().forEach(copy::addSegment);
+    return copy;
+  }
+
+  /**
+   * Fetches the payloads of the segments with the given ids which are still used, in batches of {@link
+   * #SEGMENT_IDS_BATCH_SIZE} ids per query.
+   */
+  private List<DataSegment> retrieveUsedSegments(Collection<String> segmentIds)
+  {
+    if (segmentIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final List<DataSegment> segments = new ArrayList<>(segmentIds.size());
+    for (List<String> batch : Lists.partition(new ArrayList<>(segmentIds), SEGMENT_IDS_BATCH_SIZE)) {
+      final String idParameters = IntStream
+          .range(0, batch.size())
+          .mapToObj(i -> ":id" + i)
+          .collect(Collectors.joining(","));
+      final List<DataSegment> batchSegments = connector.inReadOnlyTransaction(
+          (handle, status) -> {
+            final Query<Map<String, Object>> query = handle.createQuery(
+                StringUtils.format(
+                    "SELECT id, payload FROM %s WHERE used=true AND id IN (%s)",
+                    getSegmentsTable(),
+                    idParameters
+                )
+            );
+            for (int i = 0; i < batch.size(); i++) {
+              query.bind("id" + i, batch.get(i));
+            }
+            return query.map((index, r, ctx) -> readSegment(r, corruptSegments)).list();
+          }
+      );
+      batchSegments.stream().filter(Objects::nonNull).forEach(segments::add);
+    }
+    return segments;
+  }
+
+  /**
+   * Deserializes the segment payload of the current row. If the payload is corrupt, returns null and records the
+   * segment in foundCorruptSegments, emitting an alert unless {@link #corruptSegments} already had this payload.
+   *
    * For the garbage collector in Java, it's better to keep new objects short-living, but once they are old enough
-   * (i. e. promoted to old generation), try to keep them alive. In {@link #poll()}, we fetch and deserialize all
-   * existing segments each time, and then replace them in {@link #dataSourcesSnapshot}. This method allows to use already
-   * existing (old) segments when possible, effectively interning them a-la {@link String#intern} or {@link
-   * com.google.common.collect.Interner}, aiming to make the majority of {@link DataSegment} objects garbage soon after
-   * they are deserialized and to die in young generation. It allows to avoid fragmentation of the old generation and
-   * full GCs.
+   * (i. e. promoted to old generation), try to keep them alive. In {@link #doFullPoll()}, we fetch and deserialize all
+   * existing segments, and then replace them in {@link #dataSourcesSnapshot}. {@link DataSegmentInterner} allows to
+   * use already existing (old) segments when possible, aiming to make the majority of {@link DataSegment} objects
+   * garbage soon after they are deserialized and to die in young generation. It allows to avoid fragmentation of the
+   * old generation and full GCs. It also lets the snapshot share {@link DataSegment} objects with the server inventory.
+   * Since segments are equal by id, the interned segment is used only if its payload is the same as the one read.
+   * Otherwise the payload was updated in the database, e. g. by a move task, and the segment read is returned.
    */
-  private DataSegment replaceWithExistingSegmentIfPresent(DataSegment segment)
+  @Nullable
+  private DataSegment readSegment(ResultSet r, Map<String, Integer> foundCorruptSegments) throws SQLException
   {
-    ImmutableDruidDataSource dataSource = Optional.ofNullable(dataSourcesSnapshot)
-                                                  .map(m -> m.getDataSourcesMap().get(segment.getDataSource()))
-                                                  .orElse(null);
-    if (dataSource == null) {
-      return segment;
+    final byte[] payload = r.getBytes("payload");
+    try {
+      final DataSegment segment = jsonMapper.readValue(payload, DataSegment.class);
+      final DataSegment interned = DataSegmentInterner.intern(segment);
+      return hasSamePayload(interned, segment) ? interned : segment;
+    }
+    catch (IOException e) {
+      final String id = r.getString("id");
+      final int payloadHash = Arrays.hashCode(payload);
+      if (!Objects.equals(corruptSegments.get(id), payloadHash)) {
+        log.makeAlert(e, "Failed to read segment from db.").addData("segmentId", id).emit();
+      }
+      foundCorruptSegments.put(id, payloadHash);
+      return null;
     }
-    DataSegment alreadyExistingSegment = dataSource.getSegment(segment.getId());
-    return alreadyExistingSegment != null ? alreadyExistingSegment : segment;
+  }
+
+  private static boolean hasSamePayload(DataSegment segment, DataSegment other)
+  {
+    return segment == other || (segment.getSize() == other.getSize()
+                                && Objects.equals(segment.getBinaryVersion(), other.getBinaryVersion())
+                                && Objects.equals(segment.getShardSpec(), other.getShardSpec())
+                                && Objects.equals(segment.getLoadSpec(), other.getLoadSpec())
+                                && Objects.equals(segment.getDimensions(), other.getDimensions())
+                                && Objects.equals(segment.getMetrics(), other.getMetrics()));
   }
 
   private String getSegmentsTable()
@@ -29,6 +29,8 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Sets;
 import org.apache.druid.data.input.impl.DimensionsSpec;
 import org.apache.druid.data.input.impl.InputRowParser;
+import org.apache.druid.data.input.impl.SpatialDimensionSchema;
+import org.apache.druid.data.input.impl.StringInputRowParser;
 import org.apache.druid.data.input.impl.TimestampSpec;
 import org.apache.druid.java.util.common.IAE;
 import org.apache.druid.java.util.common.logger.Logger;
@@ -37,6 +39,7 @@ import org.apache.druid.segment.indexing.granularity.GranularitySpec;
 import org.apache.druid.segment.indexing.granularity.UniformGranularitySpec;
 import org.apache.druid.segment.transform.TransformSpec;
 
+import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
@@ -166,6 +169,13 @@ public class DataSchema
                                   )
                           )
         );
+
+        // let the parser skip the input fields which are not read, unless the dimensions are discovered from them
+        if (cachedParser instanceof StringInputRowParser && dimensionsSpec.hasCustomDimensions()) {
+          cachedParser = ((StringInputRowParser) cachedParser).withRequiredFields(
+              getRequiredFields(dimensionsSpec, timestampSpec)
+          );
+        }
       } else {
         cachedParser = inputRowParser;
       }
@@ -177,6 +187,26 @@ public class DataSchema
     return cachedParser;
   }
 
+  /**
+   * Returns the input fields which ingestion reads: the timestamp column, the dimensions, and the inputs of the metrics
+   * and of the transforms.
+   */
+  private Set<String> getRequiredFields(DimensionsSpec dimensionsSpec, @Nullable TimestampSpec timestampSpec)
+  {
+    final Set<String> requiredFields = new HashSet<>(dimensionsSpec.getDimensionNames());
+    for (SpatialDimensionSchema spatialDimension : dimensionsSpec.getSpatialDimensions()) {
+      requiredFields.addAll(spatialDimension.getDims());
+    }
+    if (timestampSpec != null) {
+      requiredFields.add(timestampSpec.getTimestampColumn());
+    }
+    for (AggregatorFactory aggregator : aggregators) {
+      requiredFields.addAll(aggregator.requiredFields());
+    }
+    requiredFields.addAll(transformSpec.getRequiredColumns());
+    return requiredFields;
+  }
+
   @JsonProperty("metricsSpec")
   public AggregatorFactory[] getAggregators()
   {
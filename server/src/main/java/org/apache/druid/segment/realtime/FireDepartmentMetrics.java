@@ -39,6 +39,8 @@ public class FireDepartmentMetrics
   private final AtomicLong failedPersists = new AtomicLong(0);
   private final AtomicLong failedHandoffs = new AtomicLong(0);
   private final AtomicLong mergeTimeMillis = new AtomicLong(0);
+  private final AtomicLong pushTimeMillis = new AtomicLong(0);
+  private final AtomicLong pendingPersists = new AtomicLong(0);
   private final AtomicLong mergeCpuTime = new AtomicLong(0);
   private final AtomicLong persistCpuTime = new AtomicLong(0);
   private final AtomicLong handOffCount = new AtomicLong(0);
@@ -106,6 +108,16 @@ public class FireDepartmentMetrics
     mergeTimeMillis.addAndGet(millis);
   }
 
+  public void incrementPushTimeMillis(long millis)
+  {
+    pushTimeMillis.addAndGet(millis);
+  }
+
+  public void setPendingPersists(long pendingPersists)
+  {
+    this.pendingPersists.set(pendingPersists);
+  }
+
   public void incrementMergeCpuTime(long mergeTime)
   {
     mergeCpuTime.addAndGet(mergeTime);
@@ -191,6 +203,16 @@ public class FireDepartmentMetrics
     return mergeTimeMillis.get();
   }
 
+  public long pushTimeMillis()
+  {
+    return pushTimeMillis.get();
+  }
+
+  public long pendingPersists()
+  {
+    return pendingPersists.get();
+  }
+
   public long mergeCpuTime()
   {
     return mergeCpuTime.get();
@@ -236,6 +258,8 @@ public class FireDepartmentMetrics
     retVal.failedPersists.set(failedPersists.get());
     retVal.failedHandoffs.set(failedHandoffs.get());
     retVal.mergeTimeMillis.set(mergeTimeMillis.get());
+    retVal.pushTimeMillis.set(pushTimeMillis.get());
+    retVal.pendingPersists.set(pendingPersists.get());
     retVal.mergeCpuTime.set(mergeCpuTime.get());
     retVal.persistCpuTime.set(persistCpuTime.get());
     retVal.handOffCount.set(handOffCount.get());
@@ -266,6 +290,8 @@ public class FireDepartmentMetrics
     failedPersists.addAndGet(otherSnapshot.failedPersists());
     failedHandoffs.addAndGet(otherSnapshot.failedHandoffs());
     mergeTimeMillis.addAndGet(otherSnapshot.mergeTimeMillis());
+    pushTimeMillis.addAndGet(otherSnapshot.pushTimeMillis());
+    pendingPersists.set(Math.max(pendingPersists(), otherSnapshot.pendingPersists()));
     mergeCpuTime.addAndGet(otherSnapshot.mergeCpuTime());
     persistCpuTime.addAndGet(otherSnapshot.persistCpuTime());
     handOffCount.addAndGet(otherSnapshot.handOffCount());
@@ -19,6 +19,7 @@
 
 package org.apache.druid.segment.realtime.appenderator;
 
+import org.apache.druid.segment.IndexMerger;
 import org.apache.druid.segment.IndexSpec;
 import org.apache.druid.segment.writeout.SegmentWriteOutMediumFactory;
 import org.joda.time.Period;
@@ -65,6 +66,43 @@ public interface AppenderatorConfig
    */
   Period getIntermediatePersistPeriod();
 
+  /**
+   * Number of threads persisting the hydrants of distinct sinks concurrently. Hydrants of a single sink are always
+   * persisted in order by one thread.
+   */
+  default int getNumPersistThreads()
+  {
+    return 1;
+  }
+
+  /**
+   * Number of threads merging and pushing distinct segments concurrently
+   */
+  default int getNumMergeThreads()
+  {
+    return 1;
+  }
+
+  /**
+   * Maximum total number of columns of the intermediate indexes merged at once when merging a segment. Segments with
+   * more columns than this are merged in multiple phases to bound memory usage.
+   * {@link IndexMerger#UNLIMITED_MAX_COLUMNS_TO_MERGE} merges all intermediate indexes at once.
+   */
+  default int getMaxColumnsToMerge()
+  {
+    return IndexMerger.UNLIMITED_MAX_COLUMNS_TO_MERGE;
+  }
+
+  /**
+   * Whether to keep the aggregators of in-memory rows in direct memory rather than on heap. The off-heap buffers of
+   * each sink are tracked separately from its heap usage, and are bounded by {@link #getMaxBytesInMemory()} on their
+   * own.
+   */
+  default boolean isOffheapIncrementalIndex()
+  {
+    return false;
+  }
+
   IndexSpec getIndexSpec();
 
   File getBasePersistDirectory();
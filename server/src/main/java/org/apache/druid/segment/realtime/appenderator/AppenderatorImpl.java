@@ -26,6 +26,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -59,6 +60,7 @@ import org.apache.druid.query.QueryRunner;
 import org.apache.druid.query.QueryRunnerFactoryConglomerate;
 import org.apache.druid.query.QuerySegmentWalker;
 import org.apache.druid.query.SegmentDescriptor;
+import org.apache.druid.segment.BaseProgressIndicator;
 import org.apache.druid.segment.IndexIO;
 import org.apache.druid.segment.IndexMerger;
 import org.apache.druid.segment.IndexSpec;
@@ -89,6 +91,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -139,6 +142,7 @@ public class AppenderatorImpl implements Appenderator
   private final AtomicInteger rowsCurrentlyInMemory = new AtomicInteger();
   private final AtomicInteger totalRows = new AtomicInteger();
   private final AtomicLong bytesCurrentlyInMemory = new AtomicLong();
+  private final AtomicInteger pendingPersists = new AtomicInteger();
   // Synchronize persisting commitMetadata so that multiple persist threads (if present)
   // and abandon threads do not step over each other
   private final Lock commitLock = new ReentrantLock();
@@ -147,6 +151,10 @@ public class AppenderatorImpl implements Appenderator
 
   private volatile ListeningExecutorService persistExecutor = null;
   private volatile ListeningExecutorService pushExecutor = null;
+  // run the persists of distinct sinks, and the merges and pushes of distinct segments, submitted by persistExecutor
+  // and pushExecutor concurrently. They are null unless numPersistThreads and numMergeThreads are greater than 1.
+  private volatile ListeningExecutorService sinkPersistExecutor = null;
+  private volatile ListeningExecutorService sinkMergeExecutor = null;
   // use intermediate executor so that deadlock conditions can be prevented
   // where persist and push Executor try to put tasks in each other queues
   // thus creating circular dependency
@@ -391,6 +399,7 @@ public class AppenderatorImpl implements Appenderator
           tuningConfig.getMaxRowsInMemory(),
           maxBytesTuningConfig,
           tuningConfig.isReportParseExceptions(),
+          tuningConfig.isOffheapIncrementalIndex(),
           null
       );
 
@@ -522,6 +531,7 @@ public class AppenderatorImpl implements Appenderator
     final Object commitMetadata = committer == null ? null : committer.getMetadata();
     final Stopwatch runExecStopwatch = Stopwatch.createStarted();
     final Stopwatch persistStopwatch = Stopwatch.createStarted();
+    metrics.setPendingPersists(pendingPersists.incrementAndGet());
     final ListenableFuture<Object> future = persistExecutor.submit(
         new ThreadRenamingCallable<Object>(threadName)
         {
@@ -529,9 +539,7 @@ public class AppenderatorImpl implements Appenderator
           public Object doCall() throws IOException
           {
             try {
-              for (Pair<FireHydrant, SegmentIdWithShardSpec> pair : indexesToPersist) {
-                metrics.incrementRowOutputCount(persistHydrant(pair.lhs, pair.rhs));
-              }
+              persistHydrants(indexesToPersist);
 
               if (committer != null) {
                 log.info(
@@ -575,6 +583,7 @@ public class AppenderatorImpl implements Appenderator
             finally {
               metrics.incrementNumPersists();
               metrics.incrementPersistTimeMillis(persistStopwatch.elapsed(TimeUnit.MILLISECONDS));
+              metrics.setPendingPersists(pendingPersists.decrementAndGet());
               persistStopwatch.stop();
             }
           }
@@ -619,17 +628,20 @@ public class AppenderatorImpl implements Appenderator
         // segments.
         persistAll(committer),
         (Function<Object, SegmentsAndMetadata>) commitMetadata -> {
-          final List<DataSegment> dataSegments = new ArrayList<>();
-
+          final Map<SegmentIdWithShardSpec, Sink> sinksToPush = new HashMap<>();
           for (Map.Entry<SegmentIdWithShardSpec, Sink> entry : theSinks.entrySet()) {
             if (droppingSinks.contains(entry.getKey())) {
               log.info("Skipping push of currently-dropping sink[%s]", entry.getKey());
-              continue;
+            } else {
+              sinksToPush.put(entry.getKey(), entry.getValue());
             }
+          }
 
-            final DataSegment dataSegment = mergeAndPush(entry.getKey(), entry.getValue(), useUniquePath);
-            if (dataSegment != null) {
-              dataSegments.add(dataSegment);
+          final List<DataSegment> dataSegments = new ArrayList<>();
+          final Map<SegmentIdWithShardSpec, DataSegment> pushedSegments = mergeAndPushAll(sinksToPush, useUniquePath);
+          for (Map.Entry<SegmentIdWithShardSpec, DataSegment> entry : pushedSegments.entrySet()) {
+            if (entry.getValue() != null) {
+              dataSegments.add(entry.getValue());
             } else {
               log.warn("mergeAndPush[%s] returned null, skipping.", entry.getKey());
             }
@@ -653,9 +665,42 @@ public class AppenderatorImpl implements Appenderator
     );
   }
 
+  /**
+   * Merges and pushes the given sinks, one at a time or concurrently in {@link #sinkMergeExecutor} if it exists. Must
+   * only be run in the single-threaded pushExecutor.
+   *
+   * @return segment descriptors by sink identifier, with null values for the sinks which are no longer valid
+   */
+  private Map<SegmentIdWithShardSpec, DataSegment> mergeAndPushAll(
+      final Map<SegmentIdWithShardSpec, Sink> sinksToPush,
+      final boolean useUniquePath
+  )
+  {
+    final Map<SegmentIdWithShardSpec, DataSegment> pushedSegments = new HashMap<>();
+    if (sinkMergeExecutor == null) {
+      for (Map.Entry<SegmentIdWithShardSpec, Sink> entry : sinksToPush.entrySet()) {
+        pushedSegments.put(entry.getKey(), mergeAndPush(entry.getKey(), entry.getValue(), useUniquePath));
+      }
+      return pushedSegments;
+    }
+
+    final Map<SegmentIdWithShardSpec, ListenableFuture<DataSegment>> futures = new HashMap<>();
+    for (Map.Entry<SegmentIdWithShardSpec, Sink> entry : sinksToPush.entrySet()) {
+      futures.put(
+          entry.getKey(),
+          sinkMergeExecutor.submit(() -> mergeAndPush(entry.getKey(), entry.getValue(), useUniquePath))
+      );
+    }
+    waitForAll(futures.values());
+    for (Map.Entry<SegmentIdWithShardSpec, ListenableFuture<DataSegment>> entry : futures.entrySet()) {
+      pushedSegments.put(entry.getKey(), Futures.getUnchecked(entry.getValue()));
+    }
+    return pushedSegments;
+  }
+
   /**
    * Merge segment, push to deep storage. Should only be used on segments that have been fully persisted. Must only
-   * be run in the single-threaded pushExecutor.
+   * be run in the single-threaded pushExecutor, or in sinkMergeExecutor on behalf of it.
    *
    * @param identifier    sink identifier
    * @param sink          sink to push
@@ -723,14 +768,18 @@ public class AppenderatorImpl implements Appenderator
           closer.register(segmentAndCloseable.rhs);
         }
 
+        final Stopwatch mergeStopwatch = Stopwatch.createStarted();
         mergedFile = indexMerger.mergeQueryableIndex(
             indexes,
             schema.getGranularitySpec().isRollup(),
             schema.getAggregators(),
             mergedTarget,
             tuningConfig.getIndexSpec(),
-            tuningConfig.getSegmentWriteOutMediumFactory()
+            new BaseProgressIndicator(),
+            tuningConfig.getSegmentWriteOutMediumFactory(),
+            tuningConfig.getMaxColumnsToMerge()
         );
+        metrics.incrementMergeTimeMillis(mergeStopwatch.elapsed(TimeUnit.MILLISECONDS));
       }
       catch (Throwable t) {
         throw closer.rethrow(t);
@@ -740,6 +789,7 @@ public class AppenderatorImpl implements Appenderator
       }
 
       // Retry pushing segments because uploading to deep storage might fail especially for cloud storage types
+      final Stopwatch pushStopwatch = Stopwatch.createStarted();
       final DataSegment segment = RetryUtils.retry(
           // The appenderator is currently being used for the local indexing task and the Kafka indexing task. For the
           // Kafka indexing task, pushers must use unique file paths in deep storage in order to maintain exactly-once
@@ -753,6 +803,8 @@ public class AppenderatorImpl implements Appenderator
           5
       );
 
+      metrics.incrementPushTimeMillis(pushStopwatch.elapsed(TimeUnit.MILLISECONDS));
+
       objectMapper.writeValue(descriptorFile, segment);
 
       log.info("Pushed merged index for segment[%s], descriptor is: %s", identifier, segment);
@@ -802,12 +854,22 @@ public class AppenderatorImpl implements Appenderator
           pushExecutor == null || pushExecutor.awaitTermination(365, TimeUnit.DAYS),
           "pushExecutor not terminated"
       );
+      Preconditions.checkState(
+          sinkPersistExecutor == null || sinkPersistExecutor.awaitTermination(365, TimeUnit.DAYS),
+          "sinkPersistExecutor not terminated"
+      );
+      Preconditions.checkState(
+          sinkMergeExecutor == null || sinkMergeExecutor.awaitTermination(365, TimeUnit.DAYS),
+          "sinkMergeExecutor not terminated"
+      );
       Preconditions.checkState(
           intermediateTempExecutor == null || intermediateTempExecutor.awaitTermination(365, TimeUnit.DAYS),
           "intermediateTempExecutor not terminated"
       );
       persistExecutor = null;
       pushExecutor = null;
+      sinkPersistExecutor = null;
+      sinkMergeExecutor = null;
       intermediateTempExecutor = null;
     }
     catch (InterruptedException e) {
@@ -848,16 +910,21 @@ public class AppenderatorImpl implements Appenderator
     }
     try {
       shutdownExecutors();
-      // We don't wait for pushExecutor to be terminated. See Javadoc for more details.
+      // We don't wait for pushExecutor and sinkMergeExecutor to be terminated. See Javadoc for more details.
       Preconditions.checkState(
           persistExecutor == null || persistExecutor.awaitTermination(365, TimeUnit.DAYS),
           "persistExecutor not terminated"
       );
+      Preconditions.checkState(
+          sinkPersistExecutor == null || sinkPersistExecutor.awaitTermination(365, TimeUnit.DAYS),
+          "sinkPersistExecutor not terminated"
+      );
       Preconditions.checkState(
           intermediateTempExecutor == null || intermediateTempExecutor.awaitTermination(365, TimeUnit.DAYS),
           "intermediateTempExecutor not terminated"
       );
       persistExecutor = null;
+      sinkPersistExecutor = null;
       intermediateTempExecutor = null;
     }
     catch (InterruptedException e) {
@@ -921,6 +988,17 @@ public class AppenderatorImpl implements Appenderator
           )
       );
     }
+    if (sinkPersistExecutor == null && tuningConfig.getNumPersistThreads() > 1) {
+      // the number of threads bounds the number of concurrent writes to the disk
+      sinkPersistExecutor = MoreExecutors.listeningDecorator(
+          Execs.multiThreaded(tuningConfig.getNumPersistThreads(), "appenderator_sink_persist_%d")
+      );
+    }
+    if (sinkMergeExecutor == null && tuningConfig.getNumMergeThreads() > 1) {
+      sinkMergeExecutor = MoreExecutors.listeningDecorator(
+          Execs.multiThreaded(tuningConfig.getNumMergeThreads(), "appenderator_sink_merge_%d")
+      );
+    }
     if (intermediateTempExecutor == null) {
       // use single threaded executor with SynchronousQueue so that all abandon operations occur sequentially
       intermediateTempExecutor = MoreExecutors.listeningDecorator(
@@ -939,6 +1017,12 @@ public class AppenderatorImpl implements Appenderator
     if (pushExecutor != null) {
       pushExecutor.shutdownNow();
     }
+    if (sinkPersistExecutor != null) {
+      sinkPersistExecutor.shutdownNow();
+    }
+    if (sinkMergeExecutor != null) {
+      sinkMergeExecutor.shutdownNow();
+    }
     if (intermediateTempExecutor != null) {
       intermediateTempExecutor.shutdownNow();
     }
@@ -1057,6 +1141,7 @@ public class AppenderatorImpl implements Appenderator
             tuningConfig.getMaxRowsInMemory(),
             maxBytesTuningConfig,
             tuningConfig.isReportParseExceptions(),
+            tuningConfig.isOffheapIncrementalIndex(),
             null,
             hydrants
         );
@@ -1234,8 +1319,63 @@ public class AppenderatorImpl implements Appenderator
   }
 
   /**
-   * Persists the given hydrant and returns the number of rows persisted. Must only be called in the single-threaded
+   * Persists the given hydrants, one at a time or concurrently in {@link #sinkPersistExecutor} if it exists. The
+   * hydrants of a sink are always persisted in order by a single thread. Must only be called in the single-threaded
    * persistExecutor.
+   */
+  private void persistHydrants(final List<Pair<FireHydrant, SegmentIdWithShardSpec>> indexesToPersist)
+  {
+    if (sinkPersistExecutor == null) {
+      for (Pair<FireHydrant, SegmentIdWithShardSpec> pair : indexesToPersist) {
+        metrics.incrementRowOutputCount(persistHydrant(pair.lhs, pair.rhs));
+      }
+      return;
+    }
+
+    final Map<SegmentIdWithShardSpec, List<FireHydrant>> hydrantsPerSink = new LinkedHashMap<>();
+    for (Pair<FireHydrant, SegmentIdWithShardSpec> pair : indexesToPersist) {
+      hydrantsPerSink.computeIfAbsent(pair.rhs, identifier -> new ArrayList<>()).add(pair.lhs);
+    }
+
+    final List<ListenableFuture<?>> futures = new ArrayList<>();
+    for (Map.Entry<SegmentIdWithShardSpec, List<FireHydrant>> entry : hydrantsPerSink.entrySet()) {
+      futures.add(
+          sinkPersistExecutor.submit(() -> {
+            for (FireHydrant hydrant : entry.getValue()) {
+              metrics.incrementRowOutputCount(persistHydrant(hydrant, entry.getKey()));
+            }
+          })
+      );
+    }
+    waitForAll(futures);
+  }
+
+  /**
+   * Waits for all the given futures to complete, so that no work submitted on behalf of the calling executor is still
+   * running when this method returns, and then rethrows the first failure, if any.
+   */
+  private static void waitForAll(final Collection<? extends ListenableFuture<?>> futures)
+  {
+    try {
+      Futures.successfulAsList(futures).get();
+      for (ListenableFuture<?> future : futures) {
+        future.get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      futures.forEach(future -> future.cancel(true));
+      throw new RuntimeException(e);
+    }
+    catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /**
+   * Persists the given hydrant and returns the number of rows persisted. Must only be called in the single-threaded
+   * persistExecutor, or in sinkPersistExecutor on behalf of it.
    *
    * @param indexToPersist hydrant to persist
    * @param identifier     the segment this hydrant is going to be part of
@@ -51,6 +51,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -240,6 +241,11 @@ public abstract class BaseAppenderatorDriver implements Closeable
   // However, it's desired to do some operations like indexing and pushing at the same time. Locking this map is also
   // required in BatchAppenderatorDriver once this feature is supported.
   protected final Map<String, SegmentsForSequence> segments = new TreeMap<>();
+  // sequenceName -> segments allocated by allocateSegments() which no row has been added to yet. They are kept until a
+  // row of their interval is added, or the sequence is published, because allocating a segment of the same sequence and
+  // interval again would return the same pending segment anyway.
+  // This map should be accessed while holding the lock of segments.
+  private final Map<String, List<SegmentIdWithShardSpec>> preallocatedSegments = new HashMap<>();
   protected final ListeningExecutorService executor;
 
   BaseAppenderatorDriver(
@@ -328,9 +334,10 @@ public abstract class BaseAppenderatorDriver implements Closeable
       if (existing != null) {
         return existing;
       } else {
-        // Allocate new segment.
+        // Allocate new segment, unless allocateSegments() already did.
         final SegmentsForSequence segmentsForSequence = segments.get(sequenceName);
-        final SegmentIdWithShardSpec newSegment = segmentAllocator.allocate(
+        final SegmentIdWithShardSpec preallocated = takePreallocatedSegment(timestamp, sequenceName);
+        final SegmentIdWithShardSpec newSegment = preallocated != null ? preallocated : segmentAllocator.allocate(
             row,
             sequenceName,
             segmentsForSequence == null ? null : segmentsForSequence.lastSegmentId,
@@ -363,6 +370,84 @@ public abstract class BaseAppenderatorDriver implements Closeable
     }
   }
 
+  /**
+   * Allocates, in one call to {@link SegmentAllocator#allocateBatch}, the segments which the given rows don't have an
+   * appendable segment for. These segments are used by the next {@link #append} calls for the rows of the same
+   * sequence, instead of allocating them one by one. Since allocations of the same sequence depend on each other when
+   * the segment lineage is checked, this does nothing unless skipSegmentLineageCheck is true.
+   *
+   * @param rows                    rows about to be added
+   * @param sequenceName            sequenceName the rows are about to be added to
+   * @param skipSegmentLineageCheck the value which the rows are about to be added with
+   *
+   * @throws IOException if an exception occurs while allocating segments
+   */
+  public void allocateSegments(
+      final List<InputRow> rows,
+      final String sequenceName,
+      final boolean skipSegmentLineageCheck
+  ) throws IOException
+  {
+    if (!skipSegmentLineageCheck) {
+      return;
+    }
+
+    synchronized (segments) {
+      final List<SegmentIdWithShardSpec> preallocated = preallocatedSegments.computeIfAbsent(
+          sequenceName,
+          k -> new ArrayList<>()
+      );
+      final List<InputRow> rowsToAllocate = rows
+          .stream()
+          .filter(row -> getAppendableSegment(row.getTimestamp(), sequenceName) == null)
+          .filter(row -> preallocated.stream().noneMatch(id -> id.getInterval().contains(row.getTimestamp())))
+          .collect(Collectors.toList());
+      if (rowsToAllocate.isEmpty()) {
+        return;
+      }
+
+      final SegmentsForSequence segmentsForSequence = segments.get(sequenceName);
+      final List<SegmentIdWithShardSpec> allocated = segmentAllocator.allocateBatch(
+          rowsToAllocate,
+          sequenceName,
+          segmentsForSequence == null ? null : segmentsForSequence.lastSegmentId,
+          true
+      );
+      allocated.stream().filter(Objects::nonNull).distinct().forEach(preallocated::add);
+    }
+  }
+
+  /**
+   * Drops the segments preallocated by {@link #allocateSegments} for the given sequences, which won't get more rows.
+   */
+  void dropPreallocatedSegments(final Collection<String> sequenceNames)
+  {
+    synchronized (segments) {
+      sequenceNames.forEach(preallocatedSegments::remove);
+    }
+  }
+
+  /**
+   * Removes and returns a segment preallocated by {@link #allocateSegments} for the given timestamp and sequenceName,
+   * or returns null if there is none.
+   */
+  @Nullable
+  private SegmentIdWithShardSpec takePreallocatedSegment(final DateTime timestamp, final String sequenceName)
+  {
+    synchronized (segments) {
+      final List<SegmentIdWithShardSpec> preallocated = preallocatedSegments.get(sequenceName);
+      if (preallocated == null) {
+        return null;
+      }
+      for (int i = 0; i < preallocated.size(); i++) {
+        if (preallocated.get(i).getInterval().contains(timestamp)) {
+          return preallocated.remove(i);
+        }
+      }
+      return null;
+    }
+  }
+
   private void addSegment(String sequenceName, SegmentIdWithShardSpec identifier)
   {
     synchronized (segments) {
@@ -627,6 +712,7 @@ public abstract class BaseAppenderatorDriver implements Closeable
   {
     synchronized (segments) {
       segments.clear();
+      preallocatedSegments.clear();
     }
     appenderator.clear();
   }
@@ -22,6 +22,8 @@ package org.apache.druid.segment.realtime.appenderator;
 import org.apache.druid.data.input.InputRow;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public interface SegmentAllocator
 {
@@ -42,4 +44,25 @@ public interface SegmentAllocator
       String previousSegmentId,
       boolean skipSegmentLineageCheck
   ) throws IOException;
+
+  /**
+   * Allocates new segments for many rows of the same sequence at once. All rows share the same previousSegmentId, so
+   * this is meant to be used only if skipSegmentLineageCheck is true. By default, segments are allocated one by one.
+   *
+   * @return the pending segment identifier of each row, in the same order, or null for the rows it was impossible to
+   * allocate a new segment for
+   */
+  default List<SegmentIdWithShardSpec> allocateBatch(
+      List<InputRow> rows,
+      String sequenceName,
+      String previousSegmentId,
+      boolean skipSegmentLineageCheck
+  ) throws IOException
+  {
+    final List<SegmentIdWithShardSpec> allocated = new ArrayList<>(rows.size());
+    for (InputRow row : rows) {
+      allocated.add(allocate(row, sequenceName, previousSegmentId, skipSegmentLineageCheck));
+    }
+    return allocated;
+  }
 }
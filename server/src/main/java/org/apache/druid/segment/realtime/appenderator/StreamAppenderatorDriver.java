@@ -283,6 +283,7 @@ public class StreamAppenderatorDriver extends BaseAppenderatorDriver
           synchronized (segments) {
             sequenceNames.forEach(segments::remove);
           }
+          dropPreallocatedSegments(sequenceNames);
           return sam;
         }
     );
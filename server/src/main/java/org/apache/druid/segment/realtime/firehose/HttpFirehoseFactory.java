@@ -64,13 +64,21 @@ public class HttpFirehoseFactory extends PrefetchableTextFilesFirehoseFactory<UR
       @JsonProperty("prefetchTriggerBytes") Long prefetchTriggerBytes,
       @JsonProperty("fetchTimeout") Long fetchTimeout,
       @JsonProperty("maxFetchRetry") Integer maxFetchRetry,
+      @JsonProperty("fetchThreads") Integer fetchThreads,
       @Nullable
       @JsonProperty("httpAuthenticationUsername") String httpAuthenticationUsername,
       @Nullable
       @JsonProperty("httpAuthenticationPassword") PasswordProvider httpAuthenticationPasswordProvider
   ) throws IOException
   {
-    super(maxCacheCapacityBytes, maxFetchCapacityBytes, prefetchTriggerBytes, fetchTimeout, maxFetchRetry);
+    super(
+        maxCacheCapacityBytes,
+        maxFetchCapacityBytes,
+        prefetchTriggerBytes,
+        fetchTimeout,
+        maxFetchRetry,
+        fetchThreads
+    );
     this.uris = uris;
 
     Preconditions.checkArgument(uris.size() > 0, "Empty URIs");
@@ -160,6 +168,7 @@ public class HttpFirehoseFactory extends PrefetchableTextFilesFirehoseFactory<UR
            getPrefetchTriggerBytes() == that.getPrefetchTriggerBytes() &&
            getFetchTimeout() == that.getFetchTimeout() &&
            getMaxFetchRetry() == that.getMaxFetchRetry() &&
+           getFetchThreads() == that.getFetchThreads() &&
            httpAuthenticationUsername.equals(that.getHttpAuthenticationUsername()) &&
            httpAuthenticationPasswordProvider.equals(that.getHttpAuthenticationPasswordProvider());
   }
@@ -174,6 +183,7 @@ public class HttpFirehoseFactory extends PrefetchableTextFilesFirehoseFactory<UR
         getPrefetchTriggerBytes(),
         getFetchTimeout(),
         getMaxFetchRetry(),
+        getFetchThreads(),
         httpAuthenticationUsername,
         httpAuthenticationPasswordProvider
     );
@@ -196,6 +206,7 @@ public class HttpFirehoseFactory extends PrefetchableTextFilesFirehoseFactory<UR
           getPrefetchTriggerBytes(),
           getFetchTimeout(),
           getMaxFetchRetry(),
+          getFetchThreads(),
           getHttpAuthenticationUsername(),
           httpAuthenticationPasswordProvider
       );
@@ -260,6 +260,7 @@ public class RealtimePlumber implements Plumber
           config.getMaxRowsInMemory(),
           TuningConfigs.getMaxBytesInMemoryOrDefault(config.getMaxBytesInMemory()),
           config.isReportParseExceptions(),
+          config.isOffheapIncrementalIndex(),
           config.getDedupColumn()
       );
       addSink(retVal);
@@ -722,6 +723,7 @@ public class RealtimePlumber implements Plumber
           config.getMaxRowsInMemory(),
           TuningConfigs.getMaxBytesInMemoryOrDefault(config.getMaxBytesInMemory()),
           config.isReportParseExceptions(),
+          config.isOffheapIncrementalIndex(),
           config.getDedupColumn(),
           hydrants
       );
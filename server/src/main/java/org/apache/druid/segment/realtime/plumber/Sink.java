@@ -65,6 +65,7 @@ public class Sink implements Iterable<FireHydrant>
   private final int maxRowsInMemory;
   private final long maxBytesInMemory;
   private final boolean reportParseExceptions;
+  private final boolean offheapIncrementalIndex;
   private final CopyOnWriteArrayList<FireHydrant> hydrants = new CopyOnWriteArrayList<>();
   private final LinkedHashSet<String> dimOrder = new LinkedHashSet<>();
   private final AtomicInteger numRowsExcludingCurrIndex = new AtomicInteger();
@@ -81,6 +82,7 @@ public class Sink implements Iterable<FireHydrant>
       int maxRowsInMemory,
       long maxBytesInMemory,
       boolean reportParseExceptions,
+      boolean offheapIncrementalIndex,
       String dedupColumn
   )
   {
@@ -91,6 +93,7 @@ public class Sink implements Iterable<FireHydrant>
     this.maxRowsInMemory = maxRowsInMemory;
     this.maxBytesInMemory = maxBytesInMemory;
     this.reportParseExceptions = reportParseExceptions;
+    this.offheapIncrementalIndex = offheapIncrementalIndex;
     this.dedupColumn = dedupColumn;
 
     makeNewCurrIndex(interval.getStartMillis(), schema);
@@ -104,6 +107,7 @@ public class Sink implements Iterable<FireHydrant>
       int maxRowsInMemory,
       long maxBytesInMemory,
       boolean reportParseExceptions,
+      boolean offheapIncrementalIndex,
       String dedupColumn,
       List<FireHydrant> hydrants
   )
@@ -115,6 +119,7 @@ public class Sink implements Iterable<FireHydrant>
     this.maxRowsInMemory = maxRowsInMemory;
     this.maxBytesInMemory = maxBytesInMemory;
     this.reportParseExceptions = reportParseExceptions;
+    this.offheapIncrementalIndex = offheapIncrementalIndex;
     this.dedupColumn = dedupColumn;
 
     int maxCount = -1;
@@ -329,12 +334,12 @@ public class Sink implements Iterable<FireHydrant>
         .withMetrics(schema.getAggregators())
         .withRollup(schema.getGranularitySpec().isRollup())
         .build();
-    final IncrementalIndex newIndex = new IncrementalIndex.Builder()
+    final IncrementalIndex.Builder indexBuilder = new IncrementalIndex.Builder()
         .setIndexSchema(indexSchema)
         .setReportParseExceptions(reportParseExceptions)
         .setMaxRowCount(maxRowsInMemory)
-        .setMaxBytesInMemory(maxBytesInMemory)
-        .buildOnheap();
+        .setMaxBytesInMemory(maxBytesInMemory);
+    final IncrementalIndex newIndex = offheapIncrementalIndex ? indexBuilder.buildOffheap() : indexBuilder.buildOnheap();
 
     final FireHydrant old;
     synchronized (hydrantLock) {
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordination;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Per-segment query time statistics of a single datasource and query type, aggregated over all segments of the
+ * datasource served by this process. Percentiles are computed from an exponentially decayed latency histogram and are
+ * accurate to within 25% of the reported value.
+ */
+public class DataSourceQueryStats
+{
+  private final String dataSource;
+  private final String queryType;
+  private final long queryCount;
+  private final long queryTimeMs;
+  private final double queriesPerMinute;
+  private final double avgQueryTimeMs;
+  private final double p50QueryTimeMs;
+  private final double p90QueryTimeMs;
+  private final double p99QueryTimeMs;
+
+  @JsonCreator
+  public DataSourceQueryStats(
+      @JsonProperty("dataSource") String dataSource,
+      @JsonProperty("queryType") String queryType,
+      @JsonProperty("queryCount") long queryCount,
+      @JsonProperty("queryTimeMs") long queryTimeMs,
+      @JsonProperty("queriesPerMinute") double queriesPerMinute,
+      @JsonProperty("avgQueryTimeMs") double avgQueryTimeMs,
+      @JsonProperty("p50QueryTimeMs") double p50QueryTimeMs,
+      @JsonProperty("p90QueryTimeMs") double p90QueryTimeMs,
+      @JsonProperty("p99QueryTimeMs") double p99QueryTimeMs
+  )
+  {
+    this.dataSource = dataSource;
+    this.queryType = queryType;
+    this.queryCount = queryCount;
+    this.queryTimeMs = queryTimeMs;
+    this.queriesPerMinute = queriesPerMinute;
+    this.avgQueryTimeMs = avgQueryTimeMs;
+    this.p50QueryTimeMs = p50QueryTimeMs;
+    this.p90QueryTimeMs = p90QueryTimeMs;
+    this.p99QueryTimeMs = p99QueryTimeMs;
+  }
+
+  @JsonProperty
+  public String getDataSource()
+  {
+    return dataSource;
+  }
+
+  @JsonProperty
+  public String getQueryType()
+  {
+    return queryType;
+  }
+
+  @JsonProperty
+  public long getQueryCount()
+  {
+    return queryCount;
+  }
+
+  @JsonProperty
+  public long getQueryTimeMs()
+  {
+    return queryTimeMs;
+  }
+
+  @JsonProperty
+  public double getQueriesPerMinute()
+  {
+    return queriesPerMinute;
+  }
+
+  @JsonProperty
+  public double getAvgQueryTimeMs()
+  {
+    return avgQueryTimeMs;
+  }
+
+  @JsonProperty
+  public double getP50QueryTimeMs()
+  {
+    return p50QueryTimeMs;
+  }
+
+  @JsonProperty
+  public double getP90QueryTimeMs()
+  {
+    return p90QueryTimeMs;
+  }
+
+  @JsonProperty
+  public double getP99QueryTimeMs()
+  {
+    return p99QueryTimeMs;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    DataSourceQueryStats that = (DataSourceQueryStats) o;
+    return queryCount == that.queryCount &&
+           queryTimeMs == that.queryTimeMs &&
+           Double.compare(that.queriesPerMinute, queriesPerMinute) == 0 &&
+           Double.compare(that.avgQueryTimeMs, avgQueryTimeMs) == 0 &&
+           Double.compare(that.p50QueryTimeMs, p50QueryTimeMs) == 0 &&
+           Double.compare(that.p90QueryTimeMs, p90QueryTimeMs) == 0 &&
+           Double.compare(that.p99QueryTimeMs, p99QueryTimeMs) == 0 &&
+           Objects.equals(dataSource, that.dataSource) &&
+           Objects.equals(queryType, that.queryType);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(
+        dataSource,
+        queryType,
+        queryCount,
+        queryTimeMs,
+        queriesPerMinute,
+        avgQueryTimeMs,
+        p50QueryTimeMs,
+        p90QueryTimeMs,
+        p99QueryTimeMs
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return "DataSourceQueryStats{" +
+           "dataSource='" + dataSource + '\'' +
+           ", queryType='" + queryType + '\'' +
+           ", queryCount=" + queryCount +
+           ", queryTimeMs=" + queryTimeMs +
+           ", queriesPerMinute=" + queriesPerMinute +
+           ", avgQueryTimeMs=" + avgQueryTimeMs +
+           ", p50QueryTimeMs=" + p50QueryTimeMs +
+           ", p90QueryTimeMs=" + p90QueryTimeMs +
+           ", p99QueryTimeMs=" + p99QueryTimeMs +
+           '}';
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordination;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A fixed number of double counters whose contents decay exponentially with a configurable half-life.
+ *
+ * Implemented using "forward decay": every update is scaled up by 2^(age / halfLife), where age is measured from a
+ * landmark time, and reads scale the sums back down by the same factor. Updates therefore never have to rewrite
+ * existing values, and both updates and reads are lock-free. To keep scaled values within the range of a double, the
+ * landmark is moved forward every {@link #MAX_LANDMARK_AGE_HALF_LIVES} half-lives. Updates that race with a landmark
+ * move may be lost, which is acceptable for the load estimates these counters are used for.
+ */
+final class DecayingCounters
+{
+  private static final int MAX_LANDMARK_AGE_HALF_LIVES = 64;
+
+  private final int size;
+  private final double halfLifeMillis;
+  private final AtomicReference<Generation> generation;
+
+  DecayingCounters(int size, long halfLifeMillis, long nowMillis)
+  {
+    this.size = size;
+    this.halfLifeMillis = halfLifeMillis;
+    this.generation = new AtomicReference<>(new Generation(nowMillis, size));
+  }
+
+  void add(int slot, double amount, long nowMillis)
+  {
+    final Generation current = currentGeneration(nowMillis);
+    addDouble(current.values, slot, amount * current.scale(nowMillis, halfLifeMillis));
+  }
+
+  double get(int slot, long nowMillis)
+  {
+    final Generation current = generation.get();
+    return Double.longBitsToDouble(current.values.get(slot)) / current.scale(nowMillis, halfLifeMillis);
+  }
+
+  double[] getAll(long nowMillis)
+  {
+    final Generation current = generation.get();
+    final double scale = current.scale(nowMillis, halfLifeMillis);
+    final double[] retVal = new double[size];
+    for (int i = 0; i < size; i++) {
+      retVal[i] = Double.longBitsToDouble(current.values.get(i)) / scale;
+    }
+    return retVal;
+  }
+
+  private Generation currentGeneration(long nowMillis)
+  {
+    final Generation current = generation.get();
+    if (nowMillis - current.landmarkMillis < MAX_LANDMARK_AGE_HALF_LIVES * halfLifeMillis) {
+      return current;
+    }
+
+    final Generation next = new Generation(nowMillis, size);
+    final double scale = current.scale(nowMillis, halfLifeMillis);
+    for (int i = 0; i < size; i++) {
+      next.values.set(i, Double.doubleToRawLongBits(Double.longBitsToDouble(current.values.get(i)) / scale));
+    }
+    if (generation.compareAndSet(current, next)) {
+      return next;
+    } else {
+      return generation.get();
+    }
+  }
+
+  private static void addDouble(AtomicLongArray array, int i, double delta)
+  {
+    long prev;
+    long next;
+    do {
+      prev = array.get(i);
+      next = Double.doubleToRawLongBits(Double.longBitsToDouble(prev) + delta);
+    } while (!array.compareAndSet(i, prev, next));
+  }
+
+  private static class Generation
+  {
+    private final long landmarkMillis;
+    private final AtomicLongArray values;
+
+    Generation(long landmarkMillis, int size)
+    {
+      this.landmarkMillis = landmarkMillis;
+      this.values = new AtomicLongArray(size);
+    }
+
+    double scale(long nowMillis, double halfLifeMillis)
+    {
+      return Math.pow(2, (nowMillis - landmarkMillis) / halfLifeMillis);
+    }
+  }
+}
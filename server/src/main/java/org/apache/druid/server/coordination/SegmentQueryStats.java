@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordination;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Query statistics of a single segment and query type, as tracked by {@link SegmentQueryStatsCollector}. The
+ * "queriesPerMinute" and "avgQueryTimeMs" values are exponentially decayed, so they reflect recent load; the
+ * "queryCount" and "queryTimeMs" values are totals since the statistics for this segment started being tracked.
+ */
+public class SegmentQueryStats
+{
+  private final String dataSource;
+  private final String segmentId;
+  private final String queryType;
+  private final long queryCount;
+  private final long queryTimeMs;
+  private final double queriesPerMinute;
+  private final double avgQueryTimeMs;
+
+  @JsonCreator
+  public SegmentQueryStats(
+      @JsonProperty("dataSource") String dataSource,
+      @JsonProperty("segmentId") String segmentId,
+      @JsonProperty("queryType") String queryType,
+      @JsonProperty("queryCount") long queryCount,
+      @JsonProperty("queryTimeMs") long queryTimeMs,
+      @JsonProperty("queriesPerMinute") double queriesPerMinute,
+      @JsonProperty("avgQueryTimeMs") double avgQueryTimeMs
+  )
+  {
+    this.dataSource = dataSource;
+    this.segmentId = segmentId;
+    this.queryType = queryType;
+    this.queryCount = queryCount;
+    this.queryTimeMs = queryTimeMs;
+    this.queriesPerMinute = queriesPerMinute;
+    this.avgQueryTimeMs = avgQueryTimeMs;
+  }
+
+  @JsonProperty
+  public String getDataSource()
+  {
+    return dataSource;
+  }
+
+  @JsonProperty
+  public String getSegmentId()
+  {
+    return segmentId;
+  }
+
+  @JsonProperty
+  public String getQueryType()
+  {
+    return queryType;
+  }
+
+  @JsonProperty
+  public long getQueryCount()
+  {
+    return queryCount;
+  }
+
+  @JsonProperty
+  public long getQueryTimeMs()
+  {
+    return queryTimeMs;
+  }
+
+  @JsonProperty
+  public double getQueriesPerMinute()
+  {
+    return queriesPerMinute;
+  }
+
+  @JsonProperty
+  public double getAvgQueryTimeMs()
+  {
+    return avgQueryTimeMs;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SegmentQueryStats that = (SegmentQueryStats) o;
+    return queryCount == that.queryCount &&
+           queryTimeMs == that.queryTimeMs &&
+           Double.compare(that.queriesPerMinute, queriesPerMinute) == 0 &&
+           Double.compare(that.avgQueryTimeMs, avgQueryTimeMs) == 0 &&
+           Objects.equals(dataSource, that.dataSource) &&
+           Objects.equals(segmentId, that.segmentId) &&
+           Objects.equals(queryType, that.queryType);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(dataSource, segmentId, queryType, queryCount, queryTimeMs, queriesPerMinute, avgQueryTimeMs);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "SegmentQueryStats{" +
+           "dataSource='" + dataSource + '\'' +
+           ", segmentId='" + segmentId + '\'' +
+           ", queryType='" + queryType + '\'' +
+           ", queryCount=" + queryCount +
+           ", queryTimeMs=" + queryTimeMs +
+           ", queriesPerMinute=" + queriesPerMinute +
+           ", avgQueryTimeMs=" + avgQueryTimeMs +
+           '}';
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordination;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.Inject;
+import org.apache.druid.guice.annotations.EscalatedGlobal;
+import org.apache.druid.guice.annotations.Json;
+import org.apache.druid.java.util.common.RE;
+import org.apache.druid.java.util.http.client.HttpClient;
+import org.apache.druid.java.util.http.client.Request;
+import org.apache.druid.java.util.http.client.response.StatusResponseHandler;
+import org.apache.druid.java.util.http.client.response.StatusResponseHolder;
+import org.apache.druid.server.DruidNode;
+import org.jboss.netty.handler.codec.http.HttpMethod;
+import org.jboss.netty.handler.codec.http.HttpResponseStatus;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Fetches the statistics collected by {@link SegmentQueryStatsCollector} from data servers, through the
+ * {@link org.apache.druid.server.http.HistoricalResource} endpoint.
+ */
+public class SegmentQueryStatsClient
+{
+  public static final String SEGMENT_QUERY_STATS_PATH = "/druid/historical/v1/segmentQueryStats";
+
+  private static final TypeReference<List<SegmentQueryStats>> SEGMENT_QUERY_STATS_LIST_TYPE =
+      new TypeReference<List<SegmentQueryStats>>()
+      {
+      };
+
+  private final HttpClient httpClient;
+  private final ObjectMapper jsonMapper;
+
+  @Inject
+  public SegmentQueryStatsClient(@EscalatedGlobal HttpClient httpClient, @Json ObjectMapper jsonMapper)
+  {
+    this.httpClient = httpClient;
+    this.jsonMapper = jsonMapper;
+  }
+
+  public ListenableFuture<List<SegmentQueryStats>> fetchSegmentQueryStats(DruidNode node)
+  {
+    final URL url;
+    try {
+      url = new URL(node.getServiceScheme(), node.getHost(), node.getPortToUse(), SEGMENT_QUERY_STATS_PATH);
+    }
+    catch (MalformedURLException e) {
+      throw new RuntimeException(e);
+    }
+    return fetchSegmentQueryStats(url);
+  }
+
+  /**
+   * @param serverUrl base URL of the server, like the one returned by
+   *                  {@link org.apache.druid.client.ImmutableDruidServer#getURL()}
+   */
+  public ListenableFuture<List<SegmentQueryStats>> fetchSegmentQueryStats(String serverUrl)
+  {
+    final URL url;
+    try {
+      url = new URL(serverUrl + SEGMENT_QUERY_STATS_PATH);
+    }
+    catch (MalformedURLException e) {
+      throw new RuntimeException(e);
+    }
+    return fetchSegmentQueryStats(url);
+  }
+
+  private ListenableFuture<List<SegmentQueryStats>> fetchSegmentQueryStats(URL url)
+  {
+
+    return Futures.transform(
+        httpClient.go(new Request(HttpMethod.GET, url), new StatusResponseHandler(StandardCharsets.UTF_8)),
+        (Function<StatusResponseHolder, List<SegmentQueryStats>>) response -> {
+          if (!response.getStatus().equals(HttpResponseStatus.OK)) {
+            throw new RE("Error fetching segment query stats from [%s]: [%s]", url, response.getStatus());
+          }
+          try {
+            return jsonMapper.readValue(response.getContent(), SEGMENT_QUERY_STATS_LIST_TYPE);
+          }
+          catch (IOException e) {
+            throw new RE(e, "Error parsing segment query stats from [%s]", url);
+          }
+        }
+    );
+  }
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordination;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Inject;
+import org.apache.druid.timeline.SegmentId;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Aggregates the per-segment query times measured by {@link ServerManager} in-process, so that the hottest and
+ * slowest segments of a data server can be found without emitting and aggregating a "query/segment/time" event for
+ * every segment of every query.
+ *
+ * Statistics are kept per (segment, query type) and per (datasource, query type); the latter also include a latency
+ * histogram. Recent load is tracked with exponentially decaying counters (see {@link DecayingCounters}), so recording is
+ * lock-free and does not need a background thread. Entries of segments which have not been queried for many half-lives
+ * are pruned when statistics are read.
+ */
+public class SegmentQueryStatsCollector
+{
+  /**
+   * Number of histogram sub-buckets per power of two of the query time in microseconds. Must be a power of two.
+   */
+  private static final int SUB_BUCKETS = 4;
+  private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+  /**
+   * Query times up to 2^40 microseconds (about 12 days) fall into separate buckets, longer ones go to the last bucket.
+   */
+  @VisibleForTesting
+  static final int NUM_BUCKETS = 40 * SUB_BUCKETS;
+
+  /**
+   * Entries whose decayed query count drops below this value are pruned. A segment queried just once is pruned after
+   * about seven half-lives.
+   */
+  private static final double PRUNE_THRESHOLD = 0.01;
+
+  private static final int COUNT_SLOT = 0;
+  private static final int TIME_SLOT = 1;
+
+  private final boolean enabled;
+  private final long halfLifeMillis;
+  private final LongSupplier clock;
+  private final ConcurrentHashMap<SegmentKey, SegmentEntry> segments = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<DataSourceKey, DataSourceEntry> dataSources = new ConcurrentHashMap<>();
+
+  @Inject
+  public SegmentQueryStatsCollector(SegmentQueryStatsConfig config)
+  {
+    this(config, System::currentTimeMillis);
+  }
+
+  @VisibleForTesting
+  SegmentQueryStatsCollector(SegmentQueryStatsConfig config, LongSupplier clock)
+  {
+    this.enabled = config.isEnabled();
+    this.halfLifeMillis = config.getHalfLife().toStandardDuration().getMillis();
+    this.clock = clock;
+  }
+
+  public boolean isEnabled()
+  {
+    return enabled;
+  }
+
+  public void recordSegmentTime(SegmentId segmentId, String queryType, long timeNs)
+  {
+    if (!enabled) {
+      return;
+    }
+
+    final long nowMillis = clock.getAsLong();
+    final SegmentKey segmentKey = new SegmentKey(segmentId, queryType);
+    SegmentEntry segmentEntry = segments.get(segmentKey);
+    if (segmentEntry == null) {
+      segmentEntry = segments.computeIfAbsent(segmentKey, k -> new SegmentEntry(halfLifeMillis, nowMillis));
+    }
+    segmentEntry.record(timeNs, nowMillis);
+
+    final DataSourceKey dataSourceKey = new DataSourceKey(segmentId.getDataSource(), queryType);
+    DataSourceEntry dataSourceEntry = dataSources.get(dataSourceKey);
+    if (dataSourceEntry == null) {
+      dataSourceEntry = dataSources.computeIfAbsent(
+          dataSourceKey,
+          k -> new DataSourceEntry(halfLifeMillis, nowMillis)
+      );
+    }
+    dataSourceEntry.record(timeNs, nowMillis);
+  }
+
+  /**
+   * Returns the statistics of all tracked segments, optionally restricted to one datasource, ordered by decreasing
+   * recent load.
+   */
+  public List<SegmentQueryStats> getSegmentQueryStats(@Nullable String dataSource)
+  {
+    final long nowMillis = clock.getAsLong();
+    final List<SegmentQueryStats> retVal = new ArrayList<>();
+    final Iterator<Map.Entry<SegmentKey, SegmentEntry>> iterator = segments.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<SegmentKey, SegmentEntry> entry = iterator.next();
+      final SegmentKey key = entry.getKey();
+      final double[] decayed = entry.getValue().decayed.getAll(nowMillis);
+      if (decayed[COUNT_SLOT] < PRUNE_THRESHOLD) {
+        iterator.remove();
+        continue;
+      }
+      if (dataSource != null && !dataSource.equals(key.segmentId.getDataSource())) {
+        continue;
+      }
+      retVal.add(
+          new SegmentQueryStats(
+              key.segmentId.getDataSource(),
+              key.segmentId.toString(),
+              key.queryType,
+              entry.getValue().count.sum(),
+              TimeUnit.NANOSECONDS.toMillis(entry.getValue().timeNs.sum()),
+              toQueriesPerMinute(decayed[COUNT_SLOT]),
+              decayed[TIME_SLOT] / decayed[COUNT_SLOT] / TimeUnit.MILLISECONDS.toNanos(1)
+          )
+      );
+    }
+    retVal.sort(Comparator.comparingDouble(SegmentQueryStats::getQueriesPerMinute).reversed());
+    return retVal;
+  }
+
+  /**
+   * Returns the statistics of all datasources queried on this process, ordered by decreasing recent load.
+   */
+  public List<DataSourceQueryStats> getDataSourceQueryStats()
+  {
+    final long nowMillis = clock.getAsLong();
+    final List<DataSourceQueryStats> retVal = new ArrayList<>();
+    for (Map.Entry<DataSourceKey, DataSourceEntry> entry : dataSources.entrySet()) {
+      final DataSourceKey key = entry.getKey();
+      final DataSourceEntry dataSourceEntry = entry.getValue();
+      final double[] decayed = dataSourceEntry.decayed.getAll(nowMillis);
+      final double[] histogram = dataSourceEntry.histogram.getAll(nowMillis);
+      final boolean hasRecentQueries = decayed[COUNT_SLOT] >= PRUNE_THRESHOLD;
+      retVal.add(
+          new DataSourceQueryStats(
+              key.dataSource,
+              key.queryType,
+              dataSourceEntry.count.sum(),
+              TimeUnit.NANOSECONDS.toMillis(dataSourceEntry.timeNs.sum()),
+              toQueriesPerMinute(decayed[COUNT_SLOT]),
+              hasRecentQueries ? decayed[TIME_SLOT] / decayed[COUNT_SLOT] / TimeUnit.MILLISECONDS.toNanos(1) : 0,
+              hasRecentQueries ? percentileMillis(histogram, 0.5) : 0,
+              hasRecentQueries ? percentileMillis(histogram, 0.9) : 0,
+              hasRecentQueries ? percentileMillis(histogram, 0.99) : 0
+          )
+      );
+    }
+    retVal.sort(Comparator.comparingDouble(DataSourceQueryStats::getQueriesPerMinute).reversed());
+    return retVal;
+  }
+
+  /**
+   * With events arriving at a constant rate r, a counter decaying with half-life h converges to r * h / ln(2).
+   */
+  private double toQueriesPerMinute(double decayedCount)
+  {
+    return decayedCount * Math.log(2) / halfLifeMillis * TimeUnit.MINUTES.toMillis(1);
+  }
+
+  @VisibleForTesting
+  static int bucketIndex(long micros)
+  {
+    if (micros < SUB_BUCKETS) {
+      return (int) Math.max(micros, 0);
+    }
+    final int msb = 63 - Long.numberOfLeadingZeros(micros);
+    final int subBucket = (int) ((micros >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+    return Math.min((msb - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket, NUM_BUCKETS - 1);
+  }
+
+  @VisibleForTesting
+  static long bucketUpperBoundMicros(int index)
+  {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int shift = index / SUB_BUCKETS - 1;
+    final int subBucket = index % SUB_BUCKETS;
+    return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+
+  private static double percentileMillis(double[] histogram, double quantile)
+  {
+    double total = 0;
+    for (double count : histogram) {
+      total += count;
+    }
+    final double target = total * quantile;
+    double cumulative = 0;
+    for (int i = 0; i < histogram.length; i++) {
+      cumulative += histogram[i];
+      if (cumulative >= target && histogram[i] > 0) {
+        return bucketUpperBoundMicros(i) / 1000.0;
+      }
+    }
+    return bucketUpperBoundMicros(histogram.length - 1) / 1000.0;
+  }
+
+  private static class SegmentEntry
+  {
+    final LongAdder count = new LongAdder();
+    final LongAdder timeNs = new LongAdder();
+    final DecayingCounters decayed;
+
+    SegmentEntry(long halfLifeMillis, long nowMillis)
+    {
+      this.decayed = new DecayingCounters(2, halfLifeMillis, nowMillis);
+    }
+
+    void record(long queryTimeNs, long nowMillis)
+    {
+      count.increment();
+      timeNs.add(queryTimeNs);
+      decayed.add(COUNT_SLOT, 1, nowMillis);
+      decayed.add(TIME_SLOT, queryTimeNs, nowMillis);
+    }
+  }
+
+  private static class DataSourceEntry extends SegmentEntry
+  {
+    final DecayingCounters histogram;
+
+    DataSourceEntry(long halfLifeMillis, long nowMillis)
+    {
+      super(halfLifeMillis, nowMillis);
+      this.histogram = new DecayingCounters(NUM_BUCKETS, halfLifeMillis, nowMillis);
+    }
+
+    @Override
+    void record(long queryTimeNs, long nowMillis)
+    {
+      super.record(queryTimeNs, nowMillis);
+      histogram.add(bucketIndex(TimeUnit.NANOSECONDS.toMicros(queryTimeNs)), 1, nowMillis);
+    }
+  }
+
+  private static class SegmentKey
+  {
+    private final SegmentId segmentId;
+    private final String queryType;
+
+    SegmentKey(SegmentId segmentId, String queryType)
+    {
+      this.segmentId = segmentId;
+      this.queryType = queryType;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SegmentKey that = (SegmentKey) o;
+      return segmentId.equals(that.segmentId) && queryType.equals(that.queryType);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(segmentId, queryType);
+    }
+  }
+
+  private static class DataSourceKey
+  {
+    private final String dataSource;
+    private final String queryType;
+
+    DataSourceKey(String dataSource, String queryType)
+    {
+      this.dataSource = dataSource;
+      this.queryType = queryType;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      DataSourceKey that = (DataSourceKey) o;
+      return dataSource.equals(that.dataSource) && queryType.equals(that.queryType);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(dataSource, queryType);
+    }
+  }
+}
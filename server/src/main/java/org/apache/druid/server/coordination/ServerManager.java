@@ -70,6 +70,7 @@ import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
 
 /**
  */
@@ -85,6 +86,7 @@ public class ServerManager implements QuerySegmentWalker
   private final CacheConfig cacheConfig;
   private final SegmentManager segmentManager;
   private final ServerConfig serverConfig;
+  private final SegmentQueryStatsCollector segmentQueryStatsCollector;
 
   @Inject
   public ServerManager(
@@ -96,7 +98,8 @@ public class ServerManager implements QuerySegmentWalker
       Cache cache,
       CacheConfig cacheConfig,
       SegmentManager segmentManager,
-      ServerConfig serverConfig
+      ServerConfig serverConfig,
+      SegmentQueryStatsCollector segmentQueryStatsCollector
   )
   {
     this.conglomerate = conglomerate;
@@ -110,6 +113,7 @@ public class ServerManager implements QuerySegmentWalker
     this.cacheConfig = cacheConfig;
     this.segmentManager = segmentManager;
     this.serverConfig = serverConfig;
+    this.segmentQueryStatsCollector = segmentQueryStatsCollector;
   }
 
   private DataSource getInnerMostDataSource(DataSource dataSource)
@@ -179,6 +183,7 @@ public class ServerManager implements QuerySegmentWalker
                           public QueryRunner<T> apply(PartitionChunk<ReferenceCountingSegment> input)
                           {
                             return buildAndDecorateQueryRunner(
+                                query,
                                 factory,
                                 toolChest,
                                 input.getObject(),
@@ -264,7 +269,7 @@ public class ServerManager implements QuerySegmentWalker
 
                 final ReferenceCountingSegment adapter = chunk.getObject();
                 return Collections.singletonList(
-                    buildAndDecorateQueryRunner(factory, toolChest, adapter, input, cpuTimeAccumulator)
+                    buildAndDecorateQueryRunner(query, factory, toolChest, adapter, input, cpuTimeAccumulator)
                 );
               }
             }
@@ -283,6 +288,7 @@ public class ServerManager implements QuerySegmentWalker
   }
 
   private <T> QueryRunner<T> buildAndDecorateQueryRunner(
+      final Query<T> query,
       final QueryRunnerFactory<T, Query<T>> factory,
       final QueryToolChest<T, Query<T>> toolChest,
       final ReferenceCountingSegment adapter,
@@ -294,11 +300,22 @@ public class ServerManager implements QuerySegmentWalker
     SegmentId segmentId = adapter.getId();
     String segmentIdString = segmentId.toString();
 
+    final ObjLongConsumer<QueryMetrics<?>> reportSegmentTime;
+    if (segmentQueryStatsCollector.isEnabled()) {
+      final String queryType = query.getType();
+      reportSegmentTime = (queryMetrics, timeNs) -> {
+        queryMetrics.reportSegmentTime(timeNs);
+        segmentQueryStatsCollector.recordSegmentTime(segmentId, queryType, timeNs);
+      };
+    } else {
+      reportSegmentTime = QueryMetrics::reportSegmentTime;
+    }
+
     MetricsEmittingQueryRunner<T> metricsEmittingQueryRunnerInner = new MetricsEmittingQueryRunner<>(
         emitter,
         toolChest,
         new ReferenceCountingSegmentQueryRunner<>(factory, adapter, segmentDescriptor),
-        QueryMetrics::reportSegmentTime,
+        reportSegmentTime,
         queryMetrics -> queryMetrics.segment(segmentIdString)
     );
 
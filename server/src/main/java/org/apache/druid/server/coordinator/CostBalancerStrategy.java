@@ -19,11 +19,11 @@
 
 package org.apache.druid.server.coordinator;
 
-import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import org.apache.commons.math3.util.FastMath;
+import org.apache.druid.client.ImmutableDruidServer;
 import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.timeline.DataSegment;
@@ -35,6 +35,7 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
@@ -47,7 +48,7 @@ public class CostBalancerStrategy implements BalancerStrategy
   static final double INV_LAMBDA_SQUARE = 1 / (LAMBDA * LAMBDA);
 
   private static final double MILLIS_IN_HOUR = 3_600_000.0;
-  private static final double MILLIS_FACTOR = MILLIS_IN_HOUR / LAMBDA;
+  static final double MILLIS_FACTOR = MILLIS_IN_HOUR / LAMBDA;
 
   /**
    * This defines the unnormalized cost function between two segments.
@@ -178,11 +179,23 @@ public class CostBalancerStrategy implements BalancerStrategy
 
   private final ListeningExecutorService exec;
 
+  /**
+   * A CostBalancerStrategy is created for each coordinator run, and {@link ImmutableDruidServer}s don't change during a
+   * run, so the intervals of the segments on each server need to be collected only once per run.
+   */
+  private final ConcurrentHashMap<ImmutableDruidServer, ServerSegmentIntervals> serverSegmentIntervals =
+      new ConcurrentHashMap<>();
+
   public CostBalancerStrategy(ListeningExecutorService exec)
   {
     this.exec = exec;
   }
 
+  private ServerSegmentIntervals getServerSegmentIntervals(ImmutableDruidServer server)
+  {
+    return serverSegmentIntervals.computeIfAbsent(server, ServerSegmentIntervals::of);
+  }
+
   @Override
   public ServerHolder findNewSegmentHomeReplicator(DataSegment proposalSegment, List<ServerHolder> serverHolders)
   {
@@ -258,9 +271,9 @@ public class CostBalancerStrategy implements BalancerStrategy
   {
     double cost = 0;
     for (ServerHolder server : serverHolders) {
-      Iterable<DataSegment> segments = server.getServer().getLazyAllSegments();
-      for (DataSegment s : segments) {
-        cost += computeJointSegmentsCost(s, segments);
+      final ServerSegmentIntervals segmentIntervals = getServerSegmentIntervals(server.getServer());
+      for (DataSegment s : server.getServer().getLazyAllSegments()) {
+        cost += segmentIntervals.computeCost(s);
       }
     }
     return cost;
@@ -332,10 +345,10 @@ public class CostBalancerStrategy implements BalancerStrategy
     double cost = 0d;
 
     // the sum of the costs of other (exclusive of the proposalSegment) segments on the server
-    cost += computeJointSegmentsCost(
-        proposalSegment,
-        Iterables.filter(server.getServer().getLazyAllSegments(), segment -> !proposalSegment.equals(segment))
-    );
+    cost += getServerSegmentIntervals(server.getServer()).computeCost(proposalSegment);
+    if (server.isServingSegment(proposalSegment)) {
+      cost -= computeJointSegmentsCost(proposalSegment, proposalSegment);
+    }
 
     // plus the costs of segments that will be loaded
     cost += computeJointSegmentsCost(proposalSegment, server.getPeon().getSegmentsToLoad());
@@ -26,6 +26,8 @@ import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMaps;
 import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 import org.apache.curator.framework.CuratorFramework;
@@ -56,9 +58,11 @@ import org.apache.druid.java.util.common.lifecycle.LifecycleStart;
 import org.apache.druid.java.util.common.lifecycle.LifecycleStop;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.java.util.emitter.service.ServiceEmitter;
+import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
 import org.apache.druid.metadata.MetadataRuleManager;
 import org.apache.druid.metadata.MetadataSegmentManager;
 import org.apache.druid.server.DruidNode;
+import org.apache.druid.server.coordination.SegmentQueryStatsClient;
 import org.apache.druid.server.coordinator.helper.DruidCoordinatorBalancer;
 import org.apache.druid.server.coordinator.helper.DruidCoordinatorCleanupOvershadowed;
 import org.apache.druid.server.coordinator.helper.DruidCoordinatorCleanupUnneeded;
@@ -67,6 +71,7 @@ import org.apache.druid.server.coordinator.helper.DruidCoordinatorLogger;
 import org.apache.druid.server.coordinator.helper.DruidCoordinatorRuleRunner;
 import org.apache.druid.server.coordinator.helper.DruidCoordinatorSegmentCompactor;
 import org.apache.druid.server.coordinator.helper.DruidCoordinatorSegmentInfoLoader;
+import org.apache.druid.server.coordinator.helper.DruidCoordinatorSegmentQueryLoadLoader;
 import org.apache.druid.server.coordinator.rules.LoadRule;
 import org.apache.druid.server.coordinator.rules.Rule;
 import org.apache.druid.server.initialization.ZkPathsConfig;
@@ -90,6 +95,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -143,11 +149,18 @@ public class DruidCoordinator
   private final BalancerStrategyFactory factory;
   private final LookupCoordinatorManager lookupCoordinatorManager;
   private final DruidLeaderSelector coordLeaderSelector;
+  private final SegmentQueryStatsClient segmentQueryStatsClient;
 
   private final DruidCoordinatorSegmentCompactor segmentCompactor;
+  private final SegmentReplicaChangeTracker segmentReplicaChangeTracker = new SegmentReplicaChangeTracker();
 
   private volatile boolean started = false;
   private volatile SegmentReplicantLookup segmentReplicantLookup = null;
+  /**
+   * The segment query load of the last coordinator run, used to compute the replicants of
+   * {@link org.apache.druid.server.coordinator.rules.QueryLoadBasedLoadRule}s outside of coordinator runs.
+   */
+  private volatile Object2DoubleMap<SegmentId> segmentQueryLoad = Object2DoubleMaps.emptyMap();
   /**
    * set in {@link CoordinatorRunnable#run()} at start of every coordinator run
    */
@@ -171,7 +184,8 @@ public class DruidCoordinator
       @CoordinatorIndexingServiceHelper Set<DruidCoordinatorHelper> indexingServiceHelpers,
       BalancerStrategyFactory factory,
       LookupCoordinatorManager lookupCoordinatorManager,
-      @Coordinator DruidLeaderSelector coordLeaderSelector
+      @Coordinator DruidLeaderSelector coordLeaderSelector,
+      SegmentQueryStatsClient segmentQueryStatsClient
   )
   {
     this(
@@ -192,7 +206,8 @@ public class DruidCoordinator
         indexingServiceHelpers,
         factory,
         lookupCoordinatorManager,
-        coordLeaderSelector
+        coordLeaderSelector,
+        segmentQueryStatsClient
     );
   }
 
@@ -214,7 +229,8 @@ public class DruidCoordinator
       Set<DruidCoordinatorHelper> indexingServiceHelpers,
       BalancerStrategyFactory factory,
       LookupCoordinatorManager lookupCoordinatorManager,
-      DruidLeaderSelector coordLeaderSelector
+      DruidLeaderSelector coordLeaderSelector,
+      SegmentQueryStatsClient segmentQueryStatsClient
   )
   {
     this.config = config;
@@ -238,6 +254,7 @@ public class DruidCoordinator
     this.factory = factory;
     this.lookupCoordinatorManager = lookupCoordinatorManager;
     this.coordLeaderSelector = coordLeaderSelector;
+    this.segmentQueryStatsClient = segmentQueryStatsClient;
 
     this.segmentCompactor = new DruidCoordinatorSegmentCompactor(indexingServiceClient);
   }
@@ -280,7 +297,7 @@ public class DruidCoordinator
         }
 
         ((LoadRule) rule)
-            .getTieredReplicants()
+            .getTargetReplicants(segmentQueryLoad, segment)
             .forEach((final String tier, final Integer ruleReplicants) -> {
               int currentReplicants = segmentReplicantLookup.getLoadedReplicants(segment.getId(), tier);
               Object2LongMap<String> underReplicationPerDataSource = underReplicationCountsPerDataSourcePerTier
@@ -515,6 +532,8 @@ public class DruidCoordinator
       }
       started = true;
 
+      segmentReplicaChangeTracker.registerCallbacks(serverInventoryView);
+
       coordLeaderSelector.registerListener(
           new DruidLeaderSelector.Listener()
           {
@@ -563,6 +582,7 @@ public class DruidCoordinator
       metadataSegmentManager.start();
       metadataRuleManager.start();
       lookupCoordinatorManager.start();
+      segmentReplicaChangeTracker.start();
       serviceAnnouncer.announce(self);
       final int startingLeaderCounter = coordLeaderSelector.localTerm();
 
@@ -626,6 +646,7 @@ public class DruidCoordinator
       loadManagementPeons.clear();
 
       serviceAnnouncer.unannounce(self);
+      segmentReplicaChangeTracker.stop();
       lookupCoordinatorManager.stop();
       metadataRuleManager.stop();
       metadataSegmentManager.stop();
@@ -710,10 +731,19 @@ public class DruidCoordinator
                                          .withBalancerStrategy(balancerStrategy)
                                          .withDataSourcesSnapshot(dataSourcesSnapshot)
                                          .build();
+        final String dutyGroup = getClass().getSimpleName();
+        final long runStartNanos = System.nanoTime();
         for (DruidCoordinatorHelper helper : helpers) {
           // Don't read state and run state in the same helper otherwise racy conditions may exist
           if (coordLeaderSelector.isLeader() && startingLeaderCounter == coordLeaderSelector.localTerm()) {
+            final long helperStartNanos = System.nanoTime();
             params = helper.run(params);
+            emitter.emit(
+                new ServiceMetricEvent.Builder()
+                    .setDimension("dutyGroup", dutyGroup)
+                    .setDimension("duty", helper.getClass().getName())
+                    .build("coordinator/time", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - helperStartNanos))
+            );
 
             if (params == null) {
               // This helper wanted to cancel the run. No log message, since the helper should have logged a reason.
@@ -721,6 +751,11 @@ public class DruidCoordinator
             }
           }
         }
+        emitter.emit(
+            new ServiceMetricEvent.Builder()
+                .setDimension("dutyGroup", dutyGroup)
+                .build("coordinator/global/time", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStartNanos))
+        );
       }
       catch (Exception e) {
         log.makeAlert(e, "Caught exception, ignoring so that schedule keeps going.").emit();
@@ -740,69 +775,17 @@ public class DruidCoordinator
       super(
           ImmutableList.of(
               new DruidCoordinatorSegmentInfoLoader(DruidCoordinator.this),
-              params -> {
-                List<ImmutableDruidServer> servers = serverInventoryView
-                    .getInventory()
-                    .stream()
-                    .filter(DruidServer::segmentReplicatable)
-                    .map(DruidServer::toImmutableDruidServer)
-                    .collect(Collectors.toList());
-
-                if (log.isDebugEnabled()) {
-                  // Display info about all historical servers
-                  log.debug("Servers");
-                  for (ImmutableDruidServer druidServer : servers) {
-                    log.debug("  %s", druidServer);
-                    log.debug("    -- DataSources");
-                    for (ImmutableDruidDataSource druidDataSource : druidServer.getDataSources()) {
-                      log.debug("    %s", druidDataSource);
-                    }
-                  }
-                }
-
-                // Find all historical servers, group them by subType and sort by ascending usage
-                Set<String> decommissioningServers = params.getCoordinatorDynamicConfig().getDecommissioningNodes();
-                final DruidCluster cluster = new DruidCluster();
-                for (ImmutableDruidServer server : servers) {
-                  if (!loadManagementPeons.containsKey(server.getName())) {
-                    LoadQueuePeon loadQueuePeon = taskMaster.giveMePeon(server);
-                    loadQueuePeon.start();
-                    log.info("Created LoadQueuePeon for server[%s].", server.getName());
-
-                    loadManagementPeons.put(server.getName(), loadQueuePeon);
-                  }
-
-                  cluster.add(
-                      new ServerHolder(
-                          server,
-                          loadManagementPeons.get(server.getName()),
-                          decommissioningServers.contains(server.getHost())
-                      )
-                  );
-                }
-
-                segmentReplicantLookup = SegmentReplicantLookup.make(cluster);
-
-                // Stop peons for servers that aren't there anymore.
-                final Set<String> disappeared = Sets.newHashSet(loadManagementPeons.keySet());
-                for (ImmutableDruidServer server : servers) {
-                  disappeared.remove(server.getName());
-                }
-                for (String name : disappeared) {
-                  log.info("Removing listener for server[%s] which is no longer there.", name);
-                  LoadQueuePeon peon = loadManagementPeons.remove(name);
-                  peon.stop();
-                }
-
-                return params.buildFromExisting()
-                             .withDruidCluster(cluster)
-                             .withDatabaseRuleManager(metadataRuleManager)
-                             .withLoadManagementPeons(loadManagementPeons)
-                             .withSegmentReplicantLookup(segmentReplicantLookup)
-                             .withBalancerReferenceTimestamp(DateTimes.nowUtc())
-                             .build();
-              },
-              new DruidCoordinatorRuleRunner(DruidCoordinator.this),
+              new UpdateCoordinatorStateAndPrepareCluster(),
+              new DruidCoordinatorSegmentQueryLoadLoader(
+                  segmentQueryStatsClient,
+                  config.getSegmentQueryStatsTimeout()
+              ),
+              new UpdateSegmentQueryLoad(),
+              new DruidCoordinatorRuleRunner(
+                  DruidCoordinator.this,
+                  segmentReplicaChangeTracker,
+                  config.getRuleReconcilePeriod()
+              ),
               new DruidCoordinatorCleanupUnneeded(),
               new DruidCoordinatorCleanupOvershadowed(DruidCoordinator.this),
               new DruidCoordinatorBalancer(DruidCoordinator.this),
@@ -813,6 +796,88 @@ public class DruidCoordinator
     }
   }
 
+  private class UpdateCoordinatorStateAndPrepareCluster implements DruidCoordinatorHelper
+  {
+    @Override
+    public DruidCoordinatorRuntimeParams run(DruidCoordinatorRuntimeParams params)
+    {
+      List<ImmutableDruidServer> servers = serverInventoryView
+          .getInventory()
+          .stream()
+          .filter(DruidServer::segmentReplicatable)
+          .map(DruidServer::toImmutableDruidServer)
+          .collect(Collectors.toList());
+
+      if (log.isDebugEnabled()) {
+        // Display info about all historical servers
+        log.debug("Servers");
+        for (ImmutableDruidServer druidServer : servers) {
+          log.debug("  %s", druidServer);
+          log.debug("    -- DataSources");
+          for (ImmutableDruidDataSource druidDataSource : druidServer.getDataSources()) {
+            log.debug("    %s", druidDataSource);
+          }
+        }
+      }
+
+      // Find all historical servers, group them by subType and sort by ascending usage
+      Set<String> decommissioningServers = params.getCoordinatorDynamicConfig().getDecommissioningNodes();
+      final DruidCluster cluster = new DruidCluster();
+      for (ImmutableDruidServer server : servers) {
+        if (!loadManagementPeons.containsKey(server.getName())) {
+          LoadQueuePeon loadQueuePeon = taskMaster.giveMePeon(server);
+          loadQueuePeon.start();
+          log.info("Created LoadQueuePeon for server[%s].", server.getName());
+
+          loadManagementPeons.put(server.getName(), loadQueuePeon);
+        }
+
+        cluster.add(
+            new ServerHolder(
+                server,
+                loadManagementPeons.get(server.getName()),
+                decommissioningServers.contains(server.getHost())
+            )
+        );
+      }
+
+      segmentReplicantLookup = SegmentReplicantLookup.make(cluster);
+
+      // Stop peons for servers that aren't there anymore.
+      final Set<String> disappeared = Sets.newHashSet(loadManagementPeons.keySet());
+      for (ImmutableDruidServer server : servers) {
+        disappeared.remove(server.getName());
+      }
+      for (String name : disappeared) {
+        log.info("Removing listener for server[%s] which is no longer there.", name);
+        LoadQueuePeon peon = loadManagementPeons.remove(name);
+        peon.stop();
+      }
+
+      return params.buildFromExisting()
+                   .withDruidCluster(cluster)
+                   .withDatabaseRuleManager(metadataRuleManager)
+                   .withLoadManagementPeons(loadManagementPeons)
+                   .withSegmentReplicantLookup(segmentReplicantLookup)
+                   .withBalancerReferenceTimestamp(DateTimes.nowUtc())
+                   .build();
+    }
+  }
+
+  /**
+   * Keeps the segment query load found by {@link DruidCoordinatorSegmentQueryLoadLoader} for {@link
+   * #computeUnderReplicationCountsPerDataSourcePerTier}, which is called outside of the coordinator runs.
+   */
+  private class UpdateSegmentQueryLoad implements DruidCoordinatorHelper
+  {
+    @Override
+    public DruidCoordinatorRuntimeParams run(DruidCoordinatorRuntimeParams params)
+    {
+      segmentQueryLoad = params.getSegmentQueryLoad();
+      return params;
+    }
+  }
+
   private class CoordinatorIndexingServiceRunnable extends CoordinatorRunnable
   {
     public CoordinatorIndexingServiceRunnable(List<DruidCoordinatorHelper> helpers, final int startingLeaderCounter)
@@ -57,6 +57,18 @@ public abstract class DruidCoordinatorConfig
     return new Duration(15 * 60 * 1000);
   }
 
+  @Config("druid.coordinator.rules.reconcilePeriod")
+  public Duration getRuleReconcilePeriod()
+  {
+    return Duration.standardMinutes(15);
+  }
+
+  @Config("druid.coordinator.segmentQueryStats.timeout")
+  public Duration getSegmentQueryStatsTimeout()
+  {
+    return Duration.standardSeconds(10);
+  }
+
   @Config("druid.coordinator.console.static")
   public String getConsoleStatic()
   {
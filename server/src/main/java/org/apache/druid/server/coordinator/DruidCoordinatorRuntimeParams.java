@@ -21,12 +21,15 @@ package org.apache.druid.server.coordinator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMaps;
 import org.apache.druid.client.DataSourcesSnapshot;
 import org.apache.druid.client.ImmutableDruidDataSource;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.emitter.service.ServiceEmitter;
 import org.apache.druid.metadata.MetadataRuleManager;
 import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.SegmentId;
 import org.apache.druid.timeline.VersionedIntervalTimeline;
 import org.joda.time.DateTime;
 
@@ -68,6 +71,7 @@ public class DruidCoordinatorRuntimeParams
   private final DateTime balancerReferenceTimestamp;
   private final BalancerStrategy balancerStrategy;
   private final DataSourcesSnapshot dataSourcesSnapshot;
+  private final Object2DoubleMap<SegmentId> segmentQueryLoad;
 
   private DruidCoordinatorRuntimeParams(
       long startTime,
@@ -84,7 +88,8 @@ public class DruidCoordinatorRuntimeParams
       CoordinatorStats stats,
       DateTime balancerReferenceTimestamp,
       BalancerStrategy balancerStrategy,
-      DataSourcesSnapshot dataSourcesSnapshot
+      DataSourcesSnapshot dataSourcesSnapshot,
+      Object2DoubleMap<SegmentId> segmentQueryLoad
   )
   {
     this.startTime = startTime;
@@ -102,6 +107,7 @@ public class DruidCoordinatorRuntimeParams
     this.balancerReferenceTimestamp = balancerReferenceTimestamp;
     this.balancerStrategy = balancerStrategy;
     this.dataSourcesSnapshot = dataSourcesSnapshot;
+    this.segmentQueryLoad = segmentQueryLoad;
   }
 
   public long getStartTime()
@@ -180,6 +186,17 @@ public class DruidCoordinatorRuntimeParams
     return dataSourcesSnapshot;
   }
 
+  /**
+   * Returns the number of queries per minute processed by all replicas of each segment, as reported by the data
+   * servers' {@link org.apache.druid.server.coordination.SegmentQueryStatsCollector}s. Segments without recent queries
+   * are absent. The map is empty unless {@link org.apache.druid.server.coordinator.helper.DruidCoordinatorSegmentQueryLoadLoader}
+   * has collected the statistics during this coordinator run.
+   */
+  public Object2DoubleMap<SegmentId> getSegmentQueryLoad()
+  {
+    return segmentQueryLoad;
+  }
+
   public boolean hasDeletionWaitTimeElapsed()
   {
     return (System.currentTimeMillis() - getStartTime() > coordinatorDynamicConfig.getMillisToWaitBeforeDeleting());
@@ -206,7 +223,8 @@ public class DruidCoordinatorRuntimeParams
         coordinatorCompactionConfig,
         stats,
         balancerReferenceTimestamp,
-        balancerStrategy
+        balancerStrategy,
+        segmentQueryLoad
     );
   }
 
@@ -226,7 +244,8 @@ public class DruidCoordinatorRuntimeParams
         coordinatorCompactionConfig,
         stats,
         balancerReferenceTimestamp,
-        balancerStrategy
+        balancerStrategy,
+        segmentQueryLoad
     );
   }
 
@@ -247,6 +266,7 @@ public class DruidCoordinatorRuntimeParams
     private DateTime balancerReferenceTimestamp;
     private BalancerStrategy balancerStrategy;
     private DataSourcesSnapshot dataSourcesSnapshot;
+    private Object2DoubleMap<SegmentId> segmentQueryLoad;
 
     Builder()
     {
@@ -264,6 +284,7 @@ public class DruidCoordinatorRuntimeParams
       this.coordinatorCompactionConfig = CoordinatorCompactionConfig.empty();
       this.balancerReferenceTimestamp = DateTimes.nowUtc();
       this.dataSourcesSnapshot = null;
+      this.segmentQueryLoad = Object2DoubleMaps.emptyMap();
     }
 
     Builder(
@@ -280,7 +301,8 @@ public class DruidCoordinatorRuntimeParams
         CoordinatorCompactionConfig coordinatorCompactionConfig,
         CoordinatorStats stats,
         DateTime balancerReferenceTimestamp,
-        BalancerStrategy balancerStrategy
+        BalancerStrategy balancerStrategy,
+        Object2DoubleMap<SegmentId> segmentQueryLoad
     )
     {
       this.startTime = startTime;
@@ -297,6 +319,7 @@ public class DruidCoordinatorRuntimeParams
       this.stats = stats;
       this.balancerReferenceTimestamp = balancerReferenceTimestamp;
       this.balancerStrategy = balancerStrategy;
+      this.segmentQueryLoad = segmentQueryLoad;
     }
 
     public DruidCoordinatorRuntimeParams build()
@@ -316,7 +339,8 @@ public class DruidCoordinatorRuntimeParams
           stats,
           balancerReferenceTimestamp,
           balancerStrategy,
-          dataSourcesSnapshot
+          dataSourcesSnapshot,
+          segmentQueryLoad
       );
     }
 
@@ -452,5 +476,11 @@ public class DruidCoordinatorRuntimeParams
       this.dataSourcesSnapshot = snapshot;
       return this;
     }
+
+    public Builder withSegmentQueryLoad(Object2DoubleMap<SegmentId> segmentQueryLoad)
+    {
+      this.segmentQueryLoad = segmentQueryLoad;
+      return this;
+    }
   }
 }
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordinator;
+
+import org.apache.druid.client.ServerView;
+import org.apache.druid.java.util.common.concurrent.Execs;
+import org.apache.druid.server.coordination.DruidServerMetadata;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.SegmentId;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tracks the segments which were loaded or dropped by data servers, and whether any data server disappeared, between
+ * coordinator runs. {@link org.apache.druid.server.coordinator.helper.DruidCoordinatorRuleRunner} uses this to only
+ * evaluate the rules of segments whose replicants changed since they were last found satisfied.
+ */
+public class SegmentReplicaChangeTracker
+{
+  private final Object lock = new Object();
+  private Set<SegmentId> changedSegments = new HashSet<>();
+  private boolean serverRemoved = false;
+  private boolean tracking = false;
+
+  public void registerCallbacks(ServerView serverView)
+  {
+    serverView.registerSegmentCallback(
+        Execs.directExecutor(),
+        new ServerView.SegmentCallback()
+        {
+          @Override
+          public ServerView.CallbackAction segmentAdded(DruidServerMetadata server, DataSegment segment)
+          {
+            markSegmentChanged(segment.getId());
+            return ServerView.CallbackAction.CONTINUE;
+          }
+
+          @Override
+          public ServerView.CallbackAction segmentRemoved(DruidServerMetadata server, DataSegment segment)
+          {
+            markSegmentChanged(segment.getId());
+            return ServerView.CallbackAction.CONTINUE;
+          }
+
+          @Override
+          public ServerView.CallbackAction segmentViewInitialized()
+          {
+            return ServerView.CallbackAction.CONTINUE;
+          }
+        }
+    );
+    serverView.registerServerRemovedCallback(
+        Execs.directExecutor(),
+        server -> {
+          markServerRemoved();
+          return ServerView.CallbackAction.CONTINUE;
+        }
+    );
+  }
+
+  /**
+   * Starts tracking changes. Changes are not tracked while this coordinator is not the leader, so that the set of
+   * changed segments doesn't grow indefinitely.
+   */
+  public void start()
+  {
+    synchronized (lock) {
+      tracking = true;
+    }
+  }
+
+  public void stop()
+  {
+    synchronized (lock) {
+      tracking = false;
+      changedSegments = new HashSet<>();
+      serverRemoved = false;
+    }
+  }
+
+  void markSegmentChanged(SegmentId segmentId)
+  {
+    synchronized (lock) {
+      if (tracking) {
+        changedSegments.add(segmentId);
+      }
+    }
+  }
+
+  void markServerRemoved()
+  {
+    synchronized (lock) {
+      if (tracking) {
+        serverRemoved = true;
+      }
+    }
+  }
+
+  /**
+   * Returns the segments loaded or dropped by any data server since the previous call, and starts tracking anew.
+   */
+  public Set<SegmentId> drainChangedSegments()
+  {
+    synchronized (lock) {
+      final Set<SegmentId> retVal = changedSegments;
+      changedSegments = new HashSet<>();
+      return retVal;
+    }
+  }
+
+  /**
+   * Returns whether any data server disappeared since the previous call.
+   */
+  public boolean drainServerRemoved()
+  {
+    synchronized (lock) {
+      final boolean retVal = serverRemoved;
+      serverRemoved = false;
+      return retVal;
+    }
+  }
+}
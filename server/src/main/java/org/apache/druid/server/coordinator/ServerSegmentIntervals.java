@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordinator;
+
+import org.apache.druid.client.ImmutableDruidServer;
+import org.apache.druid.timeline.DataSegment;
+import org.joda.time.Interval;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Intervals of the segments served by an {@link ImmutableDruidServer}, grouped by dataSource and held in primitive
+ * arrays. Used by {@link CostBalancerStrategy} to compute the joint cost of a segment with all segments on a server
+ * without iterating and dereferencing {@link DataSegment} and {@link Interval} objects.
+ */
+final class ServerSegmentIntervals
+{
+  static ServerSegmentIntervals of(ImmutableDruidServer server)
+  {
+    final Map<String, List<DataSegment>> segmentsByDataSource = new HashMap<>();
+    for (DataSegment segment : server.getLazyAllSegments()) {
+      segmentsByDataSource.computeIfAbsent(segment.getDataSource(), dataSource -> new ArrayList<>()).add(segment);
+    }
+
+    final String[] dataSources = new String[segmentsByDataSource.size()];
+    final long[][] startMillis = new long[dataSources.length][];
+    final long[][] endMillis = new long[dataSources.length][];
+    int dataSourceIndex = 0;
+    for (Map.Entry<String, List<DataSegment>> entry : segmentsByDataSource.entrySet()) {
+      final List<DataSegment> segments = entry.getValue();
+      final long[] starts = new long[segments.size()];
+      final long[] ends = new long[segments.size()];
+      for (int i = 0; i < segments.size(); i++) {
+        final Interval interval = segments.get(i).getInterval();
+        starts[i] = interval.getStartMillis();
+        ends[i] = interval.getEndMillis();
+      }
+      dataSources[dataSourceIndex] = entry.getKey();
+      startMillis[dataSourceIndex] = starts;
+      endMillis[dataSourceIndex] = ends;
+      dataSourceIndex++;
+    }
+    return new ServerSegmentIntervals(dataSources, startMillis, endMillis);
+  }
+
+  private final String[] dataSources;
+  private final long[][] startMillis;
+  private final long[][] endMillis;
+
+  private ServerSegmentIntervals(String[] dataSources, long[][] startMillis, long[][] endMillis)
+  {
+    this.dataSources = dataSources;
+    this.startMillis = startMillis;
+    this.endMillis = endMillis;
+  }
+
+  /**
+   * Equivalent to {@link CostBalancerStrategy#computeJointSegmentsCost(DataSegment, Iterable)} called with all segments
+   * on the server, including the given segment itself if the server serves it.
+   */
+  double computeCost(DataSegment segment)
+  {
+    final Interval interval = segment.getInterval();
+    final double t0 = interval.getStartMillis();
+    final double x1 = (interval.getEndMillis() - t0) / CostBalancerStrategy.MILLIS_FACTOR;
+    final String dataSource = segment.getDataSource();
+
+    double cost = 0;
+    for (int i = 0; i < dataSources.length; i++) {
+      final double dataSourceCost = computeIntervalsCost(t0, x1, startMillis[i], endMillis[i]);
+      // constant cost-multiplier for segments of the same datasource
+      cost += dataSources[i].equals(dataSource) ? 2.0 * dataSourceCost : dataSourceCost;
+    }
+    return CostBalancerStrategy.INV_LAMBDA_SQUARE * cost;
+  }
+
+  private static double computeIntervalsCost(double t0, double x1, long[] starts, long[] ends)
+  {
+    double cost = 0;
+    for (int i = 0; i < starts.length; i++) {
+      cost += CostBalancerStrategy.intervalCost(
+          x1,
+          (starts[i] - t0) / CostBalancerStrategy.MILLIS_FACTOR,
+          (ends[i] - t0) / CostBalancerStrategy.MILLIS_FACTOR
+      );
+    }
+    return cost;
+  }
+}
@@ -30,6 +30,7 @@ import org.apache.druid.server.coordinator.CostBalancerStrategy;
 import org.apache.druid.timeline.DataSegment;
 import org.joda.time.Interval;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -164,14 +165,21 @@ public class SegmentsCostCache
     return new Builder();
   }
 
+  /**
+   * Builders keep the last built {@link SegmentsCostCache} and {@link Bucket}s and return them from build() until
+   * segments are added or removed, so that only the buckets changed between two build() calls are rebuilt.
+   */
   public static class Builder
   {
     private NavigableMap<Interval, Bucket.Builder> buckets = new TreeMap<>(Comparators.intervalsByStartThenEnd());
+    @Nullable
+    private SegmentsCostCache costCache = null;
 
     public Builder addSegment(DataSegment segment)
     {
       Bucket.Builder builder = buckets.computeIfAbsent(getBucketInterval(segment), Bucket::builder);
       builder.addSegment(segment);
+      costCache = null;
       return this;
     }
 
@@ -184,6 +192,7 @@ public class SegmentsCostCache
           // map
           (i, builder) -> builder.removeSegment(segment).isEmpty() ? null : builder
       );
+      costCache = null;
       return this;
     }
 
@@ -194,13 +203,16 @@ public class SegmentsCostCache
 
     public SegmentsCostCache build()
     {
-      return new SegmentsCostCache(
-          buckets
-              .entrySet()
-              .stream()
-              .map(entry -> entry.getValue().build())
-              .collect(Collectors.toCollection(ArrayList::new))
-      );
+      if (costCache == null) {
+        costCache = new SegmentsCostCache(
+            buckets
+                .entrySet()
+                .stream()
+                .map(entry -> entry.getValue().build())
+                .collect(Collectors.toCollection(ArrayList::new))
+        );
+      }
+      return costCache;
     }
 
     private static Interval getBucketInterval(DataSegment segment)
@@ -319,6 +331,8 @@ public class SegmentsCostCache
     {
       private final Interval interval;
       private final NavigableSet<SegmentAndSum> segments = new TreeSet<>();
+      @Nullable
+      private Bucket bucket = null;
 
       public Builder(Interval interval)
       {
@@ -359,6 +373,7 @@ public class SegmentsCostCache
         if (!segments.add(segmentAndSum)) {
           throw new ISE("expect new segment");
         }
+        bucket = null;
         return this;
       }
 
@@ -378,6 +393,7 @@ public class SegmentsCostCache
 
         segments.tailSet(segmentAndSum).forEach(v -> v.leftSum -= leftValue);
         segments.headSet(segmentAndSum).forEach(v -> v.rightSum -= rightValue);
+        bucket = null;
         return this;
       }
 
@@ -387,6 +403,14 @@ public class SegmentsCostCache
       }
 
       public Bucket build()
+      {
+        if (bucket == null) {
+          bucket = buildBucket();
+        }
+        return bucket;
+      }
+
+      private Bucket buildBucket()
       {
         ArrayList<DataSegment> segmentsList = new ArrayList<>(segments.size());
         double[] leftSum = new double[segments.size()];
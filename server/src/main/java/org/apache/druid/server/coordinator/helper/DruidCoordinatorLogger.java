@@ -144,6 +144,20 @@ public class DruidCoordinatorLogger implements DruidCoordinatorHelper
         )
     );
 
+    emitter.emit(
+        new ServiceMetricEvent.Builder().build(
+            "segment/ruleEvaluated/count",
+            stats.getGlobalStat(DruidCoordinatorRuleRunner.RULE_EVALUATED_COUNT)
+        )
+    );
+
+    emitter.emit(
+        new ServiceMetricEvent.Builder().build(
+            "segment/ruleSkipped/count",
+            stats.getGlobalStat(DruidCoordinatorRuleRunner.RULE_SKIPPED_COUNT)
+        )
+    );
+
     stats.forEachTieredStat(
         "movedCount",
         (final String tier, final long count) -> {
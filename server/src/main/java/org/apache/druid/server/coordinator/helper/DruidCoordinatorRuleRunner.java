@@ -25,31 +25,62 @@ import org.apache.druid.client.DataSourcesSnapshot;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.emitter.EmittingLogger;
 import org.apache.druid.metadata.MetadataRuleManager;
+import org.apache.druid.server.coordinator.CoordinatorDynamicConfig;
 import org.apache.druid.server.coordinator.CoordinatorStats;
 import org.apache.druid.server.coordinator.DruidCluster;
 import org.apache.druid.server.coordinator.DruidCoordinator;
 import org.apache.druid.server.coordinator.DruidCoordinatorRuntimeParams;
 import org.apache.druid.server.coordinator.ReplicationThrottler;
+import org.apache.druid.server.coordinator.SegmentReplicaChangeTracker;
+import org.apache.druid.server.coordinator.rules.LoadRule;
 import org.apache.druid.server.coordinator.rules.Rule;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.SegmentId;
 import org.joda.time.DateTime;
+import org.joda.time.Duration;
 
+import javax.annotation.Nullable;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 /**
+ * Runs the matching rule of every available segment.
+ *
+ * If a {@link SegmentReplicaChangeTracker} is given, the rules are evaluated incrementally: a segment which was
+ * {@link LoadRule#isSatisfied satisfied} by its rule when last evaluated is skipped, until a data server loads or drops
+ * it, or until it has a query load (see {@link DruidCoordinatorRuntimeParams#getSegmentQueryLoad()}). All segments
+ * are still evaluated when the rules or the dynamic configuration change, when a data server disappears, and at least
+ * once per reconcile period, so that rules which start or stop applying to segments as time goes by are accounted for.
  */
 public class DruidCoordinatorRuleRunner implements DruidCoordinatorHelper
 {
   private static final EmittingLogger log = new EmittingLogger(DruidCoordinatorRuleRunner.class);
   private static int MAX_MISSING_RULES = 10;
 
+  static final String RULE_EVALUATED_COUNT = "ruleEvaluatedCount";
+  static final String RULE_SKIPPED_COUNT = "ruleSkippedCount";
+
   private final ReplicationThrottler replicatorThrottler;
 
   private final DruidCoordinator coordinator;
 
+  @Nullable
+  private final SegmentReplicaChangeTracker changeTracker;
+  private final long reconcilePeriodMillis;
+
+  /**
+   * Segments which were satisfied by their rule when last evaluated. Only used if {@link #changeTracker} is not null.
+   */
+  private final Set<SegmentId> satisfiedSegments = new HashSet<>();
+  private long lastFullRunMillis = 0;
+  @Nullable
+  private Map<String, List<Rule>> lastRules = null;
+  @Nullable
+  private CoordinatorDynamicConfig lastDynamicConfig = null;
+
   public DruidCoordinatorRuleRunner(DruidCoordinator coordinator)
   {
     this(
@@ -62,9 +93,38 @@ public class DruidCoordinatorRuleRunner implements DruidCoordinatorHelper
   }
 
   public DruidCoordinatorRuleRunner(ReplicationThrottler replicatorThrottler, DruidCoordinator coordinator)
+  {
+    this(replicatorThrottler, coordinator, null, Duration.ZERO);
+  }
+
+  public DruidCoordinatorRuleRunner(
+      DruidCoordinator coordinator,
+      SegmentReplicaChangeTracker changeTracker,
+      Duration reconcilePeriod
+  )
+  {
+    this(
+        new ReplicationThrottler(
+            coordinator.getDynamicConfigs().getReplicationThrottleLimit(),
+            coordinator.getDynamicConfigs().getReplicantLifetime()
+        ),
+        coordinator,
+        changeTracker,
+        reconcilePeriod
+    );
+  }
+
+  public DruidCoordinatorRuleRunner(
+      ReplicationThrottler replicatorThrottler,
+      DruidCoordinator coordinator,
+      @Nullable SegmentReplicaChangeTracker changeTracker,
+      Duration reconcilePeriod
+  )
   {
     this.replicatorThrottler = replicatorThrottler;
     this.coordinator = coordinator;
+    this.changeTracker = changeTracker;
+    this.reconcilePeriodMillis = reconcilePeriod.getMillis();
   }
 
   @Override
@@ -108,18 +168,42 @@ public class DruidCoordinatorRuleRunner implements DruidCoordinatorHelper
     DateTime now = DateTimes.nowUtc();
     MetadataRuleManager databaseRuleManager = paramsWithReplicationManager.getDatabaseRuleManager();
 
+    final boolean fullRun = isFullRun(params, now.getMillis());
+    final Set<SegmentId> changedSegments =
+        changeTracker == null ? ImmutableSet.of() : changeTracker.drainChangedSegments();
+    if (fullRun) {
+      satisfiedSegments.clear();
+    } else {
+      // Segments with a query load may need more replicants than when they were satisfied, see QueryLoadBasedLoadRule.
+      satisfiedSegments.removeAll(params.getSegmentQueryLoad().keySet());
+    }
+
     final List<SegmentId> segmentsWithMissingRules = Lists.newArrayListWithCapacity(MAX_MISSING_RULES);
     int missingRules = 0;
+    long numEvaluated = 0;
+    long numSkipped = 0;
     for (DataSegment segment : params.getAvailableSegments()) {
       if (overshadowed.contains(segment.getId())) {
         // Skipping overshadowed segments
         continue;
       }
+      if (!fullRun && satisfiedSegments.contains(segment.getId()) && !changedSegments.contains(segment.getId())) {
+        numSkipped++;
+        continue;
+      }
+      numEvaluated++;
       List<Rule> rules = databaseRuleManager.getRulesWithDefault(segment.getDataSource());
       boolean foundMatchingRule = false;
       for (Rule rule : rules) {
         if (rule.appliesTo(segment, now)) {
           stats.accumulate(rule.run(coordinator, paramsWithReplicationManager, segment));
+          if (changeTracker != null) {
+            if (rule instanceof LoadRule && ((LoadRule) rule).isSatisfied(paramsWithReplicationManager, segment)) {
+              satisfiedSegments.add(segment.getId());
+            } else {
+              satisfiedSegments.remove(segment.getId());
+            }
+          }
           foundMatchingRule = true;
           break;
         }
@@ -140,6 +224,40 @@ public class DruidCoordinatorRuleRunner implements DruidCoordinatorHelper
          .emit();
     }
 
+    if (changeTracker != null) {
+      log.info(
+          "Evaluated rules of [%,d] segments, skipped [%,d] satisfied segments (full run: %s).",
+          numEvaluated,
+          numSkipped,
+          fullRun
+      );
+    }
+    stats.addToGlobalStat(RULE_EVALUATED_COUNT, numEvaluated);
+    stats.addToGlobalStat(RULE_SKIPPED_COUNT, numSkipped);
+
     return params.buildFromExisting().withCoordinatorStats(stats).build();
   }
+
+  private boolean isFullRun(DruidCoordinatorRuntimeParams params, long nowMillis)
+  {
+    if (changeTracker == null) {
+      return true;
+    }
+
+    final Map<String, List<Rule>> rules = params.getDatabaseRuleManager().getAllRules();
+    final CoordinatorDynamicConfig dynamicConfig = params.getCoordinatorDynamicConfig();
+    // Always drain, so that a removal is not accounted for twice.
+    final boolean serverRemoved = changeTracker.drainServerRemoved();
+    final boolean fullRun = serverRemoved
+                            || nowMillis - lastFullRunMillis >= reconcilePeriodMillis
+                            || !rules.equals(lastRules)
+                            || !dynamicConfig.equals(lastDynamicConfig);
+
+    lastRules = rules;
+    lastDynamicConfig = dynamicConfig;
+    if (fullRun) {
+      lastFullRunMillis = nowMillis;
+    }
+    return fullRun;
+  }
 }
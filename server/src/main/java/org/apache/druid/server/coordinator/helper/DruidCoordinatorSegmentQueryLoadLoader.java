@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordinator.helper;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
+import org.apache.druid.client.ImmutableDruidServer;
+import org.apache.druid.java.util.emitter.EmittingLogger;
+import org.apache.druid.metadata.MetadataRuleManager;
+import org.apache.druid.server.coordination.SegmentQueryStats;
+import org.apache.druid.server.coordination.SegmentQueryStatsClient;
+import org.apache.druid.server.coordinator.DruidCoordinatorRuntimeParams;
+import org.apache.druid.server.coordinator.ServerHolder;
+import org.apache.druid.server.coordinator.rules.QueryLoadBasedLoadRule;
+import org.apache.druid.server.coordinator.rules.Rule;
+import org.apache.druid.timeline.SegmentId;
+import org.joda.time.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Collects the number of queries per minute processed by each segment from all historicals, for {@link
+ * QueryLoadBasedLoadRule}s. Does nothing if no such rule is configured. Historicals which fail to respond within the
+ * timeout are ignored, so the segments they serve look less loaded during this run.
+ */
+public class DruidCoordinatorSegmentQueryLoadLoader implements DruidCoordinatorHelper
+{
+  private static final EmittingLogger log = new EmittingLogger(DruidCoordinatorSegmentQueryLoadLoader.class);
+
+  private final SegmentQueryStatsClient segmentQueryStatsClient;
+  private final Duration timeout;
+
+  public DruidCoordinatorSegmentQueryLoadLoader(SegmentQueryStatsClient segmentQueryStatsClient, Duration timeout)
+  {
+    this.segmentQueryStatsClient = segmentQueryStatsClient;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public DruidCoordinatorRuntimeParams run(DruidCoordinatorRuntimeParams params)
+  {
+    if (!hasQueryLoadBasedRules(params.getDatabaseRuleManager())) {
+      return params;
+    }
+
+    final List<ImmutableDruidServer> servers = new ArrayList<>();
+    final List<ListenableFuture<List<SegmentQueryStats>>> futures = new ArrayList<>();
+    for (NavigableSet<ServerHolder> tier : params.getDruidCluster().getSortedHistoricalsByTier()) {
+      for (ServerHolder holder : tier) {
+        servers.add(holder.getServer());
+        futures.add(segmentQueryStatsClient.fetchSegmentQueryStats(holder.getServer().getURL()));
+      }
+    }
+
+    final Object2DoubleOpenHashMap<SegmentId> segmentQueryLoad = new Object2DoubleOpenHashMap<>();
+    final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout.getMillis());
+    int numRespondedServers = 0;
+    for (int i = 0; i < futures.size(); i++) {
+      final ListenableFuture<List<SegmentQueryStats>> future = futures.get(i);
+      try {
+        final List<SegmentQueryStats> serverStats =
+            future.get(Math.max(deadlineNanos - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        for (SegmentQueryStats stats : serverStats) {
+          final SegmentId segmentId = SegmentId.tryParse(stats.getDataSource(), stats.getSegmentId());
+          if (segmentId != null) {
+            segmentQueryLoad.addTo(segmentId, stats.getQueriesPerMinute());
+          }
+        }
+        numRespondedServers++;
+      }
+      catch (InterruptedException e) {
+        futures.forEach(f -> f.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+      catch (ExecutionException | TimeoutException e) {
+        future.cancel(true);
+        log.warn(e, "Failed to fetch segment query stats from server[%s], ignoring.", servers.get(i).getName());
+      }
+    }
+
+    log.info(
+        "Collected query load of [%,d] segments from [%,d] of [%,d] historicals.",
+        segmentQueryLoad.size(),
+        numRespondedServers,
+        servers.size()
+    );
+
+    return params.buildFromExisting()
+                 .withSegmentQueryLoad(segmentQueryLoad)
+                 .build();
+  }
+
+  private static boolean hasQueryLoadBasedRules(MetadataRuleManager ruleManager)
+  {
+    for (List<Rule> rules : ruleManager.getAllRules().values()) {
+      for (Rule rule : rules) {
+        if (rule instanceof QueryLoadBasedLoadRule) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -46,4 +46,16 @@ public class ForeverDropRule extends DropRule
   {
     return true;
   }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    return this == o || (o != null && getClass() == o.getClass());
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return getClass().hashCode();
+  }
 }
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordinator.rules;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.druid.timeline.DataSegment;
+import org.joda.time.DateTime;
+import org.joda.time.Interval;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+public class ForeverQueryLoadBasedLoadRule extends QueryLoadBasedLoadRule
+{
+  static final String TYPE = "loadForeverAndQueryLoad";
+
+  @JsonCreator
+  public ForeverQueryLoadBasedLoadRule(
+      @JsonProperty("tieredReplicants") @Nullable Map<String, Integer> tieredReplicants,
+      @JsonProperty("maxTieredReplicants") @Nullable Map<String, Integer> maxTieredReplicants,
+      @JsonProperty("queriesPerMinutePerReplicant") @Nullable Double queriesPerMinutePerReplicant
+  )
+  {
+    super(tieredReplicants, maxTieredReplicants, queriesPerMinutePerReplicant);
+  }
+
+  @Override
+  @JsonProperty
+  public String getType()
+  {
+    return TYPE;
+  }
+
+  @Override
+  public boolean appliesTo(DataSegment segment, DateTime referenceTimestamp)
+  {
+    return true;
+  }
+
+  @Override
+  public boolean appliesTo(Interval interval, DateTime referenceTimestamp)
+  {
+    return true;
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.druid.server.coordinator.rules;
 
+import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.apache.druid.java.util.common.IAE;
@@ -30,6 +31,7 @@ import org.apache.druid.server.coordinator.DruidCluster;
 import org.apache.druid.server.coordinator.DruidCoordinator;
 import org.apache.druid.server.coordinator.DruidCoordinatorRuntimeParams;
 import org.apache.druid.server.coordinator.ReplicationThrottler;
+import org.apache.druid.server.coordinator.SegmentReplicantLookup;
 import org.apache.druid.server.coordinator.ServerHolder;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.SegmentId;
@@ -70,7 +72,7 @@ public abstract class LoadRule implements Rule
   {
     try {
       // get the "snapshots" of targetReplicants and currentReplicants for assignments.
-      targetReplicants.putAll(getTieredReplicants());
+      targetReplicants.putAll(getTargetReplicants(params, segment));
       currentReplicants.putAll(params.getSegmentReplicantLookup().getClusterTiers(segment.getId()));
 
       final CoordinatorStats stats = new CoordinatorStats();
@@ -446,6 +448,60 @@ public abstract class LoadRule implements Rule
     }
   }
 
+  /**
+   * Returns true if the given segment has exactly the target number of replicants loaded in every tier, and no
+   * replicants loading. {@link #run} does nothing for such a segment, until its replicants or the rule change.
+   */
+  public boolean isSatisfied(final DruidCoordinatorRuntimeParams params, final DataSegment segment)
+  {
+    final SegmentReplicantLookup segmentReplicantLookup = params.getSegmentReplicantLookup();
+    final Map<String, Integer> loadedReplicants = segmentReplicantLookup.getClusterTiers(segment.getId());
+    int numLoadedReplicants = 0;
+    for (Map.Entry<String, Integer> entry : loadedReplicants.entrySet()) {
+      numLoadedReplicants += entry.getValue();
+    }
+    if (segmentReplicantLookup.getTotalReplicants(segment.getId()) != numLoadedReplicants) {
+      return false;
+    }
+
+    final Map<String, Integer> target = getTargetReplicants(params, segment);
+    for (Map.Entry<String, Integer> entry : target.entrySet()) {
+      if (entry.getValue() != loadedReplicants.getOrDefault(entry.getKey(), 0).intValue()) {
+        return false;
+      }
+    }
+    for (Map.Entry<String, Integer> entry : loadedReplicants.entrySet()) {
+      if (!target.containsKey(entry.getKey())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of replicants the given segment should have in each tier during this coordinator run.
+   */
+  protected final Map<String, Integer> getTargetReplicants(
+      final DruidCoordinatorRuntimeParams params,
+      final DataSegment segment
+  )
+  {
+    return getTargetReplicants(params.getSegmentQueryLoad(), segment);
+  }
+
+  /**
+   * Returns the number of replicants the given segment should have in each tier, given the query load of segments
+   * (see {@link DruidCoordinatorRuntimeParams#getSegmentQueryLoad()}). By default, this is {@link
+   * #getTieredReplicants()}; subclasses may adjust it depending on the query load.
+   */
+  public Map<String, Integer> getTargetReplicants(
+      final Object2DoubleMap<SegmentId> segmentQueryLoad,
+      final DataSegment segment
+  )
+  {
+    return getTieredReplicants();
+  }
+
   public abstract Map<String, Integer> getTieredReplicants();
 
   public abstract int getNumReplicants(String tier);
@@ -26,6 +26,8 @@ import org.joda.time.DateTime;
 import org.joda.time.Interval;
 import org.joda.time.Period;
 
+import java.util.Objects;
+
 public class PeriodDropBeforeRule extends DropRule
 {
   private final Period period;
@@ -63,4 +65,23 @@ public class PeriodDropBeforeRule extends DropRule
     final DateTime periodAgo = referenceTimestamp.minus(period);
     return theInterval.getEndMillis() <= periodAgo.getMillis();
   }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PeriodDropBeforeRule that = (PeriodDropBeforeRule) o;
+    return Objects.equals(period, that.period);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(period);
+  }
 }
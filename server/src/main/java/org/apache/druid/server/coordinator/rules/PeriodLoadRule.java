@@ -30,6 +30,7 @@ import org.joda.time.Interval;
 import org.joda.time.Period;
 
 import java.util.Map;
+import java.util.Objects;
 
 /**
  */
@@ -99,4 +100,25 @@ public class PeriodLoadRule extends LoadRule
   {
     return Rules.eligibleForLoad(period, interval, referenceTimestamp, includeFuture);
   }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PeriodLoadRule that = (PeriodLoadRule) o;
+    return Objects.equals(period, that.period) &&
+           includeFuture == that.includeFuture &&
+           Objects.equals(tieredReplicants, that.tieredReplicants);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(period, includeFuture, tieredReplicants);
+  }
 }
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordinator.rules;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.druid.timeline.DataSegment;
+import org.joda.time.DateTime;
+import org.joda.time.Interval;
+import org.joda.time.Period;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Objects;
+
+public class PeriodQueryLoadBasedLoadRule extends QueryLoadBasedLoadRule
+{
+  static final String TYPE = "loadByPeriodAndQueryLoad";
+
+  private final Period period;
+  private final boolean includeFuture;
+
+  @JsonCreator
+  public PeriodQueryLoadBasedLoadRule(
+      @JsonProperty("period") Period period,
+      @JsonProperty("includeFuture") @Nullable Boolean includeFuture,
+      @JsonProperty("tieredReplicants") @Nullable Map<String, Integer> tieredReplicants,
+      @JsonProperty("maxTieredReplicants") @Nullable Map<String, Integer> maxTieredReplicants,
+      @JsonProperty("queriesPerMinutePerReplicant") @Nullable Double queriesPerMinutePerReplicant
+  )
+  {
+    super(tieredReplicants, maxTieredReplicants, queriesPerMinutePerReplicant);
+    this.period = period;
+    this.includeFuture = includeFuture == null ? PeriodLoadRule.DEFAULT_INCLUDE_FUTURE : includeFuture;
+  }
+
+  @Override
+  @JsonProperty
+  public String getType()
+  {
+    return TYPE;
+  }
+
+  @JsonProperty
+  public Period getPeriod()
+  {
+    return period;
+  }
+
+  @JsonProperty
+  public boolean isIncludeFuture()
+  {
+    return includeFuture;
+  }
+
+  @Override
+  public boolean appliesTo(DataSegment segment, DateTime referenceTimestamp)
+  {
+    return appliesTo(segment.getInterval(), referenceTimestamp);
+  }
+
+  @Override
+  public boolean appliesTo(Interval interval, DateTime referenceTimestamp)
+  {
+    return Rules.eligibleForLoad(period, interval, referenceTimestamp, includeFuture);
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (!super.equals(o)) {
+      return false;
+    }
+    PeriodQueryLoadBasedLoadRule that = (PeriodQueryLoadBasedLoadRule) o;
+    return includeFuture == that.includeFuture &&
+           Objects.equals(period, that.period);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(super.hashCode(), period, includeFuture);
+  }
+}
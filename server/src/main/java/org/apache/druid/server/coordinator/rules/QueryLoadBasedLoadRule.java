@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordinator.rules;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
+import org.apache.druid.client.DruidServer;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.server.coordinator.DruidCoordinatorRuntimeParams;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.SegmentId;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A {@link LoadRule} which adds replicants to segments which are queried a lot. {@link #getTieredReplicants()} is the
+ * minimum number of replicants in each tier, {@link #getMaxTieredReplicants()} is the maximum. Between the two, a
+ * segment gets as many replicants as needed so that each of them processes no more than {@link
+ * #getQueriesPerMinutePerReplicant()} queries per minute, based on the query load reported by the data servers (see
+ * {@link DruidCoordinatorRuntimeParams#getSegmentQueryLoad()}).
+ *
+ * Additional replicants are created and dropped like any other, so their creation is throttled by {@link
+ * org.apache.druid.server.coordinator.ReplicationThrottler}.
+ */
+public abstract class QueryLoadBasedLoadRule extends LoadRule
+{
+  static final double DEFAULT_QUERIES_PER_MINUTE_PER_REPLICANT = 60;
+
+  private final Map<String, Integer> tieredReplicants;
+  private final Map<String, Integer> maxTieredReplicants;
+  private final double queriesPerMinutePerReplicant;
+
+  protected QueryLoadBasedLoadRule(
+      @Nullable Map<String, Integer> tieredReplicants,
+      @Nullable Map<String, Integer> maxTieredReplicants,
+      @Nullable Double queriesPerMinutePerReplicant
+  )
+  {
+    this.tieredReplicants = tieredReplicants == null
+                            ? ImmutableMap.of(DruidServer.DEFAULT_TIER, DruidServer.DEFAULT_NUM_REPLICANTS)
+                            : tieredReplicants;
+    validateTieredReplicants(this.tieredReplicants);
+    this.maxTieredReplicants = maxTieredReplicants == null ? this.tieredReplicants : maxTieredReplicants;
+    validateMaxTieredReplicants(this.tieredReplicants, this.maxTieredReplicants);
+    this.queriesPerMinutePerReplicant = queriesPerMinutePerReplicant == null
+                                        ? DEFAULT_QUERIES_PER_MINUTE_PER_REPLICANT
+                                        : queriesPerMinutePerReplicant;
+    if (!(this.queriesPerMinutePerReplicant > 0)) {
+      throw new IAE("queriesPerMinutePerReplicant[%s] must be positive", this.queriesPerMinutePerReplicant);
+    }
+  }
+
+  private static void validateMaxTieredReplicants(
+      final Map<String, Integer> tieredReplicants,
+      final Map<String, Integer> maxTieredReplicants
+  )
+  {
+    for (Map.Entry<String, Integer> entry : maxTieredReplicants.entrySet()) {
+      final Integer minReplicants = tieredReplicants.get(entry.getKey());
+      if (minReplicants == null) {
+        throw new IAE("Tier[%s] in maxTieredReplicants is missing from tieredReplicants", entry.getKey());
+      }
+      if (entry.getValue() == null || entry.getValue() < minReplicants) {
+        throw new IAE(
+            "Max replicant value[%s] of tier[%s] is less than the replicant value[%d]",
+            entry.getValue(),
+            entry.getKey(),
+            minReplicants
+        );
+      }
+    }
+  }
+
+  @Override
+  @JsonProperty
+  public Map<String, Integer> getTieredReplicants()
+  {
+    return tieredReplicants;
+  }
+
+  @JsonProperty
+  public Map<String, Integer> getMaxTieredReplicants()
+  {
+    return maxTieredReplicants;
+  }
+
+  @JsonProperty
+  public double getQueriesPerMinutePerReplicant()
+  {
+    return queriesPerMinutePerReplicant;
+  }
+
+  @Override
+  public int getNumReplicants(String tier)
+  {
+    final Integer retVal = tieredReplicants.get(tier);
+    return retVal == null ? 0 : retVal;
+  }
+
+  @Override
+  public Map<String, Integer> getTargetReplicants(
+      final Object2DoubleMap<SegmentId> segmentQueryLoad,
+      final DataSegment segment
+  )
+  {
+    final double queryLoad = segmentQueryLoad.getDouble(segment.getId());
+    final int neededReplicants = computeNeededReplicants(queryLoad);
+    if (neededReplicants <= 1) {
+      // Fast path for the majority of segments, which are queried rarely.
+      return tieredReplicants;
+    }
+
+    final Map<String, Integer> targetReplicants = new HashMap<>();
+    for (Map.Entry<String, Integer> entry : tieredReplicants.entrySet()) {
+      final int maxReplicants = maxTieredReplicants.getOrDefault(entry.getKey(), entry.getValue());
+      targetReplicants.put(entry.getKey(), Math.max(entry.getValue(), Math.min(neededReplicants, maxReplicants)));
+    }
+    return targetReplicants;
+  }
+
+  /**
+   * Segments with a query load are never satisfied, because the number of replicants they need changes when the load
+   * changes, independently of their replicants.
+   */
+  @Override
+  public boolean isSatisfied(final DruidCoordinatorRuntimeParams params, final DataSegment segment)
+  {
+    return !params.getSegmentQueryLoad().containsKey(segment.getId()) && super.isSatisfied(params, segment);
+  }
+
+  /**
+   * Returns the number of replicants needed to process the given number of queries per minute, so that no replicant
+   * processes more than {@link #getQueriesPerMinutePerReplicant()} queries per minute.
+   */
+  int computeNeededReplicants(double queriesPerMinute)
+  {
+    final double neededReplicants = Math.ceil(queriesPerMinute / queriesPerMinutePerReplicant);
+    return neededReplicants >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) neededReplicants;
+  }
+
+  @Override
+  public boolean equals(Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    QueryLoadBasedLoadRule that = (QueryLoadBasedLoadRule) o;
+    return Double.compare(that.queriesPerMinutePerReplicant, queriesPerMinutePerReplicant) == 0 &&
+           Objects.equals(tieredReplicants, that.tieredReplicants) &&
+           Objects.equals(maxTieredReplicants, that.maxTieredReplicants);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(tieredReplicants, maxTieredReplicants, queriesPerMinutePerReplicant);
+  }
+}
@@ -41,7 +41,9 @@ import org.joda.time.Interval;
     @JsonSubTypes.Type(name = "dropForever", value = ForeverDropRule.class),
     @JsonSubTypes.Type(name = ForeverBroadcastDistributionRule.TYPE, value = ForeverBroadcastDistributionRule.class),
     @JsonSubTypes.Type(name = IntervalBroadcastDistributionRule.TYPE, value = IntervalBroadcastDistributionRule.class),
-    @JsonSubTypes.Type(name = PeriodBroadcastDistributionRule.TYPE, value = PeriodBroadcastDistributionRule.class)
+    @JsonSubTypes.Type(name = PeriodBroadcastDistributionRule.TYPE, value = PeriodBroadcastDistributionRule.class),
+    @JsonSubTypes.Type(name = PeriodQueryLoadBasedLoadRule.TYPE, value = PeriodQueryLoadBasedLoadRule.class),
+    @JsonSubTypes.Type(name = ForeverQueryLoadBasedLoadRule.TYPE, value = ForeverQueryLoadBasedLoadRule.class)
 })
 public interface Rule
 {
@@ -21,28 +21,36 @@ package org.apache.druid.server.http;
 
 import com.google.common.collect.ImmutableMap;
 import com.sun.jersey.spi.container.ResourceFilters;
+import org.apache.druid.server.coordination.SegmentQueryStats;
+import org.apache.druid.server.coordination.SegmentQueryStatsCollector;
 import org.apache.druid.server.coordination.ZkCoordinator;
 import org.apache.druid.server.http.security.StateResourceFilter;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.List;
 
 @Path("/druid/historical/v1")
 @ResourceFilters(StateResourceFilter.class)
 public class HistoricalResource
 {
   private final ZkCoordinator coordinator;
+  private final SegmentQueryStatsCollector segmentQueryStatsCollector;
 
   @Inject
   public HistoricalResource(
-      ZkCoordinator coordinator
+      ZkCoordinator coordinator,
+      SegmentQueryStatsCollector segmentQueryStatsCollector
   )
   {
     this.coordinator = coordinator;
+    this.segmentQueryStatsCollector = segmentQueryStatsCollector;
   }
 
   @GET
@@ -63,4 +71,27 @@ public class HistoricalResource
       return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
     }
   }
+
+  @GET
+  @Path("/segmentQueryStats")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response getSegmentQueryStats(
+      @QueryParam("dataSource") @Nullable String dataSource,
+      @QueryParam("limit") @Nullable Integer limit
+  )
+  {
+    final List<SegmentQueryStats> stats = segmentQueryStatsCollector.getSegmentQueryStats(dataSource);
+    if (limit != null && limit < stats.size()) {
+      return Response.ok(stats.subList(0, Math.max(limit, 0))).build();
+    }
+    return Response.ok(stats).build();
+  }
+
+  @GET
+  @Path("/dataSourceQueryStats")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response getDataSourceQueryStats()
+  {
+    return Response.ok(segmentQueryStatsCollector.getDataSourceQueryStats()).build();
+  }
 }
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.metrics;
+
+import com.google.inject.Inject;
+import org.apache.druid.java.util.emitter.service.ServiceEmitter;
+import org.apache.druid.java.util.emitter.service.ServiceMetricEvent;
+import org.apache.druid.java.util.metrics.AbstractMonitor;
+import org.apache.druid.segment.virtual.ExpressionColumnCache;
+
+/**
+ * Emits the statistics of the {@link ExpressionColumnCache} of Historicals.
+ */
+public class ExpressionColumnCacheMonitor extends AbstractMonitor
+{
+  private final ExpressionColumnCache cache;
+  private volatile ExpressionColumnCache.Snapshot prevSnapshot = null;
+
+  @Inject
+  public ExpressionColumnCacheMonitor(ExpressionColumnCache cache)
+  {
+    this.cache = cache;
+  }
+
+  @Override
+  public boolean doMonitor(ServiceEmitter emitter)
+  {
+    final ExpressionColumnCache.Snapshot snapshot = cache.snapshot();
+    final ExpressionColumnCache.Snapshot delta = snapshot.delta(prevSnapshot);
+    prevSnapshot = snapshot;
+
+    final ServiceMetricEvent.Builder builder = new ServiceMetricEvent.Builder();
+    emitter.emit(builder.build("segment/expressionColumnCache/numEntries", snapshot.getNumEntries()));
+    emitter.emit(builder.build("segment/expressionColumnCache/sizeBytes", snapshot.getSizeBytes()));
+    emitter.emit(builder.build("segment/expressionColumnCache/hits", delta.getHits()));
+    emitter.emit(builder.build("segment/expressionColumnCache/misses", delta.getMisses()));
+    emitter.emit(builder.build("segment/expressionColumnCache/evictions", delta.getEvictions()));
+    emitter.emit(builder.build("segment/expressionColumnCache/materializations", delta.getMaterializations()));
+    return true;
+  }
+}
@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.apache.druid.indexing.overlord.DataSourceMetadata;
 import org.apache.druid.indexing.overlord.ObjectMetadata;
+import org.apache.druid.indexing.overlord.SegmentCreateRequest;
 import org.apache.druid.indexing.overlord.SegmentPublishResult;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.Intervals;
@@ -48,7 +49,9 @@ import org.skife.jdbi.v2.util.StringMapper;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -899,6 +902,152 @@ public class IndexerSQLMetadataStorageCoordinatorTest
     Assert.assertEquals("ds_2017-01-01T00:00:00.000Z_2017-02-01T00:00:00.000Z_version_3", identifier4.toString());
   }
 
+  @Test
+  public void testAllocatePendingSegments()
+  {
+    final String dataSource = "ds";
+    final Interval interval = Intervals.of("2017-01-01/2017-02-01");
+    final SegmentIdWithShardSpec existing = coordinator.allocatePendingSegment(
+        dataSource,
+        "seq0",
+        null,
+        interval,
+        "version",
+        false
+    );
+
+    final SegmentCreateRequest request0 = new SegmentCreateRequest("seq0", null);
+    final SegmentCreateRequest request1 = new SegmentCreateRequest("seq1", null);
+    final SegmentCreateRequest request2 = new SegmentCreateRequest("seq0", existing.toString());
+    final Map<SegmentCreateRequest, SegmentIdWithShardSpec> allocated = coordinator.allocatePendingSegments(
+        dataSource,
+        interval,
+        "version",
+        ImmutableList.of(request0, request1, request2, request1),
+        false
+    );
+
+    Assert.assertEquals(3, allocated.size());
+    Assert.assertEquals(existing, allocated.get(request0));
+    Assert.assertEquals(
+        "ds_2017-01-01T00:00:00.000Z_2017-02-01T00:00:00.000Z_version_1",
+        allocated.get(request1).toString()
+    );
+    Assert.assertEquals(
+        "ds_2017-01-01T00:00:00.000Z_2017-02-01T00:00:00.000Z_version_2",
+        allocated.get(request2).toString()
+    );
+
+    // Allocating again gives the same segments, one by one or in a batch.
+    Assert.assertEquals(
+        allocated.get(request2),
+        coordinator.allocatePendingSegment(dataSource, "seq0", existing.toString(), interval, "version", false)
+    );
+    Assert.assertEquals(
+        allocated,
+        coordinator.allocatePendingSegments(
+            dataSource,
+            interval,
+            "version",
+            ImmutableList.of(request0, request1, request2),
+            false
+        )
+    );
+
+    // The next segment follows the batch.
+    Assert.assertEquals(
+        "ds_2017-01-01T00:00:00.000Z_2017-02-01T00:00:00.000Z_version_3",
+        coordinator.allocatePendingSegment(dataSource, "seq2", null, interval, "version", false).toString()
+    );
+  }
+
+  @Test
+  public void testAllocatePendingSegmentsSkipLineageCheck()
+  {
+    final String dataSource = "ds";
+    final Interval interval = Intervals.of("2017-01-01/2017-02-01");
+    final List<SegmentCreateRequest> requests = ImmutableList.of(
+        new SegmentCreateRequest("seq0", "ignored"),
+        new SegmentCreateRequest("seq1", null)
+    );
+    final Map<SegmentCreateRequest, SegmentIdWithShardSpec> allocated = coordinator.allocatePendingSegments(
+        dataSource,
+        interval,
+        "version",
+        requests,
+        true
+    );
+    Assert.assertEquals(
+        ImmutableSet.of(
+            "ds_2017-01-01T00:00:00.000Z_2017-02-01T00:00:00.000Z_version",
+            "ds_2017-01-01T00:00:00.000Z_2017-02-01T00:00:00.000Z_version_1"
+        ),
+        allocated.values().stream().map(SegmentIdWithShardSpec::toString).collect(Collectors.toSet())
+    );
+    Assert.assertEquals(
+        allocated.get(requests.get(0)),
+        coordinator.allocatePendingSegment(dataSource, "seq0", null, interval, "version", true)
+    );
+  }
+
+  @Test
+  public void testAllocatePendingSegmentsSkipLineageCheckSameSequenceDifferentPreviousId()
+  {
+    final String dataSource = "ds";
+    final Interval interval = Intervals.of("2017-01-01/2017-02-01");
+    final SegmentCreateRequest request0 = new SegmentCreateRequest("seq0", null);
+    final SegmentCreateRequest request1 = new SegmentCreateRequest("seq0", "previous");
+    final Map<SegmentCreateRequest, SegmentIdWithShardSpec> allocated = coordinator.allocatePendingSegments(
+        dataSource,
+        interval,
+        "version",
+        ImmutableList.of(request0, request1),
+        true
+    );
+
+    Assert.assertEquals(2, allocated.size());
+    Assert.assertEquals(
+        "ds_2017-01-01T00:00:00.000Z_2017-02-01T00:00:00.000Z_version",
+        allocated.get(request0).toString()
+    );
+    Assert.assertEquals(allocated.get(request0), allocated.get(request1));
+    Assert.assertEquals(
+        allocated.get(request0),
+        coordinator.allocatePendingSegment(dataSource, "seq0", "other", interval, "version", true)
+    );
+  }
+
+  @Test
+  public void testAnnounceManySegments() throws IOException
+  {
+    final Set<DataSegment> segments = new HashSet<>();
+    for (int i = 0; i < 250; i++) {
+      segments.add(
+          new DataSegment(
+              "fooDataSource",
+              Intervals.of("2015-01-01T00Z/2015-01-02T00Z"),
+              "version2",
+              ImmutableMap.of(),
+              ImmutableList.of("dim1"),
+              ImmutableList.of("m1"),
+              new NumberedShardSpec(i, 250),
+              9,
+              100
+          )
+      );
+    }
+    Assert.assertEquals(ImmutableSet.of(defaultSegment), coordinator.announceHistoricalSegments(ImmutableSet.of(defaultSegment)));
+
+    final Set<DataSegment> allSegments = new HashSet<>(segments);
+    allSegments.add(defaultSegment);
+    Assert.assertEquals(segments, coordinator.announceHistoricalSegments(allSegments));
+    Assert.assertEquals(
+        allSegments.stream().map(segment -> segment.getId().toString()).sorted().collect(Collectors.toList()),
+        getUsedSegmentIds()
+    );
+    Assert.assertEquals(ImmutableSet.of(), coordinator.announceHistoricalSegments(allSegments));
+  }
+
   @Test
   public void testDeletePendingSegment() throws InterruptedException
   {
@@ -25,10 +25,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import org.apache.druid.client.ImmutableDruidDataSource;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.emitter.EmittingLogger;
+import org.apache.druid.java.util.emitter.service.AlertEvent;
+import org.apache.druid.java.util.metrics.StubServiceEmitter;
 import org.apache.druid.segment.TestHelper;
 import org.apache.druid.server.metrics.NoopServiceEmitter;
 import org.apache.druid.timeline.DataSegment;
@@ -105,6 +108,21 @@ public class SQLMetadataSegmentManagerTest
     );
   }
 
+  private void publishCorruptSegment()
+  {
+    publisher.publishSegment(
+        "corrupt-segment-id",
+        "corrupt-datasource",
+        "corrupt-create-date",
+        "corrupt-start-date",
+        "corrupt-end-date",
+        true,
+        "corrupt-version",
+        true,
+        StringUtils.toUtf8("corrupt-payload")
+    );
+  }
+
   @Before
   public void setUp() throws Exception
   {
@@ -160,6 +178,108 @@ public class SQLMetadataSegmentManagerTest
     );
   }
 
+  @Test
+  public void testIncrementalPoll() throws IOException
+  {
+    manager.start();
+    manager.poll();
+    final DataSegment polledSegment2 = manager.getDataSource("wikipedia").getSegment(segment2.getId());
+
+    final DataSegment newSegment = new DataSegment(
+        "wikipedia2",
+        Intervals.of("2017-10-15T00:00:00.000/2017-10-16T00:00:00.000"),
+        "2017-10-15T20:19:12.565Z",
+        ImmutableMap.of(
+            "type", "s3_zip",
+            "bucket", "test",
+            "key", "wikipedia2/index/y=2017/m=10/d=15/2017-10-16T20:19:12.565Z/0/index.zip"
+        ),
+        ImmutableList.of("dim1", "dim2", "dim3"),
+        ImmutableList.of("count", "value"),
+        NoneShardSpec.instance(),
+        0,
+        1234L
+    );
+    // Overshadows segment2
+    final DataSegment newSegment2 = new DataSegment(
+        "wikipedia",
+        segment2.getInterval(),
+        "2012-01-07T00:00:00.000Z",
+        ImmutableMap.of(
+            "type", "s3_zip",
+            "bucket", "test",
+            "key", "wikipedia/index/y=2012/m=01/d=05/2012-01-07T00:00:00.000Z/0/index.zip"
+        ),
+        ImmutableList.of("dim1", "dim2", "dim3"),
+        ImmutableList.of("count", "value"),
+        NoneShardSpec.instance(),
+        0,
+        1234L
+    );
+    publisher.publishSegment(newSegment);
+    publisher.publishSegment(newSegment2);
+    Assert.assertTrue(manager.removeSegment(segment1.getId().toString()));
+
+    manager.poll();
+    Assert.assertEquals(
+        ImmutableSet.of(segment2, newSegment, newSegment2),
+        ImmutableSet.copyOf(manager.iterateAllSegments())
+    );
+    Assert.assertEquals(ImmutableSet.of(segment2.getId()), manager.getOvershadowedSegments());
+    // Segments which stay used are not read again
+    Assert.assertSame(polledSegment2, manager.getDataSource("wikipedia").getSegment(segment2.getId()));
+
+    Assert.assertTrue(manager.removeDataSource("wikipedia2"));
+    manager.poll();
+    Assert.assertEquals(ImmutableSet.of("wikipedia"), manager.getDataSourcesSnapshot().getDataSourcesMap().keySet());
+    Assert.assertEquals(ImmutableSet.of(segment2.getId()), manager.getOvershadowedSegments());
+  }
+
+  @Test
+  public void testFullPollReadsUpdatedPayload() throws IOException
+  {
+    final SQLMetadataSegmentManager alwaysFullPollManager = new SQLMetadataSegmentManager(
+        jsonMapper,
+        Suppliers.ofInstance(
+            jsonMapper.readValue("{\"fullPollPeriod\": \"PT0S\"}", MetadataSegmentManagerConfig.class)
+        ),
+        derbyConnectorRule.metadataTablesConfigSupplier(),
+        derbyConnectorRule.getConnector()
+    );
+    alwaysFullPollManager.start();
+    try {
+      alwaysFullPollManager.poll();
+      final DataSegment polledSegment2 = alwaysFullPollManager.getDataSource("wikipedia").getSegment(segment2.getId());
+
+      final DataSegment movedSegment1 = DataSegment
+          .builder(segment1)
+          .loadSpec(ImmutableMap.of("type", "local", "path", "/moved/index.zip"))
+          .build();
+      final byte[] payload = jsonMapper.writeValueAsBytes(movedSegment1);
+      derbyConnectorRule.getConnector().getDBI().withHandle(
+          handle -> handle
+              .createStatement(
+                  StringUtils.format(
+                      "UPDATE %s SET payload = :payload WHERE id = :id",
+                      derbyConnectorRule.metadataTablesConfigSupplier().get().getSegmentsTable()
+                  )
+              )
+              .bind("payload", payload)
+              .bind("id", segment1.getId().toString())
+              .execute()
+      );
+
+      alwaysFullPollManager.poll();
+      final ImmutableDruidDataSource dataSource = alwaysFullPollManager.getDataSource("wikipedia");
+      Assert.assertEquals(movedSegment1.getLoadSpec(), dataSource.getSegment(segment1.getId()).getLoadSpec());
+      // Segments whose payload didn't change are interned
+      Assert.assertSame(polledSegment2, dataSource.getSegment(segment2.getId()));
+    }
+    finally {
+      alwaysFullPollManager.stop();
+    }
+  }
+
   @Test
   public void testNoPoll()
   {
@@ -196,17 +316,7 @@ public class SQLMetadataSegmentManagerTest
     //create a corrupted segment entry in segments table, which tests
     //that overall loading of segments from database continues to work
     //even in one of the entries are corrupted.
-    publisher.publishSegment(
-        "corrupt-segment-id",
-        "corrupt-datasource",
-        "corrupt-create-date",
-        "corrupt-start-date",
-        "corrupt-end-date",
-        true,
-        "corrupt-version",
-        true,
-        StringUtils.toUtf8("corrupt-payload")
-    );
+    publishCorruptSegment();
 
     EmittingLogger.registerEmitter(new NoopServiceEmitter());
     manager.start();
@@ -218,6 +328,47 @@ public class SQLMetadataSegmentManagerTest
     );
   }
 
+  @Test
+  public void testCorruptSegmentIsAlertedOnce() throws IOException
+  {
+    publishCorruptSegment();
+
+    final StubServiceEmitter emitter = new StubServiceEmitter("service", "host");
+    EmittingLogger.registerEmitter(emitter);
+    manager.start();
+    // The first poll is a full one, the following ones are incremental and don't fetch the corrupt payload again
+    manager.poll();
+    manager.poll();
+    manager.poll();
+    Assert.assertEquals(1, emitter.getEvents().size());
+
+    final SQLMetadataSegmentManager alwaysFullPollManager = new SQLMetadataSegmentManager(
+        jsonMapper,
+        Suppliers.ofInstance(
+            jsonMapper.readValue("{\"fullPollPeriod\": \"PT0S\"}", MetadataSegmentManagerConfig.class)
+        ),
+        derbyConnectorRule.metadataTablesConfigSupplier(),
+        derbyConnectorRule.getConnector()
+    );
+    alwaysFullPollManager.start();
+    try {
+      // Full polls fetch the corrupt payload again, but alert only if it changed
+      alwaysFullPollManager.poll();
+      alwaysFullPollManager.poll();
+      Assert.assertEquals(2, emitter.getEvents().size());
+      Assert.assertEquals(
+          "corrupt-segment-id",
+          ((AlertEvent) emitter.getEvents().get(1)).getDataMap().get("segmentId")
+      );
+      Assert.assertEquals(
+          "wikipedia", Iterables.getOnlyElement(alwaysFullPollManager.getDataSources()).getName()
+      );
+    }
+    finally {
+      alwaysFullPollManager.stop();
+    }
+  }
+
   @Test
   public void testGetUnusedSegmentsForInterval()
   {
@@ -74,6 +74,24 @@ public class ExprMacroTest
     assertExpr("lookup(x, 'lookylook')", null);
   }
 
+  @Test
+  public void testMapLookup()
+  {
+    assertExpr("map_lookup(x, 'foo', 'bar', 'baz', 'qux')", "bar");
+    assertExpr("map_lookup(x, 'baz', 'qux')", null);
+    assertExpr("map_lookup(x, 'foo', null)", null);
+    assertExpr("map_lookup(x)", null);
+    assertExpr("map_lookup(concat(x, 'o'), 'fooo', 'bar')", "bar");
+  }
+
+  @Test
+  public void testMapLookupDuplicateKey()
+  {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Function[map_lookup] has duplicate key[foo]");
+    assertExpr("map_lookup(x, 'foo', 'bar', 'foo', 'baz')", null);
+  }
+
   @Test
   public void testRegexpExtract()
   {
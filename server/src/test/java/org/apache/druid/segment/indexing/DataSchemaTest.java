@@ -188,6 +188,56 @@ public class DataSchemaTest
     Assert.assertNull(row2);
   }
 
+  @Test
+  public void testStreamingJsonReadsRequiredFieldsOnly()
+  {
+    Map<String, Object> parserMap = jsonMapper.convertValue(
+        new StringInputRowParser(
+            new JSONParseSpec(
+                new TimestampSpec("time", "auto", null),
+                new DimensionsSpec(DimensionsSpec.getDefaultSchemas(ImmutableList.of("dimA")), null, null),
+                null,
+                null,
+                true
+            ),
+            null
+        ), JacksonUtils.TYPE_REFERENCE_MAP_STRING_OBJECT
+    );
+
+    DataSchema schema = new DataSchema(
+        "test",
+        parserMap,
+        new AggregatorFactory[]{
+            new DoubleSumAggregatorFactory("metric1", "col1"),
+            },
+        new ArbitraryGranularitySpec(Granularities.DAY, ImmutableList.of(Intervals.of("2014/2015"))),
+        new TransformSpec(
+            new SelectorDimFilter("dimB", "bar", null),
+            ImmutableList.of(
+                new ExpressionTransform("expr", "concat(dimC,dimC)", TestExprMacroTable.INSTANCE)
+            )
+        ),
+        jsonMapper
+    );
+
+    final StringInputRowParser parser = (StringInputRowParser) schema.getParser();
+    Assert.assertEquals(ImmutableSet.of("time", "dimA", "col1", "dimB", "dimC"), parser.getRequiredFields());
+
+    final InputRow row = parser.parseBatch(
+        ByteBuffer.wrap(
+            "{\"time\":\"2000-01-01\",\"dimA\":\"foo\",\"dimB\":\"bar\",\"dimC\":\"baz\",\"col1\":2.5,\"other\":1}"
+                .getBytes(StandardCharsets.UTF_8)
+        )
+    ).get(0);
+    Assert.assertEquals(DateTimes.of("2000-01-01"), row.getTimestamp());
+    Assert.assertEquals(ImmutableList.of("dimA"), row.getDimensions());
+    Assert.assertEquals("foo", row.getRaw("dimA"));
+    // the input of the metric is read, although it's not a dimension
+    Assert.assertEquals(2.5, row.getMetric("col1").doubleValue(), 0);
+    Assert.assertEquals("bazbaz", row.getRaw("expr"));
+    Assert.assertNull(row.getRaw("other"));
+  }
+
   @Test(expected = IAE.class)
   public void testOverlapMetricNameAndDim()
   {
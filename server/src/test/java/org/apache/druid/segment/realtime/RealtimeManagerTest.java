@@ -220,6 +220,7 @@ public class RealtimeManagerTest
         tuningConfig.getMaxRowsInMemory(),
         TuningConfigs.getMaxBytesInMemoryOrDefault(tuningConfig.getMaxBytesInMemory()),
         tuningConfig.isReportParseExceptions(),
+        false,
         tuningConfig.getDedupColumn()
     ));
 
@@ -242,6 +243,7 @@ public class RealtimeManagerTest
         tuningConfig.getMaxRowsInMemory(),
         TuningConfigs.getMaxBytesInMemoryOrDefault(tuningConfig.getMaxBytesInMemory()),
         tuningConfig.isReportParseExceptions(),
+        false,
         tuningConfig.getDedupColumn()
     ));
 
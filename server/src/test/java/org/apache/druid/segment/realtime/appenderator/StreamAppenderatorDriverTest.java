@@ -55,6 +55,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -164,6 +165,94 @@ public class StreamAppenderatorDriverTest extends EasyMockSupport
     Assert.assertEquals(3, segmentsAndMetadata.getCommitMetadata());
   }
 
+  @Test
+  public void testAllocateSegments() throws Exception
+  {
+    final AtomicInteger numAllocations = new AtomicInteger();
+    final StreamAppenderatorDriver driver2 = new StreamAppenderatorDriver(
+        appenderatorTester.getAppenderator(),
+        (row, sequenceName, previousSegmentId, skipSegmentLineageCheck) -> {
+          numAllocations.incrementAndGet();
+          return allocator.allocate(row, sequenceName, previousSegmentId, skipSegmentLineageCheck);
+        },
+        segmentHandoffNotifierFactory,
+        new TestUsedSegmentChecker(appenderatorTester),
+        dataSegmentKiller,
+        OBJECT_MAPPER,
+        new FireDepartmentMetrics()
+    );
+    final TestCommitterSupplier<Integer> committerSupplier = new TestCommitterSupplier<>();
+    Assert.assertNull(driver2.startJob());
+
+    // Segments are preallocated only if the segment lineage isn't checked.
+    driver2.allocateSegments(ROWS, "dummy", false);
+    Assert.assertEquals(0, numAllocations.get());
+
+    driver2.allocateSegments(ROWS, "dummy", true);
+    Assert.assertEquals(3, numAllocations.get());
+
+    final Set<SegmentIdWithShardSpec> identifiers = new HashSet<>();
+    for (InputRow row : ROWS) {
+      final AppenderatorDriverAddResult addResult = driver2.add(row, "dummy", committerSupplier, true, true);
+      Assert.assertTrue(addResult.isOk());
+      identifiers.add(addResult.getSegmentIdentifier());
+    }
+    Assert.assertEquals(3, numAllocations.get());
+    Assert.assertEquals(
+        ImmutableSet.of(
+            new SegmentIdWithShardSpec(DATA_SOURCE, Intervals.of("2000/PT1H"), VERSION, new NumberedShardSpec(0, 0)),
+            new SegmentIdWithShardSpec(DATA_SOURCE, Intervals.of("2000T01/PT1H"), VERSION, new NumberedShardSpec(0, 0))
+        ),
+        identifiers
+    );
+
+    // Rows which have an appendable segment don't allocate anything.
+    driver2.allocateSegments(ROWS, "dummy", true);
+    Assert.assertEquals(3, numAllocations.get());
+
+    driver2.clear();
+    driver2.close();
+  }
+
+  @Test
+  public void testAllocateSegmentsKeepsUnusedPreallocatedSegments() throws Exception
+  {
+    final AtomicInteger numAllocations = new AtomicInteger();
+    final StreamAppenderatorDriver driver2 = new StreamAppenderatorDriver(
+        appenderatorTester.getAppenderator(),
+        (row, sequenceName, previousSegmentId, skipSegmentLineageCheck) -> {
+          numAllocations.incrementAndGet();
+          return allocator.allocate(row, sequenceName, previousSegmentId, skipSegmentLineageCheck);
+        },
+        segmentHandoffNotifierFactory,
+        new TestUsedSegmentChecker(appenderatorTester),
+        dataSegmentKiller,
+        OBJECT_MAPPER,
+        new FireDepartmentMetrics()
+    );
+    final TestCommitterSupplier<Integer> committerSupplier = new TestCommitterSupplier<>();
+    Assert.assertNull(driver2.startJob());
+
+    driver2.allocateSegments(ROWS, "dummy", true);
+    Assert.assertEquals(3, numAllocations.get());
+
+    // Only the row of the first hour is added, so the segment of the second hour stays preallocated.
+    Assert.assertTrue(driver2.add(ROWS.get(0), "dummy", committerSupplier, true, true).isOk());
+    driver2.allocateSegments(ROWS, "dummy", true);
+    Assert.assertEquals(3, numAllocations.get());
+
+    final AppenderatorDriverAddResult addResult = driver2.add(ROWS.get(1), "dummy", committerSupplier, true, true);
+    Assert.assertTrue(addResult.isOk());
+    Assert.assertEquals(3, numAllocations.get());
+    Assert.assertEquals(
+        new SegmentIdWithShardSpec(DATA_SOURCE, Intervals.of("2000T01/PT1H"), VERSION, new NumberedShardSpec(0, 0)),
+        addResult.getSegmentIdentifier()
+    );
+
+    driver2.clear();
+    driver2.close();
+  }
+
   @Test
   public void testMaxRowsPerSegment() throws Exception
   {
@@ -43,6 +43,7 @@ public class HttpFirehoseFactoryTest
         512L,
         100L,
         5,
+        4,
         "testUser",
         pwProvider
     );
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordination;
+
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.query.Query;
+import org.apache.druid.timeline.SegmentId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SegmentQueryStatsCollectorTest
+{
+  private static final long HALF_LIFE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  private final SegmentId segment1 = SegmentId.of("foo", Intervals.of("2019-01-01/P1D"), "v1", 0);
+  private final SegmentId segment2 = SegmentId.of("foo", Intervals.of("2019-01-02/P1D"), "v1", 0);
+  private final SegmentId segment3 = SegmentId.of("bar", Intervals.of("2019-01-01/P1D"), "v1", 0);
+
+  private final AtomicLong clock = new AtomicLong(1_000_000L);
+  private final SegmentQueryStatsCollector collector = new SegmentQueryStatsCollector(
+      new SegmentQueryStatsConfig(),
+      clock::get
+  );
+
+  @Test
+  public void testBucketBoundaries()
+  {
+    int previousIndex = -1;
+    for (long micros = 0; micros < 100_000; micros++) {
+      final int index = SegmentQueryStatsCollector.bucketIndex(micros);
+      Assert.assertTrue(index == previousIndex || index == previousIndex + 1);
+      Assert.assertTrue(micros <= SegmentQueryStatsCollector.bucketUpperBoundMicros(index));
+      if (index > 0) {
+        Assert.assertTrue(micros > SegmentQueryStatsCollector.bucketUpperBoundMicros(index - 1));
+      }
+      previousIndex = index;
+    }
+    Assert.assertEquals(
+        SegmentQueryStatsCollector.NUM_BUCKETS - 1,
+        SegmentQueryStatsCollector.bucketIndex(Long.MAX_VALUE)
+    );
+  }
+
+  @Test
+  public void testSegmentStatsOrderedByLoad()
+  {
+    for (int i = 0; i < 10; i++) {
+      collector.recordSegmentTime(segment1, Query.TIMESERIES, TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    collector.recordSegmentTime(segment2, Query.TIMESERIES, TimeUnit.MILLISECONDS.toNanos(30));
+    collector.recordSegmentTime(segment2, Query.GROUP_BY, TimeUnit.MILLISECONDS.toNanos(30));
+    collector.recordSegmentTime(segment2, Query.GROUP_BY, TimeUnit.MILLISECONDS.toNanos(50));
+    collector.recordSegmentTime(segment3, Query.TIMESERIES, TimeUnit.MILLISECONDS.toNanos(5));
+
+    final List<SegmentQueryStats> stats = collector.getSegmentQueryStats("foo");
+    Assert.assertEquals(3, stats.size());
+
+    Assert.assertEquals(segment1.toString(), stats.get(0).getSegmentId());
+    Assert.assertEquals(Query.TIMESERIES, stats.get(0).getQueryType());
+    Assert.assertEquals(10, stats.get(0).getQueryCount());
+    Assert.assertEquals(100, stats.get(0).getQueryTimeMs());
+    Assert.assertEquals(10, stats.get(0).getAvgQueryTimeMs(), 1e-9);
+
+    Assert.assertEquals(segment2.toString(), stats.get(1).getSegmentId());
+    Assert.assertEquals(Query.GROUP_BY, stats.get(1).getQueryType());
+    Assert.assertEquals(2, stats.get(1).getQueryCount());
+    Assert.assertEquals(40, stats.get(1).getAvgQueryTimeMs(), 1e-9);
+
+    Assert.assertEquals(4, collector.getSegmentQueryStats(null).size());
+  }
+
+  @Test
+  public void testDecay()
+  {
+    collector.recordSegmentTime(segment1, Query.TIMESERIES, TimeUnit.MILLISECONDS.toNanos(10));
+    final double initialRate = collector.getSegmentQueryStats(null).get(0).getQueriesPerMinute();
+    Assert.assertEquals(Math.log(2) / 60, initialRate, 1e-9);
+
+    clock.addAndGet(HALF_LIFE_MILLIS);
+    Assert.assertEquals(initialRate / 2, collector.getSegmentQueryStats(null).get(0).getQueriesPerMinute(), 1e-9);
+
+    // Lifetime totals do not decay.
+    Assert.assertEquals(1, collector.getSegmentQueryStats(null).get(0).getQueryCount());
+
+    // Idle segments are eventually pruned.
+    clock.addAndGet(10 * HALF_LIFE_MILLIS);
+    Assert.assertTrue(collector.getSegmentQueryStats(null).isEmpty());
+  }
+
+  @Test
+  public void testDecayAcrossLandmarkMoves()
+  {
+    for (int i = 0; i < 100; i++) {
+      collector.recordSegmentTime(segment1, Query.TIMESERIES, TimeUnit.MILLISECONDS.toNanos(10));
+      clock.addAndGet(HALF_LIFE_MILLIS);
+    }
+    // A steady rate of one query per half-life converges to 1 / (1 - 1/2) = 2 decayed queries at each query.
+    collector.recordSegmentTime(segment1, Query.TIMESERIES, TimeUnit.MILLISECONDS.toNanos(10));
+    final SegmentQueryStats stats = collector.getSegmentQueryStats(null).get(0);
+    Assert.assertEquals(2 * Math.log(2) / 60, stats.getQueriesPerMinute(), 1e-9);
+    Assert.assertEquals(10, stats.getAvgQueryTimeMs(), 1e-9);
+    Assert.assertEquals(101, stats.getQueryCount());
+  }
+
+  @Test
+  public void testDataSourceStats()
+  {
+    for (int i = 1; i <= 100; i++) {
+      collector.recordSegmentTime(i % 2 == 0 ? segment1 : segment2, Query.TOPN, TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    collector.recordSegmentTime(segment3, Query.TOPN, TimeUnit.MILLISECONDS.toNanos(1));
+
+    final List<DataSourceQueryStats> stats = collector.getDataSourceQueryStats();
+    Assert.assertEquals(2, stats.size());
+    final DataSourceQueryStats fooStats = stats.get(0);
+    Assert.assertEquals("foo", fooStats.getDataSource());
+    Assert.assertEquals(Query.TOPN, fooStats.getQueryType());
+    Assert.assertEquals(100, fooStats.getQueryCount());
+    Assert.assertEquals(5050, fooStats.getQueryTimeMs());
+    Assert.assertEquals(50.5, fooStats.getAvgQueryTimeMs(), 1e-9);
+
+    // Percentiles are bucket upper bounds, which are within 25% of the actual value.
+    Assert.assertEquals(50, fooStats.getP50QueryTimeMs(), 50 * 0.25);
+    Assert.assertEquals(90, fooStats.getP90QueryTimeMs(), 90 * 0.25);
+    Assert.assertEquals(99, fooStats.getP99QueryTimeMs(), 99 * 0.25);
+    Assert.assertTrue(fooStats.getP50QueryTimeMs() <= fooStats.getP90QueryTimeMs());
+    Assert.assertTrue(fooStats.getP90QueryTimeMs() <= fooStats.getP99QueryTimeMs());
+  }
+
+  @Test
+  public void testDisabled()
+  {
+    final SegmentQueryStatsCollector disabled = new SegmentQueryStatsCollector(
+        new SegmentQueryStatsConfig()
+        {
+          @Override
+          public boolean isEnabled()
+          {
+            return false;
+          }
+        }
+    );
+    Assert.assertFalse(disabled.isEnabled());
+    disabled.recordSegmentTime(segment1, Query.TIMESERIES, 1);
+    Assert.assertTrue(disabled.getSegmentQueryStats(null).isEmpty());
+    Assert.assertTrue(disabled.getDataSourceQueryStats().isEmpty());
+  }
+}
@@ -101,6 +101,7 @@ public class ServerManagerTest
   private CountDownLatch queryNotifyLatch;
   private ExecutorService serverManagerExec;
   private SegmentManager segmentManager;
+  private SegmentQueryStatsCollector segmentQueryStatsCollector;
 
   @Before
   public void setUp()
@@ -143,6 +144,7 @@ public class ServerManagerTest
           }
         }
     );
+    segmentQueryStatsCollector = new SegmentQueryStatsCollector(new SegmentQueryStatsConfig());
     serverManager = new ServerManager(
         new QueryRunnerFactoryConglomerate()
         {
@@ -159,7 +161,8 @@ public class ServerManagerTest
         new LocalCacheProvider().get(),
         new CacheConfig(),
         segmentManager,
-        new ServerConfig()
+        new ServerConfig(),
+        segmentQueryStatsCollector
     );
 
     loadQueryable("test", "1", Intervals.of("P1d/2011-04-01"));
@@ -202,6 +205,31 @@ public class ServerManagerTest
     waitForTestVerificationAndCleanup(future);
   }
 
+  @Test
+  public void testSegmentQueryStats()
+  {
+    Future future = assertQueryable(
+        Granularities.DAY,
+        "test", Intervals.of("P2d/2011-04-02"),
+        ImmutableList.of(
+            new Pair<String, Interval>("1", Intervals.of("P1d/2011-04-01")),
+            new Pair<String, Interval>("2", Intervals.of("P1d/2011-04-02"))
+        )
+    );
+    waitForTestVerificationAndCleanup(future);
+
+    // Test segments have dummy ids, with the version as datasource.
+    final List<SegmentQueryStats> segmentStats = segmentQueryStatsCollector.getSegmentQueryStats(null);
+    Assert.assertEquals(2, segmentStats.size());
+    for (SegmentQueryStats stats : segmentStats) {
+      Assert.assertEquals(Query.SEARCH, stats.getQueryType());
+      Assert.assertEquals(1, stats.getQueryCount());
+    }
+    Assert.assertEquals(1, segmentQueryStatsCollector.getSegmentQueryStats("1").size());
+    Assert.assertEquals(1, segmentQueryStatsCollector.getSegmentQueryStats("2").size());
+    Assert.assertEquals(2, segmentQueryStatsCollector.getDataSourceQueryStats().size());
+  }
+
   @Test
   public void testDelete1()
   {
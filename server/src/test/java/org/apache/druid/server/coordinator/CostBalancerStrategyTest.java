@@ -193,6 +193,62 @@ public class CostBalancerStrategyTest
         segmentCost, 1e-6);
   }
 
+  @Test
+  public void testComputeCostMatchesJointSegmentsCost()
+  {
+    final DateTime referenceTime = DateTimes.of("2014-01-01T00:00:00");
+    final List<DataSegment> segments = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      final String dataSource = i % 3 == 0 ? "DUMMY" : "OTHER";
+      final DateTime start = referenceTime.plusHours((i * 7) % 100 - 50);
+      segments.add(getSegment(i, dataSource, new Interval(start, start.plusHours(1 + i % 24))));
+    }
+    final Map<String, ImmutableDruidDataSource> dataSources = segments
+        .stream()
+        .collect(Collectors.groupingBy(DataSegment::getDataSource))
+        .entrySet()
+        .stream()
+        .collect(Collectors.toMap(
+            Map.Entry::getKey,
+            e -> new ImmutableDruidDataSource(e.getKey(), Collections.emptyMap(), e.getValue())
+        ));
+    final ServerHolder serverHolder = new ServerHolder(
+        new ImmutableDruidServer(
+            new DruidServerMetadata("server", "localhost", null, 10000000L, ServerType.HISTORICAL, "hot", 1),
+            3000L,
+            ImmutableMap.copyOf(dataSources),
+            segments.size()
+        ),
+        new LoadQueuePeonTester()
+    );
+    final CostBalancerStrategy strategy = new CostBalancerStrategy(
+        MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(1))
+    );
+
+    final DataSegment notServedSegment = getSegment(
+        100,
+        "DUMMY",
+        new Interval(referenceTime, referenceTime.plusHours(3))
+    );
+    final double expectedCost = CostBalancerStrategy.computeJointSegmentsCost(notServedSegment, segments);
+    Assert.assertEquals(
+        expectedCost,
+        strategy.computeCost(notServedSegment, serverHolder, true),
+        expectedCost * 1e-9
+    );
+
+    final DataSegment servedSegment = segments.get(3);
+    final double expectedServedCost = CostBalancerStrategy.computeJointSegmentsCost(
+        servedSegment,
+        segments.stream().filter(segment -> !segment.equals(servedSegment)).collect(Collectors.toList())
+    );
+    Assert.assertEquals(
+        expectedServedCost,
+        strategy.computeCost(servedSegment, serverHolder, true),
+        expectedServedCost * 1e-9
+    );
+  }
+
   @Test
   public void testIntervalCost()
   {
@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
 import org.apache.druid.client.DataSourcesSnapshot;
 import org.apache.druid.client.DruidServer;
 import org.apache.druid.java.util.common.DateTimes;
@@ -37,12 +38,15 @@ import org.apache.druid.segment.IndexIO;
 import org.apache.druid.server.coordination.ServerType;
 import org.apache.druid.server.coordinator.helper.DruidCoordinatorRuleRunner;
 import org.apache.druid.server.coordinator.rules.ForeverLoadRule;
+import org.apache.druid.server.coordinator.rules.ForeverQueryLoadBasedLoadRule;
 import org.apache.druid.server.coordinator.rules.IntervalDropRule;
 import org.apache.druid.server.coordinator.rules.IntervalLoadRule;
 import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.SegmentId;
 import org.apache.druid.timeline.partition.NoneShardSpec;
 import org.easymock.EasyMock;
 import org.joda.time.DateTime;
+import org.joda.time.Duration;
 import org.joda.time.Interval;
 import org.junit.After;
 import org.junit.Assert;
@@ -57,6 +61,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -1406,6 +1411,163 @@ public class DruidCoordinatorRuleRunnerTest
     exec.shutdown();
   }
 
+  @Test
+  public void testIncrementalRunSkipsSatisfiedSegments()
+  {
+    mockCoordinator();
+    mockEmptyPeon();
+
+    final ForeverLoadRule rule = new ForeverLoadRule(ImmutableMap.of("normal", 1));
+    EasyMock.expect(databaseRuleManager.getRulesWithDefault(EasyMock.anyObject()))
+            .andReturn(Collections.singletonList(rule))
+            .atLeastOnce();
+    EasyMock.expect(databaseRuleManager.getAllRules())
+            .andReturn(ImmutableMap.of("test", Collections.singletonList(rule)))
+            .anyTimes();
+    EasyMock.replay(databaseRuleManager);
+
+    DruidServer normServer = new DruidServer("serverNorm", "hostNorm", null, 1000, ServerType.HISTORICAL, "normal", 0);
+    for (DataSegment availableSegment : availableSegments) {
+      normServer.addDataSegment(availableSegment);
+    }
+    DruidCluster druidCluster = new DruidCluster(
+        null,
+        ImmutableMap.of(
+            "normal",
+            Stream.of(new ServerHolder(normServer.toImmutableDruidServer(), mockPeon))
+                  .collect(Collectors.toCollection(() -> new TreeSet<>(Collections.reverseOrder())))
+        )
+    );
+
+    ListeningExecutorService exec = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(1));
+    BalancerStrategy balancerStrategy = new CostBalancerStrategyFactory().createBalancerStrategy(exec);
+    // A new Builder for each run, so that the CoordinatorStats of different runs are not accumulated.
+    Supplier<DruidCoordinatorRuntimeParams.Builder> paramsBuilder =
+        () -> new DruidCoordinatorRuntimeParams.Builder()
+            .withDruidCluster(druidCluster)
+            .withAvailableSegmentsInTest(availableSegments)
+            .withDatabaseRuleManager(databaseRuleManager)
+            .withSegmentReplicantLookup(SegmentReplicantLookup.make(druidCluster))
+            .withBalancerStrategy(balancerStrategy)
+            .withBalancerReferenceTimestamp(DateTimes.of("2013-01-01"));
+
+    SegmentReplicaChangeTracker changeTracker = new SegmentReplicaChangeTracker();
+    changeTracker.start();
+    ruleRunner = new DruidCoordinatorRuleRunner(
+        new ReplicationThrottler(24, 1),
+        coordinator,
+        changeTracker,
+        Duration.standardHours(1)
+    );
+
+    // The first run evaluates all segments.
+    CoordinatorStats stats = ruleRunner.run(paramsBuilder.get().build()).getCoordinatorStats();
+    Assert.assertEquals(24L, stats.getGlobalStat("ruleEvaluatedCount"));
+    Assert.assertEquals(0L, stats.getGlobalStat("ruleSkippedCount"));
+
+    // Nothing changed, all segments are already satisfied.
+    stats = ruleRunner.run(paramsBuilder.get().build()).getCoordinatorStats();
+    Assert.assertEquals(0L, stats.getGlobalStat("ruleEvaluatedCount"));
+    Assert.assertEquals(24L, stats.getGlobalStat("ruleSkippedCount"));
+
+    // Only the segment loaded or dropped by a server is evaluated.
+    changeTracker.markSegmentChanged(availableSegments.get(0).getId());
+    stats = ruleRunner.run(paramsBuilder.get().build()).getCoordinatorStats();
+    Assert.assertEquals(1L, stats.getGlobalStat("ruleEvaluatedCount"));
+    Assert.assertEquals(23L, stats.getGlobalStat("ruleSkippedCount"));
+
+    // All segments are evaluated when a server disappears.
+    changeTracker.markServerRemoved();
+    stats = ruleRunner.run(paramsBuilder.get().build()).getCoordinatorStats();
+    Assert.assertEquals(24L, stats.getGlobalStat("ruleEvaluatedCount"));
+
+    // All segments are evaluated when the dynamic configuration changes.
+    stats = ruleRunner.run(
+        paramsBuilder.get()
+                     .withDynamicConfigs(CoordinatorDynamicConfig.builder().withMaxSegmentsToMove(1).build())
+                     .build()
+    ).getCoordinatorStats();
+    Assert.assertEquals(24L, stats.getGlobalStat("ruleEvaluatedCount"));
+
+    exec.shutdown();
+  }
+
+  @Test
+  public void testIncrementalRunEvaluatesSatisfiedSegmentsWithQueryLoad()
+  {
+    mockCoordinator();
+    mockEmptyPeon();
+
+    final ForeverQueryLoadBasedLoadRule rule = new ForeverQueryLoadBasedLoadRule(
+        ImmutableMap.of("normal", 1),
+        ImmutableMap.of("normal", 2),
+        60.0
+    );
+    EasyMock.expect(databaseRuleManager.getRulesWithDefault(EasyMock.anyObject()))
+            .andReturn(Collections.singletonList(rule))
+            .atLeastOnce();
+    EasyMock.expect(databaseRuleManager.getAllRules())
+            .andReturn(ImmutableMap.of("test", Collections.singletonList(rule)))
+            .anyTimes();
+    EasyMock.replay(databaseRuleManager);
+
+    DruidServer normServer = new DruidServer("serverNorm", "hostNorm", null, 1000, ServerType.HISTORICAL, "normal", 0);
+    for (DataSegment availableSegment : availableSegments) {
+      normServer.addDataSegment(availableSegment);
+    }
+    DruidCluster druidCluster = new DruidCluster(
+        null,
+        ImmutableMap.of(
+            "normal",
+            Stream.of(new ServerHolder(normServer.toImmutableDruidServer(), mockPeon))
+                  .collect(Collectors.toCollection(() -> new TreeSet<>(Collections.reverseOrder())))
+        )
+    );
+
+    ListeningExecutorService exec = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(1));
+    BalancerStrategy balancerStrategy = new CostBalancerStrategyFactory().createBalancerStrategy(exec);
+    Supplier<DruidCoordinatorRuntimeParams.Builder> paramsBuilder =
+        () -> new DruidCoordinatorRuntimeParams.Builder()
+            .withDruidCluster(druidCluster)
+            .withAvailableSegmentsInTest(availableSegments)
+            .withDatabaseRuleManager(databaseRuleManager)
+            .withSegmentReplicantLookup(SegmentReplicantLookup.make(druidCluster))
+            .withBalancerStrategy(balancerStrategy)
+            .withBalancerReferenceTimestamp(DateTimes.of("2013-01-01"));
+
+    SegmentReplicaChangeTracker changeTracker = new SegmentReplicaChangeTracker();
+    changeTracker.start();
+    ruleRunner = new DruidCoordinatorRuleRunner(
+        new ReplicationThrottler(24, 1),
+        coordinator,
+        changeTracker,
+        Duration.standardHours(1)
+    );
+
+    // All segments are satisfied after the first run, since none of them has a query load.
+    CoordinatorStats stats = ruleRunner.run(paramsBuilder.get().build()).getCoordinatorStats();
+    Assert.assertEquals(24L, stats.getGlobalStat("ruleEvaluatedCount"));
+    stats = ruleRunner.run(paramsBuilder.get().build()).getCoordinatorStats();
+    Assert.assertEquals(0L, stats.getGlobalStat("ruleEvaluatedCount"));
+
+    // A query load appears on a satisfied segment, which may need more replicants now.
+    final Object2DoubleOpenHashMap<SegmentId> segmentQueryLoad = new Object2DoubleOpenHashMap<>();
+    segmentQueryLoad.put(availableSegments.get(0).getId(), 120.0);
+    stats = ruleRunner.run(paramsBuilder.get().withSegmentQueryLoad(segmentQueryLoad).build()).getCoordinatorStats();
+    Assert.assertEquals(1L, stats.getGlobalStat("ruleEvaluatedCount"));
+    Assert.assertEquals(23L, stats.getGlobalStat("ruleSkippedCount"));
+
+    // The segment is evaluated as long as it has a query load.
+    stats = ruleRunner.run(paramsBuilder.get().withSegmentQueryLoad(segmentQueryLoad).build()).getCoordinatorStats();
+    Assert.assertEquals(1L, stats.getGlobalStat("ruleEvaluatedCount"));
+
+    // Once the query load is gone, the segment is evaluated until it is satisfied again.
+    stats = ruleRunner.run(paramsBuilder.get().build()).getCoordinatorStats();
+    Assert.assertEquals(1L, stats.getGlobalStat("ruleEvaluatedCount"));
+
+    exec.shutdown();
+  }
+
   private void mockCoordinator()
   {
     EasyMock.expect(coordinator.getDynamicConfigs()).andReturn(createCoordinatorDynamicConfig()).anyTimes();
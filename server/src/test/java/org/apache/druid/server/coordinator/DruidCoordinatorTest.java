@@ -213,7 +213,8 @@ public class DruidCoordinatorTest extends CuratorTestBase
         null,
         new CostBalancerStrategyFactory(),
         EasyMock.createNiceMock(LookupCoordinatorManager.class),
-        new TestDruidLeaderSelector()
+        new TestDruidLeaderSelector(),
+        null
     );
   }
 
@@ -318,6 +319,8 @@ public class DruidCoordinatorTest extends CuratorTestBase
     Rule foreverLoadRule = new ForeverLoadRule(ImmutableMap.of(tier, 2));
     EasyMock.expect(metadataRuleManager.getRulesWithDefault(EasyMock.anyString()))
             .andReturn(ImmutableList.of(foreverLoadRule)).atLeastOnce();
+    EasyMock.expect(metadataRuleManager.getAllRules())
+            .andReturn(ImmutableMap.of(dataSource, ImmutableList.of(foreverLoadRule))).anyTimes();
 
     metadataRuleManager.stop();
     EasyMock.expectLastCall().once();
@@ -354,6 +357,10 @@ public class DruidCoordinatorTest extends CuratorTestBase
         ImmutableList.of(druidServer)
     ).atLeastOnce();
     EasyMock.expect(serverInventoryView.isStarted()).andReturn(true).anyTimes();
+    serverInventoryView.registerSegmentCallback(EasyMock.anyObject(), EasyMock.anyObject());
+    EasyMock.expectLastCall().anyTimes();
+    serverInventoryView.registerServerRemovedCallback(EasyMock.anyObject(), EasyMock.anyObject());
+    EasyMock.expectLastCall().anyTimes();
     EasyMock.replay(serverInventoryView);
 
     coordinator.start();
@@ -470,11 +477,17 @@ public class DruidCoordinatorTest extends CuratorTestBase
 
     EasyMock.expect(metadataRuleManager.getRulesWithDefault(EasyMock.anyString()))
             .andReturn(ImmutableList.of(hotTier, coldTier)).atLeastOnce();
+    EasyMock.expect(metadataRuleManager.getAllRules())
+            .andReturn(ImmutableMap.of(dataSource, ImmutableList.of(hotTier, coldTier))).anyTimes();
 
     EasyMock.expect(serverInventoryView.getInventory())
             .andReturn(ImmutableList.of(hotServer, coldServer))
             .atLeastOnce();
     EasyMock.expect(serverInventoryView.isStarted()).andReturn(true).anyTimes();
+    serverInventoryView.registerSegmentCallback(EasyMock.anyObject(), EasyMock.anyObject());
+    EasyMock.expectLastCall().anyTimes();
+    serverInventoryView.registerServerRemovedCallback(EasyMock.anyObject(), EasyMock.anyObject());
+    EasyMock.expectLastCall().anyTimes();
 
     EasyMock.replay(metadataRuleManager, serverInventoryView);
 
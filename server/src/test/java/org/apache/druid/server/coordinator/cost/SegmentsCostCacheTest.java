@@ -34,6 +34,8 @@ import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class SegmentsCostCacheTest
@@ -56,6 +58,24 @@ public class SegmentsCostCacheTest
     );
   }
 
+  @Test
+  public void reuseBuiltCacheTest()
+  {
+    SegmentsCostCache.Builder cacheBuilder = SegmentsCostCache.builder();
+    DataSegment segment = createSegment(DATA_SOURCE, shifted1HInterval(REFERENCE_TIME, 0), 100);
+    cacheBuilder.addSegment(segment);
+    SegmentsCostCache cache = cacheBuilder.build();
+    assertSame(cache, cacheBuilder.build());
+
+    cacheBuilder.addSegment(createSegment(DATA_SOURCE, shifted1HInterval(REFERENCE_TIME, 2), 100));
+    SegmentsCostCache updatedCache = cacheBuilder.build();
+    assertNotSame(cache, updatedCache);
+    assertTrue(updatedCache.cost(segment) > cache.cost(segment));
+
+    cacheBuilder.removeSegment(segment);
+    assertNotSame(updatedCache, cacheBuilder.build());
+  }
+
   @Test
   public void notInCalculationIntervalCostTest()
   {
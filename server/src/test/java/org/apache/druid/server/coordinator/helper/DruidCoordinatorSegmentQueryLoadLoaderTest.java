@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordinator.helper;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import org.apache.druid.client.DruidServer;
+import org.apache.druid.client.ImmutableDruidServer;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.metadata.MetadataRuleManager;
+import org.apache.druid.server.coordination.SegmentQueryStats;
+import org.apache.druid.server.coordination.SegmentQueryStatsClient;
+import org.apache.druid.server.coordination.ServerType;
+import org.apache.druid.server.coordinator.DruidCluster;
+import org.apache.druid.server.coordinator.DruidCoordinatorRuntimeParams;
+import org.apache.druid.server.coordinator.LoadQueuePeonTester;
+import org.apache.druid.server.coordinator.ServerHolder;
+import org.apache.druid.server.coordinator.rules.ForeverLoadRule;
+import org.apache.druid.server.coordinator.rules.ForeverQueryLoadBasedLoadRule;
+import org.apache.druid.server.coordinator.rules.Rule;
+import org.apache.druid.timeline.SegmentId;
+import org.easymock.EasyMock;
+import org.joda.time.Duration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class DruidCoordinatorSegmentQueryLoadLoaderTest
+{
+  private static final SegmentId SEGMENT_1 = SegmentId.of("test", Intervals.of("2019-01-01/2019-01-02"), "v1", 0);
+  private static final SegmentId SEGMENT_2 = SegmentId.of("test", Intervals.of("2019-01-02/2019-01-03"), "v1", 0);
+
+  private final ImmutableDruidServer server1 = createServer("host1");
+  private final ImmutableDruidServer server2 = createServer("host2");
+  private final ImmutableDruidServer server3 = createServer("host3");
+
+  @Test
+  public void testSumsQueryLoadOfAllServers()
+  {
+    final SegmentQueryStatsClient client = EasyMock.createMock(SegmentQueryStatsClient.class);
+    EasyMock.expect(client.fetchSegmentQueryStats(server1.getURL()))
+            .andReturn(Futures.immediateFuture(ImmutableList.of(createStats(SEGMENT_1, 10), createStats(SEGMENT_2, 1))));
+    EasyMock.expect(client.fetchSegmentQueryStats(server2.getURL()))
+            .andReturn(Futures.immediateFuture(ImmutableList.of(createStats(SEGMENT_1, 5))));
+    EasyMock.expect(client.fetchSegmentQueryStats(server3.getURL()))
+            .andReturn(Futures.immediateFailedFuture(new ISE("server down")));
+    EasyMock.replay(client);
+
+    final DruidCoordinatorRuntimeParams params = new DruidCoordinatorSegmentQueryLoadLoader(
+        client,
+        Duration.standardSeconds(10)
+    ).run(createParams(new ForeverQueryLoadBasedLoadRule(null, null, null)));
+
+    Assert.assertEquals(2, params.getSegmentQueryLoad().size());
+    Assert.assertEquals(15, params.getSegmentQueryLoad().getDouble(SEGMENT_1), 0);
+    Assert.assertEquals(1, params.getSegmentQueryLoad().getDouble(SEGMENT_2), 0);
+    EasyMock.verify(client);
+  }
+
+  @Test
+  public void testIgnoresServersTimingOut()
+  {
+    final SettableFuture<List<SegmentQueryStats>> neverCompleting = SettableFuture.create();
+    final SegmentQueryStatsClient client = EasyMock.createMock(SegmentQueryStatsClient.class);
+    EasyMock.expect(client.fetchSegmentQueryStats(server1.getURL())).andReturn(neverCompleting);
+    EasyMock.expect(client.fetchSegmentQueryStats(server2.getURL()))
+            .andReturn(Futures.immediateFuture(ImmutableList.of(createStats(SEGMENT_1, 5))));
+    EasyMock.expect(client.fetchSegmentQueryStats(server3.getURL()))
+            .andReturn(Futures.immediateFuture(ImmutableList.of()));
+    EasyMock.replay(client);
+
+    final DruidCoordinatorRuntimeParams params = new DruidCoordinatorSegmentQueryLoadLoader(
+        client,
+        Duration.millis(10)
+    ).run(createParams(new ForeverQueryLoadBasedLoadRule(null, null, null)));
+
+    Assert.assertEquals(5, params.getSegmentQueryLoad().getDouble(SEGMENT_1), 0);
+    Assert.assertTrue(neverCompleting.isCancelled());
+    EasyMock.verify(client);
+  }
+
+  @Test
+  public void testSkipsWithoutQueryLoadBasedRules()
+  {
+    final SegmentQueryStatsClient client = EasyMock.createMock(SegmentQueryStatsClient.class);
+    EasyMock.replay(client);
+
+    final DruidCoordinatorRuntimeParams params = createParams(new ForeverLoadRule(null));
+    Assert.assertSame(params, new DruidCoordinatorSegmentQueryLoadLoader(client, Duration.millis(10)).run(params));
+    EasyMock.verify(client);
+  }
+
+  private DruidCoordinatorRuntimeParams createParams(Rule rule)
+  {
+    final MetadataRuleManager ruleManager = EasyMock.createMock(MetadataRuleManager.class);
+    EasyMock.expect(ruleManager.getAllRules())
+            .andReturn(ImmutableMap.of("test", ImmutableList.of(rule)))
+            .anyTimes();
+    EasyMock.replay(ruleManager);
+
+    final DruidCluster cluster = new DruidCluster(
+        null,
+        ImmutableMap.of(
+            DruidServer.DEFAULT_TIER,
+            Stream.of(server1, server2, server3)
+                  .map(server -> new ServerHolder(server, new LoadQueuePeonTester()))
+                  .collect(Collectors.toCollection(() -> new TreeSet<>(Collections.reverseOrder())))
+        )
+    );
+    return DruidCoordinatorRuntimeParams.newBuilder()
+                                        .withDruidCluster(cluster)
+                                        .withDatabaseRuleManager(ruleManager)
+                                        .build();
+  }
+
+  private static ImmutableDruidServer createServer(String host)
+  {
+    return new DruidServer(host, host, null, 1000, ServerType.HISTORICAL, DruidServer.DEFAULT_TIER, 0)
+        .toImmutableDruidServer();
+  }
+
+  private static SegmentQueryStats createStats(SegmentId segmentId, double queriesPerMinute)
+  {
+    return new SegmentQueryStats(
+        segmentId.getDataSource(),
+        segmentId.toString(),
+        "timeseries",
+        100,
+        1000,
+        queriesPerMinute,
+        10
+    );
+  }
+}
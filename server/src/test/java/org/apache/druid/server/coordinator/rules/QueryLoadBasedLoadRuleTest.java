@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.server.coordinator.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMaps;
+import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
+import org.apache.druid.client.DruidServer;
+import org.apache.druid.jackson.DefaultObjectMapper;
+import org.apache.druid.java.util.common.DateTimes;
+import org.apache.druid.java.util.common.IAE;
+import org.apache.druid.java.util.common.Intervals;
+import org.apache.druid.server.coordination.ServerType;
+import org.apache.druid.server.coordinator.CoordinatorStats;
+import org.apache.druid.server.coordinator.CostBalancerStrategyFactory;
+import org.apache.druid.server.coordinator.DruidCluster;
+import org.apache.druid.server.coordinator.DruidCoordinatorRuntimeParams;
+import org.apache.druid.server.coordinator.LoadQueuePeonTester;
+import org.apache.druid.server.coordinator.ReplicationThrottler;
+import org.apache.druid.server.coordinator.SegmentReplicantLookup;
+import org.apache.druid.server.coordinator.ServerHolder;
+import org.apache.druid.timeline.DataSegment;
+import org.apache.druid.timeline.SegmentId;
+import org.apache.druid.timeline.partition.NoneShardSpec;
+import org.easymock.EasyMock;
+import org.joda.time.Period;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class QueryLoadBasedLoadRuleTest
+{
+  private static final ObjectMapper jsonMapper = new DefaultObjectMapper();
+
+  private static final DataSegment SEGMENT = DataSegment.builder()
+                                                        .dataSource("test")
+                                                        .interval(Intervals.of("2012-01-01/2012-01-02"))
+                                                        .version(DateTimes.nowUtc().toString())
+                                                        .shardSpec(NoneShardSpec.instance())
+                                                        .size(1)
+                                                        .build();
+
+  private ListeningExecutorService exec;
+
+  @Before
+  public void setUp()
+  {
+    exec = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(1));
+  }
+
+  @After
+  public void tearDown()
+  {
+    exec.shutdownNow();
+  }
+
+  @Test
+  public void testSerde() throws Exception
+  {
+    final Rule periodRule = new PeriodQueryLoadBasedLoadRule(
+        new Period("P1D"),
+        false,
+        ImmutableMap.of("hot", 1, DruidServer.DEFAULT_TIER, 2),
+        ImmutableMap.of("hot", 4),
+        30.0
+    );
+    Assert.assertEquals(periodRule, jsonMapper.readValue(jsonMapper.writeValueAsString(periodRule), Rule.class));
+
+    final Rule foreverRule = new ForeverQueryLoadBasedLoadRule(ImmutableMap.of("hot", 1), ImmutableMap.of("hot", 3), null);
+    Assert.assertEquals(foreverRule, jsonMapper.readValue(jsonMapper.writeValueAsString(foreverRule), Rule.class));
+  }
+
+  @Test
+  public void testDefaults() throws Exception
+  {
+    final PeriodQueryLoadBasedLoadRule rule = (PeriodQueryLoadBasedLoadRule) jsonMapper.readValue(
+        "{\"type\":\"loadByPeriodAndQueryLoad\",\"period\":\"P1M\"}",
+        Rule.class
+    );
+    Assert.assertTrue(rule.isIncludeFuture());
+    Assert.assertEquals(
+        ImmutableMap.of(DruidServer.DEFAULT_TIER, DruidServer.DEFAULT_NUM_REPLICANTS),
+        rule.getTieredReplicants()
+    );
+    Assert.assertEquals(rule.getTieredReplicants(), rule.getMaxTieredReplicants());
+    Assert.assertEquals(
+        QueryLoadBasedLoadRule.DEFAULT_QUERIES_PER_MINUTE_PER_REPLICANT,
+        rule.getQueriesPerMinutePerReplicant(),
+        0
+    );
+  }
+
+  @Test(expected = IAE.class)
+  public void testMaxLessThanMin()
+  {
+    new ForeverQueryLoadBasedLoadRule(ImmutableMap.of("hot", 2), ImmutableMap.of("hot", 1), null);
+  }
+
+  @Test(expected = IAE.class)
+  public void testMaxForUnknownTier()
+  {
+    new ForeverQueryLoadBasedLoadRule(ImmutableMap.of("hot", 2), ImmutableMap.of("cold", 3), null);
+  }
+
+  @Test(expected = IAE.class)
+  public void testNonPositiveQueriesPerMinutePerReplicant()
+  {
+    new ForeverQueryLoadBasedLoadRule(null, null, 0.0);
+  }
+
+  @Test
+  public void testTargetReplicants()
+  {
+    final QueryLoadBasedLoadRule rule = new ForeverQueryLoadBasedLoadRule(
+        ImmutableMap.of("hot", 1, "cold", 2),
+        ImmutableMap.of("hot", 5),
+        10.0
+    );
+
+    Assert.assertEquals(
+        ImmutableMap.of("hot", 1, "cold", 2),
+        rule.getTargetReplicants(makeParams(new DruidCluster(), 0), SEGMENT)
+    );
+    Assert.assertEquals(
+        ImmutableMap.of("hot", 1, "cold", 2),
+        rule.getTargetReplicants(makeParams(new DruidCluster(), 9.5), SEGMENT)
+    );
+    Assert.assertEquals(
+        ImmutableMap.of("hot", 3, "cold", 2),
+        rule.getTargetReplicants(makeParams(new DruidCluster(), 25), SEGMENT)
+    );
+    Assert.assertEquals(
+        ImmutableMap.of("hot", 5, "cold", 2),
+        rule.getTargetReplicants(makeParams(new DruidCluster(), 1000), SEGMENT)
+    );
+    Assert.assertEquals(Integer.MAX_VALUE, rule.computeNeededReplicants(1e20));
+  }
+
+  @Test
+  public void testTargetReplicantsOutsideOfCoordinatorRun()
+  {
+    // DruidCoordinator computes under-replication counts from the segment query load of the last run
+    final Object2DoubleOpenHashMap<SegmentId> segmentQueryLoad = new Object2DoubleOpenHashMap<>();
+    segmentQueryLoad.put(SEGMENT.getId(), 25);
+
+    final LoadRule queryLoadBasedRule = new ForeverQueryLoadBasedLoadRule(
+        ImmutableMap.of("hot", 1),
+        ImmutableMap.of("hot", 5),
+        10.0
+    );
+    Assert.assertEquals(ImmutableMap.of("hot", 3), queryLoadBasedRule.getTargetReplicants(segmentQueryLoad, SEGMENT));
+    Assert.assertEquals(
+        ImmutableMap.of("hot", 1),
+        queryLoadBasedRule.getTargetReplicants(Object2DoubleMaps.emptyMap(), SEGMENT)
+    );
+
+    final LoadRule plainRule = new ForeverLoadRule(ImmutableMap.of("hot", 1));
+    Assert.assertEquals(ImmutableMap.of("hot", 1), plainRule.getTargetReplicants(segmentQueryLoad, SEGMENT));
+  }
+
+  @Test
+  public void testLoadsAdditionalReplicantsOfHotSegment()
+  {
+    final ReplicationThrottler throttler = EasyMock.createMock(ReplicationThrottler.class);
+    EasyMock.expect(throttler.canCreateReplicant(EasyMock.anyString())).andReturn(true).anyTimes();
+    throttler.registerReplicantCreation(EasyMock.eq("hot"), EasyMock.eq(SEGMENT.getId()), EasyMock.anyString());
+    EasyMock.expectLastCall().times(2);
+    EasyMock.replay(throttler);
+
+    final DruidCluster druidCluster = new DruidCluster(
+        null,
+        ImmutableMap.of(
+            "hot",
+            IntStream.range(0, 4)
+                     .mapToObj(
+                         i -> new ServerHolder(
+                             new DruidServer("server" + i, "host" + i, null, 1000, ServerType.HISTORICAL, "hot", 0)
+                                 .toImmutableDruidServer(),
+                             new LoadQueuePeonTester()
+                         )
+                     )
+                     .collect(Collectors.toCollection(() -> new TreeSet<>(Collections.reverseOrder())))
+        )
+    );
+
+    final QueryLoadBasedLoadRule rule = new ForeverQueryLoadBasedLoadRule(
+        ImmutableMap.of("hot", 1),
+        ImmutableMap.of("hot", 4),
+        10.0
+    );
+    final CoordinatorStats stats = rule.run(
+        null,
+        makeParams(druidCluster, 30).buildFromExisting().withReplicationManager(throttler).build(),
+        SEGMENT
+    );
+
+    Assert.assertEquals(3L, stats.getTieredStat(LoadRule.ASSIGNED_COUNT, "hot"));
+    EasyMock.verify(throttler);
+  }
+
+  private DruidCoordinatorRuntimeParams makeParams(DruidCluster druidCluster, double queriesPerMinute)
+  {
+    final Object2DoubleOpenHashMap<SegmentId> segmentQueryLoad = new Object2DoubleOpenHashMap<>();
+    if (queriesPerMinute > 0) {
+      segmentQueryLoad.put(SEGMENT.getId(), queriesPerMinute);
+    }
+    return DruidCoordinatorRuntimeParams.newBuilder()
+                                        .withDruidCluster(druidCluster)
+                                        .withSegmentReplicantLookup(SegmentReplicantLookup.make(druidCluster))
+                                        .withBalancerStrategy(new CostBalancerStrategyFactory().createBalancerStrategy(exec))
+                                        .withBalancerReferenceTimestamp(DateTimes.of("2013-01-01"))
+                                        .withSegmentQueryLoad(segmentQueryLoad)
+                                        .withAvailableSegmentsInTest(SEGMENT)
+                                        .build();
+  }
+}
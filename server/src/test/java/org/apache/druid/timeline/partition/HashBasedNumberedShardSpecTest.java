@@ -68,6 +68,8 @@ public class HashBasedNumberedShardSpecTest
     );
     Assert.assertEquals(1, spec.getPartitionNum());
     Assert.assertEquals(2, ((HashBasedNumberedShardSpec) spec).getPartitions());
+    Assert.assertEquals(1, ((HashBasedNumberedShardSpec) spec).getBucketId());
+    Assert.assertEquals(2, ((HashBasedNumberedShardSpec) spec).getNumBuckets());
 
     final ShardSpec specWithPartitionDimensions = ServerTestHelper.MAPPER.readValue(
         "{\"type\": \"hashed\", \"partitions\": 2, \"partitionNum\": 1, \"partitionDimensions\":[\"visitor_id\"]}",
@@ -78,6 +80,43 @@ public class HashBasedNumberedShardSpecTest
     Assert.assertEquals(ImmutableList.of("visitor_id"), ((HashBasedNumberedShardSpec) specWithPartitionDimensions).getPartitionDimensions());
   }
 
+  @Test
+  public void testSerdeRenumbered() throws Exception
+  {
+    final HashBasedNumberedShardSpec renumbered = new HashBasedNumberedShardSpec(
+        3,
+        4,
+        ImmutableList.of("visitor_id"),
+        ServerTestHelper.MAPPER
+    ).withPartitionNum(1, 2);
+    final ShardSpec spec = ServerTestHelper.MAPPER.readValue(
+        ServerTestHelper.MAPPER.writeValueAsBytes(renumbered),
+        ShardSpec.class
+    );
+    Assert.assertEquals(1, spec.getPartitionNum());
+    Assert.assertEquals(2, ((HashBasedNumberedShardSpec) spec).getPartitions());
+    Assert.assertEquals(3, ((HashBasedNumberedShardSpec) spec).getBucketId());
+    Assert.assertEquals(4, ((HashBasedNumberedShardSpec) spec).getNumBuckets());
+    Assert.assertEquals(ImmutableList.of("visitor_id"), ((HashBasedNumberedShardSpec) spec).getPartitionDimensions());
+  }
+
+  @Test
+  public void testIsInChunkRenumbered()
+  {
+    final List<ShardSpec> specs = new ArrayList<>();
+    // Bucket 1 of 4 has no rows, so the remaining buckets are renumbered to partitions 0, 1 and 2.
+    specs.add(new HashOverridenShardSpec(0, 3, 0, 4));
+    specs.add(new HashOverridenShardSpec(1, 3, 2, 4));
+    specs.add(new HashOverridenShardSpec(2, 3, 3, 4));
+
+    Assert.assertTrue(specs.get(0).isInChunk(0, new HashInputRow(4)));
+    Assert.assertTrue(specs.get(1).isInChunk(0, new HashInputRow(6)));
+    Assert.assertTrue(specs.get(2).isInChunk(0, new HashInputRow(7)));
+    for (ShardSpec spec : specs) {
+      Assert.assertFalse(spec.isInChunk(0, new HashInputRow(5)));
+    }
+  }
+
   @Test
   public void testPartitionChunks()
   {
@@ -195,6 +234,11 @@ public class HashBasedNumberedShardSpecTest
       super(partitionNum, partitions, null, ServerTestHelper.MAPPER);
     }
 
+    public HashOverridenShardSpec(int partitionNum, int partitions, int bucketId, int numBuckets)
+    {
+      super(partitionNum, partitions, bucketId, numBuckets, null, ServerTestHelper.MAPPER);
+    }
+
     @Override
     protected int hash(long timestamp, InputRow inputRow)
     {
@@ -41,8 +41,12 @@ import org.apache.druid.guice.QueryableModule;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.query.QuerySegmentWalker;
 import org.apache.druid.query.lookup.LookupModule;
+import org.apache.druid.segment.virtual.ExpressionColumnCache;
+import org.apache.druid.segment.virtual.ExpressionColumnCacheConfig;
 import org.apache.druid.server.QueryResource;
 import org.apache.druid.server.SegmentManager;
+import org.apache.druid.server.coordination.SegmentQueryStatsCollector;
+import org.apache.druid.server.coordination.SegmentQueryStatsConfig;
 import org.apache.druid.server.coordination.ServerManager;
 import org.apache.druid.server.coordination.ServerType;
 import org.apache.druid.server.coordination.ZkCoordinator;
@@ -85,6 +89,7 @@ public class CliHistorical extends ServerRunnable
           // register Server before binding ZkCoordinator to ensure HTTP endpoints are available immediately
           LifecycleModule.register(binder, Server.class);
           binder.bind(ServerManager.class).in(LazySingleton.class);
+          binder.bind(SegmentQueryStatsCollector.class).in(LazySingleton.class);
           binder.bind(SegmentManager.class).in(LazySingleton.class);
           binder.bind(ZkCoordinator.class).in(ManageLifecycle.class);
           binder.bind(QuerySegmentWalker.class).to(ServerManager.class).in(LazySingleton.class);
@@ -99,9 +104,18 @@ public class CliHistorical extends ServerRunnable
           LifecycleModule.register(binder, ZkCoordinator.class);
 
           JsonConfigProvider.bind(binder, "druid.historical.cache", CacheConfig.class);
+          JsonConfigProvider.bind(binder, "druid.historical.segmentQueryStats", SegmentQueryStatsConfig.class);
           binder.install(new CacheModule());
           MetricsModule.register(binder, CacheMonitor.class);
 
+          JsonConfigProvider.bind(
+              binder,
+              "druid.historical.expressionColumnCache",
+              ExpressionColumnCacheConfig.class
+          );
+          binder.bind(ExpressionColumnCache.class).in(LazySingleton.class);
+          binder.requestStaticInjection(ExpressionColumnCache.class);
+
           bindAnnouncer(
               binder,
               DiscoverySideEffectsProvider.builder(NodeType.HISTORICAL)
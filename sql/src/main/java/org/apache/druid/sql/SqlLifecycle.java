@@ -43,6 +43,7 @@ import org.apache.druid.server.security.AuthenticationResult;
 import org.apache.druid.server.security.AuthorizationUtils;
 import org.apache.druid.server.security.ForbiddenException;
 import org.apache.druid.sql.calcite.planner.DruidPlanner;
+import org.apache.druid.sql.calcite.planner.PlanCache;
 import org.apache.druid.sql.calcite.planner.PlannerContext;
 import org.apache.druid.sql.calcite.planner.PlannerFactory;
 import org.apache.druid.sql.calcite.planner.PlannerResult;
@@ -77,6 +78,8 @@ public class SqlLifecycle
   private final PlannerFactory plannerFactory;
   private final ServiceEmitter emitter;
   private final RequestLogger requestLogger;
+  @Nullable
+  private final PlanCache statementPlanCache;
   private final long startMs;
   private final long startNs;
   private final Object lock = new Object();
@@ -90,11 +93,13 @@ public class SqlLifecycle
   @Nullable private HttpServletRequest req;
   private PlannerContext plannerContext;
   private PlannerResult plannerResult;
+  private long planningTimeNs = -1;
 
   public SqlLifecycle(
       PlannerFactory plannerFactory,
       ServiceEmitter emitter,
       RequestLogger requestLogger,
+      @Nullable PlanCache statementPlanCache,
       long startMs,
       long startNs
   )
@@ -102,6 +107,7 @@ public class SqlLifecycle
     this.plannerFactory = plannerFactory;
     this.emitter = emitter;
     this.requestLogger = requestLogger;
+    this.statementPlanCache = statementPlanCache;
     this.startMs = startMs;
     this.startNs = startNs;
   }
@@ -136,10 +142,16 @@ public class SqlLifecycle
   {
     synchronized (lock) {
       transition(State.INITIALIZED, State.PLANNED);
-      try (DruidPlanner planner = plannerFactory.createPlanner(queryContext, authenticationResult)) {
+      final long planningStartNs = System.nanoTime();
+      try (DruidPlanner planner = plannerFactory.createPlanner(
+          queryContext,
+          authenticationResult,
+          statementPlanCache
+      )) {
         this.plannerContext = planner.getPlannerContext();
         this.plannerResult = planner.plan(sql);
       }
+      planningTimeNs = System.nanoTime() - planningStartNs;
       return plannerContext;
     }
   }
@@ -271,6 +283,24 @@ public class SqlLifecycle
       @Nullable final String remoteAddress,
       final long bytesWritten
   )
+  {
+    emitLogsAndMetrics(e, remoteAddress, bytesWritten, -1);
+  }
+
+  /**
+   * Emit logs and metrics for this query.
+   *
+   * @param e             exception that occurred while processing this query
+   * @param remoteAddress remote address, for logging; or null if unknown
+   * @param bytesWritten  number of bytes written; will become a query/bytes metric if >= 0
+   * @param rowsWritten   number of result rows written; will become a query/rows metric if >= 0
+   */
+  public void emitLogsAndMetrics(
+      @Nullable final Throwable e,
+      @Nullable final String remoteAddress,
+      final long bytesWritten,
+      final long rowsWritten
+  )
   {
     synchronized (lock) {
       if (sql == null) {
@@ -288,25 +318,34 @@ public class SqlLifecycle
       final long queryTimeNs = System.nanoTime() - startNs;
 
       try {
-        ServiceMetricEvent.Builder metricBuilder = ServiceMetricEvent.builder();
-        if (plannerContext != null) {
-          metricBuilder.setDimension("id", plannerContext.getSqlQueryId());
-          metricBuilder.setDimension("nativeQueryIds", plannerContext.getNativeQueryIds().toString());
-        }
-        if (plannerResult != null) {
-          metricBuilder.setDimension("dataSource", plannerResult.datasourceNames().toString());
-        }
+        ServiceMetricEvent.Builder metricBuilder = metricBuilder();
         metricBuilder.setDimension("remoteAddress", StringUtils.nullToEmptyNonDruidDataString(remoteAddress));
         metricBuilder.setDimension("success", String.valueOf(success));
         emitter.emit(metricBuilder.build("sqlQuery/time", TimeUnit.NANOSECONDS.toMillis(queryTimeNs)));
         if (bytesWritten >= 0) {
           emitter.emit(metricBuilder.build("sqlQuery/bytes", bytesWritten));
         }
+        if (rowsWritten >= 0) {
+          emitter.emit(metricBuilder.build("sqlQuery/rows", rowsWritten));
+        }
+        if (plannerResult != null) {
+          metricBuilder.setDimension("planCacheHit", String.valueOf(plannerResult.isFromPlanCache()));
+          emitter.emit(
+              metricBuilder.build("sqlQuery/planningTimeMs", TimeUnit.NANOSECONDS.toMillis(planningTimeNs))
+          );
+        }
 
         final Map<String, Object> statsMap = new LinkedHashMap<>();
         statsMap.put("sqlQuery/time", TimeUnit.NANOSECONDS.toMillis(queryTimeNs));
         statsMap.put("sqlQuery/bytes", bytesWritten);
+        if (rowsWritten >= 0) {
+          statsMap.put("sqlQuery/rows", rowsWritten);
+        }
         statsMap.put("success", success);
+        if (plannerResult != null) {
+          statsMap.put("sqlQuery/planningTimeMs", TimeUnit.NANOSECONDS.toMillis(planningTimeNs));
+          statsMap.put("planCacheHit", plannerResult.isFromPlanCache());
+        }
         statsMap.put("context", queryContext);
         if (plannerContext != null) {
           statsMap.put("identity", plannerContext.getAuthenticationResult().getIdentity());
@@ -337,6 +376,30 @@ public class SqlLifecycle
     }
   }
 
+  /**
+   * Emits a metric about a part of this query, like a JDBC frame, with the same "id" and "dataSource" dimensions as
+   * the metrics emitted by {@link #emitLogsAndMetrics}.
+   */
+  public void emitMetric(final String metric, final Number value)
+  {
+    synchronized (lock) {
+      emitter.emit(metricBuilder().build(metric, value));
+    }
+  }
+
+  private ServiceMetricEvent.Builder metricBuilder()
+  {
+    final ServiceMetricEvent.Builder metricBuilder = ServiceMetricEvent.builder();
+    if (plannerContext != null) {
+      metricBuilder.setDimension("id", plannerContext.getSqlQueryId());
+      metricBuilder.setDimension("nativeQueryIds", plannerContext.getNativeQueryIds().toString());
+    }
+    if (plannerResult != null) {
+      metricBuilder.setDimension("dataSource", plannerResult.datasourceNames().toString());
+    }
+    return metricBuilder;
+  }
+
   private void transition(final State from, final State to)
   {
     if (state != from) {
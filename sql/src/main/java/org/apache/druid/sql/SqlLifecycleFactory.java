@@ -23,8 +23,11 @@ import com.google.inject.Inject;
 import org.apache.druid.guice.LazySingleton;
 import org.apache.druid.java.util.emitter.service.ServiceEmitter;
 import org.apache.druid.server.log.RequestLogger;
+import org.apache.druid.sql.calcite.planner.PlanCache;
 import org.apache.druid.sql.calcite.planner.PlannerFactory;
 
+import javax.annotation.Nullable;
+
 @LazySingleton
 public class SqlLifecycleFactory
 {
@@ -45,11 +48,21 @@ public class SqlLifecycleFactory
   }
 
   public SqlLifecycle factorize()
+  {
+    return factorize(null);
+  }
+
+  /**
+   * Creates a lifecycle whose planner looks plans up in the given statementPlanCache first, and caches the plans it
+   * builds there. Used by statements which run the same query more than once, like JDBC prepared statements.
+   */
+  public SqlLifecycle factorize(@Nullable PlanCache statementPlanCache)
   {
     return new SqlLifecycle(
         plannerFactory,
         emitter,
         requestLogger,
+        statementPlanCache,
         System.currentTimeMillis(),
         System.nanoTime()
     );
@@ -36,6 +36,9 @@ public class AvaticaServerConfig
   @JsonProperty
   public int maxRowsPerFrame = 5000;
 
+  @JsonProperty
+  public int maxPrefetchedFrames = 1;
+
   public int getMaxConnections()
   {
     return maxConnections;
@@ -55,4 +58,9 @@ public class AvaticaServerConfig
   {
     return maxRowsPerFrame;
   }
+
+  public int getMaxPrefetchedFrames()
+  {
+    return maxPrefetchedFrames;
+  }
 }
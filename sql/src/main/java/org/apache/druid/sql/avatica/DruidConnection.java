@@ -25,7 +25,6 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import com.google.errorprone.annotations.concurrent.GuardedBy;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.sql.SqlLifecycleFactory;
@@ -34,12 +33,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Connection tracking for {@link DruidMeta}. Thread-safe.
+ * Connection tracking for {@link DruidMeta}. Thread-safe, without locks: the number of open statements is tracked by
+ * {@link #openStatements}, which is also used to mark the connection as closed.
  */
 public class DruidConnection
 {
@@ -47,77 +45,95 @@ public class DruidConnection
   private static final Set<String> SENSITIVE_CONTEXT_FIELDS = Sets.newHashSet(
       "user", "password"
   );
+  private static final int CLOSED = -1;
 
   private final String connectionId;
   private final int maxStatements;
+  private final int maxPrefetchedFrames;
   private final ImmutableMap<String, Object> context;
   private final AtomicInteger statementCounter = new AtomicInteger();
-  private final AtomicReference<Future<?>> timeoutFuture = new AtomicReference<>();
+  private final ConcurrentMap<Integer, DruidStatement> statements = new ConcurrentHashMap<>();
 
-  // Typically synchronized by connectionLock, except in one case: the onClose function passed
-  // into DruidStatements contained by the map.
-  @GuardedBy("connectionLock")
-  private final ConcurrentMap<Integer, DruidStatement> statements;
-  private final Object connectionLock = new Object();
+  /**
+   * Number of statements reserved in "statements", or {@link #CLOSED} once this connection is closed. May be higher
+   * than the actual number of statements at times, such as when we're reserving space to open a new one.
+   */
+  private final AtomicInteger openStatements = new AtomicInteger();
 
-  @GuardedBy("connectionLock")
-  private boolean open = true;
+  private volatile long lastAccessMillis = System.currentTimeMillis();
 
-  public DruidConnection(final String connectionId, final int maxStatements, final Map<String, Object> context)
+  public DruidConnection(
+      final String connectionId,
+      final int maxStatements,
+      final int maxPrefetchedFrames,
+      final Map<String, Object> context
+  )
   {
     this.connectionId = Preconditions.checkNotNull(connectionId);
     this.maxStatements = maxStatements;
+    this.maxPrefetchedFrames = maxPrefetchedFrames;
     this.context = ImmutableMap.copyOf(context);
-    this.statements = new ConcurrentHashMap<>();
   }
 
   public DruidStatement createStatement(SqlLifecycleFactory sqlLifecycleFactory)
   {
-    final int statementId = statementCounter.incrementAndGet();
-
-    synchronized (connectionLock) {
-      if (statements.containsKey(statementId)) {
-        // Will only happen if statementCounter rolls over before old statements are cleaned up. If this
-        // ever happens then something fishy is going on, because we shouldn't have billions of statements.
-        throw new ISE("Uh oh, too many statements");
+    while (true) {
+      final int numStatements = openStatements.get();
+      if (numStatements == CLOSED) {
+        throw new ISE("Connection[%s] is closed", connectionId);
       }
-
-      if (statements.size() >= maxStatements) {
+      if (numStatements >= maxStatements) {
         throw new ISE("Too many open statements, limit is[%,d]", maxStatements);
       }
+      if (openStatements.compareAndSet(numStatements, numStatements + 1)) {
+        break;
+      }
+    }
+
+    final int statementId = statementCounter.incrementAndGet();
 
-      // remove sensitive fields from the context, only the connection's context needs to have authentication
-      // credentials
-      Map<String, Object> sanitizedContext = Maps.filterEntries(
-          context,
-          e -> !SENSITIVE_CONTEXT_FIELDS.contains(e.getKey())
-      );
-
-      @SuppressWarnings("GuardedBy")
-      final DruidStatement statement = new DruidStatement(
-          connectionId,
-          statementId,
-          ImmutableSortedMap.copyOf(sanitizedContext),
-          sqlLifecycleFactory.factorize(),
-          () -> {
-            // onClose function for the statement
-            log.debug("Connection[%s] closed statement[%s].", connectionId, statementId);
-            // statements will be accessed unsynchronized to avoid deadlock
-            statements.remove(statementId);
+    // remove sensitive fields from the context, only the connection's context needs to have authentication
+    // credentials
+    Map<String, Object> sanitizedContext = Maps.filterEntries(
+        context,
+        e -> !SENSITIVE_CONTEXT_FIELDS.contains(e.getKey())
+    );
+
+    final DruidStatement statement = new DruidStatement(
+        connectionId,
+        statementId,
+        ImmutableSortedMap.copyOf(sanitizedContext),
+        sqlLifecycleFactory,
+        maxPrefetchedFrames,
+        () -> {
+          // onClose function for the statement
+          log.debug("Connection[%s] closed statement[%s].", connectionId, statementId);
+          if (statements.remove(statementId) != null) {
+            releaseStatement();
           }
-      );
+        }
+    );
+
+    if (statements.putIfAbsent(statementId, statement) != null) {
+      // Will only happen if statementCounter rolls over before old statements are cleaned up. If this
+      // ever happens then something fishy is going on, because we shouldn't have billions of statements.
+      releaseStatement();
+      throw new ISE("Uh oh, too many statements");
+    }
 
-      statements.put(statementId, statement);
-      log.debug("Connection[%s] opened statement[%s].", connectionId, statementId);
-      return statement;
+    if (openStatements.get() == CLOSED) {
+      // Closed while we were creating the statement, which close() may or may not have seen.
+      statement.close();
+      throw new ISE("Connection[%s] is closed", connectionId);
     }
+
+    log.debug("Connection[%s] opened statement[%s].", connectionId, statementId);
+    return statement;
   }
 
   public DruidStatement getStatement(final int statementId)
   {
-    synchronized (connectionLock) {
-      return statements.get(statementId);
-    }
+    return statements.get(statementId);
   }
 
   /**
@@ -127,45 +143,57 @@ public class DruidConnection
    */
   public boolean closeIfEmpty()
   {
-    synchronized (connectionLock) {
-      if (statements.isEmpty()) {
-        close();
-        return true;
-      } else {
-        return false;
-      }
+    if (openStatements.compareAndSet(0, CLOSED)) {
+      log.debug("Connection[%s] closed.", connectionId);
+      return true;
+    } else {
+      return false;
     }
   }
 
   public void close()
   {
-    synchronized (connectionLock) {
-      // Copy statements before iterating because statement.close() modifies it.
-      for (DruidStatement statement : ImmutableList.copyOf(statements.values())) {
-        try {
-          statement.close();
-        }
-        catch (Exception e) {
-          log.warn("Connection[%s] failed to close statement[%s]!", connectionId, statement.getStatementId());
-        }
-      }
+    openStatements.set(CLOSED);
 
-      log.debug("Connection[%s] closed.", connectionId);
-      open = false;
+    // Copy statements before iterating because statement.close() modifies it.
+    for (DruidStatement statement : ImmutableList.copyOf(statements.values())) {
+      try {
+        statement.close();
+      }
+      catch (Exception e) {
+        log.warn("Connection[%s] failed to close statement[%s]!", connectionId, statement.getStatementId());
+      }
     }
+
+    log.debug("Connection[%s] closed.", connectionId);
   }
 
-  public DruidConnection sync(final Future<?> newTimeoutFuture)
+  /**
+   * Records an access to this connection, which resets its idle timeout.
+   */
+  public DruidConnection touch()
   {
-    final Future<?> oldFuture = timeoutFuture.getAndSet(newTimeoutFuture);
-    if (oldFuture != null) {
-      oldFuture.cancel(false);
-    }
+    lastAccessMillis = System.currentTimeMillis();
     return this;
   }
 
+  public long getLastAccessMillis()
+  {
+    return lastAccessMillis;
+  }
+
   public Map<String, Object> context()
   {
     return context;
   }
+
+  private void releaseStatement()
+  {
+    while (true) {
+      final int numStatements = openStatements.get();
+      if (numStatements == CLOSED || openStatements.compareAndSet(numStatements, numStatements - 1)) {
+        return;
+      }
+    }
+  }
 }
@@ -154,7 +154,7 @@ public class DruidMeta extends MetaImpl
     if (authenticationResult == null) {
       throw new ForbiddenException("Authentication failed.");
     }
-    statement.signature = druidStatement.prepare(sql, maxRowCount, authenticationResult).getSignature();
+    statement.signature = druidStatement.prepare(sql, maxRowCount, authenticationResult, true).getSignature();
     return statement;
   }
 
@@ -550,10 +550,13 @@ public class DruidMeta extends MetaImpl
       }
     }
 
-    final DruidConnection putResult = connections.putIfAbsent(
+    final DruidConnection connection = new DruidConnection(
         connectionId,
-        new DruidConnection(connectionId, config.getMaxStatementsPerConnection(), context)
+        config.getMaxStatementsPerConnection(),
+        config.getMaxPrefetchedFrames(),
+        context
     );
+    final DruidConnection putResult = connections.putIfAbsent(connectionId, connection);
 
     if (putResult != null) {
       // Didn't actually insert the connection.
@@ -563,8 +566,8 @@ public class DruidMeta extends MetaImpl
 
     log.debug("Connection[%s] opened.", connectionId);
 
-    // Call getDruidConnection to start the timeout timer.
-    return getDruidConnection(connectionId);
+    scheduleIdleCheck(connectionId, connection, getConnectionIdleTimeoutMillis());
+    return connection;
   }
 
   /**
@@ -585,18 +588,41 @@ public class DruidMeta extends MetaImpl
       throw new NoSuchConnectionException(connectionId);
     }
 
-    return connection.sync(
-        exec.schedule(
-            () -> {
-              log.debug("Connection[%s] timed out.", connectionId);
-              closeConnection(new ConnectionHandle(connectionId));
-            },
-            new Interval(DateTimes.nowUtc(), config.getConnectionIdleTimeout()).toDurationMillis(),
-            TimeUnit.MILLISECONDS
-        )
+    return connection.touch();
+  }
+
+  /**
+   * Closes the given connection once it has been idle for {@link AvaticaServerConfig#getConnectionIdleTimeout()}.
+   * Reschedules itself while the connection is in use, rather than having each access cancel and schedule a timer.
+   */
+  private void scheduleIdleCheck(final String connectionId, final DruidConnection connection, final long delayMillis)
+  {
+    exec.schedule(
+        () -> {
+          if (connections.get(connectionId) != connection) {
+            // Already closed.
+            return;
+          }
+
+          final long idleMillis = System.currentTimeMillis() - connection.getLastAccessMillis();
+          final long timeoutMillis = getConnectionIdleTimeoutMillis();
+          if (idleMillis >= timeoutMillis) {
+            log.debug("Connection[%s] timed out.", connectionId);
+            closeConnection(new ConnectionHandle(connectionId));
+          } else {
+            scheduleIdleCheck(connectionId, connection, timeoutMillis - idleMillis);
+          }
+        },
+        delayMillis,
+        TimeUnit.MILLISECONDS
     );
   }
 
+  private long getConnectionIdleTimeoutMillis()
+  {
+    return new Interval(DateTimes.nowUtc(), config.getConnectionIdleTimeout()).toDurationMillis();
+  }
+
   @Nonnull
   private DruidStatement getDruidStatement(final StatementHandle statement) throws NoSuchStatementException
   {
@@ -20,12 +20,16 @@
 package org.apache.druid.sql.avatica;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.Meta;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.apache.calcite.tools.RelConversionException;
+import org.apache.calcite.tools.ValidationException;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.StringUtils;
 import org.apache.druid.java.util.common.concurrent.Execs;
@@ -35,17 +39,30 @@ import org.apache.druid.java.util.common.guava.Yielders;
 import org.apache.druid.server.security.AuthenticationResult;
 import org.apache.druid.server.security.ForbiddenException;
 import org.apache.druid.sql.SqlLifecycle;
+import org.apache.druid.sql.SqlLifecycleFactory;
+import org.apache.druid.sql.calcite.planner.PlanCache;
 import org.apache.druid.sql.calcite.rel.QueryMaker;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.io.IOException;
 import java.sql.DatabaseMetaData;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Statement handle for {@link DruidMeta}. Thread-safe.
+ *
+ * Statements prepared with reusable = true, which is the case for JDBC prepared statements, can be executed more than
+ * once. They keep their plan in a statement-level {@link PlanCache}, so executing them again only needs to authorize
+ * the query again, unless the plan can't be cached (see {@link org.apache.druid.sql.calcite.planner.DruidPlanner}).
+ * Other statements are closed as soon as their results are fully read.
  */
 public class DruidStatement implements Closeable
 {
@@ -53,15 +70,18 @@ public class DruidStatement implements Closeable
   private final String connectionId;
   private final int statementId;
   private final Map<String, Object> queryContext;
-  private final SqlLifecycle sqlLifecycle;
+  private final SqlLifecycleFactory sqlLifecycleFactory;
+  private final int maxPrefetchedFrames;
   private final Runnable onClose;
+  private final PlanCache statementPlanCache = new PlanCache(1);
   private final Object lock = new Object();
   /**
    * Query metrics can only be used within a single thread. Because results can be paginated into multiple
    * JDBC frames (each frame being processed by a potentially different thread), the thread that closes the yielder
    * (resulting in a QueryMetrics emit() call) may not be the same thread that created the yielder (which initializes
-   * DefaultQueryMetrics with the current thread as the owner). Create and close the yielder with this
-   * single-thread executor to prevent this from happening.
+   * DefaultQueryMetrics with the current thread as the owner). Create, read and close the yielder with this
+   * single-thread executor to prevent this from happening. Reading on this executor also lets it read the next
+   * frames ahead of the client's fetch calls.
    * <p>
    * The thread owner check in DefaultQueryMetrics is more aggressive than needed for this specific JDBC case, since
    * the JDBC frames are processed sequentially. If the thread owner check is changed/loosened to permit this use case,
@@ -75,23 +95,37 @@ public class DruidStatement implements Closeable
   private State state = State.NEW;
   private String query;
   private long maxRowCount;
+  private boolean reusable;
+  private AuthenticationResult authenticationResult;
   private Meta.Signature signature;
-  private Yielder<Object[]> yielder;
+  private RelDataType rowType;
+  // Lifecycle of the current execution, or null if the next execution needs a new one.
+  @Nullable
+  private SqlLifecycle sqlLifecycle;
+  // Reader of the results of the current execution, or null if not running.
+  @Nullable
+  private ResultReader reader;
   private int offset = 0;
   private Throwable throwable;
 
+  /**
+   * @param maxPrefetchedFrames number of frames to read ahead of the client's fetch calls, 0 to read frames only when
+   *                            they are fetched
+   */
   public DruidStatement(
       final String connectionId,
       final int statementId,
       final Map<String, Object> queryContext,
-      final SqlLifecycle sqlLifecycle,
+      final SqlLifecycleFactory sqlLifecycleFactory,
+      final int maxPrefetchedFrames,
       final Runnable onClose
   )
   {
     this.connectionId = Preconditions.checkNotNull(connectionId, "connectionId");
     this.statementId = statementId;
     this.queryContext = queryContext == null ? ImmutableMap.of() : queryContext;
-    this.sqlLifecycle = Preconditions.checkNotNull(sqlLifecycle, "sqlLifecycle");
+    this.sqlLifecycleFactory = Preconditions.checkNotNull(sqlLifecycleFactory, "sqlLifecycleFactory");
+    this.maxPrefetchedFrames = maxPrefetchedFrames;
     this.onClose = Preconditions.checkNotNull(onClose, "onClose");
     this.yielderOpenCloseExecutor = Execs.singleThreaded(
         StringUtils.format("JDBCYielderOpenCloseExecutor-connection-%s-statement-%d", connectionId, statementId)
@@ -147,16 +181,32 @@ public class DruidStatement implements Closeable
       final long maxRowCount,
       final AuthenticationResult authenticationResult
   )
+  {
+    return prepare(query, maxRowCount, authenticationResult, false);
+  }
+
+  /**
+   * @param reusable true if this statement can be executed more than once, false if it should be closed as soon as
+   *                 its results are fully read
+   */
+  public DruidStatement prepare(
+      final String query,
+      final long maxRowCount,
+      final AuthenticationResult authenticationResult,
+      final boolean reusable
+  )
   {
     synchronized (lock) {
       try {
         ensure(State.NEW);
-        sqlLifecycle.initialize(query, queryContext);
-        sqlLifecycle.planAndAuthorize(authenticationResult);
+        this.sqlLifecycle = planAndAuthorize(query, authenticationResult);
         this.maxRowCount = maxRowCount;
         this.query = query;
+        this.reusable = reusable;
+        this.authenticationResult = authenticationResult;
+        this.rowType = sqlLifecycle.rowType();
         this.signature = Meta.Signature.create(
-            createColumnMetaData(sqlLifecycle.rowType()),
+            createColumnMetaData(rowType),
             query,
             new ArrayList<>(),
             Meta.CursorFactory.ARRAY,
@@ -182,20 +232,34 @@ public class DruidStatement implements Closeable
   public DruidStatement execute()
   {
     synchronized (lock) {
+      if (reusable && state == State.RUNNING) {
+        // Executed again before its previous results were fully read.
+        finishExecution(null);
+        state = State.PREPARED;
+      }
+
       ensure(State.PREPARED);
 
       try {
-        final Sequence<Object[]> baseSequence = yielderOpenCloseExecutor.submit(
-            sqlLifecycle::execute
-        ).get();
+        if (sqlLifecycle == null) {
+          sqlLifecycle = planAndAuthorize(query, authenticationResult);
+        }
+
+        final SqlLifecycle theLifecycle = sqlLifecycle;
+        reader = yielderOpenCloseExecutor.submit(
+            () -> {
+              final Sequence<Object[]> baseSequence = theLifecycle.execute();
 
-        // We can't apply limits greater than Integer.MAX_VALUE, ignore them.
-        final Sequence<Object[]> retSequence =
-            maxRowCount >= 0 && maxRowCount <= Integer.MAX_VALUE
-            ? baseSequence.limit((int) maxRowCount)
-            : baseSequence;
+              // We can't apply limits greater than Integer.MAX_VALUE, ignore them.
+              final Sequence<Object[]> retSequence =
+                  maxRowCount >= 0 && maxRowCount <= Integer.MAX_VALUE
+                  ? baseSequence.limit((int) maxRowCount)
+                  : baseSequence;
 
-        yielder = Yielders.each(retSequence);
+              return new ResultReader(Yielders.each(retSequence));
+            }
+        ).get();
+        offset = 0;
         state = State.RUNNING;
       }
       catch (Throwable t) {
@@ -243,22 +307,26 @@ public class DruidStatement implements Closeable
   {
     synchronized (lock) {
       ensure(State.PREPARED, State.RUNNING, State.DONE);
-      return sqlLifecycle.rowType();
+      return rowType;
     }
   }
 
   public long getCurrentOffset()
   {
     synchronized (lock) {
-      ensure(State.RUNNING, State.DONE);
+      ensure(State.PREPARED, State.RUNNING, State.DONE);
       return offset;
     }
   }
 
+  /**
+   * Returns true if there are no results left to fetch, either because this statement is closed, or because it is
+   * not running.
+   */
   public boolean isDone()
   {
     synchronized (lock) {
-      return state == State.DONE;
+      return state != State.RUNNING;
     }
   }
 
@@ -269,16 +337,24 @@ public class DruidStatement implements Closeable
       Preconditions.checkState(fetchOffset == offset, "fetchOffset[%,d] != offset[%,d]", fetchOffset, offset);
 
       try {
-        final List<Object> rows = new ArrayList<>();
-        while (!yielder.isDone() && (fetchMaxRowCount < 0 || offset < fetchOffset + fetchMaxRowCount)) {
-          rows.add(yielder.get());
-          yielder = yielder.next(null);
-          offset++;
-        }
+        final long startNs = System.nanoTime();
+        final ResultReader theReader = reader;
+        final List<Object> rows = waitFor(yielderOpenCloseExecutor.submit(() -> theReader.read(fetchMaxRowCount)));
+        final boolean done = waitFor(yielderOpenCloseExecutor.submit(theReader::isDone));
+        offset += rows.size();
+        sqlLifecycle.emitMetric("sqlQuery/jdbc/frameTime", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs));
 
-        final boolean done = yielder.isDone();
         if (done) {
-          close();
+          if (reusable) {
+            finishExecution(null);
+            state = State.PREPARED;
+          } else {
+            close();
+          }
+        } else if (maxPrefetchedFrames > 0 && fetchMaxRowCount > 0) {
+          // Read the next frames while the client processes this one. Assumes they'll be fetched with the same size;
+          // if not, they are split or merged as needed by read().
+          yielderOpenCloseExecutor.submit(() -> theReader.prefetch(maxPrefetchedFrames * fetchMaxRowCount));
         }
 
         return new Meta.Frame(fetchOffset, done, rows);
@@ -299,55 +375,111 @@ public class DruidStatement implements Closeable
   @Override
   public void close()
   {
-    State oldState = null;
-    try {
-      synchronized (lock) {
-        oldState = state;
-        state = State.DONE;
-        if (yielder != null) {
-          Yielder<Object[]> theYielder = this.yielder;
-          this.yielder = null;
-
-          // Put the close last, so any exceptions it throws are after we did the other cleanup above.
-          yielderOpenCloseExecutor.submit(
-              () -> {
-                theYielder.close();
-                // makes this a Callable instead of Runnable so we don't need to catch exceptions inside the lambda
-                return null;
-              }
-          ).get();
-
-          yielderOpenCloseExecutor.shutdownNow();
-        }
-      }
-    }
-    catch (Throwable t) {
+    final State oldState;
+    Throwable closeThrowable = null;
+
+    synchronized (lock) {
+      oldState = state;
+      state = State.DONE;
       if (oldState != State.DONE) {
-        // First close. Run the onClose function.
         try {
-          onClose.run();
-          sqlLifecycle.emitLogsAndMetrics(t, null, -1);
+          finishExecution(throwable);
         }
-        catch (Throwable t1) {
-          t.addSuppressed(t1);
+        catch (Throwable t) {
+          closeThrowable = t;
         }
+        yielderOpenCloseExecutor.shutdownNow();
       }
-
-      throw new RuntimeException(t);
     }
 
     if (oldState != State.DONE) {
       // First close. Run the onClose function.
       try {
-        if (!(this.throwable instanceof ForbiddenException)) {
-          sqlLifecycle.emitLogsAndMetrics(this.throwable, null, -1);
-        }
         onClose.run();
       }
       catch (Throwable t) {
-        throw new RuntimeException(t);
+        if (closeThrowable == null) {
+          closeThrowable = t;
+        } else {
+          closeThrowable.addSuppressed(t);
+        }
+      }
+    }
+
+    if (closeThrowable != null) {
+      throw new RuntimeException(closeThrowable);
+    }
+  }
+
+  @GuardedBy("lock")
+  private SqlLifecycle planAndAuthorize(final String query, final AuthenticationResult authenticationResult)
+      throws SqlParseException, RelConversionException, ValidationException
+  {
+    final SqlLifecycle newLifecycle = sqlLifecycleFactory.factorize(statementPlanCache);
+    // Set it right away, so the query is logged by finishExecution if planning fails.
+    sqlLifecycle = newLifecycle;
+    newLifecycle.initialize(query, queryContext);
+    newLifecycle.planAndAuthorize(authenticationResult);
+    return newLifecycle;
+  }
+
+  /**
+   * Closes the results of the current execution, if any, and emits its logs and metrics. The next execution will use
+   * a new lifecycle.
+   */
+  @GuardedBy("lock")
+  private void finishExecution(@Nullable final Throwable executionThrowable)
+  {
+    final ResultReader theReader = reader;
+    final SqlLifecycle theLifecycle = sqlLifecycle;
+    reader = null;
+    sqlLifecycle = null;
+
+    Throwable t = executionThrowable;
+    Throwable closeThrowable = null;
+    try {
+      if (theReader != null) {
+        // Put the close last, so any exceptions it throws are after we did the other cleanup above.
+        waitFor(
+            yielderOpenCloseExecutor.submit(
+                () -> {
+                  theReader.close();
+                  // makes this a Callable instead of Runnable so we don't need to catch exceptions inside the lambda
+                  return null;
+                }
+            )
+        );
+      }
+    }
+    catch (Throwable t1) {
+      closeThrowable = t1;
+      if (t == null) {
+        t = t1;
       }
     }
+
+    if (theLifecycle != null && !(t instanceof ForbiddenException)) {
+      theLifecycle.emitLogsAndMetrics(t, null, -1, theReader != null ? offset : -1);
+    }
+
+    if (closeThrowable != null) {
+      throw new RuntimeException(closeThrowable);
+    }
+  }
+
+  private static <T> T waitFor(final Future<T> future)
+  {
+    try {
+      return future.get();
+    }
+    catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
   }
 
   @GuardedBy("lock")
@@ -368,4 +500,65 @@ public class DruidStatement implements Closeable
     RUNNING,
     DONE
   }
+
+  /**
+   * Reads the results of one execution. Only used by the {@link #yielderOpenCloseExecutor}, so it needs no
+   * synchronization.
+   */
+  private static class ResultReader implements Closeable
+  {
+    private final ArrayDeque<Object> prefetchedRows = new ArrayDeque<>();
+    private Yielder<Object[]> yielder;
+    @Nullable
+    private Throwable prefetchThrowable;
+
+    ResultReader(final Yielder<Object[]> yielder)
+    {
+      this.yielder = yielder;
+    }
+
+    List<Object> read(final int maxRows)
+    {
+      if (prefetchThrowable != null) {
+        Throwables.propagateIfPossible(prefetchThrowable);
+        throw new RuntimeException(prefetchThrowable);
+      }
+
+      final List<Object> rows = new ArrayList<>();
+      while (!prefetchedRows.isEmpty() && (maxRows < 0 || rows.size() < maxRows)) {
+        rows.add(prefetchedRows.poll());
+      }
+      while (!yielder.isDone() && (maxRows < 0 || rows.size() < maxRows)) {
+        rows.add(yielder.get());
+        yielder = yielder.next(null);
+      }
+      return rows;
+    }
+
+    boolean isDone()
+    {
+      return prefetchedRows.isEmpty() && yielder.isDone() && prefetchThrowable == null;
+    }
+
+    void prefetch(final int maxRows)
+    {
+      try {
+        while (!yielder.isDone() && prefetchedRows.size() < maxRows) {
+          prefetchedRows.add(yielder.get());
+          yielder = yielder.next(null);
+        }
+      }
+      catch (Throwable t) {
+        // Thrown by the next read().
+        prefetchThrowable = t;
+      }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      prefetchedRows.clear();
+      yielder.close();
+    }
+  }
 }
@@ -20,6 +20,8 @@
 package org.apache.druid.sql.calcite.expression;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.io.BaseEncoding;
 import com.google.common.primitives.Chars;
 import org.apache.druid.java.util.common.StringUtils;
@@ -50,12 +52,17 @@ public class DruidExpression
   }
 
   private final SimpleExtraction simpleExtraction;
-  private final String expression;
+  private final Supplier<String> expression;
 
   private DruidExpression(final SimpleExtraction simpleExtraction, final String expression)
+  {
+    this(simpleExtraction, Suppliers.ofInstance(Preconditions.checkNotNull(expression)));
+  }
+
+  private DruidExpression(final SimpleExtraction simpleExtraction, final Supplier<String> expression)
   {
     this.simpleExtraction = simpleExtraction;
-    this.expression = Preconditions.checkNotNull(expression);
+    this.expression = expression;
   }
 
   public static DruidExpression of(final SimpleExtraction simpleExtraction, final String expression)
@@ -63,6 +70,19 @@ public class DruidExpression
     return new DruidExpression(simpleExtraction, expression);
   }
 
+  /**
+   * Like {@link #of(SimpleExtraction, String)}, but only builds the expression if it is used, which is when the
+   * simple extraction can't be. Useful when the expression is expensive to build, like a large inline lookup.
+   */
+  public static DruidExpression of(final SimpleExtraction simpleExtraction, final Supplier<String> expression)
+  {
+    Preconditions.checkNotNull(simpleExtraction, "simpleExtraction");
+    return new DruidExpression(
+        simpleExtraction,
+        Suppliers.memoize(() -> Preconditions.checkNotNull(expression.get(), "expression"))
+    );
+  }
+
   public static DruidExpression fromColumn(final String column)
   {
     return new DruidExpression(SimpleExtraction.of(column, null), StringUtils.format("\"%s\"", escape(column)));
@@ -135,7 +155,7 @@ public class DruidExpression
 
   public String getExpression()
   {
-    return expression;
+    return expression.get();
   }
 
   public boolean isDirectColumnAccess()
@@ -155,7 +175,7 @@ public class DruidExpression
 
   public Expr parse(final ExprMacroTable macroTable)
   {
-    return Parser.parse(expression, macroTable);
+    return Parser.parse(getExpression(), macroTable);
   }
 
   public SimpleExtraction getSimpleExtraction()
@@ -169,7 +189,7 @@ public class DruidExpression
       final ExprMacroTable macroTable
   )
   {
-    return new ExpressionVirtualColumn(name, expression, outputType, macroTable);
+    return new ExpressionVirtualColumn(name, getExpression(), outputType, macroTable);
   }
 
   public DruidExpression map(
@@ -179,7 +199,7 @@ public class DruidExpression
   {
     return new DruidExpression(
         simpleExtraction == null ? null : extractionMap.apply(simpleExtraction),
-        expressionMap.apply(expression)
+        Suppliers.memoize(() -> expressionMap.apply(getExpression()))
     );
   }
 
@@ -194,13 +214,13 @@ public class DruidExpression
     }
     final DruidExpression that = (DruidExpression) o;
     return Objects.equals(simpleExtraction, that.simpleExtraction) &&
-           Objects.equals(expression, that.expression);
+           Objects.equals(getExpression(), that.getExpression());
   }
 
   @Override
   public int hashCode()
   {
-    return Objects.hash(simpleExtraction, expression);
+    return Objects.hash(simpleExtraction, getExpression());
   }
 
   @Override
@@ -208,7 +228,7 @@ public class DruidExpression
   {
     return "DruidExpression{" +
            "simpleExtraction=" + simpleExtraction +
-           ", expression='" + expression + '\'' +
+           ", expression='" + getExpression() + '\'' +
            '}';
   }
 }
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.expression.builtin;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlFunction;
+import org.apache.calcite.sql.SqlFunctionCategory;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.OperandTypes;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.druid.query.extraction.MapLookupExtractor;
+import org.apache.druid.query.lookup.LookupExtractionFn;
+import org.apache.druid.sql.calcite.expression.DruidExpression;
+import org.apache.druid.sql.calcite.expression.Expressions;
+import org.apache.druid.sql.calcite.expression.OperatorConversions;
+import org.apache.druid.sql.calcite.expression.SqlOperatorConversion;
+import org.apache.druid.sql.calcite.planner.PlannerContext;
+import org.apache.druid.sql.calcite.table.RowSignature;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Operator used by {@link org.apache.druid.sql.calcite.rel.DruidBroadcastJoin} to look up the columns of the
+ * right-hand side of a join with the join key of the left-hand side. The call is
+ * {@code BROADCAST_JOIN_LOOKUP(key, field, table)}, where {@code field} is the index of the right-hand side column, or
+ * {@link #KEY_FIELD} to look up the join key itself, and {@code table} is the id of the right-hand side in
+ * {@link PlannerContext#getBroadcastJoinTable}. The table is added once the right-hand side has been run; until then,
+ * the call looks up an empty map. All the lookups of a join share the one table, rather than each carrying a copy.
+ *
+ * The lookup is translated into a {@link LookupExtractionFn} over a {@link MapLookupExtractor}, so the right-hand side
+ * is shipped to data servers as part of the native query, and joined per segment with the dictionary of the key.
+ * Where only an expression can be used, like in virtual columns, it is translated into a {@code map_lookup} instead.
+ */
+public class BroadcastJoinLookupOperatorConversion implements SqlOperatorConversion
+{
+  public static final int KEY_FIELD = -1;
+
+  private static final SqlFunction SQL_FUNCTION = OperatorConversions
+      .operatorBuilder("BROADCAST_JOIN_LOOKUP")
+      .operandTypeChecker(OperandTypes.VARIADIC)
+      .nullableReturnType(SqlTypeName.VARCHAR)
+      .functionCategory(SqlFunctionCategory.STRING)
+      .build();
+
+  /**
+   * Returns a call looking up the given field of the right-hand side, with an empty map.
+   */
+  public static RexNode makeCall(
+      final RexBuilder rexBuilder,
+      final RelDataType type,
+      final RexNode key,
+      final int field
+  )
+  {
+    final List<RexNode> operands = new ArrayList<>(2);
+    operands.add(key);
+    operands.add(rexBuilder.makeExactLiteral(BigDecimal.valueOf(field)));
+    return rexBuilder.makeCall(type, SQL_FUNCTION, operands);
+  }
+
+  /**
+   * Returns true if the given node is a call of this operator.
+   */
+  public static boolean isCall(final RexNode rexNode)
+  {
+    return rexNode instanceof RexCall && ((RexCall) rexNode).getOperator().equals(SQL_FUNCTION);
+  }
+
+  /**
+   * Returns the right-hand side field looked up by the given call.
+   */
+  public static int getField(final RexCall call)
+  {
+    return RexLiteral.intValue(call.getOperands().get(1));
+  }
+
+  /**
+   * Returns a copy of the given call which looks up the given table, as registered with
+   * {@link PlannerContext#addBroadcastJoinTable}.
+   */
+  public static RexNode withTable(final RexBuilder rexBuilder, final RexCall call, final int table)
+  {
+    final List<RexNode> operands = new ArrayList<>(3);
+    operands.add(call.getOperands().get(0));
+    operands.add(call.getOperands().get(1));
+    operands.add(rexBuilder.makeExactLiteral(BigDecimal.valueOf(table)));
+    return call.clone(call.getType(), operands);
+  }
+
+  @Override
+  public SqlFunction calciteOperator()
+  {
+    return SQL_FUNCTION;
+  }
+
+  @Override
+  public DruidExpression toDruidExpression(
+      final PlannerContext plannerContext,
+      final RowSignature rowSignature,
+      final RexNode rexNode
+  )
+  {
+    final List<RexNode> operands = ((RexCall) rexNode).getOperands();
+    if (operands.size() < 2
+        || operands.size() > 3
+        || !operands.stream().skip(1).allMatch(operand -> operand.isA(SqlKind.LITERAL))) {
+      return null;
+    }
+
+    final DruidExpression key = Expressions.toDruidExpression(plannerContext, rowSignature, operands.get(0));
+    if (key == null) {
+      return null;
+    }
+
+    final int field = RexLiteral.intValue(operands.get(1));
+    final Map<String, String> map;
+    if (operands.size() == 2) {
+      map = ImmutableMap.of();
+    } else {
+      // Views of the table: the lookups of a join don't copy it. Null values are left out, since a lookup returns null
+      // for missing keys anyway.
+      final Map<String, String[]> table = plannerContext.getBroadcastJoinTable(RexLiteral.intValue(operands.get(2)));
+      map = field == KEY_FIELD
+            ? Maps.asMap(table.keySet(), k -> k)
+            : Maps.filterValues(Maps.transformValues(table, row -> row[field]), Objects::nonNull);
+    }
+
+    // For places where only expressions can be used, like virtual columns. Like the extractionFn, map_lookup builds
+    // a hash map once per query. Only built if used, so the map isn't inlined twice.
+    final Supplier<String> expression = () -> {
+      final List<DruidExpression> lookupArgs = new ArrayList<>(1 + map.size() * 2);
+      lookupArgs.add(key);
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+        lookupArgs.add(DruidExpression.fromExpression(DruidExpression.stringLiteral(entry.getKey())));
+        lookupArgs.add(DruidExpression.fromExpression(DruidExpression.stringLiteral(entry.getValue())));
+      }
+      return DruidExpression.functionCall("map_lookup", lookupArgs);
+    };
+
+    if (key.isSimpleExtraction()) {
+      final boolean isKeyLookup = field == KEY_FIELD;
+      return DruidExpression.of(
+          key.getSimpleExtraction().cascade(
+              new LookupExtractionFn(new MapLookupExtractor(map, isKeyLookup), false, null, isKeyLookup, true)
+          ),
+          expression
+      );
+    } else {
+      return DruidExpression.fromExpression(expression.get());
+    }
+  }
+}
@@ -47,6 +47,7 @@ import org.apache.druid.sql.calcite.expression.UnaryFunctionOperatorConversion;
 import org.apache.druid.sql.calcite.expression.UnaryPrefixOperatorConversion;
 import org.apache.druid.sql.calcite.expression.UnarySuffixOperatorConversion;
 import org.apache.druid.sql.calcite.expression.builtin.BTrimOperatorConversion;
+import org.apache.druid.sql.calcite.expression.builtin.BroadcastJoinLookupOperatorConversion;
 import org.apache.druid.sql.calcite.expression.builtin.CastOperatorConversion;
 import org.apache.druid.sql.calcite.expression.builtin.CeilOperatorConversion;
 import org.apache.druid.sql.calcite.expression.builtin.ConcatOperatorConversion;
@@ -203,6 +204,8 @@ public class DruidOperatorTable implements SqlOperatorTable
           // value coercion operators
           .add(new CastOperatorConversion())
           .add(new ReinterpretOperatorConversion())
+          // joins
+          .add(new BroadcastJoinLookupOperatorConversion())
           .build();
 
   // Operators that have no conversion, but are handled in the convertlet table, so they still need to exist.
@@ -211,6 +214,21 @@ public class DruidOperatorTable implements SqlOperatorTable
                           .stream()
                           .collect(Collectors.toMap(OperatorKey::of, Function.identity()));
 
+  // Operators that can only be used in OVER clauses. They have no conversion, but are handled by DruidWindowRel.
+  private static final Map<OperatorKey, SqlOperator> WINDOW_OPERATORS =
+      ImmutableList.<SqlOperator>of(
+          SqlStdOperatorTable.DESC,
+          SqlStdOperatorTable.NULLS_FIRST,
+          SqlStdOperatorTable.NULLS_LAST,
+          SqlStdOperatorTable.ROW_NUMBER,
+          SqlStdOperatorTable.RANK,
+          SqlStdOperatorTable.DENSE_RANK,
+          SqlStdOperatorTable.LAG,
+          SqlStdOperatorTable.LEAD,
+          SqlStdOperatorTable.FIRST_VALUE,
+          SqlStdOperatorTable.LAST_VALUE
+      ).stream().collect(Collectors.toMap(OperatorKey::of, Function.identity()));
+
   private final Map<OperatorKey, SqlAggregator> aggregators;
   private final Map<OperatorKey, SqlOperatorConversion> operatorConversions;
 
@@ -311,6 +329,11 @@ public class DruidOperatorTable implements SqlOperatorTable
     if (convertletOperator != null) {
       operatorList.add(convertletOperator);
     }
+
+    final SqlOperator windowOperator = WINDOW_OPERATORS.get(operatorKey);
+    if (windowOperator != null) {
+      operatorList.add(windowOperator);
+    }
   }
 
   @Override
@@ -324,6 +347,7 @@ public class DruidOperatorTable implements SqlOperatorTable
       retVal.add(operatorConversion.calciteOperator());
     }
     retVal.addAll(DruidConvertletTable.knownOperators());
+    retVal.addAll(WINDOW_OPERATORS.values());
     return retVal;
   }
 
@@ -24,6 +24,8 @@ import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.primitives.Ints;
 import org.apache.calcite.DataContext;
 import org.apache.calcite.adapter.java.JavaTypeFactory;
 import org.apache.calcite.interpreter.BindableConvention;
@@ -50,9 +52,15 @@ import org.apache.calcite.util.Pair;
 import org.apache.druid.java.util.common.guava.BaseSequence;
 import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.sql.calcite.rel.CannotBuildQueryException;
 import org.apache.druid.sql.calcite.rel.DruidConvention;
+import org.apache.druid.sql.calcite.rel.DruidOuterQueryRel;
+import org.apache.druid.sql.calcite.rel.DruidQuery;
+import org.apache.druid.sql.calcite.rel.DruidQueryRel;
 import org.apache.druid.sql.calcite.rel.DruidRel;
+import org.apache.druid.sql.calcite.rel.QueryMaker;
 
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -63,19 +71,71 @@ public class DruidPlanner implements Closeable
 {
   private final Planner planner;
   private final PlannerContext plannerContext;
+  @Nullable
+  private final QueryMaker queryMaker;
+  // Caches to look plans up in, in order.
+  private final List<PlanCache> planCaches = new ArrayList<>();
+  private final long schemaVersion;
 
   public DruidPlanner(
       final Planner planner,
       final PlannerContext plannerContext
   )
+  {
+    this(planner, plannerContext, null, null, null, 0);
+  }
+
+  /**
+   * @param queryMaker          query maker of this planner, used to run plans taken from the plan caches
+   * @param statementPlanCache  plan cache of a single statement, like a JDBC prepared statement, or null if none.
+   *                            Looked up before the planCache.
+   * @param planCache           plan cache, or null if plans shouldn't be cached
+   * @param schemaVersion       {@link org.apache.druid.sql.calcite.schema.DruidSchema#getTablesVersion()} read
+   *                            before planning
+   */
+  public DruidPlanner(
+      final Planner planner,
+      final PlannerContext plannerContext,
+      @Nullable final QueryMaker queryMaker,
+      @Nullable final PlanCache statementPlanCache,
+      @Nullable final PlanCache planCache,
+      final long schemaVersion
+  )
   {
     this.planner = planner;
     this.plannerContext = plannerContext;
+    this.queryMaker = queryMaker;
+    if (queryMaker != null) {
+      if (statementPlanCache != null) {
+        planCaches.add(statementPlanCache);
+      }
+      if (planCache != null) {
+        planCaches.add(planCache);
+      }
+    }
+    this.schemaVersion = schemaVersion;
   }
 
   public PlannerResult plan(final String sql)
       throws SqlParseException, ValidationException, RelConversionException
   {
+    final PlanCache.Key cacheKey;
+    if (!planCaches.isEmpty()) {
+      cacheKey = PlanCache.Key.of(sql, plannerContext.getQueryContext(), schemaVersion);
+      for (int i = 0; i < planCaches.size(); i++) {
+        final PlanCache.CachedPlan cachedPlan = planCaches.get(i).get(cacheKey);
+        if (cachedPlan != null) {
+          // Copy to the caches looked up first, so the next lookup is faster.
+          for (int j = 0; j < i; j++) {
+            planCaches.get(j).put(cacheKey, cachedPlan);
+          }
+          return planFromCache(cachedPlan);
+        }
+      }
+    } else {
+      cacheKey = null;
+    }
+
     SqlExplain explain = null;
     SqlNode parsed = planner.parse(sql);
     if (parsed.getKind() == SqlKind.EXPLAIN) {
@@ -86,7 +146,7 @@ public class DruidPlanner implements Closeable
     final RelRoot root = planner.rel(validated);
 
     try {
-      return planWithDruidConvention(explain, root);
+      return planWithDruidConvention(explain, root, cacheKey);
     }
     catch (RelOptPlanner.CannotPlanException e) {
       // Try again with BINDABLE convention. Used for querying Values and metadata tables.
@@ -111,9 +171,22 @@ public class DruidPlanner implements Closeable
     planner.close();
   }
 
+  private PlannerResult planFromCache(final PlanCache.CachedPlan cachedPlan)
+  {
+    final DruidQuery druidQuery = cachedPlan.getDruidQuery();
+    final int[] fieldMapping = cachedPlan.getFieldMapping();
+    return new PlannerResult(
+        () -> remapFields(queryMaker.runQuery(druidQuery), fieldMapping),
+        cachedPlan.getRowType(),
+        cachedPlan.getDataSourceNames(),
+        true
+    );
+  }
+
   private PlannerResult planWithDruidConvention(
       final SqlExplain explain,
-      final RelRoot root
+      final RelRoot root,
+      @Nullable final PlanCache.Key cacheKey
   ) throws RelConversionException
   {
     final DruidRel<?> druidRel = (DruidRel<?>) planner.transform(
@@ -129,38 +202,88 @@ public class DruidPlanner implements Closeable
     if (explain != null) {
       return planExplanation(druidRel, explain, dataSourceNames);
     } else {
-      final Supplier<Sequence<Object[]>> resultsSupplier = new Supplier<Sequence<Object[]>>()
-      {
-        @Override
-        public Sequence<Object[]> get()
-        {
-          if (root.isRefTrivial()) {
-            return druidRel.runQuery();
-          } else {
-            // Add a mapping on top to accommodate root.fields.
-            return Sequences.map(
-                druidRel.runQuery(),
-                new Function<Object[], Object[]>()
-                {
-                  @Override
-                  public Object[] apply(final Object[] input)
-                  {
-                    final Object[] retVal = new Object[root.fields.size()];
-                    for (int i = 0; i < root.fields.size(); i++) {
-                      retVal[i] = input[root.fields.get(i).getKey()];
-                    }
-                    return retVal;
-                  }
-                }
-            );
-          }
+      final int[] fieldMapping = root.isRefTrivial() ? null : Ints.toArray(Pair.left(root.fields));
+      final DruidQuery cacheableQuery = cacheKey != null ? toCacheableQuery(druidRel) : null;
+      final Supplier<Sequence<Object[]>> resultsSupplier;
+
+      if (cacheableQuery != null) {
+        final PlanCache.CachedPlan cachedPlan =
+            new PlanCache.CachedPlan(cacheableQuery, root.validatedRowType, dataSourceNames, fieldMapping);
+        for (PlanCache planCache : planCaches) {
+          planCache.put(cacheKey, cachedPlan);
         }
-      };
+        // Run the same query that was cached, rather than building it again.
+        resultsSupplier = () -> remapFields(queryMaker.runQuery(cacheableQuery), fieldMapping);
+      } else {
+        resultsSupplier = () -> remapFields(druidRel.runQuery(), fieldMapping);
+      }
 
       return new PlannerResult(resultsSupplier, root.validatedRowType, dataSourceNames);
     }
   }
 
+  /**
+   * Returns the native query of the given rel if its plan can be cached, or null otherwise. Only rels which run as a
+   * single native query are cached. Plans depending on the current time, like those using CURRENT_TIMESTAMP, are not
+   * cached either, since the native query has the time inlined.
+   */
+  @Nullable
+  private DruidQuery toCacheableQuery(final DruidRel<?> druidRel)
+  {
+    if (!isSingleNativeQuery(druidRel)) {
+      return null;
+    }
+    final DruidQuery druidQuery;
+    try {
+      druidQuery = druidRel.toDruidQuery(false);
+    }
+    catch (CannotBuildQueryException e) {
+      // Leave it to runQuery to report the error.
+      return null;
+    }
+    return druidQuery == null || plannerContext.isLocalNowUsed() ? null : druidQuery;
+  }
+
+  /**
+   * Returns true if the given rel, including its inputs, runs as a single native query. Rels like DruidSemiJoin run
+   * another query to build their native query, so their native query depends on data and must not be cached.
+   */
+  private static boolean isSingleNativeQuery(final RelNode rel)
+  {
+    if (rel instanceof DruidQueryRel) {
+      return true;
+    } else if (rel instanceof DruidOuterQueryRel) {
+      return isSingleNativeQuery(Iterables.getOnlyElement(rel.getInputs()));
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   * Adds a mapping on top of the given results to accommodate root.fields, if needed.
+   */
+  private static Sequence<Object[]> remapFields(final Sequence<Object[]> results, @Nullable final int[] fieldMapping)
+  {
+    if (fieldMapping == null) {
+      return results;
+    }
+    return Sequences.map(
+        results,
+        new Function<Object[], Object[]>()
+        {
+          @Override
+          public Object[] apply(final Object[] input)
+          {
+            final Object[] retVal = new Object[fieldMapping.length];
+            for (int i = 0; i < fieldMapping.length; i++) {
+              retVal[i] = input[fieldMapping[i]];
+            }
+            return retVal;
+          }
+        }
+    );
+  }
+
   private PlannerResult planWithBindableConvention(
       final SqlExplain explain,
       final RelRoot root
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.planner;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.druid.sql.calcite.rel.DruidQuery;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cache of SQL plans, keyed on the query text, the query context, and the version of
+ * {@link org.apache.druid.sql.calcite.schema.DruidSchema} the plan was built against. A cached plan holds the native
+ * query template generated for the SQL query, so that a repeated query skips parsing, validation and the Calcite
+ * optimizer entirely.
+ *
+ * Only plans which run as a single native query and don't depend on the current time are cached; see
+ * {@link DruidPlanner}.
+ */
+public class PlanCache
+{
+  private final Cache<Key, CachedPlan> cache;
+
+  public PlanCache(final int maxSize)
+  {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+  }
+
+  @Nullable
+  public CachedPlan get(final Key key)
+  {
+    return cache.getIfPresent(key);
+  }
+
+  public void put(final Key key, final CachedPlan plan)
+  {
+    cache.put(key, plan);
+  }
+
+  public long size()
+  {
+    return cache.size();
+  }
+
+  public static class Key
+  {
+    private final String sql;
+    private final Map<String, Object> queryContext;
+    private final long schemaVersion;
+
+    /**
+     * Creates a cache key. Leading and trailing whitespaces of the query text are ignored, as is the
+     * {@link PlannerContext#CTX_SQL_QUERY_ID} which is different for every query.
+     */
+    public static Key of(final String sql, @Nullable final Map<String, Object> queryContext, final long schemaVersion)
+    {
+      final Map<String, Object> contextWithoutId = new HashMap<>();
+      if (queryContext != null) {
+        contextWithoutId.putAll(queryContext);
+        contextWithoutId.remove(PlannerContext.CTX_SQL_QUERY_ID);
+      }
+      return new Key(sql.trim(), contextWithoutId, schemaVersion);
+    }
+
+    private Key(final String sql, final Map<String, Object> queryContext, final long schemaVersion)
+    {
+      this.sql = sql;
+      this.queryContext = queryContext;
+      this.schemaVersion = schemaVersion;
+    }
+
+    @Override
+    public boolean equals(final Object o)
+    {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return schemaVersion == key.schemaVersion &&
+             sql.equals(key.sql) &&
+             queryContext.equals(key.queryContext);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(sql, queryContext, schemaVersion);
+    }
+  }
+
+  public static class CachedPlan
+  {
+    private final DruidQuery druidQuery;
+    private final RelDataType rowType;
+    private final Set<String> dataSourceNames;
+    @Nullable
+    private final int[] fieldMapping;
+
+    /**
+     * @param fieldMapping output field index -> native query row index, or null if the rows are returned as they are
+     */
+    public CachedPlan(
+        final DruidQuery druidQuery,
+        final RelDataType rowType,
+        final Set<String> dataSourceNames,
+        @Nullable final int[] fieldMapping
+    )
+    {
+      this.druidQuery = druidQuery;
+      this.rowType = rowType;
+      this.dataSourceNames = ImmutableSet.copyOf(dataSourceNames);
+      this.fieldMapping = fieldMapping;
+    }
+
+    public DruidQuery getDruidQuery()
+    {
+      return druidQuery;
+    }
+
+    public RelDataType getRowType()
+    {
+      return rowType;
+    }
+
+    public Set<String> getDataSourceNames()
+    {
+      return dataSourceNames;
+    }
+
+    @Nullable
+    public int[] getFieldMapping()
+    {
+      return fieldMapping;
+    }
+  }
+}
@@ -24,6 +24,8 @@ import org.apache.druid.java.util.common.IAE;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Period;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.util.Map;
 import java.util.Objects;
 
@@ -35,9 +37,22 @@ public class PlannerConfig
   @JsonProperty
   private Period metadataRefreshPeriod = new Period("PT1M");
 
+  @JsonProperty
+  private int metadataRefreshParallelism = 1;
+
+  @JsonProperty
+  @Nullable
+  private File metadataSignatureCacheFile = null;
+
   @JsonProperty
   private int maxSemiJoinRowsInMemory = 100000;
 
+  @JsonProperty
+  private int maxBroadcastJoinRowsInMemory = 10000;
+
+  @JsonProperty
+  private int maxWindowRowsInMemory = 100000;
+
   @JsonProperty
   private int maxTopNLimit = 100000;
 
@@ -65,11 +80,19 @@ public class PlannerConfig
   @JsonProperty
   private long metadataSegmentPollPeriod = 60000;
 
+  @JsonProperty
+  private int planCacheSize = 0;
+
   public long getMetadataSegmentPollPeriod()
   {
     return metadataSegmentPollPeriod;
   }
 
+  public int getPlanCacheSize()
+  {
+    return planCacheSize;
+  }
+
   public boolean isMetadataSegmentCacheEnable()
   {
     return metadataSegmentCacheEnable;
@@ -82,6 +105,17 @@ public class PlannerConfig
     return metadataRefreshPeriod;
   }
 
+  public int getMetadataRefreshParallelism()
+  {
+    return metadataRefreshParallelism;
+  }
+
+  @Nullable
+  public File getMetadataSignatureCacheFile()
+  {
+    return metadataSignatureCacheFile;
+  }
+
   public int getMaxSemiJoinRowsInMemory()
   {
     return maxSemiJoinRowsInMemory;
@@ -92,6 +126,16 @@ public class PlannerConfig
     return maxTopNLimit;
   }
 
+  public int getMaxBroadcastJoinRowsInMemory()
+  {
+    return maxBroadcastJoinRowsInMemory;
+  }
+
+  public int getMaxWindowRowsInMemory()
+  {
+    return maxWindowRowsInMemory;
+  }
+
   public int getMaxQueryCount()
   {
     return maxQueryCount;
@@ -135,7 +179,11 @@ public class PlannerConfig
 
     final PlannerConfig newConfig = new PlannerConfig();
     newConfig.metadataRefreshPeriod = getMetadataRefreshPeriod();
+    newConfig.metadataRefreshParallelism = getMetadataRefreshParallelism();
+    newConfig.metadataSignatureCacheFile = getMetadataSignatureCacheFile();
     newConfig.maxSemiJoinRowsInMemory = getMaxSemiJoinRowsInMemory();
+    newConfig.maxBroadcastJoinRowsInMemory = getMaxBroadcastJoinRowsInMemory();
+    newConfig.maxWindowRowsInMemory = getMaxWindowRowsInMemory();
     newConfig.maxTopNLimit = getMaxTopNLimit();
     newConfig.maxQueryCount = getMaxQueryCount();
     newConfig.useApproximateCountDistinct = getContextBoolean(
@@ -154,6 +202,7 @@ public class PlannerConfig
     newConfig.metadataSegmentCacheEnable = isMetadataSegmentCacheEnable();
     newConfig.metadataSegmentPollPeriod = getMetadataSegmentPollPeriod();
     newConfig.serializeComplexValues = shouldSerializeComplexValues();
+    newConfig.planCacheSize = getPlanCacheSize();
     return newConfig;
   }
 
@@ -185,7 +234,10 @@ public class PlannerConfig
       return false;
     }
     final PlannerConfig that = (PlannerConfig) o;
-    return maxSemiJoinRowsInMemory == that.maxSemiJoinRowsInMemory &&
+    return metadataRefreshParallelism == that.metadataRefreshParallelism &&
+           maxSemiJoinRowsInMemory == that.maxSemiJoinRowsInMemory &&
+           maxBroadcastJoinRowsInMemory == that.maxBroadcastJoinRowsInMemory &&
+           maxWindowRowsInMemory == that.maxWindowRowsInMemory &&
            maxTopNLimit == that.maxTopNLimit &&
            maxQueryCount == that.maxQueryCount &&
            useApproximateCountDistinct == that.useApproximateCountDistinct &&
@@ -195,7 +247,9 @@ public class PlannerConfig
            metadataSegmentCacheEnable == that.metadataSegmentCacheEnable &&
            metadataSegmentPollPeriod == that.metadataSegmentPollPeriod &&
            serializeComplexValues == that.serializeComplexValues &&
+           planCacheSize == that.planCacheSize &&
            Objects.equals(metadataRefreshPeriod, that.metadataRefreshPeriod) &&
+           Objects.equals(metadataSignatureCacheFile, that.metadataSignatureCacheFile) &&
            Objects.equals(sqlTimeZone, that.sqlTimeZone);
   }
 
@@ -205,7 +259,11 @@ public class PlannerConfig
 
     return Objects.hash(
         metadataRefreshPeriod,
+        metadataRefreshParallelism,
+        metadataSignatureCacheFile,
         maxSemiJoinRowsInMemory,
+        maxBroadcastJoinRowsInMemory,
+        maxWindowRowsInMemory,
         maxTopNLimit,
         maxQueryCount,
         useApproximateCountDistinct,
@@ -215,7 +273,8 @@ public class PlannerConfig
         sqlTimeZone,
         metadataSegmentCacheEnable,
         metadataSegmentPollPeriod,
-        serializeComplexValues
+        serializeComplexValues,
+        planCacheSize
     );
   }
 
@@ -224,7 +283,11 @@ public class PlannerConfig
   {
     return "PlannerConfig{" +
            "metadataRefreshPeriod=" + metadataRefreshPeriod +
+           ", metadataRefreshParallelism=" + metadataRefreshParallelism +
+           ", metadataSignatureCacheFile=" + metadataSignatureCacheFile +
            ", maxSemiJoinRowsInMemory=" + maxSemiJoinRowsInMemory +
+           ", maxBroadcastJoinRowsInMemory=" + maxBroadcastJoinRowsInMemory +
+           ", maxWindowRowsInMemory=" + maxWindowRowsInMemory +
            ", maxTopNLimit=" + maxTopNLimit +
            ", maxQueryCount=" + maxQueryCount +
            ", useApproximateCountDistinct=" + useApproximateCountDistinct +
@@ -235,6 +298,7 @@ public class PlannerConfig
            ", metadataSegmentPollPeriod=" + metadataSegmentPollPeriod +
            ", sqlTimeZone=" + sqlTimeZone +
            ", serializeComplexValues=" + serializeComplexValues +
+           ", planCacheSize=" + planCacheSize +
            '}';
   }
 }
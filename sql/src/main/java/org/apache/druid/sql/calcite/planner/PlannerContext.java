@@ -33,6 +33,7 @@ import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Interval;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +62,10 @@ public class PlannerContext
   private final AuthenticationResult authenticationResult;
   private final String sqlQueryId;
   private final List<String> nativeQueryIds = new CopyOnWriteArrayList<>();
+  // Guarded by itself.
+  private final List<Map<String, String[]>> broadcastJoinTables = new ArrayList<>();
+  // Whether the plan depends on localNow, e.g. CURRENT_TIMESTAMP is used. Such plans are not cached.
+  private volatile boolean localNowUsed;
 
   private PlannerContext(
       final DruidOperatorTable operatorTable,
@@ -142,11 +147,21 @@ public class PlannerContext
     return plannerConfig;
   }
 
+  /**
+   * Returns the current time of this query. Calling this method during planning makes the plan depend on the current
+   * time, so that it is not reused by {@link PlanCache}.
+   */
   public DateTime getLocalNow()
   {
+    localNowUsed = true;
     return localNow;
   }
 
+  public boolean isLocalNowUsed()
+  {
+    return localNowUsed;
+  }
+
   public DateTimeZone getTimeZone()
   {
     return localNow.getZone();
@@ -177,6 +192,25 @@ public class PlannerContext
     this.nativeQueryIds.add(queryId);
   }
 
+  /**
+   * Registers the right-hand side of a broadcast join, keyed by join key, so that the lookups of its columns can all
+   * share it instead of each carrying a copy. Returns the id to pass to {@link #getBroadcastJoinTable}.
+   */
+  public int addBroadcastJoinTable(final Map<String, String[]> table)
+  {
+    synchronized (broadcastJoinTables) {
+      broadcastJoinTables.add(table);
+      return broadcastJoinTables.size() - 1;
+    }
+  }
+
+  public Map<String, String[]> getBroadcastJoinTable(final int id)
+  {
+    synchronized (broadcastJoinTables) {
+      return broadcastJoinTables.get(id);
+    }
+  }
+
   public DataContext createDataContext(final JavaTypeFactory typeFactory)
   {
     class DruidDataContext implements DataContext
@@ -35,18 +35,24 @@ import org.apache.calcite.sql.validate.SqlConformance;
 import org.apache.calcite.sql2rel.SqlToRelConverter;
 import org.apache.calcite.tools.FrameworkConfig;
 import org.apache.calcite.tools.Frameworks;
+import org.apache.druid.guice.LazySingleton;
 import org.apache.druid.guice.annotations.Json;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.server.QueryLifecycleFactory;
 import org.apache.druid.server.security.AuthenticationResult;
 import org.apache.druid.server.security.AuthorizerMapper;
 import org.apache.druid.sql.calcite.rel.QueryMaker;
+import org.apache.druid.sql.calcite.rel.QueryRewriter;
 import org.apache.druid.sql.calcite.schema.DruidSchema;
 import org.apache.druid.sql.calcite.schema.SystemSchema;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
+@LazySingleton
 public class PlannerFactory
 {
   private static final SqlParser.Config PARSER_CONFIG = SqlParser
@@ -66,8 +72,10 @@ public class PlannerFactory
   private final PlannerConfig plannerConfig;
   private final ObjectMapper jsonMapper;
   private final AuthorizerMapper authorizerMapper;
+  private final Set<QueryRewriter> queryRewriters;
+  @Nullable
+  private final PlanCache planCache;
 
-  @Inject
   public PlannerFactory(
       final DruidSchema druidSchema,
       final SystemSchema systemSchema,
@@ -78,6 +86,32 @@ public class PlannerFactory
       final AuthorizerMapper authorizerMapper,
       final @Json ObjectMapper jsonMapper
   )
+  {
+    this(
+        druidSchema,
+        systemSchema,
+        queryLifecycleFactory,
+        operatorTable,
+        macroTable,
+        plannerConfig,
+        authorizerMapper,
+        jsonMapper,
+        Collections.emptySet()
+    );
+  }
+
+  @Inject
+  public PlannerFactory(
+      final DruidSchema druidSchema,
+      final SystemSchema systemSchema,
+      final QueryLifecycleFactory queryLifecycleFactory,
+      final DruidOperatorTable operatorTable,
+      final ExprMacroTable macroTable,
+      final PlannerConfig plannerConfig,
+      final AuthorizerMapper authorizerMapper,
+      final @Json ObjectMapper jsonMapper,
+      final Set<QueryRewriter> queryRewriters
+  )
   {
     this.druidSchema = druidSchema;
     this.systemSchema = systemSchema;
@@ -87,6 +121,8 @@ public class PlannerFactory
     this.plannerConfig = plannerConfig;
     this.authorizerMapper = authorizerMapper;
     this.jsonMapper = jsonMapper;
+    this.queryRewriters = queryRewriters;
+    this.planCache = plannerConfig.getPlanCacheSize() > 0 ? new PlanCache(plannerConfig.getPlanCacheSize()) : null;
   }
 
   public DruidPlanner createPlanner(
@@ -94,6 +130,21 @@ public class PlannerFactory
       final AuthenticationResult authenticationResult
   )
   {
+    return createPlanner(queryContext, authenticationResult, null);
+  }
+
+  /**
+   * Creates a planner which looks plans up in the given statementPlanCache before the shared plan cache, and caches
+   * the plans it builds in both.
+   */
+  public DruidPlanner createPlanner(
+      final Map<String, Object> queryContext,
+      final AuthenticationResult authenticationResult,
+      @Nullable final PlanCache statementPlanCache
+  )
+  {
+    // Read before planning, so that a plan is never cached with the version of a schema newer than it was built with.
+    final long schemaVersion = druidSchema.getTablesVersion();
     final SchemaPlus rootSchema = Calcites.createRootSchema(
         druidSchema,
         systemSchema,
@@ -106,7 +157,7 @@ public class PlannerFactory
         queryContext,
         authenticationResult
     );
-    final QueryMaker queryMaker = new QueryMaker(queryLifecycleFactory, plannerContext, jsonMapper);
+    final QueryMaker queryMaker = new QueryMaker(queryLifecycleFactory, plannerContext, jsonMapper, queryRewriters);
     final SqlToRelConverter.Config sqlToRelConverterConfig = SqlToRelConverter
         .configBuilder()
         .withExpand(false)
@@ -153,7 +204,11 @@ public class PlannerFactory
 
     return new DruidPlanner(
         Frameworks.getPlanner(frameworkConfig),
-        plannerContext
+        plannerContext,
+        queryMaker,
+        statementPlanCache,
+        planCache,
+        schemaVersion
     );
   }
 
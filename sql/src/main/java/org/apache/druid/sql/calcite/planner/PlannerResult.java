@@ -32,6 +32,7 @@ public class PlannerResult
   private final Supplier<Sequence<Object[]>> resultsSupplier;
   private final RelDataType rowType;
   private final Set<String> datasourceNames;
+  private final boolean fromPlanCache;
   private final AtomicBoolean didRun = new AtomicBoolean();
 
   public PlannerResult(
@@ -39,10 +40,21 @@ public class PlannerResult
       final RelDataType rowType,
       final Set<String> datasourceNames
   )
+  {
+    this(resultsSupplier, rowType, datasourceNames, false);
+  }
+
+  public PlannerResult(
+      final Supplier<Sequence<Object[]>> resultsSupplier,
+      final RelDataType rowType,
+      final Set<String> datasourceNames,
+      final boolean fromPlanCache
+  )
   {
     this.resultsSupplier = resultsSupplier;
     this.rowType = rowType;
     this.datasourceNames = ImmutableSet.copyOf(datasourceNames);
+    this.fromPlanCache = fromPlanCache;
   }
 
   public Sequence<Object[]> run()
@@ -63,4 +75,12 @@ public class PlannerResult
   {
     return datasourceNames;
   }
+
+  /**
+   * Returns true if this result reuses a plan cached by {@link PlanCache}.
+   */
+  public boolean isFromPlanCache()
+  {
+    return fromPlanCache;
+  }
 }
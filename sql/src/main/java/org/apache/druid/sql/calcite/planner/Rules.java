@@ -72,10 +72,12 @@ import org.apache.calcite.tools.Programs;
 import org.apache.calcite.tools.RelBuilder;
 import org.apache.druid.sql.calcite.rel.QueryMaker;
 import org.apache.druid.sql.calcite.rule.CaseFilteredAggregatorRule;
+import org.apache.druid.sql.calcite.rule.DruidBroadcastJoinRule;
 import org.apache.druid.sql.calcite.rule.DruidRelToDruidRule;
 import org.apache.druid.sql.calcite.rule.DruidRules;
 import org.apache.druid.sql.calcite.rule.DruidSemiJoinRule;
 import org.apache.druid.sql.calcite.rule.DruidTableScanRule;
+import org.apache.druid.sql.calcite.rule.DruidWindowRule;
 import org.apache.druid.sql.calcite.rule.ProjectAggregatePruneUnusedCallRule;
 import org.apache.druid.sql.calcite.rule.SortCollapseRule;
 
@@ -205,6 +207,19 @@ public class Rules
       retVal.add(DruidSemiJoinRule.instance());
     }
 
+    if (plannerContext.getPlannerConfig().getMaxBroadcastJoinRowsInMemory() > 0) {
+      retVal.add(DruidBroadcastJoinRule.PROJECT_JOIN);
+      retVal.add(DruidBroadcastJoinRule.JOIN);
+    }
+
+    if (plannerContext.getPlannerConfig().getMaxWindowRowsInMemory() > 0) {
+      retVal.add(DruidWindowRule.WINDOW);
+      retVal.add(DruidWindowRule.FILTER);
+      retVal.add(DruidWindowRule.PROJECT);
+      retVal.add(DruidWindowRule.SORT);
+      retVal.add(DruidWindowRule.SORT_PROJECT);
+    }
+
     return retVal.build();
   }
 
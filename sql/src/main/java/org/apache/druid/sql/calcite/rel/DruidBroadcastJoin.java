@@ -0,0 +1,472 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.rel;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexShuttle;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.druid.common.config.NullHandling;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.guava.Accumulator;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.query.ResourceLimitExceededException;
+import org.apache.druid.segment.DimensionHandlerUtils;
+import org.apache.druid.sql.calcite.expression.builtin.BroadcastJoinLookupOperatorConversion;
+import org.apache.druid.sql.calcite.planner.PlannerContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DruidRel that joins a main query "left" with a small subquery "right" on an equality of one column of each side.
+ * The right-hand side is run first and must have unique join keys. Its rows are then broadcast to data servers as
+ * lookups embedded in the main query (see {@link BroadcastJoinLookupOperatorConversion}), which hash-join them per
+ * segment with the key column of the main query.
+ *
+ * The partial query of this rel is the one of the left-hand side, with the right-hand side columns projected as
+ * lookups of the left-hand side key. For INNER joins, it also filters out the rows whose key is not found.
+ */
+public class DruidBroadcastJoin extends DruidRel<DruidBroadcastJoin>
+{
+  // Joins are more expensive than semi-joins, and a small right-hand side is preferred.
+  private static final double COST_LEFT_MULTIPLIER = 1.0;
+  private static final double COST_RIGHT_MULTIPLIER = 100.0;
+
+  private final DruidRel<?> left;
+  private final int rightKey;
+  private final int maxBroadcastJoinRowsInMemory;
+  private RelNode right;
+
+  private DruidBroadcastJoin(
+      final RelOptCluster cluster,
+      final RelTraitSet traitSet,
+      final DruidRel<?> left,
+      final RelNode right,
+      final int rightKey,
+      final int maxBroadcastJoinRowsInMemory,
+      final QueryMaker queryMaker
+  )
+  {
+    super(cluster, traitSet, queryMaker);
+    this.left = left;
+    this.right = right;
+    this.rightKey = rightKey;
+    this.maxBroadcastJoinRowsInMemory = maxBroadcastJoinRowsInMemory;
+  }
+
+  /**
+   * Creates a join of the given rels.
+   *
+   * @param left        left-hand side, which must not be aggregating
+   * @param right       right-hand side
+   * @param leftKey     join key field of the left-hand side
+   * @param rightKey    join key field of the right-hand side
+   * @param joinType    INNER or LEFT
+   * @param joinRowType row type of the join, which is the left-hand side fields followed by the right-hand side fields
+   * @param projects    expressions to select, in terms of joinRowType
+   * @param fieldNames  names of the selected fields
+   */
+  public static DruidBroadcastJoin create(
+      final DruidRel<?> left,
+      final DruidRel<?> right,
+      final int leftKey,
+      final int rightKey,
+      final JoinRelType joinType,
+      final RelDataType joinRowType,
+      final List<RexNode> projects,
+      final List<String> fieldNames,
+      final PlannerContext plannerContext
+  )
+  {
+    final PartialDruidQuery leftPartialQuery = left.getPartialDruidQuery();
+    if (leftPartialQuery.stage().compareTo(PartialDruidQuery.Stage.SELECT_PROJECT) > 0) {
+      throw new ISE("LHS must not be an Aggregate");
+    }
+    if (joinType != JoinRelType.INNER && joinType != JoinRelType.LEFT) {
+      throw new ISE("Join type must be INNER or LEFT, not [%s]", joinType);
+    }
+
+    final RexBuilder rexBuilder = left.getCluster().getRexBuilder();
+    final RelNode scan = leftPartialQuery.getScan();
+    final List<RexNode> leftExpressions = new ArrayList<>();
+    if (leftPartialQuery.getSelectProject() != null) {
+      leftExpressions.addAll(leftPartialQuery.getSelectProject().getChildExps());
+    } else {
+      for (int i = 0; i < scan.getRowType().getFieldCount(); i++) {
+        leftExpressions.add(RexInputRef.of(i, scan.getRowType()));
+      }
+    }
+    final RexNode leftKeyExpression = leftExpressions.get(leftKey);
+    final List<RelDataTypeField> joinFields = joinRowType.getFieldList();
+
+    // Rewrite the selected expressions in terms of the left-hand side scan.
+    final List<RexNode> newProjects = new RexShuttle()
+    {
+      @Override
+      public RexNode visitInputRef(final RexInputRef ref)
+      {
+        if (ref.getIndex() < leftExpressions.size()) {
+          return leftExpressions.get(ref.getIndex());
+        } else {
+          return BroadcastJoinLookupOperatorConversion.makeCall(
+              rexBuilder,
+              joinFields.get(ref.getIndex()).getType(),
+              leftKeyExpression,
+              ref.getIndex() - leftExpressions.size()
+          );
+        }
+      }
+    }.apply(projects);
+
+    RexNode condition = leftPartialQuery.getWhereFilter() == null
+                        ? null
+                        : leftPartialQuery.getWhereFilter().getCondition();
+    if (joinType == JoinRelType.INNER) {
+      // Remove left-hand side rows without a match.
+      final RexNode matchCondition = rexBuilder.makeCall(
+          SqlStdOperatorTable.IS_NOT_NULL,
+          BroadcastJoinLookupOperatorConversion.makeCall(
+              rexBuilder,
+              rexBuilder.getTypeFactory().createTypeWithNullability(
+                  rexBuilder.getTypeFactory().createSqlType(SqlTypeName.VARCHAR),
+                  true
+              ),
+              leftKeyExpression,
+              BroadcastJoinLookupOperatorConversion.KEY_FIELD
+          )
+      );
+      condition = condition == null
+                  ? matchCondition
+                  : RexUtil.composeConjunction(rexBuilder, ImmutableList.of(condition, matchCondition), false);
+    }
+
+    PartialDruidQuery newPartialQuery = PartialDruidQuery.create(scan);
+    RelNode projectInput = scan;
+    if (condition != null) {
+      final Filter whereFilter = LogicalFilter.create(scan, condition);
+      newPartialQuery = newPartialQuery.withWhereFilter(whereFilter);
+      projectInput = whereFilter;
+    }
+    newPartialQuery = newPartialQuery.withSelectProject(LogicalProject.create(projectInput, newProjects, fieldNames));
+
+    return new DruidBroadcastJoin(
+        left.getCluster(),
+        left.getTraitSet().plusAll(newPartialQuery.getRelTraits()),
+        left.withPartialQuery(newPartialQuery),
+        right,
+        rightKey,
+        plannerContext.getPlannerConfig().getMaxBroadcastJoinRowsInMemory(),
+        left.getQueryMaker()
+    );
+  }
+
+  @Override
+  public PartialDruidQuery getPartialDruidQuery()
+  {
+    return left.getPartialDruidQuery();
+  }
+
+  @Override
+  public DruidBroadcastJoin withPartialQuery(final PartialDruidQuery newQueryBuilder)
+  {
+    return new DruidBroadcastJoin(
+        getCluster(),
+        getTraitSet().plusAll(newQueryBuilder.getRelTraits()),
+        left.withPartialQuery(newQueryBuilder),
+        right,
+        rightKey,
+        maxBroadcastJoinRowsInMemory,
+        getQueryMaker()
+    );
+  }
+
+  @Override
+  public DruidQuery toDruidQuery(final boolean finalizeAggregations)
+  {
+    return getLeftRelWithLookups().toDruidQuery(finalizeAggregations);
+  }
+
+  @Override
+  public DruidQuery toDruidQueryForExplaining()
+  {
+    return left.toDruidQueryForExplaining();
+  }
+
+  @Override
+  public DruidBroadcastJoin asDruidConvention()
+  {
+    return new DruidBroadcastJoin(
+        getCluster(),
+        getTraitSet().replace(DruidConvention.instance()),
+        left,
+        RelOptRule.convert(right, DruidConvention.instance()),
+        rightKey,
+        maxBroadcastJoinRowsInMemory,
+        getQueryMaker()
+    );
+  }
+
+  @Override
+  public List<String> getDataSourceNames()
+  {
+    final DruidRel<?> druidRight = (DruidRel) this.right;
+    Set<String> datasourceNames = new LinkedHashSet<>();
+    datasourceNames.addAll(left.getDataSourceNames());
+    datasourceNames.addAll(druidRight.getDataSourceNames());
+    return new ArrayList<>(datasourceNames);
+  }
+
+  @Override
+  public int getQueryCount()
+  {
+    return left.getQueryCount() + ((DruidRel) right).getQueryCount();
+  }
+
+  @Override
+  public Sequence<Object[]> runQuery()
+  {
+    return getLeftRelWithLookups().runQuery();
+  }
+
+  @Override
+  protected RelDataType deriveRowType()
+  {
+    return left.getRowType();
+  }
+
+  @Override
+  public List<RelNode> getInputs()
+  {
+    return ImmutableList.of(right);
+  }
+
+  @Override
+  public void replaceInput(int ordinalInParent, RelNode p)
+  {
+    if (ordinalInParent != 0) {
+      throw new IndexOutOfBoundsException(StringUtils.format("Invalid ordinalInParent[%s]", ordinalInParent));
+    }
+    // 'right' is the only one Calcite concerns. See getInputs().
+    this.right = p;
+  }
+
+  @Override
+  public RelNode copy(final RelTraitSet traitSet, final List<RelNode> inputs)
+  {
+    return new DruidBroadcastJoin(
+        getCluster(),
+        getTraitSet(),
+        left,
+        Iterables.getOnlyElement(inputs),
+        rightKey,
+        maxBroadcastJoinRowsInMemory,
+        getQueryMaker()
+    );
+  }
+
+  @Override
+  public RelWriter explainTerms(RelWriter pw)
+  {
+    final String queryString;
+
+    try {
+      queryString = getQueryMaker().getJsonMapper().writeValueAsString(toDruidQueryForExplaining().getQuery());
+    }
+    catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+
+    return super.explainTerms(pw)
+                .input("right", right)
+                .item("query", queryString)
+                .item("rightKey", rightKey);
+  }
+
+  @Override
+  public RelOptCost computeSelfCost(final RelOptPlanner planner, final RelMetadataQuery mq)
+  {
+    return left.computeSelfCost(planner, mq)
+               .multiplyBy(COST_LEFT_MULTIPLIER)
+               .plus(right.computeSelfCost(planner, mq).multiplyBy(COST_RIGHT_MULTIPLIER));
+  }
+
+  /**
+   * Returns a copy of the left rel with the lookups filled in from the right-hand side. This is an expensive operation
+   * since it actually executes the right-hand side query.
+   */
+  private DruidRel<?> getLeftRelWithLookups()
+  {
+    final DruidRel<?> druidRight = (DruidRel) this.right;
+    final PartialDruidQuery leftPartialQuery = left.getPartialDruidQuery();
+    final Filter whereFilter = leftPartialQuery.getWhereFilter();
+    final Project selectProject = leftPartialQuery.getSelectProject();
+
+    // Find the right-hand side fields to look up.
+    final IntSet fields = new IntOpenHashSet();
+    final RexShuttle fieldFinder = new RexShuttle()
+    {
+      @Override
+      public RexNode visitCall(final RexCall call)
+      {
+        if (BroadcastJoinLookupOperatorConversion.isCall(call)) {
+          fields.add(BroadcastJoinLookupOperatorConversion.getField(call));
+        }
+        return super.visitCall(call);
+      }
+    };
+    if (whereFilter != null) {
+      whereFilter.getCondition().accept(fieldFinder);
+    }
+    if (selectProject != null) {
+      fieldFinder.apply(selectProject.getChildExps());
+    }
+
+    // Build one table from the right-hand side, shared by all the lookups of this join. Only the looked up fields are
+    // kept.
+    final int rightFieldCount = right.getRowType().getFieldCount();
+    final Map<String, String[]> table = druidRight.runQuery().accumulate(
+        new HashMap<>(),
+        new Accumulator<Map<String, String[]>, Object[]>()
+        {
+          @Override
+          public Map<String, String[]> accumulate(final Map<String, String[]> accumulated, final Object[] row)
+          {
+            final String key = DimensionHandlerUtils.convertObjectToString(row[rightKey]);
+            if (NullHandling.isNullOrEquivalent(key)) {
+              // NULLs are not supposed to match NULLs in a join. So ignore them.
+              return accumulated;
+            }
+
+            final String[] values = new String[rightFieldCount];
+            for (IntIterator it = fields.iterator(); it.hasNext(); ) {
+              final int field = it.nextInt();
+              if (field != BroadcastJoinLookupOperatorConversion.KEY_FIELD) {
+                values[field] = DimensionHandlerUtils.convertObjectToString(row[field]);
+              }
+            }
+
+            if (accumulated.putIfAbsent(key, values) != null) {
+              throw new CannotBuildQueryException(
+                  StringUtils.format("Right-hand side of a broadcast join has more than one row for key[%s]", key)
+              );
+            }
+
+            if (accumulated.size() > maxBroadcastJoinRowsInMemory) {
+              throw new ResourceLimitExceededException(
+                  StringUtils.format("maxBroadcastJoinRowsInMemory[%,d] exceeded", maxBroadcastJoinRowsInMemory)
+              );
+            }
+            return accumulated;
+          }
+        }
+    );
+    final int tableId = getPlannerContext().addBroadcastJoinTable(table);
+
+    // Point the empty lookups to the table.
+    final RexBuilder rexBuilder = getCluster().getRexBuilder();
+    final RexShuttle lookupFiller = new RexShuttle()
+    {
+      @Override
+      public RexNode visitCall(final RexCall call)
+      {
+        if (BroadcastJoinLookupOperatorConversion.isCall(call)) {
+          return BroadcastJoinLookupOperatorConversion.withTable(rexBuilder, call, tableId);
+        }
+        return super.visitCall(call);
+      }
+    };
+
+    PartialDruidQuery newPartialQuery = PartialDruidQuery.create(leftPartialQuery.getScan());
+
+    if (whereFilter != null) {
+      newPartialQuery = newPartialQuery.withWhereFilter(
+          whereFilter.copy(
+              whereFilter.getTraitSet(),
+              whereFilter.getInput(),
+              whereFilter.getCondition().accept(lookupFiller)
+          )
+      );
+    }
+
+    if (selectProject != null) {
+      newPartialQuery = newPartialQuery.withSelectProject(
+          selectProject.copy(
+              selectProject.getTraitSet(),
+              selectProject.getInput(),
+              lookupFiller.apply(selectProject.getChildExps()),
+              selectProject.getRowType()
+          )
+      );
+    }
+
+    if (leftPartialQuery.getAggregate() != null) {
+      newPartialQuery = newPartialQuery.withAggregate(leftPartialQuery.getAggregate());
+    }
+
+    if (leftPartialQuery.getHavingFilter() != null) {
+      newPartialQuery = newPartialQuery.withHavingFilter(leftPartialQuery.getHavingFilter());
+    }
+
+    if (leftPartialQuery.getAggregateProject() != null) {
+      newPartialQuery = newPartialQuery.withAggregateProject(leftPartialQuery.getAggregateProject());
+    }
+
+    if (leftPartialQuery.getSort() != null) {
+      newPartialQuery = newPartialQuery.withSort(leftPartialQuery.getSort());
+    }
+
+    if (leftPartialQuery.getSortProject() != null) {
+      newPartialQuery = newPartialQuery.withSortProject(leftPartialQuery.getSortProject());
+    }
+
+    return left.withPartialQuery(newPartialQuery);
+  }
+}
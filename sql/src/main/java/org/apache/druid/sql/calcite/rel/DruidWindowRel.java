@@ -0,0 +1,601 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.rel;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.MinMaxPriorityQueue;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelTrait;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.druid.java.util.common.ISE;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.guava.LazySequence;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Sequences;
+import org.apache.druid.math.expr.Expr;
+import org.apache.druid.math.expr.Parser;
+import org.apache.druid.query.ResourceLimitExceededException;
+import org.apache.druid.query.ordering.StringComparators;
+import org.apache.druid.sql.calcite.expression.DruidExpression;
+import org.apache.druid.sql.calcite.expression.Expressions;
+import org.apache.druid.sql.calcite.table.RowSignature;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * DruidRel that computes window functions on the Broker, over the results of another DruidRel. The other DruidRel must
+ * sort its results as described by {@link Windowing#getSortCollations()}.
+ *
+ * Like the stages of a {@link PartialDruidQuery}, a filter, a projection, a sort with an optional limit, and a
+ * projection of the sorted rows can be applied to the output of the window functions, in this order. They are
+ * evaluated on the Broker too, since the window functions are only known once the native query has run.
+ */
+public class DruidWindowRel extends DruidRel<DruidWindowRel>
+{
+  public enum Stage
+  {
+    WINDOW,
+    WHERE_FILTER,
+    SELECT_PROJECT,
+    SORT,
+    SORT_PROJECT
+  }
+
+  private final Windowing windowing;
+  private final RelDataType windowRowType;
+  @Nullable
+  private final Filter whereFilter;
+  @Nullable
+  private final Project selectProject;
+  @Nullable
+  private final Sort sort;
+  @Nullable
+  private final Project sortProject;
+  private RelNode sourceRel;
+
+  private DruidWindowRel(
+      final RelOptCluster cluster,
+      final RelTraitSet traitSet,
+      final RelNode sourceRel,
+      final Windowing windowing,
+      final RelDataType windowRowType,
+      @Nullable final Filter whereFilter,
+      @Nullable final Project selectProject,
+      @Nullable final Sort sort,
+      @Nullable final Project sortProject,
+      final QueryMaker queryMaker
+  )
+  {
+    super(cluster, traitSet, queryMaker);
+    this.sourceRel = sourceRel;
+    this.windowing = windowing;
+    this.windowRowType = windowRowType;
+    this.whereFilter = whereFilter;
+    this.selectProject = selectProject;
+    this.sort = sort;
+    this.sortProject = sortProject;
+  }
+
+  public static DruidWindowRel create(
+      final DruidRel<?> sourceRel,
+      final Windowing windowing,
+      final RelDataType windowRowType
+  )
+  {
+    return new DruidWindowRel(
+        sourceRel.getCluster(),
+        sourceRel.getTraitSet(),
+        sourceRel,
+        windowing,
+        windowRowType,
+        null,
+        null,
+        null,
+        null,
+        sourceRel.getQueryMaker()
+    );
+  }
+
+  public Stage stage()
+  {
+    if (sortProject != null) {
+      return Stage.SORT_PROJECT;
+    } else if (sort != null) {
+      return Stage.SORT;
+    } else if (selectProject != null) {
+      return Stage.SELECT_PROJECT;
+    } else if (whereFilter != null) {
+      return Stage.WHERE_FILTER;
+    } else {
+      return Stage.WINDOW;
+    }
+  }
+
+  public boolean canAccept(final Stage stage)
+  {
+    return stage.compareTo(stage()) > 0 && (stage != Stage.SORT_PROJECT || sort != null);
+  }
+
+  /**
+   * Returns a copy of this rel with a filter applied to the output of the window functions, or null if the filter
+   * cannot be evaluated on the Broker.
+   */
+  @Nullable
+  public DruidWindowRel withWhereFilter(final Filter newWhereFilter)
+  {
+    checkCanAccept(Stage.WHERE_FILTER);
+    if (!canEvaluate(newWhereFilter.getCondition(), windowRowType)) {
+      return null;
+    }
+    return new DruidWindowRel(
+        getCluster(),
+        getTraitSet().plusAll(newWhereFilter.getTraitSet().toArray(new RelTrait[0])),
+        sourceRel,
+        windowing,
+        windowRowType,
+        newWhereFilter,
+        null,
+        null,
+        null,
+        getQueryMaker()
+    );
+  }
+
+  /**
+   * Returns a copy of this rel with a projection applied to the output of the window functions, or null if the
+   * projection cannot be evaluated on the Broker.
+   */
+  @Nullable
+  public DruidWindowRel withSelectProject(final Project newSelectProject)
+  {
+    checkCanAccept(Stage.SELECT_PROJECT);
+    for (RexNode project : newSelectProject.getProjects()) {
+      if (!canEvaluate(project, windowRowType)) {
+        return null;
+      }
+    }
+    return new DruidWindowRel(
+        getCluster(),
+        getTraitSet().plusAll(newSelectProject.getTraitSet().toArray(new RelTrait[0])),
+        sourceRel,
+        windowing,
+        windowRowType,
+        whereFilter,
+        newSelectProject,
+        null,
+        null,
+        getQueryMaker()
+    );
+  }
+
+  /**
+   * Returns a copy of this rel with its rows sorted and/or limited, or null if the offset or limit is not a literal.
+   */
+  @Nullable
+  public DruidWindowRel withSort(final Sort newSort)
+  {
+    checkCanAccept(Stage.SORT);
+    if ((newSort.offset != null && !(newSort.offset instanceof RexLiteral))
+        || (newSort.fetch != null && !(newSort.fetch instanceof RexLiteral))) {
+      return null;
+    }
+    return new DruidWindowRel(
+        getCluster(),
+        getTraitSet().plusAll(newSort.getTraitSet().toArray(new RelTrait[0])),
+        sourceRel,
+        windowing,
+        windowRowType,
+        whereFilter,
+        selectProject,
+        newSort,
+        null,
+        getQueryMaker()
+    );
+  }
+
+  /**
+   * Returns a copy of this rel with a projection applied to its sorted rows, or null if the projection cannot be
+   * evaluated on the Broker.
+   */
+  @Nullable
+  public DruidWindowRel withSortProject(final Project newSortProject)
+  {
+    checkCanAccept(Stage.SORT_PROJECT);
+    for (RexNode project : newSortProject.getProjects()) {
+      if (!canEvaluate(project, getSelectRowType())) {
+        return null;
+      }
+    }
+    return new DruidWindowRel(
+        getCluster(),
+        getTraitSet().plusAll(newSortProject.getTraitSet().toArray(new RelTrait[0])),
+        sourceRel,
+        windowing,
+        windowRowType,
+        whereFilter,
+        selectProject,
+        sort,
+        newSortProject,
+        getQueryMaker()
+    );
+  }
+
+  private void checkCanAccept(final Stage stage)
+  {
+    if (!canAccept(stage)) {
+      throw new ISE("Cannot move from stage[%s] to stage[%s]", stage(), stage);
+    }
+  }
+
+  private boolean canEvaluate(final RexNode rexNode, final RelDataType inputRowType)
+  {
+    if (rexNode instanceof RexInputRef) {
+      return true;
+    }
+
+    // Time values are shifted to the SQL time zone at this point, but Druid expressions expect them in UTC.
+    for (int field : RelOptUtil.InputFinder.bits(rexNode)) {
+      final SqlTypeName inputType = inputRowType.getFieldList().get(field).getType().getSqlTypeName();
+      if (inputType == SqlTypeName.TIMESTAMP || inputType == SqlTypeName.DATE) {
+        return false;
+      }
+    }
+
+    final RowSignature inputSignature = RowSignature.from(inputRowType.getFieldNames(), inputRowType);
+    return Expressions.toDruidExpression(getPlannerContext(), inputSignature, rexNode) != null;
+  }
+
+  /**
+   * Returns null, since window functions are computed after the native query has run. Filters, projections, sorts and
+   * limits on top of a window are applied through {@link #withWhereFilter}, {@link #withSelectProject},
+   * {@link #withSort} and {@link #withSortProject} instead.
+   */
+  @Override
+  @Nullable
+  public PartialDruidQuery getPartialDruidQuery()
+  {
+    return null;
+  }
+
+  @Override
+  public int getQueryCount()
+  {
+    return ((DruidRel<?>) sourceRel).getQueryCount();
+  }
+
+  @Override
+  public Sequence<Object[]> runQuery()
+  {
+    final int inputFieldCount = sourceRel.getRowType().getFieldCount();
+    final List<SqlTypeName> outputTypes = new ArrayList<>();
+    for (int i = inputFieldCount; i < windowRowType.getFieldCount(); i++) {
+      outputTypes.add(windowRowType.getFieldList().get(i).getType().getSqlTypeName());
+    }
+
+    // Window function results, unlike the input rows, have not been coerced to their SQL types yet.
+    Sequence<Object[]> retVal = Sequences.map(
+        windowing.apply(
+            ((DruidRel<?>) sourceRel).runQuery(),
+            getPlannerContext().getPlannerConfig().getMaxWindowRowsInMemory()
+        ),
+        row -> {
+          for (int i = 0; i < outputTypes.size(); i++) {
+            row[inputFieldCount + i] = getQueryMaker().coerce(row[inputFieldCount + i], outputTypes.get(i));
+          }
+          return row;
+        }
+    );
+
+    if (whereFilter != null) {
+      retVal = Sequences.filter(retVal, makeFilterFn(whereFilter.getCondition(), windowRowType));
+    }
+
+    if (selectProject != null) {
+      retVal = Sequences.map(retVal, makeProjectFn(selectProject.getProjects(), windowRowType));
+    }
+
+    if (sort != null) {
+      retVal = applySort(retVal);
+    }
+
+    if (sortProject != null) {
+      retVal = Sequences.map(retVal, makeProjectFn(sortProject.getProjects(), getSelectRowType()));
+    }
+
+    return retVal;
+  }
+
+  private RelDataType getSelectRowType()
+  {
+    return selectProject == null ? windowRowType : selectProject.getRowType();
+  }
+
+  private Predicate<Object[]> makeFilterFn(final RexNode condition, final RelDataType inputRowType)
+  {
+    final Object2IntMap<String> fieldNumbers = makeFieldNumbers(inputRowType);
+    final Expr expr = toExpr(condition, inputRowType);
+    return row -> expr.eval(name -> row[fieldNumbers.getInt(name)]).asBoolean();
+  }
+
+  private Function<Object[], Object[]> makeProjectFn(final List<RexNode> projects, final RelDataType inputRowType)
+  {
+    final Object2IntMap<String> fieldNumbers = makeFieldNumbers(inputRowType);
+    final List<Function<Object[], Object>> projectFns = new ArrayList<>();
+    for (RexNode project : projects) {
+      if (project instanceof RexInputRef) {
+        final int field = ((RexInputRef) project).getIndex();
+        projectFns.add(row -> row[field]);
+      } else {
+        final Expr expr = toExpr(project, inputRowType);
+        final SqlTypeName sqlType = project.getType().getSqlTypeName();
+        projectFns.add(
+            row -> getQueryMaker().coerce(expr.eval(name -> row[fieldNumbers.getInt(name)]).value(), sqlType)
+        );
+      }
+    }
+
+    return row -> {
+      final Object[] retVal = new Object[projectFns.size()];
+      for (int i = 0; i < projectFns.size(); i++) {
+        retVal[i] = projectFns.get(i).apply(row);
+      }
+      return retVal;
+    };
+  }
+
+  private Expr toExpr(final RexNode rexNode, final RelDataType inputRowType)
+  {
+    final RowSignature inputSignature = RowSignature.from(inputRowType.getFieldNames(), inputRowType);
+    final DruidExpression expression = Expressions.toDruidExpression(getPlannerContext(), inputSignature, rexNode);
+    if (expression == null) {
+      throw new ISE("Cannot translate expression[%s]", rexNode);
+    }
+    return Parser.parse(expression.getExpression(), getPlannerContext().getExprMacroTable());
+  }
+
+  private static Object2IntMap<String> makeFieldNumbers(final RelDataType rowType)
+  {
+    final Object2IntMap<String> fieldNumbers = new Object2IntOpenHashMap<>();
+    for (int i = 0; i < rowType.getFieldCount(); i++) {
+      fieldNumbers.put(rowType.getFieldNames().get(i), i);
+    }
+    return fieldNumbers;
+  }
+
+  private Sequence<Object[]> applySort(final Sequence<Object[]> rows)
+  {
+    final long offset = sort.offset == null ? 0 : RexLiteral.intValue(sort.offset);
+    final long limit = sort.fetch == null ? Long.MAX_VALUE : offset + RexLiteral.intValue(sort.fetch);
+    final List<RelFieldCollation> collations = sort.getCollation().getFieldCollations();
+
+    if (collations.isEmpty()) {
+      // No need to materialize the rows for a limit.
+      return new LazySequence<>(
+          () -> {
+            final long[] rowNumber = {0};
+            return Sequences.filter(rows.limit(limit), row -> rowNumber[0]++ >= offset);
+          }
+      );
+    }
+
+    // Only the top rows are kept if there is a limit. Either way, materializing them is bounded like a window
+    // partition is.
+    final int maxRowsInMemory = getPlannerContext().getPlannerConfig().getMaxWindowRowsInMemory();
+    final Comparator<Object[]> comparator = makeComparator(collations);
+    return new LazySequence<>(
+        () -> {
+          final Collection<Object[]> topRows = rows.accumulate(
+              limit > maxRowsInMemory
+              ? new ArrayList<>()
+              : MinMaxPriorityQueue.orderedBy(comparator).maximumSize((int) limit).create(),
+              (accumulated, row) -> {
+                accumulated.add(row);
+                if (accumulated.size() > maxRowsInMemory) {
+                  throw new ResourceLimitExceededException(
+                      StringUtils.format("maxWindowRowsInMemory[%,d] exceeded", maxRowsInMemory)
+                  );
+                }
+                return accumulated;
+              }
+          );
+
+          final List<Object[]> sortedRows = new ArrayList<>(topRows);
+          sortedRows.sort(comparator);
+          return Sequences.simple(
+              sortedRows.subList((int) Math.min(offset, sortedRows.size()), (int) Math.min(limit, sortedRows.size()))
+          );
+        }
+    );
+  }
+
+  private static Comparator<Object[]> makeComparator(final List<RelFieldCollation> collations)
+  {
+    Comparator<Object[]> retVal = null;
+    for (RelFieldCollation collation : collations) {
+      final int field = collation.getFieldIndex();
+      Comparator<Object> valueComparator = DruidWindowRel::compareValues;
+      if (collation.getDirection().isDescending()) {
+        valueComparator = valueComparator.reversed();
+      }
+
+      final RelFieldCollation.NullDirection nullDirection =
+          collation.nullDirection == RelFieldCollation.NullDirection.UNSPECIFIED
+          ? collation.getDirection().defaultNullDirection()
+          : collation.nullDirection;
+      valueComparator = nullDirection == RelFieldCollation.NullDirection.FIRST
+                        ? Comparator.nullsFirst(valueComparator)
+                        : Comparator.nullsLast(valueComparator);
+
+      final Comparator<Object[]> fieldComparator = Comparator.comparing(row -> row[field], valueComparator);
+      retVal = retVal == null ? fieldComparator : retVal.thenComparing(fieldComparator);
+    }
+    return retVal;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compareValues(final Object a, final Object b)
+  {
+    if (a instanceof String && b instanceof String) {
+      // Like the native queries sort strings.
+      return StringComparators.LEXICOGRAPHIC.compare((String) a, (String) b);
+    } else if (a instanceof Number && b instanceof Number) {
+      if ((a instanceof Long || a instanceof Integer) && (b instanceof Long || b instanceof Integer)) {
+        return Long.compare(((Number) a).longValue(), ((Number) b).longValue());
+      } else {
+        return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+      }
+    } else {
+      return ((Comparable<Object>) a).compareTo(b);
+    }
+  }
+
+  @Override
+  public DruidWindowRel withPartialQuery(final PartialDruidQuery newQueryBuilder)
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Nullable
+  @Override
+  public DruidQuery toDruidQuery(final boolean finalizeAggregations)
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public DruidQuery toDruidQueryForExplaining()
+  {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public DruidWindowRel asDruidConvention()
+  {
+    return new DruidWindowRel(
+        getCluster(),
+        getTraitSet().replace(DruidConvention.instance()),
+        RelOptRule.convert(sourceRel, DruidConvention.instance()),
+        windowing,
+        windowRowType,
+        whereFilter,
+        selectProject,
+        sort,
+        sortProject,
+        getQueryMaker()
+    );
+  }
+
+  @Override
+  public List<RelNode> getInputs()
+  {
+    return ImmutableList.of(sourceRel);
+  }
+
+  @Override
+  public void replaceInput(int ordinalInParent, RelNode p)
+  {
+    if (ordinalInParent != 0) {
+      throw new IndexOutOfBoundsException(StringUtils.format("Invalid ordinalInParent[%s]", ordinalInParent));
+    }
+    this.sourceRel = p;
+  }
+
+  @Override
+  public RelNode copy(final RelTraitSet traitSet, final List<RelNode> inputs)
+  {
+    return new DruidWindowRel(
+        getCluster(),
+        traitSet,
+        Iterables.getOnlyElement(inputs),
+        windowing,
+        windowRowType,
+        whereFilter,
+        selectProject,
+        sort,
+        sortProject,
+        getQueryMaker()
+    );
+  }
+
+  @Override
+  public List<String> getDataSourceNames()
+  {
+    return ((DruidRel<?>) sourceRel).getDataSourceNames();
+  }
+
+  @Override
+  public RelWriter explainTerms(RelWriter pw)
+  {
+    return super.explainTerms(pw)
+                .input("innerQuery", sourceRel)
+                .item("windowing", windowing)
+                .itemIf("whereFilter", whereFilter == null ? null : whereFilter.getCondition(), whereFilter != null)
+                .itemIf(
+                    "selectProjects",
+                    selectProject == null ? null : selectProject.getProjects(),
+                    selectProject != null
+                )
+                .itemIf("sort", sort == null ? null : sort.getCollation(), sort != null)
+                .itemIf("offset", sort == null ? null : sort.offset, sort != null && sort.offset != null)
+                .itemIf("fetch", sort == null ? null : sort.fetch, sort != null && sort.fetch != null)
+                .itemIf("sortProjects", sortProject == null ? null : sortProject.getProjects(), sortProject != null);
+  }
+
+  @Override
+  protected RelDataType deriveRowType()
+  {
+    if (sortProject != null) {
+      return sortProject.getRowType();
+    } else {
+      return getSelectRowType();
+    }
+  }
+
+  @Override
+  public RelOptCost computeSelfCost(final RelOptPlanner planner, final RelMetadataQuery mq)
+  {
+    return planner.getCostFactory().makeCost(mq.getRowCount(sourceRel), 0, 0).multiplyBy(10);
+  }
+}
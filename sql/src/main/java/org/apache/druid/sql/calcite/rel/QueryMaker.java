@@ -58,9 +58,11 @@ import org.joda.time.DateTime;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -69,16 +71,28 @@ public class QueryMaker
   private final QueryLifecycleFactory queryLifecycleFactory;
   private final PlannerContext plannerContext;
   private final ObjectMapper jsonMapper;
+  private final Set<QueryRewriter> queryRewriters;
 
   public QueryMaker(
       final QueryLifecycleFactory queryLifecycleFactory,
       final PlannerContext plannerContext,
       final ObjectMapper jsonMapper
   )
+  {
+    this(queryLifecycleFactory, plannerContext, jsonMapper, Collections.emptySet());
+  }
+
+  public QueryMaker(
+      final QueryLifecycleFactory queryLifecycleFactory,
+      final PlannerContext plannerContext,
+      final ObjectMapper jsonMapper,
+      final Set<QueryRewriter> queryRewriters
+  )
   {
     this.queryLifecycleFactory = queryLifecycleFactory;
     this.plannerContext = plannerContext;
     this.jsonMapper = jsonMapper;
+    this.queryRewriters = queryRewriters;
   }
 
   public PlannerContext getPlannerContext()
@@ -180,6 +194,10 @@ public class QueryMaker
     query = query.withId(queryId)
                  .withSqlQueryId(plannerContext.getSqlQueryId());
 
+    for (QueryRewriter queryRewriter : queryRewriters) {
+      query = queryRewriter.rewrite(query);
+    }
+
     final AuthenticationResult authenticationResult = plannerContext.getAuthenticationResult();
     return queryLifecycleFactory.factorize().runSimple(query, authenticationResult, null);
   }
@@ -307,7 +325,7 @@ public class QueryMaker
     }
   }
 
-  private Object coerce(final Object value, final SqlTypeName sqlType)
+  Object coerce(final Object value, final SqlTypeName sqlType)
   {
     final Object coercedValue;
 
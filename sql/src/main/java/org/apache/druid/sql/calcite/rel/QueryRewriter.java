@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.rel;
+
+import org.apache.druid.query.Query;
+
+/**
+ * Rewrites the native queries made by {@link QueryMaker} right before they run, for example to read from a smaller,
+ * pre-aggregated datasource than the one named in SQL. Extensions bind implementations with
+ * {@link org.apache.druid.sql.guice.SqlBindings#addQueryRewriter}.
+ *
+ * Rewriting happens at execution time rather than while planning, so that plans stay cacheable while the set of
+ * datasources (and the intervals they cover) changes.
+ */
+public interface QueryRewriter
+{
+  /**
+   * Returns the query to run instead of the given one, or the given query if it shouldn't be rewritten. The returned
+   * query must return results of the same type, in the same shape, as the given query.
+   */
+  <T> Query<T> rewrite(Query<T> query);
+}
@@ -0,0 +1,696 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.rel;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.core.Window;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexWindowBound;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.guava.BaseSequence;
+import org.apache.druid.java.util.common.guava.Sequence;
+import org.apache.druid.java.util.common.guava.Yielder;
+import org.apache.druid.java.util.common.guava.Yielders;
+import org.apache.druid.query.ResourceLimitExceededException;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Represents window functions (aggregations with an OVER clause), computed on the Broker over the results of a native
+ * query. The results must be sorted by the partition keys, then by the order keys, so partitions can be processed one
+ * at a time: only the rows of the current partition are held in memory.
+ *
+ * This corresponds to a Calcite Window with a single group.
+ */
+public class Windowing
+{
+  enum FunctionKind
+  {
+    ROW_NUMBER,
+    RANK,
+    DENSE_RANK,
+    LAG,
+    LEAD,
+    FIRST_VALUE,
+    LAST_VALUE,
+    COUNT,
+    SUM,
+    SUM0,
+    AVG,
+    MIN,
+    MAX
+  }
+
+  private final int[] partitionKeys;
+  private final int[] orderKeys;
+  private final List<RelFieldCollation> orderCollations;
+  private final boolean rows;
+
+  // Frame bounds, relative to the current row: null is unbounded, negative is preceding, positive is following.
+  // For RANGE frames, only null and 0 (the peers of the current row) are supported.
+  @Nullable
+  private final Integer lowerBound;
+  @Nullable
+  private final Integer upperBound;
+
+  private final List<Function> functions;
+
+  private Windowing(
+      final int[] partitionKeys,
+      final List<RelFieldCollation> orderCollations,
+      final boolean rows,
+      @Nullable final Integer lowerBound,
+      @Nullable final Integer upperBound,
+      final List<Function> functions
+  )
+  {
+    this.partitionKeys = partitionKeys;
+    this.orderCollations = orderCollations;
+    this.orderKeys = orderCollations.stream().mapToInt(RelFieldCollation::getFieldIndex).toArray();
+    this.rows = rows;
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    this.functions = functions;
+  }
+
+  /**
+   * Returns a Windowing for the given Calcite Window, or null if it uses something we can't compute.
+   */
+  @Nullable
+  public static Windowing fromWindow(final Window window)
+  {
+    if (window.groups.size() != 1) {
+      return null;
+    }
+
+    final Window.Group group = window.groups.get(0);
+    final int inputFieldCount = window.getInput().getRowType().getFieldCount();
+    final List<RexLiteral> constants = window.getConstants();
+
+    final Integer lowerBound;
+    final Integer upperBound;
+    try {
+      lowerBound = toBound(group.lowerBound, group.isRows, inputFieldCount, constants);
+      upperBound = toBound(group.upperBound, group.isRows, inputFieldCount, constants);
+    }
+    catch (UnsupportedBoundException e) {
+      return null;
+    }
+
+    final List<Function> functions = new ArrayList<>();
+    for (Window.RexWinAggCall aggCall : group.aggCalls) {
+      final Function function = Function.fromAggCall(aggCall, inputFieldCount, constants);
+      if (function == null) {
+        return null;
+      }
+      functions.add(function);
+    }
+
+    return new Windowing(
+        group.keys.toArray(),
+        group.orderKeys.getFieldCollations(),
+        group.isRows,
+        lowerBound,
+        upperBound,
+        functions
+    );
+  }
+
+  @Nullable
+  private static Integer toBound(
+      final RexWindowBound bound,
+      final boolean rows,
+      final int inputFieldCount,
+      final List<RexLiteral> constants
+  ) throws UnsupportedBoundException
+  {
+    if (bound.isUnbounded()) {
+      return null;
+    } else if (bound.isCurrentRow()) {
+      return 0;
+    } else if (!rows) {
+      // RANGE frames with offsets would require arithmetic on the order key.
+      throw new UnsupportedBoundException();
+    }
+
+    final Object offset = getConstant(bound.getOffset(), inputFieldCount, constants);
+    if (!(offset instanceof Number)) {
+      throw new UnsupportedBoundException();
+    }
+
+    final int offsetInt = Ints.checkedCast(((Number) offset).longValue());
+    return bound.isPreceding() ? -offsetInt : offsetInt;
+  }
+
+  /**
+   * Returns the value of a constant operand, which Calcite represents either as a literal or as a reference past the
+   * end of the input row, to {@link Window#getConstants()}. Throws UnsupportedBoundException for other operands.
+   */
+  @Nullable
+  private static Object getConstant(
+      @Nullable final RexNode rexNode,
+      final int inputFieldCount,
+      final List<RexLiteral> constants
+  ) throws UnsupportedBoundException
+  {
+    final RexLiteral literal;
+    if (rexNode instanceof RexLiteral) {
+      literal = (RexLiteral) rexNode;
+    } else if (rexNode instanceof RexInputRef && ((RexInputRef) rexNode).getIndex() >= inputFieldCount) {
+      literal = constants.get(((RexInputRef) rexNode).getIndex() - inputFieldCount);
+    } else {
+      throw new UnsupportedBoundException();
+    }
+
+    return literal.getValue2();
+  }
+
+  /**
+   * Fields of the input that rows must be sorted on: partition keys, then order keys.
+   */
+  public List<RelFieldCollation> getSortCollations()
+  {
+    final List<RelFieldCollation> retVal = new ArrayList<>();
+    for (int partitionKey : partitionKeys) {
+      retVal.add(new RelFieldCollation(partitionKey));
+    }
+    for (RelFieldCollation orderCollation : orderCollations) {
+      if (!Ints.contains(partitionKeys, orderCollation.getFieldIndex())) {
+        retVal.add(orderCollation);
+      }
+    }
+    return retVal;
+  }
+
+  public List<Function> getFunctions()
+  {
+    return functions;
+  }
+
+  /**
+   * Computes window functions over the given rows, which must be sorted as described by {@link #getSortCollations()}.
+   * Returned rows have the input fields, followed by one field per function.
+   *
+   * @param maxRowsInMemory maximum number of rows in a partition
+   */
+  public Sequence<Object[]> apply(final Sequence<Object[]> sequence, final int maxRowsInMemory)
+  {
+    return new BaseSequence<>(
+        new BaseSequence.IteratorMaker<Object[], PartitionIterator>()
+        {
+          @Override
+          public PartitionIterator make()
+          {
+            return new PartitionIterator(Yielders.each(sequence), maxRowsInMemory);
+          }
+
+          @Override
+          public void cleanup(final PartitionIterator iterFromMake)
+          {
+            try {
+              iterFromMake.close();
+            }
+            catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+        }
+    );
+  }
+
+  /**
+   * Computes window functions over one partition, in place: function values are written past the input fields.
+   */
+  void computePartition(final List<Object[]> partition, final int inputFieldCount)
+  {
+    final int n = partition.size();
+
+    // Peers are rows with equal order keys. Without order keys, all rows of the partition are peers.
+    final int[] peerStart = new int[n];
+    final int[] peerEnd = new int[n];
+    final int[] peerGroup = new int[n];
+    for (int i = 0, group = 0; i < n; i++) {
+      if (i > 0 && isPeer(partition.get(i - 1), partition.get(i))) {
+        peerStart[i] = peerStart[i - 1];
+        peerGroup[i] = group;
+      } else {
+        peerStart[i] = i;
+        peerGroup[i] = ++group;
+      }
+    }
+    for (int i = n - 1; i >= 0; i--) {
+      peerEnd[i] = i < n - 1 && peerStart[i + 1] == peerStart[i] ? peerEnd[i + 1] : i;
+    }
+
+    for (int f = 0; f < functions.size(); f++) {
+      final Function function = functions.get(f);
+      final int outputField = inputFieldCount + f;
+
+      switch (function.kind) {
+        case ROW_NUMBER:
+          for (int i = 0; i < n; i++) {
+            partition.get(i)[outputField] = (long) i + 1;
+          }
+          break;
+        case RANK:
+          for (int i = 0; i < n; i++) {
+            partition.get(i)[outputField] = (long) peerStart[i] + 1;
+          }
+          break;
+        case DENSE_RANK:
+          for (int i = 0; i < n; i++) {
+            partition.get(i)[outputField] = (long) peerGroup[i];
+          }
+          break;
+        case LAG:
+        case LEAD:
+          final int offset = function.kind == FunctionKind.LAG ? -function.offset : function.offset;
+          for (int i = 0; i < n; i++) {
+            final int j = i + offset;
+            partition.get(i)[outputField] = j >= 0 && j < n ? partition.get(j)[function.field] : function.defaultValue;
+          }
+          break;
+        default:
+          computeFrameFunction(partition, function, outputField, peerStart, peerEnd);
+      }
+    }
+  }
+
+  private void computeFrameFunction(
+      final List<Object[]> partition,
+      final Function function,
+      final int outputField,
+      final int[] peerStart,
+      final int[] peerEnd
+  )
+  {
+    final int n = partition.size();
+
+    // Running counts and sums of non-null values, so each frame is computed in constant time.
+    final long[] counts = new long[n + 1];
+    final double[] doubleSums = new double[n + 1];
+    final long[] longSums = new long[n + 1];
+    for (int i = 0; i < n; i++) {
+      final Object value = function.field < 0 ? Boolean.TRUE : partition.get(i)[function.field];
+      counts[i + 1] = counts[i] + (value == null ? 0 : 1);
+      if (value instanceof Number) {
+        doubleSums[i + 1] = doubleSums[i] + ((Number) value).doubleValue();
+        longSums[i + 1] = longSums[i] + ((Number) value).longValue();
+      } else {
+        doubleSums[i + 1] = doubleSums[i];
+        longSums[i + 1] = longSums[i];
+      }
+    }
+
+    for (int i = 0; i < n; i++) {
+      final int start;
+      final int end;
+      if (rows) {
+        start = lowerBound == null ? 0 : Math.max(0, i + lowerBound);
+        end = upperBound == null ? n - 1 : Math.min(n - 1, i + upperBound);
+      } else {
+        start = lowerBound == null ? 0 : peerStart[i];
+        end = upperBound == null ? n - 1 : peerEnd[i];
+      }
+
+      final long count = start <= end ? counts[end + 1] - counts[start] : 0;
+      final Object value;
+
+      switch (function.kind) {
+        case COUNT:
+          value = count;
+          break;
+        case SUM:
+        case SUM0:
+          if (count == 0) {
+            value = function.kind == FunctionKind.SUM0 ? function.zero() : null;
+          } else if (function.isIntegral()) {
+            value = longSums[end + 1] - longSums[start];
+          } else {
+            value = doubleSums[end + 1] - doubleSums[start];
+          }
+          break;
+        case AVG:
+          if (count == 0) {
+            value = null;
+          } else if (function.isIntegral()) {
+            value = (longSums[end + 1] - longSums[start]) / count;
+          } else {
+            value = (doubleSums[end + 1] - doubleSums[start]) / count;
+          }
+          break;
+        case FIRST_VALUE:
+          value = start <= end ? partition.get(start)[function.field] : null;
+          break;
+        case LAST_VALUE:
+          value = start <= end ? partition.get(end)[function.field] : null;
+          break;
+        case MIN:
+        case MAX:
+          value = minOrMax(partition, function, start, end);
+          break;
+        default:
+          throw new UnsupportedOperationException(StringUtils.format("Unknown function[%s]", function.kind));
+      }
+
+      partition.get(i)[outputField] = value;
+    }
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private static Object minOrMax(final List<Object[]> partition, final Function function, final int start, final int end)
+  {
+    Comparable retVal = null;
+    for (int j = start; j <= end; j++) {
+      final Comparable value = (Comparable) partition.get(j)[function.field];
+      if (value != null && (retVal == null || (function.kind == FunctionKind.MIN
+                                               ? value.compareTo(retVal) < 0
+                                               : value.compareTo(retVal) > 0))) {
+        retVal = value;
+      }
+    }
+    return retVal;
+  }
+
+  private boolean isPeer(final Object[] row1, final Object[] row2)
+  {
+    return keysEqual(orderKeys, row1, row2);
+  }
+
+  private static boolean keysEqual(final int[] keys, final Object[] row1, final Object[] row2)
+  {
+    for (int key : keys) {
+      if (!Objects.equals(row1[key], row2[key])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean equals(final Object o)
+  {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final Windowing windowing = (Windowing) o;
+    return rows == windowing.rows &&
+           Arrays.equals(partitionKeys, windowing.partitionKeys) &&
+           Objects.equals(orderCollations, windowing.orderCollations) &&
+           Objects.equals(lowerBound, windowing.lowerBound) &&
+           Objects.equals(upperBound, windowing.upperBound) &&
+           Objects.equals(functions, windowing.functions);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    int result = Objects.hash(orderCollations, rows, lowerBound, upperBound, functions);
+    result = 31 * result + Arrays.hashCode(partitionKeys);
+    return result;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "Windowing{" +
+           "partitionKeys=" + Arrays.toString(partitionKeys) +
+           ", orderCollations=" + orderCollations +
+           ", rows=" + rows +
+           ", lowerBound=" + lowerBound +
+           ", upperBound=" + upperBound +
+           ", functions=" + functions +
+           '}';
+  }
+
+  /**
+   * One window function.
+   */
+  public static class Function
+  {
+    private final FunctionKind kind;
+    private final SqlTypeName outputType;
+
+    // Input field, or -1 for functions without one, like ROW_NUMBER or COUNT(*).
+    private final int field;
+
+    // For LAG and LEAD.
+    private final int offset;
+    @Nullable
+    private final Object defaultValue;
+
+    private Function(
+        final FunctionKind kind,
+        final SqlTypeName outputType,
+        final int field,
+        final int offset,
+        @Nullable final Object defaultValue
+    )
+    {
+      this.kind = kind;
+      this.outputType = outputType;
+      this.field = field;
+      this.offset = offset;
+      this.defaultValue = defaultValue;
+    }
+
+    @Nullable
+    private static Function fromAggCall(
+        final Window.RexWinAggCall aggCall,
+        final int inputFieldCount,
+        final List<RexLiteral> constants
+    )
+    {
+      if (aggCall.distinct) {
+        return null;
+      }
+
+      final FunctionKind kind;
+      switch (aggCall.getOperator().getKind()) {
+        case ROW_NUMBER:
+          kind = FunctionKind.ROW_NUMBER;
+          break;
+        case RANK:
+          kind = FunctionKind.RANK;
+          break;
+        case DENSE_RANK:
+          kind = FunctionKind.DENSE_RANK;
+          break;
+        case LAG:
+          kind = FunctionKind.LAG;
+          break;
+        case LEAD:
+          kind = FunctionKind.LEAD;
+          break;
+        case FIRST_VALUE:
+          kind = FunctionKind.FIRST_VALUE;
+          break;
+        case LAST_VALUE:
+          kind = FunctionKind.LAST_VALUE;
+          break;
+        case COUNT:
+          kind = FunctionKind.COUNT;
+          break;
+        case SUM:
+          kind = FunctionKind.SUM;
+          break;
+        case SUM0:
+          kind = FunctionKind.SUM0;
+          break;
+        case AVG:
+          kind = FunctionKind.AVG;
+          break;
+        case MIN:
+          kind = FunctionKind.MIN;
+          break;
+        case MAX:
+          kind = FunctionKind.MAX;
+          break;
+        default:
+          return null;
+      }
+
+      final List<RexNode> operands = aggCall.getOperands();
+      final int field;
+      if (operands.isEmpty()) {
+        field = -1;
+      } else if (operands.get(0) instanceof RexInputRef && ((RexInputRef) operands.get(0)).getIndex() < inputFieldCount) {
+        field = ((RexInputRef) operands.get(0)).getIndex();
+      } else {
+        return null;
+      }
+
+      final boolean needsField = kind != FunctionKind.ROW_NUMBER
+                                 && kind != FunctionKind.RANK
+                                 && kind != FunctionKind.DENSE_RANK
+                                 && kind != FunctionKind.COUNT;
+      if (needsField && field < 0) {
+        return null;
+      }
+
+      int offset = 1;
+      Object defaultValue = null;
+      try {
+        if (operands.size() > 1) {
+          final Object offsetValue = getConstant(operands.get(1), inputFieldCount, constants);
+          if (!(offsetValue instanceof Number)) {
+            return null;
+          }
+          offset = Ints.checkedCast(((Number) offsetValue).longValue());
+        }
+        if (operands.size() > 2) {
+          defaultValue = getConstant(operands.get(2), inputFieldCount, constants);
+        }
+      }
+      catch (UnsupportedBoundException e) {
+        // Offset or default value is not a constant.
+        return null;
+      }
+
+      if (operands.size() > (kind == FunctionKind.LAG || kind == FunctionKind.LEAD ? 3 : 1)) {
+        return null;
+      }
+
+      return new Function(kind, aggCall.getType().getSqlTypeName(), field, offset, defaultValue);
+    }
+
+    private boolean isIntegral()
+    {
+      return SqlTypeName.INT_TYPES.contains(outputType);
+    }
+
+    private Object zero()
+    {
+      return isIntegral() ? (Object) 0L : (Object) 0d;
+    }
+
+    @Override
+    public boolean equals(final Object o)
+    {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Function function = (Function) o;
+      return field == function.field &&
+             offset == function.offset &&
+             kind == function.kind &&
+             outputType == function.outputType &&
+             Objects.equals(defaultValue, function.defaultValue);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(kind, outputType, field, offset, defaultValue);
+    }
+
+    @Override
+    public String toString()
+    {
+      return kind + "(" + (field < 0 ? "" : "$" + field) + ")";
+    }
+  }
+
+  private static class UnsupportedBoundException extends Exception
+  {
+  }
+
+  /**
+   * Reads the input one partition at a time, and returns the rows of each partition once its functions are computed.
+   */
+  private class PartitionIterator implements Iterator<Object[]>, Closeable
+  {
+    private final int maxRowsInMemory;
+    private Yielder<Object[]> yielder;
+    private Iterator<Object[]> partitionIterator = ImmutableList.<Object[]>of().iterator();
+
+    PartitionIterator(final Yielder<Object[]> yielder, final int maxRowsInMemory)
+    {
+      this.yielder = yielder;
+      this.maxRowsInMemory = maxRowsInMemory;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+      if (!partitionIterator.hasNext() && !yielder.isDone()) {
+        partitionIterator = readPartition().iterator();
+      }
+      return partitionIterator.hasNext();
+    }
+
+    @Override
+    public Object[] next()
+    {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return partitionIterator.next();
+    }
+
+    private List<Object[]> readPartition()
+    {
+      final List<Object[]> partition = new ArrayList<>();
+      final Object[] first = yielder.get();
+      final int inputFieldCount = first.length;
+
+      while (!yielder.isDone() && keysEqual(partitionKeys, first, yielder.get())) {
+        if (partition.size() >= maxRowsInMemory) {
+          throw new ResourceLimitExceededException(
+              StringUtils.format("maxWindowRowsInMemory[%,d] exceeded", maxRowsInMemory)
+          );
+        }
+
+        final Object[] row = Arrays.copyOf(yielder.get(), inputFieldCount + functions.size());
+        partition.add(row);
+        yielder = yielder.next(null);
+      }
+
+      computePartition(partition, inputFieldCount);
+      return partition;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      yielder.close();
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.rule;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptRuleOperand;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.sql.calcite.planner.PlannerConfig;
+import org.apache.druid.sql.calcite.rel.DruidBroadcastJoin;
+import org.apache.druid.sql.calcite.rel.DruidRel;
+import org.apache.druid.sql.calcite.rel.PartialDruidQuery;
+
+import java.util.List;
+
+/**
+ * Planner rule that turns an equi-join on one key into a {@link DruidBroadcastJoin}. Requirements are:
+ *
+ * 1) Join is INNER or LEFT, with a condition of the form "left.x = right.y"
+ * 2) Left-hand side is not aggregating
+ * 3) At least one field of the right-hand side, other than the key of an inner join, is selected; otherwise it's a
+ *    job for {@link DruidSemiJoinRule}
+ * 4) Join keys and the selected fields from the right-hand side are strings
+ *
+ * The right-hand side is expected to be small, and to have unique join keys; both are checked when it is run.
+ */
+public abstract class DruidBroadcastJoinRule extends RelOptRule
+{
+  private static final Predicate<Join> IS_LEFT_OR_INNER =
+      join -> {
+        final JoinRelType joinType = join.getJoinType();
+        return joinType == JoinRelType.LEFT || joinType == JoinRelType.INNER;
+      };
+
+  private static final Predicate<DruidRel> IS_NOT_AGGREGATING = druidRel ->
+      druidRel.getPartialDruidQuery().stage().compareTo(PartialDruidQuery.Stage.SELECT_PROJECT) <= 0;
+
+  public static final RelOptRule PROJECT_JOIN = new DruidBroadcastJoinRule(
+      operand(Project.class, joinOperand()),
+      "PROJECT_JOIN"
+  )
+  {
+    @Override
+    public void onMatch(final RelOptRuleCall call)
+    {
+      final Project project = call.rel(0);
+      join(call, call.rel(1), call.rel(2), call.rel(3), project.getProjects(), project.getRowType());
+    }
+  };
+
+  public static final RelOptRule JOIN = new DruidBroadcastJoinRule(joinOperand(), "JOIN")
+  {
+    @Override
+    public void onMatch(final RelOptRuleCall call)
+    {
+      final Join join = call.rel(0);
+      join(
+          call,
+          join,
+          call.rel(1),
+          call.rel(2),
+          call.builder().push(join).fields(),
+          join.getRowType()
+      );
+    }
+  };
+
+  private DruidBroadcastJoinRule(final RelOptRuleOperand operand, final String description)
+  {
+    super(operand, StringUtils.format("%s(%s)", DruidBroadcastJoinRule.class.getSimpleName(), description));
+  }
+
+  private static RelOptRuleOperand joinOperand()
+  {
+    return operand(
+        Join.class,
+        null,
+        IS_LEFT_OR_INNER,
+        some(
+            operand(
+                DruidRel.class,
+                null,
+                Predicates.and(DruidRules.CAN_BUILD_ON, IS_NOT_AGGREGATING),
+                any()
+            ),
+            operand(DruidRel.class, any())
+        )
+    );
+  }
+
+  private static void join(
+      final RelOptRuleCall call,
+      final Join join,
+      final DruidRel<?> left,
+      final DruidRel<?> right,
+      final List<RexNode> projects,
+      final RelDataType rowType
+  )
+  {
+    final JoinInfo joinInfo = join.analyzeCondition();
+    if (!joinInfo.isEqui() || joinInfo.leftKeys.size() != 1) {
+      return;
+    }
+
+    final int leftKey = joinInfo.leftKeys.get(0);
+    final int rightKey = joinInfo.rightKeys.get(0);
+    final int leftFieldCount = left.getRowType().getFieldCount();
+    if (!isString(join.getRowType(), leftKey) || !isString(join.getRowType(), leftFieldCount + rightKey)) {
+      return;
+    }
+
+    final ImmutableBitSet selectedRightFields = RelOptUtil.InputFinder
+        .bits(projects, null)
+        .intersect(ImmutableBitSet.range(leftFieldCount, join.getRowType().getFieldCount()));
+    final boolean onlyRightKeySelected = selectedRightFields.isEmpty()
+                                         || selectedRightFields.equals(ImmutableBitSet.of(leftFieldCount + rightKey));
+    if (join.getJoinType() == JoinRelType.INNER && onlyRightKeySelected) {
+      // Nothing to look up, since the right key of an inner join is the same as the left key. This is a semi-join,
+      // left to DruidSemiJoinRule.
+      return;
+    }
+
+    // Right-hand side fields are looked up as strings.
+    for (int field : selectedRightFields) {
+      if (!isString(join.getRowType(), field)) {
+        return;
+      }
+    }
+
+    final DruidBroadcastJoin druidBroadcastJoin = DruidBroadcastJoin.create(
+        left,
+        right,
+        leftKey,
+        rightKey,
+        join.getJoinType(),
+        join.getRowType(),
+        projects,
+        rowType.getFieldNames(),
+        left.getPlannerContext()
+    );
+
+    // Check maxQueryCount.
+    final PlannerConfig plannerConfig = left.getPlannerContext().getPlannerConfig();
+    if (plannerConfig.getMaxQueryCount() > 0 && druidBroadcastJoin.getQueryCount() > plannerConfig.getMaxQueryCount()) {
+      return;
+    }
+
+    if (druidBroadcastJoin.isValidDruidQuery()) {
+      call.transformTo(druidBroadcastJoin);
+    }
+  }
+
+  private static boolean isString(final RelDataType rowType, final int field)
+  {
+    return SqlTypeName.CHAR_TYPES.contains(rowType.getFieldList().get(field).getType().getSqlTypeName());
+  }
+}
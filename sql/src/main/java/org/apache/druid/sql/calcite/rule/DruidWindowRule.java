@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.rule;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptRuleOperand;
+import org.apache.calcite.rel.RelCollations;
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rel.core.Window;
+import org.apache.calcite.rel.logical.LogicalSort;
+import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.sql.calcite.rel.DruidRel;
+import org.apache.druid.sql.calcite.rel.DruidWindowRel;
+import org.apache.druid.sql.calcite.rel.PartialDruidQuery;
+import org.apache.druid.sql.calcite.rel.Windowing;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Planner rules that compute window functions on the Broker using a {@link DruidWindowRel}. The underlying Druid
+ * query is sorted by the partition and order keys of the window, so the window functions can be computed one
+ * partition at a time while streaming through its results. Filters, projections, sorts and limits over the window
+ * functions are then applied on the Broker as well.
+ */
+public abstract class DruidWindowRule extends RelOptRule
+{
+  public static final RelOptRule WINDOW = new DruidWindowRule(
+      operand(Window.class, operand(DruidRel.class, null, DruidRules.CAN_BUILD_ON, any())),
+      "WINDOW"
+  )
+  {
+    @Override
+    public void onMatch(final RelOptRuleCall call)
+    {
+      final Window window = call.rel(0);
+      final DruidRel<?> druidRel = call.rel(1);
+      final Windowing windowing = Windowing.fromWindow(window);
+      if (windowing == null) {
+        return;
+      }
+
+      final List<RelFieldCollation> collations = windowing.getSortCollations();
+      final DruidRel<?> sourceRel;
+      if (collations.isEmpty()) {
+        sourceRel = druidRel;
+      } else {
+        final PartialDruidQuery partialQuery = druidRel.getPartialDruidQuery();
+        if (!partialQuery.canAccept(PartialDruidQuery.Stage.SORT)) {
+          return;
+        }
+
+        sourceRel = druidRel.withPartialQuery(
+            partialQuery.withSort(
+                LogicalSort.create(partialQuery.leafRel(), RelCollations.of(collations), null, null)
+            )
+        );
+      }
+
+      if (sourceRel.isValidDruidQuery()) {
+        call.transformTo(DruidWindowRel.create(sourceRel, windowing, window.getRowType()));
+      }
+    }
+  };
+
+  public static final RelOptRule FILTER = postWindowRule(
+      Filter.class,
+      DruidWindowRel.Stage.WHERE_FILTER,
+      DruidWindowRel::withWhereFilter
+  );
+
+  public static final RelOptRule PROJECT = postWindowRule(
+      Project.class,
+      DruidWindowRel.Stage.SELECT_PROJECT,
+      DruidWindowRel::withSelectProject
+  );
+
+  public static final RelOptRule SORT = postWindowRule(
+      Sort.class,
+      DruidWindowRel.Stage.SORT,
+      DruidWindowRel::withSort
+  );
+
+  public static final RelOptRule SORT_PROJECT = postWindowRule(
+      Project.class,
+      DruidWindowRel.Stage.SORT_PROJECT,
+      DruidWindowRel::withSortProject
+  );
+
+  private DruidWindowRule(final RelOptRuleOperand operand, final String description)
+  {
+    super(operand, StringUtils.format("%s(%s)", DruidWindowRule.class.getSimpleName(), description));
+  }
+
+  /**
+   * Returns a rule applying a rel to the output of a {@link DruidWindowRel}, on the Broker.
+   */
+  private static <RelType extends RelNode> RelOptRule postWindowRule(
+      final Class<RelType> relClass,
+      final DruidWindowRel.Stage stage,
+      final BiFunction<DruidWindowRel, RelType, DruidWindowRel> f
+  )
+  {
+    return new DruidWindowRule(
+        operand(relClass, operand(DruidWindowRel.class, null, windowRel -> windowRel.canAccept(stage), any())),
+        stage.toString()
+    )
+    {
+      @Override
+      public void onMatch(final RelOptRuleCall call)
+      {
+        final RelType otherRel = call.rel(0);
+        final DruidWindowRel windowRel = call.rel(1);
+        final DruidWindowRel newWindowRel = f.apply(windowRel, otherRel);
+        if (newWindowRel != null) {
+          call.transformTo(newWindowRel);
+        }
+      }
+    };
+  }
+}
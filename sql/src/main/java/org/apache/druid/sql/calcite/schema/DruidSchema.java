@@ -20,23 +20,34 @@
 package org.apache.druid.sql.calcite.schema;
 
 import com.amazonaws.annotation.GuardedBy;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import org.apache.calcite.schema.Table;
 import org.apache.calcite.schema.impl.AbstractSchema;
 import org.apache.druid.client.ServerView;
 import org.apache.druid.client.TimelineServerView;
 import org.apache.druid.guice.ManageLifecycle;
+import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.java.util.common.DateTimes;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.StringUtils;
@@ -67,11 +78,19 @@ import org.apache.druid.sql.calcite.view.ViewManager;
 import org.apache.druid.timeline.DataSegment;
 import org.apache.druid.timeline.SegmentId;
 
+import javax.annotation.Nullable;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -79,7 +98,9 @@ import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -98,13 +119,29 @@ public class DruidSchema extends AbstractSchema
   private static final EmittingLogger log = new EmittingLogger(DruidSchema.class);
   private static final int MAX_SEGMENTS_PER_QUERY = 15000;
   private static final long DEFAULT_NUM_ROWS = 0;
+  private static final ObjectMapper JSON_MAPPER = new DefaultObjectMapper();
+  private static final TypeReference<Map<String, LinkedHashMap<String, ValueType>>> PERSISTED_SIGNATURES_TYPE =
+      new TypeReference<Map<String, LinkedHashMap<String, ValueType>>>()
+      {
+      };
 
   private final QueryLifecycleFactory queryLifecycleFactory;
   private final PlannerConfig config;
   private final ViewManager viewManager;
   private final ExecutorService cacheExec;
+
+  // Runs segment metadata queries, if metadataRefreshParallelism is more than 1. Otherwise they run on cacheExec.
+  @Nullable
+  private final ListeningExecutorService refreshExec;
   private final ConcurrentMap<String, DruidTable> tables;
 
+  // Incremented whenever a table is added, removed, or has a new signature. Used to invalidate cached SQL plans.
+  private final AtomicLong tablesVersion = new AtomicLong();
+
+  // Segments of a dataSource usually share a few distinct signatures; interning them saves memory, and lets
+  // buildDruidTable merge each distinct signature only once.
+  private final Interner<RowSignature> rowSignatureInterner = Interners.newWeakInterner();
+
   // For awaitInitialization.
   private final CountDownLatch initialized = new CountDownLatch(1);
 
@@ -126,6 +163,9 @@ public class DruidSchema extends AbstractSchema
   // All segments that need to be refreshed.
   private final TreeSet<SegmentId> segmentsNeedingRefresh = new TreeSet<>(SEGMENT_ORDER);
 
+  // Signatures loaded from metadataSignatureCacheFile, for dataSources whose segments are not all refreshed yet.
+  private final Map<String, RowSignature> persistedSignatures = new HashMap<>();
+
   // Escalator, so we can attach an authentication result to queries we generate.
   private final Escalator escalator;
 
@@ -134,6 +174,9 @@ public class DruidSchema extends AbstractSchema
   private long lastFailure = 0L;
   private boolean isServerViewInitialized = false;
 
+  // Value of tablesVersion when tables were last written to metadataSignatureCacheFile. Only used by cacheExec.
+  private long persistedTablesVersion = -1;
+
   @Inject
   public DruidSchema(
       final QueryLifecycleFactory queryLifecycleFactory,
@@ -148,6 +191,11 @@ public class DruidSchema extends AbstractSchema
     this.config = Preconditions.checkNotNull(config, "config");
     this.viewManager = Preconditions.checkNotNull(viewManager, "viewManager");
     this.cacheExec = ScheduledExecutors.fixed(1, "DruidSchema-Cache-%d");
+    this.refreshExec = config.getMetadataRefreshParallelism() > 1
+                       ? MoreExecutors.listeningDecorator(
+                           Execs.multiThreaded(config.getMetadataRefreshParallelism(), "DruidSchema-Refresh-%d")
+                       )
+                       : null;
     this.tables = new ConcurrentHashMap<>();
     this.escalator = escalator;
 
@@ -196,6 +244,11 @@ public class DruidSchema extends AbstractSchema
   @LifecycleStart
   public void start() throws InterruptedException
   {
+    if (loadPersistedSignatures()) {
+      // Tables from the last known signatures are good enough to start serving queries.
+      initialized.countDown();
+    }
+
     cacheExec.submit(
         new Runnable()
         {
@@ -218,6 +271,10 @@ public class DruidSchema extends AbstractSchema
                     final long nextRefresh = nextRefreshNoFuzz + (long) ((nextRefreshNoFuzz - lastRefresh) * 0.10);
 
                     while (true) {
+                      if (isServerViewInitialized) {
+                        dropPersistedTablesWithoutSegments();
+                      }
+
                       // Do not refresh if it's too soon after a failure (to avoid rapid cycles of failure).
                       final boolean wasRecentFailure = DateTimes.utc(lastFailure)
                                                                 .plus(config.getMetadataRefreshPeriod())
@@ -241,15 +298,24 @@ public class DruidSchema extends AbstractSchema
                       lock.wait(Math.max(1, nextRefresh - System.currentTimeMillis()));
                     }
 
-                    segmentsToRefresh.addAll(segmentsNeedingRefresh);
-                    segmentsNeedingRefresh.clear();
+                    // Take the newest segments of each dataSource, up to what one round of queries can cover. Any
+                    // others are left for the next refresh, which starts right after this one.
+                    final Map<String, Integer> segmentsPerDataSource = new HashMap<>();
+                    for (Iterator<SegmentId> it = segmentsNeedingRefresh.iterator(); it.hasNext(); ) {
+                      final SegmentId segmentId = it.next();
+                      if (segmentsPerDataSource.merge(segmentId.getDataSource(), 1, Integer::sum)
+                          <= getMaxSegmentsPerRefresh()) {
+                        segmentsToRefresh.add(segmentId);
+                        it.remove();
+                      }
+                    }
+                    refreshImmediately = !segmentsNeedingRefresh.isEmpty();
 
                     // Mutable segments need a refresh every period, since new columns could be added dynamically.
                     segmentsNeedingRefresh.addAll(mutableSegments);
 
                     lastFailure = 0L;
                     lastRefresh = System.currentTimeMillis();
-                    refreshImmediately = false;
                   }
 
                   // Refresh the segments.
@@ -259,9 +325,9 @@ public class DruidSchema extends AbstractSchema
                     // Add missing segments back to the refresh list.
                     segmentsNeedingRefresh.addAll(Sets.difference(segmentsToRefresh, refreshed));
 
-                    // Compute the list of dataSources to rebuild tables for.
+                    // Compute the list of dataSources to rebuild tables for. Refreshing a segment only requires a
+                    // rebuild if its signature has changed, see refreshSegmentsForDataSource.
                     dataSourcesToRebuild.addAll(dataSourcesNeedingRebuild);
-                    refreshed.forEach(segment -> dataSourcesToRebuild.add(segment.getDataSource()));
                     dataSourcesNeedingRebuild.clear();
 
                     lock.notifyAll();
@@ -272,6 +338,7 @@ public class DruidSchema extends AbstractSchema
                     final DruidTable druidTable = buildDruidTable(dataSource);
                     final DruidTable oldTable = tables.put(dataSource, druidTable);
                     if (oldTable == null || !oldTable.getRowSignature().equals(druidTable.getRowSignature())) {
+                      tablesVersion.incrementAndGet();
                       log.debug(
                           "Table for dataSource[%s] has new signature[%s].",
                           dataSource,
@@ -282,6 +349,7 @@ public class DruidSchema extends AbstractSchema
                     }
                   }
 
+                  persistSignatures();
                   initialized.countDown();
                 }
                 catch (InterruptedException e) {
@@ -329,6 +397,9 @@ public class DruidSchema extends AbstractSchema
   public void stop()
   {
     cacheExec.shutdownNow();
+    if (refreshExec != null) {
+      refreshExec.shutdownNow();
+    }
   }
 
   public void awaitInitialization() throws InterruptedException
@@ -336,6 +407,14 @@ public class DruidSchema extends AbstractSchema
     initialized.await();
   }
 
+  /**
+   * Returns a number that changes whenever the set of tables or the signature of any table changes.
+   */
+  public long getTablesVersion()
+  {
+    return tablesVersion.get();
+  }
+
   @Override
   protected Map<String, Table> getTableMap()
   {
@@ -423,7 +502,9 @@ public class DruidSchema extends AbstractSchema
 
       if (dataSourceSegments.isEmpty()) {
         segmentMetadataInfo.remove(segment.getDataSource());
-        tables.remove(segment.getDataSource());
+        if (tables.remove(segment.getDataSource()) != null) {
+          tablesVersion.incrementAndGet();
+        }
         log.info("Removed all metadata for dataSource[%s].", segment.getDataSource());
       }
 
@@ -453,6 +534,9 @@ public class DruidSchema extends AbstractSchema
   /**
    * Attempt to refresh "segmentSignatures" for a set of segments. Returns the set of segments actually refreshed,
    * which may be a subset of the asked-for set.
+   *
+   * Segments are queried in batches of up to {@link #MAX_SEGMENTS_PER_QUERY}, newest first. If
+   * metadataRefreshParallelism is more than 1, the batches run concurrently.
    */
   @VisibleForTesting
   Set<SegmentId> refreshSegments(final Set<SegmentId> segments) throws IOException
@@ -467,9 +551,36 @@ public class DruidSchema extends AbstractSchema
                 .add(segmentId);
     }
 
-    for (Map.Entry<String, TreeSet<SegmentId>> entry : segmentMap.entrySet()) {
-      final String dataSource = entry.getKey();
-      retVal.addAll(refreshSegmentsForDataSource(dataSource, entry.getValue()));
+    // Split each dataSource into batches, then run the batches with the newest segments first.
+    final List<List<SegmentId>> batches = new ArrayList<>();
+    for (TreeSet<SegmentId> dataSourceSegments : segmentMap.values()) {
+      Iterables.addAll(batches, Iterables.partition(dataSourceSegments, MAX_SEGMENTS_PER_QUERY));
+    }
+    batches.sort(Comparator.comparing(batch -> batch.get(0), SEGMENT_ORDER));
+
+    if (refreshExec == null) {
+      for (List<SegmentId> batch : batches) {
+        retVal.addAll(refreshSegmentsForDataSource(batch.get(0).getDataSource(), batch));
+      }
+    } else {
+      final List<ListenableFuture<Set<SegmentId>>> futures = Lists.newArrayListWithCapacity(batches.size());
+      for (List<SegmentId> batch : batches) {
+        futures.add(refreshExec.submit(() -> refreshSegmentsForDataSource(batch.get(0).getDataSource(), batch)));
+      }
+
+      try {
+        Futures.allAsList(futures).get().forEach(retVal::addAll);
+      }
+      catch (InterruptedException e) {
+        futures.forEach(future -> future.cancel(true));
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+      catch (ExecutionException e) {
+        futures.forEach(future -> future.cancel(true));
+        Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+        throw new RuntimeException(e.getCause());
+      }
     }
 
     return retVal;
@@ -479,7 +590,7 @@ public class DruidSchema extends AbstractSchema
    * Attempt to refresh "segmentSignatures" for a set of segments for a particular dataSource. Returns the set of
    * segments actually refreshed, which may be a subset of the asked-for set.
    */
-  private Set<SegmentId> refreshSegmentsForDataSource(final String dataSource, final Set<SegmentId> segments)
+  private Set<SegmentId> refreshSegmentsForDataSource(final String dataSource, final List<SegmentId> segments)
       throws IOException
   {
     if (!segments.stream().allMatch(segmentId -> segmentId.getDataSource().equals(dataSource))) {
@@ -497,7 +608,7 @@ public class DruidSchema extends AbstractSchema
     final Set<SegmentId> retVal = new HashSet<>();
     final Sequence<SegmentAnalysis> sequence = runSegmentMetadataQuery(
         queryLifecycleFactory,
-        Iterables.limit(segments, MAX_SEGMENTS_PER_QUERY),
+        segments,
         escalator.createEscalatedAuthenticationResult()
     );
 
@@ -512,7 +623,7 @@ public class DruidSchema extends AbstractSchema
           log.warn("Got analysis for segment[%s] we didn't ask for, ignoring.", analysis.getId());
         } else {
           synchronized (lock) {
-            final RowSignature rowSignature = analysisToRowSignature(analysis);
+            final RowSignature rowSignature = rowSignatureInterner.intern(analysisToRowSignature(analysis));
             log.debug("Segment[%s] has signature[%s].", segmentId, rowSignature);
             final Map<SegmentId, AvailableSegmentMetadata> dataSourceSegments = segmentMetadataInfo.get(dataSource);
             if (dataSourceSegments == null) {
@@ -538,6 +649,9 @@ public class DruidSchema extends AbstractSchema
                 dataSourceSegments.put(segmentId, updatedSegmentMetadata);
                 setAvailableSegmentMetadata(segmentId, updatedSegmentMetadata);
                 retVal.add(segmentId);
+                if (!rowSignature.equals(segmentMetadata.getRowSignature())) {
+                  dataSourcesNeedingRebuild.add(dataSource);
+                }
               }
             }
           }
@@ -580,11 +694,15 @@ public class DruidSchema extends AbstractSchema
     synchronized (lock) {
       final Map<SegmentId, AvailableSegmentMetadata> segmentMap = segmentMetadataInfo.get(dataSource);
       final Map<String, ValueType> columnTypes = new TreeMap<>();
+      final Set<RowSignature> mergedSignatures = Sets.newIdentityHashSet();
+      boolean allSegmentsRefreshed = true;
 
       if (segmentMap != null) {
         for (AvailableSegmentMetadata availableSegmentMetadata : segmentMap.values()) {
           final RowSignature rowSignature = availableSegmentMetadata.getRowSignature();
-          if (rowSignature != null) {
+          if (rowSignature == null) {
+            allSegmentsRefreshed = false;
+          } else if (mergedSignatures.add(rowSignature)) {
             for (String column : rowSignature.getRowOrder()) {
               // Newer column types should override older ones.
               columnTypes.putIfAbsent(column, rowSignature.getColumnType(column));
@@ -593,12 +711,118 @@ public class DruidSchema extends AbstractSchema
         }
       }
 
+      // Until all segments are refreshed, fill in the columns of the ones that are not with the last known signature.
+      final RowSignature persistedSignature = allSegmentsRefreshed
+                                              ? persistedSignatures.remove(dataSource)
+                                              : persistedSignatures.get(dataSource);
+      if (!allSegmentsRefreshed && persistedSignature != null) {
+        for (String column : persistedSignature.getRowOrder()) {
+          columnTypes.putIfAbsent(column, persistedSignature.getColumnType(column));
+        }
+      }
+
       final RowSignature.Builder builder = RowSignature.builder();
       columnTypes.forEach(builder::add);
       return new DruidTable(new TableDataSource(dataSource), builder.build());
     }
   }
 
+  private int getMaxSegmentsPerRefresh()
+  {
+    return MAX_SEGMENTS_PER_QUERY * Math.max(1, config.getMetadataRefreshParallelism());
+  }
+
+  /**
+   * Creates tables from the signatures in metadataSignatureCacheFile, if there is one. Returns true if any table was
+   * created.
+   */
+  private boolean loadPersistedSignatures()
+  {
+    final File file = config.getMetadataSignatureCacheFile();
+    if (file == null || !file.exists()) {
+      return false;
+    }
+
+    final Map<String, LinkedHashMap<String, ValueType>> signatures;
+    try {
+      signatures = JSON_MAPPER.readValue(file, PERSISTED_SIGNATURES_TYPE);
+    }
+    catch (IOException e) {
+      log.warn(e, "Failed to read dataSource signatures from [%s], ignoring them.", file);
+      return false;
+    }
+
+    synchronized (lock) {
+      for (Map.Entry<String, LinkedHashMap<String, ValueType>> entry : signatures.entrySet()) {
+        final RowSignature.Builder builder = RowSignature.builder();
+        entry.getValue().forEach(builder::add);
+        final RowSignature rowSignature = builder.build();
+        persistedSignatures.put(entry.getKey(), rowSignature);
+        tables.put(entry.getKey(), new DruidTable(new TableDataSource(entry.getKey()), rowSignature));
+      }
+
+      // Replace the persisted signatures with real ones as soon as possible.
+      refreshImmediately = true;
+    }
+
+    tablesVersion.incrementAndGet();
+    log.info("Loaded signatures of [%,d] dataSources from [%s].", signatures.size(), file);
+    return !signatures.isEmpty();
+  }
+
+  /**
+   * Writes the signatures of all tables to metadataSignatureCacheFile, if there is one and the tables have changed
+   * since they were last written.
+   */
+  private void persistSignatures()
+  {
+    final File file = config.getMetadataSignatureCacheFile();
+    final long version = tablesVersion.get();
+    if (file == null || version == persistedTablesVersion) {
+      return;
+    }
+
+    final Map<String, Map<String, ValueType>> signatures = new TreeMap<>();
+    for (Map.Entry<String, DruidTable> entry : tables.entrySet()) {
+      final RowSignature rowSignature = entry.getValue().getRowSignature();
+      final Map<String, ValueType> columnTypes = new LinkedHashMap<>();
+      for (String column : rowSignature.getRowOrder()) {
+        columnTypes.put(column, rowSignature.getColumnType(column));
+      }
+      signatures.put(entry.getKey(), columnTypes);
+    }
+
+    // Write to a temporary file first, so a broker crashing in the middle does not leave a corrupt file behind.
+    final File tmpFile = new File(file.getPath() + ".tmp");
+    try {
+      JSON_MAPPER.writeValue(tmpFile, signatures);
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      persistedTablesVersion = version;
+    }
+    catch (IOException e) {
+      log.warn(e, "Failed to write dataSource signatures to [%s].", file);
+    }
+  }
+
+  /**
+   * Drops the tables created from persisted signatures of dataSources that no longer have any segments. Must be called
+   * once the server view is initialized, so all dataSources with segments are known.
+   */
+  @GuardedBy("lock")
+  private void dropPersistedTablesWithoutSegments()
+  {
+    for (Iterator<String> it = persistedSignatures.keySet().iterator(); it.hasNext(); ) {
+      final String dataSource = it.next();
+      if (!segmentMetadataInfo.containsKey(dataSource)) {
+        it.remove();
+        if (tables.remove(dataSource) != null) {
+          tablesVersion.incrementAndGet();
+          log.info("Dropped table for dataSource[%s], which has no segments anymore.", dataSource);
+        }
+      }
+    }
+  }
+
   private static Sequence<SegmentAnalysis> runSegmentMetadataQuery(
       final QueryLifecycleFactory queryLifecycleFactory,
       final Iterable<SegmentId> segments,
@@ -57,10 +57,13 @@ import org.apache.druid.discovery.NodeType;
 import org.apache.druid.indexer.TaskStatusPlus;
 import org.apache.druid.java.util.common.RE;
 import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.java.util.common.parsers.CloseableIterator;
 import org.apache.druid.java.util.http.client.Request;
 import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.server.DruidNode;
+import org.apache.druid.server.coordination.SegmentQueryStats;
+import org.apache.druid.server.coordination.SegmentQueryStatsClient;
 import org.apache.druid.server.coordinator.BytesAccumulatingResponseHandler;
 import org.apache.druid.server.security.Access;
 import org.apache.druid.server.security.Action;
@@ -83,6 +86,7 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -90,6 +94,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 public class SystemSchema extends AbstractSchema
@@ -99,6 +104,9 @@ public class SystemSchema extends AbstractSchema
   private static final String SERVERS_TABLE = "servers";
   private static final String SERVER_SEGMENTS_TABLE = "server_segments";
   private static final String TASKS_TABLE = "tasks";
+  private static final String SEGMENT_QUERY_STATS_TABLE = "segment_query_stats";
+
+  private static final Logger log = new Logger(SystemSchema.class);
 
   private static final Function<SegmentWithOvershadowedStatus, Iterable<ResourceAction>>
       SEGMENT_WITH_OVERSHADOWED_STATUS_RA_GENERATOR = segment ->
@@ -111,6 +119,11 @@ public class SystemSchema extends AbstractSchema
           segment.getDataSource())
       );
 
+  private static final Function<SegmentQueryStats, Iterable<ResourceAction>> SEGMENT_QUERY_STATS_RA_GENERATOR =
+      stats -> Collections.singletonList(AuthorizationUtils.DATASOURCE_READ_RA_GENERATOR.apply(
+          stats.getDataSource())
+      );
+
   /**
    * Booleans constants represented as long type,
    * where 1 = true and 0 = false to make it easy to count number of segments
@@ -179,6 +192,18 @@ public class SystemSchema extends AbstractSchema
       .add("error_msg", ValueType.STRING)
       .build();
 
+  static final RowSignature SEGMENT_QUERY_STATS_SIGNATURE = RowSignature
+      .builder()
+      .add("server", ValueType.STRING)
+      .add("segment_id", ValueType.STRING)
+      .add("datasource", ValueType.STRING)
+      .add("query_type", ValueType.STRING)
+      .add("query_count", ValueType.LONG)
+      .add("query_time_ms", ValueType.LONG)
+      .add("queries_per_minute", ValueType.DOUBLE)
+      .add("avg_query_time_ms", ValueType.DOUBLE)
+      .build();
+
   private final Map<String, Table> tableMap;
 
   @Inject
@@ -191,6 +216,7 @@ public class SystemSchema extends AbstractSchema
       final @Coordinator DruidLeaderClient coordinatorDruidLeaderClient,
       final @IndexingService DruidLeaderClient overlordDruidLeaderClient,
       final DruidNodeDiscoveryProvider druidNodeDiscoveryProvider,
+      final SegmentQueryStatsClient segmentQueryStatsClient,
       final ObjectMapper jsonMapper
   )
   {
@@ -206,7 +232,12 @@ public class SystemSchema extends AbstractSchema
         SEGMENTS_TABLE, segmentsTable,
         SERVERS_TABLE, new ServersTable(druidNodeDiscoveryProvider, serverInventoryView, authorizerMapper),
         SERVER_SEGMENTS_TABLE, new ServerSegmentsTable(serverView, authorizerMapper),
-        TASKS_TABLE, new TasksTable(overlordDruidLeaderClient, jsonMapper, responseHandler, authorizerMapper)
+        TASKS_TABLE, new TasksTable(overlordDruidLeaderClient, jsonMapper, responseHandler, authorizerMapper),
+        SEGMENT_QUERY_STATS_TABLE, new SegmentQueryStatsTable(
+            druidNodeDiscoveryProvider,
+            segmentQueryStatsClient,
+            authorizerMapper
+        )
     );
   }
 
@@ -716,6 +747,94 @@ public class SystemSchema extends AbstractSchema
 
   }
 
+  /**
+   * This table contains row per segment and query type per historical, with the query statistics collected by
+   * {@link org.apache.druid.server.coordination.SegmentQueryStatsCollector} on each historical. Historicals which
+   * cannot be reached are skipped.
+   */
+  static class SegmentQueryStatsTable extends AbstractTable implements ScannableTable
+  {
+    private final DruidNodeDiscoveryProvider druidNodeDiscoveryProvider;
+    private final SegmentQueryStatsClient segmentQueryStatsClient;
+    private final AuthorizerMapper authorizerMapper;
+
+    public SegmentQueryStatsTable(
+        DruidNodeDiscoveryProvider druidNodeDiscoveryProvider,
+        SegmentQueryStatsClient segmentQueryStatsClient,
+        AuthorizerMapper authorizerMapper
+    )
+    {
+      this.druidNodeDiscoveryProvider = druidNodeDiscoveryProvider;
+      this.segmentQueryStatsClient = segmentQueryStatsClient;
+      this.authorizerMapper = authorizerMapper;
+    }
+
+    @Override
+    public RelDataType getRowType(RelDataTypeFactory typeFactory)
+    {
+      return SEGMENT_QUERY_STATS_SIGNATURE.getRelDataType(typeFactory);
+    }
+
+    @Override
+    public TableType getJdbcTableType()
+    {
+      return TableType.SYSTEM_TABLE;
+    }
+
+    @Override
+    public Enumerable<Object[]> scan(DataContext root)
+    {
+      final AuthenticationResult authenticationResult =
+          (AuthenticationResult) root.get(PlannerContext.DATA_CTX_AUTHENTICATION_RESULT);
+
+      checkStateReadAccessForServers(authenticationResult, authorizerMapper);
+
+      final Map<DruidNode, ListenableFuture<List<SegmentQueryStats>>> futures = new HashMap<>();
+      for (DiscoveryDruidNode node : druidNodeDiscoveryProvider.getForNodeType(NodeType.HISTORICAL).getAllNodes()) {
+        futures.put(node.getDruidNode(), segmentQueryStatsClient.fetchSegmentQueryStats(node.getDruidNode()));
+      }
+
+      final List<Object[]> rows = new ArrayList<>();
+      for (Entry<DruidNode, ListenableFuture<List<SegmentQueryStats>>> entry : futures.entrySet()) {
+        final String server = entry.getKey().getHostAndPortToUse();
+        final List<SegmentQueryStats> serverStats;
+        try {
+          serverStats = entry.getValue().get();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+          log.warn(e.getCause(), "Failed to fetch segment query stats from server[%s], skipping it.", server);
+          continue;
+        }
+
+        final Iterable<SegmentQueryStats> authorizedStats = AuthorizationUtils.filterAuthorizedResources(
+            authenticationResult,
+            serverStats,
+            SEGMENT_QUERY_STATS_RA_GENERATOR,
+            authorizerMapper
+        );
+        for (SegmentQueryStats stats : authorizedStats) {
+          rows.add(
+              new Object[]{
+                  server,
+                  stats.getSegmentId(),
+                  stats.getDataSource(),
+                  stats.getQueryType(),
+                  stats.getQueryCount(),
+                  stats.getQueryTimeMs(),
+                  stats.getQueriesPerMinute(),
+                  stats.getAvgQueryTimeMs()
+              }
+          );
+        }
+      }
+      return Linq4j.asEnumerable(rows);
+    }
+  }
+
   //Note that overlord must be up to get tasks
   private static JsonParserIterator<TaskStatusPlus> getTasks(
       DruidLeaderClient indexingServiceClient,
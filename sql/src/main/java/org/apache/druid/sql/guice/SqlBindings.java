@@ -23,6 +23,7 @@ import com.google.inject.Binder;
 import com.google.inject.multibindings.Multibinder;
 import org.apache.druid.sql.calcite.aggregation.SqlAggregator;
 import org.apache.druid.sql.calcite.expression.SqlOperatorConversion;
+import org.apache.druid.sql.calcite.rel.QueryRewriter;
 
 public class SqlBindings
 {
@@ -41,4 +42,12 @@ public class SqlBindings
   {
     Multibinder.newSetBinder(binder, SqlOperatorConversion.class).addBinding().to(clazz);
   }
+
+  public static void addQueryRewriter(
+      final Binder binder,
+      final Class<? extends QueryRewriter> clazz
+  )
+  {
+    Multibinder.newSetBinder(binder, QueryRewriter.class).addBinding().to(clazz);
+  }
 }
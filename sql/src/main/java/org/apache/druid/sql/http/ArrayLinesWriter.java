@@ -77,7 +77,7 @@ public class ArrayLinesWriter implements ResultFormat.Writer
   @Override
   public void writeRowField(final String name, @Nullable final Object value) throws IOException
   {
-    jsonGenerator.writeObject(value);
+    ResultFormat.writeJsonValue(jsonGenerator, value);
   }
 
   @Override
@@ -86,6 +86,12 @@ public class ArrayLinesWriter implements ResultFormat.Writer
     jsonGenerator.writeEndArray();
   }
 
+  @Override
+  public void flush() throws IOException
+  {
+    jsonGenerator.flush();
+  }
+
   @Override
   public void close() throws IOException
   {
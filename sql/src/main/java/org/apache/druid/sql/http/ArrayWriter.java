@@ -75,7 +75,7 @@ public class ArrayWriter implements ResultFormat.Writer
   @Override
   public void writeRowField(final String name, @Nullable final Object value) throws IOException
   {
-    jsonGenerator.writeObject(value);
+    ResultFormat.writeJsonValue(jsonGenerator, value);
   }
 
   @Override
@@ -84,6 +84,12 @@ public class ArrayWriter implements ResultFormat.Writer
     jsonGenerator.writeEndArray();
   }
 
+  @Override
+  public void flush() throws IOException
+  {
+    jsonGenerator.flush();
+  }
+
   @Override
   public void close() throws IOException
   {
@@ -93,6 +93,12 @@ public class CsvWriter implements ResultFormat.Writer
     currentLine.clear();
   }
 
+  @Override
+  public void flush() throws IOException
+  {
+    writer.flush();
+  }
+
   @Override
   public void close() throws IOException
   {
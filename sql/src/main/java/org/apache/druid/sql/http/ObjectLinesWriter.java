@@ -26,11 +26,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ObjectLinesWriter implements ResultFormat.Writer
 {
   private final OutputStream outputStream;
+  private final Map<String, SerializedString> fieldNames = new HashMap<>();
   private final JsonGenerator jsonGenerator;
 
   public ObjectLinesWriter(final OutputStream outputStream, final ObjectMapper jsonMapper) throws IOException
@@ -77,8 +80,9 @@ public class ObjectLinesWriter implements ResultFormat.Writer
   @Override
   public void writeRowField(final String name, @Nullable final Object value) throws IOException
   {
-    jsonGenerator.writeFieldName(name);
-    jsonGenerator.writeObject(value);
+    // Field names are the same for every row, so they are quoted and escaped once, then reused.
+    jsonGenerator.writeFieldName(fieldNames.computeIfAbsent(name, SerializedString::new));
+    ResultFormat.writeJsonValue(jsonGenerator, value);
   }
 
   @Override
@@ -87,6 +91,12 @@ public class ObjectLinesWriter implements ResultFormat.Writer
     jsonGenerator.writeEndObject();
   }
 
+  @Override
+  public void flush() throws IOException
+  {
+    jsonGenerator.flush();
+  }
+
   @Override
   public void close() throws IOException
   {
@@ -20,17 +20,21 @@
 package org.apache.druid.sql.http;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ObjectWriter implements ResultFormat.Writer
 {
   private final JsonGenerator jsonGenerator;
   private final OutputStream outputStream;
+  private final Map<String, SerializedString> fieldNames = new HashMap<>();
 
   public ObjectWriter(final OutputStream outputStream, final ObjectMapper jsonMapper) throws IOException
   {
@@ -75,8 +79,9 @@ public class ObjectWriter implements ResultFormat.Writer
   @Override
   public void writeRowField(final String name, @Nullable final Object value) throws IOException
   {
-    jsonGenerator.writeFieldName(name);
-    jsonGenerator.writeObject(value);
+    // Field names are the same for every row, so they are quoted and escaped once, then reused.
+    jsonGenerator.writeFieldName(fieldNames.computeIfAbsent(name, SerializedString::new));
+    ResultFormat.writeJsonValue(jsonGenerator, value);
   }
 
   @Override
@@ -85,6 +90,12 @@ public class ObjectWriter implements ResultFormat.Writer
     jsonGenerator.writeEndObject();
   }
 
+  @Override
+  public void flush() throws IOException
+  {
+    jsonGenerator.flush();
+  }
+
   @Override
   public void close() throws IOException
   {
@@ -20,6 +20,7 @@
 package org.apache.druid.sql.http;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.druid.java.util.common.StringUtils;
 
@@ -130,6 +131,11 @@ public enum ResultFormat
      */
     void writeRowEnd() throws IOException;
 
+    /**
+     * Pushes everything written so far to the underlying stream. Called between batches of rows.
+     */
+    void flush() throws IOException;
+
     /**
      * End of the response. Must allow the user to know that they have read all data successfully.
      */
@@ -141,4 +147,30 @@ public enum ResultFormat
   {
     return valueOf(StringUtils.toUpperCase(name));
   }
+
+  /**
+   * Writes a result value using the matching {@link JsonGenerator} method for the types SQL queries usually return,
+   * and falls back to {@link JsonGenerator#writeObject} for the others. This skips the serializer lookup that
+   * writeObject does for every value.
+   */
+  static void writeJsonValue(final JsonGenerator jsonGenerator, @Nullable final Object value) throws IOException
+  {
+    if (value == null) {
+      jsonGenerator.writeNull();
+    } else if (value instanceof String) {
+      jsonGenerator.writeString((String) value);
+    } else if (value instanceof Long) {
+      jsonGenerator.writeNumber((Long) value);
+    } else if (value instanceof Double) {
+      jsonGenerator.writeNumber((Double) value);
+    } else if (value instanceof Float) {
+      jsonGenerator.writeNumber((Float) value);
+    } else if (value instanceof Integer) {
+      jsonGenerator.writeNumber((Integer) value);
+    } else if (value instanceof Boolean) {
+      jsonGenerator.writeBoolean((Boolean) value);
+    } else {
+      jsonGenerator.writeObject(value);
+    }
+  }
 }
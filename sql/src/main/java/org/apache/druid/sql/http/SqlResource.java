@@ -29,8 +29,9 @@ import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.druid.guice.annotations.Json;
 import org.apache.druid.java.util.common.ISE;
 import org.apache.druid.java.util.common.StringUtils;
+import org.apache.druid.java.util.common.guava.Sequence;
 import org.apache.druid.java.util.common.guava.Yielder;
-import org.apache.druid.java.util.common.guava.Yielders;
+import org.apache.druid.java.util.common.guava.YieldingAccumulator;
 import org.apache.druid.java.util.common.logger.Logger;
 import org.apache.druid.query.QueryInterruptedException;
 import org.apache.druid.server.security.ForbiddenException;
@@ -51,6 +52,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -59,6 +61,12 @@ public class SqlResource
 {
   private static final Logger log = new Logger(SqlResource.class);
 
+  /**
+   * Number of rows pulled from the query at a time. The writer is flushed after each batch, so results are streamed to
+   * the client as they are produced, without paying the cost of a yield and a flush for every single row.
+   */
+  private static final int ROWS_PER_BATCH = 1024;
+
   private final ObjectMapper jsonMapper;
   private final SqlLifecycleFactory sqlLifecycleFactory;
 
@@ -105,7 +113,7 @@ public class SqlResource
         columnNames[i] = fieldList.get(i).getName();
       }
 
-      final Yielder<Object[]> yielder0 = Yielders.each(lifecycle.execute());
+      final Yielder<List<Object[]>> yielder0 = toBatchYielder(lifecycle.execute());
 
       try {
         return Response
@@ -113,7 +121,8 @@ public class SqlResource
                 (StreamingOutput) outputStream -> {
                   Exception e = null;
                   CountingOutputStream os = new CountingOutputStream(outputStream);
-                  Yielder<Object[]> yielder = yielder0;
+                  Yielder<List<Object[]>> yielder = yielder0;
+                  long rowCount = 0;
 
                   try (final ResultFormat.Writer writer = sqlQuery.getResultFormat()
                                                                   .createFormatter(os, jsonMapper)) {
@@ -123,27 +132,41 @@ public class SqlResource
                       writer.writeHeader(Arrays.asList(columnNames));
                     }
 
-                    while (!yielder.isDone()) {
-                      final Object[] row = yielder.get();
-                      writer.writeRowStart();
-                      for (int i = 0; i < fieldList.size(); i++) {
-                        final Object value;
-
-                        if (timeColumns[i]) {
-                          value = ISODateTimeFormat.dateTime().print(
-                              Calcites.calciteTimestampToJoda((long) row[i], timeZone)
-                          );
-                        } else if (dateColumns[i]) {
-                          value = ISODateTimeFormat.dateTime().print(
-                              Calcites.calciteDateToJoda((int) row[i], timeZone)
-                          );
-                        } else {
-                          value = row[i];
+                    while (true) {
+                      final List<Object[]> batch = yielder.get();
+                      if (batch != null) {
+                        for (final Object[] row : batch) {
+                          writer.writeRowStart();
+                          for (int i = 0; i < columnNames.length; i++) {
+                            final Object value;
+
+                            if (timeColumns[i]) {
+                              value = ISODateTimeFormat.dateTime().print(
+                                  Calcites.calciteTimestampToJoda((long) row[i], timeZone)
+                              );
+                            } else if (dateColumns[i]) {
+                              value = ISODateTimeFormat.dateTime().print(
+                                  Calcites.calciteDateToJoda((int) row[i], timeZone)
+                              );
+                            } else {
+                              value = row[i];
+                            }
+
+                            writer.writeRowField(columnNames[i], value);
+                          }
+                          writer.writeRowEnd();
                         }
+                        rowCount += batch.size();
+
+                        // Some sequences return the last batch again from their final, done, yielder.
+                        batch.clear();
+                      }
 
-                        writer.writeRowField(fieldList.get(i).getName(), value);
+                      if (yielder.isDone()) {
+                        break;
                       }
-                      writer.writeRowEnd();
+
+                      writer.flush();
                       yielder = yielder.next(null);
                     }
 
@@ -156,7 +179,7 @@ public class SqlResource
                   }
                   finally {
                     yielder.close();
-                    lifecycle.emitLogsAndMetrics(e, remoteAddr, os.getCount());
+                    lifecycle.emitLogsAndMetrics(e, remoteAddr, os.getCount(), rowCount);
                   }
                 }
             )
@@ -193,4 +216,32 @@ public class SqlResource
       Thread.currentThread().setName(currThreadName);
     }
   }
+
+  /**
+   * Returns a yielder over batches of rows from the given sequence. The first batch has a single row, so that the
+   * response can start, and errors can be reported, as soon as the first row is available. Later batches have up to
+   * {@link #ROWS_PER_BATCH} rows. The final batch, returned by the yielder once it is done, may be null or empty.
+   */
+  private static Yielder<List<Object[]>> toBatchYielder(final Sequence<Object[]> sequence)
+  {
+    return sequence.toYielder(
+        null,
+        new YieldingAccumulator<List<Object[]>, Object[]>()
+        {
+          private int batchSize = 1;
+
+          @Override
+          public List<Object[]> accumulate(final List<Object[]> accumulated, final Object[] in)
+          {
+            final List<Object[]> batch = accumulated == null ? new ArrayList<>(batchSize) : accumulated;
+            batch.add(in);
+            if (batch.size() >= batchSize) {
+              batchSize = ROWS_PER_BATCH;
+              yield();
+            }
+            return batch;
+          }
+        }
+    );
+  }
 }
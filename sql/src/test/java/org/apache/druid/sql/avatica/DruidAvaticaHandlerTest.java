@@ -81,6 +81,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Date;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -264,6 +265,28 @@ public class DruidAvaticaHandlerTest extends CalciteTestBase
     );
   }
 
+  @Test
+  public void testPreparedStatementExecutedTwice() throws Exception
+  {
+    final PreparedStatement statement = client.prepareStatement("SELECT COUNT(*) AS cnt FROM druid.foo");
+    testRequestLogger.clear();
+    for (int i = 0; i < 2; i++) {
+      Assert.assertEquals(
+          ImmutableList.of(
+              ImmutableMap.of("cnt", 6L)
+          ),
+          getRows(statement.executeQuery())
+      );
+    }
+    statement.close();
+
+    // The second execution reuses the plan of the first one.
+    Assert.assertEquals(2, testRequestLogger.getSqlQueryLogs().size());
+    final Map<String, Object> stats = testRequestLogger.getSqlQueryLogs().get(1).getQueryStats().getStats();
+    Assert.assertEquals(true, stats.get("success"));
+    Assert.assertEquals(true, stats.get("planCacheHit"));
+  }
+
   @Test
   public void testTimestampsInResponse() throws Exception
   {
@@ -51,7 +51,9 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DruidStatementTest extends CalciteTestBase
 {
@@ -115,7 +117,7 @@ public class DruidStatementTest extends CalciteTestBase
   public void testSignature()
   {
     final String sql = "SELECT * FROM druid.foo";
-    final DruidStatement statement = new DruidStatement("", 0, null, sqlLifecycleFactory.factorize(), () -> {
+    final DruidStatement statement = new DruidStatement("", 0, null, sqlLifecycleFactory, 1, () -> {
     }).prepare(sql, -1, AllowAllAuthenticator.ALLOW_ALL_RESULT);
 
     // Check signature.
@@ -156,7 +158,7 @@ public class DruidStatementTest extends CalciteTestBase
   public void testSelectAllInFirstFrame()
   {
     final String sql = "SELECT __time, cnt, dim1, dim2, m1 FROM druid.foo";
-    final DruidStatement statement = new DruidStatement("", 0, null, sqlLifecycleFactory.factorize(), () -> {
+    final DruidStatement statement = new DruidStatement("", 0, null, sqlLifecycleFactory, 1, () -> {
     }).prepare(sql, -1, AllowAllAuthenticator.ALLOW_ALL_RESULT);
 
     // First frame, ask for all rows.
@@ -189,7 +191,7 @@ public class DruidStatementTest extends CalciteTestBase
   public void testSelectSplitOverTwoFrames()
   {
     final String sql = "SELECT __time, cnt, dim1, dim2, m1 FROM druid.foo";
-    final DruidStatement statement = new DruidStatement("", 0, null, sqlLifecycleFactory.factorize(), () -> {
+    final DruidStatement statement = new DruidStatement("", 0, null, sqlLifecycleFactory, 1, () -> {
     }).prepare(sql, -1, AllowAllAuthenticator.ALLOW_ALL_RESULT);
 
     // First frame, ask for 2 rows.
@@ -230,4 +232,33 @@ public class DruidStatementTest extends CalciteTestBase
     );
     Assert.assertTrue(statement.isDone());
   }
+
+  @Test
+  public void testReusableStatementExecutedTwice()
+  {
+    final String sql = "SELECT dim1 FROM druid.foo ORDER BY __time LIMIT 3";
+    final AtomicBoolean closed = new AtomicBoolean();
+    final DruidStatement statement = new DruidStatement("", 0, null, sqlLifecycleFactory, 1, () -> closed.set(true))
+        .prepare(sql, -1, AllowAllAuthenticator.ALLOW_ALL_RESULT, true);
+
+    for (int i = 0; i < 2; i++) {
+      Meta.Frame frame = statement.execute().nextFrame(DruidStatement.START_OFFSET, 2);
+      Assert.assertEquals(
+          Meta.Frame.create(0, false, Lists.newArrayList(new Object[]{""}, new Object[]{"10.1"})),
+          frame
+      );
+      Assert.assertFalse(statement.isDone());
+
+      frame = statement.nextFrame(2, 2);
+      Assert.assertEquals(
+          Meta.Frame.create(2, true, Collections.singletonList(new Object[]{"2"})),
+          frame
+      );
+      Assert.assertTrue(statement.isDone());
+      Assert.assertFalse(closed.get());
+    }
+
+    statement.close();
+    Assert.assertTrue(closed.get());
+  }
 }
@@ -22,6 +22,7 @@ package org.apache.druid.sql.calcite;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.apache.calcite.plan.RelOptPlanner;
 import org.apache.druid.common.config.NullHandling;
 import org.apache.druid.hll.VersionOneHyperLogLogCollector;
@@ -68,6 +69,7 @@ import org.apache.druid.sql.calcite.planner.DruidOperatorTable;
 import org.apache.druid.sql.calcite.planner.PlannerConfig;
 import org.apache.druid.sql.calcite.planner.PlannerContext;
 import org.apache.druid.sql.calcite.planner.PlannerFactory;
+import org.apache.druid.sql.calcite.rel.QueryRewriter;
 import org.apache.druid.sql.calcite.schema.DruidSchema;
 import org.apache.druid.sql.calcite.schema.SystemSchema;
 import org.apache.druid.sql.calcite.util.CalciteTestBase;
@@ -93,6 +95,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class BaseCalciteQueryTest extends CalciteTestBase
 {
@@ -167,6 +170,24 @@ public class BaseCalciteQueryTest extends CalciteTestBase
     }
   };
 
+  public static final PlannerConfig PLANNER_CONFIG_BROADCAST_JOIN_ROWS_LIMIT = new PlannerConfig()
+  {
+    @Override
+    public int getMaxBroadcastJoinRowsInMemory()
+    {
+      return 2;
+    }
+  };
+
+  public static final PlannerConfig PLANNER_CONFIG_WINDOW_ROWS_LIMIT = new PlannerConfig()
+  {
+    @Override
+    public int getMaxWindowRowsInMemory()
+    {
+      return 2;
+    }
+  };
+
   public static final String DUMMY_SQL_ID = "dummy";
   public static final String LOS_ANGELES = "America/Los_Angeles";
 
@@ -224,6 +245,7 @@ public class BaseCalciteQueryTest extends CalciteTestBase
   public TemporaryFolder temporaryFolder = new TemporaryFolder();
   public SpecificSegmentsQuerySegmentWalker walker = null;
   public QueryLogHook queryLogHook;
+  public Set<QueryRewriter> queryRewriters = ImmutableSet.of();
 
   {
     TIMESERIES_CONTEXT_LOS_ANGELES.put(PlannerContext.CTX_SQL_QUERY_ID, DUMMY_SQL_ID);
@@ -551,7 +573,8 @@ public class BaseCalciteQueryTest extends CalciteTestBase
         macroTable,
         plannerConfig,
         authorizerMapper,
-        objectMapper
+        objectMapper,
+        queryRewriters
     );
     final SqlLifecycleFactory sqlLifecycleFactory = CalciteTests.createSqlLifecycleFactory(plannerFactory);
 
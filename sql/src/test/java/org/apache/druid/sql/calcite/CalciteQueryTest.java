@@ -21,6 +21,8 @@ package org.apache.druid.sql.calcite;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.apache.calcite.runtime.CalciteContextException;
 import org.apache.calcite.tools.ValidationException;
 import org.apache.druid.common.config.NullHandling;
@@ -31,8 +33,10 @@ import org.apache.druid.java.util.common.granularity.Granularities;
 import org.apache.druid.java.util.common.granularity.PeriodGranularity;
 import org.apache.druid.math.expr.ExprMacroTable;
 import org.apache.druid.query.Druids;
+import org.apache.druid.query.Query;
 import org.apache.druid.query.QueryDataSource;
 import org.apache.druid.query.ResourceLimitExceededException;
+import org.apache.druid.query.TableDataSource;
 import org.apache.druid.query.aggregation.CountAggregatorFactory;
 import org.apache.druid.query.aggregation.DoubleMaxAggregatorFactory;
 import org.apache.druid.query.aggregation.DoubleSumAggregatorFactory;
@@ -49,6 +53,7 @@ import org.apache.druid.query.aggregation.post.ArithmeticPostAggregator;
 import org.apache.druid.query.aggregation.post.FieldAccessPostAggregator;
 import org.apache.druid.query.dimension.DefaultDimensionSpec;
 import org.apache.druid.query.dimension.ExtractionDimensionSpec;
+import org.apache.druid.query.extraction.MapLookupExtractor;
 import org.apache.druid.query.extraction.RegexDimExtractionFn;
 import org.apache.druid.query.extraction.SubstringDimExtractionFn;
 import org.apache.druid.query.filter.BoundDimFilter;
@@ -60,6 +65,7 @@ import org.apache.druid.query.groupby.GroupByQuery;
 import org.apache.druid.query.groupby.orderby.DefaultLimitSpec;
 import org.apache.druid.query.groupby.orderby.OrderByColumnSpec;
 import org.apache.druid.query.groupby.orderby.OrderByColumnSpec.Direction;
+import org.apache.druid.query.lookup.LookupExtractionFn;
 import org.apache.druid.query.lookup.RegisteredLookupExtractionFn;
 import org.apache.druid.query.ordering.StringComparators;
 import org.apache.druid.query.scan.ScanQuery;
@@ -72,6 +78,7 @@ import org.apache.druid.sql.calcite.expression.DruidExpression;
 import org.apache.druid.sql.calcite.filtration.Filtration;
 import org.apache.druid.sql.calcite.planner.Calcites;
 import org.apache.druid.sql.calcite.rel.CannotBuildQueryException;
+import org.apache.druid.sql.calcite.rel.QueryRewriter;
 import org.apache.druid.sql.calcite.util.CalciteTests;
 import org.hamcrest.CoreMatchers;
 import org.joda.time.DateTime;
@@ -86,6 +93,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class CalciteQueryTest extends BaseCalciteQueryTest
 {
@@ -126,6 +134,38 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
   }
 
 
+  @Test
+  public void testQueryRewriter() throws Exception
+  {
+    queryRewriters = ImmutableSet.of(
+        new QueryRewriter()
+        {
+          @Override
+          public <T> Query<T> rewrite(Query<T> query)
+          {
+            return query.withDataSource(new TableDataSource(CalciteTests.DATASOURCE2));
+          }
+        }
+    );
+
+    // The planned query reads foo, but it runs on foo2.
+    testQuery(
+        "SELECT COUNT(*) FROM foo",
+        ImmutableList.of(
+            Druids.newTimeseriesQueryBuilder()
+                  .dataSource(CalciteTests.DATASOURCE1)
+                  .intervals(querySegmentSpec(Filtration.eternity()))
+                  .granularity(Granularities.ALL)
+                  .aggregators(aggregators(new CountAggregatorFactory("a0")))
+                  .context(TIMESERIES_CONTEXT_DEFAULT)
+                  .build()
+        ),
+        ImmutableList.of(
+            new Object[]{3L}
+        )
+    );
+  }
+
   @Test
   public void testSelectCountStart() throws Exception
   {
@@ -313,20 +353,21 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
         + "FROM INFORMATION_SCHEMA.TABLES\n"
         + "WHERE TABLE_TYPE IN ('SYSTEM_TABLE', 'TABLE', 'VIEW')",
         ImmutableList.of(),
-        ImmutableList.of(
-            new Object[]{"druid", CalciteTests.DATASOURCE1, "TABLE"},
-            new Object[]{"druid", CalciteTests.DATASOURCE2, "TABLE"},
-            new Object[]{"druid", CalciteTests.DATASOURCE3, "TABLE"},
-            new Object[]{"druid", "aview", "VIEW"},
-            new Object[]{"druid", "bview", "VIEW"},
-            new Object[]{"INFORMATION_SCHEMA", "COLUMNS", "SYSTEM_TABLE"},
-            new Object[]{"INFORMATION_SCHEMA", "SCHEMATA", "SYSTEM_TABLE"},
-            new Object[]{"INFORMATION_SCHEMA", "TABLES", "SYSTEM_TABLE"},
-            new Object[]{"sys", "segments", "SYSTEM_TABLE"},
-            new Object[]{"sys", "server_segments", "SYSTEM_TABLE"},
-            new Object[]{"sys", "servers", "SYSTEM_TABLE"},
-            new Object[]{"sys", "tasks", "SYSTEM_TABLE"}
-        )
+        ImmutableList.<Object[]>builder()
+            .add(new Object[]{"druid", CalciteTests.DATASOURCE1, "TABLE"})
+            .add(new Object[]{"druid", CalciteTests.DATASOURCE2, "TABLE"})
+            .add(new Object[]{"druid", CalciteTests.DATASOURCE3, "TABLE"})
+            .add(new Object[]{"druid", "aview", "VIEW"})
+            .add(new Object[]{"druid", "bview", "VIEW"})
+            .add(new Object[]{"INFORMATION_SCHEMA", "COLUMNS", "SYSTEM_TABLE"})
+            .add(new Object[]{"INFORMATION_SCHEMA", "SCHEMATA", "SYSTEM_TABLE"})
+            .add(new Object[]{"INFORMATION_SCHEMA", "TABLES", "SYSTEM_TABLE"})
+            .add(new Object[]{"sys", "segment_query_stats", "SYSTEM_TABLE"})
+            .add(new Object[]{"sys", "segments", "SYSTEM_TABLE"})
+            .add(new Object[]{"sys", "server_segments", "SYSTEM_TABLE"})
+            .add(new Object[]{"sys", "servers", "SYSTEM_TABLE"})
+            .add(new Object[]{"sys", "tasks", "SYSTEM_TABLE"})
+            .build()
     );
 
     testQuery(
@@ -346,6 +387,7 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
             .add(new Object[]{"INFORMATION_SCHEMA", "COLUMNS", "SYSTEM_TABLE"})
             .add(new Object[]{"INFORMATION_SCHEMA", "SCHEMATA", "SYSTEM_TABLE"})
             .add(new Object[]{"INFORMATION_SCHEMA", "TABLES", "SYSTEM_TABLE"})
+            .add(new Object[]{"sys", "segment_query_stats", "SYSTEM_TABLE"})
             .add(new Object[]{"sys", "segments", "SYSTEM_TABLE"})
             .add(new Object[]{"sys", "server_segments", "SYSTEM_TABLE"})
             .add(new Object[]{"sys", "servers", "SYSTEM_TABLE"})
@@ -4787,6 +4829,484 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
     );
   }
 
+  @Test
+  public void testBroadcastJoinGroupByRightColumn() throws Exception
+  {
+    final ScanQuery rightQuery = newScanQueryBuilder()
+        .dataSource(CalciteTests.DATASOURCE1)
+        .intervals(querySegmentSpec(Filtration.eternity()))
+        .virtualColumns(expressionVirtualColumn("v0", "upper(\"dim1\")", ValueType.STRING))
+        .filters(in("dim1", ImmutableList.of("1", "2", "abc"), null))
+        .columns("dim1", "v0")
+        .context(QUERY_CONTEXT_DEFAULT)
+        .build();
+
+    testQuery(
+        "SELECT t.v, COUNT(*)\n"
+        + "FROM druid.foo\n"
+        + "  INNER JOIN (\n"
+        + "    SELECT dim1 AS k, UPPER(dim1) AS v FROM druid.foo WHERE dim1 IN ('1', '2', 'abc')\n"
+        + "  ) t ON foo.dim1 = t.k\n"
+        + "GROUP BY t.v",
+        ImmutableList.of(
+            rightQuery,
+            GroupByQuery.builder()
+                        .setDataSource(CalciteTests.DATASOURCE1)
+                        .setInterval(querySegmentSpec(Filtration.eternity()))
+                        .setGranularity(Granularities.ALL)
+                        .setDimFilter(
+                            not(
+                                selector(
+                                    "dim1",
+                                    null,
+                                    broadcastJoinLookup(ImmutableMap.of("1", "1", "2", "2", "abc", "abc"), true)
+                                )
+                            )
+                        )
+                        .setDimensions(
+                            dimensions(
+                                new ExtractionDimensionSpec(
+                                    "dim1",
+                                    "d0",
+                                    broadcastJoinLookup(ImmutableMap.of("1", "1", "2", "2", "abc", "ABC"), false)
+                                )
+                            )
+                        )
+                        .setAggregatorSpecs(aggregators(new CountAggregatorFactory("a0")))
+                        .setContext(QUERY_CONTEXT_DEFAULT)
+                        .build()
+        ),
+        ImmutableList.of(
+            new Object[]{"1", 1L},
+            new Object[]{"2", 1L},
+            new Object[]{"ABC", 1L}
+        )
+    );
+  }
+
+  @Test
+  public void testBroadcastLeftJoin() throws Exception
+  {
+    testQuery(
+        "SELECT foo.dim1, t.v\n"
+        + "FROM druid.foo\n"
+        + "  LEFT JOIN (\n"
+        + "    SELECT dim1 AS k, UPPER(dim1) AS v FROM druid.foo WHERE dim1 IN ('1', '2', 'abc')\n"
+        + "  ) t ON foo.dim1 = t.k\n"
+        + "WHERE foo.dim1 <> ''",
+        ImmutableList.of(
+            newScanQueryBuilder()
+                .dataSource(CalciteTests.DATASOURCE1)
+                .intervals(querySegmentSpec(Filtration.eternity()))
+                .virtualColumns(expressionVirtualColumn("v0", "upper(\"dim1\")", ValueType.STRING))
+                .filters(in("dim1", ImmutableList.of("1", "2", "abc"), null))
+                .columns("dim1", "v0")
+                .context(QUERY_CONTEXT_DEFAULT)
+                .build(),
+            newScanQueryBuilder()
+                .dataSource(CalciteTests.DATASOURCE1)
+                .intervals(querySegmentSpec(Filtration.eternity()))
+                .virtualColumns(
+                    expressionVirtualColumn(
+                        "v0",
+                        "map_lookup(\"dim1\",'1','1','2','2','abc','ABC')",
+                        ValueType.STRING
+                    )
+                )
+                .filters(not(selector("dim1", "", null)))
+                .columns("dim1", "v0")
+                .context(QUERY_CONTEXT_DEFAULT)
+                .build()
+        ),
+        ImmutableList.of(
+            new Object[]{"10.1", NULL_VALUE},
+            new Object[]{"2", "2"},
+            new Object[]{"1", "1"},
+            new Object[]{"def", NULL_VALUE},
+            new Object[]{"abc", "ABC"}
+        )
+    );
+  }
+
+  @Test
+  public void testBroadcastLeftJoinWithNullRightValues() throws Exception
+  {
+    // Null right-hand side values are left out of the lookups, which return null for missing keys anyway.
+    testQuery(
+        "SELECT foo.dim1, t.v, t.u\n"
+        + "FROM druid.foo\n"
+        + "  LEFT JOIN (\n"
+        + "    SELECT dim1 AS k, dim2 AS v, UPPER(dim1) AS u FROM druid.foo WHERE dim1 IN ('1', '2', 'abc')\n"
+        + "  ) t ON foo.dim1 = t.k\n"
+        + "WHERE foo.dim1 <> ''",
+        ImmutableList.of(
+            newScanQueryBuilder()
+                .dataSource(CalciteTests.DATASOURCE1)
+                .intervals(querySegmentSpec(Filtration.eternity()))
+                .virtualColumns(expressionVirtualColumn("v0", "upper(\"dim1\")", ValueType.STRING))
+                .filters(in("dim1", ImmutableList.of("1", "2", "abc"), null))
+                .columns("dim1", "dim2", "v0")
+                .context(QUERY_CONTEXT_DEFAULT)
+                .build(),
+            newScanQueryBuilder()
+                .dataSource(CalciteTests.DATASOURCE1)
+                .intervals(querySegmentSpec(Filtration.eternity()))
+                .virtualColumns(
+                    expressionVirtualColumn(
+                        "v0",
+                        NullHandling.replaceWithDefault()
+                        ? "map_lookup(\"dim1\",'1','a','2','','abc','')"
+                        : "map_lookup(\"dim1\",'1','a','2','')",
+                        ValueType.STRING
+                    ),
+                    expressionVirtualColumn(
+                        "v1",
+                        "map_lookup(\"dim1\",'1','1','2','2','abc','ABC')",
+                        ValueType.STRING
+                    )
+                )
+                .filters(not(selector("dim1", "", null)))
+                .columns("dim1", "v0", "v1")
+                .context(QUERY_CONTEXT_DEFAULT)
+                .build()
+        ),
+        ImmutableList.of(
+            new Object[]{"10.1", NULL_VALUE, NULL_VALUE},
+            new Object[]{"2", "", "2"},
+            new Object[]{"1", "a", "1"},
+            new Object[]{"def", NULL_VALUE, NULL_VALUE},
+            new Object[]{"abc", NULL_VALUE, "ABC"}
+        )
+    );
+  }
+
+  @Test
+  public void testBroadcastJoinWithDuplicateKeys() throws Exception
+  {
+    expectedException.expect(CannotBuildQueryException.class);
+    expectedException.expectMessage("Right-hand side of a broadcast join has more than one row for key[a]");
+    testQuery(
+        "SELECT foo.dim1, t.dim1\n"
+        + "FROM druid.foo\n"
+        + "  INNER JOIN (SELECT dim1, dim2 FROM druid.foo WHERE dim2 = 'a') t ON foo.dim2 = t.dim2",
+        ImmutableList.of(),
+        ImmutableList.of()
+    );
+  }
+
+  @Test
+  public void testMaxBroadcastJoinRowsInMemory() throws Exception
+  {
+    expectedException.expect(ResourceLimitExceededException.class);
+    expectedException.expectMessage("maxBroadcastJoinRowsInMemory[2] exceeded");
+    testQuery(
+        PLANNER_CONFIG_BROADCAST_JOIN_ROWS_LIMIT,
+        "SELECT foo.dim1, t.v\n"
+        + "FROM druid.foo\n"
+        + "  INNER JOIN (\n"
+        + "    SELECT dim1 AS k, UPPER(dim1) AS v FROM druid.foo WHERE dim1 IN ('1', '2', 'abc')\n"
+        + "  ) t ON foo.dim1 = t.k",
+        CalciteTests.REGULAR_USER_AUTH_RESULT,
+        ImmutableList.of(),
+        ImmutableList.of()
+    );
+  }
+
+  @Test
+  public void testWindowRunningTotal() throws Exception
+  {
+    testQuery(
+        "SELECT dim2, dim1, cnt, SUM(cnt) OVER (PARTITION BY dim2 ORDER BY dim1)\n"
+        + "FROM (SELECT dim1, dim2, SUM(cnt) AS cnt FROM druid.foo GROUP BY dim1, dim2)",
+        ImmutableList.of(
+            GroupByQuery.builder()
+                        .setDataSource(CalciteTests.DATASOURCE1)
+                        .setInterval(querySegmentSpec(Filtration.eternity()))
+                        .setGranularity(Granularities.ALL)
+                        .setDimensions(
+                            dimensions(
+                                new DefaultDimensionSpec("dim1", "d0"),
+                                new DefaultDimensionSpec("dim2", "d1")
+                            )
+                        )
+                        .setAggregatorSpecs(aggregators(new LongSumAggregatorFactory("a0", "cnt")))
+                        .setLimitSpec(
+                            new DefaultLimitSpec(
+                                ImmutableList.of(
+                                    new OrderByColumnSpec(
+                                        "d1",
+                                        OrderByColumnSpec.Direction.ASCENDING,
+                                        StringComparators.LEXICOGRAPHIC
+                                    ),
+                                    new OrderByColumnSpec(
+                                        "d0",
+                                        OrderByColumnSpec.Direction.ASCENDING,
+                                        StringComparators.LEXICOGRAPHIC
+                                    )
+                                ),
+                                Integer.MAX_VALUE
+                            )
+                        )
+                        .setContext(QUERY_CONTEXT_DEFAULT)
+                        .build()
+        ),
+        NullHandling.replaceWithDefault() ?
+        ImmutableList.of(
+            new Object[]{"", "10.1", 1L, 1L},
+            new Object[]{"", "2", 1L, 2L},
+            new Object[]{"", "abc", 1L, 3L},
+            new Object[]{"a", "", 1L, 1L},
+            new Object[]{"a", "1", 1L, 2L},
+            new Object[]{"abc", "def", 1L, 1L}
+        ) :
+        ImmutableList.of(
+            new Object[]{null, "10.1", 1L, 1L},
+            new Object[]{null, "abc", 1L, 2L},
+            new Object[]{"", "2", 1L, 1L},
+            new Object[]{"a", "", 1L, 1L},
+            new Object[]{"a", "1", 1L, 2L},
+            new Object[]{"abc", "def", 1L, 1L}
+        )
+    );
+  }
+
+  @Test
+  public void testWindowRankingFunctions() throws Exception
+  {
+    testQuery(
+        "SELECT dim1, len,\n"
+        + "  ROW_NUMBER() OVER w, RANK() OVER w, DENSE_RANK() OVER w\n"
+        + "FROM (SELECT dim1, CHARACTER_LENGTH(dim1) AS len FROM druid.foo GROUP BY dim1)\n"
+        + "WINDOW w AS (ORDER BY len DESC)",
+        ImmutableList.of(
+            GroupByQuery.builder()
+                        .setDataSource(CalciteTests.DATASOURCE1)
+                        .setInterval(querySegmentSpec(Filtration.eternity()))
+                        .setGranularity(Granularities.ALL)
+                        .setDimensions(dimensions(new DefaultDimensionSpec("dim1", "d0")))
+                        .setPostAggregatorSpecs(ImmutableList.of(expressionPostAgg("p0", "strlen(\"d0\")")))
+                        .setLimitSpec(
+                            new DefaultLimitSpec(
+                                ImmutableList.of(
+                                    new OrderByColumnSpec(
+                                        "p0",
+                                        OrderByColumnSpec.Direction.DESCENDING,
+                                        StringComparators.NUMERIC
+                                    )
+                                ),
+                                Integer.MAX_VALUE
+                            )
+                        )
+                        .setContext(QUERY_CONTEXT_DEFAULT)
+                        .build()
+        ),
+        ImmutableList.of(
+            new Object[]{"10.1", 4, 1L, 1L, 1L},
+            new Object[]{"abc", 3, 2L, 2L, 2L},
+            new Object[]{"def", 3, 3L, 2L, 2L},
+            new Object[]{"1", 1, 4L, 4L, 3L},
+            new Object[]{"2", 1, 5L, 4L, 3L},
+            new Object[]{"", 0, 6L, 6L, 4L}
+        )
+    );
+  }
+
+  @Test
+  public void testWindowLagAndLeadOverTimeseries() throws Exception
+  {
+    testQuery(
+        "SELECT FLOOR(__time TO MONTH), SUM(cnt),\n"
+        + "  LAG(SUM(cnt)) OVER w,\n"
+        + "  LEAD(SUM(cnt), 1, 0) OVER w,\n"
+        + "  SUM(SUM(cnt)) OVER w * 10\n"
+        + "FROM druid.foo\n"
+        + "GROUP BY FLOOR(__time TO MONTH)\n"
+        + "WINDOW w AS (ORDER BY FLOOR(__time TO MONTH))",
+        ImmutableList.of(
+            Druids.newTimeseriesQueryBuilder()
+                  .dataSource(CalciteTests.DATASOURCE1)
+                  .intervals(querySegmentSpec(Filtration.eternity()))
+                  .granularity(Granularities.MONTH)
+                  .aggregators(aggregators(new LongSumAggregatorFactory("a0", "cnt")))
+                  .context(TIMESERIES_CONTEXT_DEFAULT)
+                  .build()
+        ),
+        ImmutableList.of(
+            new Object[]{timestamp("2000-01-01"), 3L, null, 3L, 30L},
+            new Object[]{timestamp("2001-01-01"), 3L, 3L, 0L, 60L}
+        )
+    );
+  }
+
+  @Test
+  public void testWindowRowsFrame() throws Exception
+  {
+    testQuery(
+        "SELECT dim1, m,\n"
+        + "  AVG(m) OVER w, MIN(m) OVER w, MAX(m) OVER w, COUNT(*) OVER w\n"
+        + "FROM (SELECT dim1, SUM(m1) AS m FROM druid.foo GROUP BY dim1)\n"
+        + "WINDOW w AS (ORDER BY dim1 ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING)",
+        ImmutableList.of(
+            GroupByQuery.builder()
+                        .setDataSource(CalciteTests.DATASOURCE1)
+                        .setInterval(querySegmentSpec(Filtration.eternity()))
+                        .setGranularity(Granularities.ALL)
+                        .setDimensions(dimensions(new DefaultDimensionSpec("dim1", "d0")))
+                        .setAggregatorSpecs(aggregators(new DoubleSumAggregatorFactory("a0", "m1")))
+                        .setLimitSpec(
+                            new DefaultLimitSpec(
+                                ImmutableList.of(
+                                    new OrderByColumnSpec(
+                                        "d0",
+                                        OrderByColumnSpec.Direction.ASCENDING,
+                                        StringComparators.LEXICOGRAPHIC
+                                    )
+                                ),
+                                Integer.MAX_VALUE
+                            )
+                        )
+                        .setContext(QUERY_CONTEXT_DEFAULT)
+                        .build()
+        ),
+        ImmutableList.of(
+            new Object[]{"", 1.0, 2.5, 1.0, 4.0, 2L},
+            new Object[]{"1", 4.0, 7.0 / 3, 1.0, 4.0, 3L},
+            new Object[]{"10.1", 2.0, 3.0, 2.0, 4.0, 3L},
+            new Object[]{"2", 3.0, 11.0 / 3, 2.0, 6.0, 3L},
+            new Object[]{"abc", 6.0, 14.0 / 3, 3.0, 6.0, 3L},
+            new Object[]{"def", 5.0, 5.5, 5.0, 6.0, 2L}
+        )
+    );
+  }
+
+  @Test
+  public void testWindowWithMultipleOrderingsIsUnplannable() throws Exception
+  {
+    assertQueryIsUnplannable(
+        "SELECT dim1, ROW_NUMBER() OVER (ORDER BY dim1), ROW_NUMBER() OVER (ORDER BY dim2)\n"
+        + "FROM druid.foo\n"
+        + "GROUP BY dim1, dim2"
+    );
+  }
+
+  /**
+   * Returns the groupBy on dim1, sorted by dim1, of the window tests ordered by dim1.
+   */
+  private static GroupByQuery windowGroupByDim1()
+  {
+    return GroupByQuery.builder()
+                       .setDataSource(CalciteTests.DATASOURCE1)
+                       .setInterval(querySegmentSpec(Filtration.eternity()))
+                       .setGranularity(Granularities.ALL)
+                       .setDimensions(dimensions(new DefaultDimensionSpec("dim1", "d0")))
+                       .setLimitSpec(
+                           new DefaultLimitSpec(
+                               ImmutableList.of(
+                                   new OrderByColumnSpec(
+                                       "d0",
+                                       OrderByColumnSpec.Direction.ASCENDING,
+                                       StringComparators.LEXICOGRAPHIC
+                                   )
+                               ),
+                               Integer.MAX_VALUE
+                           )
+                       )
+                       .setContext(QUERY_CONTEXT_DEFAULT)
+                       .build();
+  }
+
+  @Test
+  public void testWindowFollowedByFilter() throws Exception
+  {
+    testQuery(
+        "SELECT * FROM (\n"
+        + "  SELECT dim1, ROW_NUMBER() OVER (ORDER BY dim1) AS rn FROM druid.foo GROUP BY dim1\n"
+        + ") WHERE rn BETWEEN 2 AND 3 OR dim1 = 'def'",
+        ImmutableList.of(windowGroupByDim1()),
+        ImmutableList.of(
+            new Object[]{"1", 2L},
+            new Object[]{"10.1", 3L},
+            new Object[]{"def", 6L}
+        )
+    );
+  }
+
+  @Test
+  public void testWindowFollowedBySortAndLimit() throws Exception
+  {
+    testQuery(
+        "SELECT dim1, ROW_NUMBER() OVER (ORDER BY dim1) AS rn FROM druid.foo GROUP BY dim1\n"
+        + "ORDER BY rn DESC\n"
+        + "LIMIT 2 OFFSET 1",
+        ImmutableList.of(windowGroupByDim1()),
+        ImmutableList.of(
+            new Object[]{"abc", 5L},
+            new Object[]{"2", 4L}
+        )
+    );
+  }
+
+  @Test
+  public void testWindowFollowedByLimit() throws Exception
+  {
+    testQuery(
+        "SELECT dim1, ROW_NUMBER() OVER (ORDER BY dim1) AS rn FROM druid.foo GROUP BY dim1\n"
+        + "LIMIT 2",
+        ImmutableList.of(windowGroupByDim1()),
+        ImmutableList.of(
+            new Object[]{"", 1L},
+            new Object[]{"1", 2L}
+        )
+    );
+  }
+
+  @Test
+  public void testWindowFollowedByFilterSortAndProject() throws Exception
+  {
+    testQuery(
+        "SELECT UPPER(dim1), rn * 10 FROM (\n"
+        + "  SELECT dim1, ROW_NUMBER() OVER (ORDER BY dim1) AS rn FROM druid.foo GROUP BY dim1\n"
+        + ") WHERE rn > 3\n"
+        + "ORDER BY dim1 DESC",
+        ImmutableList.of(windowGroupByDim1()),
+        ImmutableList.of(
+            new Object[]{"DEF", 60L},
+            new Object[]{"ABC", 50L},
+            new Object[]{"2", 40L}
+        )
+    );
+  }
+
+  @Test
+  public void testMaxWindowRowsInMemoryForSortAfterWindow() throws Exception
+  {
+    expectedException.expect(ResourceLimitExceededException.class);
+    expectedException.expectMessage("maxWindowRowsInMemory[2] exceeded");
+    testQuery(
+        PLANNER_CONFIG_WINDOW_ROWS_LIMIT,
+        "SELECT dim1, ROW_NUMBER() OVER (PARTITION BY dim1) AS rn FROM druid.foo GROUP BY dim1\n"
+        + "ORDER BY dim1 DESC",
+        CalciteTests.REGULAR_USER_AUTH_RESULT,
+        ImmutableList.of(),
+        ImmutableList.of()
+    );
+  }
+
+  @Test
+  public void testMaxWindowRowsInMemory() throws Exception
+  {
+    expectedException.expect(ResourceLimitExceededException.class);
+    expectedException.expectMessage("maxWindowRowsInMemory[2] exceeded");
+    testQuery(
+        PLANNER_CONFIG_WINDOW_ROWS_LIMIT,
+        "SELECT dim1, SUM(cnt) OVER (ORDER BY dim1)\n"
+        + "FROM (SELECT dim1, SUM(cnt) AS cnt FROM druid.foo GROUP BY dim1)",
+        CalciteTests.REGULAR_USER_AUTH_RESULT,
+        ImmutableList.of(),
+        ImmutableList.of()
+    );
+  }
+
   @Test
   public void testExplainExactCountDistinctOfSemiJoinResult() throws Exception
   {
@@ -7945,4 +8465,8 @@ public class CalciteQueryTest extends BaseCalciteQueryTest
     );
   }
 
+  private static LookupExtractionFn broadcastJoinLookup(final Map<String, String> map, final boolean isKeyLookup)
+  {
+    return new LookupExtractionFn(new MapLookupExtractor(map, isKeyLookup), false, null, isKeyLookup, true);
+  }
 }
@@ -221,6 +221,21 @@ public class SqlResourceTest extends CalciteTestBase
     checkSqlRequestLog(true);
   }
 
+  @Test
+  public void testRowCountInRequestLog() throws Exception
+  {
+    final List<Map<String, Object>> rows = doPost(
+        new SqlQuery("SELECT dim1 FROM druid.foo", ResultFormat.OBJECT, false, null)
+    ).rhs;
+
+    Assert.assertEquals(6, rows.size());
+    checkSqlRequestLog(true);
+    Assert.assertEquals(
+        6L,
+        testRequestLogger.getSqlQueryLogs().get(0).getQueryStats().getStats().get("sqlQuery/rows")
+    );
+  }
+
   @Test
   public void testTimestampsInResponse() throws Exception
   {
@@ -684,6 +699,7 @@ public class SqlResourceTest extends CalciteTestBase
     Assert.assertTrue(queryContext.containsKey(PlannerContext.CTX_SQL_QUERY_ID));
     if (success) {
       Assert.assertTrue(stats.containsKey("sqlQuery/bytes"));
+      Assert.assertTrue(stats.containsKey("sqlQuery/rows"));
     } else {
       Assert.assertTrue(stats.containsKey("exception"));
     }
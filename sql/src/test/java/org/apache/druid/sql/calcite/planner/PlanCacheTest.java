@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.druid.sql.calcite.planner;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.druid.sql.calcite.BaseCalciteQueryTest;
+import org.apache.druid.sql.calcite.schema.DruidSchema;
+import org.apache.druid.sql.calcite.schema.SystemSchema;
+import org.apache.druid.sql.calcite.util.CalciteTests;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class PlanCacheTest extends BaseCalciteQueryTest
+{
+  private static final PlannerConfig PLANNER_CONFIG_PLAN_CACHE = new PlannerConfig()
+  {
+    @Override
+    public int getPlanCacheSize()
+    {
+      return 10;
+    }
+  };
+
+  private PlannerFactory plannerFactory;
+
+  @Before
+  @Override
+  public void setUp() throws Exception
+  {
+    super.setUp();
+    final DruidSchema druidSchema = CalciteTests.createMockSchema(conglomerate, walker, PLANNER_CONFIG_PLAN_CACHE);
+    final SystemSchema systemSchema = CalciteTests.createMockSystemSchema(
+        druidSchema,
+        walker,
+        PLANNER_CONFIG_PLAN_CACHE
+    );
+    plannerFactory = new PlannerFactory(
+        druidSchema,
+        systemSchema,
+        CalciteTests.createMockQueryLifecycleFactory(walker, conglomerate),
+        CalciteTests.createOperatorTable(),
+        CalciteTests.createExprMacroTable(),
+        PLANNER_CONFIG_PLAN_CACHE,
+        CalciteTests.TEST_AUTHORIZER_MAPPER,
+        CalciteTests.getJsonMapper()
+    );
+  }
+
+  @Test
+  public void testCacheHit() throws Exception
+  {
+    final String sql = "SELECT dim1, COUNT(*) FROM druid.foo GROUP BY dim1";
+
+    final PlannerResult first = plan(sql, QUERY_CONTEXT_DEFAULT);
+    Assert.assertFalse(first.isFromPlanCache());
+    final List<Object[]> expected = first.run().toList();
+
+    // Surrounding whitespaces and the sqlQueryId don't matter.
+    final PlannerResult second = plan("  " + sql + "\n", QUERY_CONTEXT_DEFAULT);
+    Assert.assertTrue(second.isFromPlanCache());
+    Assert.assertEquals(first.rowType(), second.rowType());
+    Assert.assertEquals(first.datasourceNames(), second.datasourceNames());
+    assertResultsEqual(expected, second.run().toList());
+  }
+
+  @Test
+  public void testCacheHitWithFieldMapping() throws Exception
+  {
+    // The ORDER BY column isn't selected, so the results are remapped to root.fields.
+    final String sql = "SELECT dim1 FROM druid.foo ORDER BY __time DESC LIMIT 3";
+
+    final PlannerResult first = plan(sql, QUERY_CONTEXT_DEFAULT);
+    Assert.assertFalse(first.isFromPlanCache());
+    final List<Object[]> expected = first.run().toList();
+    Assert.assertEquals(3, expected.size());
+    Assert.assertEquals(1, expected.get(0).length);
+
+    final PlannerResult second = plan(sql, QUERY_CONTEXT_DEFAULT);
+    Assert.assertTrue(second.isFromPlanCache());
+    assertResultsEqual(expected, second.run().toList());
+  }
+
+  @Test
+  public void testDifferentContextIsNotHit() throws Exception
+  {
+    final String sql = "SELECT FLOOR(__time TO DAY), COUNT(*) FROM druid.foo GROUP BY 1";
+
+    Assert.assertFalse(plan(sql, QUERY_CONTEXT_DEFAULT).isFromPlanCache());
+    Assert.assertFalse(plan(sql, QUERY_CONTEXT_LOS_ANGELES).isFromPlanCache());
+    Assert.assertTrue(plan(sql, QUERY_CONTEXT_LOS_ANGELES).isFromPlanCache());
+  }
+
+  @Test
+  public void testCurrentTimestampIsNotCached() throws Exception
+  {
+    final String sql = "SELECT COUNT(*) FROM druid.foo WHERE __time < CURRENT_TIMESTAMP";
+
+    Assert.assertFalse(plan(sql, QUERY_CONTEXT_DEFAULT).isFromPlanCache());
+    Assert.assertFalse(plan(sql, QUERY_CONTEXT_DEFAULT).isFromPlanCache());
+  }
+
+  @Test
+  public void testExplainIsNotCached() throws Exception
+  {
+    final String sql = "EXPLAIN PLAN FOR SELECT COUNT(*) FROM druid.foo";
+
+    Assert.assertFalse(plan(sql, QUERY_CONTEXT_DEFAULT).isFromPlanCache());
+    Assert.assertFalse(plan(sql, QUERY_CONTEXT_DEFAULT).isFromPlanCache());
+  }
+
+  @Test
+  public void testSemiJoinIsNotCached() throws Exception
+  {
+    // The native query of a semi-join is built from the results of another query.
+    final String sql = "SELECT COUNT(*) FROM (\n"
+                       + "  SELECT dim2 FROM druid.foo WHERE dim2 IN (SELECT dim1 FROM druid.foo GROUP BY dim1)\n"
+                       + "  GROUP BY dim2\n"
+                       + ")";
+
+    Assert.assertFalse(plan(sql, QUERY_CONTEXT_DEFAULT).isFromPlanCache());
+    Assert.assertFalse(plan(sql, QUERY_CONTEXT_DEFAULT).isFromPlanCache());
+  }
+
+  @Test
+  public void testKey()
+  {
+    final Map<String, Object> context1 = ImmutableMap.of(PlannerContext.CTX_SQL_QUERY_ID, "id1", "foo", "bar");
+    final Map<String, Object> context2 = ImmutableMap.of(PlannerContext.CTX_SQL_QUERY_ID, "id2", "foo", "bar");
+
+    Assert.assertEquals(PlanCache.Key.of("SELECT 1", context1, 1), PlanCache.Key.of(" SELECT 1 ", context2, 1));
+    Assert.assertEquals(
+        PlanCache.Key.of("SELECT 1", context1, 1).hashCode(),
+        PlanCache.Key.of(" SELECT 1 ", context2, 1).hashCode()
+    );
+    Assert.assertNotEquals(PlanCache.Key.of("SELECT 1", context1, 1), PlanCache.Key.of("SELECT 1", context1, 2));
+    Assert.assertNotEquals(PlanCache.Key.of("SELECT 1", context1, 1), PlanCache.Key.of("SELECT 2", context1, 1));
+    Assert.assertNotEquals(PlanCache.Key.of("SELECT 1", context1, 1), PlanCache.Key.of("SELECT 1", null, 1));
+  }
+
+  private PlannerResult plan(final String sql, final Map<String, Object> queryContext) throws Exception
+  {
+    final Map<String, Object> context = new HashMap<>(queryContext);
+    context.put(PlannerContext.CTX_SQL_QUERY_ID, UUID.randomUUID().toString());
+    try (DruidPlanner planner = plannerFactory.createPlanner(context, CalciteTests.REGULAR_USER_AUTH_RESULT)) {
+      return planner.plan(sql);
+    }
+  }
+
+  private static void assertResultsEqual(final List<Object[]> expected, final List<Object[]> actual)
+  {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertArrayEquals(expected.get(i), actual.get(i));
+    }
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.druid.sql.calcite.schema;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -30,6 +31,7 @@ import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.druid.client.ImmutableDruidServer;
 import org.apache.druid.client.TimelineServerView;
 import org.apache.druid.data.input.InputRow;
+import org.apache.druid.jackson.DefaultObjectMapper;
 import org.apache.druid.java.util.common.Intervals;
 import org.apache.druid.java.util.common.Pair;
 import org.apache.druid.java.util.common.io.Closer;
@@ -40,12 +42,14 @@ import org.apache.druid.query.aggregation.LongSumAggregatorFactory;
 import org.apache.druid.query.aggregation.hyperloglog.HyperUniquesAggregatorFactory;
 import org.apache.druid.segment.IndexBuilder;
 import org.apache.druid.segment.QueryableIndex;
+import org.apache.druid.segment.column.ValueType;
 import org.apache.druid.segment.incremental.IncrementalIndexSchema;
 import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMediumFactory;
 import org.apache.druid.server.coordination.DruidServerMetadata;
 import org.apache.druid.server.security.NoopEscalator;
 import org.apache.druid.sql.calcite.planner.PlannerConfig;
 import org.apache.druid.sql.calcite.table.DruidTable;
+import org.apache.druid.sql.calcite.table.RowSignature;
 import org.apache.druid.sql.calcite.util.CalciteTestBase;
 import org.apache.druid.sql.calcite.util.CalciteTests;
 import org.apache.druid.sql.calcite.util.SpecificSegmentsQuerySegmentWalker;
@@ -65,8 +69,10 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 public class DruidSchemaTest extends CalciteTestBase
@@ -345,4 +351,99 @@ public class DruidSchemaTest extends CalciteTestBase
     Assert.assertEquals(schema.getSegmentMetadataSnapshot().size(), 2);
   }
 
+  @Test
+  public void testParallelRefreshPersistsSignatures() throws Exception
+  {
+    final File signatureFile = new File(temporaryFolder.newFolder(), "signatures.json");
+    final DruidSchema parallelSchema = new DruidSchema(
+        CalciteTests.createMockQueryLifecycleFactory(walker, conglomerate),
+        new TestServerInventoryView(walker.getSegments()),
+        new PlannerConfig()
+        {
+          @Override
+          public int getMetadataRefreshParallelism()
+          {
+            return 2;
+          }
+
+          @Override
+          public File getMetadataSignatureCacheFile()
+          {
+            return signatureFile;
+          }
+        },
+        new NoopViewManager(),
+        new NoopEscalator()
+    );
+
+    try {
+      parallelSchema.start();
+      parallelSchema.awaitInitialization();
+
+      Assert.assertEquals(ImmutableSet.of("foo", "foo2"), parallelSchema.getTableNames());
+      Assert.assertEquals(3, parallelSchema.getTotalSegments());
+
+      final Map<String, LinkedHashMap<String, ValueType>> signatures = new DefaultObjectMapper().readValue(
+          signatureFile,
+          new TypeReference<Map<String, LinkedHashMap<String, ValueType>>>()
+          {
+          }
+      );
+      Assert.assertEquals(ImmutableSet.of("foo", "foo2"), signatures.keySet());
+      Assert.assertEquals(
+          ImmutableMap.of("__time", ValueType.LONG, "dim2", ValueType.STRING, "m1", ValueType.LONG),
+          signatures.get("foo2")
+      );
+    }
+    finally {
+      parallelSchema.stop();
+    }
+  }
+
+  @Test
+  public void testStartWithPersistedSignatures() throws Exception
+  {
+    final File signatureFile = new File(temporaryFolder.newFolder(), "signatures.json");
+    new DefaultObjectMapper().writeValue(
+        signatureFile,
+        ImmutableMap.of("bar", ImmutableMap.of("__time", ValueType.LONG, "dim1", ValueType.STRING))
+    );
+
+    // Server view that never initializes, so the schema only knows about the persisted signatures.
+    final DruidSchema persistedSchema = new DruidSchema(
+        CalciteTests.createMockQueryLifecycleFactory(walker, conglomerate),
+        new TestServerInventoryView(walker.getSegments())
+        {
+          @Override
+          public void registerTimelineCallback(final Executor exec, final TimelineCallback callback)
+          {
+            // Do nothing.
+          }
+        },
+        new PlannerConfig()
+        {
+          @Override
+          public File getMetadataSignatureCacheFile()
+          {
+            return signatureFile;
+          }
+        },
+        new NoopViewManager(),
+        new NoopEscalator()
+    );
+
+    try {
+      persistedSchema.start();
+      persistedSchema.awaitInitialization();
+
+      Assert.assertEquals(ImmutableSet.of("bar"), persistedSchema.getTableNames());
+      Assert.assertEquals(
+          RowSignature.builder().add("__time", ValueType.LONG).add("dim1", ValueType.STRING).build(),
+          ((DruidTable) persistedSchema.getTableMap().get("bar")).getRowSignature()
+      );
+    }
+    finally {
+      persistedSchema.stop();
+    }
+  }
 }
@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.SettableFuture;
 import org.apache.calcite.DataContext;
 import org.apache.calcite.adapter.java.JavaTypeFactory;
@@ -69,6 +70,8 @@ import org.apache.druid.segment.incremental.IncrementalIndexSchema;
 import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMediumFactory;
 import org.apache.druid.server.DruidNode;
 import org.apache.druid.server.coordination.DruidServerMetadata;
+import org.apache.druid.server.coordination.SegmentQueryStats;
+import org.apache.druid.server.coordination.SegmentQueryStatsClient;
 import org.apache.druid.server.coordination.ServerType;
 import org.apache.druid.server.coordinator.BytesAccumulatingResponseHandler;
 import org.apache.druid.server.security.Access;
@@ -147,6 +150,7 @@ public class SystemSchemaTest extends CalciteTestBase
   private MetadataSegmentView metadataView;
   private DruidNodeDiscoveryProvider druidNodeDiscoveryProvider;
   private InventoryView serverInventoryView;
+  private SegmentQueryStatsClient segmentQueryStatsClient;
 
   @Rule
   public TemporaryFolder temporaryFolder = new TemporaryFolder();
@@ -249,6 +253,7 @@ public class SystemSchemaTest extends CalciteTestBase
     metadataView = EasyMock.createMock(MetadataSegmentView.class);
     druidNodeDiscoveryProvider = EasyMock.createMock(DruidNodeDiscoveryProvider.class);
     serverInventoryView = EasyMock.createMock(ServerInventoryView.class);
+    segmentQueryStatsClient = EasyMock.createMock(SegmentQueryStatsClient.class);
     schema = new SystemSchema(
         druidSchema,
         metadataView,
@@ -258,6 +263,7 @@ public class SystemSchemaTest extends CalciteTestBase
         client,
         client,
         druidNodeDiscoveryProvider,
+        segmentQueryStatsClient,
         mapper
     );
   }
@@ -455,10 +461,16 @@ public class SystemSchemaTest extends CalciteTestBase
   @Test
   public void testGetTableMap()
   {
-    Assert.assertEquals(ImmutableSet.of("segments", "servers", "server_segments", "tasks"), schema.getTableNames());
+    Assert.assertEquals(
+        ImmutableSet.of("segments", "servers", "server_segments", "tasks", "segment_query_stats"),
+        schema.getTableNames()
+    );
 
     final Map<String, Table> tableMap = schema.getTableMap();
-    Assert.assertEquals(ImmutableSet.of("segments", "servers", "server_segments", "tasks"), tableMap.keySet());
+    Assert.assertEquals(
+        ImmutableSet.of("segments", "servers", "server_segments", "tasks", "segment_query_stats"),
+        tableMap.keySet()
+    );
     final SystemSchema.SegmentsTable segmentsTable = (SystemSchema.SegmentsTable) schema.getTableMap().get("segments");
     final RelDataType rowType = segmentsTable.getRowType(new JavaTypeFactoryImpl());
     final List<RelDataTypeField> fields = rowType.getFieldList();
@@ -978,6 +990,73 @@ public class SystemSchemaTest extends CalciteTestBase
     verifyTypes(rows, SystemSchema.SERVER_SEGMENTS_SIGNATURE);
   }
 
+  @Test
+  public void testSegmentQueryStatsTable()
+  {
+    SystemSchema.SegmentQueryStatsTable segmentQueryStatsTable = new SystemSchema.SegmentQueryStatsTable(
+        druidNodeDiscoveryProvider,
+        segmentQueryStatsClient,
+        authMapper
+    );
+    final DruidNodeDiscovery historicalNodeDiscovery = EasyMock.createMock(DruidNodeDiscovery.class);
+    EasyMock.expect(druidNodeDiscoveryProvider.getForNodeType(NodeType.HISTORICAL))
+            .andReturn(historicalNodeDiscovery)
+            .once();
+    EasyMock.expect(historicalNodeDiscovery.getAllNodes()).andReturn(ImmutableList.of(historical1, historical2)).once();
+
+    final SegmentQueryStats stats1 =
+        new SegmentQueryStats("test1", segment1.getId().toString(), "timeseries", 10, 50, 2.5, 4.5);
+    final SegmentQueryStats stats2 =
+        new SegmentQueryStats("test2", segment2.getId().toString(), "groupBy", 1, 7, 0.1, 7);
+    EasyMock.expect(segmentQueryStatsClient.fetchSegmentQueryStats(historical1.getDruidNode()))
+            .andReturn(Futures.immediateFuture(ImmutableList.of(stats1, stats2)))
+            .once();
+    EasyMock.expect(segmentQueryStatsClient.fetchSegmentQueryStats(historical2.getDruidNode()))
+            .andReturn(Futures.immediateFailedFuture(new IOException("unreachable")))
+            .once();
+    EasyMock.replay(druidNodeDiscoveryProvider, historicalNodeDiscovery, segmentQueryStatsClient);
+
+    DataContext dataContext = new DataContext()
+    {
+      @Override
+      public SchemaPlus getRootSchema()
+      {
+        return null;
+      }
+
+      @Override
+      public JavaTypeFactory getTypeFactory()
+      {
+        return null;
+      }
+
+      @Override
+      public QueryProvider getQueryProvider()
+      {
+        return null;
+      }
+
+      @Override
+      public Object get(String name)
+      {
+        return CalciteTests.SUPER_USER_AUTH_RESULT;
+      }
+    };
+
+    // The unreachable historical is skipped.
+    final List<Object[]> rows = segmentQueryStatsTable.scan(dataContext).toList();
+    Assert.assertEquals(2, rows.size());
+    Assert.assertArrayEquals(
+        new Object[]{"localhost:8083", segment1.getId().toString(), "test1", "timeseries", 10L, 50L, 2.5, 4.5},
+        rows.get(0)
+    );
+    Assert.assertArrayEquals(
+        new Object[]{"localhost:8083", segment2.getId().toString(), "test2", "groupBy", 1L, 7L, 0.1, 7.0},
+        rows.get(1)
+    );
+    EasyMock.verify(segmentQueryStatsClient);
+  }
+
   @Test
   public void testTasksTable() throws Exception
   {
@@ -105,6 +105,7 @@ import org.apache.druid.segment.TestHelper;
 import org.apache.druid.segment.incremental.IncrementalIndexSchema;
 import org.apache.druid.segment.writeout.OffHeapMemorySegmentWriteOutMediumFactory;
 import org.apache.druid.server.QueryLifecycleFactory;
+import org.apache.druid.server.coordination.SegmentQueryStatsClient;
 import org.apache.druid.server.coordinator.BytesAccumulatingResponseHandler;
 import org.apache.druid.server.log.NoopRequestLogger;
 import org.apache.druid.server.security.Access;
@@ -766,6 +767,7 @@ public class CalciteTests
         druidLeaderClient,
         druidLeaderClient,
         EasyMock.createMock(DruidNodeDiscoveryProvider.class),
+        EasyMock.createMock(SegmentQueryStatsClient.class),
         getJsonMapper()
     );
     return schema;